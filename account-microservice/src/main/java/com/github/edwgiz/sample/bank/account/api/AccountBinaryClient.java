@@ -0,0 +1,109 @@
+package com.github.edwgiz.sample.bank.account.api;
+
+import com.github.edwgiz.sample.bank.account.jooq.tables.pojos.Account;
+import com.github.edwgiz.sample.bank.core.webapp.binary.BinaryClient;
+import com.github.edwgiz.sample.bank.core.webapp.binary.BinaryCodecUtils;
+import com.github.edwgiz.sample.bank.core.webapp.binary.BinaryFrame;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+
+import static javax.ws.rs.core.Response.Status.NO_CONTENT;
+import static javax.ws.rs.core.Response.Status.OK;
+
+/**
+ * Client of {@link AccountBinaryRoute}, pipelining the requests over one connection. The responses of the failed
+ * requests carry the status and the message the http ones would.
+ */
+public final class AccountBinaryClient implements Closeable {
+
+    private static final int PAYMENT_BYTES = 64;
+
+    private final BinaryClient client;
+
+    private AccountBinaryClient(final BinaryClient value) {
+        this.client = value;
+    }
+
+    /**
+     * @param host host of the server.
+     * @param port binary port of the server.
+     * @return the connected client.
+     * @throws IOException if it can't connect.
+     */
+    public static AccountBinaryClient connect(final String host, final int port) throws IOException {
+        return new AccountBinaryClient(BinaryClient.connect(host, port));
+    }
+
+    /**
+     * @param withdrawalAccountId account to withdraw from.
+     * @param depositAccountId    account to deposit to.
+     * @param amount              amount, its unscaled value fits into {@code long}.
+     * @param comment             comment or {@code null}.
+     * @return future of the response, see {@link #paymentIdOf(BinaryFrame)}.
+     * @throws IOException if the comment is too long to encode.
+     */
+    public CompletableFuture<BinaryFrame> pay(final long withdrawalAccountId, final long depositAccountId,
+            final BigDecimal amount, final String comment) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream(PAYMENT_BYTES);
+        final DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(withdrawalAccountId);
+        out.writeLong(depositAccountId);
+        BinaryCodecUtils.writeDecimal(out, amount);
+        BinaryCodecUtils.writeString(out, comment);
+        return client.send(AccountBinaryRoute.PAYMENT, bytes.toByteArray());
+    }
+
+    /**
+     * @param accountId identifier of the account.
+     * @return future of the response, see {@link #accountOf(BinaryFrame)}.
+     */
+    public CompletableFuture<BinaryFrame> read(final long accountId) {
+        return client.send(AccountBinaryRoute.READ_ACCOUNT,
+                ByteBuffer.allocate(Long.BYTES).putLong(accountId).array());
+    }
+
+    /**
+     * @param response response of {@link #pay(long, long, BigDecimal, String)}.
+     * @return identifier of the created payment.
+     * @throws IOException if the payment failed or the response is truncated.
+     */
+    public static long paymentIdOf(final BinaryFrame response) throws IOException {
+        checkOk(response);
+        return response.input().readLong();
+    }
+
+    /**
+     * @param response response of {@link #read(long)}.
+     * @return the account or {@code null} if there is no such one.
+     * @throws IOException if the read failed or the response is truncated.
+     */
+    public static Account accountOf(final BinaryFrame response) throws IOException {
+        Account result = null;
+        if (response.getCode() != NO_CONTENT.getStatusCode()) {
+            checkOk(response);
+            final DataInput input = response.input();
+            result = new Account(input.readLong(), BinaryCodecUtils.readDateTime(input),
+                    BinaryCodecUtils.readString(input), BinaryCodecUtils.readDecimal(input),
+                    BinaryCodecUtils.readDateTime(input), BinaryCodecUtils.readString(input));
+        }
+        return result;
+    }
+
+    private static void checkOk(final BinaryFrame response) throws IOException {
+        if (response.getCode() != OK.getStatusCode()) {
+            throw new IOException(response.getCode() + " " + response.getMessage());
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        client.close();
+    }
+}
@@ -0,0 +1,84 @@
+package com.github.edwgiz.sample.bank.account.api;
+
+import com.github.edwgiz.sample.bank.account.jooq.tables.pojos.Account;
+import com.github.edwgiz.sample.bank.account.model.NewPayment;
+import com.github.edwgiz.sample.bank.core.webapp.binary.BinaryCodecUtils;
+import com.github.edwgiz.sample.bank.core.webapp.binary.BinaryRoute;
+
+import javax.inject.Inject;
+import javax.ws.rs.core.Response;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static javax.ws.rs.core.Response.Status.NO_CONTENT;
+import static javax.ws.rs.core.Response.Status.OK;
+
+/**
+ * Serves the payments and the account reads of the binary protocol by the {@link PaymentEndpoint} and
+ * {@link AccountEndpoint} instances of jax-rs, so the validation messages and the status codes are the same as of
+ * {@code PUT /payment} and {@code GET /account/{id}}. The payloads are encoded by {@link AccountBinaryClient}.
+ */
+public final class AccountBinaryRoute implements BinaryRoute {
+
+    /**
+     * Type of the payment message.
+     */
+    public static final int PAYMENT = 1;
+    /**
+     * Type of the account read message.
+     */
+    public static final int READ_ACCOUNT = 2;
+
+    private final PaymentEndpoint paymentEndpoint;
+    private final AccountEndpoint accountEndpoint;
+
+    /**
+     * @param payments resource of {@code /payment}.
+     * @param accounts resource of {@code /account}.
+     */
+    @Inject
+    public AccountBinaryRoute(final PaymentEndpoint payments, final AccountEndpoint accounts) {
+        this.paymentEndpoint = payments;
+        this.accountEndpoint = accounts;
+    }
+
+    @Override
+    public Map<Integer, String> resources() {
+        final Map<Integer, String> result = new HashMap<>();
+        result.put(PAYMENT, "PaymentEndpoint.create");
+        result.put(READ_ACCOUNT, "AccountEndpoint.read");
+        return result;
+    }
+
+    @Override
+    public int serve(final int type, final DataInput request, final DataOutput response) throws IOException {
+        final int status;
+        if (type == PAYMENT) {
+            final NewPayment newPayment = new NewPayment();
+            newPayment.setWithdrawalAccountId(request.readLong());
+            newPayment.setDepositAccountId(request.readLong());
+            newPayment.setAmount(BinaryCodecUtils.readDecimal(request));
+            newPayment.setComment(BinaryCodecUtils.readString(request));
+            final Response created = paymentEndpoint.create(newPayment);
+            response.writeLong(Long.parseLong(String.valueOf(created.getEntity())));
+            status = created.getStatus();
+        } else {
+            final Account account = accountEndpoint.read(request.readLong());
+            if (account == null) {
+                status = NO_CONTENT.getStatusCode();
+            } else {
+                response.writeLong(account.getAccountId());
+                BinaryCodecUtils.writeDateTime(response, account.getCreated());
+                BinaryCodecUtils.writeString(response, account.getOwnerName());
+                BinaryCodecUtils.writeDecimal(response, account.getBalance());
+                BinaryCodecUtils.writeDateTime(response, account.getBalanceLastModified());
+                BinaryCodecUtils.writeString(response, account.getComment());
+                status = OK.getStatusCode();
+            }
+        }
+        return status;
+    }
+}
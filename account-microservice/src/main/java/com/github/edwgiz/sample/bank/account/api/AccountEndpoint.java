@@ -3,6 +3,10 @@ package com.github.edwgiz.sample.bank.account.api;
 import com.github.edwgiz.sample.bank.account.jooq.tables.pojos.Account;
 import com.github.edwgiz.sample.bank.account.model.NewAccount;
 import com.github.edwgiz.sample.bank.account.model.UpdateAccount;
+import com.github.edwgiz.sample.bank.account.storage.BalanceCheckpoints;
+import com.github.edwgiz.sample.bank.account.storage.PaymentEvents;
+import com.github.edwgiz.sample.bank.core.jfr.FlightEvent;
+import com.github.edwgiz.sample.bank.core.webapp.sse.EventHub.Overflow;
 import io.swagger.v3.oas.annotations.OpenAPIDefinition;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -22,28 +26,44 @@ import org.jooq.UpdateQuery;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
+import javax.ws.rs.HeaderParam;
 import javax.ws.rs.POST;
 import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.Context;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.sse.SseEventSink;
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
+import static com.github.edwgiz.sample.bank.account.api.FlightEventUtils.ACCOUNT_CHANGE;
+import static com.github.edwgiz.sample.bank.account.api.FlightEventUtils.commitAccountChange;
 import static com.github.edwgiz.sample.bank.account.jooq.Tables.ACCOUNT;
 import static com.github.edwgiz.sample.bank.core.webapp.commons.JooqAwareValidationUtils.checked;
 import static com.github.edwgiz.sample.bank.core.webapp.commons.JooqAwareValidationUtils.checkedNotNull;
+import static com.github.edwgiz.sample.bank.core.webapp.commons.ValidationUtils.exception;
 import static com.github.edwgiz.sample.bank.core.webapp.http.ResponseUtils.BAD_REQUEST_CODE;
+import static com.github.edwgiz.sample.bank.core.webapp.http.ResponseUtils.NOT_FOUND_CODE;
 import static com.github.edwgiz.sample.bank.core.webapp.http.ResponseUtils.NOT_MODIFIED_CODE;
 import static com.github.edwgiz.sample.bank.core.webapp.http.ResponseUtils.NO_CONTENT_CODE;
 import static com.github.edwgiz.sample.bank.core.webapp.http.ResponseUtils.OK_CODE;
+import static io.swagger.v3.oas.annotations.enums.ParameterIn.HEADER;
 import static io.swagger.v3.oas.annotations.enums.ParameterIn.PATH;
+import static io.swagger.v3.oas.annotations.enums.ParameterIn.QUERY;
 import static java.math.BigDecimal.ZERO;
 import static java.time.ZoneOffset.UTC;
+import static javax.ws.rs.core.HttpHeaders.LAST_EVENT_ID_HEADER;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON_TYPE;
+import static javax.ws.rs.core.MediaType.SERVER_SENT_EVENTS;
 import static javax.ws.rs.core.MediaType.TEXT_PLAIN;
+import static javax.ws.rs.core.MediaType.TEXT_PLAIN_TYPE;
+import static javax.ws.rs.core.Response.Status.NOT_FOUND;
 import static javax.ws.rs.core.Response.Status.NOT_MODIFIED;
 import static javax.ws.rs.core.Response.Status.OK;
 import static org.jooq.impl.DSL.row;
@@ -67,13 +87,20 @@ import static org.jooq.impl.DSL.row;
 public final class AccountEndpoint {
 
     private final DSLContext dslCtx;
+    private final BalanceCheckpoints balanceCheckpoints;
+    private final PaymentEvents paymentEvents;
 
     /**
-     * @param value a ready-to-use DSL context
+     * @param value       a ready-to-use DSL context
+     * @param checkpoints balance checkpoints of the accounts
+     * @param events      payment event streams
      */
     @Inject
-    public AccountEndpoint(final DSLContext value) {
+    public AccountEndpoint(final DSLContext value, final BalanceCheckpoints checkpoints,
+            final PaymentEvents events) {
         this.dslCtx = value;
+        this.balanceCheckpoints = checkpoints;
+        this.paymentEvents = events;
     }
 
 
@@ -98,6 +125,7 @@ public final class AccountEndpoint {
                 ZERO, now,
                 checked(ACCOUNT.COMMENT, newAccount.getComment()));
 
+        final FlightEvent change = ACCOUNT_CHANGE.begin();
         account.setAccountId(dslCtx.transactionResult(cnf -> {
             final InsertQuery<Record> insert = cnf.dsl().insertQuery(ACCOUNT);
             insert.setRecord(cnf.dsl().newRecord(ACCOUNT, account));
@@ -105,6 +133,7 @@ public final class AccountEndpoint {
             insert.execute();
             return insert.getResult().getValue(0, ACCOUNT.ACCOUNT_ID); // workaround to receive generated id
         }));
+        commitAccountChange(change, account.getAccountId(), "create", true);
         return Response.ok(account, APPLICATION_JSON_TYPE).build();
     }
 
@@ -126,6 +155,69 @@ public final class AccountEndpoint {
     }
 
 
+    @GET
+    @Path("/{id}/balance")
+    @Produces(TEXT_PLAIN)
+    @Operation(description = "Returns account balance at the given time", responses = {
+            @ApiResponse(responseCode = OK_CODE, description = "Balance after the payments processed until the time",
+                    content = @Content(mediaType = TEXT_PLAIN,
+                            schema = @Schema(ref = "#/components/schemas/Account/properties/balance"))),
+            @ApiResponse(responseCode = BAD_REQUEST_CODE, description = "Time is undefined",
+                    content = @Content(mediaType = TEXT_PLAIN)),
+            @ApiResponse(responseCode = NOT_FOUND_CODE, description = "Account not exists at the time",
+                    content = @Content(mediaType = TEXT_PLAIN))
+    })
+    @SuppressWarnings("checkstyle:MissingJavadocMethod")
+    public Response balance(@PathParam("id") @Parameter(in = PATH, description = "Unique identifier", required = true,
+            example = "2") final long accountId,
+            @QueryParam("at") @Parameter(in = QUERY, name = "at", required = true, example = "2020-02-02T00:00:00.000",
+                    description = "Date-time, UTC, inclusive") final LocalDateTime moment) {
+
+        if (moment == null) {
+            throw exception("'at' is undefined");
+        }
+        final BigDecimal balance = dslCtx.transactionResult(
+                cnf -> balanceCheckpoints.balanceAt(cnf, accountId, moment));
+        if (balance == null) {
+            throw exception(NOT_FOUND, new StringBuffer()
+                    .append("Account not exists by accountId=").append(accountId).append(" at ").append(moment));
+        }
+        return Response.ok(balance.toPlainString(), TEXT_PLAIN_TYPE).build();
+    }
+
+
+    @GET
+    @Path("/{id}/events")
+    @Produces(SERVER_SENT_EVENTS)
+    @Operation(description = "Streams the payments of the account committed since the request, or since the last "
+            + "received event, as server-sent events", responses = {
+            @ApiResponse(responseCode = OK_CODE, description = "'" + PaymentEvents.EVENT_NAME + "' events with "
+                    + "Payment data, and 'dropped' events with the number of the payments dropped for a slow client",
+                    content = @Content(mediaType = SERVER_SENT_EVENTS)),
+            @ApiResponse(responseCode = BAD_REQUEST_CODE, description = "Incorrect last event identifier",
+                    content = @Content(mediaType = TEXT_PLAIN)),
+            @ApiResponse(responseCode = NOT_FOUND_CODE, description = "Account not exists",
+                    content = @Content(mediaType = TEXT_PLAIN))
+    })
+    @SuppressWarnings("checkstyle:MissingJavadocMethod")
+    public void events(@PathParam("id") @Parameter(in = PATH, description = "Unique identifier", required = true,
+            example = "2") final long accountId,
+            @HeaderParam(LAST_EVENT_ID_HEADER) @Parameter(in = HEADER, name = LAST_EVENT_ID_HEADER,
+                    example = "2020-02-02T00:00:00.000/15",
+                    description = "Identifier of the last received event, to resume after") final String lastEventId,
+            @QueryParam("overflow") @DefaultValue("DISCONNECT") @Parameter(in = QUERY, name = "overflow",
+                    description = "What to do when the client doesn't keep up with the payments, DISCONNECT to "
+                            + "resume by the last event, or DROP") final Overflow overflow,
+            @Context final SseEventSink sink) {
+
+        if (!dslCtx.transactionResult(cnf -> cnf.dsl().fetchExists(ACCOUNT, ACCOUNT.ACCOUNT_ID.eq(accountId)))) {
+            throw exception(NOT_FOUND, new StringBuffer()
+                    .append("Account not exists by accountId=").append(accountId));
+        }
+        paymentEvents.subscribe(accountId, lastEventId, overflow, sink);
+    }
+
+
     @POST
     @Operation(description = "Update account", responses = {
             @ApiResponse(responseCode = OK_CODE, description = "Account successfully updated"),
@@ -140,6 +232,7 @@ public final class AccountEndpoint {
             + "  \"comment\": \"Cartoon Character\"\n"
             + "}"), schema = @Schema(ref = "#/components/schemas/UpdateAccount"))) final UpdateAccount account) {
 
+        final FlightEvent change = ACCOUNT_CHANGE.begin();
         final int rows = dslCtx.transactionResult(cnf -> {
             final UpdateQuery<?> update = cnf.dsl().updateQuery(ACCOUNT);
             update.addValues(row(ACCOUNT.OWNER_NAME, ACCOUNT.COMMENT), row(
@@ -148,6 +241,7 @@ public final class AccountEndpoint {
             update.addConditions(ACCOUNT.ACCOUNT_ID.eq(checkedNotNull(ACCOUNT.ACCOUNT_ID, account.getAccountId())));
             return update.execute();
         });
+        commitAccountChange(change, account.getAccountId(), "update", rows == 1);
 
         return Response.status(rows == 1 ? OK : NOT_MODIFIED).build();
     }
@@ -163,9 +257,11 @@ public final class AccountEndpoint {
     public Response delete(@PathParam("id") @Parameter(in = PATH, description = "Unique identifier", required = true,
             example = "2") final long accountId) {
 
+        final FlightEvent change = ACCOUNT_CHANGE.begin();
         final int rows = dslCtx.transactionResult(cnf -> cnf.dsl()
                 .delete(ACCOUNT).where(ACCOUNT.ACCOUNT_ID.eq(accountId))
                 .execute());
+        commitAccountChange(change, accountId, "delete", rows == 1);
 
         return Response.status(rows == 1 ? OK : NOT_MODIFIED).build();
     }
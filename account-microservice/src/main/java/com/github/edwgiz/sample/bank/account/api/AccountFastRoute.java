@@ -0,0 +1,108 @@
+package com.github.edwgiz.sample.bank.account.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.github.edwgiz.sample.bank.account.jooq.tables.pojos.Account;
+import com.github.edwgiz.sample.bank.account.model.NewPayment;
+import com.github.edwgiz.sample.bank.core.webapp.FastPathHandler;
+import com.github.edwgiz.sample.bank.core.webapp.FastRoute;
+import org.glassfish.grizzly.http.Method;
+import org.glassfish.grizzly.http.server.Request;
+import org.glassfish.grizzly.http.server.Response;
+import org.glassfish.grizzly.http.util.Header;
+
+import javax.inject.Inject;
+import java.io.IOException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
+import static javax.ws.rs.core.MediaType.TEXT_PLAIN;
+
+/**
+ * Serves {@code PUT /payment} and {@code GET /account/{id}} by the {@link PaymentEndpoint} and
+ * {@link AccountEndpoint} instances of jax-rs, so the validation messages and the status codes are the same. Reads
+ * and writes the json by the reader and the writer built once. The requests which jax-rs would respond differently,
+ * like with an unsupported media type or a non-numeric identifier, are passed to jax-rs.
+ */
+public final class AccountFastRoute implements FastRoute {
+
+    private static final String PAYMENT_PATH = "/payment";
+    private static final String ACCOUNT_PATH = "/account/";
+    /**
+     * Maximum number of the identifier digits, which always fit into {@code long}.
+     */
+    private static final int MAX_ID_DIGITS = 18;
+    private static final int STATUS_NO_CONTENT = javax.ws.rs.core.Response.Status.NO_CONTENT.getStatusCode();
+    private static final int STATUS_OK = javax.ws.rs.core.Response.Status.OK.getStatusCode();
+
+    private final PaymentEndpoint paymentEndpoint;
+    private final AccountEndpoint accountEndpoint;
+    private final ObjectReader newPaymentReader;
+    private final ObjectWriter accountWriter;
+
+    /**
+     * @param payments resource of {@code /payment}.
+     * @param accounts resource of {@code /account}.
+     * @param mapper   mapper of the jax-rs application.
+     */
+    @Inject
+    public AccountFastRoute(final PaymentEndpoint payments, final AccountEndpoint accounts,
+            final ObjectMapper mapper) {
+        this.paymentEndpoint = payments;
+        this.accountEndpoint = accounts;
+        this.newPaymentReader = mapper.readerFor(NewPayment.class);
+        this.accountWriter = mapper.writerFor(Account.class);
+    }
+
+    @Override
+    public String resourceOf(final Request request) {
+        final String uri = request.getRequestURI();
+        String result = null;
+        if (Method.PUT.equals(request.getMethod())) {
+            if (PAYMENT_PATH.equals(uri) && isJson(request.getContentType()) && request.getContentLength() != 0) {
+                result = "PaymentEndpoint.create";
+            }
+        } else if (Method.GET.equals(request.getMethod()) && isAccountId(uri) && acceptsJson(
+                request.getHeader(Header.Accept))) {
+            result = "AccountEndpoint.read";
+        }
+        return result;
+    }
+
+    @Override
+    public void serve(final Request request, final Response response) throws IOException {
+        if (Method.PUT.equals(request.getMethod())) {
+            final javax.ws.rs.core.Response created = paymentEndpoint.create(
+                    newPaymentReader.readValue(request.getInputStream()));
+            FastPathHandler.send(response, created.getStatus(), TEXT_PLAIN,
+                    String.valueOf(created.getEntity()).getBytes(UTF_8));
+        } else {
+            final Account account = accountEndpoint.read(
+                    Long.parseLong(request.getRequestURI().substring(ACCOUNT_PATH.length())));
+            if (account == null) {
+                FastPathHandler.send(response, STATUS_NO_CONTENT, null, null);
+            } else {
+                FastPathHandler.send(response, STATUS_OK, APPLICATION_JSON, accountWriter.writeValueAsBytes(account));
+            }
+        }
+    }
+
+    private static boolean isJson(final String contentType) {
+        return contentType != null && contentType.startsWith(APPLICATION_JSON);
+    }
+
+    private static boolean isAccountId(final String uri) {
+        final int length = uri.length() - ACCOUNT_PATH.length();
+        boolean result = length > 0 && length <= MAX_ID_DIGITS && uri.startsWith(ACCOUNT_PATH);
+        for (int i = ACCOUNT_PATH.length(); result && i < uri.length(); i++) {
+            result = Character.isDigit(uri.charAt(i));
+        }
+        return result;
+    }
+
+    private static boolean acceptsJson(final String accept) {
+        return accept == null || accept.contains(APPLICATION_JSON) || accept.contains("*/*")
+                || accept.contains("application/*");
+    }
+}
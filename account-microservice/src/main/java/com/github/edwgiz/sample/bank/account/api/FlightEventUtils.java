@@ -0,0 +1,116 @@
+package com.github.edwgiz.sample.bank.account.api;
+
+import com.github.edwgiz.sample.bank.core.jfr.FlightEvent;
+import com.github.edwgiz.sample.bank.core.jfr.FlightEventType;
+
+import javax.ws.rs.WebApplicationException;
+
+import static com.github.edwgiz.sample.bank.core.jfr.FlightEventType.Field.booleanField;
+import static com.github.edwgiz.sample.bank.core.jfr.FlightEventType.Field.longField;
+import static com.github.edwgiz.sample.bank.core.jfr.FlightEventType.Field.stringField;
+
+/**
+ * Flight recorder events of the payment and account lifecycles, started by {@link FlightEventType#begin()} before
+ * the timed operation and committed after it by the local methods.
+ */
+final class FlightEventUtils {
+
+    private static final String PREFIX = "com.github.edwgiz.sample.bank.";
+    private static final String CATEGORY = "Bank";
+    private static final String ACCOUNT_ID = "accountId";
+    private static final String ACCOUNT_LABEL = "Account";
+    private static final String PAYMENT_ID = "paymentId";
+    private static final String PAYMENT_LABEL = "Payment";
+    private static final String SIDE = "side";
+    private static final String SIDE_LABEL = "Account Side";
+    private static final String WITHDRAWAL_ACCOUNT_ID = "withdrawalAccountId";
+    private static final String DEPOSIT_ACCOUNT_ID = "depositAccountId";
+    private static final String OPERATION = "operation";
+    private static final String ACQUIRED = "acquired";
+    private static final String COMMITTED = "committed";
+    private static final String ROLLBACK_REASON = "rollbackReason";
+    private static final String CHANGED = "changed";
+
+    /**
+     * Row lock of an account taken by a payment, timed with the wait.
+     */
+    /* default */static final FlightEventType PAYMENT_LOCK = new FlightEventType(PREFIX + "PaymentLock",
+            "Payment Lock", CATEGORY, longField(ACCOUNT_ID, ACCOUNT_LABEL), stringField(SIDE, SIDE_LABEL),
+            booleanField(ACQUIRED, "Acquired"));
+
+    /**
+     * Insert of a payment.
+     */
+    /* default */static final FlightEventType PAYMENT_INSERT = new FlightEventType(PREFIX + "PaymentInsert",
+            "Payment Insert", CATEGORY, longField(PAYMENT_ID, PAYMENT_LABEL));
+
+    /**
+     * Update of an account balance by a payment.
+     */
+    /* default */static final FlightEventType BALANCE_UPDATE = new FlightEventType(PREFIX + "BalanceUpdate",
+            "Balance Update", CATEGORY, longField(ACCOUNT_ID, ACCOUNT_LABEL), stringField(SIDE, SIDE_LABEL));
+
+    /**
+     * Transaction of a payment, from its begin to the commit or the rollback.
+     */
+    /* default */static final FlightEventType PAYMENT_TRANSACTION = new FlightEventType(PREFIX + "PaymentTransaction",
+            "Payment Transaction", CATEGORY, longField(PAYMENT_ID, PAYMENT_LABEL),
+            longField(WITHDRAWAL_ACCOUNT_ID, "Withdrawal Account"), longField(DEPOSIT_ACCOUNT_ID, "Deposit Account"),
+            booleanField(COMMITTED, "Committed"), stringField(ROLLBACK_REASON, "Rollback Reason"));
+
+    /**
+     * Transaction creating, updating or deleting an account.
+     */
+    /* default */static final FlightEventType ACCOUNT_CHANGE = new FlightEventType(PREFIX + "AccountChange",
+            "Account Change", CATEGORY, longField(ACCOUNT_ID, ACCOUNT_LABEL), stringField(OPERATION, "Operation"),
+            booleanField(CHANGED, "Changed"));
+
+    private FlightEventUtils() {
+    }
+
+    /* default */static void commitLock(final FlightEvent event, final long accountId, final String accountSide,
+            final boolean acquired) {
+        event.set(ACCOUNT_ID, accountId).set(SIDE, accountSide).set(ACQUIRED, acquired).commit();
+    }
+
+    /* default */static void commitInsert(final FlightEvent event, final long paymentId) {
+        event.set(PAYMENT_ID, paymentId).commit();
+    }
+
+    /* default */static void commitBalanceUpdate(final FlightEvent event, final long accountId,
+            final String accountSide) {
+        event.set(ACCOUNT_ID, accountId).set(SIDE, accountSide).commit();
+    }
+
+    /**
+     * @param event               started event of {@link #PAYMENT_TRANSACTION}.
+     * @param paymentId           {@code null} if the transaction is rolled back before the payment insert.
+     * @param withdrawalAccountId withdrawal account of the payment.
+     * @param depositAccountId    deposit account of the payment.
+     * @param rollbackReason      {@code null} for a committed transaction.
+     */
+    /* default */static void commitTransaction(final FlightEvent event, final Long paymentId,
+            final long withdrawalAccountId, final long depositAccountId, final String rollbackReason) {
+        event.set(WITHDRAWAL_ACCOUNT_ID, withdrawalAccountId).set(DEPOSIT_ACCOUNT_ID, depositAccountId)
+                .set(COMMITTED, rollbackReason == null).set(ROLLBACK_REASON, rollbackReason);
+        if (paymentId != null) {
+            event.set(PAYMENT_ID, paymentId);
+        }
+        event.commit();
+    }
+
+    /**
+     * @param failure exception rolled the transaction back.
+     * @return message of a rejected payment, or the description of another failure.
+     */
+    /* default */static String rollbackReason(final Throwable failure) {
+        final Object entity = failure instanceof WebApplicationException
+                ? ((WebApplicationException) failure).getResponse().getEntity() : null;
+        return entity instanceof String ? (String) entity : failure.toString();
+    }
+
+    /* default */static void commitAccountChange(final FlightEvent event, final long accountId,
+            final String operation, final boolean changed) {
+        event.set(ACCOUNT_ID, accountId).set(OPERATION, operation).set(CHANGED, changed).commit();
+    }
+}
@@ -0,0 +1,59 @@
+package com.github.edwgiz.sample.bank.account.api;
+
+import com.github.edwgiz.sample.bank.account.model.LockContentionReport;
+import com.github.edwgiz.sample.bank.account.storage.LockContention;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+
+import javax.inject.Inject;
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+
+import static com.github.edwgiz.sample.bank.core.webapp.commons.ValidationUtils.exception;
+import static com.github.edwgiz.sample.bank.core.webapp.http.ResponseUtils.BAD_REQUEST_CODE;
+import static com.github.edwgiz.sample.bank.core.webapp.http.ResponseUtils.OK_CODE;
+import static io.swagger.v3.oas.annotations.enums.ParameterIn.QUERY;
+import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
+import static javax.ws.rs.core.MediaType.TEXT_PLAIN;
+
+@Path("/admin/contention")
+public final class LockContentionEndpoint {
+
+    private final LockContention lockContention;
+
+    /**
+     * @param contention contention for the account locks
+     */
+    @Inject
+    public LockContentionEndpoint(final LockContention contention) {
+        this.lockContention = contention;
+    }
+
+
+    @GET
+    @Produces(APPLICATION_JSON)
+    @Operation(description = "Returns the accounts contended for their locks the most and the database sessions "
+            + "waiting for a lock", responses = {
+            @ApiResponse(responseCode = OK_CODE, content = @Content(mediaType = APPLICATION_JSON,
+                    schema = @Schema(implementation = LockContentionReport.class))),
+            @ApiResponse(responseCode = BAD_REQUEST_CODE, description = "Incorrect request parameters",
+                    content = @Content(mediaType = TEXT_PLAIN)),
+    })
+    @SuppressWarnings("checkstyle:MissingJavadocMethod")
+    public LockContentionReport report(
+            @QueryParam("limit") @DefaultValue("10") @Parameter(in = QUERY, example = "10",
+                    description = "Maximum number of the accounts, up to " + LockContention.HOT_ACCOUNTS)
+            final int limit) {
+
+        if (limit <= 0 || limit > LockContention.HOT_ACCOUNTS) {
+            throw exception("'limit' must be within 1.." + LockContention.HOT_ACCOUNTS);
+        }
+        return lockContention.report(limit);
+    }
+}
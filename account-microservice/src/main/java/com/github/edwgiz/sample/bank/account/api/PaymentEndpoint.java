@@ -1,7 +1,21 @@
 package com.github.edwgiz.sample.bank.account.api;
 
 import com.github.edwgiz.sample.bank.account.jooq.tables.pojos.Payment;
+import com.github.edwgiz.sample.bank.account.model.ChangePage;
 import com.github.edwgiz.sample.bank.account.model.NewPayment;
+import com.github.edwgiz.sample.bank.account.model.OutboxLag;
+import com.github.edwgiz.sample.bank.account.model.StatementEntry;
+import com.github.edwgiz.sample.bank.account.storage.BalanceCheckpoints;
+import com.github.edwgiz.sample.bank.account.storage.ChangeFeed;
+import com.github.edwgiz.sample.bank.account.storage.LockContention;
+import com.github.edwgiz.sample.bank.account.storage.PaymentEvents;
+import com.github.edwgiz.sample.bank.account.storage.PaymentOutbox;
+import com.github.edwgiz.sample.bank.account.storage.PaymentStorage;
+import com.github.edwgiz.sample.bank.account.storage.StatementExport;
+import com.github.edwgiz.sample.bank.core.jfr.FlightEvent;
+import com.github.edwgiz.sample.bank.core.metrics.ServerTiming;
+import com.github.edwgiz.sample.bank.core.metrics.ServerTiming.Phase;
+import com.github.edwgiz.sample.bank.core.webapp.WebAppBase;
 import com.github.edwgiz.sample.bank.core.webapp.commons.JooqAwareValidationUtils;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -13,14 +27,13 @@ import io.swagger.v3.oas.annotations.parameters.RequestBody;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import org.jooq.Configuration;
 import org.jooq.DSLContext;
-import org.jooq.InsertQuery;
-import org.jooq.Record;
 import org.jooq.UpdateQuery;
 import org.jooq.exception.DataAccessException;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import javax.ws.rs.Consumes;
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.PUT;
 import javax.ws.rs.Path;
@@ -29,9 +42,19 @@ import javax.ws.rs.QueryParam;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Response;
 import java.math.BigDecimal;
+import java.net.URI;
 import java.time.LocalDateTime;
 import java.util.List;
 
+import static com.github.edwgiz.sample.bank.account.api.FlightEventUtils.BALANCE_UPDATE;
+import static com.github.edwgiz.sample.bank.account.api.FlightEventUtils.PAYMENT_INSERT;
+import static com.github.edwgiz.sample.bank.account.api.FlightEventUtils.PAYMENT_LOCK;
+import static com.github.edwgiz.sample.bank.account.api.FlightEventUtils.PAYMENT_TRANSACTION;
+import static com.github.edwgiz.sample.bank.account.api.FlightEventUtils.commitBalanceUpdate;
+import static com.github.edwgiz.sample.bank.account.api.FlightEventUtils.commitInsert;
+import static com.github.edwgiz.sample.bank.account.api.FlightEventUtils.commitLock;
+import static com.github.edwgiz.sample.bank.account.api.FlightEventUtils.commitTransaction;
+import static com.github.edwgiz.sample.bank.account.api.FlightEventUtils.rollbackReason;
 import static com.github.edwgiz.sample.bank.account.jooq.Tables.ACCOUNT;
 import static com.github.edwgiz.sample.bank.account.jooq.Tables.PAYMENT;
 import static com.github.edwgiz.sample.bank.core.webapp.commons.JooqAwareValidationUtils.checked;
@@ -41,9 +64,11 @@ import static com.github.edwgiz.sample.bank.core.webapp.commons.ValidationUtils.
 import static com.github.edwgiz.sample.bank.core.webapp.http.ResponseUtils.BAD_REQUEST_CODE;
 import static com.github.edwgiz.sample.bank.core.webapp.http.ResponseUtils.CONFLICT_CODE;
 import static com.github.edwgiz.sample.bank.core.webapp.http.ResponseUtils.OK_CODE;
+import static com.github.edwgiz.sample.bank.core.webapp.http.ResponseUtils.SEE_OTHER_CODE;
 import static io.swagger.v3.oas.annotations.enums.ParameterIn.QUERY;
 import static java.time.LocalDateTime.now;
 import static java.time.ZoneOffset.UTC;
+import static java.time.temporal.ChronoUnit.MILLIS;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
 import static javax.ws.rs.core.MediaType.TEXT_PLAIN;
 import static javax.ws.rs.core.MediaType.TEXT_PLAIN_TYPE;
@@ -55,14 +80,41 @@ import static org.jooq.impl.DSL.row;
 @Singleton
 public final class PaymentEndpoint {
 
+    private static final String DEFAULT_CHANGES_LIMIT = "100";
+    private static final int MAX_CHANGES_LIMIT = 1000;
+
     private final DSLContext dslCtx;
+    private final PaymentStorage paymentStorage;
+    private final BalanceCheckpoints balanceCheckpoints;
+    private final StatementExport statementExport;
+    private final PaymentEvents paymentEvents;
+    private final PaymentOutbox paymentOutbox;
+    private final ChangeFeed changeFeed;
+    private final LockContention lockContention;
 
     /**
-     * @param value a ready-to-use DSL context
+     * @param value       a ready-to-use DSL context
+     * @param storage     partitioned payment storage
+     * @param checkpoints balance checkpoints of the accounts
+     * @param export      CSV statement export
+     * @param events      payment event streams
+     * @param outbox      outbox of the payments for the downstream consumers
+     * @param changes     feed of the committed payments
+     * @param contention  contention for the account locks
      */
     @Inject
-    public PaymentEndpoint(final DSLContext value) {
+    @SuppressWarnings("checkstyle:ParameterNumber") // the shared components of the payments
+    public PaymentEndpoint(final DSLContext value, final PaymentStorage storage,
+            final BalanceCheckpoints checkpoints, final StatementExport export, final PaymentEvents events,
+            final PaymentOutbox outbox, final ChangeFeed changes, final LockContention contention) {
         this.dslCtx = value;
+        this.paymentStorage = storage;
+        this.balanceCheckpoints = checkpoints;
+        this.statementExport = export;
+        this.paymentEvents = events;
+        this.paymentOutbox = outbox;
+        this.changeFeed = changes;
+        this.lockContention = contention;
     }
 
 
@@ -86,42 +138,74 @@ public final class PaymentEndpoint {
                     + "  \"comment\": \"Donation\"\n"
                     + "}", ref = "#/components/schemas/NewPayment"))) final NewPayment newPayment) {
 
-        final LocalDateTime now = now(UTC);
-        final Payment payment = new Payment(null, now,
-                checkedPositive(PAYMENT.AMOUNT, newPayment.getAmount()),
-                checkedNotNull(PAYMENT.WITHDRAWAL_ACCOUNT_ID, newPayment.getWithdrawalAccountId()),
-                checkedNotNull(PAYMENT.DEPOSIT_ACCOUNT_ID, newPayment.getDepositAccountId()),
-                checked(PAYMENT.COMMENT, newPayment.getComment()));
-
-        if (payment.getWithdrawalAccountId().equals(payment.getDepositAccountId())) {
-            throw JooqAwareValidationUtils.exception(PAYMENT.WITHDRAWAL_ACCOUNT_ID,
-                    " and ", PAYMENT.DEPOSIT_ACCOUNT_ID,
-                    " must reference to different accounts");
-        }
+        final Payment payment;
+        final long validationStart = ServerTiming.enter();
+        try {
+            payment = new Payment(null, null,
+                    checkedPositive(PAYMENT.AMOUNT, newPayment.getAmount()),
+                    checkedNotNull(PAYMENT.WITHDRAWAL_ACCOUNT_ID, newPayment.getWithdrawalAccountId()),
+                    checkedNotNull(PAYMENT.DEPOSIT_ACCOUNT_ID, newPayment.getDepositAccountId()),
+                    checked(PAYMENT.COMMENT, newPayment.getComment()));
 
-        return dslCtx.transactionResult(cnf -> {
-            final BigDecimal withdrawalBalance;
-            final BigDecimal depositBalance;
-            if (payment.getWithdrawalAccountId() < payment.getDepositAccountId()) {
-                withdrawalBalance = getWithdrawalBalanceExclusively(cnf, payment.getWithdrawalAccountId());
-                depositBalance = getDepositBalanceExclusively(cnf, payment.getDepositAccountId());
-            } else {
-                // reorder to avoid a deadlock
-                depositBalance = getDepositBalanceExclusively(cnf, payment.getDepositAccountId());
-                withdrawalBalance = getWithdrawalBalanceExclusively(cnf, payment.getWithdrawalAccountId());
-            }
-            if (withdrawalBalance.compareTo(payment.getAmount()) < 0) {
-                throw exception("Insufficient withdrawal balance");
+            if (payment.getWithdrawalAccountId().equals(payment.getDepositAccountId())) {
+                throw JooqAwareValidationUtils.exception(PAYMENT.WITHDRAWAL_ACCOUNT_ID,
+                        " and ", PAYMENT.DEPOSIT_ACCOUNT_ID,
+                        " must reference to different accounts");
             }
+        } finally {
+            ServerTiming.exit(Phase.VALIDATE, validationStart);
+        }
+
+        paymentStorage.prepare(now(UTC));
+        // the change feed must learn the outcome of the transaction with a taken payment identifier
+        boolean committed = false;
+        String rollbackReason = null;
+        final FlightEvent transaction = PAYMENT_TRANSACTION.begin();
+        final Long paymentId;
+        try {
+            paymentId = dslCtx.transactionResult(cnf -> {
+                final BigDecimal withdrawalBalance;
+                final BigDecimal depositBalance;
+                if (payment.getWithdrawalAccountId() < payment.getDepositAccountId()) {
+                    withdrawalBalance = getWithdrawalBalanceExclusively(cnf, payment.getWithdrawalAccountId());
+                    depositBalance = getDepositBalanceExclusively(cnf, payment.getDepositAccountId());
+                } else {
+                    // reorder to avoid a deadlock
+                    depositBalance = getDepositBalanceExclusively(cnf, payment.getDepositAccountId());
+                    withdrawalBalance = getWithdrawalBalanceExclusively(cnf, payment.getWithdrawalAccountId());
+                }
+                if (withdrawalBalance.compareTo(payment.getAmount()) < 0) {
+                    throw exception("Insufficient withdrawal balance");
+                }
 
-            final Long paymentId = insertPayment(payment, cnf);
 
-            updateAccount(cnf, payment.getWithdrawalAccountId(), withdrawalBalance.subtract(payment.getAmount()),
-                    now, "withdraw");
-            updateAccount(cnf, payment.getDepositAccountId(), depositBalance.add(payment.getAmount()),
-                    now, "deposit");
-            return Response.ok(Long.toString(paymentId)).type(TEXT_PLAIN_TYPE).build();
-        });
+                // taken under the account locks, so the payments of an account are ordered by the processing time,
+                // with the precision of the column, so the published payment is the same as the stored one
+                final LocalDateTime now = now(UTC).truncatedTo(MILLIS);
+                payment.setProcessed(now);
+                insertPayment(payment, cnf);
+
+                final BigDecimal withdrawalBalanceAfter = withdrawalBalance.subtract(payment.getAmount());
+                final BigDecimal depositBalanceAfter = depositBalance.add(payment.getAmount());
+                updateAccount(cnf, payment.getWithdrawalAccountId(), withdrawalBalanceAfter, now, "withdraw");
+                updateAccount(cnf, payment.getDepositAccountId(), depositBalanceAfter, now, "deposit");
+                balanceCheckpoints.update(cnf, payment.getWithdrawalAccountId(), withdrawalBalance, payment,
+                        withdrawalBalanceAfter);
+                balanceCheckpoints.update(cnf, payment.getDepositAccountId(), depositBalance, payment,
+                        depositBalanceAfter);
+                return payment.getPaymentId();
+            });
+            committed = true;
+        } catch (RuntimeException | Error ex) {
+            rollbackReason = rollbackReason(ex);
+            throw ex;
+        } finally {
+            changeFeed.complete(payment, committed);
+            commitTransaction(transaction, payment.getPaymentId(), payment.getWithdrawalAccountId(),
+                    payment.getDepositAccountId(), rollbackReason);
+        }
+        paymentEvents.publish(payment);
+        return Response.ok(Long.toString(paymentId)).type(TEXT_PLAIN_TYPE).build();
     }
 
     /* default */BigDecimal getWithdrawalBalanceExclusively(final Configuration cnf, final long accountId) {
@@ -134,11 +218,23 @@ public final class PaymentEndpoint {
 
     /* default */BigDecimal getBalanceExclusively(final long accountId, final Configuration cnf,
             final String accountSide) throws WebApplicationException {
+        final FlightEvent lock = PAYMENT_LOCK.begin();
+        final long lockStart = ServerTiming.enter();
         try {
-            final BigDecimal balance = cnf.dsl()
-                    .select(ACCOUNT.BALANCE, ACCOUNT.BALANCE_LAST_MODIFIED).from(ACCOUNT)
-                    .where(ACCOUNT.ACCOUNT_ID.eq(accountId)).forUpdate()
-                    .fetchAny(ACCOUNT.BALANCE);
+            final BigDecimal balance;
+            boolean acquired = false;
+            try {
+                // the row lock wait is a part of the statement execution, so it's timed as a whole
+                balance = cnf.dsl()
+                        .select(ACCOUNT.BALANCE, ACCOUNT.BALANCE_LAST_MODIFIED).from(ACCOUNT)
+                        .where(ACCOUNT.ACCOUNT_ID.eq(accountId)).forUpdate()
+                        .fetchAny(ACCOUNT.BALANCE);
+                acquired = true;
+            } finally {
+                lockContention.record(accountId, System.nanoTime() - lockStart, acquired);
+                ServerTiming.exit(Phase.LOCK, lockStart);
+                commitLock(lock, accountId, accountSide, acquired);
+            }
             if (balance == null) {
                 throw exception(new StringBuffer()
                         .append(accountSide).append(" account not exists by accountId=").append(accountId));
@@ -152,11 +248,12 @@ public final class PaymentEndpoint {
     }
 
     /* default */Long insertPayment(final Payment values, final Configuration cnf) {
-        final InsertQuery<Record> insert = cnf.dsl().insertQuery(PAYMENT);
-        insert.setRecord(cnf.dsl().newRecord(PAYMENT, values));
-        insert.setReturning(PAYMENT.PAYMENT_ID);
-        insertPaymentCheckUpdatedRows(insert.execute());
-        return insert.getResult().getValue(0, PAYMENT.PAYMENT_ID);
+        final FlightEvent insert = PAYMENT_INSERT.begin();
+        values.setPaymentId(changeFeed.takeId(cnf));
+        insertPaymentCheckUpdatedRows(paymentStorage.insert(cnf, values));
+        paymentOutbox.insert(cnf, values);
+        commitInsert(insert, values.getPaymentId());
+        return values.getPaymentId();
     }
 
     /* default */void insertPaymentCheckUpdatedRows(final int rows) {
@@ -167,11 +264,13 @@ public final class PaymentEndpoint {
 
     /* default */void updateAccount(final Configuration cnf, final long accountId, final BigDecimal balance,
             final LocalDateTime processingDatetime, final String accountSide) {
+        final FlightEvent balanceUpdate = BALANCE_UPDATE.begin();
         final UpdateQuery<?> update = cnf.dsl().updateQuery(ACCOUNT);
         update.addConditions(ACCOUNT.ACCOUNT_ID.eq(accountId));
         update.addValues(row(ACCOUNT.BALANCE, ACCOUNT.BALANCE_LAST_MODIFIED), row(balance, processingDatetime));
         final int rows = update.execute();
         updateAccountCheckUpdatedRows(rows, accountSide);
+        commitBalanceUpdate(balanceUpdate, accountId, accountSide);
     }
 
     /* default */void updateAccountCheckUpdatedRows(final int rows, final String accountSide) {
@@ -202,19 +301,113 @@ public final class PaymentEndpoint {
                     example = "2020-03-02T00:00:00.000", description = "Processed date-time to, UTC, inclusive")
             final LocalDateTime intervalTo) {
 
+        validateListParameters(accountId, intervalFrom, intervalTo);
+        return dslCtx.transactionResult(cnf -> paymentStorage.list(cnf, accountId, intervalFrom, intervalTo));
+    }
+
+
+    @GET
+    @Path("/statement")
+    @Produces(APPLICATION_JSON)
+    @Operation(description = "Returns filtered payments sorted by processed date, with the running account balance",
+            responses = {
+                    @ApiResponse(responseCode = OK_CODE,
+                            content = @Content(mediaType = APPLICATION_JSON, array = @ArraySchema(schema =
+                            @Schema(implementation = StatementEntry.class)))),
+                    @ApiResponse(responseCode = BAD_REQUEST_CODE, description = "Incorrect request parameters",
+                            content = @Content(mediaType = TEXT_PLAIN)),
+            })
+    @SuppressWarnings("checkstyle:MissingJavadocMethod")
+    public List<StatementEntry> statement(
+            @QueryParam("accountId") @Parameter(in = QUERY, required = true, example = "2",
+                    description = "Unique Identifier, picks up both, withdrawal and deposit accounts")
+            final Long accountId,
+            @QueryParam("from") @Parameter(in = QUERY, name = "from", required = true,
+                    example = "2020-02-02T00:00:00.000", description = "Processed date-time from, UTC, inclusive")
+            final LocalDateTime intervalFrom,
+            @QueryParam("to") @Parameter(in = QUERY, name = "to", required = true,
+                    example = "2020-03-02T00:00:00.000", description = "Processed date-time to, UTC, inclusive")
+            final LocalDateTime intervalTo) {
+
+        validateListParameters(accountId, intervalFrom, intervalTo);
+        return dslCtx.transactionResult(cnf -> balanceCheckpoints.statement(cnf, accountId, intervalFrom,
+                intervalTo));
+    }
+
+    @GET
+    @Path("/statement.csv")
+    @Operation(description = "Exports filtered payments sorted by processed date into CSV file", responses = {
+            @ApiResponse(responseCode = SEE_OTHER_CODE, description = "The file is ready to download by 'Location'"),
+            @ApiResponse(responseCode = BAD_REQUEST_CODE, description = "Incorrect request parameters",
+                    content = @Content(mediaType = TEXT_PLAIN)),
+    })
+    @SuppressWarnings("checkstyle:MissingJavadocMethod")
+    public Response export(
+            @QueryParam("accountId") @Parameter(in = QUERY, required = true, example = "2",
+                    description = "Unique Identifier, picks up both, withdrawal and deposit accounts")
+            final Long accountId,
+            @QueryParam("from") @Parameter(in = QUERY, name = "from", required = true,
+                    example = "2020-02-02T00:00:00.000", description = "Processed date-time from, UTC, inclusive")
+            final LocalDateTime intervalFrom,
+            @QueryParam("to") @Parameter(in = QUERY, name = "to", required = true,
+                    example = "2020-03-02T00:00:00.000", description = "Processed date-time to, UTC, inclusive")
+            final LocalDateTime intervalTo) {
+
+        validateListParameters(accountId, intervalFrom, intervalTo);
+        statementExport.export(accountId, intervalFrom, intervalTo);
+        // the file is sent by the web server itself, bypassing jax-rs
+        return Response.seeOther(URI.create(WebAppBase.FILES_CONTEXT_PATH + '/'
+                + statementExport.fileName(accountId, intervalFrom, intervalTo))).build();
+    }
+
+    @GET
+    @Path("/changes")
+    @Produces(APPLICATION_JSON)
+    @Operation(description = "Returns payments of all the accounts committed after the position, sorted by "
+            + "identifier, for an incremental synchronization", responses = {
+            @ApiResponse(responseCode = OK_CODE, content = @Content(mediaType = APPLICATION_JSON,
+                    schema = @Schema(implementation = ChangePage.class))),
+            @ApiResponse(responseCode = BAD_REQUEST_CODE, description = "Incorrect request parameters",
+                    content = @Content(mediaType = TEXT_PLAIN)),
+    })
+    @SuppressWarnings("checkstyle:MissingJavadocMethod")
+    public ChangePage changes(
+            @QueryParam("after") @DefaultValue("0") @Parameter(in = QUERY, example = "0",
+                    description = "Position, 'next' of the previous page, exclusive") final long after,
+            @QueryParam("limit") @DefaultValue(DEFAULT_CHANGES_LIMIT) @Parameter(in = QUERY, example = "100",
+                    description = "Maximum number of the payments, up to " + MAX_CHANGES_LIMIT) final int limit) {
+
+        if (limit <= 0 || limit > MAX_CHANGES_LIMIT) {
+            throw exception("'limit' must be within 1.." + MAX_CHANGES_LIMIT);
+        }
+        return changeFeed.changes(after, limit);
+    }
+
+    @GET
+    @Path("/outbox")
+    @Produces(APPLICATION_JSON)
+    @Operation(description = "Returns the lag of the payment delivery to the downstream consumers", responses = {
+            @ApiResponse(responseCode = OK_CODE, content = @Content(mediaType = APPLICATION_JSON,
+                    schema = @Schema(implementation = OutboxLag.class)))
+    })
+    @SuppressWarnings("checkstyle:MissingJavadocMethod")
+    public OutboxLag outbox() {
+        return dslCtx.transactionResult(paymentOutbox::lag);
+    }
+
+    private static void validateListParameters(final Long accountId, final LocalDateTime intervalFrom,
+            final LocalDateTime intervalTo) {
         if (accountId == null) {
             throw exception("'accountId' is undefined");
         }
+        if (intervalFrom == null) {
+            throw exception("'from' is undefined");
+        }
+        if (intervalTo == null) {
+            throw exception("'to' is undefined");
+        }
         if (intervalFrom.compareTo(intervalTo) > 0) {
             throw exception("'from' must not be after 'to'");
         }
-
-        return dslCtx.transactionResult(cnf -> cnf.dsl()
-                .selectFrom(PAYMENT)
-                .where(PAYMENT.PROCESSED.between(intervalFrom, intervalTo)
-                        .and(PAYMENT.WITHDRAWAL_ACCOUNT_ID.eq(accountId)
-                                .or(PAYMENT.DEPOSIT_ACCOUNT_ID.eq(accountId))))
-                .orderBy(PAYMENT.PROCESSED)
-                .fetchInto(Payment.class));
     }
 }
@@ -0,0 +1,51 @@
+package com.github.edwgiz.sample.bank.account.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Output REST entity of a database session waiting for a lock held by another one.
+ */
+public class BlockedSession {
+
+    private final int sessionId;
+    private final int blockerId;
+    private final String statement;
+    private final long waitMillis;
+
+    /**
+     * @param session identifier of the waiting session.
+     * @param blocker identifier of the session holding the lock.
+     * @param sql     statement waiting for the lock.
+     * @param wait    duration of the statement so far, millis.
+     */
+    public BlockedSession(final int session, final int blocker, final String sql, final long wait) {
+        this.sessionId = session;
+        this.blockerId = blocker;
+        this.statement = sql;
+        this.waitMillis = wait;
+    }
+
+    @Schema(description = "Identifier of the waiting database session")
+    @SuppressWarnings("checkstyle:MissingJavadocMethod")
+    public final int getSessionId() {
+        return sessionId;
+    }
+
+    @Schema(description = "Identifier of the database session holding the lock")
+    @SuppressWarnings("checkstyle:MissingJavadocMethod")
+    public final int getBlockerId() {
+        return blockerId;
+    }
+
+    @Schema(description = "Statement waiting for the lock")
+    @SuppressWarnings("checkstyle:MissingJavadocMethod")
+    public final String getStatement() {
+        return statement;
+    }
+
+    @Schema(description = "Duration of the statement so far, millis")
+    @SuppressWarnings("checkstyle:MissingJavadocMethod")
+    public final long getWaitMillis() {
+        return waitMillis;
+    }
+}
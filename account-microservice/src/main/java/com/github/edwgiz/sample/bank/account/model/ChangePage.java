@@ -0,0 +1,46 @@
+package com.github.edwgiz.sample.bank.account.model;
+
+import com.github.edwgiz.sample.bank.account.jooq.tables.pojos.Payment;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Output REST entity of a change feed page.
+ */
+public class ChangePage {
+
+    private final List<Payment> payments;
+    private final long next;
+    private final boolean caughtUp;
+
+    /**
+     * @param changes  payments committed after the requested position, sorted by identifier.
+     * @param position position to request the next page after.
+     * @param last     whether no more payments are committed after the next position yet.
+     */
+    public ChangePage(final List<Payment> changes, final long position, final boolean last) {
+        this.payments = changes;
+        this.next = position;
+        this.caughtUp = last;
+    }
+
+    @ArraySchema(schema = @Schema(ref = "#/components/schemas/Payment"))
+    @SuppressWarnings("checkstyle:MissingJavadocMethod")
+    public final List<Payment> getPayments() {
+        return payments;
+    }
+
+    @Schema(description = "Position to request the next page after", example = "15")
+    @SuppressWarnings("checkstyle:MissingJavadocMethod")
+    public final long getNext() {
+        return next;
+    }
+
+    @Schema(description = "Whether no more payments are committed after the next position yet")
+    @SuppressWarnings("checkstyle:MissingJavadocMethod")
+    public final boolean isCaughtUp() {
+        return caughtUp;
+    }
+}
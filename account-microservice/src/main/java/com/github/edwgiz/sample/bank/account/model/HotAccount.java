@@ -0,0 +1,51 @@
+package com.github.edwgiz.sample.bank.account.model;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Output REST entity of an account contended for its row lock.
+ */
+public class HotAccount {
+
+    private final long accountId;
+    private final double waitMillis;
+    private final long locks;
+    private final long timeouts;
+
+    /**
+     * @param account identifier of the account.
+     * @param wait    estimated total wait for the lock, millis.
+     * @param taken   estimated number of the lock attempts.
+     * @param failed  estimated number of the lock waits timed out.
+     */
+    public HotAccount(final long account, final double wait, final long taken, final long failed) {
+        this.accountId = account;
+        this.waitMillis = wait;
+        this.locks = taken;
+        this.timeouts = failed;
+    }
+
+    @Schema(description = "Unique Identifier", example = "2")
+    @SuppressWarnings("checkstyle:MissingJavadocMethod")
+    public final long getAccountId() {
+        return accountId;
+    }
+
+    @Schema(description = "Total wait for the row lock since the start, an upper estimate, millis")
+    @SuppressWarnings("checkstyle:MissingJavadocMethod")
+    public final double getWaitMillis() {
+        return waitMillis;
+    }
+
+    @Schema(description = "Number of the row lock attempts since the start, an upper estimate")
+    @SuppressWarnings("checkstyle:MissingJavadocMethod")
+    public final long getLocks() {
+        return locks;
+    }
+
+    @Schema(description = "Number of the row lock waits timed out with 409 since the start, an upper estimate")
+    @SuppressWarnings("checkstyle:MissingJavadocMethod")
+    public final long getTimeouts() {
+        return timeouts;
+    }
+}
@@ -0,0 +1,38 @@
+package com.github.edwgiz.sample.bank.account.model;
+
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Output REST entity of the account row lock contention.
+ */
+public class LockContentionReport {
+
+    private final List<HotAccount> hotAccounts;
+    private final List<BlockedSession> blockedSessions;
+
+    /**
+     * @param accounts the most contended accounts, by the total wait.
+     * @param sessions database sessions waiting for a lock at the moment.
+     */
+    public LockContentionReport(final List<HotAccount> accounts, final List<BlockedSession> sessions) {
+        this.hotAccounts = accounts;
+        this.blockedSessions = sessions;
+    }
+
+    @ArraySchema(arraySchema = @Schema(description = "The most contended accounts, by the total wait first"),
+            schema = @Schema(implementation = HotAccount.class))
+    @SuppressWarnings("checkstyle:MissingJavadocMethod")
+    public final List<HotAccount> getHotAccounts() {
+        return hotAccounts;
+    }
+
+    @ArraySchema(arraySchema = @Schema(description = "Database sessions waiting for a lock at the moment"),
+            schema = @Schema(implementation = BlockedSession.class))
+    @SuppressWarnings("checkstyle:MissingJavadocMethod")
+    public final List<BlockedSession> getBlockedSessions() {
+        return blockedSessions;
+    }
+}
@@ -0,0 +1,45 @@
+package com.github.edwgiz.sample.bank.account.model;
+
+import com.github.edwgiz.sample.bank.account.jooq.tables.pojos.OutboxConsumer;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Output REST entity of the payment outbox state.
+ */
+public class OutboxLag {
+
+    private final int pending;
+    private final long lagMillis;
+    private final List<OutboxConsumer> consumers;
+
+    /**
+     * @param pendingPayments number of the payments waiting for the delivery.
+     * @param lag             age of the oldest payment waiting for the delivery, millis.
+     * @param offsets         offsets of the consumers.
+     */
+    public OutboxLag(final int pendingPayments, final long lag, final List<OutboxConsumer> offsets) {
+        this.pending = pendingPayments;
+        this.lagMillis = lag;
+        this.consumers = offsets;
+    }
+
+    @Schema(description = "Number of the payments waiting for the delivery")
+    @SuppressWarnings("checkstyle:MissingJavadocMethod")
+    public final int getPending() {
+        return pending;
+    }
+
+    @Schema(description = "Age of the oldest payment waiting for the delivery, zero without them, millis")
+    @SuppressWarnings("checkstyle:MissingJavadocMethod")
+    public final long getLagMillis() {
+        return lagMillis;
+    }
+
+    @Schema(description = "Offsets of the consumers")
+    @SuppressWarnings("checkstyle:MissingJavadocMethod")
+    public final List<OutboxConsumer> getConsumers() {
+        return consumers;
+    }
+}
@@ -0,0 +1,45 @@
+package com.github.edwgiz.sample.bank.account.model;
+
+import com.github.edwgiz.sample.bank.account.jooq.tables.interfaces.IPayment;
+import com.github.edwgiz.sample.bank.account.jooq.tables.pojos.Payment;
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.math.BigDecimal;
+
+/**
+ * Payment output REST entity of an account statement.
+ * Extends autogenerated Jooq pojo by the account balance after the payment.
+ */
+public class StatementEntry extends Payment {
+
+    private static final long serialVersionUID = 1L;
+
+    private BigDecimal balance;
+
+    /**
+     * Constructor for the deserialization.
+     */
+    public StatementEntry() {
+        super();
+    }
+
+    /**
+     * @param payment      processed payment.
+     * @param balanceAfter account balance after the payment.
+     */
+    public StatementEntry(final IPayment payment, final BigDecimal balanceAfter) {
+        super(payment);
+        this.balance = balanceAfter;
+    }
+
+    @Schema(description = "Account balance after the payment")
+    @SuppressWarnings("checkstyle:MissingJavadocMethod")
+    public final BigDecimal getBalance() {
+        return balance;
+    }
+
+    @SuppressWarnings("checkstyle:MissingJavadocMethod")
+    public final void setBalance(final BigDecimal value) {
+        this.balance = value;
+    }
+}
@@ -0,0 +1,169 @@
+package com.github.edwgiz.sample.bank.account.storage;
+
+import com.github.edwgiz.sample.bank.account.jooq.tables.interfaces.IPayment;
+import com.github.edwgiz.sample.bank.account.jooq.tables.pojos.BalanceCheckpoint;
+import com.github.edwgiz.sample.bank.account.jooq.tables.pojos.Payment;
+import com.github.edwgiz.sample.bank.account.model.StatementEntry;
+import org.jooq.Condition;
+import org.jooq.Configuration;
+import org.jooq.InsertQuery;
+import org.jooq.Record;
+import org.jooq.Record2;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.github.edwgiz.sample.bank.account.jooq.Tables.ACCOUNT;
+import static com.github.edwgiz.sample.bank.account.jooq.Tables.BALANCE_CHECKPOINT;
+import static org.jooq.impl.DSL.noCondition;
+
+/**
+ * Keeps per-account balance checkpoints in
+ * {@link com.github.edwgiz.sample.bank.account.jooq.tables.BalanceCheckpoint} table, one per {@link #INTERVAL}
+ * payments of the account, so a historical balance is computed from the closest checkpoint and a bounded number of
+ * the following payments, regardless of the account age.
+ * <p>
+ * The first payment of an account adds an opening checkpoint at the account creation time, with zero payment
+ * identifier and the balance before that payment. An account without checkpoints has never been changed by payments.
+ */
+@Singleton
+public final class BalanceCheckpoints {
+
+    /**
+     * Default number of the account payments between the checkpoints.
+     */
+    /* default */static final int INTERVAL = 64;
+    /**
+     * Payment identifier of the opening checkpoint, precedes the identifiers of the sequence.
+     */
+    /* default */static final long OPENING_PAYMENT_ID = 0L;
+
+    private final PaymentStorage paymentStorage;
+    private final int interval;
+
+    /**
+     * @param storage payment storage to scan the payments after a checkpoint
+     */
+    @Inject
+    public BalanceCheckpoints(final PaymentStorage storage) {
+        this(storage, INTERVAL);
+    }
+
+    /* default */BalanceCheckpoints(final PaymentStorage storage, final int value) {
+        this.paymentStorage = storage;
+        this.interval = value;
+    }
+
+    /**
+     * Registers a payment in the checkpoints of one side, must be called in the payment transaction while the
+     * account is locked.
+     *
+     * @param cnf           transactional configuration.
+     * @param accountId     withdrawal or deposit account identifier of the payment.
+     * @param balanceBefore account balance before the payment.
+     * @param payment       inserted payment, including its identifier and processing time.
+     * @param balanceAfter  account balance after the payment.
+     */
+    public void update(final Configuration cnf, final long accountId, final BigDecimal balanceBefore,
+            final IPayment payment, final BigDecimal balanceAfter) {
+        final BalanceCheckpoint last = latest(cnf, accountId, noCondition());
+        if (last == null) {
+            final LocalDateTime created = cnf.dsl().select(ACCOUNT.CREATED).from(ACCOUNT)
+                    .where(ACCOUNT.ACCOUNT_ID.eq(accountId))
+                    .fetchOne(ACCOUNT.CREATED);
+            insert(cnf, new BalanceCheckpoint(accountId, created, OPENING_PAYMENT_ID, balanceBefore, 1));
+        } else if (last.getPaymentsAfter() + 1 < interval) {
+            cnf.dsl().update(BALANCE_CHECKPOINT)
+                    .set(BALANCE_CHECKPOINT.PAYMENTS_AFTER, BALANCE_CHECKPOINT.PAYMENTS_AFTER.add(1))
+                    .where(BALANCE_CHECKPOINT.ACCOUNT_ID.eq(accountId))
+                    .and(BALANCE_CHECKPOINT.PROCESSED.eq(last.getProcessed()))
+                    .and(BALANCE_CHECKPOINT.PAYMENT_ID.eq(last.getPaymentId()))
+                    .execute();
+        } else {
+            insert(cnf, new BalanceCheckpoint(accountId, payment.getProcessed(), payment.getPaymentId(),
+                    balanceAfter, 0));
+        }
+    }
+
+    private void insert(final Configuration cnf, final BalanceCheckpoint values) {
+        final InsertQuery<Record> insert = cnf.dsl().insertQuery(BALANCE_CHECKPOINT);
+        insert.setRecord(cnf.dsl().newRecord(BALANCE_CHECKPOINT, values));
+        insert.execute();
+    }
+
+    /**
+     * @param cnf       transactional configuration.
+     * @param accountId account identifier.
+     * @param moment    point of time, UTC, inclusive.
+     * @return balance after all the payments processed until the given time, or {@code null} when the account
+     * doesn't exist or was created later.
+     */
+    public BigDecimal balanceAt(final Configuration cnf, final long accountId, final LocalDateTime moment) {
+        // the account is read first, so it's older than the checkpoints read below
+        final Record2<LocalDateTime, BigDecimal> account = cnf.dsl().select(ACCOUNT.CREATED, ACCOUNT.BALANCE)
+                .from(ACCOUNT).where(ACCOUNT.ACCOUNT_ID.eq(accountId))
+                .fetchOne();
+        BigDecimal result = null;
+        if (account != null && !moment.isBefore(account.value1())) {
+            final BalanceCheckpoint checkpoint = latest(cnf, accountId, BALANCE_CHECKPOINT.PROCESSED.le(moment));
+            result = checkpoint == null ? account.value2() : replay(cnf, checkpoint, moment, null, null);
+        }
+        return result;
+    }
+
+    /**
+     * @param cnf          transactional configuration.
+     * @param accountId    withdrawal or deposit account identifier.
+     * @param intervalFrom processed from, inclusive.
+     * @param intervalTo   processed to, inclusive.
+     * @return payments sorted by processing time, with the account balance after each of them.
+     */
+    public List<StatementEntry> statement(final Configuration cnf, final long accountId,
+            final LocalDateTime intervalFrom, final LocalDateTime intervalTo) {
+        BalanceCheckpoint checkpoint = latest(cnf, accountId, BALANCE_CHECKPOINT.PROCESSED.lt(intervalFrom));
+        if (checkpoint == null) {
+            // the interval starts before the first payment of the account
+            checkpoint = latest(cnf, accountId, BALANCE_CHECKPOINT.PAYMENT_ID.eq(OPENING_PAYMENT_ID));
+        }
+        final List<StatementEntry> result = new ArrayList<>();
+        if (checkpoint != null) {
+            replay(cnf, checkpoint, intervalTo, intervalFrom, result);
+        }
+        return result;
+    }
+
+    private BalanceCheckpoint latest(final Configuration cnf, final long accountId, final Condition condition) {
+        return cnf.dsl().selectFrom(BALANCE_CHECKPOINT)
+                .where(BALANCE_CHECKPOINT.ACCOUNT_ID.eq(accountId)).and(condition)
+                .orderBy(BALANCE_CHECKPOINT.PROCESSED.desc(), BALANCE_CHECKPOINT.PAYMENT_ID.desc())
+                .limit(1)
+                .fetchOneInto(BalanceCheckpoint.class);
+    }
+
+    // applies the payments following the checkpoint until the given time, collecting the ones since the given time
+    private BigDecimal replay(final Configuration cnf, final BalanceCheckpoint checkpoint,
+            final LocalDateTime intervalTo, final LocalDateTime intervalFrom, final List<StatementEntry> entries) {
+        final long accountId = checkpoint.getAccountId();
+        BigDecimal balance = checkpoint.getBalance();
+        for (final Payment payment : paymentStorage.list(cnf, accountId, checkpoint.getProcessed(), intervalTo)) {
+            if (isAfter(payment, checkpoint)) {
+                balance = payment.getDepositAccountId() == accountId
+                        ? balance.add(payment.getAmount())
+                        : balance.subtract(payment.getAmount());
+                if (entries != null && !payment.getProcessed().isBefore(intervalFrom)) {
+                    entries.add(new StatementEntry(payment, balance));
+                }
+            }
+        }
+        return balance;
+    }
+
+    private static boolean isAfter(final IPayment payment, final BalanceCheckpoint checkpoint) {
+        final int order = payment.getProcessed().compareTo(checkpoint.getProcessed());
+        return order > 0 || order == 0 && payment.getPaymentId() > checkpoint.getPaymentId();
+    }
+}
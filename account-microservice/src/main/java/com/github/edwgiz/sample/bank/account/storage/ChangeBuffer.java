@@ -0,0 +1,55 @@
+package com.github.edwgiz.sample.bank.account.storage;
+
+import com.github.edwgiz.sample.bank.account.jooq.tables.pojos.Payment;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Keeps the payments of the lowest identifiers seen, up to a limit, so a page of the changes is collected from the
+ * unordered sources without holding more than the page.
+ */
+final class ChangeBuffer {
+
+    private final int limit;
+    /**
+     * The greatest identifier first, so it's replaced by a lower one.
+     */
+    private final PriorityQueue<Payment> payments;
+
+    /**
+     * @param value maximum number of the payments.
+     */
+    /* default */ChangeBuffer(final int value) {
+        this.limit = value;
+        this.payments = new PriorityQueue<>(Comparator.comparing(Payment::getPaymentId).reversed());
+    }
+
+    /**
+     * @return identifier, exclusive, the payments below it are still accepted.
+     */
+    /* default */long bound() {
+        return payments.size() < limit ? Long.MAX_VALUE : payments.peek().getPaymentId();
+    }
+
+    /**
+     * @param payment payment of an identifier below {@link #bound()}, it evicts the greatest one when full.
+     */
+    /* default */void add(final Payment payment) {
+        payments.add(payment);
+        if (payments.size() > limit) {
+            payments.poll();
+        }
+    }
+
+    /**
+     * @return the payments sorted by identifier.
+     */
+    /* default */List<Payment> toList() {
+        final List<Payment> result = new ArrayList<>(payments);
+        result.sort(Comparator.comparing(Payment::getPaymentId));
+        return result;
+    }
+}
@@ -0,0 +1,191 @@
+package com.github.edwgiz.sample.bank.account.storage;
+
+import com.github.edwgiz.sample.bank.account.jooq.tables.pojos.Payment;
+import com.github.edwgiz.sample.bank.account.model.ChangePage;
+import org.jooq.Configuration;
+import org.jooq.DSLContext;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.StampedLock;
+
+import static com.github.edwgiz.sample.bank.account.jooq.Sequences.PAYMENT_SEQ;
+
+/**
+ * Feed of the committed payments across all the accounts, the position is a payment identifier.
+ * <p>
+ * The identifiers are taken before the commits, so a payment may be committed after another one with a greater
+ * identifier. Only the positions below the lowest identifier still being committed are served, so a position never
+ * skips a payment. The recent commits are served from an in-memory ring, the older positions from
+ * {@link PaymentStorage}.
+ * <p>
+ * The payment transactions take the identifiers concurrently, under the shared mode of a lock. Only the position
+ * takes it exclusively, as an identifier is out of the sequence before it's registered as being committed.
+ */
+@Singleton
+public final class ChangeFeed {
+
+    /**
+     * Number of the recent payments served from the memory.
+     */
+    /* default */static final int RING_CAPACITY = 4096;
+
+    private final DSLContext dslCtx;
+    private final PaymentStorage paymentStorage;
+    private final int ringCapacity;
+    /**
+     * Identifiers being committed.
+     */
+    private final NavigableSet<Long> uncommitted;
+    private final NavigableMap<Long, Payment> ring;
+    private final Object evictionLock;
+    /**
+     * Shared by the identifier takes, exclusive for the position.
+     */
+    private final StampedLock takeLock;
+    /**
+     * The greatest identifier taken.
+     */
+    private final AtomicLong taken;
+    /**
+     * The ring holds all the committed payments after that.
+     */
+    private volatile long ringFloor;
+
+    /**
+     * @param value   a ready-to-use DSL context
+     * @param storage payment storage to serve the older positions from
+     */
+    @Inject
+    public ChangeFeed(final DSLContext value, final PaymentStorage storage) {
+        this(value, storage, RING_CAPACITY);
+    }
+
+    /* default */ChangeFeed(final DSLContext value, final PaymentStorage storage, final int capacity) {
+        this.dslCtx = value;
+        this.paymentStorage = storage;
+        this.ringCapacity = capacity;
+        this.uncommitted = new ConcurrentSkipListSet<>();
+        this.ring = new ConcurrentSkipListMap<>();
+        this.evictionLock = new Object();
+        this.takeLock = new StampedLock();
+        // unlike CURRVAL, doesn't depend on the session
+        this.taken = new AtomicLong(value.fetchOne("SELECT CURRENT_VALUE FROM INFORMATION_SCHEMA.SEQUENCES "
+                + "WHERE SEQUENCE_SCHEMA = SCHEMA() AND SEQUENCE_NAME = ?", PAYMENT_SEQ.getName())
+                .getValue(0, Long.class));
+        this.ringFloor = taken.get();
+    }
+
+    /**
+     * Takes the identifier of a new payment, {@link #complete(Payment, boolean)} must follow in any case.
+     *
+     * @param cnf configuration of the payment transaction.
+     * @return payment identifier.
+     */
+    public long takeId(final Configuration cnf) {
+        final long stamp = takeLock.readLock();
+        try {
+            final long paymentId = cnf.dsl().nextval(PAYMENT_SEQ);
+            uncommitted.add(paymentId);
+            taken.accumulateAndGet(paymentId, Math::max);
+            return paymentId;
+        } finally {
+            takeLock.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * @param payment   payment after its transaction, its identifier is {@code null} when it wasn't taken.
+     * @param committed whether the transaction is committed.
+     */
+    public void complete(final Payment payment, final boolean committed) {
+        final Long paymentId = payment.getPaymentId();
+        if (paymentId != null) {
+            if (committed) {
+                ring.put(paymentId, payment);
+                evict();
+            }
+            uncommitted.remove(paymentId); // the position moves after the payment is available
+        }
+    }
+
+    /**
+     * Moves the position past the payments inserted bypassing {@link #takeId(Configuration)}, like the loaded dataset,
+     * and serves them from {@link PaymentStorage}.
+     *
+     * @param paymentId the greatest identifier inserted, all the ones up to it must be committed.
+     */
+    /* default */void advance(final long paymentId) {
+        final long stamp = takeLock.writeLock();
+        try {
+            taken.accumulateAndGet(paymentId, Math::max);
+            synchronized (evictionLock) {
+                ringFloor = Math.max(ringFloor, paymentId);
+            }
+        } finally {
+            takeLock.unlockWrite(stamp);
+        }
+    }
+
+    /**
+     * @param after position, exclusive.
+     * @param limit maximum number of the payments.
+     * @return the payments committed after the position, sorted by identifier.
+     */
+    public ChangePage changes(final long after, final int limit) {
+        final long upTo = position();
+        final List<Payment> payments;
+        if (after >= upTo) {
+            payments = new ArrayList<>(0);
+        } else {
+            final List<Payment> recent = after >= ringFloor ? fromRing(after, upTo, limit) : null;
+            // unless the floor has passed the position meanwhile, nothing was evicted before reading
+            payments = recent != null && after >= ringFloor ? recent
+                    : dslCtx.transactionResult((Configuration cnf) -> paymentStorage.changes(cnf, after, upTo,
+                    limit));
+        }
+        final long next = payments.size() < limit ? Math.max(after, upTo)
+                : payments.get(payments.size() - 1).getPaymentId();
+        return new ChangePage(payments, next, next >= upTo);
+    }
+
+    private List<Payment> fromRing(final long after, final long upTo, final int limit) {
+        final List<Payment> result = new ArrayList<>(Math.min(limit, ringCapacity));
+        for (final Payment payment : ring.subMap(after, false, upTo, true).values()) {
+            result.add(payment);
+            if (result.size() == limit) {
+                break;
+            }
+        }
+        return result;
+    }
+
+    // the floor is moved before a payment is removed, so a reader notices the eviction
+    private void evict() {
+        synchronized (evictionLock) {
+            while (ring.size() > ringCapacity) {
+                final Long first = ring.firstKey();
+                ringFloor = Math.max(ringFloor, first); // a late commit may precede the floor
+                ring.remove(first);
+            }
+        }
+    }
+
+    // all the payments up to that are committed or rolled back
+    private long position() {
+        final long stamp = takeLock.writeLock();
+        try {
+            final Long first = uncommitted.ceiling(Long.MIN_VALUE); // null when empty, unlike first()
+            return first == null ? taken.get() : first - 1;
+        } finally {
+            takeLock.unlockWrite(stamp);
+        }
+    }
+}
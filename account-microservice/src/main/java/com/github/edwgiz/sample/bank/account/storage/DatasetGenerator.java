@@ -0,0 +1,335 @@
+package com.github.edwgiz.sample.bank.account.storage;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+import static java.time.DayOfWeek.SATURDAY;
+import static java.time.DayOfWeek.SUNDAY;
+import static java.time.ZoneOffset.UTC;
+import static java.util.concurrent.TimeUnit.DAYS;
+import static java.util.concurrent.TimeUnit.HOURS;
+
+/**
+ * Synthetic accounts and payments of a realistic shape, to run the benchmarks and the load tests against a database
+ * of a production scale:
+ * <ul>
+ * <li>the payment activity of the accounts follows a power law, the older accounts being the most active;</li>
+ * <li>the processing times follow the daily, the weekly and the yearly seasons;</li>
+ * <li>the payment amounts are exponentially distributed and never exceed the withdrawal balance.</li>
+ * </ul>
+ * The balances and the {@link BalanceCheckpoints} are the ones the payment endpoint would leave after the same
+ * payments.
+ * <p>
+ * The payments are generated in their processing order with ascending identifiers, so the balances are computed by
+ * a sequential walk. The walk is done twice with the same seed: the first one finds the final balances and the
+ * number of the payments of every account, so the accounts are complete before their payments, and the second one
+ * emits the payments and the checkpoints, whose number of the following payments is known by then. About 24 bytes
+ * per account are kept in the heap.
+ */
+final class DatasetGenerator {
+
+    private static final long HOUR_MILLIS = HOURS.toMillis(1L);
+    private static final long MILLIS_PER_SECOND = 1000L;
+    private static final int NANOS_PER_MILLI = 1_000_000;
+    /**
+     * The accounts are created evenly within this period before the payments.
+     */
+    private static final long CREATION_MILLIS = DAYS.toMillis(365L);
+    private static final long MIN_OPENING_CENTS = 10_000L;
+    private static final long OPENING_CENTS_RANGE = 1_000_000L;
+    private static final double MEAN_AMOUNT_CENTS = 5_000.0;
+    private static final int CENTS_SCALE = 2;
+    private static final double HOURS_PER_DAY = 24.0;
+    private static final double DAILY_AMPLITUDE = 0.8;
+    /**
+     * The daily activity is the lowest at 3 am and the highest at 3 pm.
+     */
+    private static final double DAILY_PHASE_HOURS = 9.0;
+    private static final double WEEKEND_WEIGHT = 0.6;
+    private static final double DAYS_PER_YEAR = 365.25;
+    private static final double YEARLY_AMPLITUDE = 0.25;
+    /**
+     * The yearly activity is the highest before Christmas.
+     */
+    private static final double YEARLY_PEAK_DAY = 350.0;
+    private static final String[] FIRST_NAMES = {
+        "James", "Mary", "John", "Patricia", "Robert", "Jennifer", "Michael", "Linda",
+    };
+    private static final String[] LAST_NAMES = {
+        "Smith", "Johnson", "Williams", "Brown", "Jones", "Garcia", "Miller", "Davis",
+    };
+
+    private final int accounts;
+    private final long payments;
+    private final long fromHour;
+    private final long toHour;
+    private final double skew;
+    private final long seed;
+    private final int interval;
+    private final long[] balances;
+    private final int[] counts;
+    private int[] totals;
+
+    /**
+     * @param accountsNumber number of the accounts, at least 2.
+     * @param paymentsNumber number of the payments.
+     * @param intervalFrom   processed from, truncated to hours.
+     * @param intervalTo     processed to, exclusive, truncated to hours.
+     * @param activitySkew   power of the account activity, 1 for even, the bigger the more skewed.
+     * @param randomSeed     seed, the same one generates the same dataset.
+     */
+    /* default */DatasetGenerator(final int accountsNumber, final long paymentsNumber,
+            final LocalDateTime intervalFrom, final LocalDateTime intervalTo, final double activitySkew,
+            final long randomSeed) {
+        if (accountsNumber < 2) {
+            throw new IllegalArgumentException("At least 2 accounts are required, but " + accountsNumber);
+        }
+        if (paymentsNumber > 0L && intervalFrom.plusHours(1L).isAfter(intervalTo)) {
+            throw new IllegalArgumentException("The payments need at least an hour, but " + intervalFrom + " - "
+                    + intervalTo);
+        }
+        this.accounts = accountsNumber;
+        this.payments = paymentsNumber;
+        this.fromHour = intervalFrom.toEpochSecond(UTC) * MILLIS_PER_SECOND / HOUR_MILLIS;
+        this.toHour = intervalTo.toEpochSecond(UTC) * MILLIS_PER_SECOND / HOUR_MILLIS;
+        this.skew = activitySkew;
+        this.seed = randomSeed;
+        this.interval = BalanceCheckpoints.INTERVAL;
+        this.balances = new long[accountsNumber];
+        this.counts = new int[accountsNumber];
+    }
+
+    /* default */int getAccounts() {
+        return accounts;
+    }
+
+    /* default */long getPayments() {
+        return payments;
+    }
+
+    /* default */LocalDateTime getFrom() {
+        return dateTime(fromHour * HOUR_MILLIS);
+    }
+
+    /* default */LocalDateTime getTo() {
+        return dateTime(toHour * HOUR_MILLIS);
+    }
+
+    /**
+     * Walks the payments without emitting them, then emits the accounts with their final balances, in the
+     * identifier order.
+     *
+     * @param firstAccountId identifier of the first account, the rest follow it.
+     * @param sink           receiver of the accounts.
+     */
+    /* default */void accounts(final long firstAccountId, final RowSink sink) {
+        final long[] lastModified = new long[accounts];
+        walk(0L, lastModified, null);
+        for (int account = 0; account < accounts; account++) {
+            final long created = created(account);
+            sink.account(firstAccountId + account, dateTime(created), ownerName(account), cents(balances[account]),
+                    dateTime(counts[account] == 0 ? created : lastModified[account]));
+        }
+        totals = Arrays.copyOf(counts, accounts);
+    }
+
+    /**
+     * Walks the payments again, emitting them with the balance checkpoints, in the processing order.
+     *
+     * @param firstAccountId identifier of the first account, as given to {@link #accounts(long, RowSink)}.
+     * @param firstPaymentId identifier of the first payment, the rest follow it.
+     * @param sink           receiver of the payments and the checkpoints.
+     */
+    /* default */void payments(final long firstAccountId, final long firstPaymentId, final RowSink sink) {
+        if (totals == null) {
+            throw new IllegalStateException("The accounts aren't generated yet");
+        }
+        walk(firstPaymentId, null, new Emitter(firstAccountId, sink));
+    }
+
+    private void walk(final long firstPaymentId, final long[] lastModified, final Emitter emitter) {
+        for (int account = 0; account < accounts; account++) {
+            balances[account] = opening(account);
+        }
+        Arrays.fill(counts, 0);
+        final SplittableRandom random = new SplittableRandom(seed);
+        double totalWeight = 0.0;
+        for (long hour = fromHour; hour < toHour; hour++) {
+            totalWeight += weight(hour);
+        }
+        long paymentId = firstPaymentId;
+        long planned = 0L;
+        double weight = 0.0;
+        long[] offsets = new long[0];
+        for (long hour = fromHour; hour < toHour; hour++) {
+            weight += weight(hour);
+            // spreads the rounding errors, so exactly all the payments are planned
+            final long target = hour + 1L == toHour ? payments : Math.round(payments * weight / totalWeight);
+            final int count = (int) (target - planned);
+            planned = target;
+            if (offsets.length < count) {
+                offsets = new long[count];
+            }
+            for (int i = 0; i < count; i++) {
+                offsets[i] = random.nextLong(HOUR_MILLIS);
+            }
+            Arrays.sort(offsets, 0, count);
+            for (int i = 0; i < count; i++) {
+                final long processed = hour * HOUR_MILLIS + offsets[i];
+                pay(random, paymentId++, processed, lastModified, emitter);
+            }
+        }
+    }
+
+    private void pay(final SplittableRandom random, final long paymentId, final long processed,
+            final long[] lastModified, final Emitter emitter) {
+        int withdrawal;
+        int deposit;
+        long amount;
+        do {
+            withdrawal = pick(random);
+            deposit = pick(random);
+            if (balances[withdrawal] == 0L) {
+                final int empty = withdrawal;
+                withdrawal = deposit;
+                deposit = empty;
+            }
+            amount = Math.min(1L + (long) (-Math.log(1.0 - random.nextDouble()) * MEAN_AMOUNT_CENTS),
+                    balances[withdrawal]);
+        } while (withdrawal == deposit || amount == 0L); // the money is on the both sides, so it ends quickly
+
+        final long withdrawalBalance = balances[withdrawal];
+        final long depositBalance = balances[deposit];
+        balances[withdrawal] = withdrawalBalance - amount;
+        balances[deposit] = depositBalance + amount;
+        counts[withdrawal]++;
+        counts[deposit]++;
+        if (lastModified != null) {
+            lastModified[withdrawal] = processed;
+            lastModified[deposit] = processed;
+        }
+        if (emitter != null) {
+            emitter.payment(paymentId, processed, amount, withdrawal, deposit);
+            emitter.checkpoint(withdrawal, withdrawalBalance, paymentId, processed);
+            emitter.checkpoint(deposit, depositBalance, paymentId, processed);
+        }
+    }
+
+    // picks the account with the power-law probability, the first accounts are picked the most
+    private int pick(final SplittableRandom random) {
+        return (int) (accounts * Math.pow(random.nextDouble(), skew));
+    }
+
+    // relative number of the payments processed within the hour since the epoch
+    private static double weight(final long hour) {
+        final LocalDateTime time = dateTime(hour * HOUR_MILLIS);
+        final double daily = 1.0 + DAILY_AMPLITUDE
+                * Math.sin(2.0 * Math.PI * (time.getHour() - DAILY_PHASE_HOURS) / HOURS_PER_DAY);
+        final double weekly = time.getDayOfWeek() == SATURDAY || time.getDayOfWeek() == SUNDAY
+                ? WEEKEND_WEIGHT : 1.0;
+        final double yearly = 1.0 + YEARLY_AMPLITUDE
+                * Math.cos(2.0 * Math.PI * (time.getDayOfYear() - YEARLY_PEAK_DAY) / DAYS_PER_YEAR);
+        return daily * weekly * yearly;
+    }
+
+    private long created(final int account) {
+        return fromHour * HOUR_MILLIS - CREATION_MILLIS * (accounts - account) / accounts;
+    }
+
+    private long opening(final int account) {
+        return MIN_OPENING_CENTS + new SplittableRandom(seed + account).nextLong(OPENING_CENTS_RANGE);
+    }
+
+    private String ownerName(final int account) {
+        final SplittableRandom random = new SplittableRandom(~(seed + account));
+        return FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + ' ' + LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+    }
+
+    private static LocalDateTime dateTime(final long epochMillis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochMillis, MILLIS_PER_SECOND),
+                (int) Math.floorMod(epochMillis, MILLIS_PER_SECOND) * NANOS_PER_MILLI, UTC);
+    }
+
+    private static BigDecimal cents(final long value) {
+        return BigDecimal.valueOf(value, CENTS_SCALE);
+    }
+
+    /**
+     * Receiver of the generated rows, called by one thread.
+     */
+    /* default */interface RowSink {
+
+        /**
+         * @param accountId           account identifier.
+         * @param created              creation time, UTC.
+         * @param ownerName            owner name.
+         * @param balance              balance after all the payments.
+         * @param balanceLastModified time of the last payment, or the creation time, UTC.
+         */
+        void account(long accountId, LocalDateTime created, String ownerName, BigDecimal balance,
+                LocalDateTime balanceLastModified);
+
+        /**
+         * @param paymentId           payment identifier.
+         * @param processed           processing time, UTC.
+         * @param amount              transferred amount.
+         * @param withdrawalAccountId account to withdraw from.
+         * @param depositAccountId    account to deposit to.
+         */
+        void payment(long paymentId, LocalDateTime processed, BigDecimal amount, long withdrawalAccountId,
+                long depositAccountId);
+
+        /**
+         * @param accountId     account identifier.
+         * @param processed     processing time of the last included payment, or the account creation time, UTC.
+         * @param paymentId     last included payment, or {@link BalanceCheckpoints#OPENING_PAYMENT_ID}.
+         * @param balance       balance after the last included payment.
+         * @param paymentsAfter number of the account payments after the checkpoint, until the next one.
+         */
+        void checkpoint(long accountId, LocalDateTime processed, long paymentId, BigDecimal balance,
+                int paymentsAfter);
+    }
+
+    /**
+     * Emits the rows of the second walk, like {@link BalanceCheckpoints#update} would store the checkpoints.
+     */
+    private final class Emitter {
+
+        private final long firstAccountId;
+        private final RowSink sink;
+
+        /* default */Emitter(final long accountId, final RowSink value) {
+            this.firstAccountId = accountId;
+            this.sink = value;
+        }
+
+        /* default */void payment(final long paymentId, final long processed, final long amount,
+                final int withdrawal, final int deposit) {
+            sink.payment(paymentId, dateTime(processed), cents(amount), firstAccountId + withdrawal,
+                    firstAccountId + deposit);
+        }
+
+        // called after the payment is counted, the opening checkpoint is before the first payment of the account,
+        // the next ones are after every interval payments
+        /* default */void checkpoint(final int account, final long balanceBefore, final long paymentId,
+                final long processed) {
+            final int number = counts[account];
+            if (number == 1) {
+                sink.checkpoint(firstAccountId + account, dateTime(created(account)),
+                        BalanceCheckpoints.OPENING_PAYMENT_ID, cents(balanceBefore), paymentsAfter(account, 0));
+            }
+            if (number % interval == 0) {
+                sink.checkpoint(firstAccountId + account, dateTime(processed), paymentId, cents(balances[account]),
+                        paymentsAfter(account, number));
+            }
+        }
+
+        // the last checkpoint of an account is followed by the rest of its payments, the others by the interval
+        private int paymentsAfter(final int account, final int number) {
+            final int total = totals[account];
+            return number == total / interval * interval ? total - number : interval - 1;
+        }
+    }
+}
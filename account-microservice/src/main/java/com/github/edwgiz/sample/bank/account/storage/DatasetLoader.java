@@ -0,0 +1,305 @@
+package com.github.edwgiz.sample.bank.account.storage;
+
+import org.glassfish.jersey.server.spi.Container;
+import org.glassfish.jersey.server.spi.ContainerLifecycleListener;
+import org.jooq.DSLContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Phaser;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import static com.github.edwgiz.sample.bank.account.jooq.Sequences.PAYMENT_SEQ;
+import static com.github.edwgiz.sample.bank.account.jooq.Tables.ACCOUNT;
+import static java.lang.System.nanoTime;
+import static java.time.LocalDateTime.now;
+import static java.time.ZoneOffset.UTC;
+import static java.time.temporal.ChronoUnit.HOURS;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.jooq.impl.DSL.max;
+
+/**
+ * Loads a synthetic dataset of {@link DatasetGenerator} on the application start, to run the benchmarks and the load
+ * tests against a database of a production scale. Nothing is loaded unless {@code storage.dataset.accounts} system
+ * property is given, the other ones are:
+ * <ul>
+ * <li>{@code storage.dataset.payments} - number of the payments, 0 by default;</li>
+ * <li>{@code storage.dataset.months} - the payments are processed within that number of the months until now, 12 by
+ * default;</li>
+ * <li>{@code storage.dataset.skew} - power of the account activity, 3 by default, when the top 1% of the accounts
+ * take a fifth of the payment sides;</li>
+ * <li>{@code storage.dataset.seed} - seed of the dataset, 1 by default;</li>
+ * <li>{@code storage.dataset.threads} - number of the loading threads, the number of the processors by default.</li>
+ * </ul>
+ * The rows are inserted by JDBC batches in parallel, bypassing jOOQ: the accounts over the identifier ranges, then
+ * the payments and the balance checkpoints in the processing order, into the partitions created ahead. The payment
+ * sequence and {@link ChangeFeed} are moved past the loaded payments, and the partitions of the closed months are
+ * sealed after.
+ */
+public final class DatasetLoader implements ContainerLifecycleListener {
+
+    /**
+     * Optional property to be passed via command-line.
+     */
+    /* default */static final String SYSTEM_PROPERTY_ACCOUNTS = "storage.dataset.accounts";
+    /**
+     * Optional property to be passed via command-line.
+     */
+    /* default */static final String SYSTEM_PROPERTY_PAYMENTS = "storage.dataset.payments";
+    /**
+     * Optional property to be passed via command-line.
+     */
+    /* default */static final String SYSTEM_PROPERTY_MONTHS = "storage.dataset.months";
+    /**
+     * Optional property to be passed via command-line.
+     */
+    /* default */static final String SYSTEM_PROPERTY_SKEW = "storage.dataset.skew";
+    /**
+     * Optional property to be passed via command-line.
+     */
+    /* default */static final String SYSTEM_PROPERTY_SEED = "storage.dataset.seed";
+    /**
+     * Optional property to be passed via command-line.
+     */
+    /* default */static final String SYSTEM_PROPERTY_THREADS = "storage.dataset.threads";
+    private static final int DEFAULT_MONTHS = 12;
+    private static final String DEFAULT_SKEW = "3";
+    private static final long DEFAULT_SEED = 1L;
+    private static final int BATCH_SIZE = 1000;
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final String INSERT_ACCOUNT = "INSERT INTO ACCOUNT"
+            + " (ACCOUNT_ID, CREATED, OWNER_NAME, BALANCE, BALANCE_LAST_MODIFIED) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_PAYMENT = " (PAYMENT_ID, PROCESSED, AMOUNT, WITHDRAWAL_ACCOUNT_ID,"
+            + " DEPOSIT_ACCOUNT_ID) VALUES (?, ?, ?, ?, ?)";
+    private static final String INSERT_CHECKPOINT = "INSERT INTO BALANCE_CHECKPOINT"
+            + " (ACCOUNT_ID, PROCESSED, PAYMENT_ID, BALANCE, PAYMENTS_AFTER) VALUES (?, ?, ?, ?, ?)";
+    private static final Logger LOG = LoggerFactory.getLogger(DatasetLoader.class);
+
+    private final DSLContext dslCtx;
+    private final PaymentStorage paymentStorage;
+    private final ChangeFeed changeFeed;
+    private final int batchSize;
+
+    /**
+     * @param value   a ready-to-use DSL context
+     * @param storage payment storage to create the partitions in
+     * @param changes feed to move past the loaded payments
+     */
+    @Inject
+    public DatasetLoader(final DSLContext value, final PaymentStorage storage, final ChangeFeed changes) {
+        this(value, storage, changes, BATCH_SIZE);
+    }
+
+    /* default */DatasetLoader(final DSLContext value, final PaymentStorage storage, final ChangeFeed changes,
+            final int rowsPerBatch) {
+        this.dslCtx = value;
+        this.paymentStorage = storage;
+        this.changeFeed = changes;
+        this.batchSize = rowsPerBatch;
+    }
+
+    @Override
+    public void onStartup(final Container container) {
+        load();
+    }
+
+    @Override
+    public void onReload(final Container container) {
+        // loaded once
+    }
+
+    @Override
+    public void onShutdown(final Container container) {
+        // nothing to release
+    }
+
+    /**
+     * Loads the dataset defined by the system properties, if any, must be called before the requests are served.
+     */
+    public void load() {
+        final int accounts = Integer.getInteger(SYSTEM_PROPERTY_ACCOUNTS, 0);
+        if (accounts > 0) {
+            final LocalDateTime now = now(UTC);
+            final LocalDateTime intervalTo = now.truncatedTo(HOURS);
+            load(new DatasetGenerator(accounts, Long.getLong(SYSTEM_PROPERTY_PAYMENTS, 0L),
+                            intervalTo.minusMonths(Integer.getInteger(SYSTEM_PROPERTY_MONTHS, DEFAULT_MONTHS)),
+                            intervalTo, Double.parseDouble(System.getProperty(SYSTEM_PROPERTY_SKEW, DEFAULT_SKEW)),
+                            Long.getLong(SYSTEM_PROPERTY_SEED, DEFAULT_SEED)),
+                    Integer.getInteger(SYSTEM_PROPERTY_THREADS, Runtime.getRuntime().availableProcessors()), now);
+        }
+    }
+
+    /**
+     * @param generator generator of the dataset.
+     * @param threads   number of the loading threads.
+     * @param now       current time, the partitions of the months closed by then are sealed.
+     */
+    /* default */void load(final DatasetGenerator generator, final int threads, final LocalDateTime now) {
+        final long start = nanoTime();
+        paymentStorage.prepare(generator.getFrom(), generator.getTo());
+        final long firstAccountId = dslCtx.select(max(ACCOUNT.ACCOUNT_ID)).from(ACCOUNT).fetchOne().value1() + 1L;
+        final long firstPaymentId = dslCtx.nextval(PAYMENT_SEQ);
+        final ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 0L, MILLISECONDS,
+                new ArrayBlockingQueue<>(threads), runnable -> new Thread(runnable, "dataset-loader"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+        try {
+            // the payments reference the accounts, so the accounts are committed first
+            write(executor, sink -> generator.accounts(firstAccountId, sink));
+            write(executor, sink -> generator.payments(firstAccountId, firstPaymentId, sink));
+        } finally {
+            executor.shutdown();
+        }
+        final long nextPaymentId = firstPaymentId + generator.getPayments();
+        dslCtx.alterSequence(PAYMENT_SEQ).restartWith(nextPaymentId).execute();
+        changeFeed.advance(nextPaymentId - 1L);
+        paymentStorage.prepare(now);
+        LOG.info("Loaded " + generator.getAccounts() + " accounts and " + generator.getPayments() + " payments in "
+                + (nanoTime() - start) / NANOS_PER_SECOND + " secs");
+    }
+
+    private void write(final ThreadPoolExecutor executor, final Consumer<DatasetGenerator.RowSink> generation) {
+        final BatchWriter writer = new BatchWriter(executor);
+        generation.accept(writer);
+        writer.flush();
+    }
+
+    /**
+     * Collects the generated rows into the batches and executes them in the executor, a full executor makes the
+     * generator execute a batch itself.
+     */
+    private final class BatchWriter implements DatasetGenerator.RowSink {
+
+        private final ThreadPoolExecutor executor;
+        private final Phaser pending;
+        private final AtomicReference<RuntimeException> failure;
+        private final List<Batch> batches;
+        private String partition;
+        private Batch payments;
+
+        /* default */BatchWriter(final ThreadPoolExecutor value) {
+            this.executor = value;
+            this.pending = new Phaser(1);
+            this.failure = new AtomicReference<>();
+            this.batches = new ArrayList<>();
+            batches.add(new Batch(INSERT_ACCOUNT, batchSize));
+            batches.add(new Batch(INSERT_CHECKPOINT, batchSize));
+        }
+
+        @Override
+        public void account(final long accountId, final LocalDateTime created, final String ownerName,
+                final BigDecimal balance, final LocalDateTime balanceLastModified) {
+            add(0, accountId, created, ownerName, balance, balanceLastModified);
+        }
+
+        @Override
+        public void payment(final long paymentId, final LocalDateTime processed, final BigDecimal amount,
+                final long withdrawalAccountId, final long depositAccountId) {
+            final String name = paymentStorage.partitionOf(processed);
+            if (!name.equals(partition)) {
+                if (payments != null) {
+                    submit(payments);
+                }
+                partition = name;
+                payments = new Batch("INSERT INTO " + name + INSERT_PAYMENT, batchSize);
+            }
+            payments.rows.add(new Object[]{paymentId, processed, amount, withdrawalAccountId, depositAccountId});
+            if (payments.rows.size() == batchSize) {
+                submit(payments);
+                payments = new Batch(payments.sql, batchSize);
+            }
+        }
+
+        @Override
+        public void checkpoint(final long accountId, final LocalDateTime processed, final long paymentId,
+                final BigDecimal balance, final int paymentsAfter) {
+            add(1, accountId, processed, paymentId, balance, paymentsAfter);
+        }
+
+        private void add(final int index, final Object... row) {
+            final Batch batch = batches.get(index);
+            batch.rows.add(row);
+            if (batch.rows.size() == batchSize) {
+                submit(batch);
+                batches.set(index, new Batch(batch.sql, batchSize));
+            }
+        }
+
+        private void submit(final Batch batch) {
+            rethrow();
+            pending.register();
+            executor.execute(() -> {
+                try {
+                    if (failure.get() == null) {
+                        dslCtx.connection(batch::execute);
+                    }
+                } catch (RuntimeException e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    pending.arriveAndDeregister();
+                }
+            });
+        }
+
+        /**
+         * Executes the incomplete batches and waits for all the batches.
+         */
+        /* default */void flush() {
+            for (final Batch batch : batches) {
+                if (!batch.rows.isEmpty()) {
+                    submit(batch);
+                }
+            }
+            if (payments != null) {
+                submit(payments);
+            }
+            pending.arriveAndAwaitAdvance();
+            rethrow();
+        }
+
+        private void rethrow() {
+            final RuntimeException error = failure.get();
+            if (error != null) {
+                throw error;
+            }
+        }
+    }
+
+    /**
+     * Rows inserted by one statement and one transaction.
+     */
+    private static final class Batch {
+
+        private final String sql;
+        private final List<Object[]> rows;
+
+        /* default */Batch(final String value, final int size) {
+            this.sql = value;
+            this.rows = new ArrayList<>(size);
+        }
+
+        /* default */void execute(final Connection con) throws SQLException {
+            con.setAutoCommit(false);
+            try (PreparedStatement statement = con.prepareStatement(sql)) {
+                for (final Object[] row : rows) {
+                    for (int i = 0; i < row.length; i++) {
+                        statement.setObject(i + 1, row[i]);
+                    }
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+            }
+            con.commit();
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.github.edwgiz.sample.bank.account.storage;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Appends the relayed payments to a local file.
+ */
+/* default */final class FileOutboxSink implements OutboxSink {
+
+    private final Path file;
+
+    /**
+     * @param value file to append to, created if absent.
+     */
+    /* default */FileOutboxSink(final Path value) {
+        this.file = value;
+    }
+
+    @Override
+    public void send(final byte[] lines) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, CREATE, WRITE, APPEND)) {
+            final ByteBuffer buffer = ByteBuffer.wrap(lines);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false); // acknowledged once it survives a crash
+        }
+    }
+}
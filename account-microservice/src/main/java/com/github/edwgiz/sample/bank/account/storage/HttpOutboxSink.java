@@ -0,0 +1,59 @@
+package com.github.edwgiz.sample.bank.account.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+import static javax.ws.rs.core.HttpHeaders.CONTENT_TYPE;
+import static javax.ws.rs.core.Response.Status.Family.SUCCESSFUL;
+import static javax.ws.rs.core.Response.Status.Family.familyOf;
+
+/**
+ * Posts the relayed payments to an HTTP endpoint, a successful response acknowledges them.
+ */
+/* default */final class HttpOutboxSink implements OutboxSink {
+
+    /**
+     * Media type of the request body.
+     */
+    /* default */static final String JSON_LINES = "application/x-ndjson";
+    private static final int TIMEOUT_MILLIS = 10_000;
+    private static final int BUFFER_SIZE = 512;
+
+    private final URL url;
+
+    /**
+     * @param value endpoint to post to.
+     */
+    /* default */HttpOutboxSink(final URL value) {
+        this.url = value;
+    }
+
+    @Override
+    public void send(final byte[] lines) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setConnectTimeout(TIMEOUT_MILLIS);
+        connection.setReadTimeout(TIMEOUT_MILLIS);
+        connection.setRequestMethod("POST");
+        connection.setRequestProperty(CONTENT_TYPE, JSON_LINES);
+        connection.setDoOutput(true);
+        connection.setFixedLengthStreamingMode(lines.length);
+        try (OutputStream out = connection.getOutputStream()) {
+            out.write(lines);
+        }
+        final int status = connection.getResponseCode();
+        if (familyOf(status) != SUCCESSFUL) {
+            connection.disconnect();
+            throw new IOException(url + " responded with " + status + " status");
+        }
+        // the response is read out, so the connection is kept alive for the next batch
+        try (InputStream response = connection.getInputStream()) {
+            final byte[] buffer = new byte[BUFFER_SIZE];
+            while (response.read(buffer) >= 0) {
+                continue;
+            }
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package com.github.edwgiz.sample.bank.account.storage;
+
+import com.github.edwgiz.sample.bank.account.model.BlockedSession;
+import com.github.edwgiz.sample.bank.account.model.HotAccount;
+import com.github.edwgiz.sample.bank.account.model.LockContentionReport;
+import com.github.edwgiz.sample.bank.core.metrics.Counter;
+import com.github.edwgiz.sample.bank.core.metrics.Metrics;
+import com.github.edwgiz.sample.bank.core.metrics.Timer;
+import com.github.edwgiz.sample.bank.core.storage.CountMinSketch;
+import com.github.edwgiz.sample.bank.core.storage.HeavyHitters;
+import org.jooq.DSLContext;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Contention for the account row locks, to find the hot accounts before their payments start failing with 409.
+ * <p>
+ * The lock waits and the timeouts are counted per account by count-min sketches, and the accounts with the biggest
+ * total wait are kept by {@link HeavyHitters}, so the memory is fixed whatever the number of the accounts. The
+ * sessions waiting for a lock are sampled from H2 {@code INFORMATION_SCHEMA.SESSIONS}, as the MVStore row locks
+ * aren't listed in {@code INFORMATION_SCHEMA.LOCKS}.
+ */
+@Singleton
+public final class LockContention {
+
+    /**
+     * Number of the hottest accounts kept.
+     */
+    public static final int HOT_ACCOUNTS = 64;
+    private static final int SKETCH_DEPTH = 4;
+    private static final int SKETCH_WIDTH = 2048;
+    private static final double NANOS_PER_MILLI = 1e6;
+    private static final String BLOCKED_SESSIONS = "FROM INFORMATION_SCHEMA.SESSIONS WHERE BLOCKER_ID IS NOT NULL";
+
+    private final DSLContext dslCtx;
+    private final CountMinSketch locks;
+    private final CountMinSketch waits;
+    private final CountMinSketch timeouts;
+    private final HeavyHitters hotAccounts;
+    private final Timer waitTimer;
+    private final Counter timeoutCounter;
+
+    /**
+     * @param value   a ready-to-use DSL context
+     * @param metrics registry to expose the lock waits and the blocked sessions in
+     */
+    @Inject
+    public LockContention(final DSLContext value, final Metrics metrics) {
+        this.dslCtx = value;
+        this.locks = new CountMinSketch(SKETCH_DEPTH, SKETCH_WIDTH);
+        this.waits = new CountMinSketch(SKETCH_DEPTH, SKETCH_WIDTH);
+        this.timeouts = new CountMinSketch(SKETCH_DEPTH, SKETCH_WIDTH);
+        this.hotAccounts = new HeavyHitters(HOT_ACCOUNTS);
+        this.waitTimer = metrics.timer("account_lock_wait_seconds", "Wait for the account row locks.", "");
+        this.timeoutCounter = metrics.counter("account_lock_timeouts_total", "Account row lock waits timed out.", "");
+        metrics.gauge("db_blocked_sessions", "Database sessions waiting for a lock, sampled on a scrape.", "",
+                () -> dslCtx.fetchOne("SELECT COUNT(*) " + BLOCKED_SESSIONS).getValue(0, Integer.class));
+    }
+
+    /**
+     * @param accountId identifier of the locked account.
+     * @param nanos     wait for the lock, including the locking statement.
+     * @param acquired  whether the lock is taken, or the wait timed out.
+     */
+    public void record(final long accountId, final long nanos, final boolean acquired) {
+        locks.add(accountId, 1L);
+        waits.add(accountId, nanos);
+        hotAccounts.add(accountId, nanos);
+        waitTimer.record(nanos);
+        if (!acquired) {
+            timeouts.add(accountId, 1L);
+            timeoutCounter.increment();
+        }
+    }
+
+    /**
+     * @param limit maximum number of the hot accounts, up to {@link #HOT_ACCOUNTS}.
+     * @return the accounts with the biggest total wait first, and the sessions waiting for a lock at the moment.
+     */
+    public LockContentionReport report(final int limit) {
+        final List<HotAccount> accounts = new ArrayList<>(limit);
+        for (final HeavyHitters.Hitter hitter : hotAccounts.top(limit)) {
+            final long accountId = hitter.getKey();
+            // both overestimate, the least is the closest
+            final long wait = Math.min(hitter.getWeight(), waits.estimate(accountId));
+            accounts.add(new HotAccount(accountId, wait / NANOS_PER_MILLI, locks.estimate(accountId),
+                    timeouts.estimate(accountId)));
+        }
+        final List<BlockedSession> sessions = dslCtx.fetch("SELECT ID, BLOCKER_ID, STATEMENT, "
+                + "DATEDIFF('MILLISECOND', STATEMENT_START, CURRENT_TIMESTAMP) AS WAIT " + BLOCKED_SESSIONS
+                + " ORDER BY ID")
+                .map(row -> new BlockedSession(row.get("ID", Integer.class), row.get("BLOCKER_ID", Integer.class),
+                        row.get("STATEMENT", String.class), row.get("WAIT", Long.class)));
+        return new LockContentionReport(accounts, sessions);
+    }
+}
@@ -0,0 +1,122 @@
+package com.github.edwgiz.sample.bank.account.storage;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.jaxrs.json.JacksonJaxbJsonProvider;
+import com.github.edwgiz.sample.bank.account.jooq.tables.pojos.Payment;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static javax.ws.rs.core.MediaType.APPLICATION_JSON_TYPE;
+
+/**
+ * Background thread relaying the payments of {@link PaymentOutbox} in batches to an {@link OutboxSink}, runs while
+ * the application is up. A batch is deleted from the outbox only after the sink has acknowledged it, so the payments
+ * are delivered at least once, and the offset of the consumer is stored along.
+ * <p>
+ * The sink is defined by {@code payment.outbox.url} system property: a {@code file:} URL to append to a local file,
+ * or an {@code http:} one to post to. Without it, the relay isn't registered and the payments aren't written to the
+ * outbox at all. The batch size is defined by {@code payment.outbox.batch} system property, 500 by default.
+ */
+public final class OutboxRelay extends PeriodicJob {
+
+    /**
+     * Optional property to be passed via command-line.
+     */
+    /* default */static final String SYSTEM_PROPERTY_URL = "payment.outbox.url";
+    /**
+     * Optional property to be passed via command-line.
+     */
+    /* default */static final String SYSTEM_PROPERTY_BATCH = "payment.outbox.batch";
+    private static final int DEFAULT_BATCH = 500;
+    private static final long PERIOD_MILLIS = 100L;
+    private static final char LINE_SEPARATOR = '\n';
+    private static final Logger LOG = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final PaymentOutbox paymentOutbox;
+    private final String consumer;
+    private final OutboxSink sink;
+    private final ObjectWriter json;
+    private final int batchSize;
+
+    /**
+     * @param outbox       outbox to relay.
+     * @param jsonProvider json provider of the jax-rs application.
+     * @throws IOException when the sink file can't be opened.
+     */
+    @Inject
+    public OutboxRelay(final PaymentOutbox outbox, final JacksonJaxbJsonProvider jsonProvider) throws IOException {
+        this(outbox, jsonProvider, location(), Integer.getInteger(SYSTEM_PROPERTY_BATCH, DEFAULT_BATCH),
+                PERIOD_MILLIS);
+    }
+
+    /* default */OutboxRelay(final PaymentOutbox outbox, final JacksonJaxbJsonProvider jsonProvider,
+            final URI location, final int batch, final long period) throws IOException {
+        this(outbox, jsonProvider, location.toString(), sink(location), batch, period);
+    }
+
+    /* default */OutboxRelay(final PaymentOutbox outbox, final JacksonJaxbJsonProvider jsonProvider,
+            final String consumerLocation, final OutboxSink consumerSink, final int batch, final long period) {
+        super("outbox-relay", period);
+        this.paymentOutbox = outbox;
+        this.consumer = consumerLocation;
+        this.sink = consumerSink;
+        this.json = jsonProvider.locateMapper(Payment.class, APPLICATION_JSON_TYPE).writerFor(Payment.class);
+        this.batchSize = batch;
+    }
+
+    @Override
+    /* default */void run() {
+        try {
+            int relayed;
+            do {
+                relayed = relay();
+            } while (relayed == batchSize);
+        } catch (IOException | RuntimeException e) {
+            LOG.error("Payment relay to " + consumer + " - failed, will be retried", e);
+        }
+    }
+
+    /* default */int relay() throws IOException {
+        final List<Payment> batch = paymentOutbox.fetch(batchSize);
+        if (!batch.isEmpty()) {
+            final ByteArrayOutputStream lines = new ByteArrayOutputStream();
+            for (final Payment payment : batch) {
+                lines.write(json.writeValueAsBytes(payment));
+                lines.write(LINE_SEPARATOR);
+            }
+            sink.send(lines.toByteArray());
+            paymentOutbox.acknowledge(consumer, batch);
+        }
+        return batch.size();
+    }
+
+    /**
+     * @return {@code true} when the sink is defined, so the payments are worth to be written to the outbox.
+     */
+    public static boolean isEnabled() {
+        return System.getProperty(SYSTEM_PROPERTY_URL) != null;
+    }
+
+    /* default */static URI location() {
+        return URI.create(System.getProperty(SYSTEM_PROPERTY_URL));
+    }
+
+    /* default */static OutboxSink sink(final URI location) throws IOException {
+        final OutboxSink result;
+        if ("file".equals(location.getScheme())) {
+            result = new FileOutboxSink(Paths.get(location));
+        } else if ("http".equals(location.getScheme()) || "https".equals(location.getScheme())) {
+            result = new HttpOutboxSink(location.toURL());
+        } else {
+            throw new IllegalArgumentException("Unsupported outbox location " + location);
+        }
+        return result;
+    }
+}
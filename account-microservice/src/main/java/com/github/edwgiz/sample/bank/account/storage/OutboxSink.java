@@ -0,0 +1,19 @@
+package com.github.edwgiz.sample.bank.account.storage;
+
+import java.io.IOException;
+
+/**
+ * Downstream consumer of the payments relayed by {@link OutboxRelay}.
+ */
+@FunctionalInterface
+public interface OutboxSink {
+
+    /**
+     * Delivers a batch durably, the same batch is sent again unless this returns normally, so the consumer dedupes
+     * the payments of an account by their increasing identifiers.
+     *
+     * @param lines JSON lines of the payments, ordered by their identifiers.
+     * @throws IOException when the batch isn't delivered.
+     */
+    void send(byte[] lines) throws IOException;
+}
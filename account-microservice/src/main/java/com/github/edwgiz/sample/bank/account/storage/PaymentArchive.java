@@ -0,0 +1,169 @@
+package com.github.edwgiz.sample.bank.account.storage;
+
+import com.github.edwgiz.sample.bank.account.jooq.tables.pojos.Payment;
+import org.glassfish.hk2.api.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+
+/**
+ * Cold tier of the payment storage, a directory of {@link PaymentSegment} files, one per archived partition.
+ * <p>
+ * The directory is defined by {@code payment.archive.dir} system property. Without it, a temporary directory is
+ * created. The segments have the same lifetime as of the in-memory database they are archived from: the directory
+ * must hold no segments on the start, as the payment identifiers start over, and they are deleted on the shutdown,
+ * along with the temporary directory.
+ */
+public final class PaymentArchive implements PreDestroy {
+
+    /**
+     * Optional property to be passed via command-line.
+     */
+    /* default */static final String SYSTEM_PROPERTY_DIR = "payment.archive.dir";
+    private static final String EXTENSION = ".seg";
+    private static final Logger LOG = LoggerFactory.getLogger(PaymentArchive.class);
+
+    private final Path directory;
+    private final boolean temporary;
+    private final ConcurrentSkipListMap<String, PaymentSegment> segments;
+
+    /**
+     * Opens the directory defined by the system property.
+     *
+     * @throws IOException when the directory can't be created or read.
+     */
+    public PaymentArchive() throws IOException {
+        this(System.getProperty(SYSTEM_PROPERTY_DIR) == null
+                ? Files.createTempDirectory("payment-archive")
+                : Paths.get(System.getProperty(SYSTEM_PROPERTY_DIR)), System.getProperty(SYSTEM_PROPERTY_DIR) == null);
+    }
+
+    /**
+     * Opens an empty archive in the directory.
+     *
+     * @param value directory of the segment files.
+     * @throws IOException when the directory can't be created or read, or it holds segments of a previous database.
+     */
+    public PaymentArchive(final Path value) throws IOException {
+        this(value, false);
+    }
+
+    private PaymentArchive(final Path value, final boolean temporaryDirectory) throws IOException {
+        this.directory = Files.createDirectories(value);
+        this.temporary = temporaryDirectory;
+        this.segments = new ConcurrentSkipListMap<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, '*' + EXTENSION)) {
+            if (files.iterator().hasNext()) {
+                throw new IOException("Payment archive " + directory + " holds segments of a previous database");
+            }
+        }
+    }
+
+    /**
+     * Deletes the segment files and the temporary directory, the in-memory database is gone too.
+     */
+    @Override
+    public void preDestroy() {
+        segments.clear();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, '*' + EXTENSION + '*')) {
+            for (final Path file : files) {
+                Files.delete(file);
+            }
+            if (temporary) {
+                Files.delete(directory);
+            }
+        } catch (IOException e) {
+            LOG.warn("Payment archive " + directory + " deletion - failed", e);
+        }
+    }
+
+    /**
+     * @return directory of the segment files.
+     */
+    /* default */Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Writes and opens a segment, doesn't make it visible for the queries yet. The file appears atomically, so a
+     * crash doesn't leave a partial segment.
+     *
+     * @param name name of the archived partition.
+     * @param rows payments sorted by {@link Payment#getProcessed()}, must not be empty.
+     * @return a ready-to-use segment.
+     */
+    /* default */PaymentSegment write(final String name, final List<Payment> rows) {
+        final Path file = directory.resolve(name + EXTENSION);
+        final Path tmpFile = directory.resolve(name + EXTENSION + ".tmp");
+        try {
+            PaymentSegment.writeFile(tmpFile, rows);
+            Files.move(tmpFile, file, ATOMIC_MOVE);
+            return new PaymentSegment(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't write payment segment " + file, e);
+        }
+    }
+
+    /**
+     * @param segment segment to add to the query results.
+     */
+    /* default */void register(final PaymentSegment segment) {
+        segments.put(segment.getName(), segment);
+    }
+
+    /**
+     * Holds the payments of one segment at most.
+     *
+     * @param accountId    withdrawal or deposit account identifier.
+     * @param intervalFrom processed from, inclusive.
+     * @param intervalTo   processed to, inclusive.
+     * @param action       receives the payments sorted by processing time.
+     */
+    /* default */void forEach(final long accountId, final LocalDateTime intervalFrom, final LocalDateTime intervalTo,
+            final Consumer<? super Payment> action) {
+        final List<Payment> buffer = new ArrayList<>();
+        for (final PaymentSegment segment : segments.values()) {
+            segment.list(accountId, intervalFrom, intervalTo, buffer);
+            buffer.forEach(action);
+            buffer.clear();
+        }
+    }
+
+    /**
+     * @param after  payment identifier, exclusive.
+     * @param upTo   payment identifier, inclusive.
+     * @param result receives the payments of the lowest identifiers within the range.
+     */
+    /* default */void changes(final long after, final long upTo, final ChangeBuffer result) {
+        for (final PaymentSegment segment : segments.values()) {
+            segment.changes(after, upTo, result);
+        }
+    }
+
+    /**
+     * @param paymentId unique identifier.
+     * @return payment or {@code null} when it's not archived.
+     */
+    /* default */Payment find(final long paymentId) {
+        Payment result = null;
+        for (final PaymentSegment segment : segments.values()) {
+            if (result == null) {
+                result = segment.find(paymentId);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,60 @@
+package com.github.edwgiz.sample.bank.account.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+import static java.time.LocalDateTime.now;
+import static java.time.ZoneOffset.UTC;
+import static java.util.concurrent.TimeUnit.MINUTES;
+
+/**
+ * Background job moving the old payment partitions to the {@link PaymentArchive}, runs while the application is up.
+ * <p>
+ * The partitions older than {@code payment.archive.after.months} system property, 3 by default, are archived.
+ */
+public final class PaymentArchiver extends PeriodicJob {
+
+    /**
+     * Optional property to be passed via command-line.
+     */
+    /* default */static final String SYSTEM_PROPERTY_AFTER_MONTHS = "payment.archive.after.months";
+    private static final long DEFAULT_AFTER_MONTHS = 3L;
+    private static final long PERIOD_MINUTES = 60L;
+    private static final Logger LOG = LoggerFactory.getLogger(PaymentArchiver.class);
+
+    private final PaymentStorage paymentStorage;
+
+    /**
+     * @param storage payment storage to archive.
+     */
+    @Inject
+    public PaymentArchiver(final PaymentStorage storage) {
+        this(storage, MINUTES.toMillis(PERIOD_MINUTES));
+    }
+
+    /* default */PaymentArchiver(final PaymentStorage storage, final long period) {
+        super("payment-archiver", period);
+        this.paymentStorage = storage;
+    }
+
+    @Override
+    /* default */void run() {
+        try {
+            final int archived = paymentStorage.archive(cutoff(now(UTC)));
+            if (archived > 0) {
+                LOG.info("Archived " + archived + " payment partition(s)");
+            }
+        } catch (RuntimeException e) {
+            LOG.error("Payment archiving - failed", e);
+        }
+    }
+
+    /* default */static LocalDateTime cutoff(final LocalDateTime now) {
+        return YearMonth.from(now).minusMonths(Long.getLong(SYSTEM_PROPERTY_AFTER_MONTHS, DEFAULT_AFTER_MONTHS))
+                .atDay(1).atStartOfDay();
+    }
+}
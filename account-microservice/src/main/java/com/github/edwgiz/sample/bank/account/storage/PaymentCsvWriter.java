@@ -0,0 +1,67 @@
+package com.github.edwgiz.sample.bank.account.storage;
+
+import com.github.edwgiz.sample.bank.account.jooq.tables.pojos.Payment;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.time.format.DateTimeFormatter;
+import java.util.function.Consumer;
+
+/**
+ * Writes one CSV row per payment, counting them. The comments are quoted, the other columns never contain
+ * the separators. The processing time has the fixed millis precision of the database.
+ */
+final class PaymentCsvWriter implements Consumer<Payment>, Closeable {
+
+    /**
+     * First line of every file.
+     */
+    /* default */static final String HEADER =
+            "PAYMENT_ID,PROCESSED,AMOUNT,WITHDRAWAL_ACCOUNT_ID,DEPOSIT_ACCOUNT_ID,COMMENT\n";
+    private static final DateTimeFormatter PROCESSED_FORMATTER = DateTimeFormatter.ofPattern(
+            "yyyy-MM-dd'T'HH:mm:ss.SSS");
+
+    private final Writer out;
+    private long rows;
+
+    /**
+     * @param value target writer, buffered.
+     * @throws IOException when the header can't be written.
+     */
+    /* default */PaymentCsvWriter(final Writer value) throws IOException {
+        this.out = value;
+        out.write(HEADER);
+    }
+
+    @Override
+    public void accept(final Payment payment) {
+        try {
+            out.append(payment.getPaymentId().toString()).append(',');
+            PROCESSED_FORMATTER.formatTo(payment.getProcessed(), out);
+            out.append(',').append(payment.getAmount().toPlainString()).append(',')
+                    .append(payment.getWithdrawalAccountId().toString()).append(',')
+                    .append(payment.getDepositAccountId().toString()).append(',');
+            if (payment.getComment() != null) {
+                out.append('"').append(payment.getComment().replace("\"", "\"\"")).append('"');
+            }
+            out.append('\n');
+            rows++;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return number of the written payments.
+     */
+    /* default */long getRows() {
+        return rows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,183 @@
+package com.github.edwgiz.sample.bank.account.storage;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.jaxrs.json.JacksonJaxbJsonProvider;
+import com.github.edwgiz.sample.bank.account.jooq.tables.interfaces.IPayment;
+import com.github.edwgiz.sample.bank.account.jooq.tables.pojos.Payment;
+import com.github.edwgiz.sample.bank.core.webapp.commons.ShutdownHook;
+import com.github.edwgiz.sample.bank.core.webapp.sse.EventHub;
+import com.github.edwgiz.sample.bank.core.webapp.sse.EventHub.Overflow;
+import org.jooq.DSLContext;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.ws.rs.sse.OutboundSseEvent;
+import javax.ws.rs.sse.Sse;
+import javax.ws.rs.sse.SseEventSink;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static com.github.edwgiz.sample.bank.core.webapp.commons.ValidationUtils.exception;
+import static java.time.LocalDateTime.now;
+import static java.time.ZoneOffset.UTC;
+import static java.time.format.DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+import static javax.ws.rs.core.MediaType.APPLICATION_JSON_TYPE;
+
+/**
+ * Streams the committed payments of the accounts to their server-sent event subscribers via {@link EventHub}.
+ * <p>
+ * An event identifier is the processing time and the identifier of the payment, the order of the payments of an
+ * account, so a reconnecting client resumes after its last received event from {@link PaymentStorage}. The payments
+ * committed around a resume may be sent twice.
+ */
+@Singleton
+public final class PaymentEvents implements AutoCloseable {
+
+    /**
+     * Name of the event with {@link Payment} data.
+     */
+    public static final String EVENT_NAME = "payment";
+    /**
+     * Maximum number of the payments buffered per subscriber.
+     */
+    /* default */static final int BUFFER_CAPACITY = 64;
+    /**
+     * Time a client may block a send for, it's disconnected after.
+     */
+    private static final long SEND_TIMEOUT_MILLIS = 10_000L;
+    private static final char ID_SEPARATOR = '/';
+
+    private final DSLContext dslCtx;
+    private final PaymentStorage paymentStorage;
+    private final EventHub hub;
+    private final ObjectWriter json;
+    private final Sse sse;
+
+    /**
+     * @param value        a ready-to-use DSL context
+     * @param storage      payment storage to resume from
+     * @param jsonProvider json provider of the jax-rs application
+     * @param factory      event factory of the jax-rs application
+     */
+    @Inject
+    public PaymentEvents(final DSLContext value, final PaymentStorage storage,
+            final JacksonJaxbJsonProvider jsonProvider, final Sse factory) {
+        this(value, storage, jsonProvider, factory,
+                new EventHub(Runtime.getRuntime().availableProcessors(), BUFFER_CAPACITY, SEND_TIMEOUT_MILLIS));
+        // the endless responses would delay the graceful shutdown of the web server otherwise
+        final ShutdownHook shutdownHook = new ShutdownHook("payment events");
+        shutdownHook.addLast(this);
+    }
+
+    /* default */PaymentEvents(final DSLContext value, final PaymentStorage storage,
+            final JacksonJaxbJsonProvider jsonProvider, final Sse factory, final EventHub eventHub) {
+        this.dslCtx = value;
+        this.paymentStorage = storage;
+        this.sse = factory;
+        this.hub = eventHub;
+        this.json = jsonProvider.locateMapper(Payment.class, APPLICATION_JSON_TYPE).writerFor(Payment.class);
+    }
+
+    /**
+     * Subscribes the sink to the payments of the account, committed after the last event or after the subscription.
+     *
+     * @param accountId   withdrawal or deposit account identifier.
+     * @param lastEventId identifier of the last received event, or {@code null}.
+     * @param overflow    policy for a client which doesn't keep up with the payments.
+     * @param sink        sink to send the events to.
+     */
+    public void subscribe(final long accountId, final String lastEventId, final Overflow overflow,
+            final SseEventSink sink) {
+        final IPayment last = lastEventId == null ? null : parseEventId(lastEventId);
+        final EventHub.Subscriber subscriber = hub.subscribe(accountId, sink, sse, overflow);
+        if (last == null) {
+            subscriber.start(event -> true);
+        } else {
+            // the payments committed since the subscription are buffered, the sent ones are skipped then
+            final AtomicReference<IPayment> sent = new AtomicReference<>(last);
+            final LocalDateTime intervalTo = now(UTC);
+            dslCtx.transaction(cnf -> paymentStorage.forEach(cnf, accountId, last.getProcessed(), intervalTo,
+                    payment -> {
+                        if (compare(payment, sent.get()) > 0 && subscriber.send(event(payment))) {
+                            sent.set(payment);
+                        }
+                    }));
+            subscriber.start(event -> compare(parseEventId(event.getId()), sent.get()) > 0);
+        }
+    }
+
+    /**
+     * Sends the payment to the subscribers of its accounts, must be called after the commit.
+     *
+     * @param payment committed payment.
+     */
+    public void publish(final Payment payment) {
+        final long withdrawalAccountId = payment.getWithdrawalAccountId();
+        final long depositAccountId = payment.getDepositAccountId();
+        if (hub.hasSubscribers(withdrawalAccountId) || hub.hasSubscribers(depositAccountId)) {
+            final OutboundSseEvent event = event(payment); // shared by the sinks of both accounts
+            hub.publish(withdrawalAccountId, event);
+            hub.publish(depositAccountId, event);
+        }
+    }
+
+    /**
+     * @return the subscriber hub.
+     */
+    public EventHub getHub() {
+        return hub;
+    }
+
+    /**
+     * Closes the sinks of all the subscribers.
+     */
+    @Override
+    public void close() {
+        hub.close();
+    }
+
+    // the data is serialized here once, rather than by each sink
+    private OutboundSseEvent event(final Payment payment) {
+        final String data;
+        try {
+            data = json.writeValueAsString(payment);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Can't serialize payment " + payment.getPaymentId(), e);
+        }
+        return sse.newEventBuilder()
+                .id(eventId(payment))
+                .name(EVENT_NAME)
+                .mediaType(APPLICATION_JSON_TYPE)
+                .data(String.class, data)
+                .build();
+    }
+
+    /**
+     * @param payment payment of the event.
+     * @return the processing time and the identifier of the payment, like {@code 2020-02-02T00:00:00.000/15}.
+     */
+    public static String eventId(final IPayment payment) {
+        return ISO_LOCAL_DATE_TIME.format(payment.getProcessed()) + ID_SEPARATOR + payment.getPaymentId();
+    }
+
+    /* default */static IPayment parseEventId(final String eventId) {
+        final int separator = eventId.lastIndexOf(ID_SEPARATOR);
+        try {
+            final Payment result = new Payment();
+            result.setProcessed(LocalDateTime.parse(eventId.substring(0, Math.max(0, separator)),
+                    ISO_LOCAL_DATE_TIME));
+            result.setPaymentId(Long.valueOf(eventId.substring(separator + 1)));
+            return result;
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw exception("Incorrect event identifier '" + eventId + '\'');
+        }
+    }
+
+    // the order of the payments of an account
+    private static int compare(final IPayment payment, final IPayment other) {
+        final int order = payment.getProcessed().compareTo(other.getProcessed());
+        return order == 0 ? payment.getPaymentId().compareTo(other.getPaymentId()) : order;
+    }
+}
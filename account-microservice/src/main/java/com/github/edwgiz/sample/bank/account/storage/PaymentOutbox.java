@@ -0,0 +1,113 @@
+package com.github.edwgiz.sample.bank.account.storage;
+
+import com.github.edwgiz.sample.bank.account.jooq.tables.interfaces.IPayment;
+import com.github.edwgiz.sample.bank.account.jooq.tables.pojos.OutboxConsumer;
+import com.github.edwgiz.sample.bank.account.jooq.tables.pojos.Payment;
+import com.github.edwgiz.sample.bank.account.model.OutboxLag;
+import org.jooq.Configuration;
+import org.jooq.DSLContext;
+import org.jooq.Record2;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.github.edwgiz.sample.bank.account.jooq.Tables.OUTBOX;
+import static com.github.edwgiz.sample.bank.account.jooq.Tables.OUTBOX_CONSUMER;
+import static java.time.LocalDateTime.now;
+import static java.time.ZoneOffset.UTC;
+import static org.jooq.impl.DSL.count;
+import static org.jooq.impl.DSL.min;
+
+/**
+ * Transactional outbox of the payments for the downstream consumers.
+ * <p>
+ * A payment is copied into the outbox in its own transaction, then {@link OutboxRelay} delivers and deletes it. The
+ * payments are relayed in the order of their identifiers, the payments of an account are committed in the same order
+ * under the account lock, so the order per account is kept. A payment committed later with a lower identifier, of
+ * other accounts, is picked up by the next batch as it isn't deleted yet.
+ * <p>
+ * Nothing is written to the outbox when {@link OutboxRelay#isEnabled() the relay isn't enabled}.
+ */
+@Singleton
+public final class PaymentOutbox {
+
+    private final DSLContext dslCtx;
+    private final boolean relayed;
+
+    /**
+     * @param value a ready-to-use DSL context
+     */
+    @Inject
+    public PaymentOutbox(final DSLContext value) {
+        this(value, OutboxRelay.isEnabled());
+    }
+
+    /* default */PaymentOutbox(final DSLContext value, final boolean enabled) {
+        this.dslCtx = value;
+        this.relayed = enabled;
+    }
+
+    /**
+     * Copies a payment into the outbox, when it's relayed.
+     *
+     * @param cnf     configuration of the payment transaction.
+     * @param payment payment to relay, including its identifier.
+     */
+    public void insert(final Configuration cnf, final IPayment payment) {
+        if (relayed) {
+            cnf.dsl().insertInto(OUTBOX).set(cnf.dsl().newRecord(OUTBOX, payment)).execute();
+        }
+    }
+
+    /**
+     * @param limit maximum number of the payments.
+     * @return the oldest payments to relay, ordered by their identifiers.
+     */
+    public List<Payment> fetch(final int limit) {
+        return dslCtx.selectFrom(OUTBOX).orderBy(OUTBOX.PAYMENT_ID).limit(limit).fetchInto(Payment.class);
+    }
+
+    /**
+     * Deletes the delivered payments and moves the offset of the consumer.
+     *
+     * @param consumer location of the consumer.
+     * @param batch    delivered payments, ordered by their identifiers.
+     */
+    public void acknowledge(final String consumer, final List<? extends IPayment> batch) {
+        final List<Long> paymentIds = new ArrayList<>(batch.size());
+        for (final IPayment payment : batch) {
+            paymentIds.add(payment.getPaymentId());
+        }
+        final Long lastPaymentId = paymentIds.get(paymentIds.size() - 1);
+        final LocalDateTime now = now(UTC);
+        dslCtx.transaction(cnf -> {
+            cnf.dsl().deleteFrom(OUTBOX).where(OUTBOX.PAYMENT_ID.in(paymentIds)).execute();
+            final int updated = cnf.dsl().update(OUTBOX_CONSUMER)
+                    .set(OUTBOX_CONSUMER.LAST_PAYMENT_ID, lastPaymentId)
+                    .set(OUTBOX_CONSUMER.DELIVERED, OUTBOX_CONSUMER.DELIVERED.plus(batch.size()))
+                    .set(OUTBOX_CONSUMER.LAST_DELIVERED, now)
+                    .where(OUTBOX_CONSUMER.CONSUMER.eq(consumer)).execute();
+            if (updated == 0) {
+                cnf.dsl().insertInto(OUTBOX_CONSUMER).set(cnf.dsl().newRecord(OUTBOX_CONSUMER,
+                        new OutboxConsumer(consumer, lastPaymentId, (long) batch.size(), now))).execute();
+            }
+        });
+    }
+
+    /**
+     * @param cnf transactional configuration.
+     * @return the payments waiting for the delivery and the offsets of the consumers.
+     */
+    public OutboxLag lag(final Configuration cnf) {
+        final Record2<Integer, LocalDateTime> pending = cnf.dsl().select(count(), min(OUTBOX.PROCESSED))
+                .from(OUTBOX).fetchOne();
+        final LocalDateTime oldest = pending.value2();
+        return new OutboxLag(pending.value1(), oldest == null ? 0L : Duration.between(oldest, now(UTC)).toMillis(),
+                cnf.dsl().selectFrom(OUTBOX_CONSUMER).orderBy(OUTBOX_CONSUMER.CONSUMER)
+                        .fetchInto(OutboxConsumer.class));
+    }
+}
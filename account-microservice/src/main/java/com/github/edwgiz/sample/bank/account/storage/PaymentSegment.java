@@ -0,0 +1,329 @@
+package com.github.edwgiz.sample.bank.account.storage;
+
+import com.github.edwgiz.sample.bank.account.jooq.tables.pojos.Payment;
+import com.github.edwgiz.sample.bank.core.storage.BloomFilter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import static com.github.edwgiz.sample.bank.core.storage.VarLongUtils.read;
+import static com.github.edwgiz.sample.bank.core.storage.VarLongUtils.readSigned;
+import static com.github.edwgiz.sample.bank.core.storage.VarLongUtils.write;
+import static com.github.edwgiz.sample.bank.core.storage.VarLongUtils.writeSigned;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.time.ZoneOffset.UTC;
+
+/**
+ * Immutable columnar file of the payments of one archived partition. The file is memory-mapped, so the rows don't
+ * occupy the heap, only the small dictionaries and the bloom filter do.
+ * <p>
+ * Layout: a header with the row count, min/max {@code PROCESSED} and {@code PAYMENT_ID}, a bloom filter of the
+ * account identifiers and the column offsets, followed by the columns. Rows are sorted by {@code PROCESSED}.
+ * <ul>
+ * <li>{@code PAYMENT_ID}, {@code PROCESSED} - deltas to the previous row, as variable-length longs;</li>
+ * <li>{@code AMOUNT} - unscaled value of the fixed scale;</li>
+ * <li>{@code WITHDRAWAL_ACCOUNT_ID}, {@code DEPOSIT_ACCOUNT_ID} - indexes in the shared dictionary of accounts;</li>
+ * <li>{@code COMMENT} - index in the dictionary of comments, zero means {@code null}.</li>
+ * </ul>
+ */
+final class PaymentSegment {
+
+    private static final int MAGIC = 0x50534731; // "PSG1"
+    private static final int AMOUNT_SCALE = 2;
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+    private static final int MILLIS_IN_SECOND = 1000;
+    private static final int NANOS_IN_MILLI = 1_000_000;
+
+    private static final int IDS = 0;
+    private static final int PROCESSED = 1;
+    private static final int AMOUNTS = 2;
+    private static final int WITHDRAWALS = 3;
+    private static final int DEPOSITS = 4;
+    private static final int COMMENTS = 5;
+    private static final int ACCOUNT_DICTIONARY = 6;
+    private static final int COMMENT_DICTIONARY = 7;
+    private static final int SECTIONS = 8;
+
+    private final String name;
+    private final ByteBuffer data;
+    private final int rows;
+    private final long minProcessed;
+    private final long maxProcessed;
+    private final long minPaymentId;
+    private final long maxPaymentId;
+    private final BloomFilter accountFilter;
+    private final int[] offsets;
+    private final long[] accounts;
+    private final int[] comments;
+
+    /**
+     * Maps the file written by {@link #writeFile(Path, List)}.
+     *
+     * @param file segment file, named after the archived partition.
+     * @throws IOException when the file can't be read.
+     */
+    /* default */PaymentSegment(final Path file) throws IOException {
+        final String fileName = file.getFileName().toString();
+        this.name = fileName.substring(0, fileName.lastIndexOf('.'));
+        try (FileChannel channel = FileChannel.open(file, READ)) {
+            this.data = channel.map(FileChannel.MapMode.READ_ONLY, 0L, channel.size());
+        }
+        final ByteBuffer header = data.duplicate();
+        if (header.getInt() != MAGIC) {
+            throw new IOException("Not a payment segment " + file);
+        }
+        this.rows = header.getInt();
+        this.minProcessed = header.getLong();
+        this.maxProcessed = header.getLong();
+        this.minPaymentId = header.getLong();
+        this.maxPaymentId = header.getLong();
+        this.accountFilter = BloomFilter.readFrom(header);
+        this.offsets = new int[SECTIONS];
+        for (int i = 0; i < SECTIONS; i++) {
+            offsets[i] = header.getInt();
+        }
+
+        final ByteBuffer accountSection = section(ACCOUNT_DICTIONARY);
+        this.accounts = new long[(int) read(accountSection)];
+        long account = 0L;
+        for (int i = 0; i < accounts.length; i++) {
+            account += readSigned(accountSection);
+            accounts[i] = account;
+        }
+
+        final ByteBuffer commentSection = section(COMMENT_DICTIONARY);
+        this.comments = new int[(int) read(commentSection)];
+        for (int i = 0; i < comments.length; i++) {
+            comments[i] = commentSection.position();
+            final int length = (int) read(commentSection);
+            commentSection.position(commentSection.position() + length);
+        }
+    }
+
+    private ByteBuffer section(final int index) {
+        final ByteBuffer result = data.duplicate();
+        result.position(offsets[index]);
+        return result;
+    }
+
+    /**
+     * @param file target file, must not exist.
+     * @param rows payments sorted by {@link Payment#getProcessed()}, must not be empty.
+     * @throws IOException when the file can't be written.
+     */
+    /* default */static void writeFile(final Path file, final List<Payment> rows) throws IOException {
+        final TreeSet<Long> accountSet = new TreeSet<>();
+        final Map<String, Integer> commentIndexes = new HashMap<>();
+        final ByteArrayOutputStream commentDictionary = new ByteArrayOutputStream();
+        long minId = Long.MAX_VALUE;
+        long maxId = Long.MIN_VALUE;
+        for (final Payment row : rows) {
+            accountSet.add(row.getWithdrawalAccountId());
+            accountSet.add(row.getDepositAccountId());
+            minId = Math.min(minId, row.getPaymentId());
+            maxId = Math.max(maxId, row.getPaymentId());
+            if (row.getComment() != null && !commentIndexes.containsKey(row.getComment())) {
+                final byte[] bytes = row.getComment().getBytes(UTF_8);
+                write(commentDictionary, bytes.length);
+                commentDictionary.write(bytes, 0, bytes.length);
+                commentIndexes.put(row.getComment(), commentIndexes.size() + 1);
+            }
+        }
+        // sized by the distinct accounts, a row has two of them
+        final BloomFilter filter = new BloomFilter(accountSet.size(), FALSE_POSITIVE_RATE);
+        final long[] accountArray = new long[accountSet.size()];
+        int accountIndex = 0;
+        for (final Long account : accountSet) {
+            filter.put(account);
+            accountArray[accountIndex++] = account;
+        }
+
+        final ByteArrayOutputStream[] sections = new ByteArrayOutputStream[SECTIONS];
+        for (int i = 0; i < SECTIONS; i++) {
+            sections[i] = new ByteArrayOutputStream();
+        }
+        long prevId = 0L;
+        long prevProcessed = toMillis(rows.get(0).getProcessed(), false);
+        for (final Payment row : rows) {
+            writeSigned(sections[IDS], row.getPaymentId() - prevId);
+            prevId = row.getPaymentId();
+            final long processed = toMillis(row.getProcessed(), false);
+            write(sections[PROCESSED], processed - prevProcessed);
+            prevProcessed = processed;
+            writeSigned(sections[AMOUNTS], row.getAmount().movePointRight(AMOUNT_SCALE).longValueExact());
+            write(sections[WITHDRAWALS], Arrays.binarySearch(accountArray, row.getWithdrawalAccountId()));
+            write(sections[DEPOSITS], Arrays.binarySearch(accountArray, row.getDepositAccountId()));
+            write(sections[COMMENTS], row.getComment() == null ? 0 : commentIndexes.get(row.getComment()));
+        }
+        write(sections[ACCOUNT_DICTIONARY], accountArray.length);
+        long prevAccount = 0L;
+        for (final long account : accountArray) {
+            writeSigned(sections[ACCOUNT_DICTIONARY], account - prevAccount);
+            prevAccount = account;
+        }
+        write(sections[COMMENT_DICTIONARY], commentIndexes.size());
+        commentDictionary.writeTo(sections[COMMENT_DICTIONARY]);
+
+        final ByteBuffer header = ByteBuffer.allocate(Integer.BYTES * 2 + Long.BYTES * 4 + filter.serializedSize()
+                + Integer.BYTES * SECTIONS);
+        header.putInt(MAGIC).putInt(rows.size())
+                .putLong(toMillis(rows.get(0).getProcessed(), false)).putLong(prevProcessed)
+                .putLong(minId).putLong(maxId);
+        filter.writeTo(header);
+        int offset = header.capacity();
+        for (final ByteArrayOutputStream section : sections) {
+            header.putInt(offset);
+            offset += section.size();
+        }
+        try (OutputStream out = Files.newOutputStream(file)) {
+            out.write(header.array());
+            for (final ByteArrayOutputStream section : sections) {
+                section.writeTo(out);
+            }
+        }
+    }
+
+    /**
+     * @return name of the archived partition.
+     */
+    /* default */String getName() {
+        return name;
+    }
+
+    /**
+     * Collects the payments of the given account processed within the given interval, the segment is skipped
+     * entirely when its time range or its bloom filter excludes them.
+     *
+     * @param accountId    withdrawal or deposit account identifier.
+     * @param intervalFrom processed from, inclusive.
+     * @param intervalTo   processed to, inclusive.
+     * @param result       receives the matching payments sorted by processing time.
+     */
+    /* default */void list(final long accountId, final LocalDateTime intervalFrom, final LocalDateTime intervalTo,
+            final List<Payment> result) {
+        final long fromMillis = toMillis(intervalFrom, true);
+        final long toMillis = toMillis(intervalTo, false);
+        if (fromMillis <= maxProcessed && toMillis >= minProcessed && accountFilter.mightContain(accountId)) {
+            final int account = Arrays.binarySearch(accounts, accountId);
+            final Cursor cursor = new Cursor();
+            while (account >= 0 && cursor.next() && cursor.processed <= toMillis) {
+                if (cursor.processed >= fromMillis && (cursor.withdrawal == account || cursor.deposit == account)) {
+                    result.add(cursor.toPayment());
+                }
+            }
+        }
+    }
+
+    /**
+     * Collects the payments within the given identifier range, the segment is skipped entirely when its identifier
+     * range excludes them or starts at the bound of the full result. Only the accepted rows are materialized.
+     *
+     * @param after  payment identifier, exclusive.
+     * @param upTo   payment identifier, inclusive.
+     * @param result receives the payments of the lowest identifiers within the range.
+     */
+    /* default */void changes(final long after, final long upTo, final ChangeBuffer result) {
+        if (after < maxPaymentId && upTo >= minPaymentId && minPaymentId < result.bound()) {
+            final Cursor cursor = new Cursor();
+            while (cursor.next()) {
+                if (cursor.paymentId > after && cursor.paymentId <= upTo && cursor.paymentId < result.bound()) {
+                    result.add(cursor.toPayment());
+                }
+            }
+        }
+    }
+
+    /**
+     * @param paymentId unique identifier.
+     * @return payment or {@code null} when it's not in the segment.
+     */
+    /* default */Payment find(final long paymentId) {
+        Payment result = null;
+        if (paymentId >= minPaymentId && paymentId <= maxPaymentId) {
+            final Cursor cursor = new Cursor();
+            while (result == null && cursor.next()) {
+                if (cursor.paymentId == paymentId) {
+                    result = cursor.toPayment();
+                }
+            }
+        }
+        return result;
+    }
+
+    private static long toMillis(final LocalDateTime value, final boolean roundUp) {
+        // saturates, so LocalDateTime.MIN and LocalDateTime.MAX are valid interval bounds
+        final long seconds = value.toEpochSecond(UTC);
+        final long result;
+        if (seconds >= Long.MAX_VALUE / MILLIS_IN_SECOND) {
+            result = Long.MAX_VALUE;
+        } else if (seconds <= Long.MIN_VALUE / MILLIS_IN_SECOND) {
+            result = Long.MIN_VALUE;
+        } else {
+            final int nanos = value.getNano() + (roundUp ? NANOS_IN_MILLI - 1 : 0);
+            result = seconds * MILLIS_IN_SECOND + nanos / NANOS_IN_MILLI;
+        }
+        return result;
+    }
+
+    /**
+     * Decodes the rows one by one, materializes only the requested ones.
+     */
+    private final class Cursor {
+        private final ByteBuffer ids = section(IDS);
+        private final ByteBuffer processedColumn = section(PROCESSED);
+        private final ByteBuffer amounts = section(AMOUNTS);
+        private final ByteBuffer withdrawals = section(WITHDRAWALS);
+        private final ByteBuffer deposits = section(DEPOSITS);
+        private final ByteBuffer commentColumn = section(COMMENTS);
+        private int remaining = rows;
+        private long paymentId;
+        private long processed = minProcessed;
+        private long amount;
+        private int withdrawal;
+        private int deposit;
+        private int comment;
+
+        /* default */boolean next() {
+            final boolean result = remaining > 0;
+            if (result) {
+                remaining--;
+                paymentId += readSigned(ids);
+                processed += read(processedColumn);
+                amount = readSigned(amounts);
+                withdrawal = (int) read(withdrawals);
+                deposit = (int) read(deposits);
+                comment = (int) read(commentColumn);
+            }
+            return result;
+        }
+
+        /* default */Payment toPayment() {
+            String commentValue = null;
+            if (comment > 0) {
+                final ByteBuffer commentBytes = data.duplicate();
+                commentBytes.position(comments[comment - 1]);
+                final byte[] bytes = new byte[(int) read(commentBytes)];
+                commentBytes.get(bytes);
+                commentValue = new String(bytes, UTF_8);
+            }
+            return new Payment(paymentId,
+                    LocalDateTime.ofEpochSecond(Math.floorDiv(processed, MILLIS_IN_SECOND),
+                            (int) Math.floorMod(processed, MILLIS_IN_SECOND) * NANOS_IN_MILLI, UTC),
+                    BigDecimal.valueOf(amount, AMOUNT_SCALE), accounts[withdrawal], accounts[deposit],
+                    commentValue);
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.github.edwgiz.sample.bank.account.storage;
+
+import com.github.edwgiz.sample.bank.account.jooq.tables.interfaces.IPayment;
+import com.github.edwgiz.sample.bank.account.jooq.tables.pojos.Payment;
+import com.github.edwgiz.sample.bank.core.storage.MonthlyPartitions;
+import org.jooq.Configuration;
+import org.jooq.Cursor;
+import org.jooq.DSLContext;
+import org.jooq.Field;
+import org.jooq.InsertQuery;
+import org.jooq.Record;
+import org.jooq.Select;
+import org.jooq.Table;
+import org.jooq.TableField;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Scanner;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+import static com.github.edwgiz.sample.bank.account.jooq.Tables.PAYMENT;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Stores the payments in monthly partitions of {@link com.github.edwgiz.sample.bank.account.jooq.tables.Payment}
+ * table by {@link Payment#getProcessed()}, so the cost of an insert and of a time-ranged query doesn't depend on
+ * the whole payment history.
+ * <p>
+ * The sealed partitions older than a cutoff are moved to the {@link PaymentArchive} to free the heap, the queries
+ * merge the archived rows with the rows of H2.
+ */
+@Singleton
+public final class PaymentStorage {
+
+    /**
+     * DDL template of one partition.
+     */
+    /* default */static final String PARTITION_TEMPLATE = "/db/partition/PAYMENT.sql";
+
+    private static final int FETCH_SIZE = 256;
+    private static final List<TableField<Record, Long>> ACCOUNT_SIDES = Arrays.asList(
+            PAYMENT.WITHDRAWAL_ACCOUNT_ID, PAYMENT.DEPOSIT_ACCOUNT_ID);
+
+    private final DSLContext dslCtx;
+    private final MonthlyPartitions partitions;
+    private final PaymentArchive archive;
+    /**
+     * Makes moving a partition to the archive atomic for the queries.
+     */
+    private final ReadWriteLock archiveLock;
+
+    /**
+     * @param value       a ready-to-use DSL context
+     * @param coldStorage archive of the old payments
+     */
+    @Inject
+    public PaymentStorage(final DSLContext value, final PaymentArchive coldStorage) {
+        this.dslCtx = value;
+        this.archive = coldStorage;
+        this.archiveLock = new ReentrantReadWriteLock();
+        this.partitions = new MonthlyPartitions(PAYMENT.getName(), loadResource(PARTITION_TEMPLATE));
+        this.partitions.discover(value);
+    }
+
+    /* default */static String loadResource(final String name) {
+        try (Scanner scanner = new Scanner(PaymentStorage.class.getResourceAsStream(name), UTF_8.name())) {
+            return scanner.useDelimiter("\\A").next();
+        }
+    }
+
+    /**
+     * Creates partitions for the payments processed around {@code now}, must be called outside a transaction.
+     *
+     * @param now current time.
+     * @see MonthlyPartitions#prepare(DSLContext, LocalDateTime)
+     */
+    public void prepare(final LocalDateTime now) {
+        partitions.prepare(dslCtx, now);
+    }
+
+    /**
+     * Creates partitions for the payments processed within the interval, like the historical ones of a loaded
+     * dataset, must be called outside a transaction.
+     *
+     * @param intervalFrom processed from, inclusive.
+     * @param intervalTo   processed to, inclusive.
+     * @see MonthlyPartitions#create(DSLContext, LocalDateTime, LocalDateTime)
+     */
+    /* default */void prepare(final LocalDateTime intervalFrom, final LocalDateTime intervalTo) {
+        partitions.create(dslCtx, intervalFrom, intervalTo);
+    }
+
+    /**
+     * @param processed processing time of a payment.
+     * @return name of the partition table the payment is inserted into.
+     */
+    /* default */String partitionOf(final LocalDateTime processed) {
+        return partitions.nameOf(processed);
+    }
+
+    /**
+     * @param cnf    transactional configuration.
+     * @param values payment to insert into the partition of its processing month, including its identifier.
+     * @return number of inserted rows.
+     */
+    public int insert(final Configuration cnf, final IPayment values) {
+        final InsertQuery<Record> insert = cnf.dsl().insertQuery(PAYMENT.rename(partitions.nameOf(
+                values.getProcessed())));
+        insert.setRecord(cnf.dsl().newRecord(PAYMENT, values));
+        return insert.execute();
+    }
+
+    /**
+     * Moves the rows of the sealed partitions older than the cutoff to the archive and drops the partitions.
+     * Must be called outside a transaction.
+     *
+     * @param cutoff only the partitions of the months ended before are archived.
+     * @return number of archived partitions.
+     */
+    public int archive(final LocalDateTime cutoff) {
+        final List<String> names = partitions.sealedBefore(cutoff);
+        for (final String partition : names) {
+            final Table<Record> table = PAYMENT.rename(partition);
+            final List<Payment> rows = dslCtx.selectFrom(table)
+                    .orderBy(table.field(PAYMENT.PROCESSED), table.field(PAYMENT.PAYMENT_ID))
+                    .fetchInto(Payment.class);
+            // the partition is sealed, so the rows don't change while the segment is written
+            final PaymentSegment segment = rows.isEmpty() ? null : archive.write(partition, rows);
+            archiveLock.writeLock().lock();
+            try {
+                if (segment != null) {
+                    archive.register(segment);
+                }
+                partitions.drop(dslCtx, partition);
+            } finally {
+                archiveLock.writeLock().unlock();
+            }
+        }
+        return names.size();
+    }
+
+    /**
+     * Queries only the archive segments and the partitions overlapping the given interval.
+     *
+     * @param cnf          transactional configuration.
+     * @param accountId    withdrawal or deposit account identifier.
+     * @param intervalFrom processed from, inclusive.
+     * @param intervalTo   processed to, inclusive.
+     * @return payments sorted by processing time and identifier.
+     */
+    public List<Payment> list(final Configuration cnf, final long accountId, final LocalDateTime intervalFrom,
+            final LocalDateTime intervalTo) {
+        final List<Payment> result = new ArrayList<>();
+        forEach(cnf, accountId, intervalFrom, intervalTo, result::add);
+        return result;
+    }
+
+    /**
+     * Streams the same payments as {@link #list(Configuration, long, LocalDateTime, LocalDateTime)} through a lazy
+     * cursor, so the memory doesn't depend on the number of the payments.
+     *
+     * @param cnf          transactional configuration.
+     * @param accountId    withdrawal or deposit account identifier.
+     * @param intervalFrom processed from, inclusive.
+     * @param intervalTo   processed to, inclusive.
+     * @param action       receives the payments sorted by processing time and identifier.
+     */
+    public void forEach(final Configuration cnf, final long accountId, final LocalDateTime intervalFrom,
+            final LocalDateTime intervalTo, final Consumer<? super Payment> action) {
+        archiveLock.readLock().lock();
+        try {
+            archive.forEach(accountId, intervalFrom, intervalTo, action); // archived months precede the partitions
+            forEachInPartitions(cnf, accountId, intervalFrom, intervalTo, action);
+        } finally {
+            archiveLock.readLock().unlock();
+        }
+    }
+
+    private void forEachInPartitions(final Configuration cnf, final long accountId, final LocalDateTime intervalFrom,
+            final LocalDateTime intervalTo, final Consumer<? super Payment> action) {
+        Select<Record> union = null;
+        for (final String partition : partitions.between(intervalFrom, intervalTo)) {
+            final Table<Record> table = PAYMENT.rename(partition);
+            final Field<LocalDateTime> processed = table.field(PAYMENT.PROCESSED);
+            for (final TableField<Record, Long> side : ACCOUNT_SIDES) {
+                // separate selects per side use the indexes, unlike OR condition
+                final Select<Record> select = cnf.dsl().selectFrom(table)
+                        .where(table.field(side).eq(accountId))
+                        .and(processed.between(intervalFrom, intervalTo));
+                union = union == null ? select : union.unionAll(select);
+            }
+        }
+        if (union != null) {
+            try (Cursor<Record> cursor = cnf.dsl().selectFrom(union.asTable(PAYMENT.getName()))
+                    .orderBy(PAYMENT.PROCESSED, PAYMENT.PAYMENT_ID)
+                    .fetchSize(FETCH_SIZE)
+                    .fetchLazy()) {
+                while (cursor.hasNext()) {
+                    action.accept(cursor.fetchNextInto(Payment.class));
+                }
+            }
+        }
+    }
+
+    /**
+     * Queries the payments by the primary key index of each partition and by the identifier range of each archive
+     * segment, for the positions too old for {@link ChangeFeed}. No more than {@code limit} payments are held, the
+     * sources are skipped or queried below the greatest identifier collected, once the limit is reached.
+     *
+     * @param cnf   transactional configuration.
+     * @param after payment identifier, exclusive.
+     * @param upTo  payment identifier, inclusive.
+     * @param limit maximum number of the payments.
+     * @return payments sorted by identifier.
+     */
+    public List<Payment> changes(final Configuration cnf, final long after, final long upTo, final int limit) {
+        final ChangeBuffer result = new ChangeBuffer(limit);
+        archiveLock.readLock().lock();
+        try {
+            archive.changes(after, upTo, result);
+            for (final String partition : partitions.all()) {
+                final Table<Record> table = PAYMENT.rename(partition);
+                final Field<Long> paymentId = table.field(PAYMENT.PAYMENT_ID);
+                cnf.dsl().selectFrom(table).where(paymentId.gt(after)).and(paymentId.le(upTo))
+                        .and(paymentId.lt(result.bound())).orderBy(paymentId).limit(limit)
+                        .fetchInto(Payment.class).forEach(result::add);
+            }
+        } finally {
+            archiveLock.readLock().unlock();
+        }
+        return result.toList();
+    }
+
+    /**
+     * @param paymentId unique identifier.
+     * @return payment or {@code null} when it's not found.
+     */
+    public Payment find(final long paymentId) {
+        archiveLock.readLock().lock();
+        try {
+            Payment result = null;
+            for (final String partition : partitions.all()) {
+                if (result == null) {
+                    final Table<Record> table = PAYMENT.rename(partition);
+                    result = dslCtx.selectFrom(table).where(table.field(PAYMENT.PAYMENT_ID).eq(paymentId))
+                            .fetchAnyInto(Payment.class);
+                }
+            }
+            return result == null ? archive.find(paymentId) : result;
+        } finally {
+            archiveLock.readLock().unlock();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.github.edwgiz.sample.bank.account.storage;
+
+import org.glassfish.jersey.server.spi.Container;
+import org.glassfish.jersey.server.spi.ContainerLifecycleListener;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Background job running with a fixed delay in its own daemon thread while the application is up.
+ */
+abstract class PeriodicJob implements ContainerLifecycleListener {
+
+    private final long periodMillis;
+    private final ScheduledExecutorService executor;
+
+    /**
+     * @param threadName name of the job thread.
+     * @param period     delay between the runs, millis.
+     */
+    /* default */PeriodicJob(final String threadName, final long period) {
+        this.periodMillis = period;
+        this.executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, threadName);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public final void onStartup(final Container container) {
+        executor.scheduleWithFixedDelay(this::run, periodMillis, periodMillis, MILLISECONDS);
+    }
+
+    @SuppressWarnings("PMD.EmptyMethodInAbstractClassShouldBeAbstract")
+    @Override
+    public final void onReload(final Container container) {
+        // keeps running
+    }
+
+    @Override
+    public final void onShutdown(final Container container) {
+        executor.shutdownNow();
+    }
+
+    /* default */final boolean isShutdown() {
+        return executor.isShutdown();
+    }
+
+    /**
+     * One run of the job, must not throw.
+     */
+    /* default */abstract void run();
+}
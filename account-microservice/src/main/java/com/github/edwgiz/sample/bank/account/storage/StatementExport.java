@@ -0,0 +1,189 @@
+package com.github.edwgiz.sample.bank.account.storage;
+
+import com.github.edwgiz.sample.bank.core.webapp.WebAppBase;
+import org.jooq.Cursor;
+import org.jooq.DSLContext;
+import org.jooq.Record1;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.ws.rs.core.Configuration;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import static com.github.edwgiz.sample.bank.account.jooq.Tables.ACCOUNT;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.time.ZoneOffset.UTC;
+
+/**
+ * Exports the account statements, the same payments as {@link PaymentStorage#list}, into CSV files of a local
+ * directory, streaming the rows from a lazy cursor straight to the file.
+ * <p>
+ * The directory is defined by {@link WebAppBase#PROPERTY_FILES_DIRECTORY} property of the jax-rs application, so the
+ * web server sends the files without the copying via the heap. Without it, a temporary directory is created.
+ */
+@Singleton
+public final class StatementExport {
+
+    /**
+     * Optional property to be passed via command-line.
+     */
+    /* default */static final String SYSTEM_PROPERTY_DIR = "payment.export.dir";
+    /**
+     * Payments processed a bit before an exported interval end may be still committing.
+     */
+    private static final long SETTLE_MILLIS = 1000L;
+    /**
+     * Bounds the queued exports of {@link #exportAll(LocalDateTime, LocalDateTime, int)}.
+     */
+    private static final int QUEUED_PER_THREAD = 2;
+    private static final int FETCH_SIZE = 1024;
+    private static final DateTimeFormatter NAME_FORMATTER = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmssSSS");
+
+    private final DSLContext dslCtx;
+    private final PaymentStorage paymentStorage;
+    private final Path directory;
+
+    /**
+     * @param value   a ready-to-use DSL context
+     * @param storage payment storage to export
+     * @param config  jax-rs application config, may define the directory
+     * @throws IOException when the directory can't be created.
+     */
+    @Inject
+    public StatementExport(final DSLContext value, final PaymentStorage storage, final Configuration config)
+            throws IOException {
+        this(value, storage, config.getProperty(WebAppBase.PROPERTY_FILES_DIRECTORY) == null
+                ? createDirectory()
+                : Paths.get(config.getProperty(WebAppBase.PROPERTY_FILES_DIRECTORY).toString()));
+    }
+
+    /* default */StatementExport(final DSLContext value, final PaymentStorage storage, final Path dir)
+            throws IOException {
+        this.dslCtx = value;
+        this.paymentStorage = storage;
+        this.directory = Files.createDirectories(dir);
+    }
+
+    /**
+     * @return the directory defined by {@code payment.export.dir} system property, or a new temporary one.
+     */
+    public static Path createDirectory() {
+        final String dir = System.getProperty(SYSTEM_PROPERTY_DIR);
+        try {
+            return dir == null ? Files.createTempDirectory("payment-export") : Files.createDirectories(Paths.get(dir));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't create statement export directory " + dir, e);
+        }
+    }
+
+    /**
+     * @return directory of the exported files.
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * @param accountId    withdrawal or deposit account identifier.
+     * @param intervalFrom processed from, inclusive.
+     * @param intervalTo   processed to, inclusive.
+     * @return name of the file relative to the directory.
+     */
+    public String fileName(final long accountId, final LocalDateTime intervalFrom, final LocalDateTime intervalTo) {
+        return "statement-" + accountId + '-' + NAME_FORMATTER.format(intervalFrom)
+                + '-' + NAME_FORMATTER.format(intervalTo) + ".csv";
+    }
+
+    /**
+     * Writes the statement file unless it's written already after the interval end, so it can't miss a payment.
+     * The file appears atomically, the concurrent exports of the same statement just replace each other.
+     *
+     * @param accountId    withdrawal or deposit account identifier.
+     * @param intervalFrom processed from, inclusive.
+     * @param intervalTo   processed to, inclusive.
+     * @return number of the written rows, {@code -1} when the file is up-to-date already.
+     */
+    public long export(final long accountId, final LocalDateTime intervalFrom, final LocalDateTime intervalTo) {
+        final Path file = directory.resolve(fileName(accountId, intervalFrom, intervalTo));
+        try {
+            long rows = -1L;
+            if (!Files.exists(file) || Files.getLastModifiedTime(file).toMillis()
+                    <= intervalTo.toInstant(UTC).toEpochMilli() + SETTLE_MILLIS) {
+                final Path tmpFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+                try {
+                    try (PaymentCsvWriter out = new PaymentCsvWriter(Files.newBufferedWriter(tmpFile, UTF_8))) {
+                        dslCtx.transaction(cnf -> paymentStorage.forEach(cnf, accountId, intervalFrom, intervalTo,
+                                out));
+                        rows = out.getRows();
+                    }
+                    Files.move(tmpFile, file, ATOMIC_MOVE, REPLACE_EXISTING);
+                } finally {
+                    Files.deleteIfExists(tmpFile); // after a failure
+                }
+            }
+            return rows;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Can't export statement " + file, e);
+        }
+    }
+
+    /**
+     * Exports the statements of all the accounts in parallel. The account identifiers are streamed from a lazy
+     * cursor and only a few exports per thread are queued at once, so the memory doesn't depend on the number of the
+     * accounts.
+     *
+     * @param intervalFrom processed from, inclusive.
+     * @param intervalTo   processed to, inclusive.
+     * @param parallelism  number of the concurrent exports.
+     * @return number of the written rows.
+     * @throws InterruptedException when the current thread is interrupted, the running exports are interrupted too.
+     */
+    public long exportAll(final LocalDateTime intervalFrom, final LocalDateTime intervalTo, final int parallelism)
+            throws InterruptedException {
+        final ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            final Thread thread = new Thread(runnable, "statement-export");
+            thread.setDaemon(true);
+            return thread;
+        });
+        final int maxInFlight = parallelism * QUEUED_PER_THREAD;
+        final Semaphore inFlight = new Semaphore(maxInFlight);
+        final LongAdder rows = new LongAdder();
+        final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        try (Cursor<Record1<Long>> accountIds = dslCtx.select(ACCOUNT.ACCOUNT_ID).from(ACCOUNT)
+                .fetchSize(FETCH_SIZE).fetchLazy()) {
+            while (failure.get() == null && accountIds.hasNext()) {
+                final long accountId = accountIds.fetchNext().value1();
+                inFlight.acquire();
+                executor.execute(() -> {
+                    try {
+                        rows.add(Math.max(0L, export(accountId, intervalFrom, intervalTo)));
+                    } catch (RuntimeException e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+            inFlight.acquire(maxInFlight); // all done
+        } finally {
+            executor.shutdownNow();
+        }
+        if (failure.get() != null) {
+            throw new IllegalStateException("Can't export statements", failure.get());
+        }
+        return rows.sum();
+    }
+}
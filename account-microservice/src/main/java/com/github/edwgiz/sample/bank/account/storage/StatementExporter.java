@@ -0,0 +1,68 @@
+package com.github.edwgiz.sample.bank.account.storage;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+
+import static java.lang.System.nanoTime;
+import static java.time.LocalDateTime.now;
+import static java.time.ZoneOffset.UTC;
+import static java.time.temporal.ChronoUnit.MILLIS;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Background job exporting the statements of the previous month for all the accounts, runs while the application
+ * is up. The statements exported already are skipped, so the batch effectively runs once a month.
+ */
+public final class StatementExporter extends PeriodicJob {
+
+    private static final long PERIOD_HOURS = 24L;
+    private static final long MEGABYTE = 1_048_576L;
+    private static final Logger LOG = LoggerFactory.getLogger(StatementExporter.class);
+
+    private final StatementExport statementExport;
+
+    /**
+     * @param export statement export to run.
+     */
+    @Inject
+    public StatementExporter(final StatementExport export) {
+        this(export, HOURS.toMillis(PERIOD_HOURS));
+    }
+
+    /* default */StatementExporter(final StatementExport export, final long period) {
+        super("statement-exporter", period);
+        this.statementExport = export;
+    }
+
+    @Override
+    /* default */void run() {
+        run(now(UTC));
+    }
+
+    /* default */void run(final LocalDateTime now) {
+        final YearMonth month = YearMonth.from(now).minusMonths(1L);
+        final LocalDateTime intervalFrom = month.atDay(1).atStartOfDay();
+        final LocalDateTime intervalTo = month.plusMonths(1L).atDay(1).atStartOfDay().minus(1L, MILLIS);
+        final long start = nanoTime();
+        try {
+            final long rows = statementExport.exportAll(intervalFrom, intervalTo,
+                    Runtime.getRuntime().availableProcessors());
+            if (rows > 0L) {
+                final long nanos = Math.max(1L, nanoTime() - start);
+                final Runtime runtime = Runtime.getRuntime();
+                LOG.info("Exported " + rows + " statement row(s) of " + month + ", "
+                        + rows * SECONDS.toNanos(1L) / nanos + " rows/s, heap used "
+                        + (runtime.totalMemory() - runtime.freeMemory()) / MEGABYTE + " Mb");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            LOG.error("Statement export - failed", e);
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Storage layer of the account microservice.
+ */
+package com.github.edwgiz.sample.bank.account.storage;
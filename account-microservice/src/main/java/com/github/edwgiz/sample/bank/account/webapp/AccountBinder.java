@@ -0,0 +1,31 @@
+package com.github.edwgiz.sample.bank.account.webapp;
+
+import com.github.edwgiz.sample.bank.account.storage.BalanceCheckpoints;
+import com.github.edwgiz.sample.bank.account.storage.ChangeFeed;
+import com.github.edwgiz.sample.bank.account.storage.LockContention;
+import com.github.edwgiz.sample.bank.account.storage.PaymentArchive;
+import com.github.edwgiz.sample.bank.account.storage.PaymentEvents;
+import com.github.edwgiz.sample.bank.account.storage.PaymentOutbox;
+import com.github.edwgiz.sample.bank.account.storage.PaymentStorage;
+import com.github.edwgiz.sample.bank.account.storage.StatementExport;
+import org.glassfish.hk2.utilities.binding.AbstractBinder;
+
+import javax.inject.Singleton;
+
+/**
+ * Binds the components shared by the account microservice endpoints.
+ */
+public final class AccountBinder extends AbstractBinder {
+
+    @Override
+    protected void configure() {
+        bindAsContract(PaymentArchive.class).in(Singleton.class);
+        bindAsContract(PaymentStorage.class).in(Singleton.class);
+        bindAsContract(BalanceCheckpoints.class).in(Singleton.class);
+        bindAsContract(StatementExport.class).in(Singleton.class);
+        bindAsContract(PaymentEvents.class).in(Singleton.class);
+        bindAsContract(PaymentOutbox.class).in(Singleton.class);
+        bindAsContract(ChangeFeed.class).in(Singleton.class);
+        bindAsContract(LockContention.class).in(Singleton.class);
+    }
+}
@@ -1,7 +1,15 @@
 package com.github.edwgiz.sample.bank.account.webapp;
 
+import com.github.edwgiz.sample.bank.account.api.AccountBinaryRoute;
 import com.github.edwgiz.sample.bank.account.api.AccountEndpoint;
+import com.github.edwgiz.sample.bank.account.api.AccountFastRoute;
+import com.github.edwgiz.sample.bank.account.api.LockContentionEndpoint;
 import com.github.edwgiz.sample.bank.account.api.PaymentEndpoint;
+import com.github.edwgiz.sample.bank.account.storage.DatasetLoader;
+import com.github.edwgiz.sample.bank.account.storage.OutboxRelay;
+import com.github.edwgiz.sample.bank.account.storage.PaymentArchiver;
+import com.github.edwgiz.sample.bank.account.storage.StatementExport;
+import com.github.edwgiz.sample.bank.account.storage.StatementExporter;
 import com.github.edwgiz.sample.bank.core.commons.ExcludeFromJacocoMetrics;
 import com.github.edwgiz.sample.bank.core.webapp.WebAppBase;
 import org.glassfish.jersey.server.ResourceConfig;
@@ -26,8 +34,19 @@ public class AccountWebApp extends WebAppBase {
         final ResourceConfig conf = super.createResourceConfig();
         conf.setApplicationName("BankAccounts");
 
+        conf.register(new AccountBinder());
         conf.register(AccountEndpoint.class);
         conf.register(PaymentEndpoint.class);
+        conf.register(LockContentionEndpoint.class);
+        conf.register(DatasetLoader.class);
+        conf.register(PaymentArchiver.class);
+        conf.register(StatementExporter.class);
+        if (OutboxRelay.isEnabled()) {
+            conf.register(OutboxRelay.class);
+        }
+        conf.property(PROPERTY_FILES_DIRECTORY, StatementExport.createDirectory().toString());
+        conf.property(PROPERTY_FAST_ROUTE, AccountFastRoute.class);
+        conf.property(PROPERTY_BINARY_ROUTE, AccountBinaryRoute.class);
 
         return conf;
     }
@@ -0,0 +1,3 @@
+-- PAYMENT rows are stored in monthly partitions PAYMENT_P<yyyyMM> created at runtime by db/partition/PAYMENT.sql,
+-- the PAYMENT table itself stays empty and defines the common structure of the partitions
+CREATE SEQUENCE PAYMENT_SEQ START WITH 1;
@@ -0,0 +1,16 @@
+-- balance of an account after a given payment, the account statements start from the closest checkpoint
+CREATE TABLE BALANCE_CHECKPOINT
+(
+    ACCOUNT_ID            BIGINT         NOT NULL
+        CONSTRAINT BALANCE_CHECKPOINT__ACCOUNT__FK REFERENCES ACCOUNT (ACCOUNT_ID),
+    PROCESSED             TIMESTAMP(3)   NOT NULL,
+    PAYMENT_ID            BIGINT         NOT NULL,
+    BALANCE               DECIMAL(16, 2) NOT NULL,
+    PAYMENTS_AFTER        INT            NOT NULL,
+    CONSTRAINT BALANCE_CHECKPOINT__PK PRIMARY KEY (ACCOUNT_ID, PROCESSED, PAYMENT_ID)
+);
+COMMENT ON COLUMN BALANCE_CHECKPOINT.ACCOUNT_ID IS 'Account Identifier';
+COMMENT ON COLUMN BALANCE_CHECKPOINT.PROCESSED IS 'Processing date-time of the last included payment, or the account creation date-time, UTC';
+COMMENT ON COLUMN BALANCE_CHECKPOINT.PAYMENT_ID IS 'Identifier of the last included payment, zero for the opening balance';
+COMMENT ON COLUMN BALANCE_CHECKPOINT.BALANCE IS 'Balance after the last included payment';
+COMMENT ON COLUMN BALANCE_CHECKPOINT.PAYMENTS_AFTER IS 'Number of the account payments after the checkpoint, until the next one';
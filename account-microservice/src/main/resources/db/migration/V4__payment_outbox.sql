@@ -0,0 +1,29 @@
+-- copies of the payments written in the payment transaction, deleted once relayed to the downstream consumer
+CREATE TABLE OUTBOX
+(
+    PAYMENT_ID            BIGINT         PRIMARY KEY NOT NULL,
+    PROCESSED             TIMESTAMP(3)   NOT NULL,
+    AMOUNT                DECIMAL(16, 2) NOT NULL,
+    WITHDRAWAL_ACCOUNT_ID BIGINT         NOT NULL,
+    DEPOSIT_ACCOUNT_ID    BIGINT         NOT NULL,
+    COMMENT               VARCHAR(256)
+);
+COMMENT ON COLUMN OUTBOX.PAYMENT_ID IS 'Payment Identifier, the payments of an account are committed in its order';
+COMMENT ON COLUMN OUTBOX.PROCESSED IS 'Processing date-time, UTC';
+COMMENT ON COLUMN OUTBOX.AMOUNT IS 'Transferring amount';
+COMMENT ON COLUMN OUTBOX.WITHDRAWAL_ACCOUNT_ID IS 'Account Identifier to withdraw funds';
+COMMENT ON COLUMN OUTBOX.DEPOSIT_ACCOUNT_ID IS 'Account Identifier to deposit funds';
+COMMENT ON COLUMN OUTBOX.COMMENT IS 'Commentary';
+
+-- progress of a downstream consumer
+CREATE TABLE OUTBOX_CONSUMER
+(
+    CONSUMER              VARCHAR(1024)  PRIMARY KEY NOT NULL,
+    LAST_PAYMENT_ID       BIGINT         NOT NULL,
+    DELIVERED             BIGINT         NOT NULL,
+    LAST_DELIVERED        TIMESTAMP(3)   NOT NULL
+);
+COMMENT ON COLUMN OUTBOX_CONSUMER.CONSUMER IS 'Location of the consumer';
+COMMENT ON COLUMN OUTBOX_CONSUMER.LAST_PAYMENT_ID IS 'Identifier of the last delivered payment';
+COMMENT ON COLUMN OUTBOX_CONSUMER.DELIVERED IS 'Number of the delivered payments';
+COMMENT ON COLUMN OUTBOX_CONSUMER.LAST_DELIVERED IS 'When the last batch was delivered, UTC';
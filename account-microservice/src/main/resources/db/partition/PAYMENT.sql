@@ -0,0 +1,16 @@
+CREATE TABLE IF NOT EXISTS ${partition}
+(
+    PAYMENT_ID            BIGINT         DEFAULT NEXT VALUE FOR PAYMENT_SEQ PRIMARY KEY NOT NULL,
+    PROCESSED             TIMESTAMP(3)   NOT NULL
+        CONSTRAINT ${partition}__PROCESSED_RANGE CHECK (PROCESSED >= '${from}' AND PROCESSED < '${to}'),
+    AMOUNT                DECIMAL(16, 2) NOT NULL
+        CONSTRAINT ${partition}__POSITIVE_AMOUNT CHECK ( AMOUNT > 0 ),
+    WITHDRAWAL_ACCOUNT_ID BIGINT         NOT NULL
+        CONSTRAINT ${partition}__WITHDRAWAL_ACCOUNT__FK REFERENCES ACCOUNT (ACCOUNT_ID),
+    DEPOSIT_ACCOUNT_ID    BIGINT         NOT NULL
+        CONSTRAINT ${partition}__DEPOSIT_ACCOUNT__FK REFERENCES ACCOUNT (ACCOUNT_ID),
+    COMMENT               VARCHAR(256)
+);
+-- the statement query picks up both sides of a payment within a time interval
+CREATE INDEX IF NOT EXISTS ${partition}__WITHDRAWAL_PROCESSED ON ${partition} (WITHDRAWAL_ACCOUNT_ID, PROCESSED);
+CREATE INDEX IF NOT EXISTS ${partition}__DEPOSIT_PROCESSED ON ${partition} (DEPOSIT_ACCOUNT_ID, PROCESSED);
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.jaxrs.json.JacksonJaxbJsonProvider;
 import com.github.edwgiz.sample.bank.account.jooq.tables.pojos.Account;
+import com.github.edwgiz.sample.bank.account.webapp.AccountBinder;
 import com.github.edwgiz.sample.bank.core.webapp.JaxRsApplicationFactory;
 import org.glassfish.jersey.server.ResourceConfig;
 import org.glassfish.jersey.test.JerseyTest;
@@ -61,6 +62,7 @@ public abstract class AbstractEndpointTest extends JerseyTest {
      */
     protected ResourceConfig configure() {
         final ResourceConfig conf = new JaxRsApplicationFactory().get();
+        conf.register(new AccountBinder());
         conf.register(this);
         return conf;
     }
@@ -0,0 +1,66 @@
+package com.github.edwgiz.sample.bank.account.api;
+
+import com.github.edwgiz.sample.bank.account.jooq.tables.pojos.Account;
+import com.github.edwgiz.sample.bank.core.metrics.Metrics;
+import com.github.edwgiz.sample.bank.core.webapp.BinaryListener;
+import com.github.edwgiz.sample.bank.core.webapp.binary.BinaryFrame;
+import org.glassfish.grizzly.http.server.HttpServer;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Serves the binary payments and account reads by a real server on a local port.
+ */
+class AccountBinaryRouteTest {
+
+    private static final int BAD_REQUEST = 400;
+    private static final long MISSING_ACCOUNT_ID = 999_999_999L;
+
+    @Test
+    /* default */void testPayAndRead() throws IOException, InterruptedException, ExecutionException {
+        final int port = AccountFastRouteTest.freePort();
+        final HttpServer server = AccountFastRouteTest.createServer();
+        final Metrics metrics = new Metrics();
+        BinaryListener.attach(server, "localhost", port, AccountBinaryRoute.class, metrics);
+        server.start();
+        try (AccountBinaryClient client = AccountBinaryClient.connect("localhost", port)) {
+            final CompletableFuture<BinaryFrame> before = client.read(1L);
+            final CompletableFuture<BinaryFrame> payment = client.pay(1L, 2L, BigDecimal.ONE, "binary");
+            final Account account = AccountBinaryClient.accountOf(before.get());
+            assertEquals(1L, account.getAccountId());
+            assertTrue(AccountBinaryClient.paymentIdOf(payment.get()) > 0L);
+            final Account after = AccountBinaryClient.accountOf(client.read(1L).get());
+            assertEquals(account.getBalance().subtract(BigDecimal.ONE), after.getBalance());
+            assertEquals(account.getCreated(), after.getCreated());
+            assertEquals(account.getOwnerName(), after.getOwnerName());
+            assertEquals(account.getComment(), after.getComment());
+            assertTrue(after.getBalanceLastModified().isAfter(account.getBalanceLastModified()));
+            assertNull(AccountBinaryClient.accountOf(client.read(MISSING_ACCOUNT_ID).get()));
+
+            final BinaryFrame sameAccount = client.pay(1L, 1L, BigDecimal.ONE, null).get();
+            assertEquals(BAD_REQUEST, sameAccount.getCode());
+            assertEquals("withdrawalAccountId and depositAccountId must reference to different accounts",
+                    sameAccount.getMessage());
+            assertThrows(IOException.class, () -> AccountBinaryClient.paymentIdOf(sameAccount));
+            final BinaryFrame insufficient = client.pay(2L, 1L, new BigDecimal("99999999"), null).get();
+            assertEquals("Insufficient withdrawal balance", insufficient.getMessage());
+            assertThrows(IOException.class, () -> AccountBinaryClient.accountOf(insufficient));
+        } finally {
+            server.shutdownNow();
+        }
+        final String scrape = metrics.scrape();
+        assertTrue(scrape.contains(
+                "http_request_duration_seconds_count{resource=\"AccountEndpoint.read\"} 3\n"), scrape);
+        assertTrue(scrape.contains(
+                "http_request_duration_seconds_count{resource=\"PaymentEndpoint.create\"} 3\n"), scrape);
+    }
+}
@@ -2,15 +2,24 @@ package com.github.edwgiz.sample.bank.account.api;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.github.edwgiz.sample.bank.account.jooq.tables.pojos.Account;
+import com.github.edwgiz.sample.bank.account.jooq.tables.pojos.Payment;
 import com.github.edwgiz.sample.bank.account.model.NewAccount;
 import com.github.edwgiz.sample.bank.account.model.UpdateAccount;
+import com.github.edwgiz.sample.bank.account.storage.PaymentEvents;
+import com.github.edwgiz.sample.bank.account.storage.RecordingSink;
+import com.github.edwgiz.sample.bank.core.webapp.sse.EventHub.Overflow;
 import org.glassfish.jersey.server.ResourceConfig;
+import org.jooq.DSLContext;
 import org.junit.AfterClass;
 import org.junit.FixMethodOrder;
 import org.junit.Test;
+import org.junit.jupiter.api.function.Executable;
 import org.junit.runners.MethodSorters;
 
+import javax.inject.Inject;
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.WebTarget;
 import javax.ws.rs.core.Response;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
@@ -25,6 +34,7 @@ import static java.math.BigDecimal.ZERO;
 import static java.time.LocalDateTime.now;
 import static java.time.ZoneOffset.UTC;
 import static java.time.temporal.ChronoUnit.MILLIS;
+import static java.util.Collections.singletonList;
 import static javax.ws.rs.core.MediaType.APPLICATION_JSON_TYPE;
 import static javax.ws.rs.core.MediaType.TEXT_PLAIN_TYPE;
 import static javax.ws.rs.core.Response.Status.BAD_REQUEST;
@@ -35,6 +45,7 @@ import static javax.ws.rs.core.Response.Status.OK;
 import static org.apache.commons.lang3.StringUtils.repeat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @FixMethodOrder(MethodSorters.NAME_ASCENDING)
@@ -44,6 +55,12 @@ public final class AccountEndpointTest extends AbstractEndpointTest {
     private static final AtomicReference<Account> ACCOUNT_1 = new AtomicReference<>();
     private static final AtomicReference<Account> ACCOUNT_2 = new AtomicReference<>();
 
+    private static final long DEMO_ACCOUNT_ID = 2L;
+    private static final BigDecimal DEMO_BALANCE = new BigDecimal("1000");
+
+    private DSLContext dslCtx;
+    private PaymentEvents paymentEvents;
+
 
     @Override
     protected ResourceConfig configure() {
@@ -232,6 +249,73 @@ public final class AccountEndpointTest extends AbstractEndpointTest {
     }
 
 
+    /**
+     * Tests '/account/{id}/balance' GET.
+     */
+    @Test
+    public void o5testBalance() throws IOException {
+        final String demoId = Long.toString(DEMO_ACCOUNT_ID);
+        final Response undefined = invokeBalance(demoId, null);
+        assertEquals(BAD_REQUEST, undefined.getStatusInfo());
+        assertEquals("'at' is undefined", undefined.readEntity(String.class));
+        testSimpleResponse(id -> invokeBalance(id, "9999-12-31T23:59:59.999"), Long.toString(Long.MAX_VALUE),
+                NOT_FOUND, TEXT_PLAIN_TYPE);
+        testSimpleResponse(id -> invokeBalance(id, "X"), demoId, NOT_FOUND, TEXT_PLAIN_TYPE);
+        testSimpleResponse(id -> invokeBalance(id, "2000-01-03T11:59:59.999"), demoId, NOT_FOUND, TEXT_PLAIN_TYPE);
+
+        assertEquals(0, DEMO_BALANCE.compareTo(readBalance(demoId, "2000-01-03T12:00:00.000")));
+        final Account current = getJson().readValue((ByteArrayInputStream) invokeRead(demoId).getEntity(),
+                Account.class);
+        assertEquals(0, current.getBalance().compareTo(readBalance(demoId, "9999-12-31T23:59:59.999")));
+    }
+
+    private Response invokeBalance(final String accountId, final String at) {
+        final WebTarget target = target().path("/account/" + accountId + "/balance");
+        return (at == null ? target : target.queryParam("at", at)).request().get();
+    }
+
+    private BigDecimal readBalance(final String accountId, final String at) {
+        final Response resp = invokeBalance(accountId, at);
+        assertEquals(OK, resp.getStatusInfo());
+        assertEquals(TEXT_PLAIN_TYPE, resp.getMediaType());
+        return new BigDecimal(resp.readEntity(String.class));
+    }
+
+
+    /**
+     * Tests '/account/{id}/events' GET, invoked directly since the in-memory test container can't suspend a request.
+     *
+     * @throws InterruptedException if interrupted while waiting for the events.
+     */
+    @Test
+    public void o6testEvents() throws InterruptedException {
+        final AccountEndpoint endpoint = new AccountEndpoint(dslCtx, null, paymentEvents);
+        assertStatus(NOT_FOUND, () -> endpoint.events(Long.MAX_VALUE, null, Overflow.DISCONNECT, new RecordingSink()));
+        assertStatus(BAD_REQUEST, () -> endpoint.events(DEMO_ACCOUNT_ID, "X", Overflow.DISCONNECT,
+                new RecordingSink()));
+
+        final RecordingSink sink = new RecordingSink();
+        endpoint.events(DEMO_ACCOUNT_ID, null, Overflow.DISCONNECT, sink);
+        final Payment payment = new Payment(1L, now(UTC), BigDecimal.ONE, DEMO_ACCOUNT_ID, 0L, null);
+        paymentEvents.publish(payment);
+        assertEquals(singletonList(PaymentEvents.eventId(payment)), sink.await(1));
+    }
+
+    private static void assertStatus(final Response.Status expected, final Executable operation) {
+        assertEquals(expected, assertThrows(WebApplicationException.class, operation).getResponse().getStatusInfo());
+    }
+
+    @Inject
+    /* default */ void setDslContext(final DSLContext value) {
+        this.dslCtx = value;
+    }
+
+    @Inject
+    /* default */ void setPaymentEvents(final PaymentEvents value) {
+        this.paymentEvents = value;
+    }
+
+
     @AfterClass
     @SuppressWarnings("checkstyle:MissingJavadocMethod")
     public static void afterClass() {
@@ -0,0 +1,139 @@
+package com.github.edwgiz.sample.bank.account.api;
+
+import com.github.edwgiz.sample.bank.account.webapp.AccountBinder;
+import com.github.edwgiz.sample.bank.core.metrics.Metrics;
+import com.github.edwgiz.sample.bank.core.webapp.FastPathHandler;
+import com.github.edwgiz.sample.bank.core.webapp.JaxRsApplicationFactory;
+import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.jersey.grizzly2.httpserver.GrizzlyHttpServerFactory;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.URL;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the responses of the fast path to the ones of jax-rs, by the real servers on the local ports.
+ */
+class AccountFastRouteTest {
+
+    private static final int BAD_REQUEST = 400;
+    private static final int BUFFER = 256;
+    private static final String JSON = "application/json";
+    private static final String PAYMENT = "/payment";
+
+    @Test
+    /* default */void testSameResponses() throws IOException {
+        final Metrics fastMetrics = new Metrics();
+        final HttpServer jaxRs = start(null);
+        final HttpServer fast = start(fastMetrics);
+        try {
+            final String jaxRsBase = base(jaxRs);
+            final String fastBase = base(fast);
+            assertSame(jaxRsBase, fastBase, "GET", "/account/2", null, null, null);
+            assertSame(jaxRsBase, fastBase, "GET", "/account/2", "application/json, text/plain", null, null);
+            assertSame(jaxRsBase, fastBase, "GET", "/account/999999999", null, null, null);
+            assertSame(jaxRsBase, fastBase, "GET", "/account/2", "text/html", null, null);
+            assertSame(jaxRsBase, fastBase, "GET", "/account/x2", null, null, null);
+            assertSame(jaxRsBase, fastBase, "GET", "/account/2/balance", null, null, null);
+            assertSame(jaxRsBase, fastBase, "PUT", PAYMENT, null, JSON,
+                    "{\"amount\":1,\"withdrawalAccountId\":1,\"depositAccountId\":1}");
+            assertSame(jaxRsBase, fastBase, "PUT", PAYMENT, null, JSON, "{\"withdrawalAccountId\":1}");
+            assertSame(jaxRsBase, fastBase, "PUT", PAYMENT, null, JSON, "{\"amount\":");
+            assertSame(jaxRsBase, fastBase, "PUT", PAYMENT, null, JSON,
+                    "{\"amount\":99999999,\"withdrawalAccountId\":2,\"depositAccountId\":1}");
+            assertSame(jaxRsBase, fastBase, "PUT", PAYMENT, null, "text/plain", "1");
+
+            final String created = request(fastBase, "PUT", PAYMENT, null, JSON,
+                    "{\"amount\":1,\"withdrawalAccountId\":1,\"depositAccountId\":2}");
+            assertTrue(created.matches("200 text/plain \\d+"), created);
+        } finally {
+            fast.shutdownNow();
+            jaxRs.shutdownNow();
+        }
+        final String scrape = fastMetrics.scrape();
+        assertTrue(scrape.contains(
+                "http_request_duration_seconds_count{resource=\"AccountEndpoint.read\"} 3\n"), scrape);
+        assertTrue(scrape.contains(
+                "http_request_duration_seconds_count{resource=\"PaymentEndpoint.create\"} 5\n"), scrape);
+    }
+
+    private static HttpServer start(final Metrics fastMetrics) throws IOException {
+        final HttpServer server = createServer();
+        if (fastMetrics != null) {
+            FastPathHandler.attach(server, AccountFastRoute.class, fastMetrics);
+        }
+        server.start();
+        return server;
+    }
+
+    /**
+     * @return not started server of the account resources, on a free local port.
+     * @throws IOException if there is no free port.
+     */
+    /* default */static HttpServer createServer() throws IOException {
+        return GrizzlyHttpServerFactory.createHttpServer(URI.create("http://localhost:" + freePort() + '/'),
+                new JaxRsApplicationFactory().get().register(new AccountBinder()).register(AccountEndpoint.class)
+                        .register(PaymentEndpoint.class), false);
+    }
+
+    /**
+     * @return a free local port.
+     * @throws IOException if there is no free port.
+     */
+    /* default */static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static String base(final HttpServer server) {
+        return "http://localhost:" + server.getListener("grizzly").getPort();
+    }
+
+    private static void assertSame(final String jaxRsBase, final String fastBase, final String method,
+            final String path, final String accept, final String contentType, final String body) throws IOException {
+        assertEquals(request(jaxRsBase, method, path, accept, contentType, body),
+                request(fastBase, method, path, accept, contentType, body), method + ' ' + path);
+    }
+
+    // the status, the content type and the body, separated by a space
+    private static String request(final String base, final String method, final String path, final String accept,
+            final String contentType, final String body) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) new URL(base + path).openConnection();
+        try {
+            connection.setRequestMethod(method);
+            if (accept != null) {
+                connection.setRequestProperty("Accept", accept);
+            }
+            if (body != null) {
+                connection.setDoOutput(true);
+                connection.setRequestProperty("Content-Type", contentType);
+                try (OutputStream out = connection.getOutputStream()) {
+                    out.write(body.getBytes(UTF_8));
+                }
+            }
+            final int status = connection.getResponseCode();
+            final ByteArrayOutputStream response = new ByteArrayOutputStream();
+            try (InputStream stream = status < BAD_REQUEST ? connection.getInputStream()
+                    : connection.getErrorStream()) {
+                final byte[] buffer = new byte[BUFFER];
+                for (int read = stream == null ? -1 : stream.read(buffer); read >= 0; read = stream.read(buffer)) {
+                    response.write(buffer, 0, read);
+                }
+            }
+            return status + " " + connection.getContentType() + ' ' + new String(response.toByteArray(), UTF_8);
+        } finally {
+            connection.disconnect();
+        }
+    }
+}
@@ -1,10 +1,15 @@
 package com.github.edwgiz.sample.bank.account.api;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectReader;
 import com.github.edwgiz.sample.bank.account.jooq.tables.interfaces.IPayment;
 import com.github.edwgiz.sample.bank.account.jooq.tables.pojos.Payment;
 import com.github.edwgiz.sample.bank.account.model.NewPayment;
+import com.github.edwgiz.sample.bank.account.model.StatementEntry;
+import com.github.edwgiz.sample.bank.account.storage.PaymentStorage;
+import com.github.edwgiz.sample.bank.account.storage.StatementExport;
+import com.github.edwgiz.sample.bank.core.metrics.ServerTiming;
 import org.glassfish.jersey.server.ResourceConfig;
 import org.jooq.DSLContext;
 import org.jooq.Record;
@@ -21,7 +26,9 @@ import javax.ws.rs.core.Response;
 import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigDecimal;
+import java.nio.file.Files;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Map;
 import java.util.Scanner;
 import java.util.concurrent.CountDownLatch;
@@ -35,6 +42,7 @@ import static com.github.edwgiz.sample.bank.account.jooq.tables.Account.ACCOUNT;
 import static com.github.edwgiz.sample.bank.account.jooq.tables.Payment.PAYMENT;
 import static java.math.BigDecimal.ONE;
 import static java.math.BigDecimal.TEN;
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
 import static java.nio.charset.StandardCharsets.US_ASCII;
 import static java.time.LocalDateTime.now;
 import static java.time.ZoneOffset.UTC;
@@ -48,8 +56,10 @@ import static javax.ws.rs.core.Response.Status.BAD_REQUEST;
 import static javax.ws.rs.core.Response.Status.CONFLICT;
 import static javax.ws.rs.core.Response.Status.NOT_FOUND;
 import static javax.ws.rs.core.Response.Status.OK;
+import static javax.ws.rs.core.Response.Status.SEE_OTHER;
 import static org.apache.commons.lang3.StringUtils.repeat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @FixMethodOrder(MethodSorters.NAME_ASCENDING)
@@ -57,6 +67,10 @@ public final class PaymentEndpointTest extends AbstractEndpointTest {
 
     private static final long ACCOUNT0_ID = 0L;
     private static final long ACCOUNT2_ID = 2L;
+    /**
+     * Same as {@code org.glassfish.jersey.client.ClientProperties.FOLLOW_REDIRECTS}.
+     */
+    private static final String FOLLOW_REDIRECTS = "jersey.config.client.followRedirects";
 
     // data to share between different tests
     private static final AtomicReference<Payment> PAYMENT_1 = new AtomicReference<>();
@@ -65,10 +79,14 @@ public final class PaymentEndpointTest extends AbstractEndpointTest {
 
     @Inject
     private DSLContext dslCtx;
+    @Inject
+    private PaymentStorage paymentStorage;
+    @Inject
+    private StatementExport statementExport;
 
 
     protected ResourceConfig configure() {
-        return super.configure().register(PaymentEndpoint.class);
+        return super.configure().register(PaymentEndpoint.class).register(LockContentionEndpoint.class);
     }
 
 
@@ -117,6 +135,17 @@ public final class PaymentEndpointTest extends AbstractEndpointTest {
                 CONFLICT, TEXT_PLAIN_TYPE);
         testSimpleResponse(this::invokeCreate, newPaymentAsJson(ONE, ACCOUNT2_ID, ACCOUNT0_ID, null),
                 CONFLICT, TEXT_PLAIN_TYPE);
+
+        final String metrics = target("metrics").request().get(String.class);
+        assertTrue(metrics.contains("http_responses_total{resource=\"PaymentEndpoint.create\",status=\"409\"} 2\n"),
+                metrics);
+        assertTrue(metrics.contains("account_lock_timeouts_total 2\n"), metrics);
+
+        final JsonNode contention = getJson().readTree(target("admin/contention").request().get(String.class));
+        final JsonNode hottest = contention.get("hotAccounts").get(0);
+        assertEquals(ACCOUNT0_ID, hottest.get("accountId").asLong());
+        assertEquals(2L, hottest.get("timeouts").asLong());
+        assertEquals(BAD_REQUEST, target("admin/contention").queryParam("limit", 0).request().get().getStatusInfo());
     }
 
     private void testCreateValidations() throws JsonProcessingException {
@@ -173,10 +202,12 @@ public final class PaymentEndpointTest extends AbstractEndpointTest {
         assertEquals(OK, resp.getStatusInfo());
         assertEquals(TEXT_PLAIN_TYPE, resp.getMediaType());
         assertTrue(resp.hasEntity());
+        final String timing = resp.getHeaderString(ServerTiming.HEADER);
+        assertTrue(timing.matches("parse;dur=.*, validate;dur=.*, lock;dur=.*, sql;dur=.*, commit;dur=.*, "
+                + "total;dur=.*"), timing);
         final long newPaymentId = new Scanner((InputStream) resp.getEntity(), US_ASCII.name()).nextLong();
 
-        final Payment newPayment = dslCtx.selectFrom(PAYMENT).where(PAYMENT.PAYMENT_ID.eq(newPaymentId))
-                .fetchAnyInto(Payment.class);
+        final Payment newPayment = paymentStorage.find(newPaymentId);
 
         equals(value, between(intervalFrom, intervalTo), newPayment);
 
@@ -202,7 +233,7 @@ public final class PaymentEndpointTest extends AbstractEndpointTest {
      */
     @Test
     public void o2testInsertPaymentFail() {
-        final PaymentEndpoint endpoint = new PaymentEndpoint(null);
+        final PaymentEndpoint endpoint = new PaymentEndpoint(null, null, null, null, null, null, null, null);
         Assertions.assertThrows(IllegalStateException.class,
                 () -> endpoint.insertPaymentCheckUpdatedRows(0),
                 "Can't create payment record");
@@ -214,7 +245,7 @@ public final class PaymentEndpointTest extends AbstractEndpointTest {
      */
     @Test
     public void o3testUpdateAccountFail() {
-        final PaymentEndpoint endpoint = new PaymentEndpoint(null);
+        final PaymentEndpoint endpoint = new PaymentEndpoint(null, null, null, null, null, null, null, null);
         Assertions.assertThrows(IllegalStateException.class,
                 () -> endpoint.updateAccountCheckUpdatedRows(0, "some"),
                 "Can't update balance of some account");
@@ -229,9 +260,9 @@ public final class PaymentEndpointTest extends AbstractEndpointTest {
         final String intervalFrom = "0000-01-01T00:00:00.000";
         final String intervalTo = "9999-12-31T23:59:59.999";
 
-        testListValidation(null, null, null, NOT_FOUND);
-        testListValidation(ACCOUNT0_ID, intervalFrom, null, NOT_FOUND);
-        testListValidation(ACCOUNT0_ID, null, intervalTo, NOT_FOUND);
+        testListValidation(null, null, null, BAD_REQUEST);
+        testListValidation(ACCOUNT0_ID, intervalFrom, null, BAD_REQUEST);
+        testListValidation(ACCOUNT0_ID, null, intervalTo, BAD_REQUEST);
         testListValidation(null, intervalFrom, intervalTo, BAD_REQUEST);
         testListValidation("X", intervalFrom, intervalTo, NOT_FOUND);
         testListValidation(ACCOUNT0_ID, "X", intervalTo, NOT_FOUND);
@@ -272,17 +303,140 @@ public final class PaymentEndpointTest extends AbstractEndpointTest {
     }
 
     private Response invokeList(final Object accountId, final String intervalFrom, final String intervalTo) {
-        return target().path("/payment")
+        return invokeList("/payment", accountId, intervalFrom, intervalTo);
+    }
+
+    private Response invokeList(final String path, final Object accountId, final String intervalFrom,
+            final String intervalTo) {
+        return target().path(path)
                 .queryParam("accountId", accountId)
                 .queryParam("from", intervalFrom)
                 .queryParam("to", intervalTo)
                 .request().get();
     }
 
+    /**
+     * Tests '/payment/statement' GET.
+     */
+    @Test
+    public void o5testStatement() throws IOException {
+        final String intervalFrom = "0000-01-01T00:00:00.000";
+        final String intervalTo = "9999-12-31T23:59:59.999";
+        testSimpleResponse(path -> invokeList(path, null, intervalFrom, intervalTo), "/payment/statement",
+                BAD_REQUEST, TEXT_PLAIN_TYPE);
+        testSimpleResponse(path -> invokeList(path, ACCOUNT2_ID, intervalTo, intervalFrom), "/payment/statement",
+                BAD_REQUEST, TEXT_PLAIN_TYPE);
+        assertEquals(0, readStatement(Long.MAX_VALUE, intervalFrom, intervalTo).length);
+
+        final BigDecimal balance = dslCtx.select(ACCOUNT.BALANCE).from(ACCOUNT)
+                .where(ACCOUNT.ACCOUNT_ID.eq(ACCOUNT2_ID)).fetchOne(ACCOUNT.BALANCE);
+        final StatementEntry[] statement = readStatement(ACCOUNT2_ID, intervalFrom, intervalTo);
+        assertEquals(2, statement.length);
+        assertEquals(PAYMENT_1.get().getPaymentId(), statement[0].getPaymentId());
+        assertEquals(0, balance.add(ONE).compareTo(statement[0].getBalance()));
+        assertEquals(PAYMENT_2.get().getPaymentId(), statement[1].getPaymentId());
+        assertEquals(0, balance.compareTo(statement[1].getBalance()));
+
+        final StatementEntry[] last = readStatement(ACCOUNT2_ID, format(PAYMENT_2.get().getProcessed()),
+                intervalTo);
+        assertEquals(1, last.length);
+        assertEquals(0, balance.compareTo(last[0].getBalance()));
+    }
+
+    private StatementEntry[] readStatement(final long accountId, final String intervalFrom,
+            final String intervalTo) throws IOException {
+        final Response resp = invokeList("/payment/statement", accountId, intervalFrom, intervalTo);
+        assertEquals(OK, resp.getStatusInfo());
+        assertEquals(APPLICATION_JSON_TYPE, resp.getMediaType());
+        return getJson().readerFor(StatementEntry[].class).readValue((InputStream) resp.getEntity());
+    }
+
+    /**
+     * Tests '/payment/statement.csv' GET.
+     */
+    @Test
+    public void o6testExport() throws IOException {
+        final String intervalFrom = "0000-01-01T00:00:00.000";
+        final String intervalTo = "9999-12-31T23:59:59.999";
+        testSimpleResponse(path -> invokeList(path, null, intervalFrom, intervalTo), "/payment/statement.csv",
+                BAD_REQUEST, TEXT_PLAIN_TYPE);
+
+        final Response resp = target().path("/payment/statement.csv")
+                .property(FOLLOW_REDIRECTS, false) // the file is served outside of jax-rs
+                .queryParam("accountId", ACCOUNT2_ID)
+                .queryParam("from", intervalFrom)
+                .queryParam("to", intervalTo)
+                .request().get();
+        assertEquals(SEE_OTHER, resp.getStatusInfo());
+        final String fileName = statementExport.fileName(ACCOUNT2_ID, LocalDateTime.parse(intervalFrom),
+                LocalDateTime.parse(intervalTo));
+        assertTrue(resp.getLocation().getPath().endsWith("/files/" + fileName));
+        final List<String> lines = Files.readAllLines(statementExport.getDirectory().resolve(fileName));
+        assertEquals(1 + 2, lines.size()); // the header and two payments
+        assertTrue(lines.get(1).startsWith(PAYMENT_1.get().getPaymentId() + ","));
+        assertTrue(lines.get(2).startsWith(PAYMENT_2.get().getPaymentId() + ","));
+    }
+
+    /**
+     * Tests '/payment/outbox' GET.
+     */
+    @Test
+    public void o7testOutbox() throws IOException {
+        final Response resp = target().path("/payment/outbox").request().get();
+        assertEquals(OK, resp.getStatusInfo());
+        final JsonNode lag = getJson().readTree(resp.readEntity(String.class));
+        assertEquals(0, lag.get("pending").asInt()); // not written without the relay
+        assertEquals(0L, lag.get("lagMillis").asLong());
+        assertEquals(0, lag.get("consumers").size());
+    }
+
+    /**
+     * Tests '/payment/changes' GET.
+     */
+    @Test
+    public void o8testChanges() throws IOException {
+        testSimpleResponse(path -> target().path(path).queryParam("limit", 0).request().get(), "/payment/changes",
+                BAD_REQUEST, TEXT_PLAIN_TYPE);
+        final long paymentId1 = PAYMENT_1.get().getPaymentId();
+        final long paymentId2 = PAYMENT_2.get().getPaymentId();
+
+        JsonNode page = invokeChanges(paymentId1 - 1L, 1);
+        assertEquals(1, page.get("payments").size());
+        assertEquals(paymentId1, page.get("payments").get(0).get("paymentId").asLong());
+        assertEquals(paymentId1, page.get("next").asLong());
+        assertFalse(page.get("caughtUp").asBoolean());
+
+        page = invokeChanges(paymentId1, 2);
+        assertEquals(paymentId2, page.get("payments").get(0).get("paymentId").asLong());
+        assertEquals(paymentId2, page.get("next").asLong());
+        assertTrue(page.get("caughtUp").asBoolean());
+    }
+
+    private JsonNode invokeChanges(final long after, final int limit) throws IOException {
+        final Response resp = target().path("/payment/changes").queryParam("after", after)
+                .queryParam("limit", limit).request().get();
+        assertEquals(OK, resp.getStatusInfo());
+        return getJson().readTree(resp.readEntity(String.class));
+    }
+
     @AfterClass
     @SuppressWarnings("checkstyle:MissingJavadocMethod")
     public static void afterClass() {
         PAYMENT_1.set(null);
         PAYMENT_2.set(null);
     }
+
+
+    /**
+     * Tests the flight recorder events of a rejected payment.
+     */
+    @Test
+    public void o9testFlightRecording() throws JsonProcessingException {
+        assertEquals(OK, target("admin/jfr").request().put(Entity.text("")).getStatusInfo());
+        testCreateValidation(newPaymentAsJson(new BigDecimal(Long.MAX_VALUE), ACCOUNT2_ID, ACCOUNT0_ID, null));
+        final String recording = new String(target("admin/jfr").request().delete(byte[].class), ISO_8859_1);
+        assertTrue(recording.contains("com.github.edwgiz.sample.bank.PaymentLock"));
+        assertTrue(recording.contains("com.github.edwgiz.sample.bank.PaymentTransaction"));
+        assertTrue(recording.contains("Insufficient withdrawal balance"));
+    }
 }
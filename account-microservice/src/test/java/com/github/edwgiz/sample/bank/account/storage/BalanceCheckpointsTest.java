@@ -0,0 +1,106 @@
+package com.github.edwgiz.sample.bank.account.storage;
+
+import com.github.edwgiz.sample.bank.account.jooq.tables.pojos.Payment;
+import com.github.edwgiz.sample.bank.account.model.StatementEntry;
+import com.github.edwgiz.sample.bank.core.storage.DSLContextFactory;
+import com.github.edwgiz.sample.bank.core.storage.InMemoryDataSourceFactory;
+import org.jooq.Configuration;
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.github.edwgiz.sample.bank.account.jooq.Sequences.PAYMENT_SEQ;
+import static com.github.edwgiz.sample.bank.account.jooq.Tables.ACCOUNT;
+import static com.github.edwgiz.sample.bank.account.jooq.Tables.BALANCE_CHECKPOINT;
+import static java.math.BigDecimal.ONE;
+import static java.math.BigDecimal.TEN;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BalanceCheckpointsTest {
+
+    private static final long BANK_ACCOUNT_ID = 0L;
+    private static final long TEST_ACCOUNT_ID = 100L;
+    private static final LocalDateTime CREATED = LocalDateTime.parse("2020-01-01T00:00");
+    private static final int INTERVAL = 2;
+    private static final int DEPOSITS = 5;
+    private static final int CHECKPOINTS = 3;
+    private static final long MINUTE3 = 3L;
+    private static final long MINUTE4 = 4L;
+    private static final long MINUTE6 = 6L;
+    private static final long SECONDS_BETWEEN_MINUTE2_AND_MINUTE3 = 150L;
+
+    @Test
+    /* default */void test(@TempDir final Path dir) throws IOException {
+        final InMemoryDataSourceFactory dataSourceFactory = new InMemoryDataSourceFactory();
+        final DataSource dataSource = dataSourceFactory.provide();
+        try {
+            final DSLContext dslCtx = new DSLContextFactory(dataSource).provide();
+            final Configuration cnf = dslCtx.configuration();
+            final PaymentStorage storage = new PaymentStorage(dslCtx, new PaymentArchive(dir));
+            final BalanceCheckpoints checkpoints = new BalanceCheckpoints(storage, INTERVAL);
+            dslCtx.insertInto(ACCOUNT, ACCOUNT.ACCOUNT_ID, ACCOUNT.CREATED, ACCOUNT.OWNER_NAME, ACCOUNT.BALANCE,
+                    ACCOUNT.BALANCE_LAST_MODIFIED).values(TEST_ACCOUNT_ID, CREATED, "Test", TEN, CREATED).execute();
+
+            assertNull(checkpoints.balanceAt(cnf, Long.MAX_VALUE, CREATED));
+            assertNull(checkpoints.balanceAt(cnf, TEST_ACCOUNT_ID, CREATED.minusNanos(1L)));
+            assertBalance(TEN, checkpoints.balanceAt(cnf, TEST_ACCOUNT_ID, CREATED)); // no payments yet
+            assertTrue(checkpoints.statement(cnf, TEST_ACCOUNT_ID, CREATED, CREATED.plusDays(1L)).isEmpty());
+
+            storage.prepare(CREATED);
+            BigDecimal balance = TEN;
+            for (long minute = 1L; minute <= DEPOSITS; minute++) {
+                balance = pay(dslCtx, storage, checkpoints, CREATED.plusMinutes(minute), BANK_ACCOUNT_ID, balance);
+            }
+            assertEquals(CHECKPOINTS, dslCtx.fetchCount(BALANCE_CHECKPOINT,
+                    BALANCE_CHECKPOINT.ACCOUNT_ID.eq(TEST_ACCOUNT_ID)));
+            pay(dslCtx, storage, checkpoints, CREATED.plusMinutes(MINUTE6), TEST_ACCOUNT_ID, balance);
+
+            assertBalance(TEN, checkpoints.balanceAt(cnf, TEST_ACCOUNT_ID, CREATED));
+            assertBalance(TEN.add(ONE).add(ONE), checkpoints.balanceAt(cnf, TEST_ACCOUNT_ID,
+                    CREATED.plusSeconds(SECONDS_BETWEEN_MINUTE2_AND_MINUTE3)));
+            assertBalance(balance, checkpoints.balanceAt(cnf, TEST_ACCOUNT_ID, CREATED.plusMinutes(DEPOSITS)));
+            assertBalance(balance.subtract(ONE), checkpoints.balanceAt(cnf, TEST_ACCOUNT_ID, CREATED.plusDays(1L)));
+
+            final List<StatementEntry> statement = checkpoints.statement(cnf, TEST_ACCOUNT_ID,
+                    CREATED.plusMinutes(MINUTE3), CREATED.plusMinutes(MINUTE4));
+            assertEquals(2, statement.size());
+            assertEquals(CREATED.plusMinutes(MINUTE3), statement.get(0).getProcessed());
+            assertBalance(balance.subtract(ONE).subtract(ONE), statement.get(0).getBalance());
+            assertBalance(balance.subtract(ONE), statement.get(1).getBalance());
+
+            final List<StatementEntry> all = checkpoints.statement(cnf, TEST_ACCOUNT_ID, CREATED.minusDays(1L),
+                    CREATED.plusDays(1L));
+            assertEquals(DEPOSITS + 1, all.size());
+            assertBalance(TEN.add(ONE), all.get(0).getBalance());
+            assertBalance(balance.subtract(ONE), all.get(DEPOSITS).getBalance());
+        } finally {
+            dataSourceFactory.dispose(dataSource);
+        }
+    }
+
+    // pays one from or to the test account, returns the test account balance after that
+    private BigDecimal pay(final DSLContext dslCtx, final PaymentStorage storage,
+            final BalanceCheckpoints checkpoints, final LocalDateTime processed, final long withdrawalAccountId,
+            final BigDecimal balance) {
+        final boolean deposit = withdrawalAccountId == BANK_ACCOUNT_ID;
+        final Payment payment = new Payment(dslCtx.nextval(PAYMENT_SEQ), processed, ONE, withdrawalAccountId,
+                deposit ? TEST_ACCOUNT_ID : BANK_ACCOUNT_ID, null);
+        storage.insert(dslCtx.configuration(), payment);
+        final BigDecimal balanceAfter = deposit ? balance.add(ONE) : balance.subtract(ONE);
+        checkpoints.update(dslCtx.configuration(), TEST_ACCOUNT_ID, balance, payment, balanceAfter);
+        return balanceAfter;
+    }
+
+    private static void assertBalance(final BigDecimal expected, final BigDecimal actual) {
+        assertEquals(0, expected.compareTo(actual), () -> expected + " vs " + actual);
+    }
+}
@@ -0,0 +1,41 @@
+package com.github.edwgiz.sample.bank.account.storage;
+
+import com.github.edwgiz.sample.bank.account.jooq.tables.pojos.Payment;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ChangeBufferTest {
+
+    private static final int LIMIT = 2;
+    private static final long ID3 = 3L;
+    private static final long ID5 = 5L;
+    private static final long ID7 = 7L;
+
+    @Test
+    /* default */void test() {
+        final ChangeBuffer buffer = new ChangeBuffer(LIMIT);
+        assertEquals(Long.MAX_VALUE, buffer.bound());
+        buffer.add(payment(ID7));
+        buffer.add(payment(ID5));
+        assertEquals(ID7, buffer.bound());
+        buffer.add(payment(ID3)); // a later source of a lower identifier
+        assertEquals(ID5, buffer.bound());
+
+        final List<Long> paymentIds = new ArrayList<>();
+        for (final Payment payment : buffer.toList()) {
+            paymentIds.add(payment.getPaymentId());
+        }
+        assertEquals(Arrays.asList(ID3, ID5), paymentIds);
+    }
+
+    private static Payment payment(final long paymentId) {
+        final Payment result = new Payment();
+        result.setPaymentId(paymentId);
+        return result;
+    }
+}
@@ -0,0 +1,97 @@
+package com.github.edwgiz.sample.bank.account.storage;
+
+import com.github.edwgiz.sample.bank.account.jooq.tables.pojos.Payment;
+import com.github.edwgiz.sample.bank.account.model.ChangePage;
+import com.github.edwgiz.sample.bank.core.storage.DSLContextFactory;
+import com.github.edwgiz.sample.bank.core.storage.InMemoryDataSourceFactory;
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.math.BigDecimal.ONE;
+import static java.time.LocalDateTime.now;
+import static java.time.ZoneOffset.UTC;
+import static java.time.temporal.ChronoUnit.MILLIS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ChangeFeedTest {
+
+    private static final int LIMIT = 10;
+    private static final int RING_CAPACITY = 2;
+    private static final long ID3 = 3L;
+    private static final long ID4 = 4L;
+    private static final long ID5 = 5L;
+    private static final long ID6 = 6L;
+
+    @Test
+    /* default */void test(@TempDir final Path dir) throws IOException {
+        final InMemoryDataSourceFactory dataSourceFactory = new InMemoryDataSourceFactory();
+        final DataSource dataSource = dataSourceFactory.provide();
+        try {
+            final DSLContext dslCtx = new DSLContextFactory(dataSource).provide();
+            final PaymentStorage storage = new PaymentStorage(dslCtx, new PaymentArchive(dir));
+            final ChangeFeed preceding = new ChangeFeed(dslCtx, storage);
+            final LocalDateTime archived = LocalDateTime.parse("2020-01-15T00:00");
+            storage.prepare(archived);
+            insert(dslCtx, storage, payment(preceding.takeId(dslCtx.configuration()), archived));
+            final LocalDateTime now = now(UTC).truncatedTo(MILLIS);
+            storage.prepare(now);
+            storage.archive(LocalDateTime.parse("2020-02-01T00:00"));
+            insert(dslCtx, storage, payment(preceding.takeId(dslCtx.configuration()), now));
+
+            final ChangeFeed feed = new ChangeFeed(dslCtx, storage, RING_CAPACITY); // the payments above precede it
+            assertPage(feed.changes(0L, LIMIT), 2L, true, 1L, 2L);
+            assertPage(feed.changes(0L, 1), 1L, false, 1L);
+
+            final Payment payment3 = payment(feed.takeId(dslCtx.configuration()), now);
+            final Payment payment4 = payment(feed.takeId(dslCtx.configuration()), now);
+            insert(dslCtx, storage, payment4);
+            feed.complete(payment4, true);
+            assertPage(feed.changes(2L, LIMIT), 2L, true); // waits for the third one
+            insert(dslCtx, storage, payment3);
+            feed.complete(payment3, true);
+            assertPage(feed.changes(2L, LIMIT), ID4, true, ID3, ID4);
+
+            feed.complete(payment(feed.takeId(dslCtx.configuration()), now), false); // rolled back
+            feed.complete(new Payment(), false); // failed before taking the identifier
+            assertPage(feed.changes(ID4, LIMIT), ID5, true);
+
+            final Payment payment6 = payment(feed.takeId(dslCtx.configuration()), now);
+            insert(dslCtx, storage, payment6);
+            feed.complete(payment6, true); // evicts the third one
+            assertPage(feed.changes(2L, LIMIT), ID6, true, ID3, ID4, ID6);
+            assertPage(feed.changes(ID3, 1), ID4, false, ID4);
+            assertPage(feed.changes(ID4, 1), ID6, true, ID6);
+            assertPage(feed.changes(ID6, LIMIT), ID6, true);
+        } finally {
+            dataSourceFactory.dispose(dataSource);
+        }
+    }
+
+    private static Payment payment(final long paymentId, final LocalDateTime processed) {
+        return new Payment(paymentId, processed, ONE, 0L, 2L, null);
+    }
+
+    private static void insert(final DSLContext dslCtx, final PaymentStorage storage, final Payment payment) {
+        dslCtx.transaction(cnf -> storage.insert(cnf, payment));
+    }
+
+    private static void assertPage(final ChangePage page, final long next, final boolean caughtUp,
+            final Long... paymentIds) {
+        final List<Long> actual = new ArrayList<>();
+        for (final Payment payment : page.getPayments()) {
+            actual.add(payment.getPaymentId());
+        }
+        assertEquals(Arrays.asList(paymentIds), actual);
+        assertEquals(next, page.getNext());
+        assertEquals(caughtUp, page.isCaughtUp());
+    }
+}
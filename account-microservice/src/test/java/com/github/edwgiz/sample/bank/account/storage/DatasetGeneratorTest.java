@@ -0,0 +1,146 @@
+package com.github.edwgiz.sample.bank.account.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.math.BigDecimal.ZERO;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DatasetGeneratorTest {
+
+    private static final int ACCOUNTS = 100;
+    private static final long PAYMENTS = 20_000L;
+    private static final long FIRST_ACCOUNT_ID = 10L;
+    private static final long FIRST_PAYMENT_ID = 1000L;
+    private static final LocalDateTime FROM = LocalDateTime.parse("2020-01-01T00:00");
+    private static final LocalDateTime TO = LocalDateTime.parse("2020-03-01T00:00");
+    private static final double SKEW = 3.0;
+    private static final long SEED = 7L;
+    private static final int NIGHT_HOUR = 3;
+    private static final int DAY_HOUR = 15;
+    private static final int SATURDAY_JANUARY_4 = 4;
+    private static final int MONDAY_JANUARY_6 = 6;
+    private static final int PROCESSED = 1;
+    private static final int AMOUNT = 2;
+    private static final int WITHDRAWAL_ACCOUNT_ID = 3;
+    private static final int DEPOSIT_ACCOUNT_ID = 4;
+    private static final int PAYMENT_ID = 2;
+    private static final int BALANCE = 3;
+    private static final int PAYMENTS_AFTER = 4;
+    private static final int CREATED = 1;
+    private static final int BALANCE_LAST_MODIFIED = 4;
+
+    @Test
+    /* default */void testGenerate() {
+        final RecordedRows rows = new RecordedRows();
+        final DatasetGenerator generator = new DatasetGenerator(ACCOUNTS, PAYMENTS, FROM, TO, SKEW, SEED);
+        assertEquals(FROM, generator.getFrom());
+        assertEquals(TO, generator.getTo());
+        generator.accounts(FIRST_ACCOUNT_ID, rows);
+        generator.payments(FIRST_ACCOUNT_ID, FIRST_PAYMENT_ID, rows);
+
+        assertEquals(ACCOUNTS, rows.accounts.size());
+        assertEquals(PAYMENTS, rows.payments.size());
+        final Object[] first = rows.payments.get(0);
+        final Object[] last = rows.payments.get(rows.payments.size() - 1);
+        assertEquals(FIRST_PAYMENT_ID, first[0]);
+        assertEquals(FIRST_PAYMENT_ID + PAYMENTS - 1L, last[0]);
+        assertTrue(!((LocalDateTime) first[PROCESSED]).isBefore(FROM));
+        assertTrue(((LocalDateTime) last[PROCESSED]).isBefore(TO));
+
+        final int[] hours = new int[Math.max(DAY_HOUR, NIGHT_HOUR) + 1];
+        final int[] days = new int[MONDAY_JANUARY_6 + 1];
+        final long[] sides = new long[ACCOUNTS];
+        LocalDateTime previous = FROM;
+        for (final Object[] payment : rows.payments) {
+            final LocalDateTime processed = (LocalDateTime) payment[PROCESSED];
+            assertTrue(!processed.isBefore(previous));
+            previous = processed;
+            if (processed.getHour() < hours.length) {
+                hours[processed.getHour()]++;
+            }
+            if (processed.getMonthValue() == 1 && processed.getDayOfMonth() < days.length) {
+                days[processed.getDayOfMonth()]++;
+            }
+            assertTrue(((BigDecimal) payment[AMOUNT]).signum() > 0);
+            sides[(int) ((Long) payment[WITHDRAWAL_ACCOUNT_ID] - FIRST_ACCOUNT_ID)]++;
+            sides[(int) ((Long) payment[DEPOSIT_ACCOUNT_ID] - FIRST_ACCOUNT_ID)]++;
+        }
+        assertTrue(hours[DAY_HOUR] > 2 * hours[NIGHT_HOUR], hours[DAY_HOUR] + " vs " + hours[NIGHT_HOUR]);
+        assertTrue(days[MONDAY_JANUARY_6] > days[SATURDAY_JANUARY_4]);
+        assertTrue(sides[0] > sides[ACCOUNTS / 2] && sides[ACCOUNTS / 2] > sides[ACCOUNTS - 1]);
+
+        // the last checkpoint of an account is followed by the rest of its payments, the others by the interval
+        final long[] checkpointed = new long[ACCOUNTS];
+        for (final Object[] checkpoint : rows.checkpoints) {
+            final int account = (int) ((Long) checkpoint[0] - FIRST_ACCOUNT_ID);
+            checkpointed[account] += (Integer) checkpoint[PAYMENTS_AFTER]
+                    + ((Long) checkpoint[PAYMENT_ID] == BalanceCheckpoints.OPENING_PAYMENT_ID ? 0 : 1);
+            assertTrue(((BigDecimal) checkpoint[BALANCE]).compareTo(ZERO) >= 0);
+        }
+        for (int account = 0; account < ACCOUNTS; account++) {
+            assertEquals(sides[account], checkpointed[account]);
+        }
+
+        final RecordedRows again = new RecordedRows();
+        final DatasetGenerator same = new DatasetGenerator(ACCOUNTS, PAYMENTS, FROM, TO, SKEW, SEED);
+        same.accounts(FIRST_ACCOUNT_ID, again);
+        assertEquals(rows.accounts.get(ACCOUNTS - 1)[BALANCE], again.accounts.get(ACCOUNTS - 1)[BALANCE]);
+    }
+
+    @Test
+    /* default */void testNoPayments() {
+        final RecordedRows rows = new RecordedRows();
+        final DatasetGenerator generator = new DatasetGenerator(2, 0L, FROM, FROM, SKEW, SEED);
+        assertThrows(IllegalStateException.class, () -> generator.payments(FIRST_ACCOUNT_ID, 1L, rows));
+        generator.accounts(FIRST_ACCOUNT_ID, rows);
+        generator.payments(FIRST_ACCOUNT_ID, 1L, rows);
+        assertEquals(2, rows.accounts.size());
+        // never modified since created
+        assertEquals(rows.accounts.get(0)[CREATED], rows.accounts.get(0)[BALANCE_LAST_MODIFIED]);
+        assertTrue(((LocalDateTime) rows.accounts.get(1)[CREATED]).isBefore(FROM));
+        assertTrue(rows.payments.isEmpty());
+        assertTrue(rows.checkpoints.isEmpty());
+    }
+
+    @Test
+    /* default */void testInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> new DatasetGenerator(1, 0L, FROM, TO, SKEW, SEED));
+        assertThrows(IllegalArgumentException.class,
+                () -> new DatasetGenerator(2, 1L, FROM, FROM.plusMinutes(1L), SKEW, SEED));
+    }
+
+    /**
+     * Collects the generated rows.
+     */
+    private static final class RecordedRows implements DatasetGenerator.RowSink {
+
+        private final List<Object[]> accounts = new ArrayList<>();
+        private final List<Object[]> payments = new ArrayList<>();
+        private final List<Object[]> checkpoints = new ArrayList<>();
+
+        @Override
+        public void account(final long accountId, final LocalDateTime created, final String ownerName,
+                final BigDecimal balance, final LocalDateTime balanceLastModified) {
+            accounts.add(new Object[]{accountId, created, ownerName, balance, balanceLastModified});
+        }
+
+        @Override
+        public void payment(final long paymentId, final LocalDateTime processed, final BigDecimal amount,
+                final long withdrawalAccountId, final long depositAccountId) {
+            payments.add(new Object[]{paymentId, processed, amount, withdrawalAccountId, depositAccountId});
+        }
+
+        @Override
+        public void checkpoint(final long accountId, final LocalDateTime processed, final long paymentId,
+                final BigDecimal balance, final int paymentsAfter) {
+            checkpoints.add(new Object[]{accountId, processed, paymentId, balance, paymentsAfter});
+        }
+    }
+}
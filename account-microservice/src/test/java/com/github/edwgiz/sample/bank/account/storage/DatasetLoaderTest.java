@@ -0,0 +1,144 @@
+package com.github.edwgiz.sample.bank.account.storage;
+
+import com.github.edwgiz.sample.bank.account.jooq.tables.pojos.Payment;
+import com.github.edwgiz.sample.bank.account.model.ChangePage;
+import com.github.edwgiz.sample.bank.account.model.StatementEntry;
+import com.github.edwgiz.sample.bank.core.storage.DSLContextFactory;
+import com.github.edwgiz.sample.bank.core.storage.InMemoryDataSourceFactory;
+import org.jooq.Configuration;
+import org.jooq.DSLContext;
+import org.jooq.exception.DataAccessException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+import static com.github.edwgiz.sample.bank.account.jooq.Tables.ACCOUNT;
+import static com.github.edwgiz.sample.bank.account.jooq.Tables.BALANCE_CHECKPOINT;
+import static java.time.ZoneOffset.UTC;
+import static org.jooq.impl.DSL.sum;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DatasetLoaderTest {
+
+    /**
+     * Accounts created by the database migration.
+     */
+    private static final long MIGRATED_ACCOUNTS = 3L;
+    private static final int ACCOUNTS = 40;
+    private static final int PAYMENTS = 3000;
+    private static final LocalDateTime FROM = LocalDateTime.parse("2020-01-01T00:00");
+    private static final LocalDateTime TO = LocalDateTime.parse("2020-03-01T00:00");
+    private static final LocalDateTime CREATED_BEFORE = LocalDateTime.parse("2000-01-01T00:00");
+    private static final double SKEW = 2.0;
+    private static final int THREADS = 2;
+    private static final int BATCH_SIZE = 16;
+
+    @Test
+    /* default */void testLoad(@TempDir final Path dir) throws IOException {
+        final InMemoryDataSourceFactory dataSourceFactory = new InMemoryDataSourceFactory();
+        final DataSource dataSource = dataSourceFactory.provide();
+        System.setProperty(DatasetLoader.SYSTEM_PROPERTY_ACCOUNTS, Integer.toString(ACCOUNTS));
+        System.setProperty(DatasetLoader.SYSTEM_PROPERTY_PAYMENTS, Integer.toString(PAYMENTS));
+        System.setProperty(DatasetLoader.SYSTEM_PROPERTY_MONTHS, "2");
+        System.setProperty(DatasetLoader.SYSTEM_PROPERTY_THREADS, Integer.toString(THREADS));
+        try {
+            final DSLContext dslCtx = new DSLContextFactory(dataSource).provide();
+            final Configuration cnf = dslCtx.configuration();
+            final PaymentStorage storage = new PaymentStorage(dslCtx, new PaymentArchive(dir));
+            // built before the loading, as by the injection
+            final ChangeFeed feed = new ChangeFeed(dslCtx, storage);
+            new DatasetLoader(dslCtx, storage, feed, BATCH_SIZE).onStartup(null);
+
+            final long firstAccountId = MIGRATED_ACCOUNTS;
+            assertEquals(firstAccountId + ACCOUNTS, dslCtx.fetchCount(ACCOUNT));
+            final List<Payment> payments = storage.changes(cnf, 0L, Long.MAX_VALUE, PAYMENTS + 1);
+            assertEquals(PAYMENTS, payments.size());
+            assertEquals(1L, payments.get(0).getPaymentId());
+            for (int i = 1; i < PAYMENTS; i++) {
+                assertTrue(!payments.get(i).getProcessed().isBefore(payments.get(i - 1).getProcessed()));
+            }
+            final ChangePage loaded = feed.changes(0L, PAYMENTS + 1);
+            assertEquals(PAYMENTS, loaded.getPayments().size());
+            assertEquals(PAYMENTS, loaded.getNext());
+            assertTrue(loaded.isCaughtUp());
+            final Payment next = new Payment();
+            next.setPaymentId(feed.takeId(cnf));
+            assertEquals(PAYMENTS + 1L, next.getPaymentId());
+            feed.complete(next, true);
+            assertEquals(Collections.singletonList(next), feed.changes(PAYMENTS, PAYMENTS).getPayments());
+
+            final BalanceCheckpoints checkpoints = new BalanceCheckpoints(storage);
+            final LocalDateTime now = LocalDateTime.now(UTC);
+            for (long accountId = firstAccountId; accountId < firstAccountId + ACCOUNTS; accountId++) {
+                final BigDecimal balance = dslCtx.select(ACCOUNT.BALANCE).from(ACCOUNT)
+                        .where(ACCOUNT.ACCOUNT_ID.eq(accountId)).fetchOne(ACCOUNT.BALANCE);
+                // replayed from the opening balance
+                final List<StatementEntry> statement = checkpoints.statement(cnf, accountId, CREATED_BEFORE,
+                        now);
+                assertTrue(statement.stream().allMatch(entry -> entry.getBalance().signum() >= 0));
+                assertEquals(balance, statement.get(statement.size() - 1).getBalance());
+                assertEquals(balance, checkpoints.balanceAt(cnf, accountId, now));
+                final long nonOpening = dslCtx.fetchCount(BALANCE_CHECKPOINT, BALANCE_CHECKPOINT.ACCOUNT_ID
+                        .eq(accountId).and(BALANCE_CHECKPOINT.PAYMENT_ID.ne(BalanceCheckpoints.OPENING_PAYMENT_ID)));
+                assertEquals(statement.size(), nonOpening + dslCtx.select(sum(BALANCE_CHECKPOINT.PAYMENTS_AFTER))
+                        .from(BALANCE_CHECKPOINT).where(BALANCE_CHECKPOINT.ACCOUNT_ID.eq(accountId))
+                        .fetchOne().value1().longValue());
+            }
+
+            // the identity of the accounts continues after the loaded ones
+            assertEquals(firstAccountId + ACCOUNTS, dslCtx.insertInto(ACCOUNT, ACCOUNT.CREATED, ACCOUNT.OWNER_NAME,
+                    ACCOUNT.BALANCE, ACCOUNT.BALANCE_LAST_MODIFIED).values(now, "Test", BigDecimal.ONE, now)
+                    .returning(ACCOUNT.ACCOUNT_ID).fetchOne().get(ACCOUNT.ACCOUNT_ID).longValue());
+        } finally {
+            System.clearProperty(DatasetLoader.SYSTEM_PROPERTY_ACCOUNTS);
+            System.clearProperty(DatasetLoader.SYSTEM_PROPERTY_PAYMENTS);
+            System.clearProperty(DatasetLoader.SYSTEM_PROPERTY_MONTHS);
+            System.clearProperty(DatasetLoader.SYSTEM_PROPERTY_THREADS);
+            dataSourceFactory.dispose(dataSource);
+        }
+    }
+
+    @Test
+    /* default */void testNotConfigured(@TempDir final Path dir) throws IOException {
+        final InMemoryDataSourceFactory dataSourceFactory = new InMemoryDataSourceFactory();
+        final DataSource dataSource = dataSourceFactory.provide();
+        try {
+            final DSLContext dslCtx = new DSLContextFactory(dataSource).provide();
+            final PaymentStorage storage = new PaymentStorage(dslCtx, new PaymentArchive(dir));
+            final DatasetLoader loader = new DatasetLoader(dslCtx, storage, new ChangeFeed(dslCtx, storage));
+            loader.onStartup(null);
+            loader.onReload(null);
+            loader.onShutdown(null);
+            assertEquals(MIGRATED_ACCOUNTS, dslCtx.fetchCount(ACCOUNT));
+        } finally {
+            dataSourceFactory.dispose(dataSource);
+        }
+    }
+
+    @Test
+    /* default */void testFailure(@TempDir final Path dir) throws IOException {
+        final InMemoryDataSourceFactory dataSourceFactory = new InMemoryDataSourceFactory();
+        final DataSource dataSource = dataSourceFactory.provide();
+        try {
+            final DSLContext dslCtx = new DSLContextFactory(dataSource).provide();
+            final PaymentStorage storage = new PaymentStorage(dslCtx, new PaymentArchive(dir));
+            storage.prepare(FROM, TO);
+            storage.prepare(TO.plusMonths(1L)); // seals the partitions of the payments
+            final DataAccessException ex = assertThrows(DataAccessException.class,
+                    () -> new DatasetLoader(dslCtx, storage, new ChangeFeed(dslCtx, storage), BATCH_SIZE).load(
+                            new DatasetGenerator(ACCOUNTS, PAYMENTS, FROM, TO, SKEW, 1L), 1, TO));
+            assertTrue(String.valueOf(ex.getCause()).contains("read-only"), String.valueOf(ex.getCause()));
+        } finally {
+            dataSourceFactory.dispose(dataSource);
+        }
+    }
+}
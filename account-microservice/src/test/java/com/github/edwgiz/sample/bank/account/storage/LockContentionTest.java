@@ -0,0 +1,100 @@
+package com.github.edwgiz.sample.bank.account.storage;
+
+import com.github.edwgiz.sample.bank.account.model.BlockedSession;
+import com.github.edwgiz.sample.bank.account.model.HotAccount;
+import com.github.edwgiz.sample.bank.account.model.LockContentionReport;
+import com.github.edwgiz.sample.bank.core.metrics.Metrics;
+import com.github.edwgiz.sample.bank.core.storage.DSLContextFactory;
+import com.github.edwgiz.sample.bank.core.storage.InMemoryDataSourceFactory;
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.github.edwgiz.sample.bank.account.jooq.Tables.ACCOUNT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LockContentionTest {
+
+    private static final long HOT_ACCOUNT_ID = 2L;
+    private static final long NANOS = 3_000_000L;
+    private static final double MILLIS = 6.0;
+    private static final double DELTA = 1e-9;
+    private static final long POLL_MILLIS = 5L;
+
+    @Test
+    /* default */void testHotAccounts() {
+        final InMemoryDataSourceFactory dataSourceFactory = new InMemoryDataSourceFactory();
+        final DataSource dataSource = dataSourceFactory.provide();
+        try {
+            final Metrics metrics = new Metrics();
+            final LockContention contention = new LockContention(new DSLContextFactory(dataSource).provide(),
+                    metrics);
+            contention.record(0L, 1L, true);
+            contention.record(HOT_ACCOUNT_ID, NANOS, true);
+            contention.record(HOT_ACCOUNT_ID, NANOS, false);
+
+            final LockContentionReport report = contention.report(1);
+            assertEquals(1, report.getHotAccounts().size());
+            final HotAccount hot = report.getHotAccounts().get(0);
+            assertEquals(HOT_ACCOUNT_ID, hot.getAccountId());
+            assertEquals(MILLIS, hot.getWaitMillis(), DELTA);
+            assertEquals(2L, hot.getLocks());
+            assertEquals(1L, hot.getTimeouts());
+            assertTrue(report.getBlockedSessions().isEmpty());
+
+            final String scrape = metrics.scrape();
+            assertTrue(scrape.contains("account_lock_wait_seconds_count 3\n"), scrape);
+            assertTrue(scrape.contains("account_lock_timeouts_total 1\n"), scrape);
+            assertTrue(scrape.contains("db_blocked_sessions 0.0\n"), scrape);
+        } finally {
+            dataSourceFactory.dispose(dataSource);
+        }
+    }
+
+    @Test
+    /* default */void testBlockedSessions() throws Exception {
+        final InMemoryDataSourceFactory dataSourceFactory = new InMemoryDataSourceFactory();
+        final DataSource dataSource = dataSourceFactory.provide();
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final DSLContext dslCtx = new DSLContextFactory(dataSource).provide();
+            final LockContention contention = new LockContention(dslCtx, new Metrics());
+            final CountDownLatch locked = new CountDownLatch(1);
+            final CountDownLatch sampled = new CountDownLatch(1);
+            final Future<?> holder = executor.submit(() -> dslCtx.transaction(cnf -> {
+                lock(cnf.dsl());
+                locked.countDown();
+                sampled.await();
+            }));
+            locked.await();
+            final Future<?> waiter = executor.submit(() -> dslCtx.transaction(cnf -> lock(cnf.dsl())));
+
+            List<BlockedSession> sessions = contention.report(1).getBlockedSessions();
+            while (sessions.isEmpty() && !waiter.isDone()) {
+                Thread.sleep(POLL_MILLIS);
+                sessions = contention.report(1).getBlockedSessions();
+            }
+            sampled.countDown();
+            holder.get();
+            assertEquals(1, sessions.size());
+            final BlockedSession session = sessions.get(0);
+            assertTrue(session.getStatement().contains("for update"), session.getStatement());
+            assertTrue(session.getSessionId() != session.getBlockerId());
+            assertTrue(session.getWaitMillis() >= 0L);
+        } finally {
+            executor.shutdownNow();
+            dataSourceFactory.dispose(dataSource);
+        }
+    }
+
+    private static void lock(final DSLContext dslCtx) {
+        dslCtx.selectFrom(ACCOUNT).where(ACCOUNT.ACCOUNT_ID.eq(0L)).forUpdate().fetch();
+    }
+}
@@ -0,0 +1,143 @@
+package com.github.edwgiz.sample.bank.account.storage;
+
+import com.fasterxml.jackson.jaxrs.json.JacksonJaxbJsonProvider;
+import com.github.edwgiz.sample.bank.account.jooq.tables.pojos.OutboxConsumer;
+import com.github.edwgiz.sample.bank.account.jooq.tables.pojos.Payment;
+import com.github.edwgiz.sample.bank.account.model.OutboxLag;
+import com.github.edwgiz.sample.bank.core.storage.DSLContextFactory;
+import com.github.edwgiz.sample.bank.core.storage.InMemoryDataSourceFactory;
+import com.sun.net.httpserver.HttpServer;
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.github.edwgiz.sample.bank.account.jooq.Tables.OUTBOX;
+import static java.math.BigDecimal.ONE;
+import static java.net.HttpURLConnection.HTTP_INTERNAL_ERROR;
+import static java.net.HttpURLConnection.HTTP_OK;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OutboxRelayTest {
+
+    private static final String CONSUMER = "test";
+    private static final LocalDateTime PROCESSED = LocalDateTime.parse("2020-01-01T00:00");
+    private static final int BATCH = 2;
+    private static final int PAYMENTS = 5;
+
+    @Test
+    /* default */void testRun() {
+        final InMemoryDataSourceFactory dataSourceFactory = new InMemoryDataSourceFactory();
+        final DataSource dataSource = dataSourceFactory.provide();
+        try {
+            final DSLContext dslCtx = new DSLContextFactory(dataSource).provide();
+            dslCtx.deleteFrom(OUTBOX).execute();
+            final PaymentOutbox outbox = new PaymentOutbox(dslCtx, true);
+            for (long paymentId = PAYMENTS; paymentId > 0; paymentId--) { // inserted out of the order
+                final Payment payment = new Payment(paymentId, PROCESSED.plusSeconds(paymentId), ONE, 0L, 2L, null);
+                dslCtx.transaction(cnf -> outbox.insert(cnf, payment));
+            }
+            final List<String> delivered = new ArrayList<>();
+            final AtomicInteger failures = new AtomicInteger(1);
+            final OutboxRelay relay = new OutboxRelay(outbox, new JacksonJaxbJsonProvider(), CONSUMER, lines -> {
+                if (failures.getAndDecrement() > 0) {
+                    throw new IOException("test");
+                }
+                delivered.add(new String(lines, UTF_8));
+            }, BATCH, 1L);
+
+            relay.run(); // failure is logged
+            assertEquals(PAYMENTS, outbox.lag(dslCtx.configuration()).getPending());
+            assertTrue(delivered.isEmpty());
+
+            relay.run();
+            assertEquals(1 + PAYMENTS / BATCH, delivered.size());
+            assertTrue(delivered.get(0).matches("\\{\"paymentId\":1,.*}\n\\{\"paymentId\":2,.*}\n"),
+                    delivered.get(0));
+            assertTrue(delivered.get(2).startsWith("{\"paymentId\":5,"), delivered.get(2));
+            final OutboxLag lag = outbox.lag(dslCtx.configuration());
+            assertEquals(0, lag.getPending());
+            assertEquals(0L, lag.getLagMillis());
+            final OutboxConsumer offset = lag.getConsumers().get(0);
+            assertEquals(CONSUMER, offset.getConsumer());
+            assertEquals(Long.valueOf(PAYMENTS), offset.getLastPaymentId());
+            assertEquals(Long.valueOf(PAYMENTS), offset.getDelivered());
+        } finally {
+            dataSourceFactory.dispose(dataSource);
+        }
+    }
+
+    @Test
+    /* default */void testFileSink(@TempDir final Path dir) throws IOException {
+        final Path file = dir.resolve("outbox.jsonl");
+        System.setProperty(OutboxRelay.SYSTEM_PROPERTY_URL, file.toUri().toString());
+        try {
+            assertTrue(OutboxRelay.isEnabled());
+            final OutboxSink sink = OutboxRelay.sink(OutboxRelay.location());
+            sink.send("1\n".getBytes(UTF_8));
+            new OutboxRelay(null, new JacksonJaxbJsonProvider()).onShutdown(null);
+            sink.send("2\n".getBytes(UTF_8));
+            assertEquals("1\n2\n", new String(Files.readAllBytes(file), UTF_8));
+        } finally {
+            System.clearProperty(OutboxRelay.SYSTEM_PROPERTY_URL);
+        }
+        assertFalse(OutboxRelay.isEnabled());
+        assertThrows(IllegalArgumentException.class, () -> OutboxRelay.sink(URI.create("ftp://localhost/")));
+    }
+
+    @Test
+    /* default */void testHttpSink() throws IOException {
+        final List<String> received = new ArrayList<>();
+        final AtomicInteger status = new AtomicInteger(HTTP_OK);
+        final HttpServer stub = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        stub.createContext("/", exchange -> {
+            received.add(exchange.getRequestMethod() + ' '
+                    + exchange.getRequestHeaders().getFirst("Content-Type") + ' ' + read(exchange.getRequestBody()));
+            final byte[] response = "OK".getBytes(UTF_8);
+            exchange.sendResponseHeaders(status.get(), response.length);
+            exchange.getResponseBody().write(response);
+            exchange.close();
+        });
+        stub.start();
+        try {
+            final URI location = URI.create("http://" + stub.getAddress().getHostString() + ':'
+                    + stub.getAddress().getPort() + "/payments");
+            final OutboxSink sink = OutboxRelay.sink(location);
+            sink.send("1\n".getBytes(UTF_8));
+            status.set(HTTP_INTERNAL_ERROR);
+            assertThrows(IOException.class, () -> sink.send("2\n".getBytes(UTF_8)));
+            assertEquals(2, received.size());
+            assertEquals("POST " + HttpOutboxSink.JSON_LINES + " 1\n", received.get(0));
+            assertTrue(OutboxRelay.sink(URI.create("https://localhost/")) instanceof HttpOutboxSink);
+        } finally {
+            stub.stop(0);
+        }
+    }
+
+    private static String read(final InputStream body) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        int next = body.read();
+        while (next >= 0) {
+            out.write(next);
+            next = body.read();
+        }
+        return new String(out.toByteArray(), UTF_8);
+    }
+}
@@ -0,0 +1,124 @@
+package com.github.edwgiz.sample.bank.account.storage;
+
+import com.github.edwgiz.sample.bank.account.jooq.tables.pojos.Payment;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PaymentArchiveTest {
+
+    private static final String SEGMENT = "PAYMENT_P202001";
+    private static final long UNKNOWN_ACCOUNT_ID = 999L;
+    private static final long UNKNOWN_PAYMENT_ID = 14L;
+    private static final Payment PAYMENT1 = new Payment(10L, LocalDateTime.parse("2020-01-01T00:00:00.001"),
+            new BigDecimal("1.25"), 0L, 2L, "Comment");
+    private static final Payment PAYMENT2 = new Payment(12L, LocalDateTime.parse("2020-01-02T10:00"),
+            new BigDecimal("100.00"), 2L, 1L, null);
+    private static final Payment PAYMENT3 = new Payment(11L, LocalDateTime.parse("2020-01-03T00:00"),
+            new BigDecimal("0.01"), 1L, 0L, "Comment");
+    private static final Payment PAYMENT4 = new Payment(15L, LocalDateTime.parse("2020-01-31T23:59:59.999"),
+            new BigDecimal("5.50"), 0L, 1L, "Non-ASCII comment ü");
+    private static final List<Payment> ROWS = Arrays.asList(PAYMENT1, PAYMENT2, PAYMENT3, PAYMENT4);
+
+    @Test
+    /* default */void test(@TempDir final Path dir) throws IOException {
+        final PaymentArchive archive = new PaymentArchive(dir);
+        final PaymentSegment segment = archive.write(SEGMENT, ROWS);
+        assertEquals(SEGMENT, segment.getName());
+        assertList(archive, 2L, LocalDateTime.MIN, LocalDateTime.MAX); // not registered yet
+        archive.register(segment);
+
+        assertList(archive, 2L, LocalDateTime.MIN, LocalDateTime.MAX, PAYMENT1, PAYMENT2);
+        assertList(archive, 0L, LocalDateTime.MIN, LocalDateTime.MAX, PAYMENT1, PAYMENT3, PAYMENT4);
+        assertList(archive, 0L, LocalDateTime.parse("2020-01-01T00:00:00.000500"),
+                LocalDateTime.parse("2020-01-31T23:59:59.999"), PAYMENT1, PAYMENT3, PAYMENT4);
+        assertList(archive, 0L, LocalDateTime.parse("2020-01-01T00:00:00.001500"),
+                LocalDateTime.parse("2020-01-31T23:59:59.998999"), PAYMENT3);
+        assertList(archive, 0L, LocalDateTime.MIN, LocalDateTime.parse("2019-12-31T23:59"));
+        assertList(archive, 0L, LocalDateTime.parse("2020-02-01T00:00"), LocalDateTime.MAX);
+        assertList(archive, UNKNOWN_ACCOUNT_ID, LocalDateTime.MIN, LocalDateTime.MAX);
+
+        assertPayment(PAYMENT3, archive.find(PAYMENT3.getPaymentId()));
+        assertNull(archive.find(UNKNOWN_PAYMENT_ID));
+        assertNull(archive.find(Long.MAX_VALUE));
+        assertNull(archive.find(0L));
+
+        final PaymentSegment reopened = new PaymentSegment(dir.resolve(SEGMENT + ".seg"));
+        assertPayment(PAYMENT2, reopened.find(PAYMENT2.getPaymentId()));
+        assertPayment(PAYMENT4, reopened.find(PAYMENT4.getPaymentId()));
+
+        // the payment identifiers of a new in-memory database would collide with the archived ones
+        assertThrows(IOException.class, () -> new PaymentArchive(dir));
+        archive.preDestroy();
+        assertTrue(Files.isDirectory(dir));
+        assertNull(new PaymentArchive(dir).find(PAYMENT2.getPaymentId()));
+    }
+
+    @Test
+    /* default */void testCorrupted(@TempDir final Path dir) throws IOException {
+        final Path file = dir.resolve(SEGMENT + ".seg");
+        Files.write(file, new byte[Long.BYTES]);
+        assertThrows(IOException.class, () -> new PaymentSegment(file));
+    }
+
+    @Test
+    /* default */void testWriteFailure(@TempDir final Path dir) throws IOException {
+        final Path archiveDir = dir.resolve("archive");
+        final PaymentArchive archive = new PaymentArchive(archiveDir);
+        Files.delete(archiveDir);
+        assertThrows(UncheckedIOException.class, () -> archive.write(SEGMENT, ROWS));
+    }
+
+    @Test
+    /* default */void testDirectoryProperty(@TempDir final Path dir) throws IOException {
+        final Path archiveDir = dir.resolve("archive");
+        System.setProperty(PaymentArchive.SYSTEM_PROPERTY_DIR, archiveDir.toString());
+        try {
+            new PaymentArchive();
+            assertTrue(Files.isDirectory(archiveDir));
+        } finally {
+            System.clearProperty(PaymentArchive.SYSTEM_PROPERTY_DIR);
+        }
+        final PaymentArchive temporary = new PaymentArchive();
+        assertNull(temporary.find(0L));
+        temporary.write(SEGMENT, ROWS);
+        temporary.preDestroy();
+        assertFalse(Files.exists(temporary.getDirectory()));
+
+        final PaymentArchive foreign = new PaymentArchive();
+        Files.write(foreign.getDirectory().resolve("foreign.txt"), new byte[0]);
+        foreign.preDestroy(); // logs the failure
+        assertTrue(Files.exists(foreign.getDirectory()));
+        Files.delete(foreign.getDirectory().resolve("foreign.txt"));
+        Files.delete(foreign.getDirectory());
+    }
+
+    private static void assertList(final PaymentArchive archive, final long accountId, final LocalDateTime from,
+            final LocalDateTime to, final Payment... expected) {
+        final List<Payment> actual = new ArrayList<>();
+        archive.forEach(accountId, from, to, actual::add);
+        assertEquals(expected.length, actual.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertPayment(expected[i], actual.get(i));
+        }
+    }
+
+    /* default */static void assertPayment(final Payment expected, final Payment actual) {
+        assertEquals(expected.toString(), actual.toString());
+    }
+}
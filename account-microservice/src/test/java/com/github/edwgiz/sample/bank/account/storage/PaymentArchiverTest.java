@@ -0,0 +1,82 @@
+package com.github.edwgiz.sample.bank.account.storage;
+
+import com.github.edwgiz.sample.bank.account.jooq.tables.pojos.Payment;
+import com.github.edwgiz.sample.bank.core.storage.DSLContextFactory;
+import com.github.edwgiz.sample.bank.core.storage.InMemoryDataSourceFactory;
+import org.jooq.DSLContext;
+import org.jooq.exception.DataAccessException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static com.github.edwgiz.sample.bank.account.jooq.Sequences.PAYMENT_SEQ;
+import static com.github.edwgiz.sample.bank.account.jooq.Tables.PAYMENT;
+import static com.github.edwgiz.sample.bank.account.storage.PaymentArchiveTest.assertPayment;
+import static java.time.LocalDateTime.now;
+import static java.time.ZoneOffset.UTC;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PaymentArchiverTest {
+
+    private static final String PARTITION = "PAYMENT_P202001";
+
+    @Test
+    /* default */void testRun(@TempDir final Path dir) throws IOException {
+        final InMemoryDataSourceFactory dataSourceFactory = new InMemoryDataSourceFactory();
+        final DataSource dataSource = dataSourceFactory.provide();
+        try {
+            final DSLContext dslCtx = new DSLContextFactory(dataSource).provide();
+            final Path archiveDir = dir.resolve("archive");
+            final PaymentStorage storage = new PaymentStorage(dslCtx, new PaymentArchive(archiveDir));
+            final LocalDateTime processed = LocalDateTime.parse("2020-01-15T00:00");
+            storage.prepare(processed);
+            final Payment payment = new Payment(dslCtx.nextval(PAYMENT_SEQ), processed, BigDecimal.TEN, 0L, 2L, null);
+            storage.insert(dslCtx.configuration(), payment);
+            storage.prepare(now(UTC));
+
+            final PaymentArchiver archiver = new PaymentArchiver(storage, 1L);
+            Files.delete(archiveDir);
+            archiver.run(); // failure is logged
+            assertEquals(1, dslCtx.fetchCount(PAYMENT.rename(PARTITION)));
+
+            Files.createDirectory(archiveDir);
+            archiver.run();
+            assertThrows(DataAccessException.class, () -> dslCtx.fetchCount(PAYMENT.rename(PARTITION)));
+            assertPayment(storage.list(dslCtx.configuration(), 0L, processed, processed).get(0),
+                    storage.find(payment.getPaymentId()));
+            archiver.run(); // nothing to archive
+        } finally {
+            dataSourceFactory.dispose(dataSource);
+        }
+    }
+
+    @Test
+    /* default */void testLifecycle() {
+        final PaymentArchiver archiver = new PaymentArchiver(null);
+        archiver.onStartup(null);
+        archiver.onReload(null);
+        archiver.onShutdown(null);
+        assertTrue(archiver.isShutdown());
+    }
+
+    @Test
+    /* default */void testCutoff() {
+        assertEquals(LocalDateTime.parse("2020-01-01T00:00"),
+                PaymentArchiver.cutoff(LocalDateTime.parse("2020-04-30T23:59")));
+        System.setProperty(PaymentArchiver.SYSTEM_PROPERTY_AFTER_MONTHS, "0");
+        try {
+            assertEquals(LocalDateTime.parse("2020-04-01T00:00"),
+                    PaymentArchiver.cutoff(LocalDateTime.parse("2020-04-30T23:59")));
+        } finally {
+            System.clearProperty(PaymentArchiver.SYSTEM_PROPERTY_AFTER_MONTHS);
+        }
+    }
+}
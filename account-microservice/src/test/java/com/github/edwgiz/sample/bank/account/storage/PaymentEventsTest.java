@@ -0,0 +1,146 @@
+package com.github.edwgiz.sample.bank.account.storage;
+
+import com.fasterxml.jackson.core.JsonGenerationException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.jaxrs.json.JacksonJaxbJsonProvider;
+import com.github.edwgiz.sample.bank.account.api.AbstractEndpointTest;
+import com.github.edwgiz.sample.bank.account.jooq.tables.pojos.Payment;
+import com.github.edwgiz.sample.bank.core.webapp.sse.EventHub;
+import com.github.edwgiz.sample.bank.core.webapp.sse.EventHub.Overflow;
+import org.jooq.DSLContext;
+import org.junit.Test;
+
+import javax.inject.Inject;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.sse.Sse;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+import static com.github.edwgiz.sample.bank.account.jooq.Sequences.PAYMENT_SEQ;
+import static com.github.edwgiz.sample.bank.account.jooq.Tables.ACCOUNT;
+import static com.github.edwgiz.sample.bank.account.storage.PaymentEvents.eventId;
+import static java.math.BigDecimal.ONE;
+import static java.math.BigDecimal.TEN;
+import static java.time.LocalDateTime.now;
+import static java.time.ZoneOffset.UTC;
+import static java.time.temporal.ChronoUnit.MILLIS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public final class PaymentEventsTest extends AbstractEndpointTest {
+
+    private static final long WITHDRAWAL_ACCOUNT_ID = 200L;
+    private static final long DEPOSIT_ACCOUNT_ID = 201L;
+    private static final int LIVE_EVENTS = 3;
+    private static final int RESUMED_EVENTS = 3;
+    private static final long PAYMENT_ID = 15L;
+    private static final long SEND_TIMEOUT_MILLIS = 10_000L;
+
+    private DSLContext dslCtx;
+    private PaymentStorage paymentStorage;
+    private Sse sse;
+    private PaymentEvents paymentEvents;
+
+    /**
+     * Tests the live and the resumed streams of the payments.
+     *
+     * @throws InterruptedException if interrupted while waiting for the events.
+     */
+    @Test
+    public void testSubscribe() throws InterruptedException {
+        final LocalDateTime now = now(UTC).truncatedTo(MILLIS);
+        paymentStorage.prepare(now);
+        for (final long accountId : new long[]{WITHDRAWAL_ACCOUNT_ID, DEPOSIT_ACCOUNT_ID}) {
+            dslCtx.insertInto(ACCOUNT, ACCOUNT.ACCOUNT_ID, ACCOUNT.CREATED, ACCOUNT.OWNER_NAME, ACCOUNT.BALANCE,
+                    ACCOUNT.BALANCE_LAST_MODIFIED).values(accountId, now, "Test", TEN, now).execute();
+        }
+        paymentEvents.publish(pay(now.minusSeconds(2L))); // no subscribers
+
+        final RecordingSink live = new RecordingSink();
+        paymentEvents.subscribe(WITHDRAWAL_ACCOUNT_ID, null, Overflow.DISCONNECT, live);
+        final Payment first = pay(now.minusSeconds(1L));
+        paymentEvents.publish(first);
+        final Payment second = pay(now);
+        final Payment third = pay(now);
+        final Payment fourth = pay(now.plusMinutes(1L)); // after the resume
+        final RecordingSink resumed = new RecordingSink(() -> {
+            paymentEvents.publish(third); // buffered while resuming, so skipped as sent already
+            paymentEvents.publish(fourth);
+        });
+        paymentEvents.subscribe(DEPOSIT_ACCOUNT_ID, eventId(first), Overflow.DROP, resumed);
+
+        assertEquals(Arrays.asList(eventId(second), eventId(third), eventId(fourth)), resumed.await(RESUMED_EVENTS));
+        assertEquals(Arrays.asList(eventId(first), eventId(third), eventId(fourth)), live.await(LIVE_EVENTS));
+    }
+
+    private Payment pay(final LocalDateTime processed) {
+        final Payment payment = new Payment(dslCtx.nextval(PAYMENT_SEQ), processed, ONE, WITHDRAWAL_ACCOUNT_ID,
+                DEPOSIT_ACCOUNT_ID, null);
+        dslCtx.transaction(cnf -> paymentStorage.insert(cnf, payment));
+        return payment;
+    }
+
+    /**
+     * Tests an unserializable payment and the closing.
+     */
+    @Test
+    public void testFailure() {
+        final ObjectMapper mapper = new ObjectMapper().registerModule(new SimpleModule().addSerializer(
+                LocalDateTime.class, new JsonSerializer<LocalDateTime>() {
+                    @Override
+                    public void serialize(final LocalDateTime value, final JsonGenerator gen,
+                            final SerializerProvider serializers) throws IOException {
+                        throw new JsonGenerationException("test", gen);
+                    }
+                }));
+        final JacksonJaxbJsonProvider brokenProvider = new JacksonJaxbJsonProvider();
+        brokenProvider.setMapper(mapper);
+        final RecordingSink sink = new RecordingSink();
+        try (PaymentEvents events = new PaymentEvents(dslCtx, paymentStorage, brokenProvider, sse,
+                new EventHub(1, 1, SEND_TIMEOUT_MILLIS))) {
+            events.subscribe(WITHDRAWAL_ACCOUNT_ID, null, Overflow.DISCONNECT, sink);
+            final Payment payment = new Payment(1L, now(UTC), ONE, WITHDRAWAL_ACCOUNT_ID, DEPOSIT_ACCOUNT_ID, null);
+            assertThrows(IllegalStateException.class, () -> events.publish(payment));
+            assertEquals(1, events.getHub().size());
+        }
+        assertTrue(sink.isClosed());
+    }
+
+    /**
+     * Tests the parsing of the incorrect event identifiers.
+     */
+    @Test
+    public void testParseEventId() {
+        for (final String eventId : new String[]{"", "15", "2020-02-02T00:00/", "2020-02-02T00:00/x", "x/15"}) {
+            assertThrows(WebApplicationException.class, () -> PaymentEvents.parseEventId(eventId), eventId);
+        }
+        assertEquals(Long.valueOf(PAYMENT_ID), PaymentEvents.parseEventId("2020-02-02T00:00:00.001/" + PAYMENT_ID)
+                .getPaymentId());
+    }
+
+    @Inject
+    /* default */ void setDslContext(final DSLContext value) {
+        this.dslCtx = value;
+    }
+
+    @Inject
+    /* default */ void setPaymentStorage(final PaymentStorage value) {
+        this.paymentStorage = value;
+    }
+
+    @Inject
+    /* default */ void setSse(final Sse value) {
+        this.sse = value;
+    }
+
+    @Inject
+    /* default */ void setPaymentEvents(final PaymentEvents value) {
+        this.paymentEvents = value;
+    }
+}
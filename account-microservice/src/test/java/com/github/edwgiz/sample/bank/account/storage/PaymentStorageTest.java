@@ -0,0 +1,115 @@
+package com.github.edwgiz.sample.bank.account.storage;
+
+import com.github.edwgiz.sample.bank.account.jooq.tables.pojos.Payment;
+import com.github.edwgiz.sample.bank.core.storage.DSLContextFactory;
+import com.github.edwgiz.sample.bank.core.storage.InMemoryDataSourceFactory;
+import org.jooq.DSLContext;
+import org.jooq.exception.DataAccessException;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.github.edwgiz.sample.bank.account.jooq.Sequences.PAYMENT_SEQ;
+import static com.github.edwgiz.sample.bank.account.jooq.Tables.PAYMENT;
+import static com.github.edwgiz.sample.bank.account.storage.PaymentArchiveTest.assertPayment;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PaymentStorageTest {
+
+    private static final long BANK_ACCOUNT_ID = 0L;
+    private static final long DEMO_ACCOUNT_ID = 2L;
+    private static final LocalDateTime JANUARY = LocalDateTime.parse("2020-01-31T23:30");
+    private static final LocalDateTime FEBRUARY = LocalDateTime.parse("2020-02-01T00:30");
+    private static final LocalDateTime APRIL = LocalDateTime.parse("2020-04-01T00:00");
+    private static final int ARCHIVED_MONTHS = 3;
+
+    private static InMemoryDataSourceFactory dataSourceFactory;
+    private static DataSource dataSource;
+    private static DSLContext dslCtx;
+
+    @BeforeAll
+    /* default */static void setUp() {
+        dataSourceFactory = new InMemoryDataSourceFactory();
+        dataSource = dataSourceFactory.provide();
+        dslCtx = new DSLContextFactory(dataSource).provide();
+    }
+
+    @AfterAll
+    /* default */static void tearDown() {
+        dataSourceFactory.dispose(dataSource);
+    }
+
+    @Test
+    /* default */void testLoadResource() {
+        assertTrue(PaymentStorage.loadResource(PaymentStorage.PARTITION_TEMPLATE)
+                .startsWith("CREATE TABLE IF NOT EXISTS ${partition}"));
+    }
+
+    @Test
+    /* default */void test(@TempDir final Path dir) throws IOException {
+        final PaymentStorage storage = new PaymentStorage(dslCtx, new PaymentArchive(dir));
+        assertTrue(storage.list(dslCtx.configuration(), DEMO_ACCOUNT_ID, JANUARY, FEBRUARY).isEmpty());
+        assertNull(storage.find(1L));
+
+        storage.prepare(JANUARY);
+        final Payment payment1 = insert(storage, JANUARY, BANK_ACCOUNT_ID, DEMO_ACCOUNT_ID);
+        final Payment payment2 = insert(storage, FEBRUARY, DEMO_ACCOUNT_ID, BANK_ACCOUNT_ID);
+        final Payment payment3 = insert(storage, JANUARY.plusMinutes(1L), BANK_ACCOUNT_ID, 1L);
+        assertEquals(0, dslCtx.fetchCount(PAYMENT)); // the base table is a template only
+        assertEquals(2, dslCtx.fetchCount(PAYMENT.rename("PAYMENT_P202001")));
+        assertEquals(1, dslCtx.fetchCount(PAYMENT.rename("PAYMENT_P202002")));
+
+        assertList(storage.list(dslCtx.configuration(), DEMO_ACCOUNT_ID, JANUARY, FEBRUARY), payment1, payment2);
+        assertList(storage.list(dslCtx.configuration(), DEMO_ACCOUNT_ID, FEBRUARY, FEBRUARY), payment2);
+        assertList(storage.list(dslCtx.configuration(), BANK_ACCOUNT_ID, JANUARY, JANUARY.plusMinutes(1L)),
+                payment1, payment3);
+        final Payment found2 = storage.find(payment2.getPaymentId());
+        assertEquals(payment2.getComment(), found2.getComment());
+
+        // a closed month partition becomes read-only
+        storage.prepare(FEBRUARY.plusDays(1L));
+        assertThrows(DataAccessException.class,
+                () -> insert(storage, JANUARY.plusMinutes(2L), BANK_ACCOUNT_ID, DEMO_ACCOUNT_ID));
+
+        // the sealed partitions are moved to the archive, the empty one is just dropped
+        assertEquals(0, storage.archive(JANUARY));
+        storage.prepare(APRIL.plusHours(1L));
+        assertEquals(ARCHIVED_MONTHS, storage.archive(APRIL));
+        assertEquals(0, storage.archive(APRIL));
+        assertThrows(DataAccessException.class, () -> dslCtx.fetchCount(PAYMENT.rename("PAYMENT_P202001")));
+        assertThrows(DataAccessException.class, () -> dslCtx.fetchCount(PAYMENT.rename("PAYMENT_P202003")));
+
+        final Payment payment4 = insert(storage, APRIL, DEMO_ACCOUNT_ID, BANK_ACCOUNT_ID);
+        assertList(storage.list(dslCtx.configuration(), DEMO_ACCOUNT_ID, JANUARY, APRIL),
+                payment1, payment2, payment4);
+        assertPayment(found2, storage.find(payment2.getPaymentId()));
+        assertNull(storage.find(Long.MAX_VALUE));
+    }
+
+    private Payment insert(final PaymentStorage storage, final LocalDateTime processed, final long withdrawalAccountId,
+            final long depositAccountId) {
+        final Payment payment = new Payment(dslCtx.nextval(PAYMENT_SEQ), processed, BigDecimal.ONE,
+                withdrawalAccountId, depositAccountId, "Comment at " + processed);
+        assertEquals(1, storage.insert(dslCtx.configuration(), payment));
+        return payment;
+    }
+
+    private void assertList(final List<Payment> actual, final Payment... expected) {
+        assertEquals(expected.length, actual.size());
+        for (int i = 0; i < expected.length; i++) {
+            assertEquals(expected[i].getPaymentId(), actual.get(i).getPaymentId());
+            assertEquals(expected[i].getProcessed(), actual.get(i).getProcessed());
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.github.edwgiz.sample.bank.account.storage;
+
+import javax.ws.rs.sse.OutboundSseEvent;
+import javax.ws.rs.sse.SseEventSink;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.concurrent.CompletableFuture.completedFuture;
+
+/**
+ * Remembers the sent events, instead of the in-memory test container which can't suspend a request.
+ */
+public final class RecordingSink implements SseEventSink {
+
+    private static final long TIMEOUT_MILLIS = 10_000L;
+
+    private final List<OutboundSseEvent> events = new ArrayList<>();
+    private Runnable beforeFirstSend;
+    private boolean closed;
+
+    /**
+     * Creates a sink which only remembers the events.
+     */
+    public RecordingSink() {
+        this(() -> { });
+    }
+
+    /**
+     * @param action action to run before the first event is sent.
+     */
+    public RecordingSink(final Runnable action) {
+        this.beforeFirstSend = action;
+    }
+
+    @Override
+    public synchronized boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public synchronized CompletionStage<?> send(final OutboundSseEvent event) {
+        final Runnable action = beforeFirstSend;
+        beforeFirstSend = () -> { };
+        action.run();
+        events.add(event);
+        notifyAll();
+        return completedFuture(null);
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        notifyAll();
+    }
+
+    /**
+     * @param count expected number of the events.
+     * @return identifiers of the events sent until the expected number or the sink closing.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    public synchronized List<String> await(final int count) throws InterruptedException {
+        final long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(TIMEOUT_MILLIS);
+        long left = TIMEOUT_MILLIS;
+        while (events.size() < count && !closed && left > 0L) {
+            wait(left);
+            left = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+        }
+        final List<String> result = new ArrayList<>(events.size());
+        for (final OutboundSseEvent event : events) {
+            result.add(event.getId());
+        }
+        return result;
+    }
+}
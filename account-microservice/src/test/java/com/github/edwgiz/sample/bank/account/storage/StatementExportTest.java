@@ -0,0 +1,143 @@
+package com.github.edwgiz.sample.bank.account.storage;
+
+import com.github.edwgiz.sample.bank.account.jooq.tables.pojos.Payment;
+import com.github.edwgiz.sample.bank.core.storage.DSLContextFactory;
+import com.github.edwgiz.sample.bank.core.storage.InMemoryDataSourceFactory;
+import com.github.edwgiz.sample.bank.core.webapp.WebAppBase;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static com.github.edwgiz.sample.bank.account.jooq.Sequences.PAYMENT_SEQ;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StatementExportTest {
+
+    private static final long BANK_ACCOUNT_ID = 0L;
+    private static final long DEMO_ACCOUNT_ID = 2L;
+    private static final LocalDateTime JANUARY = LocalDateTime.parse("2020-01-01T00:00");
+    private static final LocalDateTime JANUARY_END = LocalDateTime.parse("2020-01-31T23:59:59.999");
+    private static final LocalDateTime PAYMENT1_PROCESSED = LocalDateTime.parse("2020-01-10T10:00");
+    private static final LocalDateTime PAYMENT2_PROCESSED = LocalDateTime.parse("2020-01-20T20:00:00.5");
+    private static final long ALL_ROWS = 4L;
+
+    private static InMemoryDataSourceFactory dataSourceFactory;
+    private static DataSource dataSource;
+    private static DSLContext dslCtx;
+
+    @BeforeAll
+    /* default */static void setUp() {
+        dataSourceFactory = new InMemoryDataSourceFactory();
+        dataSource = dataSourceFactory.provide();
+        dslCtx = new DSLContextFactory(dataSource).provide();
+    }
+
+    @AfterAll
+    /* default */static void tearDown() {
+        dataSourceFactory.dispose(dataSource);
+    }
+
+    @Test
+    /* default */void testExport(@TempDir final Path dir) throws IOException, InterruptedException {
+        final PaymentStorage storage = new PaymentStorage(dslCtx, new PaymentArchive(dir.resolve("archive")));
+        storage.prepare(JANUARY);
+        final Payment payment1 = insert(storage, PAYMENT1_PROCESSED, BANK_ACCOUNT_ID, DEMO_ACCOUNT_ID,
+                "Say \"hello\", world");
+        final Payment payment2 = insert(storage, PAYMENT2_PROCESSED, DEMO_ACCOUNT_ID, BANK_ACCOUNT_ID, null);
+
+        final StatementExport export = new StatementExport(dslCtx, storage, dir.resolve("export"));
+        assertEquals(2L, export.export(DEMO_ACCOUNT_ID, JANUARY, JANUARY.plusMonths(1L)));
+        final Path file = export.getDirectory().resolve(export.fileName(DEMO_ACCOUNT_ID, JANUARY,
+                JANUARY.plusMonths(1L)));
+        assertEquals("statement-2-20200101T000000000-20200201T000000000.csv", file.getFileName().toString());
+        assertEquals(PaymentCsvWriter.HEADER
+                        + payment1.getPaymentId() + ",2020-01-10T10:00:00.000,1.00,0,2,\"Say \"\"hello\"\", world\"\n"
+                        + payment2.getPaymentId() + ",2020-01-20T20:00:00.500,1.00,2,0,\n",
+                new String(Files.readAllBytes(file), UTF_8));
+        assertEquals(-1L, export.export(DEMO_ACCOUNT_ID, JANUARY, JANUARY.plusMonths(1L))); // up-to-date
+
+        assertEquals(ALL_ROWS, export.exportAll(JANUARY, JANUARY_END, 2));
+        assertEquals(0L, export.exportAll(JANUARY, JANUARY_END, 2));
+        try (Stream<Path> files = Files.list(export.getDirectory())) {
+            assertTrue(files.allMatch(path -> path.toString().endsWith(".csv"))); // no temporary files left
+        }
+
+        try (Stream<Path> files = Files.walk(export.getDirectory())) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+        assertThrows(IllegalStateException.class, () -> export.exportAll(JANUARY, JANUARY_END, 1));
+
+        Thread.currentThread().interrupt();
+        assertThrows(InterruptedException.class, () -> export.exportAll(JANUARY, JANUARY_END, 1));
+    }
+
+    @Test
+    /* default */void testDirectory(@TempDir final Path dir) throws IOException {
+        final Path directory = dir.resolve("files");
+        assertEquals(directory, new StatementExport(null, null, new ResourceConfig()
+                .property(WebAppBase.PROPERTY_FILES_DIRECTORY, directory.toString())).getDirectory());
+        assertTrue(Files.isDirectory(new StatementExport(null, null, new ResourceConfig()).getDirectory()));
+
+        final Path file = Files.createFile(dir.resolve("file"));
+        System.setProperty(StatementExport.SYSTEM_PROPERTY_DIR, file.resolve("export").toString());
+        try {
+            assertThrows(UncheckedIOException.class, StatementExport::createDirectory);
+        } finally {
+            System.clearProperty(StatementExport.SYSTEM_PROPERTY_DIR);
+        }
+    }
+
+    @Test
+    /* default */void testCsvWriterFailure() throws IOException {
+        final Writer failing = new Writer() {
+            @Override
+            public void write(final String str) {
+                // accepts the header only
+            }
+
+            @Override
+            public void write(final char[] buffer, final int off, final int len) throws IOException {
+                throw new IOException("failure");
+            }
+
+            @Override
+            public void flush() {
+                // nothing to flush
+            }
+
+            @Override
+            public void close() {
+                // nothing to close
+            }
+        };
+        try (PaymentCsvWriter out = new PaymentCsvWriter(failing)) {
+            assertThrows(UncheckedIOException.class, () -> out.accept(new Payment(1L, JANUARY, BigDecimal.ONE,
+                    BANK_ACCOUNT_ID, DEMO_ACCOUNT_ID, null)));
+        }
+    }
+
+    private Payment insert(final PaymentStorage storage, final LocalDateTime processed, final long withdrawalAccountId,
+            final long depositAccountId, final String comment) {
+        final Payment payment = new Payment(dslCtx.nextval(PAYMENT_SEQ), processed, BigDecimal.ONE,
+                withdrawalAccountId, depositAccountId, comment);
+        assertEquals(1, storage.insert(dslCtx.configuration(), payment));
+        return payment;
+    }
+}
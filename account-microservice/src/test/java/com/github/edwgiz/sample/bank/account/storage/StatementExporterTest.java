@@ -0,0 +1,70 @@
+package com.github.edwgiz.sample.bank.account.storage;
+
+import com.github.edwgiz.sample.bank.account.jooq.tables.pojos.Payment;
+import com.github.edwgiz.sample.bank.core.storage.DSLContextFactory;
+import com.github.edwgiz.sample.bank.core.storage.InMemoryDataSourceFactory;
+import org.jooq.DSLContext;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+import static com.github.edwgiz.sample.bank.account.jooq.Sequences.PAYMENT_SEQ;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StatementExporterTest {
+
+    private static final LocalDateTime PROCESSED = LocalDateTime.parse("2020-01-15T00:00");
+    private static final LocalDateTime NOW = LocalDateTime.parse("2020-02-10T00:00");
+
+    @Test
+    /* default */void testRun(@TempDir final Path dir) throws IOException {
+        final InMemoryDataSourceFactory dataSourceFactory = new InMemoryDataSourceFactory();
+        final DataSource dataSource = dataSourceFactory.provide();
+        try {
+            final DSLContext dslCtx = new DSLContextFactory(dataSource).provide();
+            final PaymentStorage storage = new PaymentStorage(dslCtx, new PaymentArchive(dir.resolve("archive")));
+            storage.prepare(PROCESSED);
+            storage.insert(dslCtx.configuration(), new Payment(dslCtx.nextval(PAYMENT_SEQ), PROCESSED, BigDecimal.TEN,
+                    0L, 2L, null));
+            final Path exportDir = dir.resolve("export");
+            final StatementExport export = new StatementExport(dslCtx, storage, exportDir);
+            final StatementExporter exporter = new StatementExporter(export, 1L);
+
+            exporter.run(NOW);
+            assertTrue(Files.exists(exportDir.resolve(export.fileName(2L, LocalDateTime.parse("2020-01-01T00:00"),
+                    LocalDateTime.parse("2020-01-31T23:59:59.999")))));
+            exporter.run(NOW); // nothing to export
+            exporter.run(); // the previous month of the current time
+
+            try (Stream<Path> files = Files.walk(exportDir)) {
+                files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+            }
+            exporter.run(NOW.plusMonths(1L)); // failure is logged
+            assertFalse(Files.exists(exportDir));
+
+            Thread.currentThread().interrupt();
+            exporter.run(NOW);
+            assertTrue(Thread.interrupted());
+        } finally {
+            dataSourceFactory.dispose(dataSource);
+        }
+    }
+
+    @Test
+    /* default */void testLifecycle() {
+        final StatementExporter exporter = new StatementExporter(null);
+        exporter.onStartup(null);
+        exporter.onReload(null);
+        exporter.onShutdown(null);
+        assertTrue(exporter.isShutdown());
+    }
+}
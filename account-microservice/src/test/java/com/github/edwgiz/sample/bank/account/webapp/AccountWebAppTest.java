@@ -1,7 +1,15 @@
 package com.github.edwgiz.sample.bank.account.webapp;
 
+import com.github.edwgiz.sample.bank.account.api.AccountBinaryRoute;
 import com.github.edwgiz.sample.bank.account.api.AccountEndpoint;
+import com.github.edwgiz.sample.bank.account.api.AccountFastRoute;
+import com.github.edwgiz.sample.bank.account.api.LockContentionEndpoint;
 import com.github.edwgiz.sample.bank.account.api.PaymentEndpoint;
+import com.github.edwgiz.sample.bank.account.storage.DatasetLoader;
+import com.github.edwgiz.sample.bank.account.storage.OutboxRelay;
+import com.github.edwgiz.sample.bank.account.storage.PaymentArchiver;
+import com.github.edwgiz.sample.bank.account.storage.StatementExporter;
+import com.github.edwgiz.sample.bank.core.webapp.WebAppBase;
 import org.glassfish.jersey.server.ResourceConfig;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
@@ -14,7 +22,26 @@ class AccountWebAppTest {
         /* default */void testCreateResourceConfig() {
         final ResourceConfig conf = new AccountWebApp().createResourceConfig();
         assertEquals("BankAccounts", conf.getApplicationName());
+        Assertions.assertTrue(conf.isRegistered(AccountBinder.class));
         Assertions.assertTrue(conf.isRegistered(AccountEndpoint.class));
         Assertions.assertTrue(conf.isRegistered(PaymentEndpoint.class));
+        Assertions.assertTrue(conf.isRegistered(LockContentionEndpoint.class));
+        Assertions.assertTrue(conf.isRegistered(DatasetLoader.class));
+        Assertions.assertTrue(conf.isRegistered(PaymentArchiver.class));
+        Assertions.assertTrue(conf.isRegistered(StatementExporter.class));
+        Assertions.assertFalse(conf.isRegistered(OutboxRelay.class));
+        Assertions.assertNotNull(conf.getProperty(WebAppBase.PROPERTY_FILES_DIRECTORY));
+        assertEquals(AccountFastRoute.class, conf.getProperty(WebAppBase.PROPERTY_FAST_ROUTE));
+        assertEquals(AccountBinaryRoute.class, conf.getProperty(WebAppBase.PROPERTY_BINARY_ROUTE));
+    }
+
+    @Test
+    /* default */void testOutboxRelay() {
+        System.setProperty("payment.outbox.url", "http://localhost/payments");
+        try {
+            Assertions.assertTrue(new AccountWebApp().createResourceConfig().isRegistered(OutboxRelay.class));
+        } finally {
+            System.clearProperty("payment.outbox.url");
+        }
     }
 }
@@ -0,0 +1,191 @@
+package com.github.edwgiz.sample.bank.benchmarks;
+
+import com.github.edwgiz.sample.bank.account.jooq.tables.pojos.Account;
+import com.github.edwgiz.sample.bank.account.storage.DatasetLoader;
+import com.github.edwgiz.sample.bank.account.webapp.AccountWebApp;
+import com.github.edwgiz.sample.bank.core.storage.InMemoryDataSourceFactory;
+import com.github.edwgiz.sample.bank.core.webapp.JaxRsApplicationFactory;
+import org.glassfish.jersey.internal.MapPropertiesDelegate;
+import org.glassfish.jersey.server.ApplicationHandler;
+import org.glassfish.jersey.server.ContainerRequest;
+import org.glassfish.jersey.server.ContainerResponse;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.glassfish.jersey.server.spi.ContainerResponseWriter;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import javax.sql.DataSource;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
+
+/**
+ * The account microservice configured like {@link AccountWebApp}, called in-process without the network: a request
+ * passes the filters, the json reading, the validation, the H2 transaction and the response body writing. Its
+ * background jobs aren't started, the database is shut down after a trial.
+ * <p>
+ * The database has only the migrated accounts unless a synthetic dataset is defined by {@code storage.dataset.*}
+ * system properties of {@link DatasetLoader}, the forked JVMs inherit them.
+ */
+@State(Scope.Benchmark)
+public class AccountApplication {
+
+    /**
+     * Account with the biggest balance, created by the database migration.
+     */
+    public static final long BANK_ACCOUNT_ID = 0L;
+    private static final URI BASE_URI = URI.create("http://localhost/");
+
+    private ApplicationHandler handler;
+
+    /**
+     * Starts the application on the in-memory database, loaded with the synthetic dataset if it's defined.
+     */
+    @Setup(Level.Trial)
+    public void start() {
+        handler = new ApplicationHandler(new Config().createResourceConfig());
+        handler.getInjectionManager().createAndInitialize(DatasetLoader.class).load();
+    }
+
+    /**
+     * Shuts the in-memory database down.
+     */
+    @TearDown(Level.Trial)
+    public void stop() {
+        new InMemoryDataSourceFactory().dispose(component(DataSource.class));
+    }
+
+    /**
+     * @param type type of the component.
+     * @param <T>  type of the component.
+     * @return the component of the started application, like the DSL context.
+     */
+    public <T> T component(final Class<T> type) {
+        return handler.getInjectionManager().getInstance(type);
+    }
+
+    /**
+     * @param method HTTP method.
+     * @param path   path and query relative to the application root.
+     * @param json   request body, or {@code null}.
+     * @return the response with its body written.
+     */
+    public ContainerResponse request(final String method, final String path, final String json) {
+        final ContainerRequest request = new ContainerRequest(BASE_URI, BASE_URI.resolve(path), method, null,
+                new MapPropertiesDelegate(), handler.getConfiguration());
+        if (json != null) {
+            request.header(HttpHeaders.CONTENT_TYPE, APPLICATION_JSON);
+            request.setEntityStream(new ByteArrayInputStream(json.getBytes(UTF_8)));
+        }
+        request.setWriter(new BodyWriter());
+        try {
+            return handler.apply(request).get();
+        } catch (InterruptedException | ExecutionException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * @param ownerName name of the account owner.
+     * @return identifier of the created account.
+     */
+    public long createAccount(final String ownerName) {
+        final ContainerResponse response = succeeded(
+                request("PUT", "account", "{\"ownerName\":\"" + ownerName + "\"}"));
+        return ((Account) response.getEntity()).getAccountId();
+    }
+
+    /**
+     * @param withdrawalAccountId account to withdraw from.
+     * @param depositAccountId    account to deposit to.
+     * @param amount              decimal amount.
+     * @return the response, {@code 409 Conflict} if an account is locked by another payment for too long.
+     */
+    public ContainerResponse pay(final long withdrawalAccountId, final long depositAccountId, final String amount) {
+        return request("PUT", "payment", "{\"amount\":" + amount + ",\"withdrawalAccountId\":"
+                + withdrawalAccountId + ",\"depositAccountId\":" + depositAccountId + ",\"comment\":\"benchmark\"}");
+    }
+
+    /**
+     * @param response response to check.
+     * @return the response.
+     * @throws IllegalStateException if the status isn't {@code 200 OK}, the benchmark is broken.
+     */
+    public static ContainerResponse succeeded(final ContainerResponse response) {
+        if (response.getStatus() != Response.Status.OK.getStatusCode()) {
+            throw new IllegalStateException("Unexpected response " + response.getStatus() + ": "
+                    + response.getEntity());
+        }
+        return response;
+    }
+
+    /**
+     * @param type type of the component.
+     * @param <T>  type of the component.
+     * @return the component registered by {@link JaxRsApplicationFactory}, like the json provider.
+     */
+    public static <T> T registered(final Class<T> type) {
+        return new JaxRsApplicationFactory().get().getInstances().stream()
+                .filter(type::isInstance).map(type::cast)
+                .findAny().orElseThrow(() -> new IllegalStateException(type + " isn't registered"));
+    }
+
+    /**
+     * Exposes the jax-rs application of the microservice.
+     */
+    /* default */static final class Config extends AccountWebApp {
+
+        @Override
+        protected ResourceConfig createResourceConfig() {
+            return super.createResourceConfig();
+        }
+    }
+
+    /**
+     * Writes the response bodies to memory, as the network isn't measured.
+     */
+    private static final class BodyWriter implements ContainerResponseWriter {
+
+        @Override
+        public OutputStream writeResponseStatusAndHeaders(final long contentLength,
+                final ContainerResponse response) {
+            return new ByteArrayOutputStream();
+        }
+
+        @Override
+        public boolean suspend(final long timeOut, final TimeUnit timeUnit, final TimeoutHandler timeoutHandler) {
+            return false;
+        }
+
+        @Override
+        public void setSuspendTimeout(final long timeOut, final TimeUnit timeUnit) {
+            // never suspended
+        }
+
+        @Override
+        public void commit() {
+            // nothing to commit
+        }
+
+        @Override
+        public void failure(final Throwable error) {
+            // reported by the response
+        }
+
+        @Override
+        public boolean enableResponseBuffering() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.github.edwgiz.sample.bank.benchmarks;
+
+import org.glassfish.jersey.server.ContainerResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code GET /account/{id}} of an existing account.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = BenchmarksMain.WARMUP_ITERATIONS, time = 2)
+@Measurement(iterations = BenchmarksMain.MEASUREMENT_ITERATIONS, time = 2)
+@Fork(1)
+public class AccountReadBenchmark {
+
+    /**
+     * @param app application to call.
+     * @return the response.
+     */
+    @Benchmark
+    public ContainerResponse read(final AccountApplication app) {
+        return AccountApplication.succeeded(app.request("GET", "account/" + AccountApplication.BANK_ACCOUNT_ID, null));
+    }
+}
@@ -0,0 +1,50 @@
+package com.github.edwgiz.sample.bank.benchmarks;
+
+import org.openjdk.jmh.Main;
+import org.openjdk.jmh.runner.RunnerException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Runs the benchmarks by the JMH command line, writing the results as json to {@value #DEFAULT_RESULT_FILE} unless
+ * {@code -rf} or {@code -rff} options are given, so the results of two commits can be compared.
+ */
+public final class BenchmarksMain {
+
+    /**
+     * Default file of the results.
+     */
+    public static final String DEFAULT_RESULT_FILE = "jmh-result.json";
+    /**
+     * Warmup iterations of every benchmark, unless {@code -wi} option is given.
+     */
+    public static final int WARMUP_ITERATIONS = 3;
+    /**
+     * Measurement iterations of every benchmark, unless {@code -i} option is given.
+     */
+    public static final int MEASUREMENT_ITERATIONS = 5;
+
+    private BenchmarksMain() {
+    }
+
+    /**
+     * @param args JMH command line options, {@code -h} lists them.
+     * @throws RunnerException if a benchmark fails.
+     * @throws IOException     if the results can't be written.
+     */
+    public static void main(final String[] args) throws RunnerException, IOException {
+        final List<String> options = new ArrayList<>(Arrays.asList(args));
+        if (!options.contains("-rf")) {
+            options.add("-rf");
+            options.add("json");
+        }
+        if (!options.contains("-rff")) {
+            options.add("-rff");
+            options.add(DEFAULT_RESULT_FILE);
+        }
+        Main.main(options.toArray(new String[0]));
+    }
+}
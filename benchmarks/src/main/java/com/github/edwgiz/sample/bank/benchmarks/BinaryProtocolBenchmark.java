@@ -0,0 +1,164 @@
+package com.github.edwgiz.sample.bank.benchmarks;
+
+import com.github.edwgiz.sample.bank.account.api.AccountBinaryClient;
+import com.github.edwgiz.sample.bank.account.api.AccountBinaryRoute;
+import com.github.edwgiz.sample.bank.core.metrics.Metrics;
+import com.github.edwgiz.sample.bank.core.webapp.BinaryListener;
+import com.github.edwgiz.sample.bank.core.webapp.binary.BinaryFrame;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.edwgiz.sample.bank.benchmarks.AccountApplication.BANK_ACCOUNT_ID;
+
+/**
+ * The account read and the payment of {@link FastPathBenchmark} by the binary protocol of {@link AccountBinaryRoute}
+ * over one connection, one request at a time and pipelined, to compare the per-message cost of the framing with the
+ * one of HTTP and json.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = BenchmarksMain.WARMUP_ITERATIONS, time = 2)
+@Measurement(iterations = BenchmarksMain.MEASUREMENT_ITERATIONS, time = 2)
+@Fork(1)
+public class BinaryProtocolBenchmark {
+
+    private static final int STATUS_OK = 200;
+    private static final int PIPELINED = 16;
+    private static final BigDecimal AMOUNT = new BigDecimal("0.01");
+    private static final String COMMENT = "benchmark";
+
+    /**
+     * @param server server to call.
+     * @return the response.
+     * @throws IOException          if the request fails.
+     * @throws ExecutionException   if the connection fails.
+     * @throws InterruptedException if interrupted.
+     */
+    @Benchmark
+    public Object read(final Server server) throws IOException, ExecutionException, InterruptedException {
+        return AccountBinaryClient.accountOf(server.client.read(BANK_ACCOUNT_ID).get());
+    }
+
+    /**
+     * @param server server to call.
+     * @return identifier of the payment.
+     * @throws IOException          if the request fails.
+     * @throws ExecutionException   if the connection fails.
+     * @throws InterruptedException if interrupted.
+     */
+    @Benchmark
+    public long pay(final Server server) throws IOException, ExecutionException, InterruptedException {
+        return AccountBinaryClient.paymentIdOf(server.client.pay(BANK_ACCOUNT_ID, 1L, AMOUNT, COMMENT).get());
+    }
+
+    /**
+     * @param server server to call.
+     * @return the last response.
+     * @throws IOException          if a request fails.
+     * @throws ExecutionException   if the connection fails.
+     * @throws InterruptedException if interrupted.
+     */
+    @Benchmark
+    @OperationsPerInvocation(PIPELINED)
+    public Object readPipelined(final Server server) throws IOException, ExecutionException, InterruptedException {
+        return pipeline(() -> server.client.read(BANK_ACCOUNT_ID));
+    }
+
+    /**
+     * @param server server to call.
+     * @return the last response.
+     * @throws IOException          if a request fails.
+     * @throws ExecutionException   if the connection fails.
+     * @throws InterruptedException if interrupted.
+     */
+    @Benchmark
+    @OperationsPerInvocation(PIPELINED)
+    public Object payPipelined(final Server server) throws IOException, ExecutionException, InterruptedException {
+        return pipeline(() -> server.client.pay(BANK_ACCOUNT_ID, 1L, AMOUNT, COMMENT));
+    }
+
+    // sends all the requests before awaiting the responses, fails if any isn't 200 OK, the benchmark is broken then
+    private static Object pipeline(final Request request)
+            throws IOException, ExecutionException, InterruptedException {
+        final List<CompletableFuture<BinaryFrame>> responses = new ArrayList<>(PIPELINED);
+        for (int i = 0; i < PIPELINED; i++) {
+            responses.add(request.send());
+        }
+        BinaryFrame last = null;
+        for (final CompletableFuture<BinaryFrame> response : responses) {
+            last = response.get();
+            if (last.getCode() != STATUS_OK) {
+                throw new IOException("Unexpected response " + last);
+            }
+        }
+        return last;
+    }
+
+    /**
+     * Request of a pipeline.
+     */
+    @FunctionalInterface
+    private interface Request {
+
+        /**
+         * @return future of the response.
+         * @throws IOException if the request can't be encoded.
+         */
+        CompletableFuture<BinaryFrame> send() throws IOException;
+    }
+
+    /**
+     * The {@link LoopbackServer} with the binary listener and a client connected to it.
+     */
+    @State(Scope.Benchmark)
+    public static class Server {
+
+        private LoopbackServer server;
+        private AccountBinaryClient client;
+
+        /**
+         * Starts the server on the in-memory database and connects the client.
+         *
+         * @throws IOException if the server can't be started.
+         */
+        @Setup(Level.Trial)
+        public void start() throws IOException {
+            server = new LoopbackServer();
+            final int port = LoopbackServer.freePort();
+            BinaryListener.attach(server.getHttpServer(), LoopbackServer.HOST, port, AccountBinaryRoute.class,
+                    new Metrics());
+            server.getHttpServer().start();
+            client = AccountBinaryClient.connect(LoopbackServer.HOST, port);
+        }
+
+        /**
+         * Disconnects the client, stops the server and shuts the in-memory database down.
+         *
+         * @throws IOException if the client can't be closed.
+         */
+        @TearDown(Level.Trial)
+        public void stop() throws IOException {
+            client.close();
+            server.stop();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package com.github.edwgiz.sample.bank.benchmarks;
+
+import com.github.edwgiz.sample.bank.account.api.AccountFastRoute;
+import com.github.edwgiz.sample.bank.core.metrics.Metrics;
+import com.github.edwgiz.sample.bank.core.webapp.FastPathHandler;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.edwgiz.sample.bank.benchmarks.AccountApplication.BANK_ACCOUNT_ID;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * {@code GET /account/{id}} and {@code PUT /payment} by a keep-alive HTTP connection over the loopback, served by
+ * jax-rs or by {@link AccountFastRoute}, to compare the cost of the jax-rs routing, filters and entity providers
+ * with the network and the H2 transaction included.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = BenchmarksMain.WARMUP_ITERATIONS, time = 2)
+@Measurement(iterations = BenchmarksMain.MEASUREMENT_ITERATIONS, time = 2)
+@Fork(1)
+public class FastPathBenchmark {
+
+    private static final int STATUS_OK = 200;
+    private static final int BUFFER = 1024;
+    private static final byte[] PAYMENT = ("{\"amount\":0.01,\"withdrawalAccountId\":" + BANK_ACCOUNT_ID
+            + ",\"depositAccountId\":1,\"comment\":\"benchmark\"}").getBytes(UTF_8);
+
+    /**
+     * @param server server to call.
+     * @return the response body.
+     * @throws IOException if the request fails.
+     */
+    @Benchmark
+    public byte[] read(final Server server) throws IOException {
+        return server.request("GET", "/account/" + BANK_ACCOUNT_ID, null);
+    }
+
+    /**
+     * @param server server to call.
+     * @return the response body.
+     * @throws IOException if the request fails.
+     */
+    @Benchmark
+    public byte[] pay(final Server server) throws IOException {
+        return server.request("PUT", "/payment", PAYMENT);
+    }
+
+    /**
+     * The {@link LoopbackServer} with or without the fast path.
+     */
+    @State(Scope.Benchmark)
+    public static class Server {
+
+        /**
+         * Whether {@link FastPathHandler} serves the requests instead of jax-rs.
+         */
+        @Param({"false", "true"})
+        private boolean fastPath;
+
+        private LoopbackServer server;
+
+        /**
+         * Starts the server on the in-memory database, loaded with the synthetic dataset if it's defined.
+         *
+         * @throws IOException if the server can't be started.
+         */
+        @Setup(Level.Trial)
+        public void start() throws IOException {
+            server = new LoopbackServer();
+            if (fastPath) {
+                FastPathHandler.attach(server.getHttpServer(), AccountFastRoute.class, new Metrics());
+            }
+            server.getHttpServer().start();
+        }
+
+        /**
+         * Stops the server and shuts the in-memory database down.
+         */
+        @TearDown(Level.Trial)
+        public void stop() {
+            server.stop();
+        }
+
+        /**
+         * @param method HTTP method.
+         * @param path   path relative to the server root.
+         * @param json   request body, or {@code null}.
+         * @return the response body.
+         * @throws IOException if the request fails or isn't {@code 200 OK}, the benchmark is broken.
+         */
+        public byte[] request(final String method, final String path, final byte[] json) throws IOException {
+            final HttpURLConnection connection = (HttpURLConnection) new URL(server.getBase() + path).openConnection();
+            connection.setRequestMethod(method);
+            if (json != null) {
+                connection.setDoOutput(true);
+                connection.setFixedLengthStreamingMode(json.length);
+                connection.setRequestProperty("Content-Type", "application/json");
+                try (OutputStream out = connection.getOutputStream()) {
+                    out.write(json);
+                }
+            }
+            if (connection.getResponseCode() != STATUS_OK) {
+                throw new IOException("Unexpected response " + connection.getResponseCode());
+            }
+            // read to the end, so the connection is reused
+            final ByteArrayOutputStream body = new ByteArrayOutputStream();
+            try (InputStream stream = connection.getInputStream()) {
+                final byte[] buffer = new byte[BUFFER];
+                for (int read = stream.read(buffer); read >= 0; read = stream.read(buffer)) {
+                    body.write(buffer, 0, read);
+                }
+            }
+            return body.toByteArray();
+        }
+    }
+}
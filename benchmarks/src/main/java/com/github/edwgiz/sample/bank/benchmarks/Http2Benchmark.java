@@ -0,0 +1,138 @@
+package com.github.edwgiz.sample.bank.benchmarks;
+
+import com.github.edwgiz.sample.bank.core.webapp.http2.Http2Client;
+import org.glassfish.grizzly.http.server.NetworkListener;
+import org.glassfish.grizzly.http2.Http2AddOn;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.edwgiz.sample.bank.benchmarks.AccountApplication.BANK_ACCOUNT_ID;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * The jax-rs {@code PUT /payment} of {@link FastPathBenchmark} by cleartext HTTP/2, one stream at a time and as many
+ * concurrent streams multiplexed over few connections, to compare the cost of a payment with the one of a keep-alive
+ * HTTP/1.1 connection, which serves one request at a time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = BenchmarksMain.WARMUP_ITERATIONS, time = 2)
+@Measurement(iterations = BenchmarksMain.MEASUREMENT_ITERATIONS, time = 2)
+@Fork(1)
+public class Http2Benchmark {
+
+    private static final int STATUS_OK = 200;
+    private static final int CONNECTIONS = 2;
+    private static final int STREAMS = 32;
+    private static final byte[] PAYMENT = ("{\"amount\":0.01,\"withdrawalAccountId\":" + BANK_ACCOUNT_ID
+            + ",\"depositAccountId\":1,\"comment\":\"benchmark\"}").getBytes(UTF_8);
+
+    /**
+     * @param server server to call.
+     * @return the response.
+     * @throws IOException          if the payment fails.
+     * @throws ExecutionException   if the connection fails.
+     * @throws InterruptedException if interrupted.
+     */
+    @Benchmark
+    public Object pay(final Server server) throws IOException, ExecutionException, InterruptedException {
+        return checkOk(server.pay(0).get());
+    }
+
+    /**
+     * @param server server to call.
+     * @return the last response.
+     * @throws IOException          if a payment fails.
+     * @throws ExecutionException   if a connection fails.
+     * @throws InterruptedException if interrupted.
+     */
+    @Benchmark
+    @OperationsPerInvocation(STREAMS)
+    public Object payMultiplexed(final Server server) throws IOException, ExecutionException, InterruptedException {
+        final List<CompletableFuture<Http2Client.Response>> responses = new ArrayList<>(STREAMS);
+        for (int i = 0; i < STREAMS; i++) {
+            responses.add(server.pay(i % CONNECTIONS));
+        }
+        Object last = null;
+        for (final CompletableFuture<Http2Client.Response> response : responses) {
+            last = checkOk(response.get());
+        }
+        return last;
+    }
+
+    // fails if the response isn't 200 OK, the benchmark is broken then
+    private static Object checkOk(final Http2Client.Response response) throws IOException {
+        if (response.getStatus() != STATUS_OK) {
+            throw new IOException("Unexpected response " + response.getStatus() + ' ' + response.getBodyString());
+        }
+        return response;
+    }
+
+    /**
+     * The {@link LoopbackServer} serving HTTP/2 and the clients connected to it.
+     */
+    @State(Scope.Benchmark)
+    public static class Server {
+
+        private LoopbackServer server;
+        private Http2Client[] clients;
+
+        /**
+         * Starts the server on the in-memory database and connects the clients.
+         *
+         * @throws IOException if the server can't be started.
+         */
+        @Setup(Level.Trial)
+        public void start() throws IOException {
+            server = new LoopbackServer();
+            for (final NetworkListener listener : server.getHttpServer().getListeners()) {
+                listener.registerAddOn(new Http2AddOn());
+            }
+            server.getHttpServer().start();
+            clients = new Http2Client[CONNECTIONS];
+            for (int i = 0; i < CONNECTIONS; i++) {
+                clients[i] = Http2Client.connect(LoopbackServer.HOST, URI.create(server.getBase()).getPort());
+            }
+        }
+
+        /**
+         * Disconnects the clients, stops the server and shuts the in-memory database down.
+         *
+         * @throws IOException if a client can't be closed.
+         */
+        @TearDown(Level.Trial)
+        public void stop() throws IOException {
+            for (final Http2Client client : clients) {
+                client.close();
+            }
+            server.stop();
+        }
+
+        /**
+         * @param connection index of the client.
+         * @return future of the response.
+         */
+        public CompletableFuture<Http2Client.Response> pay(final int connection) {
+            return clients[connection].send("PUT", "/payment", "application/json", PAYMENT);
+        }
+    }
+}
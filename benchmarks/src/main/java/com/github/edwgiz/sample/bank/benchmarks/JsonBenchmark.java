@@ -0,0 +1,99 @@
+package com.github.edwgiz.sample.bank.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.jaxrs.json.JacksonJaxbJsonProvider;
+import com.github.edwgiz.sample.bank.account.jooq.tables.pojos.Payment;
+import com.github.edwgiz.sample.bank.account.model.NewPayment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static javax.ws.rs.core.MediaType.APPLICATION_JSON_TYPE;
+
+/**
+ * Json (de)serialization of the payment request and response bodies by the {@link ObjectMapper} of the json provider
+ * registered by {@link com.github.edwgiz.sample.bank.core.webapp.JaxRsApplicationFactory}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = BenchmarksMain.WARMUP_ITERATIONS, time = 1)
+@Measurement(iterations = BenchmarksMain.MEASUREMENT_ITERATIONS, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JsonBenchmark {
+
+    private static final String NEW_PAYMENT = /*language=JSON*/ "{\"amount\":10000,\"withdrawalAccountId\":0,"
+            + "\"depositAccountId\":2,\"comment\":\"Donation\"}";
+    private static final String PAYMENT = /*language=JSON*/ "{\"paymentId\":1234567,"
+            + "\"processed\":\"2020-02-28T23:50:10.123\",\"amount\":10000,\"withdrawalAccountId\":0,"
+            + "\"depositAccountId\":2,\"comment\":\"Donation\"}";
+
+    private ObjectMapper mapper;
+    private byte[] newPaymentJson;
+    private byte[] paymentJson;
+    private NewPayment newPayment;
+    private Payment payment;
+
+    /**
+     * Locates the mapper and parses the sample bodies.
+     *
+     * @throws IOException never, the samples are valid.
+     */
+    @Setup(Level.Trial)
+    public void prepare() throws IOException {
+        mapper = AccountApplication.registered(JacksonJaxbJsonProvider.class)
+                .locateMapper(Payment.class, APPLICATION_JSON_TYPE);
+        newPaymentJson = NEW_PAYMENT.getBytes(UTF_8);
+        paymentJson = PAYMENT.getBytes(UTF_8);
+        newPayment = mapper.readValue(newPaymentJson, NewPayment.class);
+        payment = mapper.readValue(paymentJson, Payment.class);
+    }
+
+    /**
+     * @return the parsed request body.
+     * @throws IOException never.
+     */
+    @Benchmark
+    public NewPayment readNewPayment() throws IOException {
+        return mapper.readValue(newPaymentJson, NewPayment.class);
+    }
+
+    /**
+     * @return the written request body.
+     * @throws IOException never.
+     */
+    @Benchmark
+    public byte[] writeNewPayment() throws IOException {
+        return mapper.writeValueAsBytes(newPayment);
+    }
+
+    /**
+     * @return the parsed response body.
+     * @throws IOException never.
+     */
+    @Benchmark
+    public Payment readPayment() throws IOException {
+        return mapper.readValue(paymentJson, Payment.class);
+    }
+
+    /**
+     * @return the written response body.
+     * @throws IOException never.
+     */
+    @Benchmark
+    public byte[] writePayment() throws IOException {
+        return mapper.writeValueAsBytes(payment);
+    }
+}
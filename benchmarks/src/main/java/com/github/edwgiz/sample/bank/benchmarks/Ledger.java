@@ -0,0 +1,152 @@
+package com.github.edwgiz.sample.bank.benchmarks;
+
+import org.jooq.DSLContext;
+import org.jooq.Record2;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Collectors;
+
+import static com.github.edwgiz.sample.bank.account.jooq.Tables.ACCOUNT;
+import static org.jooq.impl.DSL.count;
+import static org.jooq.impl.DSL.sum;
+
+/**
+ * Expected state of the accounts of {@link LedgerSoak}: the total balance of all the accounts is constant, no balance
+ * is negative, and the balance of a soak account equals its seed plus its net succeeded payments.
+ * <p>
+ * The totals are consistent whenever read by one statement, as a payment updates both of its accounts in one
+ * transaction. A balance is checked against the net payments only while no payment is in progress, as the net
+ * payments are counted after their responses.
+ */
+final class Ledger {
+
+    /**
+     * Maximum number of the violations described, the others are only counted.
+     */
+    /* default */static final int MAX_DESCRIBED = 100;
+    private static final int CENTS_SCALE = 2;
+
+    private final long[] accountIds;
+    private final BigDecimal[] seeds;
+    private final BigDecimal total;
+    /**
+     * Net succeeded payments of the accounts, in cents.
+     */
+    private final AtomicLongArray netCents;
+    private final List<String> violations;
+    private long violationCount;
+    private long totalChecks;
+    private long balanceChecks;
+
+    /**
+     * @param dslCtx  DSL context of the application.
+     * @param soakIds identifiers of the soak accounts, their current balances are the seeds.
+     */
+    /* default */Ledger(final DSLContext dslCtx, final long[] soakIds) {
+        this.accountIds = soakIds.clone();
+        this.seeds = balances(dslCtx);
+        this.total = readTotals(dslCtx).value1();
+        this.netCents = new AtomicLongArray(soakIds.length);
+        this.violations = new ArrayList<>();
+    }
+
+    /**
+     * Called on a succeeded payment.
+     *
+     * @param withdrawal index of the withdrawal account.
+     * @param deposit    index of the deposit account.
+     * @param cents      amount in cents.
+     */
+    /* default */void paid(final int withdrawal, final int deposit, final long cents) {
+        netCents.addAndGet(withdrawal, -cents);
+        netCents.addAndGet(deposit, cents);
+    }
+
+    /**
+     * Checks the total balance and the negative balances, while the payments go on.
+     *
+     * @param dslCtx DSL context of the application.
+     */
+    /* default */void checkTotals(final DSLContext dslCtx) {
+        final Record2<BigDecimal, Integer> totals = readTotals(dslCtx);
+        totalChecks++;
+        if (totals.value1().compareTo(total) != 0) {
+            violation("Total balance " + totals.value1() + " differs from " + total);
+        }
+        if (totals.value2() > 0) {
+            violation(totals.value2() + " accounts have a negative balance");
+        }
+    }
+
+    /**
+     * Checks the totals and every soak account, must be called while no payment is in progress.
+     *
+     * @param dslCtx DSL context of the application.
+     */
+    /* default */void checkBalances(final DSLContext dslCtx) {
+        checkTotals(dslCtx);
+        balanceChecks++;
+        final BigDecimal[] balances = balances(dslCtx);
+        for (int i = 0; i < accountIds.length; i++) {
+            final BigDecimal expected = seeds[i].add(BigDecimal.valueOf(netCents.get(i), CENTS_SCALE));
+            if (balances[i] == null || balances[i].compareTo(expected) != 0) {
+                violation("Balance " + balances[i] + " of account " + accountIds[i] + " differs from " + expected
+                        + ", the seed " + seeds[i] + " plus the net payments");
+            }
+        }
+    }
+
+    private Record2<BigDecimal, Integer> readTotals(final DSLContext dslCtx) {
+        return dslCtx.select(sum(ACCOUNT.BALANCE), count().filterWhere(ACCOUNT.BALANCE.lt(BigDecimal.ZERO)))
+                .from(ACCOUNT).fetchOne();
+    }
+
+    private BigDecimal[] balances(final DSLContext dslCtx) {
+        final Map<Long, BigDecimal> balances = dslCtx.select(ACCOUNT.ACCOUNT_ID, ACCOUNT.BALANCE).from(ACCOUNT)
+                .where(ACCOUNT.ACCOUNT_ID.in(Arrays.stream(accountIds).boxed().collect(Collectors.toList())))
+                .fetchMap(ACCOUNT.ACCOUNT_ID, ACCOUNT.BALANCE);
+        final BigDecimal[] result = new BigDecimal[accountIds.length];
+        for (int i = 0; i < accountIds.length; i++) {
+            result[i] = balances.get(accountIds[i]);
+        }
+        return result;
+    }
+
+    private void violation(final String description) {
+        violationCount++;
+        if (violations.size() < MAX_DESCRIBED) {
+            violations.add(description);
+        }
+    }
+
+    /**
+     * @return number of the violations found.
+     */
+    /* default */long getViolationCount() {
+        return violationCount;
+    }
+
+    /**
+     * @return descriptions of the first violations.
+     */
+    /* default */List<String> getViolations() {
+        return violations;
+    }
+
+    /* default */long getTotalChecks() {
+        return totalChecks;
+    }
+
+    /* default */long getBalanceChecks() {
+        return balanceChecks;
+    }
+
+    /* default */BigDecimal getTotal() {
+        return total;
+    }
+}
@@ -0,0 +1,281 @@
+package com.github.edwgiz.sample.bank.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.edwgiz.sample.bank.account.storage.LockContention;
+import com.github.edwgiz.sample.bank.core.metrics.ServerTiming;
+import org.HdrHistogram.Histogram;
+import org.glassfish.jersey.server.ContainerResponse;
+import org.jooq.DSLContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.ws.rs.core.Response;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Long-running soak of {@code PUT /payment} by many threads against the in-process {@link AccountApplication}, with
+ * the payment sides skewed to a few hot accounts, checking the invariants of {@link Ledger} as it goes: the total is
+ * checked every second while paying, every balance at the {@code soak.check.seconds} pauses and at the end.
+ * <p>
+ * The json report has the throughput, the rates of the {@code 409 Conflict} and of the insufficient balance
+ * payments, the percentiles of the latency and of the lock wait of the {@value ServerTiming#HEADER} header, the
+ * hottest accounts of {@link LockContention} and the violations. The soak fails if an invariant is violated or a
+ * payment gets an unexpected status, after the report is written.
+ * <p>
+ * The settings are the {@code soak.*} system properties of {@link SoakSettings}, the {@code storage.dataset.*}
+ * ones load a synthetic dataset before, as for the benchmarks.
+ */
+public final class LedgerSoak {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LedgerSoak.class);
+    private static final String FUNDING = "100000.00";
+    private static final long MAX_AMOUNT_CENTS = 1000L;
+    private static final int CENTS_SCALE = 2;
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final double[] PERCENTILES = {50.0, 90.0, 99.0, 99.9};
+    private static final double MICROS_PER_MILLI = 1e3;
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final String LOCK_TIMING = "lock;dur=";
+    private static final int HOT_ACCOUNTS_REPORTED = 10;
+    private static final long TERMINATION_SECONDS = 60L;
+
+    private final SoakSettings settings;
+    private final AccountApplication app;
+    private final DSLContext dslCtx;
+    /**
+     * Held for read by a payment in progress and for write by a balance check.
+     */
+    private final ReadWriteLock pause;
+    private long[] accountIds;
+    private Ledger ledger;
+    private volatile boolean stopped;
+
+    /* default */LedgerSoak(final SoakSettings value, final AccountApplication application) {
+        this.settings = value;
+        this.app = application;
+        this.dslCtx = application.component(DSLContext.class);
+        this.pause = new ReentrantReadWriteLock(true); // a check isn't starved by the payments
+    }
+
+    /**
+     * @param args ignored, the settings are the system properties.
+     * @throws IOException          if the report can't be written.
+     * @throws InterruptedException if interrupted.
+     */
+    public static void main(final String[] args) throws IOException, InterruptedException {
+        final SoakSettings settings = SoakSettings.from(System.getProperties());
+        final AccountApplication application = new AccountApplication();
+        application.start();
+        final ObjectNode report;
+        try {
+            LOG.info("Soak {} accounts, {} hot, by {} threads for {} seconds", settings.getAccounts(),
+                    settings.getHotAccounts(), settings.getThreads(), settings.getDurationSeconds());
+            report = new LedgerSoak(settings, application).run();
+        } finally {
+            application.stop();
+        }
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(new File(settings.getReportFile()), report);
+        LOG.info("Soak done, {} payments per second, {} conflicts, {} violations, the report is written to {}",
+                report.get("throughput"), report.get("conflicts"), report.get("violations"),
+                settings.getReportFile());
+        if (report.get("violations").asLong() > 0L || report.get("unexpected").asLong() > 0L) {
+            throw new IllegalStateException("The soak failed, see " + settings.getReportFile());
+        }
+    }
+
+    /**
+     * @return the report.
+     * @throws InterruptedException if interrupted.
+     */
+    /* default */ObjectNode run() throws InterruptedException {
+        accountIds = new long[settings.getAccounts()];
+        for (int i = 0; i < accountIds.length; i++) {
+            accountIds[i] = app.createAccount("Soak " + i);
+            AccountApplication.succeeded(app.pay(AccountApplication.BANK_ACCOUNT_ID, accountIds[i], FUNDING));
+        }
+        ledger = new Ledger(dslCtx, accountIds);
+        final List<Payer> payers = new ArrayList<>(settings.getThreads());
+        final ExecutorService executor = Executors.newFixedThreadPool(settings.getThreads());
+        for (int i = 0; i < settings.getThreads(); i++) {
+            final Payer payer = new Payer(new SplittableRandom(settings.getSeed() + i));
+            payers.add(payer);
+            executor.execute(payer);
+        }
+        final long start = System.nanoTime();
+        long pauseNanos = 0L;
+        for (long second = 1L; second <= settings.getDurationSeconds(); second++) {
+            final long sleep = start + SECONDS.toNanos(second) - System.nanoTime();
+            NANOSECONDS.sleep(sleep);
+            if (second % settings.getCheckSeconds() == 0L) {
+                final long pauseStart = System.nanoTime();
+                pause.writeLock().lock();
+                try {
+                    ledger.checkBalances(dslCtx);
+                } finally {
+                    pause.writeLock().unlock();
+                }
+                pauseNanos += System.nanoTime() - pauseStart;
+            } else {
+                ledger.checkTotals(dslCtx);
+            }
+        }
+        stopped = true;
+        executor.shutdown();
+        if (!executor.awaitTermination(TERMINATION_SECONDS, SECONDS)) {
+            throw new IllegalStateException("The payments haven't completed in " + TERMINATION_SECONDS + " seconds");
+        }
+        final double seconds = (System.nanoTime() - start) / NANOS_PER_SECOND;
+        ledger.checkBalances(dslCtx);
+        return report(payers, seconds, pauseNanos / NANOS_PER_SECOND);
+    }
+
+    private ObjectNode report(final List<Payer> payers, final double seconds, final double pauseSeconds) {
+        final Histogram latency = new Histogram(SIGNIFICANT_DIGITS);
+        final Histogram lockWait = new Histogram(SIGNIFICANT_DIGITS);
+        long succeeded = 0L;
+        long conflicts = 0L;
+        long rejected = 0L;
+        long unexpected = 0L;
+        for (final Payer payer : payers) {
+            latency.add(payer.latency);
+            lockWait.add(payer.lockWait);
+            succeeded += payer.succeeded;
+            conflicts += payer.conflicts;
+            rejected += payer.rejected;
+            unexpected += payer.unexpected;
+        }
+        final long payments = latency.getTotalCount();
+        final ObjectNode report = JsonNodeFactory.instance.objectNode();
+        report.put("threads", settings.getThreads())
+                .put("accounts", settings.getAccounts())
+                .put("hotAccounts", settings.getHotAccounts())
+                .put("hotRatio", settings.getHotRatio())
+                .put("seconds", seconds)
+                .put("checkPauseSeconds", pauseSeconds)
+                .put("payments", payments)
+                .put("throughput", payments / seconds)
+                .put("ok", succeeded)
+                .put("conflicts", conflicts)
+                .put("conflictRate", payments == 0L ? 0.0 : conflicts / (double) payments)
+                .put("insufficientBalance", rejected)
+                .put("unexpected", unexpected);
+        putPercentiles(report.putObject("latencyMillis"), latency);
+        putPercentiles(report.putObject("lockWaitMillis"), lockWait);
+        report.set("hottestAccounts", new ObjectMapper().valueToTree(
+                app.component(LockContention.class).report(HOT_ACCOUNTS_REPORTED).getHotAccounts()));
+        report.put("total", ledger.getTotal().toPlainString())
+                .put("totalChecks", ledger.getTotalChecks())
+                .put("balanceChecks", ledger.getBalanceChecks())
+                .put("violations", ledger.getViolationCount());
+        ledger.getViolations().forEach(report.putArray("violationSamples")::add);
+        return report;
+    }
+
+    private static void putPercentiles(final ObjectNode node, final Histogram histogram) {
+        node.put("mean", histogram.getMean() / MICROS_PER_MILLI);
+        for (final double percentile : PERCENTILES) {
+            node.put(Double.toString(percentile), histogram.getValueAtPercentile(percentile) / MICROS_PER_MILLI);
+        }
+        node.put("max", histogram.getMaxValue() / MICROS_PER_MILLI);
+    }
+
+    /**
+     * @param header value of the {@value ServerTiming#HEADER} header, or {@code null}.
+     * @return the lock wait in microseconds, or {@code -1} if there's none.
+     */
+    /* default */static long lockWaitMicros(final String header) {
+        final int start = header == null ? -1 : header.indexOf(LOCK_TIMING);
+        long result = -1L;
+        if (start >= 0) {
+            final int end = header.indexOf(',', start);
+            result = Math.round(Double.parseDouble(header.substring(start + LOCK_TIMING.length(),
+                    end < 0 ? header.length() : end)) * MICROS_PER_MILLI);
+        }
+        return result;
+    }
+
+    /**
+     * Pays between the random accounts until stopped, the outcomes are read after its termination.
+     */
+    private final class Payer implements Runnable {
+
+        private final SplittableRandom random;
+        /**
+         * Latency of the payments in microseconds.
+         */
+        private final Histogram latency;
+        /**
+         * Wait for the account locks in microseconds.
+         */
+        private final Histogram lockWait;
+        private long succeeded;
+        private long conflicts;
+        private long rejected;
+        private long unexpected;
+
+        /* default */Payer(final SplittableRandom value) {
+            this.random = value;
+            this.latency = new Histogram(SIGNIFICANT_DIGITS);
+            this.lockWait = new Histogram(SIGNIFICANT_DIGITS);
+        }
+
+        @Override
+        public void run() {
+            while (!stopped) {
+                final int withdrawal = pickAccount();
+                int deposit = pickAccount();
+                while (deposit == withdrawal) {
+                    deposit = pickAccount();
+                }
+                final long cents = 1L + random.nextLong(MAX_AMOUNT_CENTS);
+                pause.readLock().lock();
+                try {
+                    pay(withdrawal, deposit, cents);
+                } finally {
+                    pause.readLock().unlock();
+                }
+            }
+        }
+
+        private int pickAccount() {
+            return random.nextDouble() < settings.getHotRatio() ? random.nextInt(settings.getHotAccounts())
+                    : random.nextInt(accountIds.length);
+        }
+
+        private void pay(final int withdrawal, final int deposit, final long cents) {
+            final long start = System.nanoTime();
+            final ContainerResponse response = app.pay(accountIds[withdrawal], accountIds[deposit],
+                    BigDecimal.valueOf(cents, CENTS_SCALE).toPlainString());
+            latency.recordValue(NANOSECONDS.toMicros(System.nanoTime() - start));
+            final long wait = lockWaitMicros(response.getHeaderString(ServerTiming.HEADER));
+            if (wait >= 0L) {
+                lockWait.recordValue(wait);
+            }
+            if (response.getStatus() == Response.Status.OK.getStatusCode()) {
+                ledger.paid(withdrawal, deposit, cents);
+                succeeded++;
+            } else if (response.getStatus() == Response.Status.CONFLICT.getStatusCode()) {
+                conflicts++;
+            } else if (response.getStatus() == Response.Status.BAD_REQUEST.getStatusCode()) {
+                rejected++;
+            } else {
+                unexpected++;
+                LOG.error("Unexpected response {}: {}", response.getStatus(), response.getEntity());
+            }
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.github.edwgiz.sample.bank.benchmarks;
+
+import com.github.edwgiz.sample.bank.account.storage.DatasetLoader;
+import com.github.edwgiz.sample.bank.core.storage.InMemoryDataSourceFactory;
+import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.jersey.grizzly2.httpserver.GrizzlyHttpContainer;
+import org.glassfish.jersey.grizzly2.httpserver.GrizzlyHttpServerFactory;
+import org.glassfish.jersey.server.ApplicationHandler;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+
+/**
+ * The account microservice configured like {@link AccountApplication}, served by Grizzly on a free local port, on
+ * the in-memory database loaded with the synthetic dataset if it's defined.
+ */
+/* default */final class LoopbackServer {
+
+    /**
+     * Host the server listens on.
+     */
+    /* default */static final String HOST = "localhost";
+
+    private final HttpServer httpServer;
+    private final DataSource dataSource;
+    private final String base;
+
+    /**
+     * Creates the server, not started yet, and loads the database.
+     *
+     * @throws IOException if there is no free port.
+     */
+    /* default */LoopbackServer() throws IOException {
+        base = "http://" + HOST + ':' + freePort();
+        httpServer = GrizzlyHttpServerFactory.createHttpServer(URI.create(base + '/'),
+                new AccountApplication.Config().createResourceConfig(), false);
+        final ApplicationHandler handler = httpServer.getServerConfiguration().getHttpHandlersWithMapping()
+                .keySet().stream().filter(GrizzlyHttpContainer.class::isInstance).findAny()
+                .map(container -> ((GrizzlyHttpContainer) container).getApplicationHandler())
+                .orElseThrow(IllegalStateException::new);
+        handler.getInjectionManager().createAndInitialize(DatasetLoader.class).load();
+        dataSource = handler.getInjectionManager().getInstance(DataSource.class);
+    }
+
+    /**
+     * @return a free local port.
+     * @throws IOException if there is no free port.
+     */
+    /* default */static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    /**
+     * @return the server.
+     */
+    /* default */HttpServer getHttpServer() {
+        return httpServer;
+    }
+
+    /**
+     * @return HTTP url of the server root, without the trailing slash.
+     */
+    /* default */String getBase() {
+        return base;
+    }
+
+    /**
+     * Stops the server and shuts the in-memory database down.
+     */
+    /* default */void stop() {
+        httpServer.shutdownNow();
+        new InMemoryDataSourceFactory().dispose(dataSource);
+    }
+}
@@ -0,0 +1,97 @@
+package com.github.edwgiz.sample.bank.benchmarks;
+
+import org.glassfish.jersey.server.ContainerResponse;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.ws.rs.core.Response;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.edwgiz.sample.bank.benchmarks.AccountApplication.BANK_ACCOUNT_ID;
+
+/**
+ * {@code PUT /payment} between the same two accounts, by a single thread and by {@value #CONTENDING_THREADS}
+ * threads contending for the account locks. The payments failed by a lock timeout are counted as
+ * {@code conflicts}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = BenchmarksMain.WARMUP_ITERATIONS, time = 2)
+@Measurement(iterations = BenchmarksMain.MEASUREMENT_ITERATIONS, time = 2)
+@Fork(1)
+public class PaymentCreateBenchmark {
+
+    /**
+     * Number of the threads paying between the same accounts.
+     */
+    public static final int CONTENDING_THREADS = 4;
+    private static final long DEPOSIT_ACCOUNT_ID = 1L;
+    private static final String AMOUNT = "0.01";
+
+    /**
+     * @param app      application to call.
+     * @param outcomes outcomes of the payments of the thread.
+     * @return the response.
+     */
+    @Benchmark
+    @Threads(1)
+    public ContainerResponse singleThreaded(final AccountApplication app, final Outcomes outcomes) {
+        return outcomes.count(app.pay(BANK_ACCOUNT_ID, DEPOSIT_ACCOUNT_ID, AMOUNT));
+    }
+
+    /**
+     * @param app      application to call.
+     * @param outcomes outcomes of the payments of the thread.
+     * @return the response.
+     */
+    @Benchmark
+    @Threads(CONTENDING_THREADS)
+    public ContainerResponse contended(final AccountApplication app, final Outcomes outcomes) {
+        return outcomes.count(app.pay(BANK_ACCOUNT_ID, DEPOSIT_ACCOUNT_ID, AMOUNT));
+    }
+
+    /**
+     * Payments of a thread failed by the account lock timeouts, reported per iteration.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Outcomes {
+
+        private long conflicts;
+
+        /**
+         * Starts counting for the next iteration.
+         */
+        @Setup(Level.Iteration)
+        public void reset() {
+            conflicts = 0L;
+        }
+
+        /**
+         * @return number of the payments failed by the account lock timeouts.
+         */
+        public long conflicts() {
+            return conflicts;
+        }
+
+        /* default */ final ContainerResponse count(final ContainerResponse response) {
+            if (response.getStatus() == Response.Status.CONFLICT.getStatusCode()) {
+                conflicts++;
+            } else {
+                AccountApplication.succeeded(response);
+            }
+            return response;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.github.edwgiz.sample.bank.benchmarks;
+
+import org.glassfish.jersey.server.ContainerResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import static java.time.ZoneOffset.UTC;
+import static java.time.temporal.ChronoUnit.SECONDS;
+
+/**
+ * {@code GET /payment} of an account with the history of {@code history} payments, all within the requested day.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = BenchmarksMain.WARMUP_ITERATIONS, time = 2)
+@Measurement(iterations = BenchmarksMain.MEASUREMENT_ITERATIONS, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PaymentListBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int history;
+    private String query;
+
+    /**
+     * Creates an account and pays to it {@code history} times.
+     *
+     * @param app application to call.
+     */
+    @Setup(Level.Trial)
+    public void prepare(final AccountApplication app) {
+        final long accountId = app.createAccount("History of " + history);
+        for (int i = 0; i < history; i++) {
+            AccountApplication.succeeded(app.pay(AccountApplication.BANK_ACCOUNT_ID, accountId, "0.01"));
+        }
+        final LocalDateTime now = LocalDateTime.now(UTC).truncatedTo(SECONDS);
+        query = "payment?accountId=" + accountId + "&from=" + now.minusDays(1) + "&to=" + now.plusDays(1);
+    }
+
+    /**
+     * @param app application to call.
+     * @return the response.
+     */
+    @Benchmark
+    public ContainerResponse list(final AccountApplication app) {
+        return AccountApplication.succeeded(app.request("GET", query, null));
+    }
+}
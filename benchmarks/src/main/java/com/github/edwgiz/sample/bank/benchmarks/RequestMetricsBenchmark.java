@@ -0,0 +1,63 @@
+package com.github.edwgiz.sample.bank.benchmarks;
+
+import com.github.edwgiz.sample.bank.core.metrics.Metrics;
+import com.github.edwgiz.sample.bank.core.webapp.metrics.RequestMetrics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The recording part of a request by {@link com.github.edwgiz.sample.bank.core.webapp.metrics.MetricsFilter}: the
+ * clock reads and the recording of the latency, the allocated bytes and the response status, by 1 and 4 threads
+ * sharing the metrics of a resource method.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = BenchmarksMain.WARMUP_ITERATIONS, time = 1)
+@Measurement(iterations = BenchmarksMain.MEASUREMENT_ITERATIONS, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RequestMetricsBenchmark {
+
+    private static final int STATUS_OK = 200;
+    private static final long ALLOCATED_BYTES = 4096L;
+
+    private RequestMetrics requestMetrics;
+
+    /**
+     * Registers the metrics of a resource method.
+     */
+    @Setup(Level.Trial)
+    public void prepare() {
+        requestMetrics = new RequestMetrics(new Metrics(), "PaymentEndpoint.create");
+    }
+
+    /**
+     * Records a request of one thread.
+     */
+    @Benchmark
+    public void record() {
+        final long start = System.nanoTime();
+        requestMetrics.record(STATUS_OK, System.nanoTime() - start, ALLOCATED_BYTES);
+    }
+
+    /**
+     * Records a request of 4 threads at once.
+     */
+    @Benchmark
+    @Threads(PaymentCreateBenchmark.CONTENDING_THREADS)
+    public void recordContended() {
+        record();
+    }
+}
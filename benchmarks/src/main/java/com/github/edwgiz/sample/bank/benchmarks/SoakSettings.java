@@ -0,0 +1,114 @@
+package com.github.edwgiz.sample.bank.benchmarks;
+
+import java.util.Properties;
+
+/**
+ * Settings of {@link LedgerSoak}, read from the {@code soak.*} properties.
+ */
+final class SoakSettings {
+
+    /**
+     * Number of the threads paying.
+     */
+    /* default */static final String PROPERTY_THREADS = "soak.threads";
+    /**
+     * Duration of the soak.
+     */
+    /* default */static final String PROPERTY_DURATION_SECONDS = "soak.duration.seconds";
+    /**
+     * Number of the accounts created and funded for the soak.
+     */
+    /* default */static final String PROPERTY_ACCOUNTS = "soak.accounts";
+    /**
+     * Number of the hot accounts among them.
+     */
+    /* default */static final String PROPERTY_HOT_ACCOUNTS = "soak.hot.accounts";
+    /**
+     * Probability of a payment side to be a hot account.
+     */
+    /* default */static final String PROPERTY_HOT_RATIO = "soak.hot.ratio";
+    /**
+     * Interval of the ledger checks, the payments are paused during a check.
+     */
+    /* default */static final String PROPERTY_CHECK_SECONDS = "soak.check.seconds";
+    /**
+     * Seed of the random payments.
+     */
+    /* default */static final String PROPERTY_SEED = "soak.seed";
+    /**
+     * Json file of the report.
+     */
+    /* default */static final String PROPERTY_REPORT_FILE = "soak.report.file";
+
+    private final int threads;
+    private final long durationSeconds;
+    private final int accounts;
+    private final int hotAccounts;
+    private final double hotRatio;
+    private final long checkSeconds;
+    private final long seed;
+    private final String reportFile;
+
+    private SoakSettings(final Properties properties) {
+        this.threads = Integer.parseInt(properties.getProperty(PROPERTY_THREADS, "32"));
+        this.durationSeconds = Long.parseLong(properties.getProperty(PROPERTY_DURATION_SECONDS, "600"));
+        this.accounts = Integer.parseInt(properties.getProperty(PROPERTY_ACCOUNTS, "1000"));
+        this.hotAccounts = Integer.parseInt(properties.getProperty(PROPERTY_HOT_ACCOUNTS, "4"));
+        this.hotRatio = Double.parseDouble(properties.getProperty(PROPERTY_HOT_RATIO, "0.5"));
+        this.checkSeconds = Long.parseLong(properties.getProperty(PROPERTY_CHECK_SECONDS, "10"));
+        this.seed = Long.parseLong(properties.getProperty(PROPERTY_SEED, "1"));
+        this.reportFile = properties.getProperty(PROPERTY_REPORT_FILE, "soak-report.json");
+        if (threads <= 0 || durationSeconds <= 0L || checkSeconds <= 0L) {
+            throw new IllegalArgumentException(PROPERTY_THREADS + ", " + PROPERTY_DURATION_SECONDS + " and "
+                    + PROPERTY_CHECK_SECONDS + " must be positive");
+        }
+        if (accounts < 2 || hotAccounts < 1 || hotAccounts > accounts) {
+            throw new IllegalArgumentException(PROPERTY_ACCOUNTS + " must be at least 2, " + PROPERTY_HOT_ACCOUNTS
+                    + " within 1.." + PROPERTY_ACCOUNTS);
+        }
+        if (hotRatio < 0.0 || hotRatio > 1.0) {
+            throw new IllegalArgumentException(PROPERTY_HOT_RATIO + " must be within 0..1");
+        }
+    }
+
+    /**
+     * @param properties properties to read, like the system ones.
+     * @return the settings.
+     * @throws IllegalArgumentException if a property is invalid.
+     */
+    /* default */static SoakSettings from(final Properties properties) {
+        return new SoakSettings(properties);
+    }
+
+    /* default */int getThreads() {
+        return threads;
+    }
+
+    /* default */long getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    /* default */int getAccounts() {
+        return accounts;
+    }
+
+    /* default */int getHotAccounts() {
+        return hotAccounts;
+    }
+
+    /* default */double getHotRatio() {
+        return hotRatio;
+    }
+
+    /* default */long getCheckSeconds() {
+        return checkSeconds;
+    }
+
+    /* default */long getSeed() {
+        return seed;
+    }
+
+    /* default */String getReportFile() {
+        return reportFile;
+    }
+}
@@ -0,0 +1,154 @@
+package com.github.edwgiz.sample.bank.benchmarks;
+
+import com.github.edwgiz.sample.bank.core.webapp.commons.TlsUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+import javax.net.ssl.TrustManagerFactory;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.GeneralSecurityException;
+import java.security.KeyStore;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.edwgiz.sample.bank.benchmarks.AccountApplication.BANK_ACCOUNT_ID;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * {@code GET /account/{id}} over a new TLS connection per request, with a full handshake or with the session of the
+ * previous connection resumed, to measure what the session cache of the TLS listener saves.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = BenchmarksMain.WARMUP_ITERATIONS, time = 2)
+@Measurement(iterations = BenchmarksMain.MEASUREMENT_ITERATIONS, time = 2)
+@Fork(1)
+public class TlsHandshakeBenchmark {
+
+    private static final String PASSWORD = "benchmark";
+    private static final int SESSION_CACHE_SIZE = 1024;
+    private static final int SESSION_TIMEOUT_SECONDS = 3600;
+    private static final byte[] REQUEST = ("GET /account/" + BANK_ACCOUNT_ID + " HTTP/1.1\r\nHost: "
+            + LoopbackServer.HOST + "\r\nConnection: close\r\n\r\n").getBytes(US_ASCII);
+
+    /**
+     * @param server server to call.
+     * @return the status line.
+     * @throws IOException if the request fails or isn't {@code 200 OK}, the benchmark is broken then.
+     */
+    @Benchmark
+    public String connect(final Server server) throws IOException {
+        try (SSLSocket socket = (SSLSocket) server.sockets.createSocket(LoopbackServer.HOST, server.port)) {
+            socket.setTcpNoDelay(true); // the handshake messages aren't delayed by the Nagle algorithm
+            socket.setEnabledProtocols(new String[] {server.protocol});
+            final OutputStream out = socket.getOutputStream();
+            out.write(REQUEST);
+            out.flush();
+            // the status line is read after the session ticket of TLS 1.3
+            final String status = new BufferedReader(new InputStreamReader(socket.getInputStream(), US_ASCII))
+                    .readLine();
+            if (status == null || !status.endsWith(" 200 OK")) {
+                throw new IOException("Unexpected response " + status);
+            }
+            if (!server.resumed) {
+                socket.getSession().invalidate();
+            }
+            return status;
+        }
+    }
+
+    /**
+     * The {@link LoopbackServer} with a TLS listener of a generated keystore.
+     */
+    @State(Scope.Benchmark)
+    public static class Server {
+
+        /**
+         * Whether the session of the previous connection is resumed.
+         */
+        @Param({"false", "true"})
+        private boolean resumed;
+
+        /**
+         * Protocol of the connections.
+         */
+        @Param({"TLSv1.2", "TLSv1.3"})
+        private String protocol;
+
+        private Path directory;
+        private LoopbackServer server;
+        private int port;
+        private SSLSocketFactory sockets;
+
+        /**
+         * Generates the keystore, starts the server on the in-memory database and creates the client context
+         * trusting the keystore.
+         *
+         * @throws IOException              if the keystore or the server can't be created.
+         * @throws InterruptedException     if interrupted while the keystore is generated.
+         * @throws GeneralSecurityException if the client context can't be created.
+         */
+        @Setup(Level.Trial)
+        public void start() throws IOException, InterruptedException, GeneralSecurityException {
+            directory = Files.createTempDirectory("tls");
+            final Path keystore = directory.resolve("keystore.jks");
+            final Process keytool = new ProcessBuilder(Paths.get(System.getProperty("java.home"), "bin", "keytool")
+                    .toString(), "-genkeypair", "-alias", "server", "-keyalg", "RSA", "-dname", "CN=localhost",
+                    "-validity", "1", "-storetype", "JKS", "-keystore", keystore.toString(), "-storepass", PASSWORD,
+                    "-keypass", PASSWORD).inheritIO().start();
+            if (keytool.waitFor() != 0) {
+                throw new IOException("Can't generate " + keystore);
+            }
+
+            server = new LoopbackServer();
+            port = LoopbackServer.freePort();
+            server.getHttpServer().addListener(TlsUtils.listener("tls", LoopbackServer.HOST, port,
+                    TlsUtils.serverContext(keystore.toString(), PASSWORD, SESSION_CACHE_SIZE,
+                            SESSION_TIMEOUT_SECONDS), null, null));
+            server.getHttpServer().start();
+
+            final KeyStore trusted = KeyStore.getInstance("JKS");
+            try (InputStream stream = Files.newInputStream(keystore)) {
+                trusted.load(stream, PASSWORD.toCharArray());
+            }
+            final TrustManagerFactory trustManagers = TrustManagerFactory.getInstance(
+                    TrustManagerFactory.getDefaultAlgorithm());
+            trustManagers.init(trusted);
+            final SSLContext client = SSLContext.getInstance("TLS");
+            client.init(null, trustManagers.getTrustManagers(), null);
+            sockets = client.getSocketFactory();
+        }
+
+        /**
+         * Stops the server, shuts the in-memory database down and deletes the keystore.
+         *
+         * @throws IOException if the keystore can't be deleted.
+         */
+        @TearDown(Level.Trial)
+        public void stop() throws IOException {
+            server.stop();
+            Files.delete(directory.resolve("keystore.jks"));
+            Files.delete(directory);
+        }
+    }
+}
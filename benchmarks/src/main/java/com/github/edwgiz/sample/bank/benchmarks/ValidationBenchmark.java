@@ -0,0 +1,108 @@
+package com.github.edwgiz.sample.bank.benchmarks;
+
+import com.github.edwgiz.sample.bank.account.jooq.tables.pojos.Payment;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.ext.ParamConverter;
+import javax.ws.rs.ext.ParamConverterProvider;
+import java.lang.annotation.Annotation;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+import static com.github.edwgiz.sample.bank.account.jooq.Tables.PAYMENT;
+import static com.github.edwgiz.sample.bank.core.webapp.commons.JooqAwareValidationUtils.checked;
+import static com.github.edwgiz.sample.bank.core.webapp.commons.JooqAwareValidationUtils.checkedNotNull;
+import static com.github.edwgiz.sample.bank.core.webapp.commons.JooqAwareValidationUtils.checkedPositive;
+
+/**
+ * The checks of a new payment by {@link com.github.edwgiz.sample.bank.core.webapp.commons.JooqAwareValidationUtils},
+ * passed and failed, and the date-time query parameters conversion by the converter registered by
+ * {@link com.github.edwgiz.sample.bank.core.webapp.JaxRsApplicationFactory}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = BenchmarksMain.WARMUP_ITERATIONS, time = 1)
+@Measurement(iterations = BenchmarksMain.MEASUREMENT_ITERATIONS, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ValidationBenchmark {
+
+    private static final String DATE_TIME = "2020-02-02T00:00:00.000";
+
+    private BigDecimal amount;
+    private BigDecimal negativeAmount;
+    private Long withdrawalAccountId;
+    private Long depositAccountId;
+    private String comment;
+    private ParamConverter<LocalDateTime> dateTimeConverter;
+    private LocalDateTime dateTime;
+
+    /**
+     * Prepares the values and locates the converter.
+     */
+    @Setup(Level.Trial)
+    public void prepare() {
+        amount = new BigDecimal("10000.00");
+        negativeAmount = amount.negate();
+        withdrawalAccountId = 0L;
+        depositAccountId = 2L;
+        comment = "Donation";
+        dateTimeConverter = AccountApplication.registered(ParamConverterProvider.class)
+                .getConverter(LocalDateTime.class, LocalDateTime.class, new Annotation[0]);
+        dateTime = dateTimeConverter.fromString(DATE_TIME);
+    }
+
+    /**
+     * @return the checked payment, like {@code PaymentEndpoint.create} builds it.
+     */
+    @Benchmark
+    public Payment checkPayment() {
+        return new Payment(null, null,
+                checkedPositive(PAYMENT.AMOUNT, amount),
+                checkedNotNull(PAYMENT.WITHDRAWAL_ACCOUNT_ID, withdrawalAccountId),
+                checkedNotNull(PAYMENT.DEPOSIT_ACCOUNT_ID, depositAccountId),
+                checked(PAYMENT.COMMENT, comment));
+    }
+
+    /**
+     * @return the exception of a failed check, with its message and response.
+     */
+    @Benchmark
+    public WebApplicationException rejectAmount() {
+        WebApplicationException result = null;
+        try {
+            checkedPositive(PAYMENT.AMOUNT, negativeAmount);
+        } catch (WebApplicationException ex) {
+            result = ex;
+        }
+        return result;
+    }
+
+    /**
+     * @return the parsed query parameter.
+     */
+    @Benchmark
+    public LocalDateTime parseDateTime() {
+        return dateTimeConverter.fromString(DATE_TIME);
+    }
+
+    /**
+     * @return the formatted query parameter.
+     */
+    @Benchmark
+    public String formatDateTime() {
+        return dateTimeConverter.toString(dateTime);
+    }
+}
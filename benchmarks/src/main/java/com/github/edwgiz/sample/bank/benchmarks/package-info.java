@@ -0,0 +1,7 @@
+/**
+ * JMH microbenchmarks of the hot paths of the account microservice: the payment and the account endpoints through
+ * the whole jax-rs application against in-memory H2, also over the loopback with and without the fast path, by the
+ * binary protocol and by HTTP/2, the full and the resumed TLS handshakes, the json (de)serialization and the
+ * validation. Also the soak of the payments checking the ledger invariants under the contention for the hot accounts.
+ */
+package com.github.edwgiz.sample.bank.benchmarks;
@@ -0,0 +1,74 @@
+package com.github.edwgiz.sample.bank.loadgen;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Picks the accounts of the requests, either uniformly or by the Zipf law, where the k-th account is picked with the
+ * probability proportional to {@code 1 / k^exponent}, so a few first accounts get the most of the payments and
+ * contend for their locks like the popular merchants do.
+ */
+final class AccountDistribution {
+
+    private final long[] accountIds;
+    /**
+     * Cumulative weights of the accounts, or {@code null} for the uniform distribution.
+     */
+    private final double[] cumulative;
+
+    private AccountDistribution(final long[] ids, final double[] weights) {
+        this.accountIds = ids;
+        this.cumulative = weights;
+    }
+
+    /**
+     * @param accountIds accounts to pick from.
+     * @return the distribution picking the accounts equally.
+     */
+    /* default */static AccountDistribution uniform(final long[] accountIds) {
+        return new AccountDistribution(accountIds.clone(), null);
+    }
+
+    /**
+     * @param accountIds accounts to pick from, the hottest first.
+     * @param exponent   skew, {@code 0} is uniform, {@code 1} is the classic Zipf law.
+     * @return the distribution picking the first accounts more often.
+     */
+    /* default */static AccountDistribution zipf(final long[] accountIds, final double exponent) {
+        final double[] cumulative = new double[accountIds.length];
+        double total = 0;
+        for (int rank = 0; rank < accountIds.length; rank++) {
+            total += 1 / Math.pow(rank + 1, exponent);
+            cumulative[rank] = total;
+        }
+        return new AccountDistribution(accountIds.clone(), cumulative);
+    }
+
+    /**
+     * @param random source of the randomness.
+     * @return identifier of the picked account.
+     */
+    /* default */long pick(final Random random) {
+        final int index;
+        if (cumulative == null) {
+            index = random.nextInt(accountIds.length);
+        } else {
+            final int found = Arrays.binarySearch(cumulative, random.nextDouble() * cumulative[cumulative.length - 1]);
+            index = found >= 0 ? found : -found - 1;
+        }
+        return accountIds[index];
+    }
+
+    /**
+     * @param random    source of the randomness.
+     * @param accountId account to not pick.
+     * @return identifier of an account other than the given one.
+     */
+    /* default */long pickOther(final Random random, final long accountId) {
+        long result = pick(random);
+        while (result == accountId) {
+            result = pick(random);
+        }
+        return result;
+    }
+}
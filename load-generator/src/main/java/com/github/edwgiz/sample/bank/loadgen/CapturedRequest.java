@@ -0,0 +1,203 @@
+package com.github.edwgiz.sample.bank.loadgen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Request read from a traffic capture of the microservice, written by {@code TrafficCapture} of
+ * {@code microservice-webapp}: the magic bytes with the version, the capture start, then per request the signed
+ * delta of the arrival microseconds, the duration microseconds, the status, and the method, the path, the query and
+ * the body by their lengths, all the numbers are 7 bits per byte with the highest one marking a continuation.
+ */
+final class CapturedRequest {
+
+    private static final byte[] MAGIC = {'B', 'A', 'N', 'K', 'C', 'A', 'P', 1};
+    private static final int PAYLOAD_BITS = 7;
+    private static final int PAYLOAD_MASK = 0x7f;
+    private static final int CONTINUATION = 0x80;
+    private static final Pattern ID_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+    private static final Pattern ACCOUNT_SEGMENT = Pattern.compile("/accounts?/(\\d+)(?=/|$)");
+    private static final String ACCOUNT_ID = "accountId";
+    private static final String SUFFIX_ACCOUNT_ID = "AccountId";
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final Logger LOG = LoggerFactory.getLogger(CapturedRequest.class);
+
+    private final long arrivalMicros;
+    private final long durationMicros;
+    private final int status;
+    private final String method;
+    private final String path;
+    private final String query;
+    private final byte[] body;
+
+    private CapturedRequest(final long arrival, final ByteBuffer buffer) {
+        this.arrivalMicros = arrival;
+        this.durationMicros = readNumber(buffer);
+        this.status = (int) readNumber(buffer);
+        this.method = new String(readBytes(buffer), UTF_8);
+        this.path = new String(readBytes(buffer), UTF_8);
+        this.query = new String(readBytes(buffer), UTF_8);
+        this.body = readBytes(buffer);
+    }
+
+    /**
+     * @param file capture file.
+     * @return the captured requests in the arrival order, a record truncated by a capture stopped abruptly is
+     * skipped.
+     * @throws IOException if the file can't be read or isn't a capture.
+     */
+    /* default */static List<CapturedRequest> read(final Path file) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        final byte[] magic = new byte[MAGIC.length];
+        if (buffer.remaining() < MAGIC.length || !Arrays.equals(MAGIC, read(buffer, magic))) {
+            throw new IOException(file + " isn't a traffic capture of the supported version");
+        }
+        readNumber(buffer); // start
+        final List<CapturedRequest> result = new ArrayList<>();
+        try {
+            long arrival = 0L;
+            while (buffer.hasRemaining()) {
+                final long delta = readNumber(buffer);
+                arrival += delta >>> 1 ^ -(delta & 1L);
+                result.add(new CapturedRequest(arrival, buffer));
+            }
+        } catch (BufferUnderflowException ex) {
+            LOG.warn("The last record of {} is truncated", file);
+        }
+        result.sort(Comparator.comparingLong(CapturedRequest::getArrivalMicros));
+        return result;
+    }
+
+    private static byte[] read(final ByteBuffer buffer, final byte[] bytes) {
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static byte[] readBytes(final ByteBuffer buffer) {
+        return read(buffer, new byte[(int) readNumber(buffer)]);
+    }
+
+    private static long readNumber(final ByteBuffer buffer) {
+        long result = 0L;
+        int shift = 0;
+        int current;
+        do {
+            current = buffer.get();
+            result |= (long) (current & PAYLOAD_MASK) << shift;
+            shift += PAYLOAD_BITS;
+        } while ((current & CONTINUATION) != 0);
+        return result;
+    }
+
+    /**
+     * @return arrival since the capture start.
+     */
+    /* default */long getArrivalMicros() {
+        return arrivalMicros;
+    }
+
+    /**
+     * @return duration until the response status was known, as measured by the microservice.
+     */
+    /* default */long getDurationMicros() {
+        return durationMicros;
+    }
+
+    /* default */long getEndMicros() {
+        return arrivalMicros + durationMicros;
+    }
+
+    /* default */int getStatus() {
+        return status;
+    }
+
+    /* default */String getMethod() {
+        return method;
+    }
+
+    /**
+     * @return path with the query, if any.
+     */
+    /* default */String getUri() {
+        return query.isEmpty() ? path : path + '?' + query;
+    }
+
+    /**
+     * @return body, {@code null} if empty.
+     */
+    /* default */byte[] getBody() {
+        return body.length == 0 ? null : body;
+    }
+
+    /**
+     * @return method and path with the numeric segments replaced by {@code {id}}, like {@code GET /account/{id}}.
+     */
+    /* default */String getLabel() {
+        return method + ' ' + ID_SEGMENT.matcher(path).replaceAll("/{id}");
+    }
+
+    /**
+     * @return identifiers of the accounts the request touches: a number after {@code /account/} in the path, and the
+     * values of the query parameters and of the top-level json fields named {@code accountId} or ending with
+     * {@code AccountId}, like the payment sides.
+     */
+    /* default */long[] getAccountIds() {
+        final Set<Long> result = new TreeSet<>();
+        final Matcher segment = ACCOUNT_SEGMENT.matcher(path);
+        while (segment.find()) {
+            result.add(Long.parseLong(segment.group(1)));
+        }
+        for (final String parameter : query.split("&")) {
+            final int equals = parameter.indexOf('=');
+            if (equals > 0 && isAccountId(parameter.substring(0, equals))) {
+                addNumber(result, parameter.substring(equals + 1));
+            }
+        }
+        if (body.length > 0 && body[0] == '{') {
+            try {
+                for (final Iterator<Map.Entry<String, JsonNode>> fields = MAPPER.readTree(body).fields();
+                     fields.hasNext();) {
+                    final Map.Entry<String, JsonNode> field = fields.next();
+                    if (isAccountId(field.getKey())) {
+                        addNumber(result, field.getValue().asText());
+                    }
+                }
+            } catch (IOException ex) {
+                LOG.debug("Body of {} {} isn't json", method, path, ex);
+            }
+        }
+        return result.stream().mapToLong(Long::longValue).toArray();
+    }
+
+    private static boolean isAccountId(final String name) {
+        return ACCOUNT_ID.equals(name) || name.endsWith(SUFFIX_ACCOUNT_ID);
+    }
+
+    private static void addNumber(final Set<Long> accountIds, final String value) {
+        try {
+            accountIds.add(Long.parseLong(value));
+        } catch (NumberFormatException ex) {
+            LOG.debug("Account identifier {} isn't a number", value, ex);
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.github.edwgiz.sample.bank.loadgen;
+
+import org.glassfish.grizzly.Buffer;
+import org.glassfish.grizzly.Connection;
+import org.glassfish.grizzly.EmptyCompletionHandler;
+import org.glassfish.grizzly.Grizzly;
+import org.glassfish.grizzly.attributes.Attribute;
+import org.glassfish.grizzly.filterchain.BaseFilter;
+import org.glassfish.grizzly.filterchain.FilterChainBuilder;
+import org.glassfish.grizzly.filterchain.FilterChainContext;
+import org.glassfish.grizzly.filterchain.NextAction;
+import org.glassfish.grizzly.filterchain.TransportFilter;
+import org.glassfish.grizzly.http.HttpClientFilter;
+import org.glassfish.grizzly.http.HttpContent;
+import org.glassfish.grizzly.http.HttpRequestPacket;
+import org.glassfish.grizzly.http.HttpResponsePacket;
+import org.glassfish.grizzly.http.Protocol;
+import org.glassfish.grizzly.memory.Buffers;
+import org.glassfish.grizzly.nio.transport.TCPNIOTransport;
+import org.glassfish.grizzly.nio.transport.TCPNIOTransportBuilder;
+import org.glassfish.grizzly.strategies.SameThreadIOStrategy;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Queue;
+
+/**
+ * Non-blocking HTTP/1.1 client on the Grizzly NIO transport, keeping up to the maximum of the keep-alive connections
+ * with a request in flight each. A request finding no idle connection waits in the backlog, while a new connection
+ * is opened unless the maximum is reached, so the requests are never throttled by the responses, and the wait in the
+ * backlog is a part of their latency, as it is for the users.
+ * <p>
+ * The responses are handled by the selector threads, so the listeners of the requests must not block.
+ */
+final class LoadClient implements Closeable {
+
+    private static final Attribute<ClientConnection> CLIENT_CONNECTION =
+            Grizzly.DEFAULT_ATTRIBUTE_BUILDER.createAttribute(LoadClient.class.getName() + ".connection");
+    private static final byte[] NO_BODY = new byte[0];
+    private static final String JSON = "application/json";
+    private static final int HTTP_PORT = 80;
+
+    private final InetSocketAddress address;
+    private final String host;
+    private final int maxConnections;
+    private final TCPNIOTransport transport;
+    /**
+     * Guarded by this, like the backlog and the number of the open connections.
+     */
+    private final Deque<ClientConnection> idle;
+    private final Queue<LoadRequest> backlog;
+    private int open;
+
+    /**
+     * @param url         base url of the server.
+     * @param connections maximum number of the connections.
+     * @throws IOException if the transport can't be started.
+     */
+    /* default */LoadClient(final URI url, final int connections) throws IOException {
+        final int port = url.getPort() < 0 ? HTTP_PORT : url.getPort();
+        this.address = new InetSocketAddress(url.getHost(), port);
+        this.host = url.getHost() + ':' + port;
+        this.maxConnections = connections;
+        this.idle = new ArrayDeque<>(connections);
+        this.backlog = new ArrayDeque<>();
+        this.transport = TCPNIOTransportBuilder.newInstance()
+                .setIOStrategy(SameThreadIOStrategy.getInstance())
+                .setTcpNoDelay(true)
+                .build();
+        transport.setProcessor(FilterChainBuilder.stateless()
+                .add(new TransportFilter())
+                .add(new HttpClientFilter())
+                .add(new ResponseFilter())
+                .build());
+        transport.start();
+    }
+
+    /**
+     * Sends the request by an idle connection, or queues it to the backlog.
+     *
+     * @param request request to send.
+     */
+    /* default */void submit(final LoadRequest request) {
+        final ClientConnection connection;
+        synchronized (this) {
+            connection = idle.pollFirst();
+            if (connection == null) {
+                backlog.add(request);
+            }
+        }
+        if (connection == null) {
+            connectIfBacklogged();
+        } else {
+            connection.send(request);
+        }
+    }
+
+    private void connectIfBacklogged() {
+        final boolean connect;
+        synchronized (this) {
+            connect = !backlog.isEmpty() && open < maxConnections;
+            if (connect) {
+                open++;
+            }
+        }
+        if (connect) {
+            transport.connect(address, new ConnectHandler());
+        }
+    }
+
+    private void release(final ClientConnection connection) {
+        final LoadRequest next;
+        synchronized (this) {
+            next = backlog.poll();
+            if (next == null) {
+                idle.addFirst(connection);
+            }
+        }
+        if (next != null) {
+            connection.send(next);
+        }
+    }
+
+    private void closed(final ClientConnection connection) {
+        synchronized (this) {
+            open--;
+            idle.remove(connection);
+        }
+        connection.fail();
+        connectIfBacklogged();
+    }
+
+    @Override
+    public void close() throws IOException {
+        transport.shutdownNow();
+    }
+
+    /**
+     * Puts a new connection to work, or fails a queued request, so an unreachable server fails the backlog.
+     */
+    private final class ConnectHandler extends EmptyCompletionHandler<Connection> {
+
+        @Override
+        public void completed(final Connection connection) {
+            final ClientConnection clientConnection = new ClientConnection(connection);
+            CLIENT_CONNECTION.set(connection, clientConnection);
+            release(clientConnection);
+        }
+
+        @Override
+        public void failed(final Throwable throwable) {
+            final LoadRequest request;
+            synchronized (LoadClient.this) {
+                open--;
+                request = backlog.poll();
+            }
+            if (request != null) {
+                request.complete(LoadRequest.FAILED, NO_BODY);
+            }
+            connectIfBacklogged();
+        }
+    }
+
+    /**
+     * Dispatches the response parts to their connections.
+     */
+    private final class ResponseFilter extends BaseFilter {
+
+        @Override
+        public NextAction handleRead(final FilterChainContext ctx) {
+            CLIENT_CONNECTION.get(ctx.getConnection()).read(ctx.getMessage());
+            return ctx.getStopAction();
+        }
+
+        @Override
+        public NextAction handleClose(final FilterChainContext ctx) {
+            final ClientConnection connection = CLIENT_CONNECTION.get(ctx.getConnection());
+            if (connection != null) {
+                closed(connection);
+            }
+            return ctx.getInvokeAction();
+        }
+    }
+
+    /**
+     * Connection with its request in flight.
+     */
+    private final class ClientConnection {
+
+        private final Connection<?> connection;
+        private final ByteArrayOutputStream response;
+        private volatile LoadRequest inFlight;
+
+        /* default */ClientConnection(final Connection<?> value) {
+            this.connection = value;
+            this.response = new ByteArrayOutputStream();
+        }
+
+        /* default */void send(final LoadRequest request) {
+            inFlight = request;
+            final String uri = request.getUri();
+            final int query = uri.indexOf('?');
+            final HttpRequestPacket.Builder builder = HttpRequestPacket.builder()
+                    .method(request.getMethod())
+                    .protocol(Protocol.HTTP_1_1)
+                    .header("Host", host);
+            if (query < 0) {
+                builder.uri(uri);
+            } else {
+                builder.uri(uri.substring(0, query)).query(uri.substring(query + 1));
+            }
+            final byte[] body = request.getBody() == null ? NO_BODY : request.getBody();
+            if (body.length > 0) {
+                builder.contentType(JSON);
+            }
+            final HttpRequestPacket header = builder.contentLength(body.length).build();
+            request.sent();
+            connection.write(HttpContent.builder(header)
+                    .content(Buffers.wrap(connection.getMemoryManager(), body))
+                    .last(true)
+                    .build());
+        }
+
+        /* default */void read(final HttpContent content) {
+            final LoadRequest request = inFlight;
+            if (request.isResponseKept()) {
+                final Buffer buffer = content.getContent();
+                final byte[] bytes = new byte[buffer.remaining()];
+                buffer.get(bytes);
+                response.write(bytes, 0, bytes.length);
+            }
+            if (content.isLast()) {
+                final HttpResponsePacket header = (HttpResponsePacket) content.getHttpHeader();
+                final byte[] body = response.toByteArray();
+                response.reset();
+                inFlight = null;
+                request.complete(header.getStatus(), body);
+                if (header.getProcessingState().isKeepAlive()) {
+                    release(this);
+                } else {
+                    connection.closeSilently();
+                }
+            }
+        }
+
+        /* default */void fail() {
+            final LoadRequest request = inFlight;
+            if (request != null) {
+                inFlight = null;
+                response.reset();
+                request.complete(LoadRequest.FAILED, NO_BODY);
+            }
+        }
+    }
+}
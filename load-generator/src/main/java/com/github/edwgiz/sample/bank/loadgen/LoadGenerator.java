@@ -0,0 +1,185 @@
+package com.github.edwgiz.sample.bank.loadgen;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.time.ZoneOffset.UTC;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Runs the load: creates and funds the accounts, then sends the requests of the mixed operations at the fixed rate
+ * for the duration, waits for the responses at most {@value #DRAIN_SECONDS} seconds more, and reports the outcomes.
+ * The requests still without a response are reported as timed out, with their latencies up to then.
+ * <p>
+ * The send times are planned ahead, {@code 1 / rate} apart from the start, and a request late for its time, because
+ * of the scheduling thread or of the busy connections, keeps its planned time as the start of its latency.
+ */
+final class LoadGenerator {
+
+    /**
+     * Maximum wait for the responses after the run.
+     */
+    /* default */static final long DRAIN_SECONDS = 10L;
+    private static final long SETUP_SECONDS = 600L;
+    private static final long DRAIN_POLL_MILLIS = 10L;
+    private static final long BANK_ACCOUNT_ID = 0L;
+    private static final String FUNDING_AMOUNT = "10000";
+    private static final int STATUS_OK = 200;
+    private static final int CONFLICT = 409;
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final LoadSettings settings;
+
+    /**
+     * @param value settings of the run.
+     */
+    /* default */LoadGenerator(final LoadSettings value) {
+        this.settings = value;
+    }
+
+    /**
+     * @return the report of the run.
+     * @throws IOException          if the accounts can't be created or funded.
+     * @throws InterruptedException if interrupted.
+     */
+    /* default */ObjectNode run() throws IOException, InterruptedException {
+        try (LoadClient client = new LoadClient(settings.getUrl(), settings.getConnections())) {
+            final Setup accounts = new Setup(client, settings.getAccounts());
+            for (int i = 1; i <= settings.getAccounts(); i++) {
+                accounts.submit(Operation.CREATE_ACCOUNT, "/account",
+                        ("{\"ownerName\":\"load-account-" + i + "\"}").getBytes(UTF_8));
+            }
+            final long[] accountIds = accounts.await().stream().mapToLong(Long::longValue).sorted().toArray();
+            final Setup funding = new Setup(client, accountIds.length);
+            for (final long accountId : accountIds) {
+                funding.submit(Operation.PAY, "/payment", Workload.payment(BANK_ACCOUNT_ID, accountId,
+                        FUNDING_AMOUNT));
+            }
+            funding.await();
+            return measure(client, accountIds);
+        }
+    }
+
+    private ObjectNode measure(final LoadClient client, final long[] accountIds) throws InterruptedException {
+        final Workload workload = new Workload(settings.getMix(), settings.isZipf()
+                ? AccountDistribution.zipf(accountIds, settings.getZipfExponent())
+                : AccountDistribution.uniform(accountIds), new Random(settings.getSeed()), LocalDateTime.now(UTC));
+        final long start = System.nanoTime();
+        final long end = start + SECONDS.toNanos(settings.getDurationSeconds());
+        final LoadRecorder recorder = new LoadRecorder(start, Stream.of(Operation.values()).map(Operation::name)
+                .toArray(String[]::new));
+        final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "load-timeline");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(recorder::tick, 1L, 1L, SECONDS);
+        long scheduled = 0;
+        for (long intended = start; intended < end;
+             intended = start + (long) (scheduled * NANOS_PER_SECOND / settings.getRate())) {
+            parkUntil(intended);
+            client.submit(recorder.track(workload.next(intended, recorder)));
+            scheduled++;
+        }
+        final long drainEnd = System.nanoTime() + SECONDS.toNanos(DRAIN_SECONDS);
+        while (recorder.getCompleted() < scheduled && System.nanoTime() < drainEnd) {
+            Thread.sleep(DRAIN_POLL_MILLIS);
+        }
+        ticker.shutdownNow();
+        recorder.timeOut();
+        recorder.tick();
+        final long completed = recorder.getCompleted();
+        final ObjectNode report = JsonNodeFactory.instance.objectNode();
+        report.put("url", settings.getUrl().toString())
+                .put("rate", settings.getRate())
+                .put("durationSeconds", settings.getDurationSeconds())
+                .put("connections", settings.getConnections())
+                .put("accounts", accountIds.length)
+                .put("distribution", settings.isZipf() ? "zipf" : "uniform")
+                .put("zipfExponent", settings.getZipfExponent())
+                .put("seed", settings.getSeed());
+        final ObjectNode mix = report.putObject("mix");
+        for (final Map.Entry<Operation, Integer> weight : settings.getMix().getWeights().entrySet()) {
+            mix.put(weight.getKey().name(), weight.getValue());
+        }
+        report.put("scheduled", scheduled)
+                .put("unfinished", scheduled - completed);
+        recorder.report(report, (end - start) / NANOS_PER_SECOND);
+        return report;
+    }
+
+    /**
+     * @param nanoTime {@link System#nanoTime()} to wait for.
+     */
+    /* default */static void parkUntil(final long nanoTime) {
+        for (long delay = nanoTime - System.nanoTime(); delay > 0; delay = nanoTime - System.nanoTime()) {
+            LockSupport.parkNanos(delay);
+        }
+    }
+
+    /**
+     * Requests preparing the run, retried on the lock conflicts, all must succeed.
+     */
+    private static final class Setup implements LoadRequest.Listener {
+
+        private final LoadClient client;
+        private final CountDownLatch remaining;
+        private final Queue<Long> accountIds;
+        private final Queue<String> failures;
+
+        /* default */Setup(final LoadClient value, final int requests) {
+            this.client = value;
+            this.remaining = new CountDownLatch(requests);
+            this.accountIds = new ConcurrentLinkedQueue<>();
+            this.failures = new ConcurrentLinkedQueue<>();
+        }
+
+        /* default */void submit(final Operation operation, final String uri, final byte[] body) {
+            client.submit(new LoadRequest(operation, "PUT", uri, body, System.nanoTime(), this));
+        }
+
+        @Override
+        public void completed(final LoadRequest request, final int status, final byte[] response) {
+            if (status == CONFLICT) {
+                submit(request.getOperation(), request.getUri(), request.getBody());
+            } else {
+                try {
+                    if (status != STATUS_OK) {
+                        throw new IOException(request.getMethod() + ' ' + request.getUri() + " responded with "
+                                + status + " status");
+                    }
+                    if (request.isResponseKept()) {
+                        accountIds.add(MAPPER.readTree(response).get("accountId").asLong());
+                    }
+                } catch (IOException ex) {
+                    failures.add(ex.getMessage());
+                } finally {
+                    remaining.countDown();
+                }
+            }
+        }
+
+        /* default */Queue<Long> await() throws IOException, InterruptedException {
+            if (!remaining.await(SETUP_SECONDS, SECONDS) || !failures.isEmpty()) {
+                throw new IOException("Setup of the accounts failed: "
+                        + (failures.isEmpty() ? "timed out" : failures.peek()));
+            }
+            return accountIds;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.github.edwgiz.sample.bank.loadgen;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Properties;
+
+/**
+ * Runs the load by the settings of the {@code loadgen.*} system properties, or replays a traffic capture by the
+ * {@code replay.*} ones if {@code replay.file} is given, and writes the json report.
+ */
+public final class LoadGeneratorMain {
+
+    private static final Logger LOG = LoggerFactory.getLogger(LoadGeneratorMain.class);
+
+    private LoadGeneratorMain() {
+    }
+
+    /**
+     * @param args ignored, the settings are the system properties.
+     * @throws IOException          if the accounts or the capture can't be prepared or the report can't be written.
+     * @throws InterruptedException if interrupted.
+     */
+    public static void main(final String[] args) throws IOException, InterruptedException {
+        final Properties properties = System.getProperties();
+        if (properties.getProperty(ReplaySettings.PROPERTY_FILE) == null) {
+            load(LoadSettings.from(properties));
+        } else {
+            replay(ReplaySettings.from(properties));
+        }
+    }
+
+    private static void load(final LoadSettings settings) throws IOException, InterruptedException {
+        LOG.info("Load {} at {} requests per second for {} seconds", settings.getUrl(), settings.getRate(),
+                settings.getDurationSeconds());
+        final ObjectNode report = write(new LoadGenerator(settings).run(), settings.getReportFile());
+        LOG.info("Load done, {} requests, {} conflicts, {} failures, {} unfinished, the report is written to {}",
+                report.get("requests"), report.get("conflicts"), report.get("failures"), report.get("unfinished"),
+                settings.getReportFile());
+    }
+
+    private static ObjectNode write(final ObjectNode report, final String file) throws IOException {
+        new ObjectMapper().writerWithDefaultPrettyPrinter().writeValue(new File(file), report);
+        return report;
+    }
+
+    private static void replay(final ReplaySettings settings) throws IOException, InterruptedException {
+        LOG.info("Replay {} against {} at {} speed", settings.getFile(), settings.getUrl(),
+                settings.getSpeed() > 0.0 ? settings.getSpeed() + "x" : "the maximum");
+        final ObjectNode report = write(new TrafficReplay(settings).run(), settings.getReportFile());
+        LOG.info("Replay done, {} requests, {} mismatches, {} failures, {} unfinished, the report is written to {}",
+                report.get("requests"), report.get("mismatches"), report.get("failures"), report.get("unfinished"),
+                settings.getReportFile());
+    }
+}
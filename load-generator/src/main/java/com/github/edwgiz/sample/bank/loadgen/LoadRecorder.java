@@ -0,0 +1,250 @@
+package com.github.edwgiz.sample.bank.loadgen;
+
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.concurrent.TimeUnit.NANOSECONDS;
+
+/**
+ * Outcomes of the measured requests per label, like the operation: the statuses, the latencies from the intended send
+ * times, which include the wait for a connection and so are free of the coordinated omission, and the service times
+ * from the actual send times, as a closed-loop client would measure them. The interval {@link Recorder}s are rolled by
+ * {@link #tick()} into a throughput and latency timeline and into the totals of the run.
+ * <p>
+ * Only the {@link #track(LoadRequest) tracked} requests are recorded. The ones still without a response at the end
+ * are recorded by {@link #timeOut()} as timed out, with the latency up to then, so the stalled requests raise the
+ * percentiles instead of vanishing from them.
+ */
+final class LoadRecorder implements LoadRequest.Listener {
+
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final double MICROS_PER_MILLI = 1000.0;
+    private static final double NANOS_PER_SECOND = 1e9;
+    private static final double[] PERCENTILES = {50.0, 90.0, 99.0, 99.9, 99.99};
+    private static final int SUCCESSFUL = 2;
+    private static final int STATUS_CLASS = 100;
+    private static final int CONFLICT = 409;
+
+    /**
+     * Sorted by the labels for the report.
+     */
+    private final ConcurrentMap<String, Outcomes> outcomes;
+    /**
+     * The tracked requests without an outcome, the one removing a request records it.
+     */
+    private final Set<LoadRequest> unfinished;
+    private final LongAdder completed;
+    private final long startNanos;
+    /**
+     * Guarded by this, like the totals of the outcomes.
+     */
+    private final ArrayNode timeline;
+    private long tickNanos;
+
+    /**
+     * @param start  {@link System#nanoTime()} of the start of the run.
+     * @param labels labels reported even without requests, the others are added by the first request.
+     */
+    /* default */LoadRecorder(final long start, final String... labels) {
+        this.outcomes = new ConcurrentSkipListMap<>();
+        for (final String label : labels) {
+            outcomes.put(label, new Outcomes());
+        }
+        this.unfinished = ConcurrentHashMap.newKeySet();
+        this.completed = new LongAdder();
+        this.startNanos = start;
+        this.tickNanos = start;
+        this.timeline = JsonNodeFactory.instance.arrayNode();
+    }
+
+    /**
+     * @param request request to record the outcome of, before it's submitted.
+     * @return the request.
+     */
+    /* default */LoadRequest track(final LoadRequest request) {
+        unfinished.add(request);
+        return request;
+    }
+
+    @Override
+    public void completed(final LoadRequest request, final int status, final byte[] response) {
+        final long now = System.nanoTime();
+        if (unfinished.remove(request)) { // not timed out yet
+            outcomes(request).record(status, NANOSECONDS.toMicros(now - request.getIntendedNanos()),
+                    NANOSECONDS.toMicros(now - request.getSentNanos()));
+            completed.increment();
+        }
+    }
+
+    /**
+     * Records the tracked requests without a response as timed out, their later responses are ignored.
+     */
+    /* default */void timeOut() {
+        final long now = System.nanoTime();
+        for (final LoadRequest request : unfinished) {
+            if (unfinished.remove(request)) { // not completed meanwhile
+                outcomes(request).recordTimedOut(NANOSECONDS.toMicros(now - request.getIntendedNanos()));
+            }
+        }
+    }
+
+    private Outcomes outcomes(final LoadRequest request) {
+        return outcomes.computeIfAbsent(request.getLabel(), label -> new Outcomes());
+    }
+
+    /**
+     * @return number of the completed requests, including the failed ones.
+     */
+    /* default */long getCompleted() {
+        return completed.sum();
+    }
+
+    /**
+     * Adds the outcomes since the previous tick to the timeline and to the totals.
+     */
+    /* default */ synchronized void tick() {
+        final long now = System.nanoTime();
+        final Histogram latency = new Histogram(SIGNIFICANT_DIGITS);
+        final long[] counts = new long[Outcomes.COUNTERS];
+        for (final Outcomes operation : outcomes.values()) {
+            operation.roll(latency, counts);
+        }
+        final ObjectNode entry = timeline.addObject();
+        entry.put("elapsedSeconds", (now - startNanos) / NANOS_PER_SECOND);
+        putCounts(entry, counts, (now - tickNanos) / NANOS_PER_SECOND);
+        putPercentiles(entry.putObject("latencyMillis"), latency);
+        tickNanos = now;
+    }
+
+    /**
+     * @param report  report to put the throughput, the operations and the timeline to.
+     * @param seconds duration of the run.
+     */
+    /* default */ synchronized void report(final ObjectNode report, final double seconds) {
+        final long[] counts = new long[Outcomes.COUNTERS];
+        final ObjectNode operations = JsonNodeFactory.instance.objectNode();
+        for (final Map.Entry<String, Outcomes> operation : outcomes.entrySet()) {
+            operation.getValue().report(operations.putObject(operation.getKey()), counts, seconds);
+        }
+        putCounts(report, counts, seconds);
+        report.set("operations", operations);
+        report.set("timeline", timeline);
+    }
+
+    private static void putCounts(final ObjectNode node, final long[] counts, final double seconds) {
+        final long requests = counts[Outcomes.SUCCEEDED] + counts[Outcomes.CONFLICTS] + counts[Outcomes.ERRORS]
+                + counts[Outcomes.FAILURES] + counts[Outcomes.TIMED_OUT];
+        node.put("requests", requests)
+                .put("ok", counts[Outcomes.SUCCEEDED])
+                .put("conflicts", counts[Outcomes.CONFLICTS])
+                .put("conflictRate", requests == 0 ? 0.0 : counts[Outcomes.CONFLICTS] / (double) requests)
+                .put("errors", counts[Outcomes.ERRORS])
+                .put("failures", counts[Outcomes.FAILURES])
+                .put("timedOut", counts[Outcomes.TIMED_OUT])
+                .put("throughput", requests / seconds);
+    }
+
+    /**
+     * @param node      node to put the mean, the percentiles and the maximum to, in milliseconds.
+     * @param histogram histogram of the microseconds.
+     */
+    /* default */static void putPercentiles(final ObjectNode node, final Histogram histogram) {
+        node.put("mean", histogram.getMean() / MICROS_PER_MILLI);
+        for (final double percentile : PERCENTILES) {
+            node.put(Double.toString(percentile), histogram.getValueAtPercentile(percentile) / MICROS_PER_MILLI);
+        }
+        node.put("max", histogram.getMaxValue() / MICROS_PER_MILLI);
+    }
+
+    /**
+     * Outcomes of an operation.
+     */
+    private static final class Outcomes {
+
+        /* default */static final int SUCCEEDED = 0;
+        /* default */static final int CONFLICTS = 1;
+        /* default */static final int ERRORS = 2;
+        /* default */static final int FAILURES = 3;
+        /* default */static final int TIMED_OUT = 4;
+        /* default */static final int COUNTERS = 5;
+
+        private final Recorder latency;
+        private final Recorder serviceTime;
+        private final LongAdder[] intervalCounts;
+        private final Histogram totalLatency;
+        private final Histogram totalServiceTime;
+        private final long[] totalCounts;
+
+        /* default */Outcomes() {
+            this.latency = new Recorder(SIGNIFICANT_DIGITS);
+            this.serviceTime = new Recorder(SIGNIFICANT_DIGITS);
+            this.intervalCounts = new LongAdder[COUNTERS];
+            for (int i = 0; i < COUNTERS; i++) {
+                intervalCounts[i] = new LongAdder();
+            }
+            this.totalLatency = new Histogram(SIGNIFICANT_DIGITS);
+            this.totalServiceTime = new Histogram(SIGNIFICANT_DIGITS);
+            this.totalCounts = new long[COUNTERS];
+        }
+
+        /* default */void record(final int status, final long latencyMicros, final long serviceMicros) {
+            if (status == LoadRequest.FAILED) {
+                intervalCounts[FAILURES].increment();
+            } else {
+                latency.recordValue(latencyMicros);
+                serviceTime.recordValue(serviceMicros);
+                if (status / STATUS_CLASS == SUCCESSFUL) {
+                    intervalCounts[SUCCEEDED].increment();
+                } else if (status == CONFLICT) {
+                    intervalCounts[CONFLICTS].increment();
+                } else {
+                    intervalCounts[ERRORS].increment();
+                }
+            }
+        }
+
+        // no service time, the request may be still waiting for a connection
+        /* default */void recordTimedOut(final long latencyMicros) {
+            latency.recordValue(latencyMicros);
+            intervalCounts[TIMED_OUT].increment();
+        }
+
+        /* default */void roll(final Histogram intervalLatency, final long[] counts) {
+            final Histogram interval = latency.getIntervalHistogram();
+            intervalLatency.add(interval);
+            totalLatency.add(interval);
+            totalServiceTime.add(serviceTime.getIntervalHistogram());
+            for (int i = 0; i < COUNTERS; i++) {
+                final long count = intervalCounts[i].sumThenReset();
+                counts[i] += count;
+                totalCounts[i] += count;
+            }
+        }
+
+        /* default */void report(final ObjectNode node, final long[] counts, final double seconds) {
+            for (int i = 0; i < COUNTERS; i++) {
+                counts[i] += totalCounts[i];
+            }
+            putCounts(node, totalCounts, seconds);
+            putPercentiles(node.putObject("latencyMillis"), totalLatency);
+            putPercentiles(node.putObject("serviceTimeMillis"), totalServiceTime);
+            final ByteBuffer buffer = ByteBuffer.allocate(totalLatency.getNeededByteBufferCapacity());
+            final int length = totalLatency.encodeIntoCompressedByteBuffer(buffer);
+            // compressed as by HdrHistogram log, to merge the runs or plot the full distribution
+            node.put("latencyHistogram", Base64.getEncoder().encodeToString(Arrays.copyOf(buffer.array(), length)));
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package com.github.edwgiz.sample.bank.loadgen;
+
+/**
+ * Request sent by {@link LoadClient}, with its intended and actual send times.
+ */
+final class LoadRequest {
+
+    /**
+     * Status of a request failed by an I/O error, without a response.
+     */
+    /* default */static final int FAILED = 0;
+
+    private final Operation operation;
+    private final String label;
+    private final String method;
+    private final String uri;
+    private final byte[] body;
+    private final long intendedNanos;
+    private final Listener listener;
+    private long sentNanos;
+
+    /**
+     * @param value         operation of the request.
+     * @param httpMethod    http method.
+     * @param path          path with an optional query.
+     * @param json          request body, {@code null} if none.
+     * @param intendedTime  {@link System#nanoTime()} the request is scheduled to be sent at.
+     * @param onCompletion  listener of the response.
+     */
+    /* default */LoadRequest(final Operation value, final String httpMethod, final String path, final byte[] json,
+            final long intendedTime, final Listener onCompletion) {
+        this(value, value.name(), httpMethod, path, json, intendedTime, onCompletion);
+    }
+
+    /**
+     * @param value         operation of the request, {@code null} for a replayed one.
+     * @param name          name the outcomes of the request are reported under.
+     * @param httpMethod    http method.
+     * @param path          path with an optional query.
+     * @param json          request body, {@code null} if none.
+     * @param intendedTime  {@link System#nanoTime()} the request is scheduled to be sent at.
+     * @param onCompletion  listener of the response.
+     */
+    /* default */LoadRequest(final Operation value, final String name, final String httpMethod, final String path,
+            final byte[] json, final long intendedTime, final Listener onCompletion) {
+        this.operation = value;
+        this.label = name;
+        this.method = httpMethod;
+        this.uri = path;
+        this.body = json;
+        this.intendedNanos = intendedTime;
+        this.listener = onCompletion;
+    }
+
+    /* default */Operation getOperation() {
+        return operation;
+    }
+
+    /* default */String getLabel() {
+        return label;
+    }
+
+    /* default */String getMethod() {
+        return method;
+    }
+
+    /* default */String getUri() {
+        return uri;
+    }
+
+    /* default */byte[] getBody() {
+        return body;
+    }
+
+    /**
+     * @return whether the response body is passed to the listener, as it holds the created account identifier.
+     */
+    /* default */boolean isResponseKept() {
+        return operation == Operation.CREATE_ACCOUNT;
+    }
+
+    /* default */long getIntendedNanos() {
+        return intendedNanos;
+    }
+
+    /* default */long getSentNanos() {
+        return sentNanos;
+    }
+
+    /* default */void sent() {
+        sentNanos = System.nanoTime();
+    }
+
+    /* default */void complete(final int status, final byte[] response) {
+        listener.completed(this, status, response);
+    }
+
+    /**
+     * Listener of the responses.
+     */
+    @FunctionalInterface
+    /* default */interface Listener {
+
+        /**
+         * Called by an I/O thread, so must not block.
+         *
+         * @param request  completed request.
+         * @param status   http status of the response, or {@link #FAILED}.
+         * @param response body of the response, if it's kept for the operation, otherwise empty.
+         */
+        void completed(LoadRequest request, int status, byte[] response);
+    }
+}
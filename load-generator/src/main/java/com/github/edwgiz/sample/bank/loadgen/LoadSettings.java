@@ -0,0 +1,140 @@
+package com.github.edwgiz.sample.bank.loadgen;
+
+import java.net.URI;
+import java.util.Properties;
+
+/**
+ * Settings of a load run, read from the {@code loadgen.*} properties.
+ */
+final class LoadSettings {
+
+    /**
+     * Base url of the microservice.
+     */
+    /* default */static final String PROPERTY_URL = "loadgen.url";
+    /**
+     * Requests per second.
+     */
+    /* default */static final String PROPERTY_RATE = "loadgen.rate";
+    /**
+     * Duration of the measured run.
+     */
+    /* default */static final String PROPERTY_DURATION_SECONDS = "loadgen.duration.seconds";
+    /**
+     * Maximum number of the keep-alive connections.
+     */
+    /* default */static final String PROPERTY_CONNECTIONS = "loadgen.connections";
+    /**
+     * Number of the accounts created and funded before the run.
+     */
+    /* default */static final String PROPERTY_ACCOUNTS = "loadgen.accounts";
+    /**
+     * {@code uniform} or {@code zipf} distribution of the accounts picked by the requests.
+     */
+    /* default */static final String PROPERTY_DISTRIBUTION = "loadgen.distribution";
+    /**
+     * Exponent of the zipf distribution, the bigger the hotter the first accounts.
+     */
+    /* default */static final String PROPERTY_ZIPF_EXPONENT = "loadgen.zipf.exponent";
+    /**
+     * Weights of the operations, like {@code PAY=6,READ_ACCOUNT=10}.
+     */
+    /* default */static final String PROPERTY_MIX = "loadgen.mix";
+    /**
+     * Seed of the random operations and accounts, for the repeatable runs.
+     */
+    /* default */static final String PROPERTY_SEED = "loadgen.seed";
+    /**
+     * Json file of the report.
+     */
+    /* default */static final String PROPERTY_REPORT_FILE = "loadgen.report.file";
+
+    private final URI url;
+    private final int rate;
+    private final int durationSeconds;
+    private final int connections;
+    private final int accounts;
+    private final boolean zipf;
+    private final double zipfExponent;
+    private final OperationMix mix;
+    private final long seed;
+    private final String reportFile;
+
+    private LoadSettings(final Properties properties) {
+        this.url = URI.create(properties.getProperty(PROPERTY_URL, "http://127.0.0.1:8080"));
+        this.rate = positive(properties, PROPERTY_RATE, "500");
+        this.durationSeconds = positive(properties, PROPERTY_DURATION_SECONDS, "60");
+        this.connections = positive(properties, PROPERTY_CONNECTIONS, "64");
+        this.accounts = positive(properties, PROPERTY_ACCOUNTS, "1000");
+        final String distribution = properties.getProperty(PROPERTY_DISTRIBUTION, "uniform");
+        this.zipf = "zipf".equalsIgnoreCase(distribution);
+        if (!zipf && !"uniform".equalsIgnoreCase(distribution)) {
+            throw new IllegalArgumentException(PROPERTY_DISTRIBUTION + " must be 'uniform' or 'zipf'");
+        }
+        this.zipfExponent = Double.parseDouble(properties.getProperty(PROPERTY_ZIPF_EXPONENT, "1.0"));
+        this.mix = OperationMix.parse(properties.getProperty(PROPERTY_MIX,
+                "CREATE_ACCOUNT=1,PAY=6,READ_ACCOUNT=10,LIST_STATEMENT=1"));
+        this.seed = Long.parseLong(properties.getProperty(PROPERTY_SEED, "1"));
+        this.reportFile = properties.getProperty(PROPERTY_REPORT_FILE, "load-report.json");
+        if (accounts < 2) {
+            throw new IllegalArgumentException(PROPERTY_ACCOUNTS + " must be 2 at least, the payments need two");
+        }
+    }
+
+    /**
+     * @param properties properties to read, like the system ones.
+     * @return the settings.
+     * @throws IllegalArgumentException if a property is invalid.
+     */
+    /* default */static LoadSettings from(final Properties properties) {
+        return new LoadSettings(properties);
+    }
+
+    private static int positive(final Properties properties, final String name, final String defaultValue) {
+        final int value = Integer.parseInt(properties.getProperty(name, defaultValue));
+        if (value <= 0) {
+            throw new IllegalArgumentException(name + " must be positive");
+        }
+        return value;
+    }
+
+    /* default */URI getUrl() {
+        return url;
+    }
+
+    /* default */int getRate() {
+        return rate;
+    }
+
+    /* default */int getDurationSeconds() {
+        return durationSeconds;
+    }
+
+    /* default */int getConnections() {
+        return connections;
+    }
+
+    /* default */int getAccounts() {
+        return accounts;
+    }
+
+    /* default */boolean isZipf() {
+        return zipf;
+    }
+
+    /* default */double getZipfExponent() {
+        return zipfExponent;
+    }
+
+    /* default */OperationMix getMix() {
+        return mix;
+    }
+
+    /* default */long getSeed() {
+        return seed;
+    }
+
+    /* default */String getReportFile() {
+        return reportFile;
+    }
+}
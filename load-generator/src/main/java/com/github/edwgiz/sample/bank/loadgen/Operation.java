@@ -0,0 +1,58 @@
+package com.github.edwgiz.sample.bank.loadgen;
+
+/**
+ * Requests of the account microservice a scenario is mixed from.
+ */
+enum Operation {
+
+    /**
+     * Creates an account, {@code PUT /account}.
+     */
+    CREATE_ACCOUNT {
+        @Override
+        /* default */LoadRequest request(final Workload workload, final long intendedNanos,
+                final LoadRequest.Listener listener) {
+            return new LoadRequest(this, "PUT", "/account", workload.newAccount(), intendedNanos, listener);
+        }
+    },
+    /**
+     * Pays a cent between two accounts, {@code PUT /payment}.
+     */
+    PAY {
+        @Override
+        /* default */LoadRequest request(final Workload workload, final long intendedNanos,
+                final LoadRequest.Listener listener) {
+            return new LoadRequest(this, "PUT", "/payment", workload.newPayment(), intendedNanos, listener);
+        }
+    },
+    /**
+     * Reads an account, {@code GET /account/{id}}.
+     */
+    READ_ACCOUNT {
+        @Override
+        /* default */LoadRequest request(final Workload workload, final long intendedNanos,
+                final LoadRequest.Listener listener) {
+            return new LoadRequest(this, "GET", "/account/" + workload.pickAccount(), null, intendedNanos,
+                    listener);
+        }
+    },
+    /**
+     * Lists the payments of an account with the running balance, {@code GET /payment/statement}.
+     */
+    LIST_STATEMENT {
+        @Override
+        /* default */LoadRequest request(final Workload workload, final long intendedNanos,
+                final LoadRequest.Listener listener) {
+            return new LoadRequest(this, "GET", "/payment/statement?" + workload.statementQuery(), null,
+                    intendedNanos, listener);
+        }
+    };
+
+    /**
+     * @param workload      source of the accounts and the bodies.
+     * @param intendedNanos {@link System#nanoTime()} the request is scheduled to be sent at.
+     * @param listener      listener of the response.
+     * @return the request of the operation.
+     */
+    /* default */abstract LoadRequest request(Workload workload, long intendedNanos, LoadRequest.Listener listener);
+}
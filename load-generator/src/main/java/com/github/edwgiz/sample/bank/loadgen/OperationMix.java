@@ -0,0 +1,72 @@
+package com.github.edwgiz.sample.bank.loadgen;
+
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Weighted choice of the operations of a scenario.
+ */
+final class OperationMix {
+
+    private final Map<Operation, Integer> weights;
+    private final Operation[] operations;
+    private final int[] cumulative;
+
+    private OperationMix(final Map<Operation, Integer> value) {
+        this.weights = Collections.unmodifiableMap(value);
+        this.operations = value.keySet().toArray(new Operation[0]);
+        this.cumulative = new int[operations.length];
+        int total = 0;
+        for (int i = 0; i < operations.length; i++) {
+            total += value.get(operations[i]);
+            cumulative[i] = total;
+        }
+        if (total == 0) {
+            throw new IllegalArgumentException("The operation mix is empty");
+        }
+    }
+
+    /**
+     * @param mix comma separated weights of the operations, like {@code PAY=6,READ_ACCOUNT=10}.
+     * @return the mix.
+     * @throws IllegalArgumentException if an operation or a weight is invalid.
+     */
+    /* default */static OperationMix parse(final String mix) {
+        final Map<Operation, Integer> weights = new EnumMap<>(Operation.class);
+        for (final String entry : mix.split(",")) {
+            final String[] pair = entry.split("=", 2);
+            if (pair.length != 2) {
+                throw new IllegalArgumentException("'" + entry + "' must be an operation and its weight");
+            }
+            final int weight = Integer.parseInt(pair[1].trim());
+            if (weight < 0) {
+                throw new IllegalArgumentException("'" + entry + "' weight must not be negative");
+            }
+            weights.put(Operation.valueOf(pair[0].trim().toUpperCase(Locale.ROOT)), weight);
+        }
+        return new OperationMix(weights);
+    }
+
+    /**
+     * @param random source of the randomness.
+     * @return the next operation.
+     */
+    /* default */Operation next(final Random random) {
+        final int value = random.nextInt(cumulative[cumulative.length - 1]);
+        int index = 0;
+        while (cumulative[index] <= value) {
+            index++;
+        }
+        return operations[index];
+    }
+
+    /**
+     * @return weights of the operations.
+     */
+    /* default */Map<Operation, Integer> getWeights() {
+        return weights;
+    }
+}
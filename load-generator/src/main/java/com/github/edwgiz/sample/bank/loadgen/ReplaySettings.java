@@ -0,0 +1,89 @@
+package com.github.edwgiz.sample.bank.loadgen;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+/**
+ * Settings of a traffic replay, read from the {@code replay.*} properties.
+ */
+final class ReplaySettings {
+
+    /**
+     * Traffic capture of the microservice to replay, the replay is run instead of the load if it's given.
+     */
+    /* default */static final String PROPERTY_FILE = "replay.file";
+    /**
+     * Base url of the test instance.
+     */
+    /* default */static final String PROPERTY_URL = "replay.url";
+    /**
+     * Times faster than captured, {@code 1} to replay in real time, {@code 0} as fast as possible.
+     */
+    /* default */static final String PROPERTY_SPEED = "replay.speed";
+    /**
+     * Maximum number of the keep-alive connections.
+     */
+    /* default */static final String PROPERTY_CONNECTIONS = "replay.connections";
+    /**
+     * Json file of the report.
+     */
+    /* default */static final String PROPERTY_REPORT_FILE = "replay.report.file";
+
+    private final Path file;
+    private final URI url;
+    private final double speed;
+    private final int connections;
+    private final String reportFile;
+
+    private ReplaySettings(final Properties properties) {
+        final String capture = properties.getProperty(PROPERTY_FILE);
+        if (capture == null) {
+            throw new IllegalArgumentException(PROPERTY_FILE + " is required");
+        }
+        this.file = Paths.get(capture);
+        this.url = URI.create(properties.getProperty(PROPERTY_URL, "http://127.0.0.1:8080"));
+        this.speed = Double.parseDouble(properties.getProperty(PROPERTY_SPEED, "1"));
+        this.connections = Integer.parseInt(properties.getProperty(PROPERTY_CONNECTIONS, "64"));
+        this.reportFile = properties.getProperty(PROPERTY_REPORT_FILE, "replay-report.json");
+        if (speed < 0.0) {
+            throw new IllegalArgumentException(PROPERTY_SPEED + " must not be negative");
+        }
+        if (connections <= 0) {
+            throw new IllegalArgumentException(PROPERTY_CONNECTIONS + " must be positive");
+        }
+    }
+
+    /**
+     * @param properties properties to read, like the system ones.
+     * @return the settings.
+     * @throws IllegalArgumentException if a property is missing or invalid.
+     */
+    /* default */static ReplaySettings from(final Properties properties) {
+        return new ReplaySettings(properties);
+    }
+
+    /* default */Path getFile() {
+        return file;
+    }
+
+    /* default */URI getUrl() {
+        return url;
+    }
+
+    /**
+     * @return times faster than captured, {@code 0} for as fast as possible.
+     */
+    /* default */double getSpeed() {
+        return speed;
+    }
+
+    /* default */int getConnections() {
+        return connections;
+    }
+
+    /* default */String getReportFile() {
+        return reportFile;
+    }
+}
@@ -0,0 +1,115 @@
+package com.github.edwgiz.sample.bank.loadgen;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Captured request in a replay, sent when both its time comes and its prerequisites complete.
+ * <p>
+ * The prerequisites keep the order of the requests touching an account: a request waits for the ones of its accounts
+ * which had been completed before it arrived in the capture, while the ones overlapping it in the capture may overlap
+ * it in the replay too, so the contention of a hot account is reproduced rather than serialized.
+ */
+final class ReplayStep {
+
+    private final CapturedRequest captured;
+    private final List<ReplayStep> prerequisites;
+    private final List<ReplayStep> dependents;
+    /**
+     * Number of the incomplete prerequisites, plus one until the time of the request comes.
+     */
+    private final AtomicInteger blockers;
+
+    private ReplayStep(final CapturedRequest value) {
+        this.captured = value;
+        this.prerequisites = new ArrayList<>();
+        this.dependents = new ArrayList<>();
+        this.blockers = new AtomicInteger(1);
+    }
+
+    /**
+     * @param requests captured requests in the arrival order.
+     * @return steps of the requests in the same order, linked to their prerequisites.
+     */
+    /* default */static List<ReplayStep> plan(final List<CapturedRequest> requests) {
+        final List<ReplayStep> result = new ArrayList<>(requests.size());
+        final Map<Long, AccountOrder> accounts = new HashMap<>();
+        for (final CapturedRequest request : requests) {
+            final ReplayStep step = new ReplayStep(request);
+            for (final long accountId : request.getAccountIds()) {
+                accounts.computeIfAbsent(accountId, id -> new AccountOrder()).add(step);
+            }
+            result.add(step);
+        }
+        return result;
+    }
+
+    /* default */CapturedRequest getCaptured() {
+        return captured;
+    }
+
+    /* default */List<ReplayStep> getPrerequisites() {
+        return prerequisites;
+    }
+
+    /* default */List<ReplayStep> getDependents() {
+        return dependents;
+    }
+
+    /**
+     * Called once when the time of the request comes, and by every prerequisite on its completion.
+     *
+     * @return whether the request is to be sent now.
+     */
+    /* default */boolean release() {
+        return blockers.decrementAndGet() == 0;
+    }
+
+    private void link(final ReplayStep prerequisite) {
+        if (!prerequisites.contains(prerequisite)) {
+            prerequisites.add(prerequisite);
+            prerequisite.dependents.add(this);
+            blockers.incrementAndGet();
+        }
+    }
+
+    /**
+     * Requests of an account.
+     */
+    private static final class AccountOrder {
+
+        /**
+         * Requests still running at the last arrival, by their ends.
+         */
+        private final Queue<ReplayStep> running;
+        /**
+         * Requests ended by the last arrival, except the prerequisites of the other ended ones, as waiting for those
+         * implies waiting for the prerequisites.
+         */
+        private final List<ReplayStep> ended;
+
+        /* default */AccountOrder() {
+            this.running = new PriorityQueue<>(Comparator.comparingLong(step -> step.captured.getEndMicros()));
+            this.ended = new ArrayList<>();
+        }
+
+        /* default */void add(final ReplayStep step) {
+            final long arrival = step.captured.getArrivalMicros();
+            while (!running.isEmpty() && running.peek().captured.getEndMicros() <= arrival) {
+                final ReplayStep completed = running.poll();
+                ended.removeAll(completed.prerequisites);
+                ended.add(completed);
+            }
+            for (final ReplayStep prerequisite : ended) {
+                step.link(prerequisite);
+            }
+            running.add(step);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.github.edwgiz.sample.bank.loadgen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Replays a traffic capture against a test instance: the requests are sent at their captured times since the first
+ * one, scaled by the speed, or as fast as possible, and each waits for its prerequisites of {@link ReplayStep} too.
+ * The latency of a request is measured from its captured time or from the completion of its last prerequisite,
+ * whichever is later, so a slow test instance isn't hidden by the coordinated omission either.
+ * <p>
+ * The report has the outcomes per endpoint, with the server-side durations of the captured requests to compare the
+ * service times with, and the mismatches, the requests responded with another status than the captured one. The test
+ * instance should start in the state the captured one did, like with the same synthetic dataset, for the statuses to
+ * match. The replay waits for the responses until none completes for {@value #DRAIN_SECONDS} seconds.
+ */
+final class TrafficReplay {
+
+    /**
+     * Maximum wait for a response after the last one.
+     */
+    /* default */static final long DRAIN_SECONDS = 10L;
+    private static final long DRAIN_POLL_MILLIS = 10L;
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    private final ReplaySettings settings;
+    private final LongAdder completed;
+    /**
+     * Numbers of the mismatches per endpoint and per the captured and the replayed statuses.
+     */
+    private final ConcurrentMap<String, ConcurrentMap<String, LongAdder>> mismatches;
+    private LoadClient client;
+    private LoadRecorder recorder;
+
+    /**
+     * @param value settings of the replay.
+     */
+    /* default */TrafficReplay(final ReplaySettings value) {
+        this.settings = value;
+        this.completed = new LongAdder();
+        this.mismatches = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * @return the report of the replay.
+     * @throws IOException          if the capture can't be read.
+     * @throws InterruptedException if interrupted.
+     */
+    /* default */ObjectNode run() throws IOException, InterruptedException {
+        final List<ReplayStep> steps = ReplayStep.plan(CapturedRequest.read(settings.getFile()));
+        try (LoadClient loadClient = new LoadClient(settings.getUrl(), settings.getConnections())) {
+            client = loadClient;
+            return replay(steps);
+        }
+    }
+
+    private ObjectNode replay(final List<ReplayStep> steps) throws InterruptedException {
+        final long start = System.nanoTime();
+        recorder = new LoadRecorder(start);
+        final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "replay-timeline");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(recorder::tick, 1L, 1L, SECONDS);
+        final double speed = settings.getSpeed();
+        final long firstArrival = steps.isEmpty() ? 0L : steps.get(0).getCaptured().getArrivalMicros();
+        for (final ReplayStep step : steps) {
+            long intended = System.nanoTime();
+            if (speed > 0.0) {
+                intended = start + (long) (MICROSECONDS.toNanos(step.getCaptured().getArrivalMicros() - firstArrival)
+                        / speed);
+                LoadGenerator.parkUntil(intended);
+            }
+            if (step.release()) {
+                send(step, intended);
+            }
+        }
+        long progress = -1L;
+        long drainEnd = System.nanoTime() + SECONDS.toNanos(DRAIN_SECONDS);
+        for (long done = completed.sum(); done < steps.size() && System.nanoTime() - drainEnd < 0L;
+             done = completed.sum()) {
+            if (done > progress) {
+                progress = done;
+                drainEnd = System.nanoTime() + SECONDS.toNanos(DRAIN_SECONDS);
+            }
+            Thread.sleep(DRAIN_POLL_MILLIS);
+        }
+        ticker.shutdownNow();
+        recorder.timeOut();
+        recorder.tick();
+        return report(steps, (System.nanoTime() - start) / NANOS_PER_SECOND);
+    }
+
+    private void send(final ReplayStep step, final long intendedNanos) {
+        final CapturedRequest captured = step.getCaptured();
+        client.submit(recorder.track(new LoadRequest(null, captured.getLabel(), captured.getMethod(),
+                captured.getUri(), captured.getBody(), intendedNanos,
+                (request, status, response) -> completed(step, request, status))));
+    }
+
+    private void completed(final ReplayStep step, final LoadRequest request, final int status) {
+        recorder.completed(request, status, null);
+        final CapturedRequest captured = step.getCaptured();
+        if (status != captured.getStatus()) {
+            mismatches.computeIfAbsent(request.getLabel(), label -> new ConcurrentHashMap<>())
+                    .computeIfAbsent(captured.getStatus() + "->" + status, statuses -> new LongAdder()).increment();
+        }
+        completed.increment();
+        final long now = System.nanoTime();
+        for (final ReplayStep dependent : step.getDependents()) {
+            if (dependent.release()) {
+                send(dependent, now);
+            }
+        }
+    }
+
+    private ObjectNode report(final List<ReplayStep> steps, final double seconds) {
+        final Map<String, Histogram> capturedDurations = new TreeMap<>();
+        long dependencies = 0L;
+        for (final ReplayStep step : steps) {
+            final CapturedRequest captured = step.getCaptured();
+            capturedDurations.computeIfAbsent(captured.getLabel(), label -> new Histogram(SIGNIFICANT_DIGITS))
+                    .recordValue(captured.getDurationMicros());
+            dependencies += step.getPrerequisites().size();
+        }
+        final ObjectNode report = JsonNodeFactory.instance.objectNode();
+        report.put("file", settings.getFile().toString())
+                .put("url", settings.getUrl().toString())
+                .put("speed", settings.getSpeed())
+                .put("connections", settings.getConnections())
+                .put("captured", steps.size())
+                .put("capturedSeconds", steps.isEmpty() ? 0.0 : MICROSECONDS.toNanos(
+                        steps.get(steps.size() - 1).getCaptured().getArrivalMicros()
+                                - steps.get(0).getCaptured().getArrivalMicros()) / NANOS_PER_SECOND)
+                .put("orderingDependencies", dependencies)
+                .put("unfinished", steps.size() - completed.sum());
+        recorder.report(report, seconds);
+        long total = 0L;
+        for (final Iterator<Map.Entry<String, JsonNode>> operations = report.get("operations").fields();
+             operations.hasNext();) {
+            final Map.Entry<String, JsonNode> operation = operations.next();
+            final ObjectNode node = (ObjectNode) operation.getValue();
+            LoadRecorder.putPercentiles(node.putObject("capturedDurationMillis"),
+                    capturedDurations.get(operation.getKey()));
+            final ObjectNode statuses = node.putObject("mismatches");
+            for (final Map.Entry<String, LongAdder> mismatch : new TreeMap<>(mismatches.getOrDefault(
+                    operation.getKey(), new ConcurrentHashMap<>())).entrySet()) {
+                statuses.put(mismatch.getKey(), mismatch.getValue().sum());
+                total += mismatch.getValue().sum();
+            }
+        }
+        report.put("mismatches", total);
+        return report;
+    }
+}
@@ -0,0 +1,80 @@
+package com.github.edwgiz.sample.bank.loadgen;
+
+import java.time.LocalDateTime;
+import java.util.Random;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.time.format.DateTimeFormatter.ISO_LOCAL_DATE_TIME;
+import static java.time.temporal.ChronoUnit.SECONDS;
+
+/**
+ * Random requests of a scenario, not thread-safe, so used by the scheduling thread only.
+ */
+final class Workload {
+
+    /**
+     * Amount of a payment, small enough to never exhaust the funded accounts.
+     */
+    /* default */static final String PAYMENT_AMOUNT = "0.01";
+
+    private final OperationMix mix;
+    private final AccountDistribution accounts;
+    private final Random random;
+    private final String statementInterval;
+    private long createdAccounts;
+
+    /**
+     * @param operations weights of the operations.
+     * @param picker     distribution of the accounts.
+     * @param seeded     source of the randomness.
+     * @param now        current UTC time, the statements span a day before and after it.
+     */
+    /* default */Workload(final OperationMix operations, final AccountDistribution picker, final Random seeded,
+            final LocalDateTime now) {
+        this.mix = operations;
+        this.accounts = picker;
+        this.random = seeded;
+        final LocalDateTime time = now.truncatedTo(SECONDS);
+        this.statementInterval = "&from=" + ISO_LOCAL_DATE_TIME.format(time.minusDays(1))
+                + "&to=" + ISO_LOCAL_DATE_TIME.format(time.plusDays(1));
+    }
+
+    /**
+     * @param intendedNanos {@link System#nanoTime()} the request is scheduled to be sent at.
+     * @param listener      listener of the response.
+     * @return request of an operation picked by the mix.
+     */
+    /* default */LoadRequest next(final long intendedNanos, final LoadRequest.Listener listener) {
+        return mix.next(random).request(this, intendedNanos, listener);
+    }
+
+    /* default */byte[] newAccount() {
+        createdAccounts++;
+        return ("{\"ownerName\":\"load-" + createdAccounts + "\"}").getBytes(UTF_8);
+    }
+
+    /* default */byte[] newPayment() {
+        final long withdrawalAccountId = accounts.pick(random);
+        return payment(withdrawalAccountId, accounts.pickOther(random, withdrawalAccountId), PAYMENT_AMOUNT);
+    }
+
+    /* default */long pickAccount() {
+        return accounts.pick(random);
+    }
+
+    /* default */String statementQuery() {
+        return "accountId=" + accounts.pick(random) + statementInterval;
+    }
+
+    /**
+     * @param withdrawalAccountId account to withdraw from.
+     * @param depositAccountId    account to deposit to.
+     * @param amount              amount of the payment.
+     * @return body of the payment request.
+     */
+    /* default */static byte[] payment(final long withdrawalAccountId, final long depositAccountId,
+            final String amount) {
+        return ("{\"amount\":" + amount + ",\"withdrawalAccountId\":" + withdrawalAccountId
+                + ",\"depositAccountId\":" + depositAccountId + ",\"comment\":\"load\"}").getBytes(UTF_8);
+    }
+}
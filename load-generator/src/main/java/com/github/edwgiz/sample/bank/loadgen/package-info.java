@@ -0,0 +1,6 @@
+/**
+ * Open-loop load generator of the account microservice. The requests are sent at a fixed arrival rate whatever the
+ * responses, and their latencies are measured from the intended send times, so the queueing delay isn't hidden by
+ * the coordinated omission of a closed-loop client.
+ */
+package com.github.edwgiz.sample.bank.loadgen;
@@ -0,0 +1,56 @@
+package com.github.edwgiz.sample.bank.loadgen;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AccountDistributionTest {
+
+    private static final long[] ACCOUNT_IDS = {10L, 20L, 30L, 40L};
+    private static final int SAMPLES = 10_000;
+    private static final int TOLERANCE = 300;
+    /**
+     * {@code 1 / (1 + 1/2 + 1/3 + 1/4)} of the samples.
+     */
+    private static final int FIRST_OF_ZIPF = 4800;
+
+    @Test
+    /* default */void testUniform() {
+        final int[] counts = sample(AccountDistribution.uniform(ACCOUNT_IDS));
+        for (final int count : counts) {
+            assertEquals(SAMPLES / ACCOUNT_IDS.length, count, TOLERANCE);
+        }
+    }
+
+    @Test
+    /* default */void testZipf() {
+        final int[] counts = sample(AccountDistribution.zipf(ACCOUNT_IDS, 1.0));
+        assertEquals(FIRST_OF_ZIPF, counts[0], TOLERANCE);
+        for (int i = 1; i < counts.length; i++) {
+            assertTrue(counts[i - 1] > counts[i], counts[i - 1] + " > " + counts[i]);
+        }
+    }
+
+    @Test
+    /* default */void testPickOther() {
+        final AccountDistribution distribution = AccountDistribution.zipf(ACCOUNT_IDS, 2.0);
+        final Random random = new Random(1L);
+        for (int i = 0; i < SAMPLES; i++) {
+            assertNotEquals(ACCOUNT_IDS[0], distribution.pickOther(random, ACCOUNT_IDS[0]));
+        }
+    }
+
+    private static int[] sample(final AccountDistribution distribution) {
+        final int[] counts = new int[ACCOUNT_IDS.length];
+        final Random random = new Random(1L);
+        for (int i = 0; i < SAMPLES; i++) {
+            final long accountId = distribution.pick(random);
+            counts[(int) (accountId / ACCOUNT_IDS[0]) - 1]++;
+        }
+        return counts;
+    }
+}
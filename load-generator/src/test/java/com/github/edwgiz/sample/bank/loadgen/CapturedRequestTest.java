@@ -0,0 +1,133 @@
+package com.github.edwgiz.sample.bank.loadgen;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CapturedRequestTest {
+
+    private static final byte[] MAGIC = {'B', 'A', 'N', 'K', 'C', 'A', 'P', 1};
+    private static final int OK = 200;
+    private static final int CONFLICT = 409;
+    private static final long START_MILLIS = 1_600_000_000_000L;
+    private static final long FIRST_MICROS = 1000L;
+    private static final long SECOND_MICROS = 300L;
+    private static final long DURATION_MICROS = 2500L;
+    private static final int PAYLOAD_BITS = 7;
+    private static final int PAYLOAD_MASK = 0x7f;
+    private static final int CONTINUATION = 0x80;
+    private static final int SIGN_SHIFT = 63;
+    private static final int FIRST_STRING = 3;
+    private static final long STATEMENT_ACCOUNT_ID = 7L;
+    private static final long DEPOSIT_ACCOUNT_ID = 12L;
+    private static final long READ_ACCOUNT_ID = 15L;
+    private static final long UPDATED_ACCOUNT_ID = 3L;
+    private static final int PLAIN_TEXT = 3;
+
+    @Test
+    /* default */void testRead(@TempDir final Path dir) throws IOException {
+        final Path file = dir.resolve("capture.bin");
+        // written in the order of the responses
+        write(file, new Object[]{FIRST_MICROS, DURATION_MICROS, CONFLICT, "PUT", "/payment", "",
+                "{\"amount\":1,\"withdrawalAccountId\":0,\"depositAccountId\":12,\"comment\":\"x\"}"},
+                new Object[]{SECOND_MICROS - FIRST_MICROS, DURATION_MICROS, OK, "GET", "/payment/statement",
+                        "accountId=7&from=2020-01-01T00%3A00&otherAccountId=x", ""});
+        final List<CapturedRequest> requests = CapturedRequest.read(file);
+        assertEquals(2, requests.size());
+
+        final CapturedRequest statement = requests.get(0);
+        assertEquals(SECOND_MICROS, statement.getArrivalMicros());
+        assertEquals(SECOND_MICROS + DURATION_MICROS, statement.getEndMicros());
+        assertEquals(OK, statement.getStatus());
+        assertEquals("GET", statement.getMethod());
+        assertEquals("/payment/statement?accountId=7&from=2020-01-01T00%3A00&otherAccountId=x",
+                statement.getUri());
+        assertNull(statement.getBody());
+        assertEquals("GET /payment/statement", statement.getLabel());
+        assertArrayEquals(new long[]{STATEMENT_ACCOUNT_ID}, statement.getAccountIds());
+
+        final CapturedRequest payment = requests.get(1);
+        assertEquals(FIRST_MICROS, payment.getArrivalMicros());
+        assertEquals(DURATION_MICROS, payment.getDurationMicros());
+        assertEquals(CONFLICT, payment.getStatus());
+        assertEquals("/payment", payment.getUri());
+        assertEquals("PUT /payment", payment.getLabel());
+        assertArrayEquals(new long[]{0L, DEPOSIT_ACCOUNT_ID}, payment.getAccountIds());
+    }
+
+    @Test
+    /* default */void testAccountIds(@TempDir final Path dir) throws IOException {
+        final Path file = dir.resolve("capture.bin");
+        write(file, new Object[]{0L, 0L, OK, "GET", "/account/15/balance", "at=2020-01-01T00%3A00", ""},
+                new Object[]{0L, 0L, OK, "POST", "/account", "", "{\"accountId\":3,\"ownerName\":\"x\"}"},
+                new Object[]{0L, 0L, OK, "PUT", "/account", "", "{broken"},
+                new Object[]{0L, 0L, OK, "PUT", "/files", "", "plain text"});
+        final List<CapturedRequest> requests = CapturedRequest.read(file);
+        assertEquals("GET /account/{id}/balance", requests.get(0).getLabel());
+        assertArrayEquals(new long[]{READ_ACCOUNT_ID}, requests.get(0).getAccountIds());
+        assertArrayEquals(new long[]{UPDATED_ACCOUNT_ID}, requests.get(1).getAccountIds());
+        assertArrayEquals(new long[0], requests.get(2).getAccountIds());
+        assertArrayEquals(new long[0], requests.get(PLAIN_TEXT).getAccountIds());
+    }
+
+    @Test
+    /* default */void testInvalid(@TempDir final Path dir) throws IOException {
+        final Path file = dir.resolve("capture.bin");
+        Files.write(file, "BANKCAP".getBytes(UTF_8));
+        assertThrows(IOException.class, () -> CapturedRequest.read(file));
+        Files.write(file, "BANKCAP\2-".getBytes(UTF_8));
+        assertThrows(IOException.class, () -> CapturedRequest.read(file));
+
+        write(file, new Object[]{0L, 0L, OK, "GET", "/account/1", "", ""});
+        final byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 1));
+        assertEquals(0, CapturedRequest.read(file).size()); // the truncated record is skipped
+    }
+
+    /**
+     * Writes a capture file of the format of {@code TrafficCapture}.
+     *
+     * @param file    file to write.
+     * @param records records of the arrival since the previous one and the duration in microseconds, the
+     *                status, the method, the path, the query and the body.
+     * @throws IOException if the file can't be written.
+     */
+    /* default */static void write(final Path file, final Object[]... records) throws IOException {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(MAGIC, 0, MAGIC.length);
+        writeNumber(out, START_MILLIS);
+        for (final Object[] record : records) {
+            final long delta = (Long) record[0];
+            writeNumber(out, delta << 1 ^ delta >> SIGN_SHIFT);
+            writeNumber(out, (Long) record[1]);
+            writeNumber(out, (Integer) record[2]);
+            for (int i = FIRST_STRING; i < record.length; i++) {
+                final byte[] bytes = ((String) record[i]).getBytes(UTF_8);
+                writeNumber(out, bytes.length);
+                out.write(bytes, 0, bytes.length);
+            }
+        }
+        Files.write(file, out.toByteArray());
+    }
+
+    private static void writeNumber(final ByteArrayOutputStream out, final long value) {
+        long rest = value;
+        while ((rest & ~PAYLOAD_MASK) != 0L) {
+            out.write((int) rest & PAYLOAD_MASK | CONTINUATION);
+            rest >>>= PAYLOAD_BITS;
+        }
+        out.write((int) rest);
+    }
+}
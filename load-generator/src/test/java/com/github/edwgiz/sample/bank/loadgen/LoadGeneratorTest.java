@@ -0,0 +1,138 @@
+package com.github.edwgiz.sample.bank.loadgen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.glassfish.grizzly.http.Method;
+import org.glassfish.grizzly.http.server.HttpHandler;
+import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.grizzly.http.server.Request;
+import org.glassfish.grizzly.http.server.Response;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Loads a local stub of the microservice, conflicting on every third payment, closing the connection after an
+ * account read, dropping the first statement request and failing the next ones slowly.
+ */
+class LoadGeneratorTest {
+
+    private static final int OK = 200;
+    private static final int CONFLICT = 409;
+    private static final int ERROR = 500;
+    private static final int CONFLICT_PERIOD = 3;
+    private static final long STATEMENT_MILLIS = 50L;
+    private static final int RATE = 200;
+    private static final int DURATION_SECONDS = 2;
+    private static final int ACCOUNTS = 5;
+    private static final double DELTA = 1e-9;
+
+    @Test
+    /* default */void testRun(@TempDir final File directory) throws Exception {
+        final int port = freePort();
+        final HttpServer server = startStub(port);
+        final File reportFile = new File(directory, "report.json");
+        final Properties properties = System.getProperties();
+        try {
+            properties.setProperty(LoadSettings.PROPERTY_URL, "http://localhost:" + port);
+            properties.setProperty(LoadSettings.PROPERTY_RATE, Integer.toString(RATE));
+            properties.setProperty(LoadSettings.PROPERTY_DURATION_SECONDS, Integer.toString(DURATION_SECONDS));
+            properties.setProperty(LoadSettings.PROPERTY_CONNECTIONS, "4");
+            properties.setProperty(LoadSettings.PROPERTY_ACCOUNTS, Integer.toString(ACCOUNTS));
+            properties.setProperty(LoadSettings.PROPERTY_DISTRIBUTION, "zipf");
+            properties.setProperty(LoadSettings.PROPERTY_REPORT_FILE, reportFile.getPath());
+            LoadGeneratorMain.main(new String[0]);
+        } finally {
+            for (final String name : new String[]{LoadSettings.PROPERTY_URL, LoadSettings.PROPERTY_RATE,
+                    LoadSettings.PROPERTY_DURATION_SECONDS, LoadSettings.PROPERTY_CONNECTIONS,
+                    LoadSettings.PROPERTY_ACCOUNTS, LoadSettings.PROPERTY_DISTRIBUTION,
+                    LoadSettings.PROPERTY_REPORT_FILE}) {
+                properties.remove(name);
+            }
+            server.shutdownNow();
+        }
+
+        final JsonNode report = new ObjectMapper().readTree(reportFile);
+        assertEquals(RATE * DURATION_SECONDS, report.get("scheduled").asLong());
+        assertEquals(0L, report.get("unfinished").asLong());
+        assertEquals(report.get("scheduled").asLong(), report.get("requests").asLong());
+        assertEquals(ACCOUNTS, report.get("accounts").asInt());
+        assertEquals("zipf", report.get("distribution").asText());
+
+        final JsonNode operations = report.get("operations");
+        final JsonNode pay = operations.get(Operation.PAY.name());
+        assertTrue(pay.get("conflicts").asLong() > 0L, pay.toString());
+        assertEquals(pay.get("conflicts").asDouble() / pay.get("requests").asDouble(),
+                pay.get("conflictRate").asDouble(), DELTA);
+        assertTrue(operations.get(Operation.READ_ACCOUNT.name()).get("ok").asLong() > 0L);
+        assertTrue(operations.get(Operation.CREATE_ACCOUNT.name()).get("ok").asLong() > 0L);
+        final JsonNode statement = operations.get(Operation.LIST_STATEMENT.name());
+        assertEquals(1L, statement.get("failures").asLong(), statement.toString());
+        assertEquals(statement.get("requests").asLong() - 1L, statement.get("errors").asLong());
+        final JsonNode latency = statement.get("latencyMillis");
+        assertTrue(latency.get("99.0").asDouble() >= STATEMENT_MILLIS, latency.toString());
+        assertTrue(latency.get("max").asDouble() >= statement.get("serviceTimeMillis").get("max").asDouble());
+        assertTrue(statement.get("latencyHistogram").asText().length() > 0);
+
+        long timelineRequests = 0;
+        for (final JsonNode entry : report.get("timeline")) {
+            timelineRequests += entry.get("requests").asLong();
+        }
+        assertTrue(report.get("timeline").size() >= DURATION_SECONDS);
+        assertEquals(report.get("requests").asLong(), timelineRequests);
+    }
+
+    @Test
+    /* default */void testUnreachable() throws IOException {
+        final Properties properties = new Properties();
+        properties.setProperty(LoadSettings.PROPERTY_URL, "http://localhost:" + freePort());
+        properties.setProperty(LoadSettings.PROPERTY_ACCOUNTS, "2");
+        final LoadGenerator generator = new LoadGenerator(LoadSettings.from(properties));
+        final IOException ex = assertThrows(IOException.class, generator::run);
+        assertEquals("Setup of the accounts failed: PUT /account responded with 0 status", ex.getMessage());
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static HttpServer startStub(final int port) throws IOException {
+        final AtomicInteger accounts = new AtomicInteger();
+        final AtomicInteger payments = new AtomicInteger();
+        final AtomicBoolean statementDropped = new AtomicBoolean();
+        final HttpServer server = HttpServer.createSimpleServer(null, "localhost", port);
+        server.getServerConfiguration().addHttpHandler(new HttpHandler() {
+            @Override
+            public void service(final Request request, final Response response) throws Exception {
+                final String uri = request.getRequestURI();
+                if ("/account".equals(uri)) {
+                    response.setContentType("application/json");
+                    response.getWriter().write("{\"accountId\":" + accounts.incrementAndGet() + "}");
+                } else if ("/payment".equals(uri)) {
+                    response.setStatus(payments.incrementAndGet() % CONFLICT_PERIOD == 0 ? CONFLICT : OK);
+                } else if (request.getMethod() == Method.GET && uri.startsWith("/account/")) {
+                    response.setHeader("Connection", "close");
+                } else if (statementDropped.compareAndSet(false, true)) {
+                    request.getContext().getConnection().closeSilently();
+                } else {
+                    Thread.sleep(STATEMENT_MILLIS);
+                    response.setStatus(ERROR);
+                }
+            }
+        }, "/");
+        server.start();
+        return server;
+    }
+}
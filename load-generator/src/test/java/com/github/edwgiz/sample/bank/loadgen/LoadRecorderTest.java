@@ -0,0 +1,48 @@
+package com.github.edwgiz.sample.bank.loadgen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoadRecorderTest {
+
+    private static final int STATUS_OK = 200;
+    private static final long STALLED_MILLIS = 1000L;
+
+    @Test
+    /* default */void testTimeOut() {
+        final long start = System.nanoTime();
+        final LoadRecorder recorder = new LoadRecorder(start, Operation.PAY.name());
+        final LoadRequest responded = recorder.track(request(start, recorder));
+        final LoadRequest stalled = recorder.track(request(start - MILLISECONDS.toNanos(STALLED_MILLIS), recorder));
+        responded.complete(STATUS_OK, null);
+        request(start, recorder).complete(STATUS_OK, null); // not tracked
+        recorder.timeOut();
+        stalled.complete(STATUS_OK, null); // too late
+        recorder.tick();
+        assertEquals(1L, recorder.getCompleted());
+
+        final ObjectNode report = JsonNodeFactory.instance.objectNode();
+        recorder.report(report, 1.0);
+        assertEquals(2L, report.get("requests").asLong());
+        assertEquals(1L, report.get("ok").asLong());
+        assertEquals(1L, report.get("timedOut").asLong());
+        final JsonNode pay = report.get("operations").get(Operation.PAY.name());
+        assertEquals(1L, pay.get("timedOut").asLong());
+        // the stalled request is the slowest one
+        final JsonNode latency = pay.get("latencyMillis");
+        assertTrue(latency.get("max").asDouble() >= STALLED_MILLIS, latency.toString());
+        assertTrue(pay.get("serviceTimeMillis").get("max").asDouble() < STALLED_MILLIS);
+    }
+
+    private static LoadRequest request(final long intended, final LoadRecorder recorder) {
+        final LoadRequest result = new LoadRequest(Operation.PAY, "PUT", "/payment", null, intended, recorder);
+        result.sent();
+        return result;
+    }
+}
@@ -0,0 +1,66 @@
+package com.github.edwgiz.sample.bank.loadgen;
+
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LoadSettingsTest {
+
+    private static final int DEFAULT_RATE = 500;
+    private static final int DEFAULT_ACCOUNTS = 1000;
+    private static final int DEFAULT_CONNECTIONS = 64;
+    private static final int DEFAULT_DURATION = 60;
+    private static final double EXPONENT = 1.2;
+    private static final double DELTA = 1e-9;
+    private static final long SEED = 7L;
+
+    @Test
+    /* default */void testDefaults() {
+        final LoadSettings settings = LoadSettings.from(new Properties());
+        assertEquals(URI.create("http://127.0.0.1:8080"), settings.getUrl());
+        assertEquals(DEFAULT_RATE, settings.getRate());
+        assertEquals(DEFAULT_DURATION, settings.getDurationSeconds());
+        assertEquals(DEFAULT_CONNECTIONS, settings.getConnections());
+        assertEquals(DEFAULT_ACCOUNTS, settings.getAccounts());
+        assertFalse(settings.isZipf());
+        assertEquals(1.0, settings.getZipfExponent(), DELTA);
+        assertEquals(Operation.values().length, settings.getMix().getWeights().size());
+        assertEquals(1L, settings.getSeed());
+        assertEquals("load-report.json", settings.getReportFile());
+    }
+
+    @Test
+    /* default */void testZipf() {
+        final Properties properties = new Properties();
+        properties.setProperty(LoadSettings.PROPERTY_DISTRIBUTION, "Zipf");
+        properties.setProperty(LoadSettings.PROPERTY_ZIPF_EXPONENT, Double.toString(EXPONENT));
+        properties.setProperty(LoadSettings.PROPERTY_MIX, "pay=1");
+        properties.setProperty(LoadSettings.PROPERTY_SEED, Long.toString(SEED));
+        final LoadSettings settings = LoadSettings.from(properties);
+        assertTrue(settings.isZipf());
+        assertEquals(EXPONENT, settings.getZipfExponent(), DELTA);
+        assertEquals(1, settings.getMix().getWeights().get(Operation.PAY));
+        assertEquals(SEED, settings.getSeed());
+    }
+
+    @Test
+    /* default */void testInvalid() {
+        assertInvalid(LoadSettings.PROPERTY_DISTRIBUTION, "pareto");
+        assertInvalid(LoadSettings.PROPERTY_RATE, "0");
+        assertInvalid(LoadSettings.PROPERTY_ACCOUNTS, "1");
+    }
+
+    private static void assertInvalid(final String name, final String value) {
+        final Properties properties = new Properties();
+        properties.setProperty(name, value);
+        final IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> LoadSettings.from(properties));
+        assertTrue(ex.getMessage().startsWith(name), ex.getMessage());
+    }
+}
@@ -0,0 +1,40 @@
+package com.github.edwgiz.sample.bank.loadgen;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class OperationMixTest {
+
+    private static final int SAMPLES = 10_000;
+    private static final int TOLERANCE = 300;
+    private static final int READ_WEIGHT = 3;
+
+    @Test
+    /* default */void testNext() {
+        final OperationMix mix = OperationMix.parse("PAY=1, read_account=3,LIST_STATEMENT=0");
+        final Map<Operation, Integer> counts = new EnumMap<>(Operation.class);
+        final Random random = new Random(1L);
+        for (int i = 0; i < SAMPLES; i++) {
+            counts.merge(mix.next(random), 1, Integer::sum);
+        }
+        assertEquals(SAMPLES / (READ_WEIGHT + 1), counts.get(Operation.PAY), TOLERANCE);
+        assertEquals(SAMPLES * READ_WEIGHT / (READ_WEIGHT + 1), counts.get(Operation.READ_ACCOUNT), TOLERANCE);
+        assertFalse(counts.containsKey(Operation.LIST_STATEMENT));
+        assertEquals(0, mix.getWeights().get(Operation.LIST_STATEMENT));
+    }
+
+    @Test
+    /* default */void testInvalid() {
+        assertThrows(IllegalArgumentException.class, () -> OperationMix.parse("PAY"));
+        assertThrows(IllegalArgumentException.class, () -> OperationMix.parse("PAY=-1"));
+        assertThrows(IllegalArgumentException.class, () -> OperationMix.parse("PAY=0"));
+        assertThrows(IllegalArgumentException.class, () -> OperationMix.parse("REFUND=1"));
+    }
+}
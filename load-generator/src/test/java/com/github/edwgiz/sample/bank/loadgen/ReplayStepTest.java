@@ -0,0 +1,55 @@
+package com.github.edwgiz.sample.bank.loadgen;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReplayStepTest {
+
+    private static final int OK = 200;
+    private static final long SHORT = 5L;
+    private static final long LONG = 10L;
+    private static final long PAUSE = 15L;
+    private static final int PAYMENT = 2;
+    private static final int AFTER_PAYMENT = 3;
+    private static final int OTHER_SIDE = 4;
+    private static final int UNRELATED = 5;
+
+    @Test
+    /* default */void testPlan(@TempDir final Path dir) throws IOException {
+        final Path file = dir.resolve("capture.bin");
+        CapturedRequestTest.write(file,
+                new Object[]{0L, LONG, OK, "GET", "/account/1", "", ""},
+                new Object[]{SHORT, LONG, OK, "GET", "/account/1", "", ""}, // overlaps the first one
+                new Object[]{PAUSE, SHORT, OK, "PUT", "/payment", "",
+                        "{\"withdrawalAccountId\":1,\"depositAccountId\":2}"},
+                new Object[]{LONG, 0L, OK, "GET", "/account/1", "", ""},
+                new Object[]{1L, 0L, OK, "GET", "/account/2", "", ""},
+                new Object[]{1L, 0L, OK, "GET", "/account/3", "", ""});
+        final List<ReplayStep> steps = ReplayStep.plan(CapturedRequest.read(file));
+
+        assertEquals(Collections.emptyList(), steps.get(0).getPrerequisites());
+        assertEquals(Collections.emptyList(), steps.get(1).getPrerequisites());
+        final ReplayStep payment = steps.get(PAYMENT);
+        assertEquals(Arrays.asList(steps.get(0), steps.get(1)), payment.getPrerequisites());
+        // the payment implies its prerequisites
+        assertEquals(Collections.singletonList(payment), steps.get(AFTER_PAYMENT).getPrerequisites());
+        assertEquals(Collections.singletonList(payment), steps.get(OTHER_SIDE).getPrerequisites());
+        assertEquals(Collections.emptyList(), steps.get(UNRELATED).getPrerequisites());
+        assertEquals(Arrays.asList(steps.get(AFTER_PAYMENT), steps.get(OTHER_SIDE)), payment.getDependents());
+
+        assertTrue(steps.get(0).release());
+        assertFalse(payment.release()); // its time comes
+        assertFalse(payment.release());
+        assertTrue(payment.release()); // the last prerequisite completes
+    }
+}
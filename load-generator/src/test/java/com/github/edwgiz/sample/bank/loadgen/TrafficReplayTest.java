@@ -0,0 +1,184 @@
+package com.github.edwgiz.sample.bank.loadgen;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.glassfish.grizzly.http.server.HttpHandler;
+import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.grizzly.http.server.Request;
+import org.glassfish.grizzly.http.server.Response;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ServerSocket;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Properties;
+import java.util.Scanner;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Replays the captures against a local stub of the microservice, which is slow on the first payment, conflicts on
+ * the second one and doesn't know the account 6.
+ */
+class TrafficReplayTest {
+
+    private static final int OK = 200;
+    private static final int NOT_FOUND = 404;
+    private static final int CONFLICT = 409;
+    private static final long SLOW_MILLIS = 100L;
+    private static final long DURATION_MICROS = 1000L;
+    private static final long OVERLAPPING_MICROS = 500L;
+    private static final long SPEED = 4L;
+    private static final long PAUSE_MICROS = 400_000L;
+    private static final long NANOS_PER_MICRO = 1000L;
+    private static final String FIRST_PAYMENT =
+            "{\"withdrawalAccountId\":0,\"depositAccountId\":5,\"comment\":\"slow\"}";
+    private static final long REQUESTS = 4L;
+    private static final double CAPTURED_SECONDS = 0.0015;
+    private static final double CAPTURED_MILLIS = 1.0;
+    private static final double DELTA = 0.01;
+
+    @Test
+    /* default */void testReplay(@TempDir final Path dir) throws Exception {
+        final Path capture = dir.resolve("capture.bin");
+        CapturedRequestTest.write(capture,
+                new Object[]{0L, DURATION_MICROS, OK, "PUT", "/payment", "", FIRST_PAYMENT},
+                // the same bank account as the first payment, but overlapping it
+                new Object[]{OVERLAPPING_MICROS, DURATION_MICROS, OK, "PUT", "/payment", "",
+                        "{\"withdrawalAccountId\":0,\"depositAccountId\":6}"},
+                // after the first payment completed
+                new Object[]{DURATION_MICROS, 0L, OK, "GET", "/account/5", "", ""},
+                new Object[]{0L, 0L, OK, "GET", "/account/6", "", ""});
+        final List<String> events = Collections.synchronizedList(new ArrayList<>());
+        final JsonNode report = replay(dir, capture, "0", events);
+
+        assertEquals(0.0, report.get("speed").asDouble());
+        assertEquals(REQUESTS, report.get("captured").asLong());
+        assertEquals(CAPTURED_SECONDS, report.get("capturedSeconds").asDouble(), DELTA);
+        assertEquals(2L, report.get("orderingDependencies").asLong()); // of the reads on the paid accounts
+        assertEquals(0L, report.get("unfinished").asLong());
+        assertEquals(REQUESTS, report.get("requests").asLong());
+        assertEquals(2L, report.get("mismatches").asLong());
+        final JsonNode operations = report.get("operations");
+        final JsonNode payments = operations.get("PUT /payment");
+        assertEquals(1L, payments.get("conflicts").asLong());
+        assertEquals(1L, payments.get("mismatches").get(OK + "->" + CONFLICT).asLong());
+        assertTrue(payments.get("latencyMillis").get("max").asDouble() >= SLOW_MILLIS);
+        assertEquals(CAPTURED_MILLIS, payments.get("capturedDurationMillis").get("max").asDouble(), DELTA);
+        final JsonNode reads = operations.get("GET /account/{id}");
+        assertEquals(1L, reads.get("mismatches").get(OK + "->" + NOT_FOUND).asLong());
+        // the read of the slowly paid account waited for the payment, the overlapping payment didn't
+        assertTrue(events.indexOf("end " + FIRST_PAYMENT) < events.indexOf("start /account/5"), events.toString());
+        assertTrue(events.indexOf("end " + FIRST_PAYMENT) > events.indexOf("end /payment"), events.toString());
+    }
+
+    @Test
+    /* default */void testSpeed(@TempDir final Path dir) throws Exception {
+        final Path capture = dir.resolve("capture.bin");
+        CapturedRequestTest.write(capture,
+                new Object[]{0L, 0L, OK, "GET", "/account/1", "", ""},
+                new Object[]{PAUSE_MICROS, 0L, OK, "GET", "/account/2", "", ""});
+        final long start = System.nanoTime();
+        final JsonNode report = replay(dir, capture, Long.toString(SPEED), new ArrayList<>());
+        assertTrue(System.nanoTime() - start >= PAUSE_MICROS * NANOS_PER_MICRO / SPEED);
+        assertEquals(0L, report.get("mismatches").asLong());
+        assertEquals(0L, report.get("orderingDependencies").asLong());
+    }
+
+    @Test
+    /* default */void testUnreachable(@TempDir final Path dir) throws Exception {
+        final Path capture = dir.resolve("capture.bin");
+        CapturedRequestTest.write(capture, new Object[]{0L, 0L, OK, "GET", "/account/1", "", ""});
+        final Properties properties = new Properties();
+        properties.setProperty(ReplaySettings.PROPERTY_FILE, capture.toString());
+        properties.setProperty(ReplaySettings.PROPERTY_URL, "http://localhost:" + freePort());
+        final JsonNode report = new TrafficReplay(ReplaySettings.from(properties)).run();
+        assertEquals(1L, report.get("failures").asLong());
+        assertEquals(1L, report.get("operations").get("GET /account/{id}").get("mismatches").get(OK + "->0")
+                .asLong());
+
+        CapturedRequestTest.write(capture);
+        final JsonNode empty = new TrafficReplay(ReplaySettings.from(properties)).run();
+        assertEquals(0L, empty.get("requests").asLong());
+        assertEquals(0.0, empty.get("capturedSeconds").asDouble());
+    }
+
+    @Test
+    /* default */void testSettings() {
+        final Properties properties = new Properties();
+        assertThrows(IllegalArgumentException.class, () -> ReplaySettings.from(properties));
+        properties.setProperty(ReplaySettings.PROPERTY_FILE, "capture.bin");
+        final ReplaySettings settings = ReplaySettings.from(properties);
+        assertEquals("http://127.0.0.1:8080", settings.getUrl().toString());
+        assertEquals(1.0, settings.getSpeed());
+        assertEquals("replay-report.json", settings.getReportFile());
+        properties.setProperty(ReplaySettings.PROPERTY_SPEED, "-1");
+        assertThrows(IllegalArgumentException.class, () -> ReplaySettings.from(properties));
+        properties.setProperty(ReplaySettings.PROPERTY_SPEED, "2");
+        properties.setProperty(ReplaySettings.PROPERTY_CONNECTIONS, "0");
+        assertThrows(IllegalArgumentException.class, () -> ReplaySettings.from(properties));
+    }
+
+    private static JsonNode replay(final Path dir, final Path capture, final String speed, final List<String> events)
+            throws Exception {
+        final int port = freePort();
+        final HttpServer server = startStub(port, events);
+        final Path reportFile = dir.resolve("report.json");
+        final Properties properties = System.getProperties();
+        try {
+            properties.setProperty(ReplaySettings.PROPERTY_FILE, capture.toString());
+            properties.setProperty(ReplaySettings.PROPERTY_URL, "http://localhost:" + port);
+            properties.setProperty(ReplaySettings.PROPERTY_SPEED, speed);
+            properties.setProperty(ReplaySettings.PROPERTY_REPORT_FILE, reportFile.toString());
+            LoadGeneratorMain.main(new String[0]);
+        } finally {
+            for (final String name : new String[]{ReplaySettings.PROPERTY_FILE, ReplaySettings.PROPERTY_URL,
+                    ReplaySettings.PROPERTY_SPEED, ReplaySettings.PROPERTY_REPORT_FILE}) {
+                properties.remove(name);
+            }
+            server.shutdownNow();
+        }
+        return new ObjectMapper().readTree(reportFile.toFile());
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static HttpServer startStub(final int port, final List<String> events) throws IOException {
+        final HttpServer server = HttpServer.createSimpleServer(null, "localhost", port);
+        server.getServerConfiguration().addHttpHandler(new HttpHandler() {
+            @Override
+            public void service(final Request request, final Response response) throws Exception {
+                final String body = read(request.getInputStream());
+                final String name = body.isEmpty() ? request.getRequestURI() : body;
+                events.add("start " + name);
+                if (FIRST_PAYMENT.equals(body)) {
+                    Thread.sleep(SLOW_MILLIS);
+                } else if (!body.isEmpty()) {
+                    response.setStatus(CONFLICT);
+                } else if (request.getRequestURI().endsWith("/6")) {
+                    response.setStatus(NOT_FOUND);
+                }
+                events.add("end " + (body.isEmpty() || FIRST_PAYMENT.equals(body) ? name : "/payment"));
+            }
+        }, "/");
+        server.start();
+        return server;
+    }
+
+    private static String read(final InputStream in) {
+        final Scanner scanner = new Scanner(in, UTF_8.name()).useDelimiter("\\A");
+        return scanner.hasNext() ? scanner.next() : "";
+    }
+}
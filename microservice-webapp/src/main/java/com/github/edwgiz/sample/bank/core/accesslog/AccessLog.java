@@ -0,0 +1,299 @@
+package com.github.edwgiz.sample.bank.core.accesslog;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.github.edwgiz.sample.bank.core.metrics.Counter;
+import com.github.edwgiz.sample.bank.core.metrics.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+
+/**
+ * Access log of the requests, a json object per line, like
+ * <pre>{"time":"2020-09-13T12:26:40.123Z","method":"POST","path":"/payment","status":201,"bytes":57,"micros":1520,
+ * "trace":"4bf92f3577b34da6a3ce929d0e0e4736"}</pre>
+ * <p>
+ * A request thread copies an entry into the preallocated arrays of a ring buffer, claiming a slot by a compare and
+ * set, so recording doesn't allocate nor lock. An entry is dropped and counted when the buffer is full, rather than
+ * waiting for the writer. A background thread writes the entries every {@value #WRITE_MILLIS} milliseconds and
+ * renames the file to {@code .1} when it exceeds the size, keeping {@value #ROTATED_FILES} renamed files.
+ * <p>
+ * Optional system property {@value #SYSTEM_PROPERTY_FILE} defines the file, nothing is logged without it, and
+ * {@value #SYSTEM_PROPERTY_ROTATE_MEGABYTES} its size to rotate at, {@value #DEFAULT_ROTATE_MEGABYTES} megabytes by
+ * default.
+ */
+public final class AccessLog implements Closeable {
+
+    /**
+     * Optional system property, file to write the access log to.
+     */
+    public static final String SYSTEM_PROPERTY_FILE = "webserver.access.log.file";
+    /**
+     * Optional system property, size in megabytes to rotate the file at.
+     */
+    public static final String SYSTEM_PROPERTY_ROTATE_MEGABYTES = "webserver.access.log.rotate.megabytes";
+    private static final long DEFAULT_ROTATE_MEGABYTES = 64L;
+    private static final int ROTATED_FILES = 4;
+    private static final int CAPACITY = 16_384;
+    private static final long WRITE_MILLIS = 100L;
+    private static final long BYTES_PER_MEGABYTE = 1_048_576L;
+    private static final long NANOS_PER_MICRO = 1000L;
+
+    private static final Logger LOG = LoggerFactory.getLogger(AccessLog.class);
+    private static final JsonFactory JSON = new JsonFactory().setRootValueSeparator(null)
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    private static final int FIELDS = 6;
+    private static final int TIME = 0;
+    private static final int STATUS = 1;
+    private static final int BYTES = 2;
+    private static final int NANOS = 3;
+    private static final int TRACE_ID_HIGH = 4;
+    private static final int TRACE_ID_LOW = 5;
+    private static final int STRINGS = 2;
+
+    private final Path file;
+    private final long rotateBytes;
+    private final int capacity;
+    private final int mask;
+    /**
+     * Sequence number of the next entry to claim.
+     */
+    private final AtomicLong head;
+    /**
+     * Sequence number of the next entry to write, the slots before it are free.
+     */
+    private final AtomicLong tail;
+    /**
+     * Sequence number plus one of the entry published in a slot.
+     */
+    private final AtomicLongArray sequences;
+    private final AtomicLongArray fields;
+    /**
+     * The method and the path of the entries.
+     */
+    private final AtomicReferenceArray<String> strings;
+    private final Counter written;
+    private final Counter dropped;
+    private final ScheduledExecutorService writer;
+    private final ByteArrayOutputStream buffer;
+    private OutputStream out;
+    private long size;
+
+    /**
+     * @param metrics     registry to count the written and dropped entries in.
+     * @param logFile     file to write to, or {@code null} to log nothing.
+     * @param rotateAt    size in bytes to rotate the file at.
+     * @param minCapacity minimum number of the entries buffered, rounded up to a power of two.
+     */
+    public AccessLog(final Metrics metrics, final Path logFile, final long rotateAt, final int minCapacity) {
+        this.file = logFile;
+        this.rotateBytes = rotateAt;
+        final int slots = Integer.highestOneBit(Math.max(minCapacity - 1, 1)) << 1;
+        this.capacity = slots;
+        this.mask = slots - 1;
+        this.head = new AtomicLong();
+        this.tail = new AtomicLong();
+        this.sequences = new AtomicLongArray(slots);
+        this.strings = new AtomicReferenceArray<>(slots * STRINGS);
+        this.fields = new AtomicLongArray(slots * FIELDS);
+        this.written = metrics.counter("access_log_entries_total", "Number of the written access log entries.", "");
+        this.dropped = metrics.counter("access_log_dropped_total",
+                "Number of the access log entries dropped by a full buffer.", "");
+        this.buffer = new ByteArrayOutputStream();
+        if (logFile == null) {
+            this.writer = null;
+        } else {
+            this.writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "access-log");
+                thread.setDaemon(true);
+                return thread;
+            });
+            writer.scheduleWithFixedDelay(this::write, WRITE_MILLIS, WRITE_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * @param metrics registry to count the written and dropped entries in.
+     * @return access log configured by the system properties.
+     */
+    public static AccessLog create(final Metrics metrics) {
+        final String logFile = System.getProperty(SYSTEM_PROPERTY_FILE);
+        return new AccessLog(metrics, logFile == null ? null : Paths.get(logFile),
+                Long.getLong(SYSTEM_PROPERTY_ROTATE_MEGABYTES, DEFAULT_ROTATE_MEGABYTES) * BYTES_PER_MEGABYTE,
+                CAPACITY);
+    }
+
+    /**
+     * @return whether the entries are written anywhere.
+     */
+    public boolean isEnabled() {
+        return writer != null;
+    }
+
+    /**
+     * Copies an entry into the buffer, or drops it if the buffer is full.
+     *
+     * @param method      HTTP method.
+     * @param path        path template of the resource method, or the path of an unmatched request.
+     * @param status      HTTP status.
+     * @param bytes       size of the response body.
+     * @param nanos       duration of the request, including the response body writing.
+     * @param traceIdHigh the upper half of the trace id, zero without a trace.
+     * @param traceIdLow  the lower half of the trace id.
+     * @return whether the entry is buffered.
+     */
+    public boolean record(final String method, final String path, final int status, final long bytes,
+            final long nanos, final long traceIdHigh, final long traceIdLow) {
+        boolean result = false;
+        if (isEnabled()) {
+            final long sequence = claim();
+            result = sequence >= 0L;
+            if (result) {
+                final int slot = (int) sequence & mask;
+                final int base = slot * FIELDS;
+                fields.lazySet(base + TIME, System.currentTimeMillis());
+                fields.lazySet(base + STATUS, status);
+                fields.lazySet(base + BYTES, bytes);
+                fields.lazySet(base + NANOS, nanos);
+                fields.lazySet(base + TRACE_ID_HIGH, traceIdHigh);
+                fields.lazySet(base + TRACE_ID_LOW, traceIdLow);
+                strings.lazySet(slot * STRINGS, method);
+                strings.lazySet(slot * STRINGS + 1, path);
+                sequences.lazySet(slot, sequence + 1L); // publishes the entry
+            } else {
+                dropped.increment();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return sequence number of the claimed slot, or {@code -1} if the buffer is full.
+     */
+    private long claim() {
+        long sequence = head.get();
+        boolean claimed = false;
+        while (!claimed && sequence - tail.get() < capacity) {
+            claimed = head.compareAndSet(sequence, sequence + 1L);
+            sequence = claimed ? sequence : head.get();
+        }
+        return claimed ? sequence : -1L;
+    }
+
+    /**
+     * Writes the buffered entries, called periodically by the background thread. The entries failed to write are
+     * lost, the file is reopened next time.
+     */
+    /* default */ synchronized void write() {
+        int result = 0;
+        try {
+            if (out == null) {
+                open();
+            }
+            long next = tail.get();
+            while (sequences.get((int) next & mask) == next + 1L) { // published
+                writeEntry((int) next & mask);
+                next++;
+                tail.lazySet(next); // frees the slot
+                result++;
+                if (size + buffer.size() >= rotateBytes) {
+                    flush();
+                    rotate();
+                }
+            }
+            flush();
+            written.add(result);
+        } catch (IOException ex) {
+            LOG.warn("Access log write to {} failed: {}", file, ex.toString());
+            buffer.reset();
+        }
+    }
+
+    private void writeEntry(final int slot) throws IOException {
+        final int base = slot * FIELDS;
+        try (JsonGenerator json = JSON.createGenerator(buffer)) {
+            json.writeStartObject();
+            json.writeStringField("time", Instant.ofEpochMilli(fields.get(base + TIME)).toString());
+            json.writeStringField("method", strings.get(slot * STRINGS));
+            json.writeStringField("path", strings.get(slot * STRINGS + 1));
+            json.writeNumberField("status", fields.get(base + STATUS));
+            json.writeNumberField("bytes", fields.get(base + BYTES));
+            json.writeNumberField("micros", fields.get(base + NANOS) / NANOS_PER_MICRO);
+            final long traceIdHigh = fields.get(base + TRACE_ID_HIGH);
+            final long traceIdLow = fields.get(base + TRACE_ID_LOW);
+            if ((traceIdHigh | traceIdLow) != 0L) {
+                json.writeStringField("trace", String.format("%016x%016x", traceIdHigh, traceIdLow));
+            }
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+    }
+
+    private void open() throws IOException {
+        out = Files.newOutputStream(file, CREATE, APPEND);
+        size = Files.size(file);
+    }
+
+    private void flush() throws IOException {
+        buffer.writeTo(out);
+        out.flush();
+        size += buffer.size();
+        buffer.reset();
+    }
+
+    private void rotate() throws IOException {
+        closeFile();
+        for (int i = ROTATED_FILES - 1; i > 0; i--) {
+            final Path rotated = rotated(i);
+            if (Files.exists(rotated)) {
+                Files.move(rotated, rotated(i + 1), REPLACE_EXISTING);
+            }
+        }
+        Files.move(file, rotated(1), REPLACE_EXISTING);
+        open();
+    }
+
+    private Path rotated(final int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+
+    /**
+     * Stops the background thread, writes the rest of the entries and closes the file.
+     *
+     * @throws IOException if the file closing fails.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.shutdown();
+            write();
+            closeFile();
+        }
+    }
+
+    private void closeFile() throws IOException {
+        if (out != null) {
+            out.close();
+            out = null;
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Access log recorded without allocations into a ring buffer and written as json lines by a background thread.
+ */
+package com.github.edwgiz.sample.bank.core.accesslog;
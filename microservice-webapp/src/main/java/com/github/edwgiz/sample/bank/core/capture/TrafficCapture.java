@@ -0,0 +1,266 @@
+package com.github.edwgiz.sample.bank.core.capture;
+
+import com.github.edwgiz.sample.bank.core.metrics.Counter;
+import com.github.edwgiz.sample.bank.core.metrics.Metrics;
+import com.github.edwgiz.sample.bank.core.storage.VarLongUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.lang.System.nanoTime;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Capture of the served requests to replay them against a test instance, written as a compact binary log: the
+ * {@link #MAGIC} header with the version, the capture start as the epoch milliseconds, then a record per request
+ * <ol>
+ * <li>arrival in microseconds since the arrival of the previous record, a signed delta, as the records are written
+ * in the order the responses are ready;</li>
+ * <li>duration in microseconds until the response status is known;</li>
+ * <li>response status;</li>
+ * <li>method, raw path, raw query, empty if none, and body, each by its length and bytes.</li>
+ * </ol>
+ * The numbers are encoded by {@link VarLongUtils}, the strings in UTF-8.
+ * <p>
+ * A request thread only queues a record, dropping and counting it when {@value #CAPACITY} records already wait, and a
+ * background thread writes them every {@value #WRITE_MILLIS} milliseconds. The capture stops when the file reaches
+ * its maximum size, or fails to be written. A request of a body over {@value #MAX_BODY_BYTES} bytes isn't captured,
+ * only counted by {@link #skip()}, so a large upload isn't held in memory.
+ * <p>
+ * Optional system property {@value #SYSTEM_PROPERTY_FILE} defines the file, overwritten by the start, nothing is
+ * captured without it, and {@value #SYSTEM_PROPERTY_MAX_MEGABYTES} its maximum size,
+ * {@value #DEFAULT_MAX_MEGABYTES} megabytes by default.
+ */
+public final class TrafficCapture implements Closeable {
+
+    /**
+     * Optional system property, file to write the capture to.
+     */
+    public static final String SYSTEM_PROPERTY_FILE = "webserver.capture.file";
+    /**
+     * Optional system property, size in megabytes to stop the capture at.
+     */
+    public static final String SYSTEM_PROPERTY_MAX_MEGABYTES = "webserver.capture.max.megabytes";
+    /**
+     * Leading bytes of a capture file, the last one is the version of the format.
+     */
+    public static final byte[] MAGIC = {'B', 'A', 'N', 'K', 'C', 'A', 'P', 1};
+    /**
+     * Maximum size of a captured body.
+     */
+    public static final int MAX_BODY_BYTES = 65_536;
+    private static final long WRITE_MILLIS = 100L;
+    private static final int CAPACITY = 16_384;
+    private static final long DEFAULT_MAX_MEGABYTES = 1024L;
+    private static final long BYTES_PER_MEGABYTE = 1_048_576L;
+    private static final long NANOS_PER_MICRO = 1000L;
+
+    private static final Logger LOG = LoggerFactory.getLogger(TrafficCapture.class);
+
+    private final Path file;
+    private final long maxBytes;
+    private final int capacity;
+    private final long startNanos;
+    private final Queue<Captured> records;
+    private final AtomicInteger queued;
+    private final Counter written;
+    private final Counter dropped;
+    private final Counter skipped;
+    private final ScheduledExecutorService writer;
+    private final ByteArrayOutputStream buffer;
+    private volatile boolean stopped;
+    private OutputStream out;
+    private long size;
+    private long previousArrivalMicros;
+
+    /**
+     * @param metrics     registry to count the written, dropped and skipped records in.
+     * @param captureFile file to write to, or {@code null} to capture nothing.
+     * @param maxSize     size in bytes to stop the capture at.
+     * @param maxQueued   maximum number of the records waiting to be written.
+     */
+    public TrafficCapture(final Metrics metrics, final Path captureFile, final long maxSize, final int maxQueued) {
+        this.file = captureFile;
+        this.maxBytes = maxSize;
+        this.capacity = maxQueued;
+        this.startNanos = nanoTime();
+        this.records = new ConcurrentLinkedQueue<>();
+        this.queued = new AtomicInteger();
+        this.written = metrics.counter("traffic_capture_requests_total", "Number of the captured requests.", "");
+        this.dropped = metrics.counter("traffic_capture_dropped_total",
+                "Number of the requests left uncaptured by a full queue.", "");
+        this.skipped = metrics.counter("traffic_capture_oversized_total",
+                "Number of the requests left uncaptured by a body over the maximum size.", "");
+        this.buffer = new ByteArrayOutputStream();
+        this.writer = captureFile == null ? null : Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "traffic-capture");
+            thread.setDaemon(true);
+            return thread;
+        });
+        if (writer != null) {
+            buffer.write(MAGIC, 0, MAGIC.length);
+            VarLongUtils.write(buffer, System.currentTimeMillis());
+            writer.scheduleWithFixedDelay(this::write, WRITE_MILLIS, WRITE_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * @param metrics registry to count the written and dropped records in.
+     * @return traffic capture configured by the system properties.
+     */
+    public static TrafficCapture create(final Metrics metrics) {
+        final String captureFile = System.getProperty(SYSTEM_PROPERTY_FILE);
+        return new TrafficCapture(metrics, captureFile == null ? null : Paths.get(captureFile),
+                Long.getLong(SYSTEM_PROPERTY_MAX_MEGABYTES, DEFAULT_MAX_MEGABYTES) * BYTES_PER_MEGABYTE, CAPACITY);
+    }
+
+    /**
+     * @return whether the requests are captured, so their bodies are worth to keep.
+     */
+    public boolean isEnabled() {
+        return writer != null && !stopped;
+    }
+
+    /**
+     * Queues a record, or drops it if too many records wait.
+     *
+     * @param method        HTTP method.
+     * @param path          raw path of the request.
+     * @param query         raw query of the request, {@code null} if none.
+     * @param body          body of the request, not copied, so must not be modified after.
+     * @param arrivalNanos  {@link System#nanoTime()} of the arrival.
+     * @param durationNanos duration of the request until the response status is known.
+     * @param status        HTTP status of the response.
+     * @return whether the record is queued.
+     */
+    public boolean record(final String method, final String path, final String query, final byte[] body,
+            final long arrivalNanos, final long durationNanos, final int status) {
+        boolean result = false;
+        if (isEnabled()) {
+            result = queued.incrementAndGet() <= capacity;
+            if (result) {
+                records.add(new Captured(method, path, query == null ? "" : query, body, arrivalNanos,
+                        durationNanos, status));
+            } else {
+                queued.decrementAndGet();
+                dropped.increment();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Counts a request left uncaptured, as its body is over {@value #MAX_BODY_BYTES} bytes.
+     */
+    public void skip() {
+        skipped.increment();
+    }
+
+    /**
+     * Writes the queued records, called periodically by the background thread.
+     */
+    /* default */ synchronized void write() {
+        if (!stopped) {
+            try {
+                if (out == null) {
+                    out = Files.newOutputStream(file);
+                }
+                int result = 0;
+                for (Captured captured = records.poll(); captured != null; captured = records.poll()) {
+                    queued.decrementAndGet();
+                    encode(captured);
+                    result++;
+                }
+                buffer.writeTo(out);
+                out.flush();
+                size += buffer.size();
+                buffer.reset();
+                written.add(result);
+                if (size >= maxBytes) {
+                    stop("the maximum size is reached");
+                }
+            } catch (IOException ex) {
+                stop(ex.toString());
+            }
+        }
+    }
+
+    private void encode(final Captured captured) {
+        final long arrivalMicros = (captured.arrivalNanos - startNanos) / NANOS_PER_MICRO;
+        VarLongUtils.writeSigned(buffer, arrivalMicros - previousArrivalMicros);
+        previousArrivalMicros = arrivalMicros;
+        VarLongUtils.write(buffer, captured.durationNanos / NANOS_PER_MICRO);
+        VarLongUtils.write(buffer, captured.status);
+        encode(captured.method.getBytes(UTF_8));
+        encode(captured.path.getBytes(UTF_8));
+        encode(captured.query.getBytes(UTF_8));
+        encode(captured.body);
+    }
+
+    private void encode(final byte[] bytes) {
+        VarLongUtils.write(buffer, bytes.length);
+        buffer.write(bytes, 0, bytes.length);
+    }
+
+    private void stop(final String reason) {
+        stopped = true;
+        LOG.warn("Traffic capture to {} stopped at {} bytes: {}", file, size, reason);
+        records.clear();
+        buffer.reset();
+    }
+
+    /**
+     * Stops the background thread, writes the rest of the records and closes the file.
+     *
+     * @throws IOException if the file closing fails.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (writer != null) {
+            writer.shutdown();
+            write();
+            stopped = true;
+            if (out != null) {
+                out.close();
+            }
+        }
+    }
+
+    /**
+     * Request waiting to be written.
+     */
+    private static final class Captured {
+
+        private final String method;
+        private final String path;
+        private final String query;
+        private final byte[] body;
+        private final long arrivalNanos;
+        private final long durationNanos;
+        private final int status;
+
+        /* default */Captured(final String httpMethod, final String rawPath, final String rawQuery,
+                final byte[] content, final long arrival, final long duration, final int httpStatus) {
+            this.method = httpMethod;
+            this.path = rawPath;
+            this.query = rawQuery;
+            this.body = content;
+            this.arrivalNanos = arrival;
+            this.durationNanos = duration;
+            this.status = httpStatus;
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Capture of the served requests into a compact binary log, written by a background thread, to replay them.
+ */
+package com.github.edwgiz.sample.bank.core.capture;
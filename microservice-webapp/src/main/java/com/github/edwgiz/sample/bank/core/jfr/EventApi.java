@@ -0,0 +1,126 @@
+package com.github.edwgiz.sample.bank.core.jfr;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.github.edwgiz.sample.bank.core.jfr.ReflectionUtils.invoke;
+import static com.github.edwgiz.sample.bank.core.jfr.ReflectionUtils.newInstance;
+
+/**
+ * Reflected {@code jdk.jfr.EventFactory} API, creating the event types at runtime.
+ */
+final class EventApi {
+
+    /**
+     * API of the current runtime, {@code null} if it has no {@code jdk.jfr} module.
+     */
+    /* default */static final EventApi INSTANCE = load(EventApi.class.getClassLoader());
+
+    private static final String PACKAGE = "jdk.jfr.";
+    private static final Object[] NO_ARGS = {};
+
+    private final Class<?> nameAnnotation;
+    private final Class<?> labelAnnotation;
+    private final Class<?> categoryAnnotation;
+    private final Class<?> stackTraceAnnotation;
+    private final Constructor<?> annotationElement;
+    private final Constructor<?> valueDescriptor;
+    private final Method createFactory;
+    private final Method newEvent;
+    private final Method eventType;
+    private final Method enabled;
+    private final Method begin;
+    private final Method set;
+    private final Method end;
+    private final Method commit;
+
+    private EventApi(final ClassLoader loader) throws ReflectiveOperationException {
+        nameAnnotation = Class.forName(PACKAGE + "Name", false, loader);
+        labelAnnotation = Class.forName(PACKAGE + "Label", false, loader);
+        categoryAnnotation = Class.forName(PACKAGE + "Category", false, loader);
+        stackTraceAnnotation = Class.forName(PACKAGE + "StackTrace", false, loader);
+        annotationElement = Class.forName(PACKAGE + "AnnotationElement", false, loader)
+                .getConstructor(Class.class, Object.class);
+        valueDescriptor = Class.forName(PACKAGE + "ValueDescriptor", false, loader)
+                .getConstructor(Class.class, String.class, List.class);
+        final Class<?> factory = Class.forName(PACKAGE + "EventFactory", false, loader);
+        createFactory = factory.getMethod("create", List.class, List.class);
+        newEvent = factory.getMethod("newEvent");
+        eventType = factory.getMethod("getEventType");
+        enabled = Class.forName(PACKAGE + "EventType", false, loader).getMethod("isEnabled");
+        final Class<?> event = Class.forName(PACKAGE + "Event", false, loader);
+        begin = event.getMethod("begin");
+        set = event.getMethod("set", int.class, Object.class);
+        end = event.getMethod("end");
+        commit = event.getMethod("commit");
+    }
+
+    /* default */static EventApi load(final ClassLoader loader) {
+        EventApi result;
+        try {
+            result = new EventApi(loader);
+        } catch (ReflectiveOperationException ex) {
+            result = null;
+        }
+        return result;
+    }
+
+    /**
+     * @param name     unique name of the event type.
+     * @param label    human-readable name.
+     * @param category human-readable group of the event types.
+     * @param fields   values of the events.
+     * @return {@code jdk.jfr.EventFactory} of a new event type without the stack traces.
+     */
+    /* default */Object createFactory(final String name, final String label, final String category,
+            final FlightEventType.Field... fields) {
+        final List<Object> fieldDescriptors = new ArrayList<>(fields.length);
+        for (final FlightEventType.Field field : fields) {
+            fieldDescriptors.add(newInstance(valueDescriptor, field.getType(), field.getName(),
+                    Arrays.asList(annotation(labelAnnotation, field.getLabel()))));
+        }
+        return invoke(createFactory, null, Arrays.asList(
+                annotation(nameAnnotation, name),
+                annotation(labelAnnotation, label),
+                annotation(categoryAnnotation, new String[]{category}),
+                annotation(stackTraceAnnotation, Boolean.FALSE)), fieldDescriptors);
+    }
+
+    private Object annotation(final Class<?> type, final Object value) {
+        return newInstance(annotationElement, type, value);
+    }
+
+    /**
+     * @param factory {@code jdk.jfr.EventFactory}.
+     * @return {@code jdk.jfr.EventType} of the factory.
+     */
+    /* default */Object eventType(final Object factory) {
+        return invoke(eventType, factory);
+    }
+
+    /* default */boolean isEnabled(final Object type) {
+        return (Boolean) invoke(enabled, type, NO_ARGS); // called for every event, so without an allocation
+    }
+
+    /**
+     * @param factory {@code jdk.jfr.EventFactory}.
+     * @return new started event.
+     */
+    /* default */Object begin(final Object factory) {
+        final Object result = invoke(newEvent, factory);
+        invoke(begin, result);
+        return result;
+    }
+
+    /* default */void set(final Object event, final int index, final Object value) {
+        invoke(set, event, index, value);
+    }
+
+    /* default */void commit(final Object event) {
+        invoke(end, event);
+        invoke(commit, event);
+    }
+}
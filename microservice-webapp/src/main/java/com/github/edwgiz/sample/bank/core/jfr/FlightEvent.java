@@ -0,0 +1,61 @@
+package com.github.edwgiz.sample.bank.core.jfr;
+
+/**
+ * Flight recorder event in progress, timed since its {@link FlightEventType#begin()}.
+ */
+public final class FlightEvent {
+
+    /**
+     * Event of a disabled type, ignoring the values.
+     */
+    /* default */static final FlightEvent DISABLED = new FlightEvent(null, null);
+
+    private final FlightEventType type;
+    private final Object event;
+
+    /* default */FlightEvent(final FlightEventType eventType, final Object jfrEvent) {
+        this.type = eventType;
+        this.event = jfrEvent;
+    }
+
+    /**
+     * @param field name of the field.
+     * @param value value of the field.
+     * @return this event.
+     */
+    public FlightEvent set(final String field, final long value) {
+        return event == null ? this : put(field, value); // boxed only for a recording
+    }
+
+    /**
+     * @param field name of the field.
+     * @param value value of the field.
+     * @return this event.
+     */
+    public FlightEvent set(final String field, final boolean value) {
+        return event == null ? this : put(field, value);
+    }
+
+    /**
+     * @param field name of the field.
+     * @param value value of the field.
+     * @return this event.
+     */
+    public FlightEvent set(final String field, final String value) {
+        return event == null ? this : put(field, value);
+    }
+
+    private FlightEvent put(final String field, final Object value) {
+        type.getApi().set(event, type.indexOf(field), value);
+        return this;
+    }
+
+    /**
+     * Ends the event and writes it to the recording.
+     */
+    public void commit() {
+        if (event != null) {
+            type.getApi().commit(event);
+        }
+    }
+}
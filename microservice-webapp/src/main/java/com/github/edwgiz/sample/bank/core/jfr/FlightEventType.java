@@ -0,0 +1,124 @@
+package com.github.edwgiz.sample.bank.core.jfr;
+
+/**
+ * Custom flight recorder event type, defined at runtime.
+ * <p>
+ * The events are created only while a recording takes them, so a disabled type costs one check per event. On a
+ * runtime without flight recorder the type is never enabled.
+ */
+public final class FlightEventType {
+
+    private final EventApi api;
+    private final Object factory;
+    private final Object type;
+    private final Field[] fields;
+
+    /**
+     * Value of the events.
+     */
+    public static final class Field {
+
+        private final Class<?> type;
+        private final String name;
+        private final String label;
+
+        private Field(final Class<?> valueType, final String fieldName, final String fieldLabel) {
+            this.type = valueType;
+            this.name = fieldName;
+            this.label = fieldLabel;
+        }
+
+        /**
+         * @param name  field name, a java identifier.
+         * @param label human-readable name.
+         * @return field of {@code long} values.
+         */
+        public static Field longField(final String name, final String label) {
+            return new Field(long.class, name, label);
+        }
+
+        /**
+         * @param name  field name, a java identifier.
+         * @param label human-readable name.
+         * @return field of {@code boolean} values.
+         */
+        public static Field booleanField(final String name, final String label) {
+            return new Field(boolean.class, name, label);
+        }
+
+        /**
+         * @param name  field name, a java identifier.
+         * @param label human-readable name.
+         * @return field of {@link String} values.
+         */
+        public static Field stringField(final String name, final String label) {
+            return new Field(String.class, name, label);
+        }
+
+        /* default */Class<?> getType() {
+            return type;
+        }
+
+        /* default */String getName() {
+            return name;
+        }
+
+        /* default */String getLabel() {
+            return label;
+        }
+    }
+
+    /**
+     * @param name        unique name, like {@code com.example.PaymentLock}.
+     * @param label       human-readable name.
+     * @param category    human-readable group of the event types.
+     * @param eventFields values of the events.
+     */
+    public FlightEventType(final String name, final String label, final String category, final Field... eventFields) {
+        this(EventApi.INSTANCE, name, label, category, eventFields);
+    }
+
+    /* default */FlightEventType(final EventApi eventApi, final String name, final String label, final String category,
+            final Field... eventFields) {
+        this.api = eventApi;
+        this.fields = eventFields.clone();
+        if (eventApi == null) {
+            this.factory = null;
+            this.type = null;
+        } else {
+            this.factory = eventApi.createFactory(name, label, category, eventFields);
+            this.type = eventApi.eventType(factory);
+        }
+    }
+
+    /**
+     * @return whether a running recording takes the events.
+     */
+    public boolean isEnabled() {
+        return api != null && api.isEnabled(type);
+    }
+
+    /**
+     * Starts an event, to {@link FlightEvent#commit()} after the timed operation.
+     *
+     * @return new event, or a shared no-op one if the type is disabled.
+     */
+    public FlightEvent begin() {
+        return isEnabled() ? new FlightEvent(this, api.begin(factory)) : FlightEvent.DISABLED;
+    }
+
+    /* default */int indexOf(final String fieldName) {
+        int result = fields.length - 1;
+        while (result >= 0 && !fields[result].getName().equals(fieldName)) {
+            result--;
+        }
+        if (result < 0) {
+            throw new IllegalArgumentException("Unknown field " + fieldName);
+        }
+        return result;
+    }
+
+    /* default */EventApi getApi() {
+        return api;
+    }
+}
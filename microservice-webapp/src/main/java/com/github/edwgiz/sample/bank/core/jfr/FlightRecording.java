@@ -0,0 +1,58 @@
+package com.github.edwgiz.sample.bank.core.jfr;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Bounded flight recording, stopped after its duration or by {@link #dumpAndClose(Path)}, whichever comes first.
+ */
+public final class FlightRecording {
+
+    private final RecordingApi api;
+    private final Object recording;
+
+    private FlightRecording(final RecordingApi recordingApi, final Object jfrRecording) {
+        this.api = recordingApi;
+        this.recording = jfrRecording;
+    }
+
+    /**
+     * @return whether the runtime has a flight recorder.
+     */
+    public static boolean isAvailable() {
+        return RecordingApi.INSTANCE != null;
+    }
+
+    /**
+     * Starts a recording kept on disk.
+     *
+     * @param name     name of the recording.
+     * @param settings name of the predefined settings, {@code default} or {@code profile}.
+     * @param duration duration to stop the recording after.
+     * @param maxSize  maximum size in bytes, the oldest data are discarded above it.
+     * @return the started recording.
+     * @throws IllegalArgumentException on an unknown settings name.
+     * @throws IllegalStateException    if the runtime has no flight recorder.
+     */
+    public static FlightRecording start(final String name, final String settings, final Duration duration,
+            final long maxSize) {
+        return start(RecordingApi.INSTANCE, name, settings, duration, maxSize);
+    }
+
+    /* default */static FlightRecording start(final RecordingApi api, final String name, final String settings,
+            final Duration duration, final long maxSize) {
+        if (api == null) {
+            throw new IllegalStateException("No flight recorder in the runtime");
+        }
+        return new FlightRecording(api, api.start(name, settings, duration, maxSize));
+    }
+
+    /**
+     * Writes the recorded data and releases the recording.
+     *
+     * @param file file to write to.
+     */
+    public void dumpAndClose(final Path file) {
+        api.dumpAndClose(recording, file);
+    }
+}
@@ -0,0 +1,94 @@
+package com.github.edwgiz.sample.bank.core.jfr;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static com.github.edwgiz.sample.bank.core.jfr.ReflectionUtils.invoke;
+import static com.github.edwgiz.sample.bank.core.jfr.ReflectionUtils.newInstance;
+
+/**
+ * Reflected {@code jdk.jfr.Recording} API.
+ */
+final class RecordingApi {
+
+    /**
+     * API of the current runtime, {@code null} if it has no {@code jdk.jfr} module.
+     */
+    /* default */static final RecordingApi INSTANCE = load(RecordingApi.class.getClassLoader());
+
+    private static final String PACKAGE = "jdk.jfr.";
+
+    private final Method configuration;
+    private final Constructor<?> recording;
+    private final Method setName;
+    private final Method setToDisk;
+    private final Method setMaxSize;
+    private final Method setDuration;
+    private final Method start;
+    private final Method dump;
+    private final Method close;
+
+    private RecordingApi(final ClassLoader loader) throws ReflectiveOperationException {
+        final Class<?> configurationClass = Class.forName(PACKAGE + "Configuration", false, loader);
+        configuration = configurationClass.getMethod("getConfiguration", String.class);
+        final Class<?> recordingClass = Class.forName(PACKAGE + "Recording", false, loader);
+        recording = recordingClass.getConstructor(configurationClass);
+        setName = recordingClass.getMethod("setName", String.class);
+        setToDisk = recordingClass.getMethod("setToDisk", boolean.class);
+        setMaxSize = recordingClass.getMethod("setMaxSize", long.class);
+        setDuration = recordingClass.getMethod("setDuration", Duration.class);
+        start = recordingClass.getMethod("start");
+        dump = recordingClass.getMethod("dump", Path.class);
+        close = recordingClass.getMethod("close");
+    }
+
+    /* default */static RecordingApi load(final ClassLoader loader) {
+        RecordingApi result;
+        try {
+            result = new RecordingApi(loader);
+        } catch (ReflectiveOperationException ex) {
+            result = null;
+        }
+        return result;
+    }
+
+    /**
+     * @param name     name of the recording.
+     * @param settings name of the predefined settings.
+     * @param duration duration to stop the recording after.
+     * @param maxSize  maximum size in bytes.
+     * @return started {@code jdk.jfr.Recording}.
+     * @throws IllegalArgumentException on an unknown settings name.
+     */
+    /* default */Object start(final String name, final String settings, final Duration duration, final long maxSize) {
+        final Object config;
+        try {
+            config = invoke(configuration, null, settings);
+        } catch (IllegalStateException ex) { // java.text.ParseException or java.io.IOException of the settings
+            throw new IllegalArgumentException("Unknown settings " + settings, ex);
+        }
+        final Object result = newInstance(recording, config);
+        invoke(setName, result, name);
+        invoke(setToDisk, result, Boolean.TRUE);
+        invoke(setMaxSize, result, maxSize);
+        invoke(setDuration, result, duration);
+        invoke(start, result);
+        return result;
+    }
+
+    /**
+     * Writes the recorded data, stopping the recording if it's running, and releases its resources.
+     *
+     * @param recordingObject {@code jdk.jfr.Recording}.
+     * @param file            file to write to.
+     */
+    /* default */void dumpAndClose(final Object recordingObject, final Path file) {
+        try {
+            invoke(dump, recordingObject, file);
+        } finally {
+            invoke(close, recordingObject);
+        }
+    }
+}
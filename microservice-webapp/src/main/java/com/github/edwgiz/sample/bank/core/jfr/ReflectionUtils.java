@@ -0,0 +1,35 @@
+package com.github.edwgiz.sample.bank.core.jfr;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+/**
+ * Calls of the reflected {@code jdk.jfr} members, rethrowing their runtime exceptions as is.
+ */
+final class ReflectionUtils {
+
+    private ReflectionUtils() {
+    }
+
+    /* default */static Object invoke(final Method method, final Object target, final Object... args) {
+        try {
+            return method.invoke(target, args);
+        } catch (ReflectiveOperationException ex) {
+            throw unwrap(ex);
+        }
+    }
+
+    /* default */static Object newInstance(final Constructor<?> constructor, final Object... args) {
+        try {
+            return constructor.newInstance(args);
+        } catch (ReflectiveOperationException ex) {
+            throw unwrap(ex);
+        }
+    }
+
+    /* default */static RuntimeException unwrap(final ReflectiveOperationException exception) {
+        final Throwable cause = exception instanceof InvocationTargetException ? exception.getCause() : exception;
+        return cause instanceof RuntimeException ? (RuntimeException) cause : new IllegalStateException(cause);
+    }
+}
@@ -0,0 +1,5 @@
+/**
+ * Custom Java Flight Recorder events and recordings, reached reflectively to keep the Java 8 sources, and ignored on
+ * a runtime without the {@code jdk.jfr} module.
+ */
+package com.github.edwgiz.sample.bank.core.jfr;
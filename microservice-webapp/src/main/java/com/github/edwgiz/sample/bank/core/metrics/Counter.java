@@ -0,0 +1,37 @@
+package com.github.edwgiz.sample.bank.core.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Monotonic counter, the increments from concurrent threads don't contend with each other.
+ */
+public final class Counter extends Metric {
+
+    private final LongAdder value = new LongAdder();
+
+    /**
+     * Adds one.
+     */
+    public void increment() {
+        value.increment();
+    }
+
+    /**
+     * @param delta non-negative value to add.
+     */
+    public void add(final long delta) {
+        value.add(delta);
+    }
+
+    /**
+     * @return the current sum.
+     */
+    public long get() {
+        return value.sum();
+    }
+
+    @Override
+    /* default */void write(final StringBuilder out, final String name, final String labels) {
+        sample(out, name, labels, get());
+    }
+}
@@ -0,0 +1,54 @@
+package com.github.edwgiz.sample.bank.core.metrics;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static com.github.edwgiz.sample.bank.core.metrics.Metrics.labels;
+
+/**
+ * Heap and garbage collection metrics of the JVM, read from its management beans on a scrape only.
+ */
+public final class JvmMetrics {
+
+    private static final String AREA = "area";
+    private static final double MILLIS_PER_SECOND = 1e3;
+
+    private JvmMetrics() {
+    }
+
+    /**
+     * Registers the JVM metrics.
+     *
+     * @param metrics registry to add to.
+     */
+    public static void register(final Metrics metrics) {
+        register(metrics, ManagementFactory.getMemoryMXBean(), ManagementFactory.getGarbageCollectorMXBeans());
+    }
+
+    /* default */static void register(final Metrics metrics, final MemoryMXBean memory,
+            final List<GarbageCollectorMXBean> collectors) {
+        registerMemory(metrics, "heap", memory::getHeapMemoryUsage);
+        registerMemory(metrics, "nonheap", memory::getNonHeapMemoryUsage);
+        for (final GarbageCollectorMXBean collector : collectors) {
+            final String labels = labels("gc", collector.getName());
+            metrics.counter("jvm_gc_collections_total", "Number of the garbage collections.", labels,
+                    collector::getCollectionCount);
+            metrics.counter("jvm_gc_collection_seconds_total", "Accumulated time of the garbage collections.",
+                    labels, () -> collector.getCollectionTime() / MILLIS_PER_SECOND);
+        }
+    }
+
+    private static void registerMemory(final Metrics metrics, final String area,
+            final Supplier<MemoryUsage> usage) {
+        final String labels = labels(AREA, area);
+        metrics.gauge("jvm_memory_used_bytes", "Used memory.", labels, () -> usage.get().getUsed());
+        metrics.gauge("jvm_memory_committed_bytes", "Memory committed by the operating system.", labels,
+                () -> usage.get().getCommitted());
+        metrics.gauge("jvm_memory_max_bytes", "Maximum memory, -1 when it's undefined.", labels,
+                () -> usage.get().getMax());
+    }
+}
@@ -0,0 +1,51 @@
+package com.github.edwgiz.sample.bank.core.metrics;
+
+/**
+ * Base of the metrics of {@link Metrics} registry, writes its samples in the Prometheus text format.
+ */
+public abstract class Metric {
+
+    private static final char LINE_SEPARATOR = '\n';
+
+    /* default */Metric() {
+    }
+
+    /**
+     * Appends the samples of the metric.
+     *
+     * @param out    exposition to append to.
+     * @param name   name of the metric family.
+     * @param labels rendered labels of the metric, may be empty.
+     */
+    /* default */abstract void write(StringBuilder out, String name, String labels);
+
+    /* default */static void sample(final StringBuilder out, final String name, final String labels,
+            final String extraLabel, final double value) {
+        appendName(out, name, labels, extraLabel);
+        if (Double.isInfinite(value)) {
+            out.append(value > 0 ? "+Inf" : "-Inf");
+        } else {
+            out.append(value);
+        }
+        out.append(LINE_SEPARATOR);
+    }
+
+    /* default */static void sample(final StringBuilder out, final String name, final String labels,
+            final long value) {
+        appendName(out, name, labels, "");
+        out.append(value).append(LINE_SEPARATOR);
+    }
+
+    private static void appendName(final StringBuilder out, final String name, final String labels,
+            final String extraLabel) {
+        out.append(name);
+        if (!labels.isEmpty() || !extraLabel.isEmpty()) {
+            out.append('{').append(labels);
+            if (!labels.isEmpty() && !extraLabel.isEmpty()) {
+                out.append(',');
+            }
+            out.append(extraLabel).append('}');
+        }
+        out.append(' ');
+    }
+}
@@ -0,0 +1,146 @@
+package com.github.edwgiz.sample.bank.core.metrics;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.DoubleSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Registry of the application metrics, exposed in the Prometheus text format by {@link #scrape()}.
+ * <p>
+ * A metric is identified by its family name and its rendered labels, see {@link #labels(String...)}. The lookups
+ * are meant to be done once, the callers keep the returned recorders, so the recording itself only updates
+ * lock-free structures. A repeated registration returns the existing metric, or keeps the existing supplier.
+ */
+public final class Metrics {
+
+    /**
+     * Media type of the Prometheus text exposition format.
+     */
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private final ConcurrentMap<String, Family> families = new ConcurrentSkipListMap<>();
+
+    private enum Kind {
+        COUNTER("counter"), SAMPLED_COUNTER("counter"), GAUGE("gauge"), SUMMARY("summary");
+
+        private final String type;
+
+        Kind(final String value) {
+            this.type = value;
+        }
+    }
+
+    /**
+     * @param name   name of the counter family, ends with {@code _total}.
+     * @param help   description of the family.
+     * @param labels rendered labels.
+     * @return the counter.
+     */
+    public Counter counter(final String name, final String help, final String labels) {
+        return register(name, help, Kind.COUNTER, labels, Counter::new);
+    }
+
+    /**
+     * @param name     name of the counter family, ends with {@code _total}.
+     * @param help     description of the family.
+     * @param labels   rendered labels.
+     * @param supplier monotonic value maintained elsewhere, read on a scrape.
+     */
+    public void counter(final String name, final String help, final String labels, final DoubleSupplier supplier) {
+        register(name, help, Kind.SAMPLED_COUNTER, labels, () -> new SampledMetric(supplier));
+    }
+
+    /**
+     * @param name     name of the gauge family.
+     * @param help     description of the family.
+     * @param labels   rendered labels.
+     * @param supplier value read on a scrape.
+     */
+    public void gauge(final String name, final String help, final String labels, final DoubleSupplier supplier) {
+        register(name, help, Kind.GAUGE, labels, () -> new SampledMetric(supplier));
+    }
+
+    /**
+     * @param name   name of the summary family, ends with {@code _seconds}.
+     * @param help   description of the family.
+     * @param labels rendered labels.
+     * @return the timer.
+     */
+    public Timer timer(final String name, final String help, final String labels) {
+        return register(name, help, Kind.SUMMARY, labels, Timer::new);
+    }
+
+    @SuppressWarnings("unchecked") // a kind always has the same class of the metrics
+    private <T extends Metric> T register(final String name, final String help, final Kind kind,
+            final String labels, final Supplier<T> factory) {
+        final Family family = families.computeIfAbsent(name, key -> new Family(help, kind));
+        if (family.kind != kind) {
+            throw new IllegalArgumentException("Metric '" + name + "' is registered as " + family.kind);
+        }
+        return (T) family.metrics.computeIfAbsent(labels, key -> factory.get());
+    }
+
+    /**
+     * @return all the metrics in the Prometheus text format, sorted by the family names.
+     */
+    public String scrape() {
+        final StringBuilder out = new StringBuilder();
+        for (final Map.Entry<String, Family> entry : families.entrySet()) {
+            final String name = entry.getKey();
+            final Family family = entry.getValue();
+            out.append("# HELP ").append(name).append(' ').append(family.help).append('\n');
+            out.append("# TYPE ").append(name).append(' ').append(family.kind.type).append('\n');
+            for (final Map.Entry<String, Metric> metric : family.metrics.entrySet()) {
+                metric.getValue().write(out, name, metric.getKey());
+            }
+        }
+        return out.toString();
+    }
+
+    /**
+     * Renders the labels of a metric.
+     *
+     * @param namesAndValues label names, each followed by its value.
+     * @return labels like {@code resource="PaymentEndpoint.create",status="409"}.
+     */
+    public static String labels(final String... namesAndValues) {
+        if (namesAndValues.length % 2 != 0) {
+            throw new IllegalArgumentException("Label " + namesAndValues[namesAndValues.length - 1]
+                    + " has no value");
+        }
+        final StringBuilder result = new StringBuilder();
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            if (i > 0) {
+                result.append(',');
+            }
+            result.append(namesAndValues[i]).append("=\"");
+            final String value = namesAndValues[i + 1];
+            for (int j = 0; j < value.length(); j++) {
+                final char symbol = value.charAt(j);
+                if (symbol == '\n') {
+                    result.append("\\n");
+                } else {
+                    if (symbol == '\\' || symbol == '"') {
+                        result.append('\\');
+                    }
+                    result.append(symbol);
+                }
+            }
+            result.append('"');
+        }
+        return result.toString();
+    }
+
+    private static final class Family {
+        private final String help;
+        private final Kind kind;
+        private final ConcurrentMap<String, Metric> metrics = new ConcurrentSkipListMap<>();
+
+        /* default */Family(final String description, final Kind value) {
+            this.help = description;
+            this.kind = value;
+        }
+    }
+}
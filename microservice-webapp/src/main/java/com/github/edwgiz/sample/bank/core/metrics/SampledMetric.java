@@ -0,0 +1,21 @@
+package com.github.edwgiz.sample.bank.core.metrics;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * Value read on a scrape only, like a heap size, so it costs nothing between the scrapes.
+ */
+final class SampledMetric extends Metric {
+
+    private final DoubleSupplier supplier;
+
+    /* default */SampledMetric(final DoubleSupplier value) {
+        super();
+        this.supplier = value;
+    }
+
+    @Override
+    /* default */void write(final StringBuilder out, final String name, final String labels) {
+        sample(out, name, labels, "", supplier.getAsDouble());
+    }
+}
@@ -0,0 +1,182 @@
+package com.github.edwgiz.sample.bank.core.metrics;
+
+import java.util.Locale;
+import java.util.function.Supplier;
+
+import static java.lang.System.nanoTime;
+
+/**
+ * Breakdown of the time of one request by its {@link Phase phases}, rendered as a {@code Server-Timing} header.
+ * <p>
+ * The timing is bound to the thread processing the request, so the code deep inside, like a jOOQ listener, records
+ * into it via the static methods, which do nothing on a thread without a request. A phase recorded inside an
+ * explicit one, see {@link #enter()}, is a part of it, so the statements waiting for a lock aren't counted twice.
+ */
+public final class ServerTiming {
+
+    /**
+     * Name of the response header.
+     */
+    public static final String HEADER = "Server-Timing";
+
+    private static final ThreadLocal<ServerTiming> CURRENT = new ThreadLocal<>();
+    private static final Phase[] PHASES = Phase.values();
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+    private static final long NANOS_PER_MICRO = 1_000L;
+    private static final int MICROS_DIGITS = 3;
+
+    private final long start;
+    private final Supplier<String> description;
+    private final long[] nanos;
+    private int depth;
+
+    /**
+     * Phases of a request.
+     */
+    public enum Phase {
+        /**
+         * Reading of the request body.
+         */
+        PARSE,
+        /**
+         * Validation of the request data.
+         */
+        VALIDATE,
+        /**
+         * Waiting for the row locks, including the locking statements.
+         */
+        LOCK,
+        /**
+         * Execution of the statements and fetching of their results.
+         */
+        SQL,
+        /**
+         * Commit of the transactions.
+         */
+        COMMIT,
+        /**
+         * Rollback of the transactions.
+         */
+        ROLLBACK,
+        /**
+         * Writing of the response body, after the headers are sent, so it's not a part of the header.
+         */
+        SERIALIZE;
+
+        private final String headerName = name().toLowerCase(Locale.ROOT);
+    }
+
+    private ServerTiming(final Supplier<String> requestDescription) {
+        this.start = nanoTime();
+        this.description = requestDescription;
+        this.nanos = new long[PHASES.length];
+    }
+
+    /**
+     * Starts the timing of a request on the current thread.
+     *
+     * @param requestDescription describes the request, called for a slow one only.
+     * @return the timing of the request.
+     */
+    public static ServerTiming begin(final Supplier<String> requestDescription) {
+        final ServerTiming result = new ServerTiming(requestDescription);
+        CURRENT.set(result);
+        return result;
+    }
+
+    /**
+     * Unbinds the timing from the current thread, if it's bound.
+     */
+    public void end() {
+        if (CURRENT.get() == this) {
+            CURRENT.remove();
+        }
+    }
+
+    /**
+     * Starts an explicit phase, the phases recorded until {@link #exit(Phase, long)} are its parts.
+     *
+     * @return start time to pass to {@link #exit(Phase, long)}.
+     */
+    public static long enter() {
+        final ServerTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.depth++;
+        }
+        return nanoTime();
+    }
+
+    /**
+     * Completes an explicit phase.
+     *
+     * @param phase     the phase.
+     * @param startTime value returned by {@link #enter()}.
+     */
+    public static void exit(final Phase phase, final long startTime) {
+        final ServerTiming timing = CURRENT.get();
+        if (timing != null) {
+            timing.depth--;
+            timing.add(phase, nanoTime() - startTime);
+        }
+    }
+
+    /**
+     * Adds a duration to the phase of the current request, unless it's inside an explicit phase.
+     *
+     * @param phase    the phase.
+     * @param duration duration in nanoseconds.
+     */
+    public static void record(final Phase phase, final long duration) {
+        final ServerTiming timing = CURRENT.get();
+        if (timing != null && timing.depth == 0) {
+            timing.add(phase, duration);
+        }
+    }
+
+    /**
+     * @param phase    the phase.
+     * @param duration duration in nanoseconds.
+     */
+    public void add(final Phase phase, final long duration) {
+        nanos[phase.ordinal()] += duration;
+    }
+
+    /**
+     * @return nanoseconds since the start of the request.
+     */
+    public long getTotal() {
+        return nanoTime() - start;
+    }
+
+    /**
+     * @return the description of the request.
+     */
+    public String getDescription() {
+        return description.get();
+    }
+
+    /**
+     * @return the recorded phases and the total so far, in milliseconds, like
+     * {@code parse;dur=0.120, sql;dur=1.503, total;dur=2.010}.
+     */
+    @Override
+    public String toString() {
+        final StringBuilder result = new StringBuilder();
+        for (final Phase phase : PHASES) {
+            final long duration = nanos[phase.ordinal()];
+            if (duration > 0L) {
+                appendDuration(result, phase.headerName, duration).append(", ");
+            }
+        }
+        return appendDuration(result, "total", getTotal()).toString();
+    }
+
+    private static StringBuilder appendDuration(final StringBuilder out, final String name, final long duration) {
+        out.append(name).append(";dur=").append(duration / NANOS_PER_MILLI).append('.');
+        final String micros = Long.toString(duration % NANOS_PER_MILLI / NANOS_PER_MICRO);
+        for (int i = micros.length(); i < MICROS_DIGITS; i++) {
+            out.append('0');
+        }
+        return out.append(micros);
+    }
+}
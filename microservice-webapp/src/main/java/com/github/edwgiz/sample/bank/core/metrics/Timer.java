@@ -0,0 +1,65 @@
+package com.github.edwgiz.sample.bank.core.metrics;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency histogram exposed as a Prometheus summary in seconds.
+ * <p>
+ * The durations are recorded into a wait-free HdrHistogram {@link Recorder}, so a recording thread never blocks
+ * and never allocates. The quantiles are of the durations recorded since the previous scrape, the count and the sum
+ * are since the start.
+ */
+public final class Timer extends Metric {
+
+    private static final double[] QUANTILES = {0.5, 0.9, 0.99, 0.999};
+    private static final String[] QUANTILE_LABELS = new String[QUANTILES.length];
+    private static final int SIGNIFICANT_DIGITS = 2;
+    private static final double PERCENTS = 100.0;
+    private static final double NANOS_PER_SECOND = 1e9;
+
+    static {
+        for (int i = 0; i < QUANTILES.length; i++) {
+            QUANTILE_LABELS[i] = "quantile=\"" + QUANTILES[i] + '"';
+        }
+    }
+
+    private final Recorder recorder = new Recorder(SIGNIFICANT_DIGITS); // auto-resizing
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sum = new LongAdder();
+    /**
+     * Recycled interval histogram, guarded by this.
+     */
+    private Histogram interval;
+
+    /**
+     * @param nanos duration in nanoseconds, a negative one is counted as zero.
+     */
+    public void record(final long nanos) {
+        final long value = Math.max(0L, nanos);
+        recorder.recordValue(value);
+        count.increment();
+        sum.add(value);
+    }
+
+    /**
+     * @return number of the recorded durations.
+     */
+    public long getCount() {
+        return count.sum();
+    }
+
+    @Override
+    synchronized /* default */void write(final StringBuilder out, final String name, final String labels) {
+        interval = recorder.getIntervalHistogram(interval);
+        final boolean empty = interval.getTotalCount() == 0L;
+        for (int i = 0; i < QUANTILES.length; i++) {
+            sample(out, name, labels, QUANTILE_LABELS[i],
+                    empty ? Double.NaN : interval.getValueAtPercentile(QUANTILES[i] * PERCENTS) / NANOS_PER_SECOND);
+        }
+        sample(out, name + "_count", labels, getCount());
+        sample(out, name + "_sum", labels, "", sum.sum() / NANOS_PER_SECOND);
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Low-overhead application metrics in the Prometheus text format.
+ */
+package com.github.edwgiz.sample.bank.core.metrics;
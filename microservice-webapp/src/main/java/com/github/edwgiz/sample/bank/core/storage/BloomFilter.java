@@ -0,0 +1,111 @@
+package com.github.edwgiz.sample.bank.core.storage;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Bloom filter of {@code long} keys, answers whether a key is definitely absent or might be present in a set.
+ * Uses double hashing over the two halves of a 64-bit mix of the key. Filled once, then is read concurrently.
+ */
+public final class BloomFilter {
+
+    private static final double LN2 = Math.log(2);
+    private static final int WORD_SHIFT = 6;
+    private static final long MIX_MULTIPLIER1 = 0xff51afd7ed558ccdL;
+    private static final long MIX_MULTIPLIER2 = 0xc4ceb9fe1a85ec53L;
+    private static final int MIX_SHIFT = 33;
+    private static final int HALF_SHIFT = 32;
+
+    private final int hashes;
+    private final long[] words;
+
+    /**
+     * @param expectedKeys         number of keys to put.
+     * @param falsePositiveRate    desired probability of {@link #mightContain(long)} returning {@code true} for
+     *                             an absent key, e.g. {@code 0.01}.
+     */
+    public BloomFilter(final int expectedKeys, final double falsePositiveRate) {
+        final double bits = Math.max(1, expectedKeys) * -Math.log(falsePositiveRate) / (LN2 * LN2);
+        this.words = new long[(int) Math.ceil(bits / Long.SIZE)];
+        this.hashes = Math.max(1, (int) Math.round(words.length * Long.SIZE * LN2 / Math.max(1, expectedKeys)));
+    }
+
+    private BloomFilter(final int hashCount, final long[] value) {
+        this.hashes = hashCount;
+        this.words = value;
+    }
+
+    /**
+     * @param key key to add.
+     */
+    public void put(final long key) {
+        final long hash = mix(key);
+        final int bits = words.length * Long.SIZE;
+        for (int i = 0; i < hashes; i++) {
+            final int bit = index(hash, i, bits);
+            words[bit >>> WORD_SHIFT] |= 1L << bit;
+        }
+    }
+
+    /**
+     * @param key key to check.
+     * @return {@code false} when the key was never put, {@code true} when it probably was.
+     */
+    public boolean mightContain(final long key) {
+        final long hash = mix(key);
+        final int bits = words.length * Long.SIZE;
+        boolean result = true;
+        for (int i = 0; result && i < hashes; i++) {
+            final int bit = index(hash, i, bits);
+            result = (words[bit >>> WORD_SHIFT] & 1L << bit) != 0;
+        }
+        return result;
+    }
+
+    /* default */static int index(final long hash, final int round, final int bits) {
+        final int combined = (int) hash + round * (int) (hash >>> HALF_SHIFT);
+        return (combined & Integer.MAX_VALUE) % bits;
+    }
+
+    /* default */static long mix(final long key) {
+        // finalization step of MurmurHash3, spreads the sequential keys over all the bits
+        long hash = key;
+        hash ^= hash >>> MIX_SHIFT;
+        hash *= MIX_MULTIPLIER1;
+        hash ^= hash >>> MIX_SHIFT;
+        hash *= MIX_MULTIPLIER2;
+        hash ^= hash >>> MIX_SHIFT;
+        return hash;
+    }
+
+    /**
+     * @return number of bytes {@link #writeTo(ByteBuffer)} puts.
+     */
+    public int serializedSize() {
+        return Integer.BYTES * 2 + words.length * Long.BYTES;
+    }
+
+    /**
+     * @param buffer target buffer, its position is moved by {@link #serializedSize()}.
+     */
+    public void writeTo(final ByteBuffer buffer) {
+        buffer.putInt(hashes);
+        buffer.putInt(words.length);
+        for (final long word : words) {
+            buffer.putLong(word);
+        }
+    }
+
+    /**
+     * @param buffer source buffer positioned at the data put by {@link #writeTo(ByteBuffer)}, the position is moved
+     *               past it.
+     * @return a copy of the written filter.
+     */
+    public static BloomFilter readFrom(final ByteBuffer buffer) {
+        final int hashCount = buffer.getInt();
+        final long[] value = new long[buffer.getInt()];
+        for (int i = 0; i < value.length; i++) {
+            value[i] = buffer.getLong();
+        }
+        return new BloomFilter(hashCount, value);
+    }
+}
@@ -0,0 +1,53 @@
+package com.github.edwgiz.sample.bank.core.storage;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Count-min sketch of {@code long} keys, estimates the sum of the values added by a key in a fixed memory, whatever
+ * the number of the keys. Each row adds a value to one of its counters, chosen by the same double hashing as
+ * {@link BloomFilter}, the estimate is the least counter of the key, so it's never below the actual sum. Updated and
+ * read concurrently without locks.
+ */
+public final class CountMinSketch {
+
+    private final int rows;
+    private final int columns;
+    private final AtomicLongArray counters;
+
+    /**
+     * An estimate exceeds the actual sum by at most {@code e / columns} of the total sum, with the probability of
+     * {@code 1 - exp(-rows)}.
+     *
+     * @param depth number of the rows.
+     * @param width number of the counters in a row.
+     */
+    public CountMinSketch(final int depth, final int width) {
+        this.rows = depth;
+        this.columns = width;
+        this.counters = new AtomicLongArray(depth * width);
+    }
+
+    /**
+     * @param key   key to add the value by.
+     * @param value non-negative value.
+     */
+    public void add(final long key, final long value) {
+        final long hash = BloomFilter.mix(key);
+        for (int row = 0; row < rows; row++) {
+            counters.addAndGet(row * columns + BloomFilter.index(hash, row, columns), value);
+        }
+    }
+
+    /**
+     * @param key key to estimate.
+     * @return sum of the values added by the key, possibly overestimated by the other keys.
+     */
+    public long estimate(final long key) {
+        final long hash = BloomFilter.mix(key);
+        long result = Long.MAX_VALUE;
+        for (int row = 0; row < rows; row++) {
+            result = Math.min(result, counters.get(row * columns + BloomFilter.index(hash, row, columns)));
+        }
+        return result;
+    }
+}
@@ -1,8 +1,10 @@
 package com.github.edwgiz.sample.bank.core.storage;
 
+import com.github.edwgiz.sample.bank.core.metrics.Metrics;
 import org.glassfish.hk2.api.Factory;
 import org.jooq.DSLContext;
 import org.jooq.SQLDialect;
+import org.jooq.TransactionListener;
 import org.jooq.impl.DSL;
 import org.jooq.impl.DefaultConfiguration;
 import org.jooq.impl.ThreadLocalTransactionProvider;
@@ -11,17 +13,52 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 import javax.sql.DataSource;
 
+/**
+ * Configures the jOOQ contexts with the transaction and statement metrics, the slow statement log and the spans of
+ * the transactions and statements run inside a traced request.
+ * <p>
+ * Optional system property {@value #SYSTEM_PROPERTY_SLOW_QUERY_MILLIS} defines the duration of a slow statement,
+ * {@value #DEFAULT_SLOW_QUERY_MILLIS} milliseconds by default, and {@value #SYSTEM_PROPERTY_SLOW_QUERY_REDACT} set to
+ * {@code false} logs the bind values of the slow statements instead of their types.
+ */
 @Singleton
 public final class DSLContextFactory implements Factory<DSLContext> {
 
+    /**
+     * Optional system property, duration of a slow statement in milliseconds.
+     */
+    public static final String SYSTEM_PROPERTY_SLOW_QUERY_MILLIS = "storage.slow.query.millis";
+    /**
+     * Optional system property, whether to log the types of the bind values of the slow statements only.
+     */
+    public static final String SYSTEM_PROPERTY_SLOW_QUERY_REDACT = "storage.slow.query.redact";
+    private static final long DEFAULT_SLOW_QUERY_MILLIS = 100L;
+
     private final DataSource dataSource;
+    private final DatabaseMetrics databaseMetrics;
+    private final SlowQueryLog slowQueryLog;
+    private final TracingListener tracingListener;
 
     /**
      * @param value data source to become underlying.
      */
-    @Inject
     public DSLContextFactory(final DataSource value) {
+        this(value, new Metrics(), new QueryStatistics());
+    }
+
+    /**
+     * @param value      data source to become underlying.
+     * @param metrics    registry of the transaction and statement durations.
+     * @param statistics aggregated durations of the statements.
+     */
+    @Inject
+    public DSLContextFactory(final DataSource value, final Metrics metrics, final QueryStatistics statistics) {
         this.dataSource = value;
+        this.databaseMetrics = new DatabaseMetrics(metrics);
+        this.slowQueryLog = new SlowQueryLog(value, statistics,
+                Long.getLong(SYSTEM_PROPERTY_SLOW_QUERY_MILLIS, DEFAULT_SLOW_QUERY_MILLIS),
+                !"false".equals(System.getProperty(SYSTEM_PROPERTY_SLOW_QUERY_REDACT)));
+        this.tracingListener = new TracingListener();
     }
 
     @Override
@@ -32,6 +69,8 @@ public final class DSLContextFactory implements Factory<DSLContext> {
         conf.settings().setReturnIdentityOnUpdatableRecord(true);
         conf.settings().setRenderSchema(false);
         conf.setTransactionProvider(new ThreadLocalTransactionProvider(conf.connectionProvider()));
+        conf.set((TransactionListener) databaseMetrics, tracingListener);
+        conf.set(databaseMetrics, slowQueryLog, tracingListener);
         return DSL.using(conf);
     }
 
@@ -0,0 +1,121 @@
+package com.github.edwgiz.sample.bank.core.storage;
+
+import com.github.edwgiz.sample.bank.core.metrics.Metrics;
+import com.github.edwgiz.sample.bank.core.metrics.ServerTiming;
+import com.github.edwgiz.sample.bank.core.metrics.ServerTiming.Phase;
+import com.github.edwgiz.sample.bank.core.metrics.Timer;
+import org.jooq.ExecuteContext;
+import org.jooq.Scope;
+import org.jooq.TransactionContext;
+import org.jooq.TransactionListener;
+import org.jooq.impl.DefaultExecuteListener;
+
+import static com.github.edwgiz.sample.bank.core.metrics.Metrics.labels;
+import static java.lang.System.nanoTime;
+
+/**
+ * Records the durations of the transactions and of their phases: begin, statement execution, result fetching,
+ * commit and rollback. A start time is kept in the data of the jOOQ context of the phase. The statements, the commits
+ * and the rollbacks are also added to the {@link ServerTiming} of the current request.
+ */
+final class DatabaseMetrics extends DefaultExecuteListener implements TransactionListener {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final String TRANSACTION = "db_transaction_duration_seconds";
+    private static final String TRANSACTION_HELP = "Duration of the transactions by their outcome.";
+    private static final String PHASE = "db_phase_duration_seconds";
+    private static final String PHASE_HELP = "Duration of the phases of the transactions and the statements.";
+    private static final String OUTCOME_LABEL = "outcome";
+    private static final String PHASE_LABEL = "phase";
+    private static final String COMMIT = "commit";
+    private static final String ROLLBACK = "rollback";
+
+    private static final String TRANSACTION_START = "metrics.transaction";
+    private static final String PHASE_START = "metrics.phase";
+    private static final String FETCH_START = "metrics.fetch";
+
+    private final transient Timer committed;
+    private final transient Timer rolledBack;
+    private final transient Timer begin;
+    private final transient Timer commit;
+    private final transient Timer rollback;
+    private final transient Timer execute;
+    private final transient Timer fetch;
+
+    /* default */DatabaseMetrics(final Metrics metrics) {
+        super();
+        this.committed = metrics.timer(TRANSACTION, TRANSACTION_HELP, labels(OUTCOME_LABEL, COMMIT));
+        this.rolledBack = metrics.timer(TRANSACTION, TRANSACTION_HELP, labels(OUTCOME_LABEL, ROLLBACK));
+        this.begin = metrics.timer(PHASE, PHASE_HELP, labels(PHASE_LABEL, "begin"));
+        this.commit = metrics.timer(PHASE, PHASE_HELP, labels(PHASE_LABEL, COMMIT));
+        this.rollback = metrics.timer(PHASE, PHASE_HELP, labels(PHASE_LABEL, ROLLBACK));
+        this.execute = metrics.timer(PHASE, PHASE_HELP, labels(PHASE_LABEL, "execute"));
+        this.fetch = metrics.timer(PHASE, PHASE_HELP, labels(PHASE_LABEL, "fetch"));
+    }
+
+    @Override
+    public void beginStart(final TransactionContext ctx) {
+        final Long start = nanoTime();
+        ctx.data(TRANSACTION_START, start);
+        ctx.data(PHASE_START, start);
+    }
+
+    @Override
+    public void beginEnd(final TransactionContext ctx) {
+        record(begin, ctx, PHASE_START);
+    }
+
+    @Override
+    public void commitStart(final TransactionContext ctx) {
+        ctx.data(PHASE_START, nanoTime());
+    }
+
+    @Override
+    public void commitEnd(final TransactionContext ctx) {
+        ServerTiming.record(Phase.COMMIT, record(commit, ctx, PHASE_START));
+        record(committed, ctx, TRANSACTION_START);
+    }
+
+    @Override
+    public void rollbackStart(final TransactionContext ctx) {
+        ctx.data(PHASE_START, nanoTime());
+    }
+
+    @Override
+    public void rollbackEnd(final TransactionContext ctx) {
+        ServerTiming.record(Phase.ROLLBACK, record(rollback, ctx, PHASE_START));
+        record(rolledBack, ctx, TRANSACTION_START);
+    }
+
+    @Override
+    public void executeStart(final ExecuteContext ctx) {
+        ctx.data(PHASE_START, nanoTime());
+    }
+
+    @Override
+    public void executeEnd(final ExecuteContext ctx) {
+        ServerTiming.record(Phase.SQL, record(execute, ctx, PHASE_START));
+    }
+
+    @Override
+    public void fetchStart(final ExecuteContext ctx) {
+        ctx.data(FETCH_START, nanoTime());
+    }
+
+    @Override
+    public void fetchEnd(final ExecuteContext ctx) {
+        ServerTiming.record(Phase.SQL, record(fetch, ctx, FETCH_START));
+    }
+
+    // returns the recorded duration, zero without a start
+    private static long record(final Timer timer, final Scope ctx, final String startKey) {
+        final Object start = ctx.data(startKey);
+        long result = 0L;
+        if (start != null) {
+            result = nanoTime() - (Long) start;
+            timer.record(result);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,226 @@
+package com.github.edwgiz.sample.bank.core.storage;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The heaviest {@code long} keys by the Space-Saving algorithm, in a fixed memory. At most the capacity of the keys
+ * are kept, a new key replaces the lightest one and inherits its weight as the possible overestimation, so a key
+ * heavier than {@code 1 / capacity} of the total weight is never lost.
+ * <p>
+ * The keys are spread by their hashes over the stripes, each one keeps the capacity of the keys under its own
+ * monitor, so the concurrent additions rarely wait for each other. A stripe finds a key by an open addressing table
+ * and the lightest key by a binary min-heap, the weights are updated in place, so an addition allocates nothing.
+ * {@link #top(int)} merges the stripes.
+ */
+public final class HeavyHitters {
+
+    private static final int STRIPES = 16;
+    private static final Comparator<Hitter> BY_WEIGHT_DESC =
+            Comparator.comparingLong(Hitter::getWeight).reversed();
+
+    private final int capacity;
+    private final Stripe[] stripes;
+
+    /**
+     * @param maxKeys number of the keys to keep per stripe, and to report at most.
+     */
+    public HeavyHitters(final int maxKeys) {
+        this.capacity = maxKeys;
+        this.stripes = new Stripe[STRIPES];
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe(maxKeys);
+        }
+    }
+
+    /**
+     * @param key    key to add the weight to.
+     * @param weight non-negative weight.
+     */
+    public void add(final long key, final long weight) {
+        final long hash = BloomFilter.mix(key);
+        // the high bits choose the stripe, the low ones the table slot
+        final Stripe stripe = stripes[(int) (hash >>> Integer.SIZE) & (STRIPES - 1)];
+        synchronized (stripe) {
+            stripe.add(key, (int) hash, weight);
+        }
+    }
+
+    /**
+     * @param limit maximum number of the keys to return.
+     * @return the heaviest keys first.
+     */
+    public List<Hitter> top(final int limit) {
+        final List<Hitter> result = new ArrayList<>();
+        for (final Stripe stripe : stripes) {
+            synchronized (stripe) {
+                stripe.copyTo(result);
+            }
+        }
+        result.sort(BY_WEIGHT_DESC);
+        final int size = Math.min(limit, capacity);
+        return result.size() > size ? new ArrayList<>(result.subList(0, size)) : result;
+    }
+
+    /**
+     * Keys of one stripe, guarded by its monitor. A key is kept in a slot of the parallel arrays, the table and the
+     * heap hold the slot numbers.
+     */
+    private static final class Stripe {
+
+        private final long[] keys;
+        private final long[] weights;
+        private final long[] errors;
+        /**
+         * Slot number plus one by the key hash, zero for an empty entry, probed linearly.
+         */
+        private final int[] table;
+        /**
+         * Slot numbers, the lightest first.
+         */
+        private final int[] heap;
+        /**
+         * Index in the heap by slot number.
+         */
+        private final int[] heapIndex;
+        private int size;
+
+        /* default */Stripe(final int maxKeys) {
+            this.keys = new long[maxKeys];
+            this.weights = new long[maxKeys];
+            this.errors = new long[maxKeys];
+            // at most half full, so the probes are short
+            this.table = new int[Integer.highestOneBit(maxKeys) << 2];
+            this.heap = new int[maxKeys];
+            this.heapIndex = new int[maxKeys];
+        }
+
+        /* default */void add(final long key, final int hash, final long weight) {
+            final int entry = find(key, hash);
+            final int slot = table[entry] - 1;
+            if (slot >= 0) {
+                weights[slot] += weight;
+                siftDown(heapIndex[slot]);
+            } else if (size < keys.length) {
+                keys[size] = key;
+                weights[size] = weight;
+                table[entry] = size + 1;
+                heap[size] = size;
+                heapIndex[size] = size;
+                siftUp(size);
+                size++;
+            } else {
+                final int lightest = heap[0];
+                remove(find(keys[lightest], (int) BloomFilter.mix(keys[lightest])));
+                errors[lightest] = weights[lightest];
+                weights[lightest] += weight;
+                keys[lightest] = key;
+                table[find(key, hash)] = lightest + 1; // the removal may have moved the free entry
+                siftDown(0);
+            }
+        }
+
+        // entry of the key, or the empty entry to put it into
+        private int find(final long key, final int hash) {
+            final int mask = table.length - 1;
+            int entry = hash & mask;
+            while (table[entry] != 0 && keys[table[entry] - 1] != key) {
+                entry = (entry + 1) & mask;
+            }
+            return entry;
+        }
+
+        // shifts the following entries of the probe back, so no lookup stops at the removed one
+        private void remove(final int removed) {
+            final int mask = table.length - 1;
+            int free = removed;
+            int entry = (free + 1) & mask;
+            while (table[entry] != 0) {
+                final int home = (int) BloomFilter.mix(keys[table[entry] - 1]) & mask;
+                // the entry may fill the free one unless its home lies cyclically within (free, entry]
+                if (((entry - home) & mask) >= ((entry - free) & mask)) {
+                    table[free] = table[entry];
+                    free = entry;
+                }
+                entry = (entry + 1) & mask;
+            }
+            table[free] = 0;
+        }
+
+        private void siftUp(final int index) {
+            int child = index;
+            while (child > 0 && weights[heap[child]] < weights[heap[(child - 1) >>> 1]]) {
+                swap(child, (child - 1) >>> 1);
+                child = (child - 1) >>> 1;
+            }
+        }
+
+        private void siftDown(final int index) {
+            int parent = index;
+            int child = 2 * parent + 1;
+            while (child < size) {
+                if (child + 1 < size && weights[heap[child + 1]] < weights[heap[child]]) {
+                    child++;
+                }
+                if (weights[heap[parent]] <= weights[heap[child]]) {
+                    break;
+                }
+                swap(parent, child);
+                parent = child;
+                child = 2 * parent + 1;
+            }
+        }
+
+        private void swap(final int first, final int second) {
+            final int slot = heap[first];
+            heap[first] = heap[second];
+            heap[second] = slot;
+            heapIndex[heap[first]] = first;
+            heapIndex[heap[second]] = second;
+        }
+
+        /* default */void copyTo(final List<Hitter> result) {
+            for (int slot = 0; slot < size; slot++) {
+                result.add(new Hitter(keys[slot], weights[slot], errors[slot]));
+            }
+        }
+    }
+
+    /**
+     * Weight of a key.
+     */
+    public static final class Hitter {
+
+        private final long key;
+        private final long weight;
+        private final long error;
+
+        /* default */Hitter(final long value, final long total, final long overestimation) {
+            this.key = value;
+            this.weight = total;
+            this.error = overestimation;
+        }
+
+        /**
+         * @return the key.
+         */
+        public long getKey() {
+            return key;
+        }
+
+        /**
+         * @return weight of the key, possibly overestimated by {@link #getError()}.
+         */
+        public long getWeight() {
+            return weight;
+        }
+
+        /**
+         * @return maximum overestimation of the weight, inherited from the replaced keys.
+         */
+        public long getError() {
+            return error;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.github.edwgiz.sample.bank.core.storage;
+
+import org.jooq.DSLContext;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Routes the rows of a logical table to monthly partitions, i.e. to separate physical tables named
+ * {@code TABLE_PyyyyMM}. H2 has no native partitioning, so every partition is created by the given DDL template
+ * with the placeholders:
+ * <ul>
+ * <li>{@code ${partition}} - name of the partition table;</li>
+ * <li>{@code ${from}} - first moment of the month, inclusive;</li>
+ * <li>{@code ${to}} - first moment of the next month, exclusive.</li>
+ * </ul>
+ * The partitions of the closed months are sealed with {@link ReadOnlyTrigger}, so nothing modifies them anymore.
+ * <p>
+ * DDL statements commit an ongoing H2 transaction, so {@link #prepare(DSLContext, LocalDateTime)} must be called
+ * outside of any transaction, before the rows are inserted.
+ */
+public final class MonthlyPartitions {
+
+    /**
+     * A month is closed when it is ended this time ago, it covers the transactions started at the month end.
+     */
+    /* default */static final Duration SEAL_DELAY = Duration.ofHours(1L);
+
+    private static final DateTimeFormatter SUFFIX_FORMATTER = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final DateTimeFormatter BOUND_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+
+    private final String tableName;
+    private final String ddlTemplate;
+    private final Pattern namePattern;
+    private final ConcurrentSkipListMap<YearMonth, Partition> partitions;
+
+    /**
+     * @param table    name of the logical table, becomes a prefix of the partition names.
+     * @param template DDL script creating one partition, must be idempotent, e.g. {@code CREATE TABLE IF NOT EXISTS}.
+     */
+    public MonthlyPartitions(final String table, final String template) {
+        this.tableName = table;
+        this.ddlTemplate = template;
+        this.namePattern = Pattern.compile(Pattern.quote(table) + "_P(\\d{6})");
+        this.partitions = new ConcurrentSkipListMap<>();
+    }
+
+    /**
+     * @param timestamp timestamp of a row.
+     * @return name of the partition table holding the row.
+     */
+    public String nameOf(final LocalDateTime timestamp) {
+        return nameOf(YearMonth.from(timestamp));
+    }
+
+    private String nameOf(final YearMonth month) {
+        return tableName + "_P" + SUFFIX_FORMATTER.format(month);
+    }
+
+    /**
+     * Registers the partitions created before, e.g. by a previous instance of the application sharing the database.
+     * Their sealing state is restored by the next {@link #prepare(DSLContext, LocalDateTime)} call.
+     *
+     * @param dslCtx context to query the database catalog.
+     */
+    public void discover(final DSLContext dslCtx) {
+        for (final String name : dslCtx.fetch(
+                "SELECT TABLE_NAME FROM INFORMATION_SCHEMA.TABLES WHERE TABLE_SCHEMA = SCHEMA()")
+                .getValues(0, String.class)) {
+            final Matcher matcher = namePattern.matcher(name);
+            if (matcher.matches()) {
+                partitions.putIfAbsent(YearMonth.parse(matcher.group(1), SUFFIX_FORMATTER), new Partition(name));
+            }
+        }
+    }
+
+    /**
+     * Creates the partitions of the current and of the next months, so the rows timestamped a bit later than
+     * {@code now} also find their partition. Seals the partitions of the closed months.
+     * Does nothing when all of that is done already.
+     *
+     * @param dslCtx context to execute DDL, must not be involved into a transaction.
+     * @param now    current timestamp.
+     */
+    public void prepare(final DSLContext dslCtx, final LocalDateTime now) {
+        final YearMonth month = YearMonth.from(now);
+        create(dslCtx, month);
+        create(dslCtx, month.plusMonths(1L));
+        final YearMonth closed = YearMonth.from(now.minus(SEAL_DELAY));
+        for (final Partition partition : partitions.headMap(closed).values()) {
+            seal(dslCtx, partition);
+        }
+    }
+
+    /**
+     * Creates the partitions of the months overlapping the given interval, e.g. to load the historical rows, without
+     * sealing any of them. Like other DDL, must be called outside of any transaction.
+     *
+     * @param dslCtx       context to execute DDL.
+     * @param intervalFrom interval start, inclusive.
+     * @param intervalTo   interval end, inclusive.
+     */
+    public void create(final DSLContext dslCtx, final LocalDateTime intervalFrom, final LocalDateTime intervalTo) {
+        final YearMonth last = YearMonth.from(intervalTo);
+        for (YearMonth month = YearMonth.from(intervalFrom); !month.isAfter(last); month = month.plusMonths(1L)) {
+            create(dslCtx, month);
+        }
+    }
+
+    private void create(final DSLContext dslCtx, final YearMonth month) {
+        if (!partitions.containsKey(month)) {
+            synchronized (partitions) {
+                if (!partitions.containsKey(month)) {
+                    final String name = nameOf(month);
+                    dslCtx.execute(ddlTemplate
+                            .replace("${partition}", name)
+                            .replace("${from}", BOUND_FORMATTER.format(month.atDay(1).atStartOfDay()))
+                            .replace("${to}", BOUND_FORMATTER.format(month.plusMonths(1L).atDay(1).atStartOfDay())));
+                    partitions.put(month, new Partition(name));
+                }
+            }
+        }
+    }
+
+    private void seal(final DSLContext dslCtx, final Partition partition) {
+        if (!partition.sealed) {
+            synchronized (partition) {
+                if (!partition.sealed) {
+                    dslCtx.execute("CREATE TRIGGER IF NOT EXISTS " + partition.name + "__READ_ONLY"
+                            + " BEFORE INSERT, UPDATE, DELETE ON " + partition.name
+                            + " CALL \"" + ReadOnlyTrigger.class.getName() + '"');
+                    partition.sealed = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * Prunes the partitions not overlapping the given interval.
+     *
+     * @param intervalFrom interval start, inclusive.
+     * @param intervalTo   interval end, inclusive.
+     * @return names of the existing partitions overlapping the interval, in chronological order.
+     */
+    public List<String> between(final LocalDateTime intervalFrom, final LocalDateTime intervalTo) {
+        return names(partitions.subMap(YearMonth.from(intervalFrom), true, YearMonth.from(intervalTo), true));
+    }
+
+    /**
+     * @return names of all existing partitions, in chronological order.
+     */
+    public List<String> all() {
+        return names(partitions);
+    }
+
+    private static List<String> names(final Map<YearMonth, Partition> values) {
+        final List<String> result = new ArrayList<>(values.size());
+        for (final Partition partition : values.values()) {
+            result.add(partition.name);
+        }
+        return result;
+    }
+
+    /**
+     * @param cutoff timestamp, the partitions are returned only if all their rows are older.
+     * @return names of the sealed partitions of the months ended before the cutoff, in chronological order.
+     */
+    public List<String> sealedBefore(final LocalDateTime cutoff) {
+        final List<String> result = new ArrayList<>();
+        for (final Partition partition : partitions.headMap(YearMonth.from(cutoff)).values()) {
+            if (partition.sealed) {
+                result.add(partition.name);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Forgets the partition, so the queries don't see it anymore, then drops its table.
+     * Like other DDL, must be called outside of any transaction.
+     *
+     * @param dslCtx context to execute DDL.
+     * @param name   partition name.
+     */
+    public void drop(final DSLContext dslCtx, final String name) {
+        partitions.values().removeIf(partition -> partition.name.equals(name));
+        dslCtx.execute("DROP TABLE IF EXISTS " + name);
+    }
+
+    /**
+     * @param name partition name.
+     * @return {@code true} when the partition exists and is sealed.
+     */
+    public boolean isSealed(final String name) {
+        boolean result = false;
+        for (final Partition partition : partitions.values()) {
+            if (partition.name.equals(name)) {
+                result = partition.sealed;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Partition state.
+     */
+    private static final class Partition {
+        private final String name;
+        private volatile boolean sealed;
+
+        /* default */Partition(final String value) {
+            this.name = value;
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package com.github.edwgiz.sample.bank.core.storage;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Execution time of the SQL statements aggregated by their text, to find the statements taking the most time.
+ * <p>
+ * The statements differ by the bind value placeholders only, so their number is small, still it's limited by
+ * {@link #MAX_STATEMENTS}, the statements above it are aggregated as {@link #OTHER}.
+ */
+public final class QueryStatistics {
+
+    /**
+     * Maximum number of the distinct statements.
+     */
+    public static final int MAX_STATEMENTS = 1000;
+    /**
+     * Text of the statements above {@link #MAX_STATEMENTS}.
+     */
+    public static final String OTHER = "(other)";
+
+    private static final Comparator<StatementStats> BY_TOTAL_DESC =
+            Comparator.comparingLong(StatementStats::getTotalNanos).reversed();
+
+    private final Map<String, Aggregate> statements = new ConcurrentHashMap<>();
+
+    /**
+     * @param sql   SQL of the statement.
+     * @param nanos duration of the execution, including the fetching.
+     * @param rows  number of the fetched or the affected rows, negative if unknown.
+     */
+    public void record(final String sql, final long nanos, final long rows) {
+        Aggregate aggregate = statements.get(sql);
+        if (aggregate == null) {
+            aggregate = statements.computeIfAbsent(
+                    statements.size() < MAX_STATEMENTS ? sql : OTHER, key -> new Aggregate());
+        }
+        aggregate.add(nanos, rows);
+    }
+
+    /**
+     * @param limit maximum number of the statements to return.
+     * @return the statements with the biggest total duration first.
+     */
+    public List<StatementStats> top(final int limit) {
+        final List<StatementStats> result = new ArrayList<>(statements.size());
+        statements.forEach((sql, aggregate) -> result.add(aggregate.snapshot(sql)));
+        result.sort(BY_TOTAL_DESC);
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    /**
+     * Concurrently updated counters of a statement.
+     */
+    private static final class Aggregate {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final LongAdder rows = new LongAdder();
+
+        /* default */void add(final long nanos, final long rowCount) {
+            count.increment();
+            totalNanos.add(nanos);
+            maxNanos.accumulateAndGet(nanos, Math::max);
+            if (rowCount > 0L) {
+                rows.add(rowCount);
+            }
+        }
+
+        /* default */StatementStats snapshot(final String sql) {
+            return new StatementStats(sql, count.sum(), totalNanos.sum(), maxNanos.get(), rows.sum());
+        }
+    }
+}
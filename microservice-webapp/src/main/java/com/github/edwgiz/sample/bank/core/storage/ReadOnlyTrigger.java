@@ -0,0 +1,35 @@
+package com.github.edwgiz.sample.bank.core.storage;
+
+import org.h2.api.Trigger;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * H2 trigger rejecting any modification of a table, marks the table as read-only.
+ *
+ * @see MonthlyPartitions
+ */
+public final class ReadOnlyTrigger implements Trigger {
+
+    private String tableName;
+
+    @Override
+    public void init(final Connection conn, final String schemaName, final String triggerName, final String table,
+            final boolean before, final int type) {
+        this.tableName = table;
+    }
+
+    @Override
+    public void fire(final Connection conn, final Object[] oldRow, final Object[] newRow) throws SQLException {
+        throw new SQLException("Table " + tableName + " is read-only");
+    }
+
+    @Override
+    public void close() {
+    }
+
+    @Override
+    public void remove() {
+    }
+}
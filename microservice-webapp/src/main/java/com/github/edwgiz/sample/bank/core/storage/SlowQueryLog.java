@@ -0,0 +1,172 @@
+package com.github.edwgiz.sample.bank.core.storage;
+
+import org.jooq.ExecuteContext;
+import org.jooq.ExecuteType;
+import org.jooq.Query;
+import org.jooq.Result;
+import org.jooq.impl.DefaultExecuteListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static java.lang.System.nanoTime;
+
+/**
+ * Records the execution time of every statement into {@link QueryStatistics} and logs the slow statements.
+ * <p>
+ * A slow statement is logged as one line of {@code key="value"} pairs: the duration, the rows, the SQL, the bind
+ * values, or just their types if redacted, and the H2 plan. The plan is taken in a background thread on a separate
+ * connection, after the statement. A read is explained by {@code EXPLAIN ANALYZE}, executing it once more to count
+ * the scanned rows, while the other statements and the locking reads are just explained, as they would wait for the
+ * locks of the original transaction. The statements slow faster than the plans are taken are logged without them.
+ */
+final class SlowQueryLog extends DefaultExecuteListener {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final Logger LOG = LoggerFactory.getLogger(SlowQueryLog.class);
+    private static final String START = "slowQueryLog.start";
+    private static final int PENDING_PLANS = 16;
+    private static final long IDLE_SECONDS = 60L;
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    private final transient DataSource dataSource;
+    private final transient QueryStatistics statistics;
+    private final long thresholdNanos;
+    private final boolean redact;
+    private final transient ThreadPoolExecutor planner;
+
+    /**
+     * @param plansSource     source of the connections to take the plans on.
+     * @param queryStatistics aggregated executions.
+     * @param thresholdMillis duration of a slow statement.
+     * @param redactValues    whether to log the types of the bind values instead of the values.
+     */
+    /* default */SlowQueryLog(final DataSource plansSource, final QueryStatistics queryStatistics,
+            final long thresholdMillis, final boolean redactValues) {
+        super();
+        this.dataSource = plansSource;
+        this.statistics = queryStatistics;
+        this.thresholdNanos = TimeUnit.MILLISECONDS.toNanos(thresholdMillis);
+        this.redact = redactValues;
+        // one thread, stopped when idle, and a few pending plans, the others are logged without the plans
+        this.planner = new ThreadPoolExecutor(0, 1, IDLE_SECONDS, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(PENDING_PLANS), runnable -> {
+            final Thread thread = new Thread(runnable, "slow-query-plans");
+            thread.setDaemon(true);
+            return thread;
+        }, (runnable, executor) -> LOG.warn(((SlowQuery) runnable).line("skipped")));
+    }
+
+    @Override
+    public void executeStart(final ExecuteContext ctx) {
+        ctx.data(START, nanoTime());
+    }
+
+    @Override
+    public void end(final ExecuteContext ctx) {
+        final Object start = ctx.data(START);
+        if (start != null && ctx.sql() != null) { // executed
+            final long duration = nanoTime() - (Long) start;
+            final long rows = rows(ctx);
+            statistics.record(ctx.sql(), duration, rows);
+            if (duration >= thresholdNanos) {
+                planner.execute(new SlowQuery(this, ctx, duration, rows));
+            }
+        }
+    }
+
+    private static long rows(final ExecuteContext ctx) {
+        final Result<?> result = ctx.result();
+        return result == null ? ctx.rows() : result.size();
+    }
+
+    private static String explain(final ExecuteContext ctx) {
+        final boolean analyze = ctx.type() == ExecuteType.READ
+                && !ctx.sql().toLowerCase(Locale.ROOT).contains(" for update");
+        return (analyze ? "EXPLAIN ANALYZE " : "EXPLAIN ") + ctx.sql();
+    }
+
+    /* default */boolean awaitPlans(final long millis) throws InterruptedException {
+        planner.shutdown();
+        return planner.awaitTermination(millis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Slow statement to take the plan of and to log.
+     */
+    /* default */static final class SlowQuery implements Runnable {
+
+        private final DataSource dataSource;
+        private final boolean redact;
+        private final String sql;
+        private final List<Object> values;
+        private final long duration;
+        private final long rows;
+        private final String explain;
+
+        /* default */SlowQuery(final SlowQueryLog log, final ExecuteContext ctx, final long nanos,
+                final long rowCount) {
+            this.dataSource = log.dataSource;
+            this.redact = log.redact;
+            this.sql = ctx.sql();
+            final Query query = ctx.query();
+            this.values = query == null ? Collections.emptyList() : query.getBindValues(); // a batch otherwise
+            this.duration = nanos;
+            this.rows = rowCount;
+            this.explain = explain(ctx);
+        }
+
+        @Override
+        public void run() {
+            LOG.warn(line(plan()));
+        }
+
+        /* default */String plan() {
+            String result;
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(false); // an analyzed statement is rolled back
+                try (PreparedStatement statement = connection.prepareStatement(explain)) {
+                    for (int i = 0; i < values.size(); i++) {
+                        statement.setObject(i + 1, values.get(i));
+                    }
+                    try (ResultSet plan = statement.executeQuery()) {
+                        result = plan.next() ? plan.getString(1) : "";
+                    }
+                } finally {
+                    connection.rollback();
+                }
+            } catch (SQLException ex) {
+                result = "unavailable: " + ex.getMessage();
+            }
+            return result;
+        }
+
+        /* default */String line(final String plan) {
+            final List<String> binds = new ArrayList<>(values.size());
+            for (final Object value : values) {
+                binds.add(value == null || !redact ? String.valueOf(value)
+                        : '<' + value.getClass().getSimpleName() + '>');
+            }
+            return "slow query millis=\"" + duration / NANOS_PER_MILLI + "\" rows=\"" + rows
+                    + "\" sql=\"" + escape(sql) + "\" binds=\"" + escape(binds.toString())
+                    + "\" plan=\"" + escape(plan) + '"';
+        }
+    }
+
+    /* default */static String escape(final String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"").replace("\n", "\\n");
+    }
+}
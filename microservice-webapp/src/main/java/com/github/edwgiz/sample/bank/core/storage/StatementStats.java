@@ -0,0 +1,70 @@
+package com.github.edwgiz.sample.bank.core.storage;
+
+/**
+ * Aggregated executions of one SQL statement, a snapshot taken by {@link QueryStatistics#top(int)}.
+ */
+public final class StatementStats {
+
+    private static final double NANOS_PER_MILLI = 1e6;
+
+    private final String sql;
+    private final long count;
+    private final long totalNanos;
+    private final long maxNanos;
+    private final long rows;
+
+    /* default */StatementStats(final String statement, final long executions, final long total, final long max,
+            final long rowCount) {
+        this.sql = statement;
+        this.count = executions;
+        this.totalNanos = total;
+        this.maxNanos = max;
+        this.rows = rowCount;
+    }
+
+    /**
+     * @return SQL with the bind value placeholders.
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * @return number of the executions.
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return total duration of the executions in milliseconds.
+     */
+    public double getTotalMillis() {
+        return totalNanos / NANOS_PER_MILLI;
+    }
+
+    /**
+     * @return mean duration of the executions in milliseconds.
+     */
+    public double getMeanMillis() {
+        return totalNanos / NANOS_PER_MILLI / count;
+    }
+
+    /**
+     * @return maximum duration of the executions in milliseconds.
+     */
+    public double getMaxMillis() {
+        return maxNanos / NANOS_PER_MILLI;
+    }
+
+    /**
+     * @return total number of the fetched or the affected rows.
+     */
+    public long getRows() {
+        return rows;
+    }
+
+    /* default */long getTotalNanos() {
+        return totalNanos;
+    }
+}
@@ -0,0 +1,93 @@
+package com.github.edwgiz.sample.bank.core.storage;
+
+import com.github.edwgiz.sample.bank.core.tracing.SpanKind;
+import com.github.edwgiz.sample.bank.core.tracing.TraceSpan;
+import com.github.edwgiz.sample.bank.core.tracing.Tracer;
+import org.jooq.ExecuteContext;
+import org.jooq.ExecuteType;
+import org.jooq.Scope;
+import org.jooq.TransactionContext;
+import org.jooq.TransactionListener;
+import org.jooq.impl.DefaultExecuteListener;
+
+import java.util.Locale;
+
+/**
+ * Traces the transactions and the statements executed inside a request span, see {@link Tracer}. A span is kept in
+ * the data of the jOOQ context. A statement span starts before the statement is prepared, it's named by the statement
+ * type, like {@code sql read}, and has the SQL. The rolled back transactions and the failed statements are marked
+ * failed.
+ */
+final class TracingListener extends DefaultExecuteListener implements TransactionListener {
+
+    private static final long serialVersionUID = 1L;
+
+    private static final String SPAN = "tracing.span";
+    private static final String[] STATEMENT_NAMES = statementNames();
+
+    @Override
+    public void beginStart(final TransactionContext ctx) {
+        final TraceSpan span = Tracer.start(SpanKind.INTERNAL, "transaction");
+        if (span != null) {
+            ctx.data(SPAN, span);
+        }
+    }
+
+    @Override
+    public void beginEnd(final TransactionContext ctx) {
+        // the span starts before the begin
+    }
+
+    @Override
+    public void commitStart(final TransactionContext ctx) {
+        // the span ends after the commit
+    }
+
+    @Override
+    public void commitEnd(final TransactionContext ctx) {
+        end(ctx, false);
+    }
+
+    @Override
+    public void rollbackStart(final TransactionContext ctx) {
+        // the span ends after the rollback
+    }
+
+    @Override
+    public void rollbackEnd(final TransactionContext ctx) {
+        end(ctx, true);
+    }
+
+    @Override
+    public void prepareStart(final ExecuteContext ctx) {
+        final TraceSpan span = Tracer.start(SpanKind.CLIENT, STATEMENT_NAMES[ctx.type().ordinal()]);
+        if (span != null) {
+            span.setStatement(ctx.sql());
+            ctx.data(SPAN, span);
+        }
+    }
+
+    @Override
+    public void end(final ExecuteContext ctx) {
+        end(ctx, ctx.exception() != null);
+    }
+
+    private static void end(final Scope ctx, final boolean failed) {
+        final TraceSpan span = (TraceSpan) ctx.data(SPAN);
+        if (span != null) {
+            if (failed) {
+                span.fail();
+            }
+            span.end();
+        }
+    }
+
+    private static String[] statementNames() {
+        final ExecuteType[] types = ExecuteType.values();
+        final String[] result = new String[types.length];
+        for (final ExecuteType type : types) {
+            result[type.ordinal()] = "sql " + type.name().toLowerCase(Locale.ROOT);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,65 @@
+package com.github.edwgiz.sample.bank.core.storage;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+/**
+ * Variable-length encoding of {@code long} values, 7 bits per byte, the highest bit marks a continuation.
+ * Small values take one byte, so delta-encoded or dictionary-encoded columns shrink several times.
+ */
+public final class VarLongUtils {
+
+    private static final int PAYLOAD_BITS = 7;
+    private static final int PAYLOAD_MASK = 0x7f;
+    private static final int CONTINUATION = 0x80;
+    private static final int SIGN_SHIFT = 63;
+
+    /**
+     * @param out   target stream.
+     * @param value non-negative value, a negative one takes 10 bytes.
+     */
+    public static void write(final ByteArrayOutputStream out, final long value) {
+        long rest = value;
+        while ((rest & ~PAYLOAD_MASK) != 0L) {
+            out.write((int) rest & PAYLOAD_MASK | CONTINUATION);
+            rest >>>= PAYLOAD_BITS;
+        }
+        out.write((int) rest);
+    }
+
+    /**
+     * @param out   target stream.
+     * @param value any value, the ones close to zero take less bytes.
+     */
+    public static void writeSigned(final ByteArrayOutputStream out, final long value) {
+        write(out, value << 1 ^ value >> SIGN_SHIFT);
+    }
+
+    /**
+     * @param buffer source buffer, its position is moved past the value.
+     * @return value written by {@link #write(ByteArrayOutputStream, long)}.
+     */
+    public static long read(final ByteBuffer buffer) {
+        long result = 0L;
+        int shift = 0;
+        int current;
+        do {
+            current = buffer.get();
+            result |= (long) (current & PAYLOAD_MASK) << shift;
+            shift += PAYLOAD_BITS;
+        } while ((current & CONTINUATION) != 0);
+        return result;
+    }
+
+    /**
+     * @param buffer source buffer, its position is moved past the value.
+     * @return value written by {@link #writeSigned(ByteArrayOutputStream, long)}.
+     */
+    public static long readSigned(final ByteBuffer buffer) {
+        final long value = read(buffer);
+        return value >>> 1 ^ -(value & 1L);
+    }
+
+    private VarLongUtils() {
+    }
+}
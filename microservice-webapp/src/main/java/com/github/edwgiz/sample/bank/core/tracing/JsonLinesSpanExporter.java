@@ -0,0 +1,61 @@
+package com.github.edwgiz.sample.bank.core.tracing;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.APPEND;
+import static java.nio.file.StandardOpenOption.CREATE;
+
+/**
+ * Appends the spans to a local file, a json object per line, like
+ * <pre>{"traceId":"4bf9...","spanId":"00f0...","parentSpanId":"b7ad...","name":"PaymentEndpoint.create",
+ * "kind":"SERVER","startTimeUnixNano":1600000000000000000,"endTimeUnixNano":1600000000001500000,"status":201}</pre>
+ * where {@code statement} is the SQL of a database call and {@code error} marks a failed operation.
+ */
+public final class JsonLinesSpanExporter implements SpanExporter {
+
+    private final Writer writer;
+
+    /**
+     * @param file file to append to, created if missing.
+     * @throws IOException if the file can't be opened.
+     */
+    public JsonLinesSpanExporter(final Path file) throws IOException {
+        this.writer = Files.newBufferedWriter(file, UTF_8, CREATE, APPEND);
+    }
+
+    @Override
+    public void export(final List<SpanData> spans) throws IOException {
+        try (JsonGenerator json = SpanJsonUtils.JSON.createGenerator(writer)) {
+            for (final SpanData span : spans) {
+                json.writeStartObject();
+                SpanJsonUtils.writeIdsAndName(json, span);
+                json.writeStringField("kind", span.getKind().name());
+                json.writeNumberField("startTimeUnixNano", span.getStartEpochNanos());
+                json.writeNumberField("endTimeUnixNano", span.getEndEpochNanos());
+                if (span.getStatement() != null) {
+                    json.writeStringField("statement", span.getStatement());
+                }
+                if (span.getStatus() > 0) {
+                    json.writeNumberField("status", span.getStatus());
+                }
+                if (span.isError()) {
+                    json.writeBooleanField("error", true);
+                }
+                json.writeEndObject();
+                json.writeRaw('\n');
+            }
+        } // flushes the writer
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+}
@@ -0,0 +1,125 @@
+package com.github.edwgiz.sample.bank.core.tracing;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.List;
+
+/**
+ * Posts the spans to an OpenTelemetry collector by OTLP/HTTP in the json encoding, like
+ * {@code http://localhost:4318/v1/traces}. The SQL of a database call is sent as {@code db.statement} attribute and
+ * the HTTP status of a request as {@code http.status_code}.
+ */
+public final class OtlpHttpSpanExporter implements SpanExporter {
+
+    private static final int TIMEOUT_MILLIS = 5000;
+    private static final int STATUS_ERROR = 2;
+    private static final int HTTP_SUCCESS_CLASS = 2;
+    private static final int HTTP_CLASS_DIVISOR = 100;
+
+    private final URL url;
+    private final String serviceName;
+
+    /**
+     * @param endpoint traces endpoint of the collector.
+     * @param service  {@code service.name} resource attribute of the spans.
+     */
+    public OtlpHttpSpanExporter(final URL endpoint, final String service) {
+        this.url = endpoint;
+        this.serviceName = service;
+    }
+
+    @Override
+    public void export(final List<SpanData> spans) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        try {
+            connection.setConnectTimeout(TIMEOUT_MILLIS);
+            connection.setReadTimeout(TIMEOUT_MILLIS);
+            connection.setDoOutput(true);
+            connection.setRequestMethod("POST");
+            connection.setRequestProperty("Content-Type", "application/json");
+            try (OutputStream out = connection.getOutputStream();
+                 JsonGenerator json = SpanJsonUtils.JSON.createGenerator(out)) {
+                write(json, spans);
+            }
+            final int code = connection.getResponseCode();
+            if (code / HTTP_CLASS_DIVISOR != HTTP_SUCCESS_CLASS) {
+                throw new IOException("OTLP export to " + url + " failed with HTTP " + code);
+            }
+            connection.getInputStream().close(); // drains the response to reuse the connection
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private void write(final JsonGenerator json, final List<SpanData> spans) throws IOException {
+        json.writeStartObject();
+        json.writeArrayFieldStart("resourceSpans");
+        json.writeStartObject();
+        json.writeObjectFieldStart("resource");
+        json.writeArrayFieldStart("attributes");
+        writeAttribute(json, "service.name", serviceName);
+        json.writeEndArray();
+        json.writeEndObject();
+        json.writeArrayFieldStart("scopeSpans");
+        json.writeStartObject();
+        json.writeObjectFieldStart("scope");
+        json.writeStringField("name", Tracer.class.getPackage().getName());
+        json.writeEndObject();
+        json.writeArrayFieldStart("spans");
+        for (final SpanData span : spans) {
+            writeSpan(json, span);
+        }
+        json.writeEndArray();
+        json.writeEndObject();
+        json.writeEndArray();
+        json.writeEndObject();
+        json.writeEndArray();
+        json.writeEndObject();
+    }
+
+    private static void writeSpan(final JsonGenerator json, final SpanData span) throws IOException {
+        json.writeStartObject();
+        SpanJsonUtils.writeIdsAndName(json, span);
+        json.writeNumberField("kind", span.getKind().getOtlpCode());
+        // the 64-bit integers are strings in the OTLP json
+        json.writeStringField("startTimeUnixNano", Long.toString(span.getStartEpochNanos()));
+        json.writeStringField("endTimeUnixNano", Long.toString(span.getEndEpochNanos()));
+        json.writeArrayFieldStart("attributes");
+        if (span.getStatement() != null) {
+            writeAttribute(json, "db.statement", span.getStatement());
+        }
+        if (span.getStatus() > 0) {
+            json.writeStartObject();
+            json.writeStringField("key", "http.status_code");
+            json.writeObjectFieldStart("value");
+            json.writeStringField("intValue", Integer.toString(span.getStatus()));
+            json.writeEndObject();
+            json.writeEndObject();
+        }
+        json.writeEndArray();
+        if (span.isError()) {
+            json.writeObjectFieldStart("status");
+            json.writeNumberField("code", STATUS_ERROR);
+            json.writeEndObject();
+        }
+        json.writeEndObject();
+    }
+
+    private static void writeAttribute(final JsonGenerator json, final String key, final String value)
+            throws IOException {
+        json.writeStartObject();
+        json.writeStringField("key", key);
+        json.writeObjectFieldStart("value");
+        json.writeStringField("stringValue", value);
+        json.writeEndObject();
+        json.writeEndObject();
+    }
+
+    @Override
+    public void close() {
+    }
+}
@@ -0,0 +1,106 @@
+package com.github.edwgiz.sample.bank.core.tracing;
+
+/**
+ * Ended span read from the ring buffer, to export.
+ */
+public final class SpanData {
+
+    private final long traceIdHigh;
+    private final long traceIdLow;
+    private final long spanId;
+    private final long parentSpanId;
+    private final SpanKind kind;
+    private final String name;
+    private final String statement;
+    private final long startEpochNanos;
+    private final long endEpochNanos;
+    private final int status;
+    private final boolean error;
+
+    @SuppressWarnings("checkstyle:ParameterNumber")
+    /* default */SpanData(final long high, final long low, final long spanIdValue, final long parentId,
+            final SpanKind spanKind, final String spanName, final String sql, final long start, final long end,
+            final int httpStatus, final boolean failed) {
+        this.traceIdHigh = high;
+        this.traceIdLow = low;
+        this.spanId = spanIdValue;
+        this.parentSpanId = parentId;
+        this.kind = spanKind;
+        this.name = spanName;
+        this.statement = sql;
+        this.startEpochNanos = start;
+        this.endEpochNanos = end;
+        this.status = httpStatus;
+        this.error = failed;
+    }
+
+    /**
+     * @return the trace id, 32 hex digits.
+     */
+    public String getTraceId() {
+        return TraceparentUtils.hex(traceIdHigh) + TraceparentUtils.hex(traceIdLow);
+    }
+
+    /**
+     * @return the span id, 16 hex digits.
+     */
+    public String getSpanId() {
+        return TraceparentUtils.hex(spanId);
+    }
+
+    /**
+     * @return the parent span id, 16 hex digits, or {@code null} for a root span.
+     */
+    public String getParentSpanId() {
+        return parentSpanId == 0L ? null : TraceparentUtils.hex(parentSpanId);
+    }
+
+    /**
+     * @return the kind.
+     */
+    public SpanKind getKind() {
+        return kind;
+    }
+
+    /**
+     * @return the name.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return SQL statement of a database call, or {@code null}.
+     */
+    public String getStatement() {
+        return statement;
+    }
+
+    /**
+     * @return start, nanoseconds since the epoch.
+     */
+    public long getStartEpochNanos() {
+        return startEpochNanos;
+    }
+
+    /**
+     * @return end, nanoseconds since the epoch.
+     */
+    public long getEndEpochNanos() {
+        return endEpochNanos;
+    }
+
+    /**
+     * @return HTTP status of a request, or zero.
+     */
+    public int getStatus() {
+        return status;
+    }
+
+    /**
+     * @return whether the operation failed.
+     */
+    public boolean isError() {
+        return error;
+    }
+}
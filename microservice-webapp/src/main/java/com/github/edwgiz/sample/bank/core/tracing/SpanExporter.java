@@ -0,0 +1,17 @@
+package com.github.edwgiz.sample.bank.core.tracing;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Destination of the recorded spans, called by one thread at a time.
+ */
+public interface SpanExporter extends Closeable {
+
+    /**
+     * @param spans batch of the spans, not empty.
+     * @throws IOException if the batch isn't exported, it's dropped then.
+     */
+    void export(List<SpanData> spans) throws IOException;
+}
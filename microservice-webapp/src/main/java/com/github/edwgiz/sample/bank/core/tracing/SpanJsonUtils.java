@@ -0,0 +1,38 @@
+package com.github.edwgiz.sample.bank.core.tracing;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+
+/**
+ * Json fields shared by the exporters.
+ */
+final class SpanJsonUtils {
+
+    /**
+     * Factory of the generators leaving their targets open, without a separator of the root values.
+     */
+    /* default */static final JsonFactory JSON = new JsonFactory().setRootValueSeparator(null)
+            .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+    private SpanJsonUtils() {
+    }
+
+    /**
+     * Writes the ids and the name of a span, the OTLP way: the ids in hex and no parent id of a root span.
+     *
+     * @param json the generator, inside the object of the span.
+     * @param span the span.
+     * @throws IOException if the generator fails.
+     */
+    /* default */static void writeIdsAndName(final JsonGenerator json, final SpanData span) throws IOException {
+        json.writeStringField("traceId", span.getTraceId());
+        json.writeStringField("spanId", span.getSpanId());
+        final String parentSpanId = span.getParentSpanId();
+        if (parentSpanId != null) {
+            json.writeStringField("parentSpanId", parentSpanId);
+        }
+        json.writeStringField("name", span.getName());
+    }
+}
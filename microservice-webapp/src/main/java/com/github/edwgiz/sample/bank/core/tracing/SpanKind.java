@@ -0,0 +1,32 @@
+package com.github.edwgiz.sample.bank.core.tracing;
+
+/**
+ * Role of a span in its trace, numbered like OTLP {@code SpanKind}.
+ */
+public enum SpanKind {
+    /**
+     * Operation inside the service, like a transaction.
+     */
+    INTERNAL(1),
+    /**
+     * Handling of an incoming request.
+     */
+    SERVER(2),
+    /**
+     * Call of another service, like a statement sent to the database.
+     */
+    CLIENT(3);
+
+    private final int otlpCode;
+
+    SpanKind(final int code) {
+        this.otlpCode = code;
+    }
+
+    /**
+     * @return the OTLP number of the kind.
+     */
+    public int getOtlpCode() {
+        return otlpCode;
+    }
+}
@@ -0,0 +1,138 @@
+package com.github.edwgiz.sample.bank.core.tracing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static java.lang.System.nanoTime;
+
+/**
+ * Lock-free ring buffer of the ended spans, written by any thread and read by one.
+ * <p>
+ * A writer claims a slot by incrementing the cursor, copies the span into the preallocated arrays and publishes the
+ * slot by its sequence number, so recording doesn't allocate. The writers never wait: a reader too slow loses the
+ * overwritten spans, they're counted as dropped. A slot read while a lapping writer could already overwrite it is
+ * dropped too.
+ */
+final class SpanRing {
+
+    private static final int FIELDS = 8;
+    private static final int TRACE_ID_HIGH = 0;
+    private static final int TRACE_ID_LOW = 1;
+    private static final int SPAN_ID = 2;
+    private static final int PARENT_SPAN_ID = 3;
+    private static final int START = 4;
+    private static final int END = 5;
+    private static final int STATUS = 6;
+    private static final int FLAGS = 7;
+    private static final int STRINGS = 2;
+    private static final long ERROR_FLAG = 1L << Integer.SIZE;
+    private static final long KIND_MASK = ERROR_FLAG - 1L;
+    private static final SpanKind[] KINDS = SpanKind.values();
+
+    private final int capacity;
+    private final int mask;
+    private final long epochOffset;
+    private final AtomicLong cursor;
+    /**
+     * Sequence number plus one of the span published in a slot, zero for an empty one.
+     */
+    private final AtomicLongArray sequences;
+    private final AtomicLongArray fields;
+    /**
+     * The name and the statement of the spans.
+     */
+    private final AtomicReferenceArray<String> strings;
+    private final AtomicLong dropped;
+    /**
+     * Sequence number of the next span to read, guarded by the reader.
+     */
+    private long next;
+
+    /**
+     * @param minCapacity minimum number of the spans kept, rounded up to a power of two.
+     */
+    /* default */SpanRing(final int minCapacity) {
+        this.capacity = Integer.highestOneBit(Math.max(minCapacity - 1, 1)) << 1;
+        this.mask = capacity - 1;
+        this.epochOffset = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis()) - nanoTime();
+        this.cursor = new AtomicLong();
+        this.sequences = new AtomicLongArray(capacity);
+        this.fields = new AtomicLongArray(capacity * FIELDS);
+        this.strings = new AtomicReferenceArray<>(capacity * STRINGS);
+        this.dropped = new AtomicLong();
+    }
+
+    /**
+     * @param span ended span to copy.
+     * @param end  {@link System#nanoTime()} of the end.
+     */
+    /* default */void add(final TraceSpan span, final long end) {
+        final long sequence = cursor.getAndIncrement();
+        final int slot = (int) sequence & mask;
+        final int base = slot * FIELDS;
+        fields.lazySet(base + TRACE_ID_HIGH, span.getTraceIdHigh());
+        fields.lazySet(base + TRACE_ID_LOW, span.getTraceIdLow());
+        fields.lazySet(base + SPAN_ID, span.getSpanId());
+        fields.lazySet(base + PARENT_SPAN_ID, span.getParentSpanId());
+        fields.lazySet(base + START, span.getStart() + epochOffset);
+        fields.lazySet(base + END, end + epochOffset);
+        fields.lazySet(base + STATUS, span.getStatus());
+        fields.lazySet(base + FLAGS, (span.isError() ? ERROR_FLAG : 0L) | span.getKind().ordinal());
+        strings.lazySet(slot * STRINGS, span.getName());
+        strings.lazySet(slot * STRINGS + 1, span.getStatement());
+        sequences.lazySet(slot, sequence + 1L);
+    }
+
+    /**
+     * @param max maximum number of the spans to read.
+     * @return the spans published since the previous call, in the order of their ends.
+     */
+    /* default */List<SpanData> poll(final int max) {
+        final List<SpanData> result = new ArrayList<>();
+        final long written = cursor.get();
+        if (written - next > capacity) {
+            dropped.addAndGet(written - capacity - next);
+            next = written - capacity;
+        }
+        final long first = next;
+        // stops at a slot its writer is still copying the span into
+        while (next < written && result.size() < max && sequences.get((int) next & mask) > next) {
+            final int slot = (int) next & mask;
+            final long published = sequences.get(slot);
+            final SpanData span = read(slot);
+            if (published == next + 1L && cursor.get() - next <= capacity) { // not overwritten, nor could be
+                result.add(span);
+            }
+            next++;
+        }
+        dropped.addAndGet(next - first - result.size());
+        return result;
+    }
+
+    private SpanData read(final int slot) {
+        final int base = slot * FIELDS;
+        final long flags = fields.get(base + FLAGS);
+        return new SpanData(fields.get(base + TRACE_ID_HIGH), fields.get(base + TRACE_ID_LOW),
+                fields.get(base + SPAN_ID), fields.get(base + PARENT_SPAN_ID), KINDS[(int) (flags & KIND_MASK)],
+                strings.get(slot * STRINGS), strings.get(slot * STRINGS + 1), fields.get(base + START),
+                fields.get(base + END), (int) fields.get(base + STATUS), (flags & ERROR_FLAG) != 0L);
+    }
+
+    /**
+     * @return number of the spans written so far.
+     */
+    /* default */long getWritten() {
+        return cursor.get();
+    }
+
+    /**
+     * @return number of the spans overwritten before read.
+     */
+    /* default */long getDropped() {
+        return dropped.get();
+    }
+}
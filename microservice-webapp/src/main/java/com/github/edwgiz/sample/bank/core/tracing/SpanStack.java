@@ -0,0 +1,66 @@
+package com.github.edwgiz.sample.bank.core.tracing;
+
+/**
+ * Spans started and not ended yet on one thread, the innermost on the top. The span objects are kept for the
+ * following spans of the same depth, so the spans don't allocate once the thread reaches its usual depth.
+ */
+final class SpanStack {
+
+    private static final int MAX_DEPTH = 32;
+
+    private final Thread owner;
+    private final TraceSpan[] spans;
+    private int depth;
+
+    /* default */SpanStack() {
+        this.owner = Thread.currentThread();
+        this.spans = new TraceSpan[MAX_DEPTH];
+    }
+
+    /**
+     * @return a span above the top one, or {@code null} if the stack is full.
+     */
+    /* default */TraceSpan push() {
+        TraceSpan result = null;
+        if (depth < MAX_DEPTH) {
+            result = spans[depth];
+            if (result == null) {
+                result = new TraceSpan(this, depth);
+                spans[depth] = result;
+            }
+            depth++;
+        }
+        return result;
+    }
+
+    /**
+     * @return the innermost span, or {@code null} if there's none.
+     */
+    /* default */TraceSpan top() {
+        return depth == 0 ? null : spans[depth - 1];
+    }
+
+    /**
+     * Abandons all the spans, left by a request completed on another thread.
+     */
+    /* default */void clear() {
+        depth = 0;
+    }
+
+    /**
+     * @param index depth of a span of this stack.
+     * @return whether it's called on the owner thread and the span isn't ended.
+     */
+    /* default */boolean isActive(final int index) {
+        return owner == Thread.currentThread() && index < depth;
+    }
+
+    /**
+     * Removes a span and the spans above it, which are abandoned.
+     *
+     * @param index depth of the span to remove.
+     */
+    /* default */void pop(final int index) {
+        depth = index;
+    }
+}
@@ -0,0 +1,209 @@
+package com.github.edwgiz.sample.bank.core.tracing;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import static java.lang.System.nanoTime;
+
+/**
+ * Timed operation of a trace, started by {@link Tracer} on the current thread and ended on the same thread.
+ * <p>
+ * The span object is reused by the following span of the same depth on its thread, so it must not be kept after
+ * {@link #end()}. Ending a span also ends the spans started inside it and not ended, without recording them.
+ */
+public final class TraceSpan {
+
+    private final SpanStack stack;
+    private final int index;
+    private Tracer tracer;
+    private long traceIdHigh;
+    private long traceIdLow;
+    private long spanId;
+    private long parentSpanId;
+    private boolean sampled;
+    private SpanKind kind;
+    private String name;
+    private String statement;
+    private int status;
+    private boolean error;
+    private long start;
+
+    /* default */TraceSpan(final SpanStack owner, final int depth) {
+        this.stack = owner;
+        this.index = depth;
+    }
+
+    /**
+     * Starts the span in the trace of a valid {@code traceparent} header, or as a root of a new trace.
+     *
+     * @param owner       tracer to record the span to.
+     * @param traceparent the header, may be {@code null}.
+     * @param sampleRatio probability to sample a new trace.
+     */
+    /* default */void startTrace(final Tracer owner, final String traceparent, final double sampleRatio) {
+        tracer = owner;
+        if (!TraceparentUtils.parse(traceparent, this)) {
+            traceIdHigh = newId();
+            traceIdLow = newId();
+            parentSpanId = 0L;
+            sampled = ThreadLocalRandom.current().nextDouble() < sampleRatio;
+        }
+    }
+
+    /**
+     * Continues the trace of a parent span of another service.
+     *
+     * @param high     the upper half of the trace id.
+     * @param low      the lower half of the trace id.
+     * @param parentId id of the parent span.
+     * @param flag     whether the parent is sampled.
+     */
+    /* default */void join(final long high, final long low, final long parentId, final boolean flag) {
+        traceIdHigh = high;
+        traceIdLow = low;
+        parentSpanId = parentId;
+        sampled = flag;
+    }
+
+    /**
+     * Starts the span as a child of another one.
+     *
+     * @param parent the parent span.
+     */
+    /* default */void startChild(final TraceSpan parent) {
+        traceIdHigh = parent.traceIdHigh;
+        traceIdLow = parent.traceIdLow;
+        parentSpanId = parent.spanId;
+        sampled = parent.sampled;
+        tracer = parent.tracer;
+    }
+
+    /**
+     * Resets the rest of the span after its trace is set.
+     *
+     * @param spanKind kind of the span.
+     * @param spanName name of the span.
+     */
+    /* default */void start(final SpanKind spanKind, final String spanName) {
+        spanId = newId();
+        kind = spanKind;
+        name = spanName;
+        statement = null;
+        status = 0;
+        error = false;
+        start = nanoTime();
+    }
+
+    /**
+     * @return the upper half of the trace id.
+     */
+    public long getTraceIdHigh() {
+        return traceIdHigh;
+    }
+
+    /**
+     * @return the lower half of the trace id.
+     */
+    public long getTraceIdLow() {
+        return traceIdLow;
+    }
+
+    /* default */long getSpanId() {
+        return spanId;
+    }
+
+    /* default */long getParentSpanId() {
+        return parentSpanId;
+    }
+
+    /* default */SpanKind getKind() {
+        return kind;
+    }
+
+    /* default */String getName() {
+        return name;
+    }
+
+    /* default */String getStatement() {
+        return statement;
+    }
+
+    /* default */int getStatus() {
+        return status;
+    }
+
+    /* default */boolean isError() {
+        return error;
+    }
+
+    /* default */long getStart() {
+        return start;
+    }
+
+    private static long newId() {
+        long result;
+        do {
+            result = ThreadLocalRandom.current().nextLong();
+        } while (result == 0L);
+        return result;
+    }
+
+    /**
+     * @param value name of the operation, like a resource method.
+     */
+    public void setName(final String value) {
+        this.name = value;
+    }
+
+    /**
+     * @param value SQL statement of a database call.
+     */
+    public void setStatement(final String value) {
+        this.statement = value;
+    }
+
+    /**
+     * @param value HTTP status of a request.
+     */
+    public void setStatus(final int value) {
+        this.status = value;
+    }
+
+    /**
+     * Marks the operation failed.
+     */
+    public void fail() {
+        this.error = true;
+    }
+
+    /**
+     * @return whether the span is sampled, so recorded if the tracer exports the spans.
+     */
+    public boolean isSampled() {
+        return sampled;
+    }
+
+    /**
+     * @return whether the span is started on the current thread and not ended yet.
+     */
+    public boolean isActive() {
+        return stack.isActive(index);
+    }
+
+    /**
+     * @return {@code traceparent} header of the calls made inside the span, or of the response of a server span.
+     */
+    public String traceparent() {
+        return TraceparentUtils.format(traceIdHigh, traceIdLow, spanId, sampled);
+    }
+
+    /**
+     * Ends the span and records it if sampled. Ignored if the span isn't {@link #isActive() active}.
+     */
+    public void end() {
+        final long end = nanoTime();
+        if (stack.isActive(index)) {
+            stack.pop(index);
+            tracer.record(this, end);
+        }
+    }
+}
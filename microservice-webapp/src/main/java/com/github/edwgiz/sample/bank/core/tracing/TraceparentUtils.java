@@ -0,0 +1,99 @@
+package com.github.edwgiz.sample.bank.core.tracing;
+
+/**
+ * Parsing and rendering of the W3C {@code traceparent} header, like
+ * {@code 00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01}: the version, the trace id, the parent span id and
+ * the flags, in the lower case hex digits.
+ */
+final class TraceparentUtils {
+
+    private static final int VERSION_END = 2;
+    private static final int TRACE_ID_START = 3;
+    private static final int TRACE_ID_MIDDLE = 19;
+    private static final int TRACE_ID_END = 35;
+    private static final int PARENT_ID_START = 36;
+    private static final int PARENT_ID_END = 52;
+    private static final int FLAGS_START = 53;
+    private static final int LENGTH = 55;
+    private static final int HEX_RADIX = 16;
+    private static final int LONG_HEX_DIGITS = 16;
+    private static final int BITS_PER_DIGIT = 4;
+    private static final int DIGIT_MASK = 0xf;
+    private static final char[] DIGITS = "0123456789abcdef".toCharArray();
+
+    private TraceparentUtils() {
+    }
+
+    /**
+     * Takes the trace id, the parent span id and the sampled flag from a valid header. A header of a later version
+     * may be longer, its known fields are taken.
+     *
+     * @param header the header, may be {@code null}.
+     * @param span   span to continue the trace in.
+     * @return whether the header is valid.
+     */
+    /* default */static boolean parse(final String header, final TraceSpan span) {
+        boolean result = header != null && header.length() >= LENGTH
+                && isHex(header, 0, VERSION_END) && header.charAt(VERSION_END) == '-'
+                && isHex(header, TRACE_ID_START, TRACE_ID_END) && header.charAt(TRACE_ID_END) == '-'
+                && isHex(header, PARENT_ID_START, PARENT_ID_END) && header.charAt(PARENT_ID_END) == '-'
+                && isHex(header, FLAGS_START, LENGTH) && !header.startsWith("ff")
+                && (header.length() == LENGTH || !header.startsWith("00") && header.charAt(LENGTH) == '-');
+        if (result) {
+            final long high = parseHex(header, TRACE_ID_START, TRACE_ID_MIDDLE);
+            final long low = parseHex(header, TRACE_ID_MIDDLE, TRACE_ID_END);
+            final long parentId = parseHex(header, PARENT_ID_START, PARENT_ID_END);
+            result = (high | low) != 0L && parentId != 0L;
+            if (result) {
+                span.join(high, low, parentId, (parseHex(header, FLAGS_START, LENGTH) & 1L) != 0L);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @param traceIdHigh the upper half of the trace id.
+     * @param traceIdLow  the lower half of the trace id.
+     * @param spanId      the span id.
+     * @param sampled     whether the span is sampled.
+     * @return the header of the version {@code 00}.
+     */
+    /* default */static String format(final long traceIdHigh, final long traceIdLow, final long spanId,
+            final boolean sampled) {
+        final StringBuilder result = new StringBuilder(LENGTH).append("00-");
+        appendHex(appendHex(result, traceIdHigh), traceIdLow).append('-');
+        return appendHex(result, spanId).append(sampled ? "-01" : "-00").toString();
+    }
+
+    /**
+     * @param value a number.
+     * @return the sixteen hex digits of the number.
+     */
+    /* default */static String hex(final long value) {
+        return appendHex(new StringBuilder(LONG_HEX_DIGITS), value).toString();
+    }
+
+    private static StringBuilder appendHex(final StringBuilder out, final long value) {
+        for (int shift = (LONG_HEX_DIGITS - 1) * BITS_PER_DIGIT; shift >= 0; shift -= BITS_PER_DIGIT) {
+            out.append(DIGITS[(int) (value >>> shift) & DIGIT_MASK]);
+        }
+        return out;
+    }
+
+    private static boolean isHex(final String text, final int start, final int end) {
+        boolean result = true;
+        for (int i = start; result && i < end; i++) {
+            final char digit = text.charAt(i);
+            result = digit >= '0' && digit <= '9' || digit >= 'a' && digit <= 'f';
+        }
+        return result;
+    }
+
+    private static long parseHex(final String text, final int start, final int end) {
+        long result = 0L;
+        for (int i = start; i < end; i++) {
+            result = result << BITS_PER_DIGIT | Character.digit(text.charAt(i), HEX_RADIX);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,208 @@
+package com.github.edwgiz.sample.bank.core.tracing;
+
+import com.github.edwgiz.sample.bank.core.metrics.Counter;
+import com.github.edwgiz.sample.bank.core.metrics.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Starts the spans on the current thread, records the sampled ones into a {@link SpanRing} and exports them in
+ * batches every {@value #FLUSH_MILLIS} milliseconds from a background thread.
+ * <p>
+ * A server span continues the trace of a valid W3C {@code traceparent} header, with its sampled flag, or starts a
+ * new trace sampled with the configured probability. The spans inside it, like the transactions and the statements,
+ * are started by the static {@link #start(SpanKind, String)} from wherever the code is, and aren't started on a
+ * thread without a server span. Recording a span copies it into the ring buffer without locks and allocations, so
+ * all the payments can be traced. Without an exporter the traces are propagated, but nothing is recorded.
+ * <p>
+ * Optional system properties: {@value #SYSTEM_PROPERTY_EXPORT_URL} OTLP/HTTP traces endpoint or
+ * {@value #SYSTEM_PROPERTY_EXPORT_FILE} json lines file to export to, {@value #SYSTEM_PROPERTY_SAMPLE_RATIO}
+ * probability to sample a new trace, {@value #DEFAULT_SAMPLE_RATIO} by default, and
+ * {@value #SYSTEM_PROPERTY_SERVICE_NAME}, {@value #DEFAULT_SERVICE_NAME} by default.
+ */
+public final class Tracer implements Closeable {
+
+    /**
+     * Optional system property, OTLP/HTTP traces endpoint, like {@code http://localhost:4318/v1/traces}.
+     */
+    public static final String SYSTEM_PROPERTY_EXPORT_URL = "tracing.export.url";
+    /**
+     * Optional system property, json lines file to append the spans to.
+     */
+    public static final String SYSTEM_PROPERTY_EXPORT_FILE = "tracing.export.file";
+    /**
+     * Optional system property, probability to sample a trace started here.
+     */
+    public static final String SYSTEM_PROPERTY_SAMPLE_RATIO = "tracing.sample.ratio";
+    /**
+     * Optional system property, name of the service exported to OTLP.
+     */
+    public static final String SYSTEM_PROPERTY_SERVICE_NAME = "tracing.service.name";
+    private static final String DEFAULT_SAMPLE_RATIO = "1";
+    private static final String DEFAULT_SERVICE_NAME = "bank";
+    private static final int CAPACITY = 65_536;
+    private static final int BATCH = 512;
+    private static final long FLUSH_MILLIS = 1000L;
+
+    private static final Logger LOG = LoggerFactory.getLogger(Tracer.class);
+    private static final ThreadLocal<SpanStack> STACKS = ThreadLocal.withInitial(SpanStack::new);
+
+    private final double sampleRatio;
+    private final SpanExporter exporter;
+    private final SpanRing ring;
+    private final Counter exported;
+    private final Counter failures;
+    private final ScheduledExecutorService flusher;
+
+    /**
+     * @param metrics      registry to count the recorded, dropped and exported spans in.
+     * @param ratio        probability to sample a trace started here.
+     * @param spanExporter destination of the spans, or {@code null} to record nothing.
+     * @param capacity     number of the spans kept until exported.
+     */
+    public Tracer(final Metrics metrics, final double ratio, final SpanExporter spanExporter, final int capacity) {
+        this.sampleRatio = ratio;
+        this.exporter = spanExporter;
+        this.ring = new SpanRing(capacity);
+        metrics.counter("tracing_spans_recorded_total", "Number of the recorded spans.", "", ring::getWritten);
+        metrics.counter("tracing_spans_dropped_total", "Number of the spans overwritten before exported.", "",
+                ring::getDropped);
+        this.exported = metrics.counter("tracing_spans_exported_total", "Number of the exported spans.", "");
+        this.failures = metrics.counter("tracing_export_failures_total",
+                "Number of the failed exports, their spans are dropped.", "");
+        if (spanExporter == null) {
+            this.flusher = null;
+        } else {
+            this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                final Thread thread = new Thread(runnable, "tracing-export");
+                thread.setDaemon(true);
+                return thread;
+            });
+            flusher.scheduleWithFixedDelay(this::flush, FLUSH_MILLIS, FLUSH_MILLIS, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * @param metrics registry to count the recorded, dropped and exported spans in.
+     * @return tracer configured by the system properties.
+     */
+    public static Tracer create(final Metrics metrics) {
+        final String url = System.getProperty(SYSTEM_PROPERTY_EXPORT_URL);
+        final String file = System.getProperty(SYSTEM_PROPERTY_EXPORT_FILE);
+        final SpanExporter exporter;
+        try {
+            if (url == null) {
+                exporter = file == null ? null : new JsonLinesSpanExporter(Paths.get(file));
+            } else {
+                exporter = new OtlpHttpSpanExporter(new URL(url),
+                        System.getProperty(SYSTEM_PROPERTY_SERVICE_NAME, DEFAULT_SERVICE_NAME));
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return new Tracer(metrics, Double.parseDouble(System.getProperty(SYSTEM_PROPERTY_SAMPLE_RATIO,
+                DEFAULT_SAMPLE_RATIO)), exporter, CAPACITY);
+    }
+
+    /**
+     * Starts the span of an incoming request on the current thread, abandoning the spans left on it.
+     *
+     * @param traceparent {@code traceparent} header of the request, may be {@code null}.
+     * @param name        name of the span.
+     * @return the started span.
+     */
+    public TraceSpan startServer(final String traceparent, final String name) {
+        final SpanStack stack = STACKS.get();
+        stack.clear();
+        final TraceSpan result = stack.push();
+        result.startTrace(this, traceparent, sampleRatio);
+        result.start(SpanKind.SERVER, name);
+        return result;
+    }
+
+    /**
+     * Starts a span inside the current one.
+     *
+     * @param kind kind of the span.
+     * @param name name of the span.
+     * @return the started span, or {@code null} without a current span or if too deep.
+     */
+    public static TraceSpan start(final SpanKind kind, final String name) {
+        final SpanStack stack = STACKS.get();
+        final TraceSpan parent = stack.top();
+        TraceSpan result = null;
+        if (parent != null) {
+            result = stack.push();
+            if (result != null) {
+                result.startChild(parent);
+                result.start(kind, name);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the innermost span of the current thread, or {@code null}.
+     */
+    public static TraceSpan current() {
+        return STACKS.get().top();
+    }
+
+    /**
+     * @param span ended span.
+     * @param end  {@link System#nanoTime()} of the end.
+     */
+    /* default */void record(final TraceSpan span, final long end) {
+        if (exporter != null && span.isSampled()) {
+            ring.add(span, end);
+        }
+    }
+
+    /**
+     * Exports the recorded spans, called periodically by the background thread. A batch failed to export is dropped.
+     *
+     * @return number of the exported spans.
+     */
+    public synchronized int flush() {
+        int result = 0;
+        try {
+            List<SpanData> batch = ring.poll(BATCH);
+            while (!batch.isEmpty()) {
+                exporter.export(batch);
+                result += batch.size();
+                exported.add(batch.size());
+                batch = ring.poll(BATCH);
+            }
+        } catch (IOException | RuntimeException ex) {
+            failures.increment();
+            LOG.warn("Spans export failed: {}", ex.toString());
+        }
+        return result;
+    }
+
+    /**
+     * Stops the background thread, exports the rest of the spans and closes the exporter.
+     */
+    @Override
+    public void close() {
+        if (exporter != null) {
+            flusher.shutdown();
+            flush();
+            try {
+                exporter.close();
+            } catch (IOException ex) {
+                LOG.warn("Spans exporter close failed: {}", ex.toString());
+            }
+        }
+    }
+}
@@ -0,0 +1,5 @@
+/**
+ * W3C Trace Context propagation and low-overhead spans, recorded into a lock-free ring buffer and exported in batches
+ * by a background thread.
+ */
+package com.github.edwgiz.sample.bank.core.tracing;
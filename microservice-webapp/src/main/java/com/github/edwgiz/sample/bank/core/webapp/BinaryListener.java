@@ -0,0 +1,63 @@
+package com.github.edwgiz.sample.bank.core.webapp;
+
+import com.github.edwgiz.sample.bank.core.metrics.Metrics;
+import com.github.edwgiz.sample.bank.core.webapp.binary.BinaryFrameFilter;
+import com.github.edwgiz.sample.bank.core.webapp.binary.BinaryRoute;
+import com.github.edwgiz.sample.bank.core.webapp.binary.BinaryServerFilter;
+import org.glassfish.grizzly.filterchain.FilterChainBuilder;
+import org.glassfish.grizzly.filterchain.TransportFilter;
+import org.glassfish.grizzly.http.server.AddOn;
+import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.grizzly.http.server.NetworkListener;
+import org.glassfish.jersey.grizzly2.httpserver.GrizzlyHttpContainer;
+
+/**
+ * Second listener of the server speaking the binary protocol of {@link BinaryServerFilter} instead of HTTP: its
+ * filter chain keeps only the transport filter of the HTTP ones. So it's started, stopped and monitored with the
+ * HTTP listener, and serves the requests by its worker thread pool.
+ */
+public final class BinaryListener implements AddOn {
+
+    /**
+     * Name of the listener.
+     */
+    public static final String NAME = "binary";
+
+    private final BinaryRoute route;
+    private final Metrics metrics;
+
+    private BinaryListener(final BinaryRoute value, final Metrics registry) {
+        this.route = value;
+        this.metrics = registry;
+    }
+
+    /**
+     * Adds the binary listener to the server.
+     *
+     * @param server    server, not started yet, its fast path isn't attached yet.
+     * @param host      host to listen on.
+     * @param port      port to listen on.
+     * @param routeType routes to serve, created by the injection manager of the jax-rs application.
+     * @param registry  registry to record the request metrics to.
+     * @throws IllegalStateException if the server has no jax-rs container.
+     */
+    public static void attach(final HttpServer server, final String host, final int port,
+            final Class<? extends BinaryRoute> routeType, final Metrics registry) {
+        final GrizzlyHttpContainer container = (GrizzlyHttpContainer) FastPathHandler.jaxRsContainer(server).getKey();
+        final NetworkListener listener = new NetworkListener(NAME, host, port);
+        listener.registerAddOn(new BinaryListener(
+                container.getApplicationHandler().getInjectionManager().createAndInitialize(routeType), registry));
+        server.addListener(listener);
+    }
+
+    @Override
+    public void setup(final NetworkListener networkListener, final FilterChainBuilder builder) {
+        final int transport = builder.indexOfType(TransportFilter.class);
+        final BinaryFrameFilter frames = new BinaryFrameFilter();
+        builder.add(frames);
+        while (builder.indexOf(frames) > transport + 1) {
+            builder.remove(transport + 1);
+        }
+        builder.add(new BinaryServerFilter(route, metrics, new ThrowableExceptionMapper()));
+    }
+}
@@ -0,0 +1,143 @@
+package com.github.edwgiz.sample.bank.core.webapp;
+
+import com.github.edwgiz.sample.bank.core.metrics.Metrics;
+import com.github.edwgiz.sample.bank.core.webapp.metrics.RequestMetrics;
+import org.glassfish.grizzly.http.server.HttpHandler;
+import org.glassfish.grizzly.http.server.HttpHandlerRegistration;
+import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.grizzly.http.server.Request;
+import org.glassfish.grizzly.http.server.Response;
+import org.glassfish.grizzly.http.server.ServerConfiguration;
+import org.glassfish.jersey.grizzly2.httpserver.GrizzlyHttpContainer;
+
+import javax.ws.rs.core.MediaType;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static java.lang.System.nanoTime;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Takes the place of the jax-rs container in Grizzly, serves the requests of a {@link FastRoute} directly and passes
+ * the others to the container.
+ * <p>
+ * The served requests bypass the jax-rs filters, so they have neither {@code Server-Timing} header, nor spans, nor
+ * access log entries, nor traffic capture records, but they are recorded to the request metrics of the resource
+ * method they replace. The exceptions are responded by {@link ThrowableExceptionMapper} like by jax-rs.
+ */
+public final class FastPathHandler extends HttpHandler {
+
+    private final GrizzlyHttpContainer container;
+    private final FastRoute route;
+    private final Metrics metrics;
+    private final ConcurrentMap<String, RequestMetrics> resources;
+    private final ThrowableExceptionMapper exceptionMapper;
+
+    /* default */FastPathHandler(final GrizzlyHttpContainer jaxRs, final FastRoute value, final Metrics registry) {
+        super(FastPathHandler.class.getSimpleName());
+        this.container = jaxRs;
+        this.route = value;
+        this.metrics = registry;
+        this.resources = new ConcurrentHashMap<>();
+        this.exceptionMapper = new ThrowableExceptionMapper();
+    }
+
+    /**
+     * Puts the fast path in front of the jax-rs container of the server.
+     *
+     * @param server    server, not started yet.
+     * @param routeType routes to serve, created by the injection manager of the jax-rs application.
+     * @param registry  registry to record the request metrics to.
+     * @throws IllegalStateException if the server has no jax-rs container.
+     */
+    public static void attach(final HttpServer server, final Class<? extends FastRoute> routeType,
+            final Metrics registry) {
+        final ServerConfiguration conf = server.getServerConfiguration();
+        final Map.Entry<HttpHandler, HttpHandlerRegistration[]> handler = jaxRsContainer(server);
+        final GrizzlyHttpContainer container = (GrizzlyHttpContainer) handler.getKey();
+        conf.removeHttpHandler(container);
+        conf.addHttpHandler(new FastPathHandler(container,
+                container.getApplicationHandler().getInjectionManager().createAndInitialize(routeType), registry),
+                handler.getValue());
+    }
+
+    /**
+     * @param server server of a jax-rs application.
+     * @return the jax-rs container of the server with its mapping.
+     * @throws IllegalStateException if the server has no jax-rs container, the fast path may be in front of it.
+     */
+    /* default */static Map.Entry<HttpHandler, HttpHandlerRegistration[]> jaxRsContainer(final HttpServer server) {
+        Map.Entry<HttpHandler, HttpHandlerRegistration[]> result = null;
+        for (final Map.Entry<HttpHandler, HttpHandlerRegistration[]> handler
+                : new HashMap<>(server.getServerConfiguration().getHttpHandlersWithMapping()).entrySet()) {
+            if (handler.getKey() instanceof GrizzlyHttpContainer) {
+                result = handler;
+            }
+        }
+        if (result == null) {
+            throw new IllegalStateException("No jax-rs container in the server");
+        }
+        return result;
+    }
+
+    /**
+     * Writes a complete response.
+     *
+     * @param response    response to write.
+     * @param status      status code.
+     * @param contentType media type of the body, or {@code null} if there's no body.
+     * @param body        the body.
+     * @throws IOException if the body can't be written.
+     */
+    public static void send(final Response response, final int status, final String contentType, final byte[] body)
+            throws IOException {
+        response.setStatus(status);
+        if (contentType != null) {
+            response.setContentType(contentType);
+            response.setContentLength(body.length);
+            response.getOutputStream().write(body);
+        }
+    }
+
+    @Override
+    public void start() {
+        container.start();
+    }
+
+    @Override
+    public void destroy() {
+        container.destroy();
+    }
+
+    @Override
+    public void service(final Request request, final Response response) throws Exception {
+        final String resource = route.resourceOf(request);
+        if (resource == null) {
+            container.service(request, response);
+        } else {
+            final long start = nanoTime();
+            try {
+                route.serve(request, response);
+            } catch (IOException | RuntimeException ex) {
+                final javax.ws.rs.core.Response mapped = exceptionMapper.toResponse(ex);
+                final MediaType type = mapped.getMediaType();
+                send(response, mapped.getStatus(), type == null ? null : type.toString(),
+                        String.valueOf(mapped.getEntity()).getBytes(UTF_8));
+            } finally {
+                requestMetrics(resource).record(response.getStatus(), nanoTime() - start, -1L);
+            }
+        }
+    }
+
+    private RequestMetrics requestMetrics(final String resource) {
+        // a plain read first, computeIfAbsent locks a bin even for a present key on java 8
+        RequestMetrics result = resources.get(resource);
+        if (result == null) {
+            result = resources.computeIfAbsent(resource, key -> new RequestMetrics(metrics, key));
+        }
+        return result;
+    }
+}
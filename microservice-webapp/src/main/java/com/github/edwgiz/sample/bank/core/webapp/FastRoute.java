@@ -0,0 +1,31 @@
+package com.github.edwgiz.sample.bank.core.webapp;
+
+import org.glassfish.grizzly.http.server.Request;
+import org.glassfish.grizzly.http.server.Response;
+
+import java.io.IOException;
+
+/**
+ * Serves some requests of the hot resource methods directly by Grizzly, bypassing the jax-rs routing, injection,
+ * entity providers and filters, see {@link FastPathHandler}. Created by the injection manager of the jax-rs
+ * application, so it can share the resource instances.
+ */
+public interface FastRoute {
+
+    /**
+     * @param request request, its body isn't read yet.
+     * @return resource method served instead of jax-rs, like {@code PaymentEndpoint.create}, to record the request
+     * metrics to, or {@code null} to pass the request to jax-rs.
+     */
+    String resourceOf(Request request);
+
+    /**
+     * Serves a request the resource of which is known.
+     *
+     * @param request  the request.
+     * @param response the response, not written if an exception is thrown.
+     * @throws IOException if the body can't be read or written, an invalid json body is responded with
+     *                     {@code 400 Bad Request} like by jax-rs.
+     */
+    void serve(Request request, Response response) throws IOException;
+}
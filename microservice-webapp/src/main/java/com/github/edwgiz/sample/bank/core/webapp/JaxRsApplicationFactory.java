@@ -4,8 +4,23 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.fasterxml.jackson.datatype.jsr310.ser.LocalDateTimeSerializer;
 import com.fasterxml.jackson.jaxrs.json.JacksonJaxbJsonProvider;
+import com.github.edwgiz.sample.bank.core.accesslog.AccessLog;
+import com.github.edwgiz.sample.bank.core.capture.TrafficCapture;
+import com.github.edwgiz.sample.bank.core.metrics.JvmMetrics;
+import com.github.edwgiz.sample.bank.core.metrics.Metrics;
 import com.github.edwgiz.sample.bank.core.storage.DSLContextFactory;
 import com.github.edwgiz.sample.bank.core.storage.InMemoryDataSourceFactory;
+import com.github.edwgiz.sample.bank.core.storage.QueryStatistics;
+import com.github.edwgiz.sample.bank.core.tracing.Tracer;
+import com.github.edwgiz.sample.bank.core.webapp.commons.CloseOnShutdown;
+import com.github.edwgiz.sample.bank.core.webapp.metrics.AccessLogFilter;
+import com.github.edwgiz.sample.bank.core.webapp.metrics.FlightRecordingEndpoint;
+import com.github.edwgiz.sample.bank.core.webapp.metrics.MetricsEndpoint;
+import com.github.edwgiz.sample.bank.core.webapp.metrics.MetricsFilter;
+import com.github.edwgiz.sample.bank.core.webapp.metrics.QueryStatisticsEndpoint;
+import com.github.edwgiz.sample.bank.core.webapp.metrics.ServerTimingFilter;
+import com.github.edwgiz.sample.bank.core.webapp.metrics.TracingFilter;
+import com.github.edwgiz.sample.bank.core.webapp.metrics.TrafficCaptureFilter;
 import org.glassfish.hk2.utilities.binding.AbstractBinder;
 import org.glassfish.jersey.server.ResourceConfig;
 import org.jooq.DSLContext;
@@ -28,10 +43,25 @@ public class JaxRsApplicationFactory implements Supplier<ResourceConfig> {
      * <ol>
      *     <li>{@link org.glassfish.hk2.utilities.Binder} calling local {@link #configure(AbstractBinder)} method.</li>
      *     <li>{@link LocalDateTimeParamConverterProvider} to handle REST query parameters.</li>
-     *     <li>{@link ObjectMapper} with a disabled visibility for the fields and the setters.</li>
+     *     <li>{@link ObjectMapper} with a disabled visibility for the fields and the setters, also bound for the
+     *     {@link FastRoute fast routes}.</li>
      *     <li>{@link JavaTimeModule} with {@link LocalDateTimeParamConverterProvider#DATE_TIME_FORMATTER} for json
      *     bodies.</li>
      *     <li>{@link ThrowableExceptionMapper}, switching the html error pages to the text output.</li>
+     *     <li>{@link Metrics} with {@link JvmMetrics}, bound and kept as {@link WebAppBase#PROPERTY_METRICS}
+     *     property, recorded by {@link MetricsFilter} and exposed by {@link MetricsEndpoint}.</li>
+     *     <li>{@link ServerTimingFilter} sending the phases of the requests and logging the slow ones.</li>
+     *     <li>{@link TracingFilter} starting the request spans of {@link Tracer}, configured by the system
+     *     properties.</li>
+     *     <li>{@link AccessLogFilter} recording the requests to {@link AccessLog}, configured by the system
+     *     properties.</li>
+     *     <li>{@link TrafficCaptureFilter} recording the requests to {@link TrafficCapture} to replay them, configured
+     *     by the system properties.</li>
+     *     <li>{@link CloseOnShutdown} closing the tracer, the access log and the traffic capture, writing the rest of
+     *     their records.</li>
+     *     <li>{@link FlightRecordingEndpoint} recording the flight recorder events on demand.</li>
+     *     <li>{@link QueryStatistics}, bound to be recorded by {@link DSLContextFactory}, and
+     *     {@link QueryStatisticsEndpoint} exposing the statements taking the most time.</li>
      *     <li>{@link OpenApiResource}</li>
      * </ol>
      *
@@ -39,9 +69,22 @@ public class JaxRsApplicationFactory implements Supplier<ResourceConfig> {
      */
     @Override
     public ResourceConfig get() {
+        final Metrics metrics = new Metrics();
+        JvmMetrics.register(metrics);
+        final QueryStatistics queryStatistics = new QueryStatistics();
+        final JavaTimeModule timeModule = new JavaTimeModule();
+        timeModule.addSerializer(LocalDateTime.class, new LocalDateTimeSerializer(DATE_TIME_FORMATTER));
+        final ObjectMapper mapper = new ObjectMapper()
+                .setDefaultVisibility(construct(NONE, PUBLIC_ONLY, PUBLIC_ONLY, NONE, PUBLIC_ONLY))
+                .registerModule(timeModule)
+                .configure(WRITE_DATES_AS_TIMESTAMPS, false)
+                .configure(FAIL_ON_EMPTY_BEANS, false);
         final AbstractBinder binder = new AbstractBinder() {
             @Override
             protected void configure() {
+                bind(metrics).to(Metrics.class);
+                bind(queryStatistics).to(QueryStatistics.class);
+                bind(mapper).to(ObjectMapper.class);
                 JaxRsApplicationFactory.this.configure(this);
             }
         };
@@ -50,18 +93,27 @@ public class JaxRsApplicationFactory implements Supplier<ResourceConfig> {
         conf.register(binder);
         conf.register(new LocalDateTimeParamConverterProvider());
 
-        final JavaTimeModule timeModule = new JavaTimeModule();
-        timeModule.addSerializer(LocalDateTime.class, new LocalDateTimeSerializer(DATE_TIME_FORMATTER));
         final JacksonJaxbJsonProvider jaxbJsonProvider = new JacksonJaxbJsonProvider();
-        jaxbJsonProvider.setMapper(new ObjectMapper()
-                .setDefaultVisibility(construct(NONE, PUBLIC_ONLY, PUBLIC_ONLY, NONE, PUBLIC_ONLY))
-                .registerModule(timeModule)
-                .configure(WRITE_DATES_AS_TIMESTAMPS, false)
-                .configure(FAIL_ON_EMPTY_BEANS, false));
+        jaxbJsonProvider.setMapper(mapper);
         conf.register(jaxbJsonProvider);
 
         conf.register(new ThrowableExceptionMapper());
 
+        conf.property(WebAppBase.PROPERTY_METRICS, metrics);
+        final MetricsFilter metricsFilter = new MetricsFilter(metrics);
+        conf.register(metricsFilter, MetricsFilter.PRIORITY);
+        conf.register(new ServerTimingFilter(metrics), ServerTimingFilter.PRIORITY);
+        final Tracer tracer = Tracer.create(metrics);
+        conf.register(new TracingFilter(tracer, metricsFilter), TracingFilter.PRIORITY);
+        final AccessLog accessLog = AccessLog.create(metrics);
+        conf.register(new AccessLogFilter(accessLog), AccessLogFilter.PRIORITY);
+        final TrafficCapture capture = TrafficCapture.create(metrics);
+        conf.register(new TrafficCaptureFilter(capture), TrafficCaptureFilter.PRIORITY);
+        conf.register(new CloseOnShutdown(tracer, accessLog, capture));
+        conf.register(MetricsEndpoint.class);
+        conf.register(FlightRecordingEndpoint.class);
+        conf.register(QueryStatisticsEndpoint.class);
+
         return conf;
     }
 
@@ -68,9 +68,10 @@ final class LocalDateTimeParamConverterProvider implements ParamConverterProvide
 
     @Singleton
     private static final class LocalDateTimeParamConverter implements ParamConverter<LocalDateTime> {
+        // a missing parameter is passed to the endpoint as null, to be reported by it
         @Override
         public LocalDateTime fromString(final String str) {
-            return LocalDateTime.parse(str, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+            return str == null ? null : LocalDateTime.parse(str, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
         }
 
         @Override
@@ -0,0 +1,237 @@
+package com.github.edwgiz.sample.bank.core.webapp;
+
+import org.glassfish.grizzly.http.Method;
+import org.glassfish.grizzly.http.server.HttpHandler;
+import org.glassfish.grizzly.http.server.Request;
+import org.glassfish.grizzly.http.server.Response;
+import org.glassfish.grizzly.http.util.Header;
+import org.glassfish.grizzly.http.util.HttpStatus;
+import org.glassfish.grizzly.http.util.MimeType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Serves the class path resources, loaded once on the creation, from the read-only direct buffers. A resource is
+ * gzipped in advance with the best compression, the variant is sent to the clients accepting it, if it's smaller. The
+ * responses carry the strong {@code ETag} of the variant and the given {@code Cache-Control}, so the revalidations
+ * by {@code If-None-Match} are responded by {@code 304 Not Modified} without a body.
+ * <p>
+ * The path of a folder, with or without the trailing slash, is served by its {@code index.html}.
+ */
+public final class StaticContentHandler extends HttpHandler {
+
+    private static final Logger LOG = LoggerFactory.getLogger(StaticContentHandler.class);
+    private static final String INDEX = "index.html";
+    private static final String GZIP = "gzip";
+    private static final int READ_BUFFER_BYTES = 8192;
+    private static final Pattern ZERO_QUALITY = Pattern.compile("q=0(\\.0{0,3})?");
+
+    private final String cacheControl;
+    private final Map<String, Content> contents;
+
+    /**
+     * @param classLoader       loader of the resources.
+     * @param root              resource folder of the served paths, ending with slash, like {@code /static/}.
+     * @param cacheControlValue value of the {@code Cache-Control} header.
+     * @param paths             paths of the resources relative to the root, the missing ones are skipped.
+     * @throws IllegalStateException if a resource can't be read.
+     */
+    public StaticContentHandler(final ClassLoader classLoader, final String root, final String cacheControlValue,
+            final String... paths) {
+        super(StaticContentHandler.class.getSimpleName());
+        this.cacheControl = cacheControlValue;
+        this.contents = new HashMap<>();
+        final String prefix = root.startsWith("/") ? root.substring(1) : root;
+        for (final String path : paths) {
+            try (InputStream stream = classLoader.getResourceAsStream(prefix + path)) {
+                if (stream == null) {
+                    LOG.warn("Static content {} - not found", path);
+                } else {
+                    final Content content = new Content(path, read(stream));
+                    contents.put('/' + path, content);
+                    if (path.endsWith('/' + INDEX)) {
+                        final String folder = path.substring(0, path.length() - INDEX.length());
+                        contents.put('/' + folder, content);
+                        contents.put('/' + folder.substring(0, folder.length() - 1), content);
+                    }
+                }
+            } catch (IOException | NoSuchAlgorithmException ex) {
+                throw new IllegalStateException("Static content " + path + " - failed", ex);
+            }
+        }
+    }
+
+    @Override
+    public void service(final Request request, final Response response) throws IOException {
+        final Content content = contents.get(request.getRequestURI());
+        final Method method = request.getMethod();
+        if (content == null) {
+            response.sendError(HttpStatus.NOT_FOUND_404.getStatusCode());
+        } else if (Method.GET.equals(method) || Method.HEAD.equals(method)) {
+            serve(content, request, response);
+        } else {
+            response.setHeader(Header.Allow, "GET, HEAD");
+            response.sendError(HttpStatus.METHOD_NOT_ALLOWED_405.getStatusCode());
+        }
+    }
+
+    private void serve(final Content content, final Request request, final Response response) throws IOException {
+        final boolean gzip = content.gzipped != null && acceptsGzip(request.getHeader(Header.AcceptEncoding));
+        final ByteBuffer body = gzip ? content.gzipped : content.identity;
+        final String etag = gzip ? content.gzippedEtag : content.identityEtag;
+        response.setHeader(Header.ETag, etag);
+        response.setHeader(Header.CacheControl, cacheControl);
+        if (content.gzipped != null) {
+            response.setHeader(Header.Vary, Header.AcceptEncoding.toString());
+        }
+        if (matches(request.getHeader(Header.IfNoneMatch), etag)) {
+            response.setStatus(HttpStatus.NOT_MODIFIED_304);
+        } else {
+            response.setContentType(content.contentType);
+            if (gzip) {
+                response.setHeader(Header.ContentEncoding, GZIP);
+            }
+            response.setContentLength(body.remaining());
+            if (Method.GET.equals(request.getMethod())) {
+                response.getOutputBuffer().writeByteBuffer(body.duplicate());
+            }
+        }
+    }
+
+    // whether gzip or any coding is listed without the zero quality, the quality isn't compared otherwise
+    /* default */static boolean acceptsGzip(final String acceptEncoding) {
+        boolean result = false;
+        if (acceptEncoding != null) {
+            for (final String coding : acceptEncoding.split(",")) {
+                final String[] parameters = coding.split(";");
+                final String name = parameters[0].trim();
+                if ((GZIP.equalsIgnoreCase(name) || "*".equals(name)) && !zeroQuality(parameters)) {
+                    result = true;
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static boolean zeroQuality(final String... parameters) {
+        boolean result = false;
+        for (int i = 1; i < parameters.length; i++) {
+            final String parameter = parameters[i].trim().toLowerCase(Locale.ROOT);
+            if (parameter.startsWith("q=")) {
+                result = ZERO_QUALITY.matcher(parameter).matches();
+            }
+        }
+        return result;
+    }
+
+    // the weak comparison of RFC 7232 section 3.2
+    /* default */static boolean matches(final String ifNoneMatch, final String etag) {
+        boolean result = false;
+        if (ifNoneMatch != null) {
+            for (final String tag : ifNoneMatch.split(",")) {
+                final String trimmed = tag.trim();
+                if ("*".equals(trimmed) || etag.equals(trimmed.startsWith("W/") ? trimmed.substring(2) : trimmed)) {
+                    result = true;
+                    break;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static byte[] read(final InputStream stream) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final byte[] chunk = new byte[READ_BUFFER_BYTES];
+        for (int count = stream.read(chunk); count >= 0; count = stream.read(chunk)) {
+            bytes.write(chunk, 0, count);
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] gzip(final byte[] bytes) throws IOException {
+        final ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length);
+        try (OutputStream out = new BestGzipOutputStream(compressed)) {
+            out.write(bytes);
+        }
+        return compressed.toByteArray();
+    }
+
+    private static ByteBuffer direct(final byte[] bytes) {
+        final ByteBuffer result = ByteBuffer.allocateDirect(bytes.length);
+        result.put(bytes);
+        result.flip();
+        return result.asReadOnlyBuffer();
+    }
+
+    private static String hash(final byte[] bytes) throws NoSuchAlgorithmException {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(
+                MessageDigest.getInstance("SHA-256").digest(bytes));
+    }
+
+    /* default */static String contentTypeOf(final String path) {
+        final String type = path.endsWith(".json") ? "application/json" : MimeType.getByFilename(path);
+        final String result;
+        if (type == null) {
+            result = "application/octet-stream";
+        } else if (type.startsWith("text/") || type.endsWith("/json")) {
+            result = type + ";charset=utf-8";
+        } else {
+            result = type;
+        }
+        return result;
+    }
+
+    /**
+     * Loaded resource.
+     */
+    private static final class Content {
+
+        private final String contentType;
+        private final ByteBuffer identity;
+        private final String identityEtag;
+        private final ByteBuffer gzipped;
+        private final String gzippedEtag;
+
+        /* default */Content(final String path, final byte[] bytes) throws IOException, NoSuchAlgorithmException {
+            this.contentType = contentTypeOf(path);
+            this.identity = direct(bytes);
+            final String hash = hash(bytes);
+            this.identityEtag = '"' + hash + '"';
+            final byte[] compressed = gzip(bytes);
+            if (compressed.length < bytes.length) {
+                this.gzipped = direct(compressed);
+                this.gzippedEtag = '"' + hash + '-' + GZIP + '"';
+            } else {
+                this.gzipped = null;
+                this.gzippedEtag = null;
+            }
+        }
+    }
+
+    /**
+     * Gzip stream of the best compression.
+     */
+    private static final class BestGzipOutputStream extends GZIPOutputStream {
+
+        /* default */BestGzipOutputStream(final OutputStream out) throws IOException {
+            super(out);
+            def.setLevel(Deflater.BEST_COMPRESSION);
+        }
+    }
+}
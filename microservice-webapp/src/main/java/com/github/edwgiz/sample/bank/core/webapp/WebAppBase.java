@@ -29,6 +29,31 @@ import static java.lang.System.nanoTime;
  */
 public class WebAppBase {
 
+    /**
+     * Optional property of the jax-rs application, local directory to serve at {@link #FILES_CONTEXT_PATH}.
+     */
+    public static final String PROPERTY_FILES_DIRECTORY = "webserver.files.directory";
+    /**
+     * Context path of the files from {@link #PROPERTY_FILES_DIRECTORY} directory.
+     */
+    public static final String FILES_CONTEXT_PATH = "/files";
+    /**
+     * Property of the jax-rs application, {@link com.github.edwgiz.sample.bank.core.metrics.Metrics} registry to add
+     * the web server metrics to.
+     */
+    public static final String PROPERTY_METRICS = "webserver.metrics";
+    /**
+     * Optional property of the jax-rs application, {@link FastRoute} class served by {@link FastPathHandler} if
+     * {@value WebServer#SYSTEM_PROPERTY_FAST_PATH} system property is {@code true}.
+     */
+    public static final String PROPERTY_FAST_ROUTE = "webserver.fast.route";
+    /**
+     * Optional property of the jax-rs application, {@link com.github.edwgiz.sample.bank.core.webapp.binary.BinaryRoute}
+     * class served by {@link BinaryListener} if {@value WebServer#SYSTEM_PROPERTY_BINARY_PORT} system property is
+     * defined.
+     */
+    public static final String PROPERTY_BINARY_ROUTE = "webserver.binary.route";
+
     /**
      * Instantiates an instance of itself and starts it.
      *
@@ -1,8 +1,17 @@
 package com.github.edwgiz.sample.bank.core.webapp;
 
-import org.glassfish.grizzly.http.server.CLStaticHttpHandler;
+import com.github.edwgiz.sample.bank.core.metrics.Metrics;
+import com.github.edwgiz.sample.bank.core.webapp.binary.BinaryRoute;
+import com.github.edwgiz.sample.bank.core.webapp.commons.TlsUtils;
+import com.github.edwgiz.sample.bank.core.webapp.metrics.ConnectionMetrics;
+import com.github.edwgiz.sample.bank.core.webapp.metrics.HandshakeMetrics;
+import com.github.edwgiz.sample.bank.core.webapp.metrics.ThreadPoolMetrics;
 import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.grizzly.http.server.NetworkListener;
 import org.glassfish.grizzly.http.server.ServerConfiguration;
+import org.glassfish.grizzly.http.server.StaticHttpHandler;
+import org.glassfish.grizzly.http2.Http2AddOn;
+import org.glassfish.grizzly.http2.Http2Configuration;
 import org.glassfish.jersey.grizzly2.httpserver.GrizzlyHttpServerFactory;
 import org.glassfish.jersey.server.ResourceConfig;
 import org.slf4j.Logger;
@@ -17,6 +26,13 @@ import static org.glassfish.grizzly.http.server.HttpHandlerRegistration.builder;
 final class WebServer {
 
     private static final Logger LOG = LoggerFactory.getLogger(WebServer.class);
+    private static final int DEFAULT_SESSION_CACHE_SIZE = 20_480;
+    private static final int DEFAULT_SESSION_TIMEOUT_SECONDS = 86_400;
+    private static final int DEFAULT_STATIC_MAX_AGE_SECONDS = 3_600;
+    private static final String[] STATIC_CONTENT = {"openapi.json", "swagger-ui/index.html",
+        "swagger-ui/oauth2-redirect.html", "swagger-ui/swagger-ui.css", "swagger-ui/swagger-ui.js",
+        "swagger-ui/swagger-ui-bundle.js", "swagger-ui/swagger-ui-standalone-preset.js",
+        "swagger-ui/favicon-16x16.png", "swagger-ui/favicon-32x32.png"};
 
     /**
      * Required property to be passed via command-line.
@@ -26,13 +42,83 @@ final class WebServer {
      * Required property to be passed via command-line.
      */
     static final /* default */ String SYSTEM_PROPERTY_PORT = "webserver.http.port";
+    /**
+     * Optional property, whether the {@link WebAppBase#PROPERTY_FAST_ROUTE} is served ahead of jax-rs.
+     */
+    static final /* default */ String SYSTEM_PROPERTY_FAST_PATH = "webserver.fast.path";
+    /**
+     * Optional property, port of the {@link WebAppBase#PROPERTY_BINARY_ROUTE} served by {@link BinaryListener}.
+     */
+    static final /* default */ String SYSTEM_PROPERTY_BINARY_PORT = "webserver.binary.port";
+    /**
+     * Optional property, whether the listeners serve HTTP/2 along with HTTP/1.1.
+     */
+    static final /* default */ String SYSTEM_PROPERTY_HTTP2 = "webserver.http2";
+    /**
+     * Optional property, max number of the concurrent HTTP/2 streams of a connection.
+     */
+    static final /* default */ String SYSTEM_PROPERTY_MAX_CONCURRENT_STREAMS = "webserver.http.max.concurrent.streams";
+    /**
+     * Optional property, initial flow-control window of the HTTP/2 streams in bytes.
+     */
+    static final /* default */ String SYSTEM_PROPERTY_INITIAL_WINDOW_SIZE = "webserver.http.initial.window.size";
+    /**
+     * Optional property, max payload of the HTTP/2 frames in bytes.
+     */
+    static final /* default */ String SYSTEM_PROPERTY_MAX_FRAME_SIZE = "webserver.http.max.frame.size";
+    /**
+     * Optional property, port of the TLS listener.
+     */
+    static final /* default */ String SYSTEM_PROPERTY_HTTPS_PORT = "webserver.https.port";
+    /**
+     * Property required by the TLS listener, path of the JKS keystore with the key of the server.
+     */
+    static final /* default */ String SYSTEM_PROPERTY_KEYSTORE = "webserver.https.keystore";
+    /**
+     * Property required by the TLS listener, password of the keystore and the key.
+     */
+    static final /* default */ String SYSTEM_PROPERTY_KEYSTORE_PASSWORD = "webserver.https.keystore.password";
+    /**
+     * Optional property, comma-separated protocols of the TLS listener, like {@code TLSv1.3,TLSv1.2}.
+     */
+    static final /* default */ String SYSTEM_PROPERTY_PROTOCOLS = "webserver.https.protocols";
+    /**
+     * Optional property, comma-separated cipher suites of the TLS listener.
+     */
+    static final /* default */ String SYSTEM_PROPERTY_CIPHER_SUITES = "webserver.https.cipher.suites";
+    /**
+     * Optional property, maximum number of the TLS sessions cached for the resumption.
+     */
+    static final /* default */ String SYSTEM_PROPERTY_SESSION_CACHE_SIZE = "webserver.https.session.cache.size";
+    /**
+     * Optional property, lifetime of a cached TLS session in seconds.
+     */
+    static final /* default */ String SYSTEM_PROPERTY_SESSION_TIMEOUT = "webserver.https.session.timeout.seconds";
+    /**
+     * Optional property, {@code max-age} of the static content in seconds.
+     */
+    static final /* default */ String SYSTEM_PROPERTY_STATIC_MAX_AGE = "webserver.static.max.age.seconds";
+    /**
+     * Name of the plain HTTP listener, given by {@link GrizzlyHttpServerFactory}.
+     */
+    static final /* default */ String HTTP_LISTENER_NAME = "grizzly";
+    /**
+     * Name of the TLS listener.
+     */
+    static final /* default */ String TLS_LISTENER_NAME = "grizzly-tls";
 
     public AutoCloseable start(final ResourceConfig conf) {
         final HttpServer httpServer = createHttpServer(conf);
         final ServerConfiguration httpServerConf = httpServer.getServerConfiguration();
         httpServerConf.setSessionManager(null);
         httpServerConf.setGracefulShutdownSupported(true);
+        attachTls(httpServer, System.getProperty(SYSTEM_PROPERTY_HTTPS_PORT));
+        attachHttp2(httpServer, Boolean.getBoolean(SYSTEM_PROPERTY_HTTP2));
+        attachBinary(httpServer, conf, System.getProperty(SYSTEM_PROPERTY_BINARY_PORT));
         attachStaticContent(httpServer);
+        attachFiles(httpServer, conf);
+        attachMetrics(httpServer, conf);
+        attachFastPath(httpServer, conf, Boolean.getBoolean(SYSTEM_PROPERTY_FAST_PATH));
         final AutoCloseable shutdownAction = createShutdownAction(httpServer, 60_000L);
         try {
             httpServer.start();
@@ -42,14 +128,146 @@ final class WebServer {
         return shutdownAction;
     }
 
+    /**
+     * Serves the swagger UI and {@code openapi.json} from memory, they are loaded and gzipped once on the start.
+     *
+     * @param httpServer server to attach the handler to.
+     */
     /* default */void attachStaticContent(final HttpServer httpServer) {
-        final CLStaticHttpHandler httpHandler = new CLStaticHttpHandler(getClass().getClassLoader(), "/static/");
-        httpHandler.setFileCacheEnabled(false);
+        final StaticContentHandler httpHandler = new StaticContentHandler(getClass().getClassLoader(), "/static/",
+                "public, max-age=" + Integer.getInteger(SYSTEM_PROPERTY_STATIC_MAX_AGE, DEFAULT_STATIC_MAX_AGE_SECONDS),
+                STATIC_CONTENT);
         httpServer.getServerConfiguration().addHttpHandler(httpHandler,
                 builder().urlPattern("/swagger-ui/*").build(),
                 builder().urlPattern("/openapi.json").build());
     }
 
+    /**
+     * Serves the files of {@link WebAppBase#PROPERTY_FILES_DIRECTORY} directory, if it's defined, by Grizzly
+     * directly, a file content is sent from the page cache to the socket of the plain HTTP listener without the
+     * copying via the heap.
+     *
+     * @param httpServer server to attach the handler to.
+     * @param conf       jax-rs application config, may define the directory.
+     */
+    /* default */void attachFiles(final HttpServer httpServer, final ResourceConfig conf) {
+        final Object directory = conf.getProperty(WebAppBase.PROPERTY_FILES_DIRECTORY);
+        if (directory != null) {
+            final StaticHttpHandler httpHandler = new StaticHttpHandler(directory.toString());
+            httpHandler.setFileCacheEnabled(false); // the files are big and mostly downloaded once
+            httpServer.getServerConfiguration().addHttpHandler(httpHandler,
+                    builder().contextPath(WebAppBase.FILES_CONTEXT_PATH).urlPattern("/*").build());
+            // the TLS listener encrypts the files in the heap anyway and the binary one serves no files
+            final NetworkListener listener = httpServer.getListener(HTTP_LISTENER_NAME);
+            if (listener != null) {
+                listener.setSendFileEnabled(true);
+            }
+        }
+    }
+
+    /**
+     * Adds the connection and the worker thread pool metrics of the listeners, and the handshake metrics of the
+     * secure ones, to {@link WebAppBase#PROPERTY_METRICS} registry, if it's defined. The pool probes are taken by the
+     * transports on their start.
+     *
+     * @param httpServer server of the listeners.
+     * @param conf       jax-rs application config, may define the registry.
+     */
+    /* default */void attachMetrics(final HttpServer httpServer, final ResourceConfig conf) {
+        final Object metrics = conf.getProperty(WebAppBase.PROPERTY_METRICS);
+        if (metrics != null) {
+            final ConnectionMetrics probe = new ConnectionMetrics((Metrics) metrics);
+            final ThreadPoolMetrics threadPoolProbe = new ThreadPoolMetrics((Metrics) metrics);
+            final HandshakeMetrics handshakes = new HandshakeMetrics((Metrics) metrics);
+            for (final NetworkListener listener : httpServer.getListeners()) {
+                listener.getTransport().getConnectionMonitoringConfig().addProbes(probe);
+                listener.getTransport().getThreadPoolMonitoringConfig().addProbes(threadPoolProbe);
+                if (listener.isSecure()) {
+                    listener.registerAddOn(handshakes);
+                }
+            }
+        }
+    }
+
+    /**
+     * Puts {@link FastPathHandler} in front of the jax-rs container, if it's enabled and the application defines
+     * {@link WebAppBase#PROPERTY_FAST_ROUTE}.
+     *
+     * @param httpServer server of the jax-rs container.
+     * @param conf       jax-rs application config, may define the route.
+     * @param enabled    whether the fast path is enabled.
+     */
+    /* default */void attachFastPath(final HttpServer httpServer, final ResourceConfig conf, final boolean enabled) {
+        final Object route = conf.getProperty(WebAppBase.PROPERTY_FAST_ROUTE);
+        if (enabled && route != null) {
+            final Object metrics = conf.getProperty(WebAppBase.PROPERTY_METRICS);
+            FastPathHandler.attach(httpServer, ((Class<?>) route).asSubclass(FastRoute.class),
+                    metrics == null ? new Metrics() : (Metrics) metrics);
+            LOG.info("Fast path of {} is enabled", route);
+        }
+    }
+
+    /**
+     * Adds {@link BinaryListener} to the server, if the port is defined and the application defines
+     * {@link WebAppBase#PROPERTY_BINARY_ROUTE}. Must be called before the fast path is attached.
+     *
+     * @param httpServer server of the jax-rs container.
+     * @param conf       jax-rs application config, may define the route.
+     * @param port       binary port, or {@code null}.
+     */
+    /* default */void attachBinary(final HttpServer httpServer, final ResourceConfig conf, final String port) {
+        final Object route = conf.getProperty(WebAppBase.PROPERTY_BINARY_ROUTE);
+        if (port != null && route != null) {
+            final Object metrics = conf.getProperty(WebAppBase.PROPERTY_METRICS);
+            BinaryListener.attach(httpServer, getSystemProperty(SYSTEM_PROPERTY_HOSTNAME), Integer.parseInt(port),
+                    ((Class<?>) route).asSubclass(BinaryRoute.class),
+                    metrics == null ? new Metrics() : (Metrics) metrics);
+            LOG.info("Binary listener of {} is on port {}", route, port);
+        }
+    }
+
+    /**
+     * Adds a TLS listener of the keystore of {@link #SYSTEM_PROPERTY_KEYSTORE} to the server, if the port is defined.
+     * Its sessions are cached for the resumption, the protocols and the cipher suites are the ones of the JDK unless
+     * {@link #SYSTEM_PROPERTY_PROTOCOLS} and {@link #SYSTEM_PROPERTY_CIPHER_SUITES} are defined.
+     *
+     * @param httpServer server to add the listener to.
+     * @param port       TLS port, or {@code null}.
+     */
+    /* default */void attachTls(final HttpServer httpServer, final String port) {
+        if (port != null) {
+            httpServer.addListener(TlsUtils.listener(TLS_LISTENER_NAME, getSystemProperty(SYSTEM_PROPERTY_HOSTNAME),
+                    Integer.parseInt(port),
+                    TlsUtils.serverContext(getSystemProperty(SYSTEM_PROPERTY_KEYSTORE),
+                            getSystemProperty(SYSTEM_PROPERTY_KEYSTORE_PASSWORD),
+                            Integer.getInteger(SYSTEM_PROPERTY_SESSION_CACHE_SIZE, DEFAULT_SESSION_CACHE_SIZE),
+                            Integer.getInteger(SYSTEM_PROPERTY_SESSION_TIMEOUT, DEFAULT_SESSION_TIMEOUT_SECONDS)),
+                    getListProperty(SYSTEM_PROPERTY_PROTOCOLS), getListProperty(SYSTEM_PROPERTY_CIPHER_SUITES)));
+            LOG.info("TLS listener is on port {}", port);
+        }
+    }
+
+    /**
+     * Lets the listeners serve HTTP/2 along with HTTP/1.1, if it's enabled: the cleartext ones by the prior knowledge
+     * or the upgrade, the TLS ones by ALPN. Must be called before the binary listener is attached.
+     *
+     * @param httpServer server of the listeners.
+     * @param enabled    whether HTTP/2 is enabled.
+     */
+    /* default */void attachHttp2(final HttpServer httpServer, final boolean enabled) {
+        if (enabled) {
+            final Http2AddOn addOn = new Http2AddOn(Http2Configuration.builder()
+                    .maxConcurrentStreams(Integer.getInteger(SYSTEM_PROPERTY_MAX_CONCURRENT_STREAMS, -1))
+                    .initialWindowSize(Integer.getInteger(SYSTEM_PROPERTY_INITIAL_WINDOW_SIZE, -1))
+                    .maxFramePayloadSize(Integer.getInteger(SYSTEM_PROPERTY_MAX_FRAME_SIZE, -1))
+                    .build());
+            for (final NetworkListener listener : httpServer.getListeners()) {
+                listener.registerAddOn(addOn);
+            }
+            LOG.info("HTTP/2 is enabled");
+        }
+    }
+
     /* default */HttpServer createHttpServer(final ResourceConfig conf) {
         final String host = getSystemProperty(SYSTEM_PROPERTY_HOSTNAME);
         final String port = getSystemProperty(SYSTEM_PROPERTY_PORT);
@@ -63,6 +281,11 @@ final class WebServer {
         return GrizzlyHttpServerFactory.createHttpServer(uri, conf, false, null, false);
     }
 
+    static /* default */String[] getListProperty(final String key) {
+        final String value = System.getProperty(key);
+        return value == null ? null : value.trim().split("\\s*,\\s*");
+    }
+
     static /* default */String getSystemProperty(final String key) {
         final String value = System.getProperty(key);
         if (value == null) {
@@ -81,6 +304,9 @@ final class WebServer {
             } else {
                 LOG.warn("Shutdown HTTP server - forced exit");
             }
+            // the graceful shutdown stops only the listeners, this one destroys the jax-rs application as well, so
+            // its lifecycle listeners and the singletons of its injection manager are released
+            httpServer.shutdownNow();
         };
     }
 }
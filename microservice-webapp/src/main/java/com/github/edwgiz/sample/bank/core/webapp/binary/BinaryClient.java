@@ -0,0 +1,50 @@
+package com.github.edwgiz.sample.bank.core.webapp.binary;
+
+import com.github.edwgiz.sample.bank.core.webapp.commons.MultiplexedClient;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Client of the binary protocol over one connection. The requests are pipelined: any number of them are sent
+ * without waiting for the responses, which complete their futures in the order the server completes them.
+ */
+public final class BinaryClient extends MultiplexedClient<Integer, BinaryFrame, CompletableFuture<BinaryFrame>> {
+
+    private final AtomicInteger ids = new AtomicInteger();
+
+    private BinaryClient() {
+        super();
+    }
+
+    /**
+     * @param host host of the server.
+     * @param port binary port of the server.
+     * @return the connected client.
+     * @throws IOException if it can't connect.
+     */
+    public static BinaryClient connect(final String host, final int port) throws IOException {
+        final BinaryClient client = new BinaryClient();
+        client.open(host, port, new BinaryFrameFilter());
+        return client;
+    }
+
+    /**
+     * @param type    message type.
+     * @param payload payload of the request.
+     * @return future of the response.
+     */
+    public CompletableFuture<BinaryFrame> send(final int type, final byte[] payload) {
+        final int requestId = ids.incrementAndGet();
+        return send(requestId, new CompletableFuture<>(), new BinaryFrame(requestId, type, payload));
+    }
+
+    @Override
+    protected void onMessage(final BinaryFrame response) {
+        final CompletableFuture<BinaryFrame> future = complete(response.getId());
+        if (future != null) {
+            future.complete(response);
+        }
+    }
+}
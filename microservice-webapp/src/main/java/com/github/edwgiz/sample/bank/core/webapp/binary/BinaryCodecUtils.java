@@ -0,0 +1,79 @@
+package com.github.edwgiz.sample.bank.core.webapp.binary;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static java.time.ZoneOffset.UTC;
+
+/**
+ * Encoding of the payload values the {@link DataOutput} lacks, shared by the routes and the clients.
+ */
+public final class BinaryCodecUtils {
+
+    private BinaryCodecUtils() {
+    }
+
+    /**
+     * @param out   target.
+     * @param value string of up to 65535 UTF-8 bytes, or {@code null}.
+     * @throws IOException if the value can't be written.
+     */
+    public static void writeString(final DataOutput out, final String value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    /**
+     * @param input source.
+     * @return value written by {@link #writeString(DataOutput, String)}.
+     * @throws IOException if the value can't be read.
+     */
+    public static String readString(final DataInput input) throws IOException {
+        return input.readBoolean() ? input.readUTF() : null;
+    }
+
+    /**
+     * @param out   target.
+     * @param value decimal, its unscaled value fits into {@code long}.
+     * @throws IOException if the value can't be written.
+     */
+    public static void writeDecimal(final DataOutput out, final BigDecimal value) throws IOException {
+        out.writeByte(value.scale());
+        out.writeLong(value.unscaledValue().longValueExact());
+    }
+
+    /**
+     * @param input source.
+     * @return value written by {@link #writeDecimal(DataOutput, BigDecimal)}.
+     * @throws IOException if the value can't be read.
+     */
+    public static BigDecimal readDecimal(final DataInput input) throws IOException {
+        final int scale = input.readByte();
+        return BigDecimal.valueOf(input.readLong(), scale);
+    }
+
+    /**
+     * @param out   target.
+     * @param value date-time in UTC.
+     * @throws IOException if the value can't be written.
+     */
+    public static void writeDateTime(final DataOutput out, final LocalDateTime value) throws IOException {
+        out.writeLong(value.toEpochSecond(UTC));
+        out.writeInt(value.getNano());
+    }
+
+    /**
+     * @param input source.
+     * @return value written by {@link #writeDateTime(DataOutput, LocalDateTime)}.
+     * @throws IOException if the value can't be read.
+     */
+    public static LocalDateTime readDateTime(final DataInput input) throws IOException {
+        final long seconds = input.readLong();
+        return LocalDateTime.ofEpochSecond(seconds, input.readInt(), UTC);
+    }
+}
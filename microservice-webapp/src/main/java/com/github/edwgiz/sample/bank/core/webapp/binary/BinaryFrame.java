@@ -0,0 +1,81 @@
+package com.github.edwgiz.sample.bank.core.webapp.binary;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Message of the binary protocol, a request or a response. On the wire it's the length of the rest of the frame,
+ * the request identifier, the code and the payload, so a frame takes {@value #HEADER_BYTES} bytes besides the
+ * payload.
+ * <p>
+ * The code of a request is its message type, the code of a response is an HTTP status, with the response of the
+ * resource method as the payload if it's successful, or its UTF-8 error message otherwise.
+ */
+public final class BinaryFrame {
+
+    /**
+     * Bytes of the length prefix.
+     */
+    public static final int LENGTH_BYTES = Integer.BYTES;
+    /**
+     * Bytes of a frame besides the payload: the length prefix, the request identifier and the code.
+     */
+    public static final int HEADER_BYTES = LENGTH_BYTES + Integer.BYTES + Short.BYTES;
+
+    private final int requestId;
+    private final int code;
+    private final byte[] payload;
+
+    /**
+     * @param identifier identifier of the request, chosen by the client, returned in its response.
+     * @param value      message type of a request or status of a response, fits into {@code short}.
+     * @param body       payload, not copied.
+     */
+    public BinaryFrame(final int identifier, final int value, final byte[] body) {
+        this.requestId = identifier;
+        this.code = value;
+        this.payload = body;
+    }
+
+    /**
+     * @return identifier of the request.
+     */
+    public int getId() {
+        return requestId;
+    }
+
+    /**
+     * @return message type of a request or status of a response.
+     */
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * @return the payload, not copied.
+     */
+    public byte[] getPayload() {
+        return payload;
+    }
+
+    /**
+     * @return reader of the payload.
+     */
+    public DataInputStream input() {
+        return new DataInputStream(new ByteArrayInputStream(payload));
+    }
+
+    /**
+     * @return the payload as the UTF-8 error message.
+     */
+    public String getMessage() {
+        return new String(payload, UTF_8);
+    }
+
+    @Override
+    public String toString() {
+        return "BinaryFrame{id=" + requestId + ", code=" + code + ", payload=" + payload.length + " bytes}";
+    }
+}
@@ -0,0 +1,65 @@
+package com.github.edwgiz.sample.bank.core.webapp.binary;
+
+import org.glassfish.grizzly.Buffer;
+import org.glassfish.grizzly.filterchain.BaseFilter;
+import org.glassfish.grizzly.filterchain.FilterChainContext;
+import org.glassfish.grizzly.filterchain.NextAction;
+
+import java.io.IOException;
+
+/**
+ * Decodes the read bytes into {@link BinaryFrame}s, waiting for the rest of a partly read frame, and encodes the
+ * written frames. A connection sending a frame longer than {@value #MAX_LENGTH} bytes is closed.
+ */
+public final class BinaryFrameFilter extends BaseFilter {
+
+    /**
+     * Maximum length of a frame besides the length prefix.
+     */
+    public static final int MAX_LENGTH = 65_536;
+
+    @Override
+    public NextAction handleRead(final FilterChainContext ctx) throws IOException {
+        final Buffer input = ctx.getMessage();
+        final NextAction result;
+        if (input.remaining() < BinaryFrame.LENGTH_BYTES) {
+            result = ctx.getStopAction(input);
+        } else {
+            final int length = input.getInt(input.position());
+            if (length < BinaryFrame.HEADER_BYTES - BinaryFrame.LENGTH_BYTES || length > MAX_LENGTH) {
+                throw new IOException("Invalid frame length " + length);
+            }
+            final int end = input.position() + BinaryFrame.LENGTH_BYTES + length;
+            if (input.limit() < end) {
+                result = ctx.getStopAction(input);
+            } else {
+                // the next pipelined frames are decoded by the next invocation
+                final Buffer remainder = input.limit() > end ? input.split(end) : null;
+                input.getInt();
+                final int requestId = input.getInt();
+                final int code = input.getShort();
+                final byte[] payload = new byte[input.remaining()];
+                input.get(payload);
+                input.tryDispose();
+                ctx.setMessage(new BinaryFrame(requestId, code, payload));
+                result = ctx.getInvokeAction(remainder);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public NextAction handleWrite(final FilterChainContext ctx) {
+        final BinaryFrame frame = ctx.getMessage();
+        final byte[] payload = frame.getPayload();
+        final Buffer output = ctx.getMemoryManager().allocate(BinaryFrame.HEADER_BYTES + payload.length);
+        output.putInt(BinaryFrame.HEADER_BYTES - BinaryFrame.LENGTH_BYTES + payload.length);
+        output.putInt(frame.getId());
+        output.putShort((short) frame.getCode());
+        output.put(payload);
+        output.flip();
+        output.allowBufferDispose(true);
+        ctx.setMessage(output);
+        return ctx.getInvokeAction();
+    }
+}
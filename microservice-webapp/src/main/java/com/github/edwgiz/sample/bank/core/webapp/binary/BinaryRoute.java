@@ -0,0 +1,31 @@
+package com.github.edwgiz.sample.bank.core.webapp.binary;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Serves the binary requests by the resource methods of a jax-rs application, see {@link BinaryServerFilter}.
+ * Created by the injection manager of the application, so it can share the resource instances.
+ */
+public interface BinaryRoute {
+
+    /**
+     * @return resource methods by the served message types, like {@code PaymentEndpoint.create}, to record the
+     * request metrics to, the other types are responded with {@code 400 Bad Request}.
+     */
+    Map<Integer, String> resources();
+
+    /**
+     * Serves a request of a known type.
+     *
+     * @param type     message type.
+     * @param request  the payload of the request.
+     * @param response the payload of the response.
+     * @return status of the response, like {@code 200 OK} or {@code 204 No Content}.
+     * @throws IOException if the request is truncated, it's responded with {@code 400 Bad Request}. The other
+     *                     exceptions are responded like by jax-rs.
+     */
+    int serve(int type, DataInput request, DataOutput response) throws IOException;
+}
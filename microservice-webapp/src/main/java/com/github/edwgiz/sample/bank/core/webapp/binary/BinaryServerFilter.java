@@ -0,0 +1,120 @@
+package com.github.edwgiz.sample.bank.core.webapp.binary;
+
+import com.github.edwgiz.sample.bank.core.metrics.Metrics;
+import com.github.edwgiz.sample.bank.core.webapp.metrics.RequestMetrics;
+import org.glassfish.grizzly.Connection;
+import org.glassfish.grizzly.Grizzly;
+import org.glassfish.grizzly.attributes.Attribute;
+import org.glassfish.grizzly.filterchain.BaseFilter;
+import org.glassfish.grizzly.filterchain.FilterChainContext;
+import org.glassfish.grizzly.filterchain.NextAction;
+import org.glassfish.grizzly.utils.NullaryFunction;
+
+import javax.ws.rs.core.Response;
+import javax.ws.rs.ext.ExceptionMapper;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.lang.System.nanoTime;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static javax.ws.rs.core.Response.Status.BAD_REQUEST;
+import static javax.ws.rs.core.Response.Status.SERVICE_UNAVAILABLE;
+
+/**
+ * Serves the decoded {@link BinaryFrame}s by a {@link BinaryRoute} on the worker thread pool of the transport, so
+ * the pipelined requests of a connection are served concurrently and responded in the order they complete, matched
+ * by their identifiers. At most {@value #MAX_IN_FLIGHT} requests of a connection are served at once, the following
+ * ones are responded by {@code 503} until the served ones complete, so a connection can't flood the worker pool.
+ * <p>
+ * The exceptions are responded by the exception mapper of the jax-rs application, with its status and its text, and
+ * the requests are recorded to the request metrics of their resource methods.
+ */
+public final class BinaryServerFilter extends BaseFilter {
+
+    /**
+     * Maximum number of the requests of a connection being served.
+     */
+    public static final int MAX_IN_FLIGHT = 256;
+    private static final int INITIAL_RESPONSE_BYTES = 256;
+    private static final Attribute<AtomicInteger> IN_FLIGHT = Grizzly.DEFAULT_ATTRIBUTE_BUILDER.createAttribute(
+            BinaryServerFilter.class.getName() + ".inFlight", (NullaryFunction<AtomicInteger>) AtomicInteger::new);
+
+    private final BinaryRoute route;
+    private final Map<Integer, RequestMetrics> resources;
+    private final ExceptionMapper<Throwable> exceptionMapper;
+
+    /**
+     * @param value    route to serve.
+     * @param registry registry to record the request metrics to.
+     * @param mapper   exception mapper of the jax-rs application.
+     */
+    public BinaryServerFilter(final BinaryRoute value, final Metrics registry,
+            final ExceptionMapper<Throwable> mapper) {
+        super();
+        this.route = value;
+        this.resources = new HashMap<>();
+        value.resources().forEach((type, resource) -> resources.put(type, new RequestMetrics(registry, resource)));
+        this.exceptionMapper = mapper;
+    }
+
+    @Override
+    public NextAction handleRead(final FilterChainContext ctx) {
+        final BinaryFrame request = ctx.getMessage();
+        final Connection<?> connection = ctx.getConnection();
+        // incremented by the reading thread of the connection, decremented by the worker threads
+        final AtomicInteger inFlight = IN_FLIGHT.get(connection);
+        if (inFlight.incrementAndGet() > MAX_IN_FLIGHT) {
+            inFlight.decrementAndGet();
+            connection.write(error(request, SERVICE_UNAVAILABLE.getStatusCode(), "Too many requests in flight"));
+        } else {
+            connection.getTransport().getWorkerThreadPool().execute(() -> {
+                try {
+                    connection.write(serve(request));
+                } finally {
+                    inFlight.decrementAndGet();
+                }
+            });
+        }
+        return ctx.getStopAction();
+    }
+
+    /**
+     * @param request the request.
+     * @return the response.
+     */
+    /* default */BinaryFrame serve(final BinaryFrame request) {
+        final RequestMetrics requestMetrics = resources.get(request.getCode());
+        final BinaryFrame response;
+        if (requestMetrics == null) {
+            response = error(request, BAD_REQUEST.getStatusCode(), "Unknown message type " + request.getCode());
+        } else {
+            final long start = nanoTime();
+            response = serve(request, new ByteArrayOutputStream(INITIAL_RESPONSE_BYTES));
+            requestMetrics.record(response.getCode(), nanoTime() - start, -1L);
+        }
+        return response;
+    }
+
+    private BinaryFrame serve(final BinaryFrame request, final ByteArrayOutputStream payload) {
+        BinaryFrame response;
+        try {
+            final int status = route.serve(request.getCode(), request.input(), new DataOutputStream(payload));
+            response = new BinaryFrame(request.getId(), status, payload.toByteArray());
+        } catch (EOFException ex) {
+            response = error(request, BAD_REQUEST.getStatusCode(), "Truncated message");
+        } catch (IOException | RuntimeException ex) {
+            final Response mapped = exceptionMapper.toResponse(ex);
+            response = error(request, mapped.getStatus(), String.valueOf(mapped.getEntity()));
+        }
+        return response;
+    }
+
+    private static BinaryFrame error(final BinaryFrame request, final int status, final String message) {
+        return new BinaryFrame(request.getId(), status, message.getBytes(UTF_8));
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Length-prefixed binary protocol over a Grizzly TCP transport, with the pipelined requests completed out of order.
+ */
+package com.github.edwgiz.sample.bank.core.webapp.binary;
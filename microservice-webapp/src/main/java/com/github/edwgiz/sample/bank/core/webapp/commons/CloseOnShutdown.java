@@ -0,0 +1,44 @@
+package com.github.edwgiz.sample.bank.core.webapp.commons;
+
+import org.glassfish.jersey.server.spi.Container;
+import org.glassfish.jersey.server.spi.ContainerLifecycleListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Closes the resources of a jax-rs application, like the background writers, in order on its shutdown.
+ */
+public final class CloseOnShutdown implements ContainerLifecycleListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(CloseOnShutdown.class);
+
+    private final AutoCloseable[] resources;
+
+    /**
+     * @param values resources to close.
+     */
+    public CloseOnShutdown(final AutoCloseable... values) {
+        this.resources = values.clone();
+    }
+
+    @Override
+    public void onStartup(final Container container) {
+        // nothing to start
+    }
+
+    @Override
+    public void onReload(final Container container) {
+        // the same resources go on
+    }
+
+    @Override
+    public void onShutdown(final Container container) {
+        for (final AutoCloseable resource : resources) {
+            try {
+                resource.close();
+            } catch (Exception ex) {
+                LOG.error("Close on shutdown", ex);
+            }
+        }
+    }
+}
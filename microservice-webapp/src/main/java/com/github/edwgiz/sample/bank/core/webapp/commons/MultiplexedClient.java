@@ -0,0 +1,122 @@
+package com.github.edwgiz.sample.bank.core.webapp.commons;
+
+import org.glassfish.grizzly.Connection;
+import org.glassfish.grizzly.filterchain.BaseFilter;
+import org.glassfish.grizzly.filterchain.Filter;
+import org.glassfish.grizzly.filterchain.FilterChainContext;
+import org.glassfish.grizzly.filterchain.NextAction;
+import org.glassfish.grizzly.nio.transport.TCPNIOTransport;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Client of one connection, sending any number of requests without waiting for the responses, which complete the
+ * futures of their requests in the order the server sends them.
+ * <p>
+ * The futures are completed by the selector thread, so their dependent actions must not block. The pending ones fail
+ * when the connection is closed.
+ *
+ * @param <K> type of the key a response is matched with its request by.
+ * @param <M> type of the messages decoded by the filters of the protocol.
+ * @param <F> type of the response futures.
+ */
+public abstract class MultiplexedClient<K, M, F extends CompletableFuture<?>> implements Closeable {
+
+    private final ConcurrentMap<K, F> pending = new ConcurrentHashMap<>();
+    private TCPNIOTransport transport;
+    private Connection<?> connection;
+
+    /**
+     * @param host    host of the server.
+     * @param port    port of the server.
+     * @param filters filters of the protocol, encoding the requests and decoding the messages.
+     * @throws IOException if it can't connect.
+     */
+    protected final void open(final String host, final int port, final Filter... filters) throws IOException {
+        final Filter[] chain = Arrays.copyOf(filters, filters.length + 1);
+        chain[filters.length] = new ResponseFilter();
+        transport = TransportUtils.clientTransport(chain);
+        connection = TransportUtils.connect(transport, host, port);
+    }
+
+    /**
+     * @param key     key of the request.
+     * @param future  future of the response.
+     * @param request request to write.
+     * @return the future.
+     */
+    protected final F send(final K key, final F future, final Object request) {
+        pending.put(key, future);
+        connection.write(request);
+        return future;
+    }
+
+    /**
+     * @param key key of the request.
+     * @return future of the response, or {@code null} if it's completed or failed already.
+     */
+    protected final F pendingOf(final K key) {
+        return pending.get(key);
+    }
+
+    /**
+     * @param key key of the request.
+     * @return future of the response to complete, or {@code null} if it's completed or failed already.
+     */
+    protected final F complete(final K key) {
+        return pending.remove(key);
+    }
+
+    /**
+     * Called by the selector thread for every message decoded by the filters of the protocol.
+     *
+     * @param message the message.
+     */
+    protected abstract void onMessage(M message);
+
+    /**
+     * @return number of the requests waiting for their responses.
+     */
+    public final int getPending() {
+        return pending.size();
+    }
+
+    @Override
+    public final void close() throws IOException {
+        transport.shutdownNow();
+        failPending();
+    }
+
+    private void failPending() {
+        for (final K key : pending.keySet()) {
+            final F future = pending.remove(key);
+            if (future != null) {
+                future.completeExceptionally(new IOException("Connection is closed"));
+            }
+        }
+    }
+
+    /**
+     * Passes the messages to the client and fails the pending requests on close.
+     */
+    private final class ResponseFilter extends BaseFilter {
+
+        @Override
+        public NextAction handleRead(final FilterChainContext ctx) {
+            final M message = ctx.getMessage();
+            onMessage(message);
+            return ctx.getStopAction();
+        }
+
+        @Override
+        public NextAction handleClose(final FilterChainContext ctx) {
+            failPending();
+            return ctx.getInvokeAction();
+        }
+    }
+}
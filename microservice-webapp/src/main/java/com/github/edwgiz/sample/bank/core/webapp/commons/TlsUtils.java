@@ -0,0 +1,59 @@
+package com.github.edwgiz.sample.bank.core.webapp.commons;
+
+import org.glassfish.grizzly.http.server.NetworkListener;
+import org.glassfish.grizzly.ssl.SSLContextConfigurator;
+import org.glassfish.grizzly.ssl.SSLEngineConfigurator;
+
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLSessionContext;
+
+public final class TlsUtils {
+
+    /**
+     * Creates the context of a server, its sessions are cached for the resumption by the session id or by the
+     * pre-shared key of TLS 1.3.
+     *
+     * @param keystore              path of the JKS keystore with the key of the server.
+     * @param password              password of the keystore and the key.
+     * @param sessionCacheSize      maximum number of the cached sessions, {@code 0} is no limit.
+     * @param sessionTimeoutSeconds lifetime of a cached session, {@code 0} is no limit.
+     * @return the context.
+     * @throws org.glassfish.grizzly.ssl.SSLContextConfigurator.GenericStoreException if the keystore can't be read.
+     */
+    public static SSLContext serverContext(final String keystore, final String password, final int sessionCacheSize,
+            final int sessionTimeoutSeconds) {
+        final SSLContextConfigurator configurator = new SSLContextConfigurator();
+        configurator.setKeyStoreFile(keystore);
+        configurator.setKeyStorePass(password);
+        configurator.setKeyPass(password);
+        final SSLContext result = configurator.createSSLContext(true);
+        final SSLSessionContext sessions = result.getServerSessionContext();
+        sessions.setSessionCacheSize(sessionCacheSize);
+        sessions.setSessionTimeout(sessionTimeoutSeconds);
+        return result;
+    }
+
+    /**
+     * @param name         name of the listener.
+     * @param host         host to listen on.
+     * @param port         port to listen on.
+     * @param context      context of the server.
+     * @param protocols    enabled protocols, or {@code null} for the defaults of the JDK, the unsupported are ignored.
+     * @param cipherSuites enabled cipher suites, or {@code null} for the defaults of the JDK, the unsupported are
+     *                     ignored.
+     * @return the secure listener, not added to a server yet.
+     */
+    public static NetworkListener listener(final String name, final String host, final int port,
+            final SSLContext context, final String[] protocols, final String[] cipherSuites) {
+        final SSLEngineConfigurator engines = new SSLEngineConfigurator(context, false, false, false);
+        engines.setEnabledProtocols(protocols);
+        engines.setEnabledCipherSuites(cipherSuites);
+        final NetworkListener result = new NetworkListener(name, host, port);
+        result.setSecure(true);
+        result.setSSLEngineConfig(engines);
+        return result;
+    }
+
+    private TlsUtils() {
+    }
+}
@@ -0,0 +1,78 @@
+package com.github.edwgiz.sample.bank.core.webapp.commons;
+
+import org.glassfish.grizzly.Connection;
+import org.glassfish.grizzly.filterchain.Filter;
+import org.glassfish.grizzly.filterchain.FilterChainBuilder;
+import org.glassfish.grizzly.filterchain.TransportFilter;
+import org.glassfish.grizzly.nio.transport.TCPNIOTransport;
+import org.glassfish.grizzly.nio.transport.TCPNIOTransportBuilder;
+import org.glassfish.grizzly.strategies.SameThreadIOStrategy;
+
+import java.io.IOException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+public final class TransportUtils {
+
+    private static final long CONNECT_TIMEOUT_MILLIS = 10_000L;
+
+    /**
+     * @param filters filters of the client after the transport filter.
+     * @return transport of a single connection, its events are handled by the selector thread.
+     */
+    public static TCPNIOTransport clientTransport(final Filter... filters) {
+        final FilterChainBuilder chain = FilterChainBuilder.stateless().add(new TransportFilter());
+        for (final Filter filter : filters) {
+            chain.add(filter);
+        }
+        return TCPNIOTransportBuilder.newInstance()
+                .setIOStrategy(SameThreadIOStrategy.getInstance())
+                .setSelectorRunnersCount(1)
+                .setProcessor(chain.build())
+                .build();
+    }
+
+    /**
+     * Starts the client transport and connects it.
+     *
+     * @param transport client transport.
+     * @param host      host of the server.
+     * @param port      port of the server.
+     * @return the connection, its filter chain has handled the connect event.
+     * @throws IOException if it can't connect in 10 seconds, the transport is shut down then.
+     */
+    public static Connection<?> connect(final TCPNIOTransport transport, final String host, final int port)
+            throws IOException {
+        transport.start();
+        try {
+            return await(transport.connect(host, port), host + ':' + port);
+        } catch (IOException ex) {
+            transport.shutdownNow();
+            throw ex;
+        }
+    }
+
+    /**
+     * @param future  future of the connection.
+     * @param address address of the server.
+     * @return the connection.
+     * @throws IOException if it can't connect.
+     */
+    /* default */static Connection<?> await(final Future<Connection> future, final String address)
+            throws IOException {
+        try {
+            return future.get(CONNECT_TIMEOUT_MILLIS, MILLISECONDS);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while connecting to " + address, ex);
+        } catch (ExecutionException | TimeoutException ex) {
+            throw new IOException("Can't connect to " + address, ex);
+        }
+    }
+
+    private TransportUtils() {
+    }
+}
@@ -13,6 +13,10 @@ public final class ResponseUtils {
      * @see javax.ws.rs.core.Response.Status#NO_CONTENT
      */
     public static final String NO_CONTENT_CODE = "204";
+    /**
+     * @see javax.ws.rs.core.Response.Status#SEE_OTHER
+     */
+    public static final String SEE_OTHER_CODE = "303";
     /**
      * @see javax.ws.rs.core.Response.Status#NOT_MODIFIED
      */
@@ -21,6 +25,10 @@ public final class ResponseUtils {
      * @see javax.ws.rs.core.Response.Status#BAD_REQUEST
      */
     public static final String BAD_REQUEST_CODE = "400";
+    /**
+     * @see javax.ws.rs.core.Response.Status#NOT_FOUND
+     */
+    public static final String NOT_FOUND_CODE = "404";
     /**
      * @see javax.ws.rs.core.Response.Status#CONFLICT
      */
@@ -0,0 +1,138 @@
+package com.github.edwgiz.sample.bank.core.webapp.http2;
+
+import com.github.edwgiz.sample.bank.core.webapp.commons.MultiplexedClient;
+import org.glassfish.grizzly.Buffer;
+import org.glassfish.grizzly.http.HttpClientFilter;
+import org.glassfish.grizzly.http.HttpContent;
+import org.glassfish.grizzly.http.HttpRequestPacket;
+import org.glassfish.grizzly.http.HttpResponsePacket;
+import org.glassfish.grizzly.http.Protocol;
+import org.glassfish.grizzly.http2.Http2ClientFilter;
+import org.glassfish.grizzly.http2.Http2Configuration;
+import org.glassfish.grizzly.memory.Buffers;
+import org.glassfish.grizzly.memory.MemoryManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Client of the cleartext HTTP/2 with the prior knowledge, sending every request as a new stream of one connection
+ * without waiting for the responses of the others.
+ */
+public final class Http2Client extends MultiplexedClient<HttpRequestPacket, HttpContent, Http2Client.Exchange> {
+
+    private final String authority;
+
+    private Http2Client(final String host, final int port) {
+        super();
+        this.authority = host + ':' + port;
+    }
+
+    /**
+     * @param host host of the server.
+     * @param port http port of the server.
+     * @return the connected client, the connection preface is sent.
+     * @throws IOException if it can't connect.
+     */
+    public static Http2Client connect(final String host, final int port) throws IOException {
+        final Http2Client client = new Http2Client(host, port);
+        client.open(host, port, new HttpClientFilter(),
+                new Http2ClientFilter(Http2Configuration.builder().priorKnowledge(true).build()));
+        return client;
+    }
+
+    /**
+     * @param method      http method.
+     * @param path        path with the query of the request.
+     * @param contentType content type of the body or {@code null} if there is no body.
+     * @param body        body of the request or {@code null}.
+     * @return future of the response.
+     */
+    public CompletableFuture<Response> send(final String method, final String path, final String contentType,
+            final byte[] body) {
+        final HttpRequestPacket.Builder builder = HttpRequestPacket.builder()
+                .method(method)
+                .uri(path)
+                .protocol(Protocol.HTTP_1_1)
+                .host(authority);
+        if (body != null) {
+            builder.contentType(contentType).contentLength(body.length);
+        }
+        final HttpRequestPacket request = builder.build();
+        return send(request, new Exchange(), HttpContent.builder(request)
+                .content(body == null ? Buffers.EMPTY_BUFFER : Buffers.wrap(MemoryManager.DEFAULT_MEMORY_MANAGER, body))
+                .last(true)
+                .build());
+    }
+
+    @Override
+    protected void onMessage(final HttpContent content) {
+        final HttpResponsePacket response = (HttpResponsePacket) content.getHttpHeader();
+        final HttpRequestPacket request = response.getRequest();
+        final Exchange exchange = pendingOf(request);
+        if (exchange != null) {
+            final Buffer buffer = content.getContent();
+            final byte[] bytes = new byte[buffer.remaining()];
+            buffer.get(bytes);
+            exchange.body.write(bytes, 0, bytes.length);
+            if (content.isLast() && complete(request) != null) {
+                exchange.complete(new Response(response.getStatus(), response.getProtocolString(),
+                        exchange.body.toByteArray()));
+            }
+        }
+    }
+
+    /**
+     * Response of a stream.
+     */
+    public static final class Response {
+
+        private final int status;
+        private final String protocol;
+        private final byte[] body;
+
+        private Response(final int code, final String version, final byte[] content) {
+            this.status = code;
+            this.protocol = version;
+            this.body = content;
+        }
+
+        /**
+         * @return status code.
+         */
+        public int getStatus() {
+            return status;
+        }
+
+        /**
+         * @return protocol of the response, {@code HTTP/2.0} unless the server doesn't support it.
+         */
+        public String getProtocol() {
+            return protocol;
+        }
+
+        /**
+         * @return body of the response, empty if there is none.
+         */
+        public byte[] getBody() {
+            return body.clone();
+        }
+
+        /**
+         * @return body of the response as an utf-8 string.
+         */
+        public String getBodyString() {
+            return new String(body, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Future of a response, accumulating its body from the data frames.
+     */
+    /* default */static final class Exchange extends CompletableFuture<Response> {
+
+        private final ByteArrayOutputStream body = new ByteArrayOutputStream();
+    }
+}
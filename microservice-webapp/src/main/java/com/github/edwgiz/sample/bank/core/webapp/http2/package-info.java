@@ -0,0 +1,4 @@
+/**
+ * HTTP/2 client over a Grizzly TCP transport, multiplexing the requests as the streams of one connection.
+ */
+package com.github.edwgiz.sample.bank.core.webapp.http2;
@@ -0,0 +1,167 @@
+package com.github.edwgiz.sample.bank.core.webapp.metrics;
+
+import com.github.edwgiz.sample.bank.core.accesslog.AccessLog;
+import com.github.edwgiz.sample.bank.core.tracing.TraceSpan;
+import com.github.edwgiz.sample.bank.core.tracing.Tracer;
+import org.glassfish.jersey.server.ExtendedUriInfo;
+import org.glassfish.jersey.server.model.ResourceMethod;
+import org.glassfish.jersey.uri.UriTemplate;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.PreMatching;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import static java.lang.System.nanoTime;
+
+/**
+ * Records the requests to {@link AccessLog}: the method, the path template of the resource method, like
+ * {@code /payment/{id}}, or the path of an unmatched request, the status, the size of the response body, the
+ * duration including the body writing, and the trace id of {@link TracingFilter}.
+ * <p>
+ * An entry is kept per thread and reused, the path templates are cached per resource method, so a request is
+ * recorded without allocations. Registered with {@link #PRIORITY}, its response filter runs before the one of
+ * {@link TracingFilter} ends the span. The responses completed on another thread than the request, like the
+ * asynchronous ones, aren't logged.
+ */
+@PreMatching
+public final class AccessLogFilter implements ContainerRequestFilter, ContainerResponseFilter, WriterInterceptor {
+
+    /**
+     * Priority to register the filter with.
+     */
+    public static final int PRIORITY = TracingFilter.PRIORITY + 1;
+    private static final String ENTRY_PROPERTY = AccessLogFilter.class.getName() + ".entry";
+    private static final ThreadLocal<Entry> ENTRIES = ThreadLocal.withInitial(Entry::new);
+
+    private final AccessLog accessLog;
+    private final ConcurrentMap<ResourceMethod, String> paths;
+
+    /**
+     * @param value access log to record to, nothing is done if it's disabled.
+     */
+    public AccessLogFilter(final AccessLog value) {
+        this.accessLog = value;
+        this.paths = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public void filter(final ContainerRequestContext request) {
+        if (accessLog.isEnabled()) {
+            final Entry entry = ENTRIES.get();
+            entry.begin(request.getMethod());
+            request.setProperty(ENTRY_PROPERTY, entry);
+        }
+    }
+
+    @Override
+    public void filter(final ContainerRequestContext request, final ContainerResponseContext response) {
+        final Entry entry = (Entry) request.getProperty(ENTRY_PROPERTY);
+        if (entry != null && entry.isOwned()) { // aborted by a preceding filter, or completed asynchronously otherwise
+            entry.respond(path((ExtendedUriInfo) request.getUriInfo()), response.getStatus(), Tracer.current());
+            if (!ServerTimingFilter.isWritten(response)) {
+                request.removeProperty(ENTRY_PROPERTY);
+                entry.record(accessLog);
+            }
+        }
+    }
+
+    @Override
+    public void aroundWriteTo(final WriterInterceptorContext context) throws IOException {
+        final Entry entry = (Entry) context.getProperty(ENTRY_PROPERTY);
+        if (entry == null || !entry.isOwned()) {
+            context.proceed();
+        } else {
+            context.removeProperty(ENTRY_PROPERTY);
+            final OutputStream out = context.getOutputStream();
+            context.setOutputStream(entry.getBody().wrap(out));
+            try {
+                context.proceed();
+            } finally {
+                context.setOutputStream(out);
+                entry.record(accessLog);
+            }
+        }
+    }
+
+    private String path(final ExtendedUriInfo uriInfo) {
+        final ResourceMethod method = uriInfo.getMatchedResourceMethod();
+        String result = method == null ? uriInfo.getRequestUri().getRawPath() : paths.get(method);
+        if (result == null) { // the same template for all the requests of a resource method
+            result = template(uriInfo.getMatchedTemplates());
+            paths.putIfAbsent(method, result);
+        }
+        return result;
+    }
+
+    /**
+     * @param templates the matched templates, the innermost first.
+     * @return the path template.
+     */
+    private static String template(final List<UriTemplate> templates) {
+        final StringBuilder result = new StringBuilder();
+        for (int i = templates.size() - 1; i >= 0; i--) {
+            result.append(templates.get(i).getTemplate()); // normalized with a leading slash
+        }
+        return result.toString();
+    }
+
+    /**
+     * Request being logged, reused for the next request of its thread.
+     */
+    private static final class Entry {
+
+        private final Thread owner;
+        private final CountingOutputStream body;
+        private String method;
+        private String path;
+        private int status;
+        private long start;
+        private long traceIdHigh;
+        private long traceIdLow;
+
+        /* default */Entry() {
+            this.owner = Thread.currentThread();
+            this.body = new CountingOutputStream();
+        }
+
+        /* default */boolean isOwned() {
+            return owner == Thread.currentThread();
+        }
+
+        /* default */CountingOutputStream getBody() {
+            return body;
+        }
+
+        /* default */void begin(final String httpMethod) {
+            method = httpMethod;
+            start = nanoTime();
+            body.wrap(null);
+        }
+
+        /* default */void respond(final String pathTemplate, final int httpStatus, final TraceSpan span) {
+            path = pathTemplate;
+            status = httpStatus;
+            if (span == null) {
+                traceIdHigh = 0L;
+                traceIdLow = 0L;
+            } else {
+                traceIdHigh = span.getTraceIdHigh();
+                traceIdLow = span.getTraceIdLow();
+            }
+        }
+
+        /* default */void record(final AccessLog accessLog) {
+            accessLog.record(method, path, status, body.getCount(), nanoTime() - start, traceIdHigh, traceIdLow);
+            body.wrap(null);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.github.edwgiz.sample.bank.core.webapp.metrics;
+
+import com.github.edwgiz.sample.bank.core.metrics.Counter;
+import com.github.edwgiz.sample.bank.core.metrics.Metrics;
+import org.glassfish.grizzly.Connection;
+import org.glassfish.grizzly.ConnectionProbe;
+import org.glassfish.grizzly.nio.transport.TCPNIOServerConnection;
+
+/**
+ * Counts the connections accepted and closed by the Grizzly transports it's added to.
+ */
+public final class ConnectionMetrics extends ConnectionProbe.Adapter {
+
+    private final Counter accepted;
+    private final Counter closed;
+
+    /**
+     * @param metrics registry to add the metrics to.
+     */
+    public ConnectionMetrics(final Metrics metrics) {
+        super();
+        this.accepted = metrics.counter("grizzly_connections_accepted_total", "Number of the accepted connections.",
+                "");
+        this.closed = metrics.counter("grizzly_connections_closed_total", "Number of the closed connections.", "");
+        metrics.gauge("grizzly_connections_open", "Number of the open connections.", "",
+                () -> accepted.get() - closed.get());
+    }
+
+    @Override
+    public void onAcceptEvent(final Connection serverConnection, final Connection clientConnection) {
+        accepted.increment();
+    }
+
+    @Override
+    public void onCloseEvent(final Connection connection) {
+        if (!(connection instanceof TCPNIOServerConnection)) { // the listening one isn't accepted
+            closed.increment();
+        }
+    }
+}
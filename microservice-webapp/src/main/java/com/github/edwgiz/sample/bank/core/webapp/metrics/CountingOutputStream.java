@@ -0,0 +1,43 @@
+package com.github.edwgiz.sample.bank.core.webapp.metrics;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Counts the bytes written to the wrapped stream, reusable for the next stream.
+ */
+/* default */final class CountingOutputStream extends FilterOutputStream {
+
+    private long count;
+
+    /* default */CountingOutputStream() {
+        super(null);
+    }
+
+    /**
+     * @param target stream to write to, the count is reset.
+     * @return this stream.
+     */
+    /* default */CountingOutputStream wrap(final OutputStream target) {
+        out = target;
+        count = 0L;
+        return this;
+    }
+
+    /* default */long getCount() {
+        return count;
+    }
+
+    @Override
+    public void write(final int value) throws IOException {
+        out.write(value);
+        count++;
+    }
+
+    @Override
+    public void write(final byte[] bytes, final int offset, final int length) throws IOException {
+        out.write(bytes, offset, length);
+        count += length;
+    }
+}
@@ -0,0 +1,118 @@
+package com.github.edwgiz.sample.bank.core.webapp.metrics;
+
+import com.github.edwgiz.sample.bank.core.jfr.FlightRecording;
+
+import javax.inject.Singleton;
+import javax.ws.rs.DELETE;
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.PUT;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+
+import static com.github.edwgiz.sample.bank.core.webapp.commons.ValidationUtils.exception;
+import static javax.ws.rs.core.MediaType.APPLICATION_OCTET_STREAM;
+import static javax.ws.rs.core.MediaType.TEXT_PLAIN;
+import static javax.ws.rs.core.MediaType.TEXT_PLAIN_TYPE;
+import static javax.ws.rs.core.Response.Status.CONFLICT;
+import static javax.ws.rs.core.Response.Status.NOT_FOUND;
+import static javax.ws.rs.core.Response.Status.NOT_IMPLEMENTED;
+
+/**
+ * Starts a bounded flight recording on demand and returns its file, to profile a running application without an
+ * attached profiler. One recording at a time, kept until it's collected.
+ */
+@Path("admin/jfr")
+@Singleton
+public final class FlightRecordingEndpoint {
+
+    private static final long MAX_SECONDS = 3600L;
+    private static final long MAX_MEGABYTES = 1024L;
+    private static final long BYTES_PER_MEGABYTE = 1024L * 1024L;
+
+    private final boolean available;
+    /**
+     * Started and not collected recording, guarded by this.
+     */
+    private FlightRecording recording;
+
+    /**
+     * Endpoint of the current runtime.
+     */
+    public FlightRecordingEndpoint() {
+        this(FlightRecording.isAvailable());
+    }
+
+    /* default */FlightRecordingEndpoint(final boolean flightRecorder) {
+        this.available = flightRecorder;
+    }
+
+    /**
+     * @param settings  name of the predefined settings, {@code default} or the more detailed {@code profile}.
+     * @param seconds   duration to stop the recording after, up to {@value #MAX_SECONDS}.
+     * @param megabytes maximum size of the recording, the oldest data are discarded above it, up to
+     *                  {@value #MAX_MEGABYTES}.
+     * @return description of the started recording.
+     */
+    @PUT
+    @Produces(TEXT_PLAIN)
+    public synchronized Response start(@QueryParam("settings") @DefaultValue("default") final String settings,
+            @QueryParam("seconds") @DefaultValue("600") final long seconds,
+            @QueryParam("megabytes") @DefaultValue("100") final long megabytes) {
+        if (!available) {
+            throw exception(NOT_IMPLEMENTED, "No flight recorder in the runtime");
+        }
+        if (recording != null) {
+            throw exception(CONFLICT, "A recording is already started, collect it first");
+        }
+        if (seconds < 1L || seconds > MAX_SECONDS) {
+            throw exception("'seconds' must be within 1.." + MAX_SECONDS);
+        }
+        if (megabytes < 1L || megabytes > MAX_MEGABYTES) {
+            throw exception("'megabytes' must be within 1.." + MAX_MEGABYTES);
+        }
+        try {
+            recording = FlightRecording.start("admin", settings, Duration.ofSeconds(seconds),
+                    megabytes * BYTES_PER_MEGABYTE);
+        } catch (IllegalArgumentException ex) {
+            throw exception(ex.getMessage());
+        }
+        return Response.ok("Recording with '" + settings + "' settings for " + seconds + " s", TEXT_PLAIN_TYPE)
+                .build();
+    }
+
+    /**
+     * Stops the recording, if it's still running, and returns it.
+     *
+     * @return the recording file.
+     * @throws IOException if the recording can't be written to a temporary file.
+     */
+    @DELETE
+    @Produces(APPLICATION_OCTET_STREAM)
+    public synchronized Response collect() throws IOException {
+        if (recording == null) {
+            throw exception(NOT_FOUND, "No recording started");
+        }
+        final java.nio.file.Path file = Files.createTempFile("recording", ".jfr");
+        try {
+            recording.dumpAndClose(file);
+        } finally {
+            recording = null;
+        }
+        final StreamingOutput output = out -> {
+            try {
+                Files.copy(file, out);
+            } finally {
+                Files.delete(file);
+            }
+        };
+        return Response.ok(output, APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"recording.jfr\"").build();
+    }
+}
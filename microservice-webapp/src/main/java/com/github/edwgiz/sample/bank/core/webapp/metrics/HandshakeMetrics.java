@@ -0,0 +1,90 @@
+package com.github.edwgiz.sample.bank.core.webapp.metrics;
+
+import com.github.edwgiz.sample.bank.core.metrics.Counter;
+import com.github.edwgiz.sample.bank.core.metrics.Metrics;
+import com.github.edwgiz.sample.bank.core.metrics.Timer;
+import org.glassfish.grizzly.Connection;
+import org.glassfish.grizzly.Grizzly;
+import org.glassfish.grizzly.attributes.Attribute;
+import org.glassfish.grizzly.filterchain.FilterChainBuilder;
+import org.glassfish.grizzly.http.server.AddOn;
+import org.glassfish.grizzly.http.server.NetworkListener;
+import org.glassfish.grizzly.ssl.SSLBaseFilter;
+import org.glassfish.grizzly.ssl.SSLUtils;
+
+/**
+ * Counts and times the TLS handshakes of the secure listeners it's registered on. A handshake is resumed when its
+ * session is created before the handshake has started, i.e. it's taken from the session cache or a ticket.
+ */
+public final class HandshakeMetrics implements AddOn, SSLBaseFilter.HandshakeListener {
+
+    private static final Attribute<Start> START = Grizzly.DEFAULT_ATTRIBUTE_BUILDER.createAttribute(
+            HandshakeMetrics.class.getName() + ".start");
+
+    private final Counter full;
+    private final Counter resumed;
+    private final Counter failed;
+    private final Timer fullDuration;
+    private final Timer resumedDuration;
+
+    /**
+     * @param metrics registry to add the metrics to.
+     */
+    public HandshakeMetrics(final Metrics metrics) {
+        super();
+        final String fullLabels = Metrics.labels("resumed", "false");
+        final String resumedLabels = Metrics.labels("resumed", "true");
+        this.full = metrics.counter("tls_handshakes_total", "Number of the completed TLS handshakes.", fullLabels);
+        this.resumed = metrics.counter("tls_handshakes_total", "Number of the completed TLS handshakes.",
+                resumedLabels);
+        this.failed = metrics.counter("tls_handshake_failures_total", "Number of the failed TLS handshakes.", "");
+        this.fullDuration = metrics.timer("tls_handshake_duration_seconds", "Duration of the TLS handshakes.",
+                fullLabels);
+        this.resumedDuration = metrics.timer("tls_handshake_duration_seconds", "Duration of the TLS handshakes.",
+                resumedLabels);
+        metrics.gauge("tls_resumption_ratio", "Share of the resumed TLS handshakes.", "", () -> {
+            final long total = full.get() + resumed.get();
+            return total == 0 ? 0 : (double) resumed.get() / total;
+        });
+    }
+
+    @Override
+    public void setup(final NetworkListener networkListener, final FilterChainBuilder builder) {
+        ((SSLBaseFilter) builder.get(builder.indexOfType(SSLBaseFilter.class))).addHandshakeListener(this);
+    }
+
+    @Override
+    public void onStart(final Connection connection) {
+        START.set(connection, new Start());
+    }
+
+    @Override
+    public void onComplete(final Connection connection) {
+        final Start start = START.remove(connection);
+        if (start != null) {
+            final long nanos = System.nanoTime() - start.nanos;
+            if (SSLUtils.getSSLEngine(connection).getSession().getCreationTime() < start.millis) {
+                resumed.increment();
+                resumedDuration.record(nanos);
+            } else {
+                full.increment();
+                fullDuration.record(nanos);
+            }
+        }
+    }
+
+    @Override
+    public void onFailure(final Connection connection, final Throwable failure) {
+        START.remove(connection);
+        failed.increment();
+    }
+
+    /**
+     * Start of a handshake.
+     */
+    private static final class Start {
+
+        private final long nanos = System.nanoTime();
+        private final long millis = System.currentTimeMillis();
+    }
+}
@@ -0,0 +1,34 @@
+package com.github.edwgiz.sample.bank.core.webapp.metrics;
+
+import com.github.edwgiz.sample.bank.core.metrics.Metrics;
+
+import javax.inject.Inject;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+
+/**
+ * Exposes the application metrics to Prometheus.
+ */
+@Path("metrics")
+public final class MetricsEndpoint {
+
+    private final Metrics metrics;
+
+    /**
+     * @param registry registry of the application metrics.
+     */
+    @Inject
+    public MetricsEndpoint(final Metrics registry) {
+        this.metrics = registry;
+    }
+
+    /**
+     * @return all the metrics in the Prometheus text format.
+     */
+    @GET
+    @Produces(Metrics.CONTENT_TYPE)
+    public String scrape() {
+        return metrics.scrape();
+    }
+}
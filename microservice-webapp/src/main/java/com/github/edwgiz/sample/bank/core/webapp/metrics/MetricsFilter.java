@@ -0,0 +1,133 @@
+package com.github.edwgiz.sample.bank.core.webapp.metrics;
+
+import com.github.edwgiz.sample.bank.core.metrics.Metrics;
+import org.glassfish.jersey.server.ExtendedUriInfo;
+import org.glassfish.jersey.server.model.Invocable;
+import org.glassfish.jersey.server.model.ResourceMethod;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.PreMatching;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongUnaryOperator;
+
+import static java.lang.System.nanoTime;
+
+/**
+ * Records the latency, the allocated bytes and the response status of the requests per resource method, like
+ * {@code PaymentEndpoint.create}. The unmatched requests are recorded as {@link #UNMATCHED}.
+ * <p>
+ * The allocated bytes are the delta of {@link com.sun.management.ThreadMXBean#getThreadAllocatedBytes(long)} of the
+ * request thread, they aren't recorded if the JVM doesn't support it or the response is filtered on another thread,
+ * like for an asynchronous resource method.
+ * <p>
+ * Registered with {@link #PRIORITY}, it runs before all the other request filters and after all the other response
+ * filters, the response body writing isn't included. The recording is lock-free, the metrics of a resource method
+ * are looked up without a lock once registered.
+ */
+@PreMatching
+public final class MetricsFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    /**
+     * Resource of the requests not matched to any resource method.
+     */
+    public static final String UNMATCHED = "unmatched";
+    /**
+     * Priority to register the filter with.
+     */
+    public static final int PRIORITY = 1;
+    private static final String START_PROPERTY = MetricsFilter.class.getName() + ".start";
+    private static final String THREAD_PROPERTY = MetricsFilter.class.getName() + ".thread";
+    private static final String ALLOCATED_PROPERTY = MetricsFilter.class.getName() + ".allocated";
+    private static final LongUnaryOperator UNSUPPORTED = threadId -> -1L;
+
+    private final Metrics metrics;
+    private final LongUnaryOperator allocatedBytes;
+    private final ConcurrentMap<ResourceMethod, RequestMetrics> resources;
+    private final RequestMetrics unmatched;
+
+    /**
+     * @param registry registry to add the metrics to.
+     */
+    public MetricsFilter(final Metrics registry) {
+        this(registry, threadAllocatedBytes());
+    }
+
+    /**
+     * @param registry    registry to add the metrics to.
+     * @param allocations bytes allocated by a thread by its identifier, or a negative value if unknown.
+     */
+    /* default */MetricsFilter(final Metrics registry, final LongUnaryOperator allocations) {
+        this.metrics = registry;
+        this.allocatedBytes = allocations;
+        this.resources = new ConcurrentHashMap<>();
+        this.unmatched = new RequestMetrics(registry, UNMATCHED);
+    }
+
+    @Override
+    public void filter(final ContainerRequestContext request) {
+        final Thread thread = Thread.currentThread();
+        request.setProperty(THREAD_PROPERTY, thread);
+        request.setProperty(ALLOCATED_PROPERTY, allocatedBytes.applyAsLong(thread.getId()));
+        request.setProperty(START_PROPERTY, nanoTime());
+    }
+
+    @Override
+    public void filter(final ContainerRequestContext request, final ContainerResponseContext response) {
+        final Object start = request.getProperty(START_PROPERTY);
+        if (start != null) { // the request was aborted by a preceding filter otherwise
+            final long nanos = nanoTime() - (Long) start;
+            final ResourceMethod method = ((ExtendedUriInfo) request.getUriInfo()).getMatchedResourceMethod();
+            requestMetrics(method).record(response.getStatus(), nanos, allocated(request));
+        }
+    }
+
+    private long allocated(final ContainerRequestContext request) {
+        long result = -1L;
+        final Thread thread = Thread.currentThread();
+        if (request.getProperty(THREAD_PROPERTY) == thread) {
+            final long start = (Long) request.getProperty(ALLOCATED_PROPERTY);
+            final long end = allocatedBytes.applyAsLong(thread.getId());
+            if (start >= 0L && end >= start) {
+                result = end - start;
+            }
+        }
+        return result;
+    }
+
+    /* default */RequestMetrics requestMetrics(final ResourceMethod method) {
+        RequestMetrics result;
+        if (method == null) {
+            result = unmatched;
+        } else {
+            // a plain read first, computeIfAbsent locks a bin even for a present key on java 8
+            result = resources.get(method);
+            if (result == null) {
+                result = resources.computeIfAbsent(method, key -> new RequestMetrics(metrics, name(key)));
+            }
+        }
+        return result;
+    }
+
+    private static LongUnaryOperator threadAllocatedBytes() {
+        final java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        LongUnaryOperator result = UNSUPPORTED;
+        if (threads instanceof com.sun.management.ThreadMXBean) {
+            final com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+            if (allocations.isThreadAllocatedMemorySupported() && allocations.isThreadAllocatedMemoryEnabled()) {
+                result = allocations::getThreadAllocatedBytes;
+            }
+        }
+        return result;
+    }
+
+    private static String name(final ResourceMethod method) {
+        final Invocable invocable = method.getInvocable();
+        return invocable.getHandler().getHandlerClass().getSimpleName() + '.'
+                + invocable.getDefinitionMethod().getName();
+    }
+}
@@ -0,0 +1,45 @@
+package com.github.edwgiz.sample.bank.core.webapp.metrics;
+
+import com.github.edwgiz.sample.bank.core.storage.QueryStatistics;
+import com.github.edwgiz.sample.bank.core.storage.StatementStats;
+
+import javax.inject.Inject;
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import java.util.List;
+
+import static com.github.edwgiz.sample.bank.core.webapp.commons.ValidationUtils.exception;
+import static javax.ws.rs.core.MediaType.APPLICATION_JSON;
+
+/**
+ * Exposes the SQL statements taking the most time since the start.
+ */
+@Path("admin/queries")
+public final class QueryStatisticsEndpoint {
+
+    private final QueryStatistics statistics;
+
+    /**
+     * @param queryStatistics aggregated durations of the statements.
+     */
+    @Inject
+    public QueryStatisticsEndpoint(final QueryStatistics queryStatistics) {
+        this.statistics = queryStatistics;
+    }
+
+    /**
+     * @param limit maximum number of the statements, up to {@value QueryStatistics#MAX_STATEMENTS}.
+     * @return the statements with the biggest total duration first.
+     */
+    @GET
+    @Produces(APPLICATION_JSON)
+    public List<StatementStats> top(@QueryParam("limit") @DefaultValue("20") final int limit) {
+        if (limit < 1 || limit > QueryStatistics.MAX_STATEMENTS) {
+            throw exception("'limit' must be within 1.." + QueryStatistics.MAX_STATEMENTS);
+        }
+        return statistics.top(limit);
+    }
+}
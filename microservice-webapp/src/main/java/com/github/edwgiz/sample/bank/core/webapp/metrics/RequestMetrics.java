@@ -0,0 +1,68 @@
+package com.github.edwgiz.sample.bank.core.webapp.metrics;
+
+import com.github.edwgiz.sample.bank.core.metrics.Counter;
+import com.github.edwgiz.sample.bank.core.metrics.Metrics;
+import com.github.edwgiz.sample.bank.core.metrics.Timer;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static com.github.edwgiz.sample.bank.core.metrics.Metrics.labels;
+
+/**
+ * Latency, allocated bytes and responses by status of one resource method, recorded by {@link MetricsFilter}, or
+ * by the fast path serving the resource method instead of jax-rs.
+ */
+public final class RequestMetrics {
+
+    private static final String DURATION = "http_request_duration_seconds";
+    private static final String RESPONSES = "http_responses_total";
+    private static final String RESOURCE_LABEL = "resource";
+    /**
+     * Jax-rs response statuses are within 100-599.
+     */
+    private static final int STATUSES = 600;
+
+    private final Metrics metrics;
+    private final String resource;
+    private final Timer latency;
+    private final Counter allocated;
+    private final AtomicReferenceArray<Counter> responses;
+
+    /**
+     * @param registry     registry to add the metrics to, the ones of the same resource are shared.
+     * @param resourceName resource method, like {@code PaymentEndpoint.create}.
+     */
+    public RequestMetrics(final Metrics registry, final String resourceName) {
+        this.metrics = registry;
+        this.resource = resourceName;
+        this.latency = registry.timer(DURATION, "Duration of the requests by the resource methods.",
+                labels(RESOURCE_LABEL, resourceName));
+        this.allocated = registry.counter("http_request_allocated_bytes_total",
+                "Bytes allocated by the request threads by the resource methods.",
+                labels(RESOURCE_LABEL, resourceName));
+        this.responses = new AtomicReferenceArray<>(STATUSES);
+    }
+
+    /* default */String getResource() {
+        return resource;
+    }
+
+    /**
+     * @param status         response status.
+     * @param nanos          duration of the request.
+     * @param allocatedBytes bytes allocated by the request thread, or a negative value if unknown.
+     */
+    public void record(final int status, final long nanos, final long allocatedBytes) {
+        latency.record(nanos);
+        if (allocatedBytes >= 0L) {
+            allocated.add(allocatedBytes);
+        }
+        Counter counter = responses.get(status);
+        if (counter == null) { // registered once per status, a race just returns the same counter
+            counter = metrics.counter(RESPONSES, "Number of the responses by the resource methods and statuses.",
+                    labels(RESOURCE_LABEL, resource, "status", Integer.toString(status)));
+            responses.set(status, counter);
+        }
+        counter.increment();
+    }
+}
@@ -0,0 +1,146 @@
+package com.github.edwgiz.sample.bank.core.webapp.metrics;
+
+import com.github.edwgiz.sample.bank.core.metrics.Counter;
+import com.github.edwgiz.sample.bank.core.metrics.Metrics;
+import com.github.edwgiz.sample.bank.core.metrics.ServerTiming;
+import com.github.edwgiz.sample.bank.core.metrics.ServerTiming.Phase;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.PreMatching;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.ext.ReaderInterceptor;
+import javax.ws.rs.ext.ReaderInterceptorContext;
+import javax.ws.rs.ext.WriterInterceptor;
+import javax.ws.rs.ext.WriterInterceptorContext;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static java.lang.System.nanoTime;
+
+/**
+ * Times the phases of the requests by {@link ServerTiming}, sends them as {@value ServerTiming#HEADER} header and
+ * logs the slow requests.
+ * <p>
+ * The request body reading and the response body writing are timed here, the other phases are recorded by the
+ * application and the storage. The header is added before the response body writing, the slow requests are logged
+ * after it, at most one per {@value #SLOW_LOG_INTERVAL_MILLIS} milliseconds, with the number of the skipped ones.
+ * Registered with {@link #PRIORITY}, it runs right after {@link MetricsFilter} and its interceptors are the outermost
+ * ones.
+ * <p>
+ * Optional system property {@value #SYSTEM_PROPERTY_SLOW_MILLIS} defines the duration of a slow request,
+ * {@value #DEFAULT_SLOW_MILLIS} milliseconds by default.
+ */
+@PreMatching
+public final class ServerTimingFilter implements ContainerRequestFilter, ContainerResponseFilter, ReaderInterceptor,
+        WriterInterceptor {
+
+    /**
+     * Priority to register the filter with.
+     */
+    public static final int PRIORITY = MetricsFilter.PRIORITY + 1;
+    /**
+     * Optional system property, duration of a slow request in milliseconds.
+     */
+    public static final String SYSTEM_PROPERTY_SLOW_MILLIS = "webserver.slow.request.millis";
+    private static final long DEFAULT_SLOW_MILLIS = 1000L;
+    private static final long SLOW_LOG_INTERVAL_MILLIS = 100L;
+    private static final long SLOW_LOG_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(SLOW_LOG_INTERVAL_MILLIS);
+
+    private static final Logger LOG = LoggerFactory.getLogger(ServerTimingFilter.class);
+    private static final String TIMING_PROPERTY = ServerTimingFilter.class.getName() + ".timing";
+
+    private final long slowNanos;
+    private final Counter slowRequests;
+    private final AtomicLong nextLogNanos;
+    private final AtomicLong skipped;
+
+    /**
+     * @param metrics registry to count the slow requests in.
+     */
+    public ServerTimingFilter(final Metrics metrics) {
+        this(metrics, Long.getLong(SYSTEM_PROPERTY_SLOW_MILLIS, DEFAULT_SLOW_MILLIS));
+    }
+
+    /* default */ServerTimingFilter(final Metrics metrics, final long slowMillis) {
+        this.slowNanos = TimeUnit.MILLISECONDS.toNanos(slowMillis);
+        this.slowRequests = metrics.counter("http_slow_requests_total",
+                "Number of the requests slower than " + slowMillis + " ms.", "");
+        this.nextLogNanos = new AtomicLong(nanoTime());
+        this.skipped = new AtomicLong();
+    }
+
+    @Override
+    public void filter(final ContainerRequestContext request) {
+        request.setProperty(TIMING_PROPERTY,
+                ServerTiming.begin(() -> request.getMethod() + ' ' + request.getUriInfo().getRequestUri()));
+    }
+
+    @Override
+    public Object aroundReadFrom(final ReaderInterceptorContext context) throws IOException {
+        final long start = ServerTiming.enter();
+        try {
+            return context.proceed();
+        } finally {
+            ServerTiming.exit(Phase.PARSE, start);
+        }
+    }
+
+    @Override
+    public void filter(final ContainerRequestContext request, final ContainerResponseContext response) {
+        final ServerTiming timing = (ServerTiming) request.getProperty(TIMING_PROPERTY);
+        if (timing != null) { // the request was aborted by a preceding filter otherwise
+            response.getHeaders().add(ServerTiming.HEADER, timing.toString());
+            if (!isWritten(response)) {
+                request.removeProperty(TIMING_PROPERTY);
+                complete(timing);
+            }
+        }
+    }
+
+    @Override
+    public void aroundWriteTo(final WriterInterceptorContext context) throws IOException {
+        final ServerTiming timing = (ServerTiming) context.getProperty(TIMING_PROPERTY);
+        if (timing == null) {
+            context.proceed();
+        } else {
+            context.removeProperty(TIMING_PROPERTY);
+            final long start = nanoTime();
+            try {
+                context.proceed();
+            } finally {
+                timing.add(Phase.SERIALIZE, nanoTime() - start);
+                complete(timing);
+            }
+        }
+    }
+
+    /**
+     * @param response filtered response.
+     * @return whether the writer interceptors complete the response, there is nothing to write otherwise, or the
+     * events are written as long as the client listens.
+     */
+    /* default */static boolean isWritten(final ContainerResponseContext response) {
+        return response.hasEntity() && !MediaType.SERVER_SENT_EVENTS_TYPE.isCompatible(response.getMediaType());
+    }
+
+    private void complete(final ServerTiming timing) {
+        timing.end();
+        final long total = timing.getTotal();
+        if (total >= slowNanos) {
+            slowRequests.increment();
+            final long now = nanoTime();
+            final long next = nextLogNanos.get();
+            if (now - next >= 0L && nextLogNanos.compareAndSet(next, now + SLOW_LOG_INTERVAL_NANOS)) {
+                LOG.warn("Slow request {}: {}, skipped {}", timing.getDescription(), timing, skipped.getAndSet(0L));
+            } else {
+                skipped.incrementAndGet();
+            }
+        }
+    }
+}
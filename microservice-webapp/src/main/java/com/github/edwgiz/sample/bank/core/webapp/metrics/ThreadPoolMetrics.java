@@ -0,0 +1,104 @@
+package com.github.edwgiz.sample.bank.core.webapp.metrics;
+
+import com.github.edwgiz.sample.bank.core.metrics.Counter;
+import com.github.edwgiz.sample.bank.core.metrics.Metrics;
+import com.github.edwgiz.sample.bank.core.metrics.Timer;
+import org.glassfish.grizzly.threadpool.AbstractThreadPool;
+import org.glassfish.grizzly.threadpool.ThreadPoolProbe;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import static java.lang.System.nanoTime;
+
+/**
+ * Saturation of the Grizzly worker thread pools it's added to: the queued tasks and their wait, the busy and the
+ * started threads, and the tasks rejected by a full queue. A growing queue with all the threads busy means the pool,
+ * rather than the database, is the bottleneck.
+ * <p>
+ * A pool may hand a task to a worker before it reports the task queued, such a task is left untimed.
+ */
+public final class ThreadPoolMetrics extends ThreadPoolProbe.Adapter {
+
+    private static final Long DEQUEUED = Long.MIN_VALUE;
+
+    private final Counter queued;
+    private final LongAdder dequeued;
+    private final LongAdder cancelled;
+    private final LongAdder completed;
+    private final Counter rejected;
+    private final LongAdder allocated;
+    private final LongAdder released;
+    private final Timer queueWait;
+    /**
+     * Queue times of the queued tasks, or {@link #DEQUEUED} for the tasks dequeued before reported queued.
+     */
+    private final ConcurrentMap<Runnable, Long> queueTimes;
+
+    /**
+     * @param metrics registry to add the metrics to.
+     */
+    public ThreadPoolMetrics(final Metrics metrics) {
+        super();
+        this.queued = metrics.counter("grizzly_worker_tasks_queued_total", "Number of the tasks queued.", "");
+        this.rejected = metrics.counter("grizzly_worker_tasks_rejected_total",
+                "Number of the tasks rejected by a full queue.", "");
+        this.dequeued = new LongAdder();
+        this.cancelled = new LongAdder();
+        this.completed = new LongAdder();
+        this.allocated = new LongAdder();
+        this.released = new LongAdder();
+        this.queueWait = metrics.timer("grizzly_worker_queue_wait_seconds", "Wait of the tasks in the queue.", "");
+        this.queueTimes = new ConcurrentHashMap<>();
+        metrics.gauge("grizzly_worker_queue_length", "Number of the tasks waiting in the queue.", "",
+                () -> queued.get() - dequeued.sum() - cancelled.sum());
+        metrics.gauge("grizzly_worker_threads_busy", "Number of the threads running a task.", "",
+                () -> dequeued.sum() - completed.sum());
+        metrics.gauge("grizzly_worker_threads", "Number of the started threads.", "",
+                () -> allocated.sum() - released.sum());
+    }
+
+    @Override
+    public void onThreadAllocateEvent(final AbstractThreadPool threadPool, final Thread thread) {
+        allocated.increment();
+    }
+
+    @Override
+    public void onThreadReleaseEvent(final AbstractThreadPool threadPool, final Thread thread) {
+        released.increment();
+    }
+
+    @Override
+    public void onTaskQueueEvent(final AbstractThreadPool threadPool, final Runnable task) {
+        queued.increment();
+        queueTimes.merge(task, nanoTime(), (dequeuedMarker, queueTime) -> null);
+    }
+
+    @Override
+    public void onTaskDequeueEvent(final AbstractThreadPool threadPool, final Runnable task) {
+        dequeued.increment();
+        final Long queueTime = queueTimes.remove(task);
+        if (queueTime == null) {
+            queueTimes.merge(task, DEQUEUED, (reportedQueueTime, dequeuedMarker) -> null);
+        } else {
+            queueWait.record(nanoTime() - queueTime);
+        }
+    }
+
+    @Override
+    public void onTaskCancelEvent(final AbstractThreadPool threadPool, final Runnable task) {
+        cancelled.increment();
+        queueTimes.remove(task);
+    }
+
+    @Override
+    public void onTaskCompleteEvent(final AbstractThreadPool threadPool, final Runnable task) {
+        completed.increment();
+    }
+
+    @Override
+    public void onTaskQueueOverflowEvent(final AbstractThreadPool threadPool) {
+        rejected.increment();
+    }
+}
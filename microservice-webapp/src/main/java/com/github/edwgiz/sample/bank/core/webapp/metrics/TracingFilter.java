@@ -0,0 +1,71 @@
+package com.github.edwgiz.sample.bank.core.webapp.metrics;
+
+import com.github.edwgiz.sample.bank.core.tracing.TraceSpan;
+import com.github.edwgiz.sample.bank.core.tracing.Tracer;
+import org.glassfish.jersey.server.ExtendedUriInfo;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.PreMatching;
+
+/**
+ * Traces the requests by {@link Tracer}: a server span per request, continuing the trace of its
+ * {@value #TRACEPARENT} header, named by the resource method like the metrics of {@link MetricsFilter}. The response
+ * carries the {@value #TRACERESPONSE} header with the ids of the span, so a client can find the trace.
+ * <p>
+ * Registered with {@link #PRIORITY}, it runs right after {@link ServerTimingFilter}, the response body writing isn't
+ * included. The responses completed on another thread than the request, like the asynchronous ones, aren't traced.
+ */
+@PreMatching
+public final class TracingFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    /**
+     * Priority to register the filter with.
+     */
+    public static final int PRIORITY = ServerTimingFilter.PRIORITY + 1;
+    /**
+     * W3C Trace Context request header.
+     */
+    public static final String TRACEPARENT = "traceparent";
+    /**
+     * W3C Trace Context response header.
+     */
+    public static final String TRACERESPONSE = "traceresponse";
+    private static final int ERROR_STATUS = 500;
+    private static final String SPAN_PROPERTY = TracingFilter.class.getName() + ".span";
+
+    private final Tracer tracer;
+    private final MetricsFilter metricsFilter;
+
+    /**
+     * @param value   tracer to start the spans by.
+     * @param metrics filter naming the resource methods.
+     */
+    public TracingFilter(final Tracer value, final MetricsFilter metrics) {
+        this.tracer = value;
+        this.metricsFilter = metrics;
+    }
+
+    @Override
+    public void filter(final ContainerRequestContext request) {
+        request.setProperty(SPAN_PROPERTY, tracer.startServer(request.getHeaderString(TRACEPARENT),
+                request.getMethod()));
+    }
+
+    @Override
+    public void filter(final ContainerRequestContext request, final ContainerResponseContext response) {
+        final TraceSpan span = (TraceSpan) request.getProperty(SPAN_PROPERTY);
+        if (span != null && span.isActive()) { // aborted by a preceding filter, or completed asynchronously otherwise
+            span.setName(metricsFilter.requestMetrics(
+                    ((ExtendedUriInfo) request.getUriInfo()).getMatchedResourceMethod()).getResource());
+            span.setStatus(response.getStatus());
+            if (response.getStatus() >= ERROR_STATUS) {
+                span.fail();
+            }
+            response.getHeaders().add(TRACERESPONSE, span.traceparent());
+            span.end();
+        }
+    }
+}
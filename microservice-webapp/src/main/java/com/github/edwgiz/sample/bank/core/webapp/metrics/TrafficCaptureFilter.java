@@ -0,0 +1,104 @@
+package com.github.edwgiz.sample.bank.core.webapp.metrics;
+
+import com.github.edwgiz.sample.bank.core.capture.TrafficCapture;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerRequestFilter;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.container.ContainerResponseFilter;
+import javax.ws.rs.container.PreMatching;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.net.URI;
+
+import static java.lang.System.nanoTime;
+
+/**
+ * Records the requests to {@link TrafficCapture}: the method, the raw path and query, the body, the arrival time, the
+ * duration and the response status. The body is read ahead into memory and handed over to the resource method as is,
+ * and only while the capture is enabled, so the disabled capture costs a check per request. No more than
+ * {@link TrafficCapture#MAX_BODY_BYTES} are read ahead, a larger body is streamed to the resource method after them
+ * and its request is skipped.
+ */
+@PreMatching
+public final class TrafficCaptureFilter implements ContainerRequestFilter, ContainerResponseFilter {
+
+    /**
+     * Priority to register the filter with.
+     */
+    public static final int PRIORITY = AccessLogFilter.PRIORITY + 1;
+    private static final String ARRIVAL_PROPERTY = TrafficCaptureFilter.class.getName() + ".arrival";
+    private static final byte[] NO_BODY = new byte[0];
+    private static final int BUFFER_SIZE = 4096;
+
+    private final TrafficCapture capture;
+
+    /**
+     * @param value traffic capture to record to, nothing is done if it's disabled.
+     */
+    public TrafficCaptureFilter(final TrafficCapture value) {
+        this.capture = value;
+    }
+
+    @Override
+    public void filter(final ContainerRequestContext request) throws IOException {
+        if (capture.isEnabled()) {
+            final long arrivalNanos = nanoTime();
+            byte[] body = NO_BODY;
+            if (request.hasEntity()) {
+                final InputStream entity = request.getEntityStream();
+                body = readAhead(entity);
+                if (body.length > TrafficCapture.MAX_BODY_BYTES) {
+                    request.setEntityStream(new SequenceInputStream(new ByteArrayInputStream(body), entity));
+                    capture.skip();
+                } else {
+                    request.setEntityStream(new ByteArrayInputStream(body));
+                }
+            }
+            if (body.length <= TrafficCapture.MAX_BODY_BYTES) {
+                request.setProperty(ARRIVAL_PROPERTY, new Arrival(arrivalNanos, body));
+            }
+        }
+    }
+
+    @Override
+    public void filter(final ContainerRequestContext request, final ContainerResponseContext response) {
+        final Arrival arrival = (Arrival) request.getProperty(ARRIVAL_PROPERTY);
+        if (arrival != null) { // aborted by a preceding filter otherwise
+            request.removeProperty(ARRIVAL_PROPERTY);
+            final URI uri = request.getUriInfo().getRequestUri();
+            capture.record(request.getMethod(), uri.getRawPath(), uri.getRawQuery(), arrival.body, arrival.nanos,
+                    nanoTime() - arrival.nanos, response.getStatus());
+        }
+    }
+
+    // the whole body, or its beginning over the maximum size
+    private static byte[] readAhead(final InputStream entity) throws IOException {
+        final ByteArrayOutputStream result = new ByteArrayOutputStream();
+        final byte[] chunk = new byte[BUFFER_SIZE];
+        for (int read = entity.read(chunk); read >= 0; read = entity.read(chunk)) {
+            result.write(chunk, 0, read);
+            if (result.size() > TrafficCapture.MAX_BODY_BYTES) {
+                break;
+            }
+        }
+        return result.toByteArray();
+    }
+
+    /**
+     * Arrival time and body of a captured request.
+     */
+    private static final class Arrival {
+
+        private final long nanos;
+        private final byte[] body;
+
+        /* default */Arrival(final long arrivalNanos, final byte[] content) {
+            this.nanos = arrivalNanos;
+            this.body = content;
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Request, connection and exposition functionality of the application metrics.
+ */
+package com.github.edwgiz.sample.bank.core.webapp.metrics;
@@ -0,0 +1,351 @@
+package com.github.edwgiz.sample.bank.core.webapp.sse;
+
+import javax.ws.rs.sse.OutboundSseEvent;
+import javax.ws.rs.sse.Sse;
+import javax.ws.rs.sse.SseEventSink;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * In-process fan-out of server-sent events to the subscribers of a key, like an account identifier.
+ * <p>
+ * A publisher only appends an event to the bounded buffers of the key subscribers, the events are sent to the sinks
+ * by a small pool of dispatcher threads, so a slow client delays neither the publisher nor the other clients. When
+ * a buffer is full, the subscriber {@link Overflow} policy applies. Publishing allocates nothing per subscriber,
+ * and nothing at all for a key without subscribers.
+ * <p>
+ * A send blocks while the client doesn't read, so a watchdog disconnects the subscribers whose send doesn't complete
+ * in time. The pool gets an extra thread per such a send until it returns, so the stalled clients never occupy all
+ * the dispatcher threads.
+ */
+public final class EventHub implements AutoCloseable {
+
+    /**
+     * Name of the event sent instead of the events dropped by {@link Overflow#DROP} policy, the data is their number.
+     */
+    public static final String DROPPED_EVENT_NAME = "dropped";
+
+    private static final Subscriber[] NO_SUBSCRIBERS = {};
+    private static final Predicate<OutboundSseEvent> ANY_EVENT = event -> true;
+    /**
+     * {@link Subscriber#sendStart} of a send disconnected by the watchdog.
+     */
+    private static final long STALLED = -1L;
+
+    private final int bufferCapacity;
+    private final long sendTimeoutNanos;
+    private final ConcurrentMap<Long, Subscriber[]> subscribers;
+    private final ThreadPoolExecutor dispatcher;
+    private final ScheduledExecutorService watchdog;
+    private final LongAdder dropped;
+    private final LongAdder disconnected;
+
+    /**
+     * Policy for a subscriber which doesn't keep up with the published events.
+     */
+    public enum Overflow {
+        /**
+         * Drops the new events, the sent ones are followed by {@link #DROPPED_EVENT_NAME} event then.
+         */
+        DROP,
+        /**
+         * Closes the connection, so a client reconnects and resumes after its last received event.
+         */
+        DISCONNECT
+    }
+
+    /**
+     * @param threads           number of the dispatcher threads.
+     * @param capacity          maximum number of the buffered events per subscriber.
+     * @param sendTimeoutMillis time a send may take, the subscriber is disconnected after.
+     */
+    public EventHub(final int threads, final int capacity, final long sendTimeoutMillis) {
+        this.bufferCapacity = capacity;
+        this.sendTimeoutNanos = MILLISECONDS.toNanos(sendTimeoutMillis);
+        this.subscribers = new ConcurrentHashMap<>();
+        this.dispatcher = new ThreadPoolExecutor(threads, threads, 0L, MILLISECONDS, new LinkedBlockingQueue<>(),
+                runnable -> {
+                    final Thread thread = new Thread(runnable, "event-hub");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            final Thread thread = new Thread(runnable, "event-hub-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.dropped = new LongAdder();
+        this.disconnected = new LongAdder();
+        watchdog.scheduleWithFixedDelay(this::disconnectStalled, sendTimeoutMillis, sendTimeoutMillis, MILLISECONDS);
+    }
+
+    /**
+     * Subscribes a sink to the events of the key. The events published since are only buffered until
+     * {@link Subscriber#start(Predicate)}, so the caller can send the missed events before.
+     *
+     * @param key      key of the events.
+     * @param sink     sink to send the events to.
+     * @param sse      factory of the service events.
+     * @param overflow policy for the overflow of the subscriber buffer.
+     * @return subscriber to start.
+     */
+    public Subscriber subscribe(final long key, final SseEventSink sink, final Sse sse, final Overflow overflow) {
+        final Subscriber subscriber = new Subscriber(key, sink, sse, overflow);
+        subscribers.merge(key, new Subscriber[]{subscriber}, (array, added) -> {
+            final Subscriber[] result = Arrays.copyOf(array, array.length + 1);
+            result[array.length] = added[0];
+            return result;
+        });
+        return subscriber;
+    }
+
+    private void unsubscribe(final Subscriber subscriber) {
+        subscribers.computeIfPresent(subscriber.key, (key, array) -> {
+            Subscriber[] result = array;
+            for (int i = 0; i < array.length; i++) {
+                if (array[i] == subscriber) {
+                    result = Arrays.copyOf(array, array.length - 1);
+                    System.arraycopy(array, i + 1, result, i, result.length - i);
+                }
+            }
+            return result.length == 0 ? null : result;
+        });
+    }
+
+    /**
+     * @param key key of the events.
+     * @return {@code true} when the events of the key have subscribers, so they're worth to be created.
+     */
+    public boolean hasSubscribers(final long key) {
+        return subscribers.containsKey(key);
+    }
+
+    /**
+     * Appends the event to the buffers of the key subscribers, never blocks.
+     *
+     * @param key   key of the event.
+     * @param event immutable event, shared by the subscribers.
+     */
+    public void publish(final long key, final OutboundSseEvent event) {
+        for (final Subscriber subscriber : subscribers.getOrDefault(key, NO_SUBSCRIBERS)) {
+            subscriber.offer(event);
+        }
+    }
+
+    /* default */void disconnectStalled() {
+        final long now = System.nanoTime();
+        for (final Subscriber[] array : subscribers.values()) {
+            for (final Subscriber subscriber : array) {
+                final long start = subscriber.sendStart.get();
+                if (start != 0L && start != STALLED && now - start > sendTimeoutNanos
+                        && subscriber.sendStart.compareAndSet(start, STALLED)) {
+                    resizeDispatcher(1);
+                    unsubscribe(subscriber);
+                    disconnected.increment();
+                    subscriber.sink.close(); // after the blocked send, or fails it
+                }
+            }
+        }
+    }
+
+    // the core size never exceeds the maximum one
+    private synchronized void resizeDispatcher(final int delta) {
+        if (delta > 0) {
+            dispatcher.setMaximumPoolSize(dispatcher.getMaximumPoolSize() + delta);
+            dispatcher.setCorePoolSize(dispatcher.getCorePoolSize() + delta);
+        } else {
+            dispatcher.setCorePoolSize(dispatcher.getCorePoolSize() + delta);
+            dispatcher.setMaximumPoolSize(dispatcher.getMaximumPoolSize() + delta);
+        }
+    }
+
+    /**
+     * @return number of the dispatcher threads, including the ones added for the stalled sends.
+     */
+    public int getDispatcherThreads() {
+        return dispatcher.getMaximumPoolSize();
+    }
+
+    /**
+     * @return number of the subscribers.
+     */
+    public int size() {
+        int result = 0;
+        for (final Subscriber[] array : subscribers.values()) {
+            result += array.length;
+        }
+        return result;
+    }
+
+    /**
+     * @return total number of the events dropped by {@link Overflow#DROP} policy.
+     */
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    /**
+     * @return total number of the subscribers disconnected by {@link Overflow#DISCONNECT} policy or by the watchdog.
+     */
+    public long getDisconnected() {
+        return disconnected.sum();
+    }
+
+    /**
+     * Closes the sinks of all the subscribers and stops the dispatching.
+     */
+    @Override
+    public void close() {
+        watchdog.shutdownNow();
+        dispatcher.shutdownNow();
+        for (final Subscriber[] array : subscribers.values()) {
+            for (final Subscriber subscriber : array) {
+                subscriber.close();
+            }
+        }
+    }
+
+    /**
+     * Buffer of the events for one sink.
+     */
+    public final class Subscriber implements Runnable {
+
+        private final long key;
+        private final SseEventSink sink;
+        private final Sse sse;
+        private final Overflow overflow;
+        private final BlockingQueue<OutboundSseEvent> buffer;
+        /**
+         * Whether the buffer is being sent, initially by the subscribing thread until {@link #start(Predicate)}.
+         */
+        private final AtomicBoolean scheduled;
+        private final AtomicBoolean overflowed;
+        private final AtomicInteger droppedEvents;
+        /**
+         * {@link System#nanoTime()} of the current send, zero when idle, or {@link #STALLED}.
+         */
+        private final AtomicLong sendStart;
+
+        /* default */Subscriber(final long value, final SseEventSink eventSink, final Sse factory,
+                final Overflow policy) {
+            this.key = value;
+            this.sink = eventSink;
+            this.sse = factory;
+            this.overflow = policy;
+            this.buffer = new ArrayBlockingQueue<>(bufferCapacity);
+            this.scheduled = new AtomicBoolean(true);
+            this.overflowed = new AtomicBoolean();
+            this.droppedEvents = new AtomicInteger();
+            this.sendStart = new AtomicLong();
+        }
+
+        /**
+         * Sends an event directly, allowed only before {@link #start(Predicate)}.
+         *
+         * @param event event to send.
+         * @return {@code false} when the sink is closed.
+         */
+        public boolean send(final OutboundSseEvent event) {
+            boolean result = false;
+            if (!sink.isClosed()) {
+                sendStart.set(System.nanoTime() | 1L); // never zero
+                final CompletableFuture<?> sent = sink.send(event).toCompletableFuture();
+                // Jersey completes it normally, with an IOException as the result
+                result = !sent.isCompletedExceptionally() && !(sent.getNow(null) instanceof Throwable);
+                if (sendStart.getAndSet(0L) == STALLED) {
+                    resizeDispatcher(-1);
+                    result = false;
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Sends the events buffered since the subscription, skipping the ones sent already, and starts the
+         * dispatching of the following ones.
+         *
+         * @param filter accepts the buffered events to send.
+         */
+        public void start(final Predicate<? super OutboundSseEvent> filter) {
+            dispatch(filter);
+        }
+
+        @Override
+        public void run() {
+            dispatch(ANY_EVENT);
+        }
+
+        private void dispatch(final Predicate<? super OutboundSseEvent> filter) {
+            if (drain(filter)) {
+                scheduled.set(false);
+                if (!buffer.isEmpty() || overflowed.get()) {
+                    schedule();
+                }
+            } else {
+                close(); // leaves it scheduled forever
+            }
+        }
+
+        // sends the buffered events, returns false when the subscriber must be closed
+        private boolean drain(final Predicate<? super OutboundSseEvent> filter) {
+            boolean open = !overflowed.get();
+            OutboundSseEvent event = open ? buffer.poll() : null;
+            while (event != null) {
+                if (filter.test(event)) {
+                    open = send(event);
+                }
+                event = open ? buffer.poll() : null;
+            }
+            final int droppedAfter = droppedEvents.getAndSet(0);
+            if (open && droppedAfter > 0) {
+                open = send(sse.newEvent(DROPPED_EVENT_NAME, Integer.toString(droppedAfter)));
+            }
+            return open;
+        }
+
+        /* default */void offer(final OutboundSseEvent event) {
+            if (!buffer.offer(event)) {
+                if (overflow == Overflow.DROP) {
+                    droppedEvents.incrementAndGet();
+                    dropped.increment();
+                } else if (overflowed.compareAndSet(false, true)) {
+                    unsubscribe(this);
+                    disconnected.increment();
+                }
+            }
+            schedule();
+        }
+
+        private void schedule() {
+            if (scheduled.compareAndSet(false, true)) {
+                try {
+                    dispatcher.execute(this);
+                } catch (RejectedExecutionException e) {
+                    close(); // the hub is closed
+                }
+            }
+        }
+
+        /* default */void close() {
+            unsubscribe(this);
+            buffer.clear();
+            sink.close();
+        }
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Server-sent events functionality.
+ */
+package com.github.edwgiz.sample.bank.core.webapp.sse;
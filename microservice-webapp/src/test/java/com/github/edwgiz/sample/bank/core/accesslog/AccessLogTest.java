@@ -0,0 +1,156 @@
+package com.github.edwgiz.sample.bank.core.accesslog;
+
+import com.github.edwgiz.sample.bank.core.metrics.Metrics;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AccessLogTest {
+
+    private static final long TRACE_ID_HIGH = 0x4bf92f3577b34da6L;
+    private static final long TRACE_ID_LOW = 0xa3ce929d0e0e4736L;
+    private static final int CREATED = 201;
+    private static final int NOT_FOUND = 404;
+    private static final long BYTES = 57L;
+    private static final long NANOS = 1_520_000L;
+    private static final long ROTATE_BYTES = 1_048_576L;
+    private static final int CAPACITY = 16;
+    private static final int ENTRIES = 6;
+    private static final int ROTATED_FILES = 4;
+
+    @Test
+    /* default */void testWrite() throws IOException {
+        final Path dir = Files.createTempDirectory("access");
+        try {
+            final Path file = dir.resolve("access.log");
+            final Metrics metrics = new Metrics();
+            final AccessLog accessLog = new AccessLog(metrics, file, ROTATE_BYTES, CAPACITY);
+            assertTrue(accessLog.isEnabled());
+            assertTrue(accessLog.record("POST", "/payment", CREATED, BYTES, NANOS, TRACE_ID_HIGH, TRACE_ID_LOW));
+            assertTrue(accessLog.record("GET", "/unknown", NOT_FOUND, 0L, NANOS, 0L, 0L));
+            accessLog.close();
+
+            assertEquals(Arrays.asList(
+                    "{\"method\":\"POST\",\"path\":\"/payment\",\"status\":201,\"bytes\":57,\"micros\":1520,"
+                            + "\"trace\":\"4bf92f3577b34da6a3ce929d0e0e4736\"}",
+                    "{\"method\":\"GET\",\"path\":\"/unknown\",\"status\":404,\"bytes\":0,\"micros\":1520}"),
+                    lines(file));
+            assertTrue(Files.readAllLines(file, UTF_8).get(0).startsWith("{\"time\":\"20"));
+            final String scrape = metrics.scrape();
+            assertTrue(scrape.contains("access_log_entries_total 2\n"), scrape);
+            assertTrue(scrape.contains("access_log_dropped_total 0\n"), scrape);
+        } finally {
+            delete(dir);
+        }
+    }
+
+    @Test
+    /* default */void testFull() throws IOException {
+        final Path dir = Files.createTempDirectory("access");
+        try {
+            final Metrics metrics = new Metrics();
+            final AccessLog accessLog = new AccessLog(metrics, dir.resolve("access.log"), ROTATE_BYTES, 2);
+            assertTrue(accessLog.record("GET", "/a", CREATED, 0L, NANOS, 0L, 0L));
+            assertTrue(accessLog.record("GET", "/b", CREATED, 0L, NANOS, 0L, 0L));
+            assertFalse(accessLog.record("GET", "/c", CREATED, 0L, NANOS, 0L, 0L));
+            accessLog.close();
+            final String scrape = metrics.scrape();
+            assertTrue(scrape.contains("access_log_entries_total 2\n"), scrape);
+            assertTrue(scrape.contains("access_log_dropped_total 1\n"), scrape);
+        } finally {
+            delete(dir);
+        }
+    }
+
+    @Test
+    /* default */void testRotate() throws IOException {
+        final Path dir = Files.createTempDirectory("access");
+        try {
+            final Path file = dir.resolve("access.log");
+            final AccessLog accessLog = new AccessLog(new Metrics(), file, 1L, CAPACITY);
+            for (int i = 0; i < ENTRIES; i++) {
+                accessLog.record("GET", "/" + i, CREATED, 0L, NANOS, 0L, 0L);
+            }
+            accessLog.close();
+
+            assertEquals(Collections.emptyList(), lines(file));
+            for (int i = 1; i <= ROTATED_FILES; i++) {
+                assertEquals(Collections.singletonList(
+                        "{\"method\":\"GET\",\"path\":\"/" + (ENTRIES - i) + "\",\"status\":201,\"bytes\":0,"
+                                + "\"micros\":1520}"),
+                        lines(dir.resolve("access.log." + i)));
+            }
+            assertFalse(Files.exists(dir.resolve("access.log." + (ROTATED_FILES + 1))));
+        } finally {
+            delete(dir);
+        }
+    }
+
+    @Test
+    /* default */void testWriteFailure() throws IOException {
+        final Path dir = Files.createTempDirectory("access");
+        try {
+            final Metrics metrics = new Metrics();
+            final AccessLog accessLog = new AccessLog(metrics, dir, ROTATE_BYTES, CAPACITY); // not a file
+            assertTrue(accessLog.record("GET", "/", CREATED, 0L, NANOS, 0L, 0L));
+            accessLog.close();
+            final String scrape = metrics.scrape();
+            assertTrue(scrape.contains("access_log_entries_total 0\n"), scrape);
+        } finally {
+            delete(dir);
+        }
+    }
+
+    @Test
+    /* default */void testDisabled() throws IOException {
+        System.clearProperty(AccessLog.SYSTEM_PROPERTY_FILE);
+        final Metrics metrics = new Metrics();
+        final AccessLog accessLog = AccessLog.create(metrics);
+        assertFalse(accessLog.isEnabled());
+        assertFalse(accessLog.record("GET", "/", CREATED, 0L, NANOS, 0L, 0L));
+        accessLog.close();
+        final String scrape = metrics.scrape();
+        assertTrue(scrape.contains("access_log_dropped_total 0\n"), scrape);
+    }
+
+    @Test
+    /* default */void testCreate() throws IOException {
+        final Path dir = Files.createTempDirectory("access");
+        try {
+            System.setProperty(AccessLog.SYSTEM_PROPERTY_FILE, dir.resolve("access.log").toString());
+            final AccessLog accessLog = AccessLog.create(new Metrics());
+            assertTrue(accessLog.isEnabled());
+            accessLog.close();
+        } finally {
+            System.clearProperty(AccessLog.SYSTEM_PROPERTY_FILE);
+            delete(dir);
+        }
+    }
+
+    private static List<String> lines(final Path file) throws IOException {
+        return Files.readAllLines(file, UTF_8).stream()
+                .map(line -> line.replaceFirst("\"time\":\"[^\"]+\",", ""))
+                .collect(Collectors.toList());
+    }
+
+    private static void delete(final Path dir) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            for (final Path file : files.collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(dir);
+    }
+}
@@ -0,0 +1,4 @@
+/**
+ * Unit tests.
+ */
+package com.github.edwgiz.sample.bank.core.accesslog;
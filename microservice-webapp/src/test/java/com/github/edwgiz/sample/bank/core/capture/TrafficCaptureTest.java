@@ -0,0 +1,119 @@
+package com.github.edwgiz.sample.bank.core.capture;
+
+import com.github.edwgiz.sample.bank.core.metrics.Metrics;
+import com.github.edwgiz.sample.bank.core.storage.VarLongUtils;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrafficCaptureTest {
+
+    private static final long MAX_BYTES = 1_048_576L;
+    private static final int CAPACITY = 16;
+    private static final int OK = 200;
+    private static final int CONFLICT = 409;
+    private static final long NANOS_PER_MICRO = 1000L;
+    private static final long ARRIVAL_MICROS = 1500L;
+    private static final long DURATION_MICROS = 2500L;
+    private static final int STRINGS = 4;
+
+    @Test
+    /* default */void testWrite(@TempDir final Path dir) throws IOException {
+        final Path file = dir.resolve("capture.bin");
+        final Metrics metrics = new Metrics();
+        final long before = System.currentTimeMillis();
+        final TrafficCapture capture = new TrafficCapture(metrics, file, MAX_BYTES, CAPACITY);
+        assertTrue(capture.isEnabled());
+        final long arrival = System.nanoTime();
+        final byte[] body = "{\"amount\":1}".getBytes(UTF_8);
+        // the later arrival responded first
+        assertTrue(capture.record("PUT", "/payment", null, body, arrival + ARRIVAL_MICROS * NANOS_PER_MICRO,
+                DURATION_MICROS * NANOS_PER_MICRO, CONFLICT));
+        capture.write();
+        assertTrue(capture.record("GET", "/payment/statement", "accountId=3&from=2020-01-01T00%3A00", new byte[0],
+                arrival, DURATION_MICROS * NANOS_PER_MICRO, OK));
+        capture.close();
+        capture.close(); // no-op
+
+        final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        final byte[] magic = new byte[TrafficCapture.MAGIC.length];
+        buffer.get(magic);
+        assertArrayEquals(TrafficCapture.MAGIC, magic);
+        final long start = VarLongUtils.read(buffer);
+        assertTrue(start >= before && start <= System.currentTimeMillis());
+        final long first = VarLongUtils.readSigned(buffer);
+        assertEquals(Arrays.asList(DURATION_MICROS, (long) CONFLICT, "PUT", "/payment", "", "{\"amount\":1}"),
+                fields(buffer));
+        assertTrue(first >= ARRIVAL_MICROS, Long.toString(first));
+        assertEquals(-ARRIVAL_MICROS, VarLongUtils.readSigned(buffer), 1.0); // truncated to the microseconds
+        assertEquals(Arrays.asList(DURATION_MICROS, (long) OK, "GET", "/payment/statement",
+                "accountId=3&from=2020-01-01T00%3A00", ""), fields(buffer));
+        assertFalse(buffer.hasRemaining());
+        final String scrape = metrics.scrape();
+        assertTrue(scrape.contains("traffic_capture_requests_total 2\n"), scrape);
+        assertTrue(scrape.contains("traffic_capture_dropped_total 0\n"), scrape);
+    }
+
+    @Test
+    /* default */void testFull(@TempDir final Path dir) throws IOException {
+        final Metrics metrics = new Metrics();
+        final TrafficCapture capture = new TrafficCapture(metrics, dir.resolve("capture.bin"), MAX_BYTES, 1);
+        assertTrue(capture.record("GET", "/a", null, new byte[0], System.nanoTime(), 0L, OK));
+        assertFalse(capture.record("GET", "/b", null, new byte[0], System.nanoTime(), 0L, OK));
+        capture.close();
+        final String scrape = metrics.scrape();
+        assertTrue(scrape.contains("traffic_capture_requests_total 1\n"), scrape);
+        assertTrue(scrape.contains("traffic_capture_dropped_total 1\n"), scrape);
+    }
+
+    @Test
+    /* default */void testStop(@TempDir final Path dir) throws IOException {
+        final Path file = dir.resolve("capture.bin");
+        final TrafficCapture capture = new TrafficCapture(new Metrics(), file, 1L, CAPACITY);
+        assertTrue(capture.record("GET", "/a", null, new byte[0], System.nanoTime(), 0L, OK));
+        capture.write(); // exceeds the maximum size
+        assertFalse(capture.isEnabled());
+        assertFalse(capture.record("GET", "/b", null, new byte[0], System.nanoTime(), 0L, OK));
+        final long size = Files.size(file);
+        capture.close();
+        assertEquals(size, Files.size(file));
+
+        final TrafficCapture failed = new TrafficCapture(new Metrics(), dir, MAX_BYTES, CAPACITY);
+        failed.write(); // the directory can't be written
+        assertFalse(failed.isEnabled());
+        failed.close();
+    }
+
+    @Test
+    /* default */void testDisabled() throws IOException {
+        final TrafficCapture capture = TrafficCapture.create(new Metrics());
+        assertFalse(capture.isEnabled());
+        assertFalse(capture.record("GET", "/a", null, new byte[0], System.nanoTime(), 0L, OK));
+        capture.close();
+    }
+
+    private static List<Object> fields(final ByteBuffer buffer) {
+        final List<Object> result = new ArrayList<>();
+        result.add(VarLongUtils.read(buffer));
+        result.add(VarLongUtils.read(buffer));
+        for (int i = 0; i < STRINGS; i++) {
+            final byte[] bytes = new byte[(int) VarLongUtils.read(buffer)];
+            buffer.get(bytes);
+            result.add(new String(bytes, UTF_8));
+        }
+        return result;
+    }
+}
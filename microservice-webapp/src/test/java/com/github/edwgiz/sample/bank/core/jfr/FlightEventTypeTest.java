@@ -0,0 +1,95 @@
+package com.github.edwgiz.sample.bank.core.jfr;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.reflect.InvocationTargetException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static com.github.edwgiz.sample.bank.core.jfr.FlightEventType.Field.booleanField;
+import static com.github.edwgiz.sample.bank.core.jfr.FlightEventType.Field.longField;
+import static com.github.edwgiz.sample.bank.core.jfr.FlightEventType.Field.stringField;
+import static java.nio.charset.StandardCharsets.ISO_8859_1;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FlightEventTypeTest {
+
+    private static final long MAX_SIZE = 16_000_000L;
+    private static final long ACCOUNT_ID = 7L;
+    private static final String SAMPLE_TYPE = "com.github.edwgiz.sample.bank.test.Sample";
+    private static final String SAMPLE_VALUE = "sample-operation-value";
+
+    @Test
+    /* default */void testRecording() throws IOException {
+        final FlightEventType type = new FlightEventType(SAMPLE_TYPE, "Sample", "Test",
+                longField("accountId", "Account"), booleanField("acquired", "Acquired"),
+                stringField("operation", "Operation"));
+        assertFalse(type.isEnabled());
+        assertSame(FlightEvent.DISABLED, type.begin());
+        type.begin().set("accountId", ACCOUNT_ID).set("acquired", true).set("operation", "ignored").commit();
+
+        assertTrue(FlightRecording.isAvailable());
+        final FlightRecording recording = FlightRecording.start("test", "default", Duration.ofMinutes(1L), MAX_SIZE);
+        final Path file = Files.createTempFile("test", ".jfr");
+        try {
+            assertTrue(type.isEnabled());
+            final FlightEvent event = type.begin();
+            event.set("accountId", ACCOUNT_ID).set("acquired", true).set("operation", SAMPLE_VALUE).commit();
+            assertThrows(IllegalArgumentException.class, () -> type.begin().set("unknown", 0L));
+            recording.dumpAndClose(file);
+            final String content = new String(Files.readAllBytes(file), ISO_8859_1);
+            assertTrue(content.contains(SAMPLE_TYPE));
+            assertTrue(content.contains(SAMPLE_VALUE));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    /* default */void testUnavailable() {
+        final ClassLoader withoutJfr = new ClassLoader(null) {
+            @Override
+            protected Class<?> loadClass(final String name, final boolean resolve) throws ClassNotFoundException {
+                if (name.startsWith("jdk.jfr.")) {
+                    throw new ClassNotFoundException(name);
+                }
+                return super.loadClass(name, resolve);
+            }
+        };
+        assertNotNull(EventApi.load(EventApi.class.getClassLoader()));
+        assertNull(EventApi.load(withoutJfr));
+        assertNull(RecordingApi.load(withoutJfr));
+
+        final FlightEventType type = new FlightEventType(null, "com.github.edwgiz.sample.bank.test.Unavailable",
+                "Unavailable", "Test", longField("accountId", "Account"));
+        assertFalse(type.isEnabled());
+        assertSame(FlightEvent.DISABLED, type.begin());
+        assertThrows(IllegalStateException.class,
+                () -> FlightRecording.start(null, "test", "default", Duration.ofMinutes(1L), MAX_SIZE));
+    }
+
+    @Test
+    /* default */void testUnknownSettings() {
+        assertThrows(IllegalArgumentException.class,
+                () -> FlightRecording.start("test", "unknown", Duration.ofMinutes(1L), MAX_SIZE));
+    }
+
+    @Test
+    /* default */void testUnwrap() throws NoSuchMethodException {
+        final IllegalArgumentException runtime = new IllegalArgumentException();
+        assertSame(runtime, ReflectionUtils.unwrap(new InvocationTargetException(runtime)));
+        final IOException checked = new IOException();
+        assertSame(checked, ReflectionUtils.unwrap(new InvocationTargetException(checked)).getCause());
+        final IllegalAccessException access = new IllegalAccessException();
+        assertSame(access, ReflectionUtils.unwrap(access).getCause());
+        assertThrows(IllegalStateException.class, () -> ReflectionUtils.newInstance(
+                FlightRecording.class.getDeclaredConstructor(RecordingApi.class, Object.class), null, null));
+    }
+}
@@ -0,0 +1,44 @@
+package com.github.edwgiz.sample.bank.core.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+
+class JvmMetricsTest {
+
+    private static final long COLLECTIONS = 3L;
+    private static final long COLLECTION_MILLIS = 1500L;
+
+    @Test
+    /* default */void testRegister() {
+        final GarbageCollectorMXBean collector = mock(GarbageCollectorMXBean.class);
+        doReturn("Young \"Gen\"").when(collector).getName();
+        doReturn(COLLECTIONS).when(collector).getCollectionCount();
+        doReturn(COLLECTION_MILLIS).when(collector).getCollectionTime();
+        final Metrics metrics = new Metrics();
+        JvmMetrics.register(metrics, ManagementFactory.getMemoryMXBean(), singletonList(collector));
+
+        final String scrape = metrics.scrape();
+        assertTrue(scrape.contains("jvm_gc_collections_total{gc=\"Young \\\"Gen\\\"\"} 3.0\n"), scrape);
+        assertTrue(scrape.contains("jvm_gc_collection_seconds_total{gc=\"Young \\\"Gen\\\"\"} 1.5\n"), scrape);
+        for (final String area : new String[]{"heap", "nonheap"}) {
+            assertTrue(scrape.contains("jvm_memory_used_bytes{area=\"" + area + "\"} "), scrape);
+            assertTrue(scrape.contains("jvm_memory_committed_bytes{area=\"" + area + "\"} "), scrape);
+            assertTrue(scrape.contains("jvm_memory_max_bytes{area=\"" + area + "\"} "), scrape);
+        }
+    }
+
+    @Test
+    /* default */void testRegisterPlatform() {
+        final Metrics metrics = new Metrics();
+        JvmMetrics.register(metrics);
+        final String scrape = metrics.scrape();
+        assertTrue(scrape.contains("# TYPE jvm_gc_collections_total counter\njvm_gc_collections_total{gc="), scrape);
+    }
+}
@@ -0,0 +1,93 @@
+package com.github.edwgiz.sample.bank.core.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static com.github.edwgiz.sample.bank.core.metrics.Metrics.labels;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MetricsTest {
+
+    private static final long MILLISECOND = 1_000_000L;
+    private static final long DELTA = 5L;
+    private static final double GAUGE_VALUE = 0.5;
+
+    @Test
+    /* default */void testCounter() {
+        final Metrics metrics = new Metrics();
+        final Counter counter = metrics.counter("b_total", "B help.", labels("kind", "x"));
+        assertSame(counter, metrics.counter("b_total", "ignored", labels("kind", "x")));
+        counter.increment();
+        counter.add(DELTA);
+        assertEquals(DELTA + 1L, counter.get());
+        metrics.counter("a_total", "A help.", "").increment();
+        metrics.counter("c_total", "C help.", "", () -> DELTA);
+
+        assertEquals("# HELP a_total A help.\n"
+                + "# TYPE a_total counter\n"
+                + "a_total 1\n"
+                + "# HELP b_total B help.\n"
+                + "# TYPE b_total counter\n"
+                + "b_total{kind=\"x\"} 6\n"
+                + "# HELP c_total C help.\n"
+                + "# TYPE c_total counter\n"
+                + "c_total 5.0\n", metrics.scrape());
+
+        assertThrows(IllegalArgumentException.class, () -> metrics.counter("a_total", "", "", () -> 0.0));
+        assertThrows(IllegalArgumentException.class, () -> metrics.counter("c_total", "", ""));
+        assertThrows(IllegalArgumentException.class, () -> metrics.timer("a_total", "", ""));
+    }
+
+    @Test
+    /* default */void testGauge() {
+        final Metrics metrics = new Metrics();
+        metrics.gauge("g", "G help.", labels("v", "half"), () -> GAUGE_VALUE);
+        metrics.gauge("g", "G help.", labels("v", "max"), () -> Double.POSITIVE_INFINITY);
+        metrics.gauge("g", "G help.", labels("v", "min"), () -> Double.NEGATIVE_INFINITY);
+        metrics.gauge("g", "G help.", labels("v", "none"), () -> Double.NaN);
+        assertEquals("# HELP g G help.\n"
+                + "# TYPE g gauge\n"
+                + "g{v=\"half\"} 0.5\n"
+                + "g{v=\"max\"} +Inf\n"
+                + "g{v=\"min\"} -Inf\n"
+                + "g{v=\"none\"} NaN\n", metrics.scrape());
+    }
+
+    @Test
+    /* default */void testTimer() {
+        final Metrics metrics = new Metrics();
+        final Timer timer = metrics.timer("t_seconds", "T help.", "");
+        final String empty = "# HELP t_seconds T help.\n"
+                + "# TYPE t_seconds summary\n"
+                + "t_seconds{quantile=\"0.5\"} NaN\n"
+                + "t_seconds{quantile=\"0.9\"} NaN\n"
+                + "t_seconds{quantile=\"0.99\"} NaN\n"
+                + "t_seconds{quantile=\"0.999\"} NaN\n";
+        assertEquals(empty + "t_seconds_count 0\nt_seconds_sum 0.0\n", metrics.scrape());
+
+        timer.record(MILLISECOND);
+        timer.record(MILLISECOND);
+        timer.record(-MILLISECOND); // as zero
+        assertEquals(2L + 1L, timer.getCount());
+        final String scrape = metrics.scrape();
+        assertTrue(scrape.contains("t_seconds{quantile=\"0.5\"} 0.0010"), scrape);
+        assertTrue(scrape.contains("t_seconds{quantile=\"0.999\"} 0.0010"), scrape);
+        assertTrue(scrape.endsWith("t_seconds_count 3\nt_seconds_sum 0.002\n"), scrape);
+
+        // the quantiles are of the interval since the previous scrape
+        assertEquals(empty + "t_seconds_count 3\nt_seconds_sum 0.002\n", metrics.scrape());
+
+        final Timer labeled = metrics.timer("t_seconds", "T help.", labels("phase", "x"));
+        labeled.record(MILLISECOND);
+        assertTrue(metrics.scrape().contains("t_seconds{phase=\"x\",quantile=\"0.5\"} 0.0010"));
+    }
+
+    @Test
+    /* default */void testLabels() {
+        assertEquals("", labels());
+        assertEquals("a=\"1\",b=\"q\\\"\\\\\\n\"", labels("a", "1", "b", "q\"\\\n"));
+        assertThrows(IllegalArgumentException.class, () -> labels("a"));
+    }
+}
@@ -0,0 +1,63 @@
+package com.github.edwgiz.sample.bank.core.metrics;
+
+import com.github.edwgiz.sample.bank.core.metrics.ServerTiming.Phase;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ServerTimingTest {
+
+    private static final long PARSE_NANOS = 120_000L;
+    private static final long SQL_NANOS = 1_503_000L;
+    private static final long COMMIT_NANOS = 7L;
+    private static final String TOTAL_PATTERN = "total;dur=\\d+\\.\\d{3}";
+
+    @Test
+    /* default */void testToString() {
+        final ServerTiming timing = ServerTiming.begin(() -> "GET /");
+        try {
+            assertTrue(timing.toString().matches(TOTAL_PATTERN), timing.toString());
+            timing.add(Phase.PARSE, PARSE_NANOS);
+            timing.add(Phase.SQL, SQL_NANOS);
+            ServerTiming.record(Phase.COMMIT, COMMIT_NANOS);
+            final String header = timing.toString();
+            assertTrue(header.matches("parse;dur=0\\.120, sql;dur=1\\.503, commit;dur=0\\.000, " + TOTAL_PATTERN),
+                    header);
+            assertEquals("GET /", timing.getDescription());
+        } finally {
+            timing.end();
+        }
+    }
+
+    @Test
+    /* default */void testNestedPhases() {
+        final ServerTiming timing = ServerTiming.begin(() -> "PUT /");
+        try {
+            final long start = ServerTiming.enter();
+            ServerTiming.record(Phase.SQL, SQL_NANOS); // a part of the lock phase
+            ServerTiming.exit(Phase.LOCK, start);
+            ServerTiming.record(Phase.SQL, SQL_NANOS);
+            final String header = timing.toString();
+            assertTrue(header.matches("lock;dur=\\d+\\.\\d{3}, sql;dur=1\\.503, " + TOTAL_PATTERN), header);
+        } finally {
+            timing.end();
+        }
+    }
+
+    @Test
+    /* default */void testWithoutRequest() {
+        final ServerTiming timing = ServerTiming.begin(() -> "GET /");
+        timing.end();
+        timing.end();
+        ServerTiming.record(Phase.SQL, SQL_NANOS);
+        ServerTiming.exit(Phase.LOCK, ServerTiming.enter());
+        assertTrue(timing.toString().matches(TOTAL_PATTERN), timing.toString());
+
+        final ServerTiming replaced = ServerTiming.begin(() -> "GET /a");
+        timing.end(); // doesn't unbind another timing
+        ServerTiming.record(Phase.SQL, SQL_NANOS);
+        replaced.end();
+        assertTrue(replaced.toString().startsWith("sql;"), replaced.toString());
+    }
+}
@@ -0,0 +1,46 @@
+package com.github.edwgiz.sample.bank.core.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BloomFilterTest {
+
+    private static final int KEYS = 1000;
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    @Test
+    /* default */void test() {
+        final BloomFilter filter = new BloomFilter(KEYS, FALSE_POSITIVE_RATE);
+        for (long key = 0; key < KEYS; key++) {
+            filter.put(key);
+        }
+        final ByteBuffer buffer = ByteBuffer.allocate(filter.serializedSize());
+        filter.writeTo(buffer);
+        assertFalse(buffer.hasRemaining());
+        buffer.flip();
+        final BloomFilter copy = BloomFilter.readFrom(buffer);
+
+        int falsePositives = 0;
+        for (long key = 0; key < KEYS; key++) {
+            assertTrue(copy.mightContain(key));
+            if (copy.mightContain(-key - 1L)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < KEYS * FALSE_POSITIVE_RATE * 2, "False positives: " + falsePositives);
+    }
+
+    @Test
+    /* default */void testEmpty() {
+        final BloomFilter filter = new BloomFilter(0, FALSE_POSITIVE_RATE);
+        assertFalse(filter.mightContain(0L));
+        filter.put(0L);
+        assertTrue(filter.mightContain(0L));
+        assertEquals(Integer.BYTES * 2 + Long.BYTES, filter.serializedSize());
+    }
+}
@@ -0,0 +1,33 @@
+package com.github.edwgiz.sample.bank.core.storage;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CountMinSketchTest {
+
+    private static final int DEPTH = 4;
+    private static final int WIDTH = 256;
+    private static final int KEYS = 10_000;
+    private static final long HOT_KEY = 42L;
+    private static final long HOT_VALUE = 1_000_000L;
+
+    @Test
+    /* default */void test() {
+        final CountMinSketch sketch = new CountMinSketch(DEPTH, WIDTH);
+        assertEquals(0L, sketch.estimate(HOT_KEY));
+        for (long key = 0; key < KEYS; key++) {
+            sketch.add(key, 1L);
+        }
+        sketch.add(HOT_KEY, HOT_VALUE);
+
+        final long estimate = sketch.estimate(HOT_KEY);
+        assertTrue(estimate >= HOT_VALUE + 1L, Long.toString(estimate));
+        // e / width of the total with the probability of 1 - exp(-depth)
+        assertTrue(estimate <= HOT_VALUE + 1L + Math.E / WIDTH * (KEYS + HOT_VALUE), Long.toString(estimate));
+        for (long key = 0; key < KEYS; key++) {
+            assertTrue(sketch.estimate(key) >= 1L);
+        }
+    }
+}
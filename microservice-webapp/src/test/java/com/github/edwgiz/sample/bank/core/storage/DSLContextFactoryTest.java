@@ -9,6 +9,7 @@ import org.mockito.Mockito;
 
 import javax.sql.DataSource;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -16,6 +17,9 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class DSLContextFactoryTest {
 
+    private static final int TRANSACTION_LISTENERS = 2;
+    private static final int EXECUTE_LISTENERS = 3;
+
     @Test
         /* default */void test() {
         final DataSource dataSource = Mockito.mock(DataSource.class);
@@ -29,6 +33,8 @@ class DSLContextFactoryTest {
         assertTrue(conf.settings().isReturnIdentityOnUpdatableRecord());
         assertFalse(conf.settings().isRenderSchema());
         assertTrue(conf.transactionProvider() instanceof ThreadLocalTransactionProvider);
+        assertEquals(TRANSACTION_LISTENERS, conf.transactionListenerProviders().length);
+        assertEquals(EXECUTE_LISTENERS, conf.executeListenerProviders().length);
 
         final DSLContext dslCtxToDispose = Mockito.spy(dslCtx);
         dslCtxFctr.dispose(dslCtxToDispose);
@@ -0,0 +1,40 @@
+package com.github.edwgiz.sample.bank.core.storage;
+
+import com.github.edwgiz.sample.bank.core.metrics.Metrics;
+import org.h2.jdbcx.JdbcDataSource;
+import org.jooq.DSLContext;
+import org.jooq.ExecuteContext;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class DatabaseMetricsTest {
+
+    private static final String QUERY = "SELECT 1";
+
+    @Test
+    /* default */void testTransactions() {
+        final JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:metrics");
+        final Metrics metrics = new Metrics();
+        final DSLContext dslCtx = new DSLContextFactory(dataSource, metrics, new QueryStatistics()).provide();
+
+        dslCtx.transaction(cnf -> cnf.dsl().fetchOne(QUERY));
+        assertThrows(IllegalStateException.class, () -> dslCtx.transaction(cnf -> {
+            cnf.dsl().fetch(QUERY);
+            throw new IllegalStateException("test");
+        }));
+        new DatabaseMetrics(metrics).fetchEnd(mock(ExecuteContext.class)); // without a start, ignored
+
+        final String scrape = metrics.scrape();
+        assertTrue(scrape.contains("db_transaction_duration_seconds_count{outcome=\"commit\"} 1\n"), scrape);
+        assertTrue(scrape.contains("db_transaction_duration_seconds_count{outcome=\"rollback\"} 1\n"), scrape);
+        assertTrue(scrape.contains("db_phase_duration_seconds_count{phase=\"begin\"} 2\n"), scrape);
+        assertTrue(scrape.contains("db_phase_duration_seconds_count{phase=\"commit\"} 1\n"), scrape);
+        assertTrue(scrape.contains("db_phase_duration_seconds_count{phase=\"rollback\"} 1\n"), scrape);
+        assertTrue(scrape.contains("db_phase_duration_seconds_count{phase=\"execute\"} 2\n"), scrape);
+        assertTrue(scrape.contains("db_phase_duration_seconds_count{phase=\"fetch\"} 2\n"), scrape);
+    }
+}
@@ -0,0 +1,72 @@
+package com.github.edwgiz.sample.bank.core.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HeavyHittersTest {
+
+    private static final int CAPACITY = 4;
+    private static final int KEYS = 1000;
+    private static final long HOT_KEY1 = 7L;
+    private static final long HOT_KEY2 = 500L;
+    private static final long HOT_WEIGHT = 100L;
+    private static final long HOT_KEY2_PERIOD = 3L;
+    private static final int THREADS = 4;
+    private static final int ROUNDS = 1000;
+    private static final int THREAD_KEYS = 32;
+
+    @Test
+    /* default */void test() {
+        final HeavyHitters hitters = new HeavyHitters(CAPACITY);
+        for (long key = 0; key < KEYS; key++) {
+            hitters.add(key, 1L);
+            if (key % 2 == 0) {
+                hitters.add(HOT_KEY1, HOT_WEIGHT);
+            } else if (key % HOT_KEY2_PERIOD == 0) {
+                hitters.add(HOT_KEY2, HOT_WEIGHT);
+            }
+        }
+
+        final List<HeavyHitters.Hitter> top = hitters.top(2);
+        assertEquals(2, top.size());
+        assertEquals(HOT_KEY1, top.get(0).getKey());
+        assertEquals(HOT_KEY2, top.get(1).getKey());
+        final HeavyHitters.Hitter first = top.get(0);
+        final long actual = KEYS / 2 * HOT_WEIGHT + 1L;
+        assertTrue(first.getWeight() >= actual && first.getWeight() - first.getError() <= actual,
+                first.getWeight() + " - " + first.getError());
+        assertEquals(CAPACITY, hitters.top(KEYS).size());
+    }
+
+    @Test
+    /* default */void testConcurrent() throws InterruptedException {
+        final HeavyHitters hitters = new HeavyHitters(THREAD_KEYS);
+        final List<Thread> threads = new ArrayList<>(THREADS);
+        for (int i = 0; i < THREADS; i++) {
+            final Thread thread = new Thread(() -> {
+                for (int round = 0; round < ROUNDS; round++) {
+                    for (long key = 0; key < THREAD_KEYS; key++) {
+                        hitters.add(key, 1L);
+                    }
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (final Thread thread : threads) {
+            thread.join();
+        }
+
+        final List<HeavyHitters.Hitter> top = hitters.top(KEYS);
+        assertEquals(THREAD_KEYS, top.size());
+        for (final HeavyHitters.Hitter hitter : top) {
+            assertEquals((long) THREADS * ROUNDS, hitter.getWeight()); // no update is lost
+            assertEquals(0L, hitter.getError());
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.github.edwgiz.sample.bank.core.storage;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.jooq.DSLContext;
+import org.jooq.SQLDialect;
+import org.jooq.exception.DataAccessException;
+import org.jooq.impl.DSL;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MonthlyPartitionsTest {
+
+    private static final String TEMPLATE = "CREATE TABLE IF NOT EXISTS ${partition} ("
+            + " ID BIGINT PRIMARY KEY,"
+            + " PROCESSED TIMESTAMP NOT NULL CHECK (PROCESSED >= '${from}' AND PROCESSED < '${to}'));"
+            + "CREATE INDEX IF NOT EXISTS ${partition}__PROCESSED_IDX ON ${partition} (PROCESSED)";
+
+    private DSLContext dslCtx;
+
+    @BeforeEach
+    /* default */void setUp() {
+        final JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setUrl("jdbc:h2:mem:partitions;DB_CLOSE_DELAY=-1");
+        dslCtx = DSL.using(dataSource, SQLDialect.H2);
+    }
+
+    @AfterEach
+    /* default */void tearDown() {
+        dslCtx.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    /* default */void testNameOf() {
+        final MonthlyPartitions partitions = new MonthlyPartitions("ENTITY", TEMPLATE);
+        assertEquals("ENTITY_P202002", partitions.nameOf(LocalDateTime.parse("2020-02-29T23:59")));
+        assertEquals("ENTITY_P202003", partitions.nameOf(LocalDateTime.parse("2020-03-01T00:00")));
+    }
+
+    @Test
+    /* default */void testPrepare() {
+        final MonthlyPartitions partitions = new MonthlyPartitions("ENTITY", TEMPLATE);
+        final LocalDateTime january = LocalDateTime.parse("2020-01-31T23:59");
+        assertEquals(emptyList(), partitions.all());
+
+        partitions.prepare(dslCtx, january);
+        assertEquals(asList("ENTITY_P202001", "ENTITY_P202002"), partitions.all());
+        partitions.prepare(dslCtx, january); // idempotent
+        assertEquals(asList("ENTITY_P202001", "ENTITY_P202002"), partitions.all());
+        dslCtx.execute("INSERT INTO ENTITY_P202001 VALUES (1, '2020-01-31 23:59:00')");
+        dslCtx.execute("INSERT INTO ENTITY_P202002 VALUES (2, '2020-02-01 00:00:00')");
+        // partition bounds are checked by the template constraint
+        assertThrows(DataAccessException.class,
+                () -> dslCtx.execute("INSERT INTO ENTITY_P202002 VALUES (3, '2020-01-31 23:59:59')"));
+
+        final LocalDateTime february = LocalDateTime.parse("2020-02-01T00:00").plus(MonthlyPartitions.SEAL_DELAY);
+        partitions.prepare(dslCtx, february.minusSeconds(1L));
+        assertFalse(partitions.isSealed("ENTITY_P202001")); // still in the grace period
+        partitions.prepare(dslCtx, february);
+        partitions.prepare(dslCtx, february);
+        assertTrue(partitions.isSealed("ENTITY_P202001"));
+        assertFalse(partitions.isSealed("ENTITY_P202002"));
+        assertFalse(partitions.isSealed("UNKNOWN"));
+        assertEquals(asList("ENTITY_P202001", "ENTITY_P202002", "ENTITY_P202003"), partitions.all());
+
+        final DataAccessException ex = assertThrows(DataAccessException.class,
+                () -> dslCtx.execute("DELETE FROM ENTITY_P202001"));
+        assertTrue(ex.getMessage().contains("Table ENTITY_P202001 is read-only"));
+        assertEquals(1, dslCtx.fetchCount(DSL.table("ENTITY_P202001")));
+        dslCtx.execute("DELETE FROM ENTITY_P202002");
+        dslCtx.execute("DROP TABLE ENTITY_P202001"); // sealed partition still can be dropped
+    }
+
+    @Test
+    /* default */void testSealedBeforeAndDrop() {
+        final MonthlyPartitions partitions = new MonthlyPartitions("ENTITY", TEMPLATE);
+        partitions.prepare(dslCtx, LocalDateTime.parse("2020-01-15T00:00"));
+        partitions.prepare(dslCtx, LocalDateTime.parse("2020-03-15T00:00"));
+        assertEquals(emptyList(), partitions.sealedBefore(LocalDateTime.parse("2020-01-31T23:59")));
+        assertEquals(singletonList("ENTITY_P202001"), partitions.sealedBefore(LocalDateTime.parse("2020-02-01T00:00")));
+        assertEquals(asList("ENTITY_P202001", "ENTITY_P202002"),
+                partitions.sealedBefore(LocalDateTime.parse("2020-04-01T00:00"))); // March isn't sealed yet
+
+        partitions.drop(dslCtx, "ENTITY_P202001");
+        assertEquals(asList("ENTITY_P202002", "ENTITY_P202003", "ENTITY_P202004"), partitions.all());
+        assertThrows(DataAccessException.class, () -> dslCtx.fetchCount(DSL.table("ENTITY_P202001")));
+        partitions.drop(dslCtx, "ENTITY_P202001"); // idempotent
+    }
+
+    @Test
+    /* default */void testDiscover() {
+        final LocalDateTime january = LocalDateTime.parse("2020-01-15T00:00");
+        new MonthlyPartitions("ENTITY", TEMPLATE).prepare(dslCtx, january);
+        dslCtx.execute("CREATE TABLE ENTITY_PXXXXXX (ID BIGINT)");
+
+        final MonthlyPartitions partitions = new MonthlyPartitions("ENTITY", TEMPLATE);
+        partitions.discover(dslCtx);
+        assertEquals(asList("ENTITY_P202001", "ENTITY_P202002"), partitions.all());
+        assertFalse(partitions.isSealed("ENTITY_P202001"));
+        partitions.prepare(dslCtx, january.plusMonths(1L));
+        assertTrue(partitions.isSealed("ENTITY_P202001"));
+    }
+
+    @Test
+    /* default */void testCreate() {
+        final MonthlyPartitions partitions = new MonthlyPartitions("ENTITY", TEMPLATE);
+        partitions.create(dslCtx, LocalDateTime.parse("2019-11-30T23:59"), LocalDateTime.parse("2020-02-01T00:00"));
+        assertEquals(asList("ENTITY_P201911", "ENTITY_P201912", "ENTITY_P202001", "ENTITY_P202002"),
+                partitions.all());
+        assertFalse(partitions.isSealed("ENTITY_P201911"));
+        dslCtx.execute("INSERT INTO ENTITY_P201911 VALUES (1, '2019-11-01 00:00:00')");
+
+        partitions.prepare(dslCtx, LocalDateTime.parse("2020-02-15T00:00"));
+        assertTrue(partitions.isSealed("ENTITY_P202001"));
+        assertEquals(asList("ENTITY_P201911", "ENTITY_P201912", "ENTITY_P202001", "ENTITY_P202002",
+                "ENTITY_P202003"), partitions.all());
+    }
+
+    @Test
+    /* default */void testBetween() {
+        final MonthlyPartitions partitions = new MonthlyPartitions("ENTITY", TEMPLATE);
+        partitions.prepare(dslCtx, LocalDateTime.parse("2020-01-15T00:00"));
+        partitions.prepare(dslCtx, LocalDateTime.parse("2020-03-15T00:00"));
+
+        assertEquals(emptyList(), partitions.between(
+                LocalDateTime.parse("2019-01-01T00:00"), LocalDateTime.parse("2019-12-31T23:59")));
+        assertEquals(singletonList("ENTITY_P202002"), partitions.between(
+                LocalDateTime.parse("2020-02-10T00:00"), LocalDateTime.parse("2020-02-20T00:00")));
+        assertEquals(asList("ENTITY_P202001", "ENTITY_P202002", "ENTITY_P202003"), partitions.between(
+                LocalDateTime.parse("2019-01-01T00:00"), LocalDateTime.parse("2020-03-01T00:00")));
+        assertEquals(asList("ENTITY_P202001", "ENTITY_P202002", "ENTITY_P202003", "ENTITY_P202004"),
+                partitions.between(LocalDateTime.MIN, LocalDateTime.MAX));
+    }
+}
@@ -0,0 +1,48 @@
+package com.github.edwgiz.sample.bank.core.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class QueryStatisticsTest {
+
+    private static final long NANOS = 2_000_000L;
+    private static final double MILLIS = 2.0;
+    private static final double TOTAL_MILLIS = 6.0;
+    private static final double DELTA = 1e-9;
+
+    @Test
+    /* default */void testTop() {
+        final QueryStatistics statistics = new QueryStatistics();
+        statistics.record("select 1", NANOS, 1L);
+        statistics.record("select 2", NANOS, 1L);
+        statistics.record("select 2", NANOS * 2, -1L);
+
+        final List<StatementStats> top = statistics.top(1);
+        assertEquals(1, top.size());
+        final StatementStats stats = top.get(0);
+        assertEquals("select 2", stats.getSql());
+        assertEquals(2L, stats.getCount());
+        assertEquals(TOTAL_MILLIS, stats.getTotalMillis(), DELTA);
+        assertEquals(TOTAL_MILLIS / 2, stats.getMeanMillis(), DELTA);
+        assertEquals(MILLIS * 2, stats.getMaxMillis(), DELTA);
+        assertEquals(1L, stats.getRows());
+        assertEquals(2, statistics.top(QueryStatistics.MAX_STATEMENTS).size());
+    }
+
+    @Test
+    /* default */void testOther() {
+        final QueryStatistics statistics = new QueryStatistics();
+        for (int i = 0; i <= QueryStatistics.MAX_STATEMENTS; i++) {
+            statistics.record("select " + i, NANOS, 0L);
+        }
+        statistics.record("select 0", NANOS, 0L);
+        final List<StatementStats> top = statistics.top(QueryStatistics.MAX_STATEMENTS + 1);
+        assertEquals(QueryStatistics.MAX_STATEMENTS + 1, top.size());
+        assertEquals(2L, top.stream().filter(s -> "select 0".equals(s.getSql())).findAny().get().getCount());
+        assertEquals(1L, top.stream().filter(s -> QueryStatistics.OTHER.equals(s.getSql())).findAny().get()
+                .getCount());
+    }
+}
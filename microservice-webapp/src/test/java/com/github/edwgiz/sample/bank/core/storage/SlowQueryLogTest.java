@@ -0,0 +1,117 @@
+package com.github.edwgiz.sample.bank.core.storage;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.jooq.DSLContext;
+import org.jooq.ExecuteContext;
+import org.jooq.ExecuteType;
+import org.jooq.Query;
+import org.jooq.SQLDialect;
+import org.jooq.impl.DSL;
+import org.jooq.impl.DefaultConfiguration;
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.atMost;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class SlowQueryLogTest {
+
+    private static final long AWAIT_MILLIS = 10_000L;
+    private static final long NANOS = 2_000_000L;
+    private static final String SELECT = "select name from client where id = ?";
+
+    @Test
+    /* default */void testStatements() throws InterruptedException {
+        final JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:slowQueries;DB_CLOSE_DELAY=-1");
+        final QueryStatistics statistics = new QueryStatistics();
+        final SlowQueryLog log = new SlowQueryLog(dataSource, statistics, 0L, true);
+        final DSLContext dslCtx = DSL.using(new DefaultConfiguration().set(dataSource).set(SQLDialect.H2).set(log));
+
+        dslCtx.execute("create table client (id int primary key, name varchar(20))");
+        dslCtx.execute("insert into client values (?, ?)", 1, "secret");
+        dslCtx.transaction(cnf -> cnf.dsl().fetch(SELECT + " for update", 1));
+        assertEquals("secret", dslCtx.fetchValue(SELECT, 1));
+        dslCtx.batch("insert into client values (2, 'a')", "insert into client values (3, 'b')").execute();
+        assertTrue(log.awaitPlans(AWAIT_MILLIS));
+
+        final List<StatementStats> top = statistics.top(QueryStatistics.MAX_STATEMENTS);
+        final StatementStats select = top.stream().filter(s -> SELECT.equals(s.getSql())).findAny().get();
+        assertEquals(1L, select.getCount());
+        assertEquals(1L, select.getRows());
+    }
+
+    @Test
+    /* default */void testLine() throws SQLException {
+        final JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:slowQueryLine");
+        final ExecuteContext ctx = context("select ?, ? from dual", ExecuteType.READ, 1, "secret");
+
+        final SlowQueryLog.SlowQuery redacted = slowQuery(dataSource, true, ctx);
+        final String line = redacted.line("plan \"of\" a\\b\n");
+        assertEquals("slow query millis=\"2.0\" rows=\"1\" sql=\"select ?, ? from dual\""
+                + " binds=\"[<Integer>, <String>]\" plan=\"plan \\\"of\\\" a\\\\b\\n\"", line);
+        assertTrue(slowQuery(dataSource, false, ctx).line("").contains("binds=\"[1, secret]\""));
+
+        final String plan = redacted.plan();
+        assertTrue(plan.startsWith("SELECT"), plan);
+
+        final DataSource failing = mock(DataSource.class);
+        doThrow(new SQLException("test")).when(failing).getConnection();
+        assertEquals("unavailable: test", slowQuery(failing, true, ctx).plan());
+    }
+
+    @Test
+    /* default */void testSkipped() throws SQLException, InterruptedException {
+        final JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:slowQuerySkipped");
+        final CountDownLatch release = new CountDownLatch(1);
+        final DataSource blocked = mock(DataSource.class);
+        doAnswer(invocation -> {
+            release.await();
+            return dataSource.getConnection();
+        }).when(blocked).getConnection();
+        final SlowQueryLog log = new SlowQueryLog(blocked, new QueryStatistics(), 0L, true);
+
+        final ExecuteContext ctx = context("select ?", ExecuteType.WRITE, 1);
+        final int planned = 17; // the executing one and the pending ones
+        final int statements = planned + 3;
+        for (int i = 0; i < statements; i++) {
+            log.executeStart(ctx);
+            log.end(ctx);
+        }
+        release.countDown();
+        assertTrue(log.awaitPlans(AWAIT_MILLIS));
+        verify(blocked, atMost(planned)).getConnection(); // the others are logged without the plans
+    }
+
+    private static ExecuteContext context(final String sql, final ExecuteType type, final Object... values) {
+        final Query query = mock(Query.class);
+        doReturn(Arrays.asList(values)).when(query).getBindValues();
+        final ExecuteContext result = mock(ExecuteContext.class);
+        doReturn(sql).when(result).sql();
+        doReturn(query).when(result).query();
+        doReturn(type).when(result).type();
+        doReturn(1).when(result).rows();
+        doReturn(System.nanoTime()).when(result).data(anyString());
+        return result;
+    }
+
+    private static SlowQueryLog.SlowQuery slowQuery(final DataSource dataSource, final boolean redact,
+            final ExecuteContext ctx) {
+        final SlowQueryLog log = new SlowQueryLog(dataSource, new QueryStatistics(), 0L, redact);
+        return new SlowQueryLog.SlowQuery(log, ctx, NANOS, 1L);
+    }
+}
@@ -0,0 +1,74 @@
+package com.github.edwgiz.sample.bank.core.storage;
+
+import com.github.edwgiz.sample.bank.core.metrics.Metrics;
+import com.github.edwgiz.sample.bank.core.tracing.SpanData;
+import com.github.edwgiz.sample.bank.core.tracing.SpanExporter;
+import com.github.edwgiz.sample.bank.core.tracing.SpanKind;
+import com.github.edwgiz.sample.bank.core.tracing.TraceSpan;
+import com.github.edwgiz.sample.bank.core.tracing.Tracer;
+import org.h2.jdbcx.JdbcDataSource;
+import org.jooq.DSLContext;
+import org.jooq.exception.DataAccessException;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class TracingListenerTest {
+
+    private static final String QUERY = "SELECT 1";
+    private static final int CAPACITY = 64;
+    private static final int SPANS = 5;
+    private static final int ROLLED_BACK = 2;
+    private static final int FAILED = 3;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    /* default */void testSpans() throws IOException {
+        final JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:tracing");
+        final DSLContext dslCtx = new DSLContextFactory(dataSource).provide();
+        final SpanExporter exporter = mock(SpanExporter.class);
+        final Tracer tracer = new Tracer(new Metrics(), 1.0, exporter, CAPACITY);
+
+        dslCtx.fetchOne(QUERY); // outside a request, not traced
+        final TraceSpan request = tracer.startServer(null, "GET");
+        dslCtx.transaction(cnf -> cnf.dsl().fetchOne(QUERY));
+        assertThrows(IllegalStateException.class, () -> dslCtx.transaction(cnf -> {
+            throw new IllegalStateException("test");
+        }));
+        assertThrows(DataAccessException.class, () -> dslCtx.fetch("SELECT * FROM MISSING"));
+        request.end();
+        tracer.flush();
+
+        final ArgumentCaptor<List<SpanData>> captor = ArgumentCaptor.forClass(List.class);
+        verify(exporter, atLeastOnce()).export(captor.capture());
+        final List<SpanData> spans = new ArrayList<>();
+        captor.getAllValues().forEach(spans::addAll);
+        assertEquals(SPANS, spans.size());
+        final SpanData statement = spans.get(0);
+        assertEquals("sql read", statement.getName());
+        assertEquals(SpanKind.CLIENT, statement.getKind());
+        assertEquals("select 1", statement.getStatement().toLowerCase(Locale.ROOT));
+        assertFalse(statement.isError());
+        final SpanData committed = spans.get(1);
+        assertEquals("transaction", committed.getName());
+        assertEquals(committed.getSpanId(), statement.getParentSpanId());
+        assertFalse(committed.isError());
+        assertTrue(spans.get(ROLLED_BACK).isError());
+        assertEquals("sql read", spans.get(FAILED).getName());
+        assertTrue(spans.get(FAILED).isError()); // missing table
+        tracer.close();
+    }
+}
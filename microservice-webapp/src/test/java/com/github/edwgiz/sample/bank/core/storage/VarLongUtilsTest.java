@@ -0,0 +1,42 @@
+package com.github.edwgiz.sample.bank.core.storage;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+class VarLongUtilsTest {
+
+    private static final long ONE_BYTE_MAX = 0x7fL;
+    private static final long ONE_BYTE_SIGNED_MIN = -0x40L;
+    private static final long[] VALUES = {0L, 1L, -1L, 127L, 128L, -129L, 300L, Long.MAX_VALUE, Long.MIN_VALUE};
+
+    @Test
+    /* default */void test() {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (final long value : VALUES) {
+            VarLongUtils.write(out, value);
+            VarLongUtils.writeSigned(out, value);
+        }
+        final ByteBuffer in = ByteBuffer.wrap(out.toByteArray());
+        for (final long value : VALUES) {
+            assertEquals(value, VarLongUtils.read(in));
+            assertEquals(value, VarLongUtils.readSigned(in));
+        }
+        assertFalse(in.hasRemaining());
+    }
+
+    @Test
+    /* default */void testSize() {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        VarLongUtils.write(out, ONE_BYTE_MAX);
+        VarLongUtils.writeSigned(out, ONE_BYTE_SIGNED_MIN);
+        assertEquals(2, out.size());
+        out.reset();
+        VarLongUtils.write(out, ONE_BYTE_MAX + 1L);
+        assertEquals(2, out.size());
+    }
+}
@@ -0,0 +1,51 @@
+package com.github.edwgiz.sample.bank.core.tracing;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class JsonLinesSpanExporterTest {
+
+    private static final long TRACE_ID_HIGH = 0x4bf92f3577b34da6L;
+    private static final long TRACE_ID_LOW = 0xa3ce929d0e0e4736L;
+    private static final long SPAN_ID = 0xb7ad6b7169203331L;
+    private static final long PARENT_ID = 0x00f067aa0ba902b7L;
+    private static final long START = 1_600_000_000_000_000_000L;
+    private static final long END = 1_600_000_000_001_500_000L;
+    private static final int CREATED = 201;
+
+    @Test
+    /* default */void testExport() throws IOException {
+        final Path file = Files.createTempFile("spans", ".jsonl");
+        try {
+            final JsonLinesSpanExporter exporter = new JsonLinesSpanExporter(file);
+            exporter.export(Arrays.asList(
+                    new SpanData(TRACE_ID_HIGH, TRACE_ID_LOW, SPAN_ID, PARENT_ID, SpanKind.CLIENT, "sql write",
+                            "update \"a\"", START, END, 0, true),
+                    new SpanData(TRACE_ID_HIGH, TRACE_ID_LOW, PARENT_ID, 0L, SpanKind.SERVER,
+                            "PaymentEndpoint.create", null, START, END, CREATED, false)));
+            exporter.close();
+
+            final List<String> lines = Files.readAllLines(file, UTF_8);
+            assertEquals(Arrays.asList(
+                    "{\"traceId\":\"4bf92f3577b34da6a3ce929d0e0e4736\",\"spanId\":\"b7ad6b7169203331\","
+                            + "\"parentSpanId\":\"00f067aa0ba902b7\",\"name\":\"sql write\",\"kind\":\"CLIENT\","
+                            + "\"startTimeUnixNano\":1600000000000000000,\"endTimeUnixNano\":1600000000001500000,"
+                            + "\"statement\":\"update \\\"a\\\"\",\"error\":true}",
+                    "{\"traceId\":\"4bf92f3577b34da6a3ce929d0e0e4736\",\"spanId\":\"00f067aa0ba902b7\","
+                            + "\"name\":\"PaymentEndpoint.create\",\"kind\":\"SERVER\","
+                            + "\"startTimeUnixNano\":1600000000000000000,\"endTimeUnixNano\":1600000000001500000,"
+                            + "\"status\":201}"),
+                    lines);
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
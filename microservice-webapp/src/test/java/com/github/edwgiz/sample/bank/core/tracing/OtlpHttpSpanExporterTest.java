@@ -0,0 +1,91 @@
+package com.github.edwgiz.sample.bank.core.tracing;
+
+import org.glassfish.grizzly.http.server.HttpHandler;
+import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.grizzly.http.server.Request;
+import org.glassfish.grizzly.http.server.Response;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Exports to a local stub of the collector.
+ */
+class OtlpHttpSpanExporterTest {
+
+    private static final long TRACE_ID_HIGH = 0x4bf92f3577b34da6L;
+    private static final long TRACE_ID_LOW = 0xa3ce929d0e0e4736L;
+    private static final long SPAN_ID = 0xb7ad6b7169203331L;
+    private static final long PARENT_ID = 0x00f067aa0ba902b7L;
+    private static final long START = 1_600_000_000_000_000_000L;
+    private static final long END = 1_600_000_000_001_500_000L;
+    private static final int OK = 200;
+    private static final int CONFLICT = 409;
+    private static final int UNAVAILABLE = 503;
+    private static final int BUFFER = 1024;
+    private static final String EXPECTED = "{\"resourceSpans\":[{\"resource\":{\"attributes\":[{\"key\":"
+            + "\"service.name\",\"value\":{\"stringValue\":\"bank\"}}]},\"scopeSpans\":[{\"scope\":{\"name\":"
+            + "\"com.github.edwgiz.sample.bank.core.tracing\"},\"spans\":[{\"traceId\":"
+            + "\"4bf92f3577b34da6a3ce929d0e0e4736\",\"spanId\":\"b7ad6b7169203331\",\"parentSpanId\":"
+            + "\"00f067aa0ba902b7\",\"name\":\"PaymentEndpoint.create\",\"kind\":2,\"startTimeUnixNano\":"
+            + "\"1600000000000000000\",\"endTimeUnixNano\":\"1600000000001500000\",\"attributes\":[{\"key\":"
+            + "\"http.status_code\",\"value\":{\"intValue\":\"409\"}}],\"status\":{\"code\":2}},{\"traceId\":"
+            + "\"4bf92f3577b34da6a3ce929d0e0e4736\",\"spanId\":\"00f067aa0ba902b7\",\"name\":\"sql read\","
+            + "\"kind\":3,\"startTimeUnixNano\":\"1600000000000000000\",\"endTimeUnixNano\":"
+            + "\"1600000000001500000\",\"attributes\":[{\"key\":\"db.statement\",\"value\":{\"stringValue\":"
+            + "\"select 1\"}}]}]}]}]}";
+
+    @Test
+    /* default */void testExport() throws IOException {
+        final AtomicReference<String> body = new AtomicReference<>();
+        final AtomicInteger status = new AtomicInteger(OK);
+        final int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        final HttpServer collector = HttpServer.createSimpleServer(null, "localhost", port);
+        collector.getServerConfiguration().addHttpHandler(new HttpHandler() {
+            @Override
+            public void service(final Request request, final Response response) throws IOException {
+                final StringBuilder out = new StringBuilder(request.getContentType()).append(' ');
+                final char[] buffer = new char[BUFFER];
+                request.setCharacterEncoding(UTF_8.name());
+                for (int read = request.getReader().read(buffer); read >= 0;
+                     read = request.getReader().read(buffer)) {
+                    out.append(buffer, 0, read);
+                }
+                body.set(out.toString());
+                response.setStatus(status.get());
+            }
+        }, "/v1/traces");
+        collector.start();
+        try {
+            final URL url = new URL("http://localhost:" + port + "/v1/traces");
+            final OtlpHttpSpanExporter exporter = new OtlpHttpSpanExporter(url, "bank");
+            final List<SpanData> spans = Arrays.asList(
+                    new SpanData(TRACE_ID_HIGH, TRACE_ID_LOW, SPAN_ID, PARENT_ID, SpanKind.SERVER,
+                            "PaymentEndpoint.create", null, START, END, CONFLICT, true),
+                    new SpanData(TRACE_ID_HIGH, TRACE_ID_LOW, PARENT_ID, 0L, SpanKind.CLIENT, "sql read",
+                            "select 1", START, END, 0, false));
+            exporter.export(spans);
+            assertEquals("application/json " + EXPECTED, body.get());
+
+            status.set(UNAVAILABLE);
+            assertThrows(IOException.class, () -> exporter.export(Collections.singletonList(spans.get(1))));
+            exporter.close();
+        } finally {
+            collector.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.github.edwgiz.sample.bank.core.tracing;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.NullSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TraceparentUtilsTest {
+
+    private static final String SAMPLED = "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01";
+    private static final String NOT_SAMPLED = "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-00";
+    private static final long TRACE_ID_HIGH = 0x4bf92f3577b34da6L;
+    private static final long TRACE_ID_LOW = 0xa3ce929d0e0e4736L;
+    private static final long PARENT_ID = 0x00f067aa0ba902b7L;
+
+    @Test
+    /* default */void testParse() {
+        final TraceSpan span = new TraceSpan(new SpanStack(), 0);
+        assertTrue(TraceparentUtils.parse(SAMPLED, span));
+        assertEquals(TRACE_ID_HIGH, span.getTraceIdHigh());
+        assertEquals(TRACE_ID_LOW, span.getTraceIdLow());
+        assertEquals(PARENT_ID, span.getParentSpanId());
+        assertTrue(span.isSampled());
+
+        assertTrue(TraceparentUtils.parse(NOT_SAMPLED, span));
+        assertFalse(span.isSampled());
+        assertTrue(TraceparentUtils.parse("01" + SAMPLED.substring(2) + "-future", span));
+        assertTrue(span.isSampled());
+    }
+
+    @ParameterizedTest
+    @NullSource
+    @ValueSource(strings = {
+            "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7",
+            "00-4BF92F3577B34DA6A3CE929D0E0E4736-00F067AA0BA902B7-01",
+            "0x-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01",
+            "00_4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01",
+            "00-4bf92f3577b34da6a3ce929d0e0e4736_00f067aa0ba902b7-01",
+            "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7_01",
+            "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-0x",
+            "ff-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01",
+            "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01-",
+            "01-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01_",
+            "00-00000000000000000000000000000000-00f067aa0ba902b7-01",
+            "00-4bf92f3577b34da6a3ce929d0e0e4736-0000000000000000-01",
+    })
+    /* default */void testParseInvalid(final String header) {
+        assertFalse(TraceparentUtils.parse(header, new TraceSpan(new SpanStack(), 0)));
+    }
+
+    @Test
+    /* default */void testFormat() {
+        assertEquals(SAMPLED, TraceparentUtils.format(TRACE_ID_HIGH, TRACE_ID_LOW, PARENT_ID, true));
+        assertEquals(NOT_SAMPLED, TraceparentUtils.format(TRACE_ID_HIGH, TRACE_ID_LOW, PARENT_ID, false));
+        assertEquals("00f067aa0ba902b7", TraceparentUtils.hex(PARENT_ID));
+    }
+}
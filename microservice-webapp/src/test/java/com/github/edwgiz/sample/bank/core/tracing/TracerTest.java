@@ -0,0 +1,196 @@
+package com.github.edwgiz.sample.bank.core.tracing;
+
+import com.github.edwgiz.sample.bank.core.metrics.Metrics;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class TracerTest {
+
+    private static final String TRACEPARENT = "00-4bf92f3577b34da6a3ce929d0e0e4736-00f067aa0ba902b7-01";
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+    private static final int CAPACITY = 16;
+    private static final int OVERFLOW = 20;
+    private static final int TOO_DEEP = 40;
+    private static final int CREATED = 201;
+    private static final int SPANS = 3;
+
+    @Test
+    /* default */void testSpans() throws IOException {
+        final Metrics metrics = new Metrics();
+        final SpanExporter exporter = mock(SpanExporter.class);
+        final Tracer tracer = new Tracer(metrics, 0.0, exporter, CAPACITY);
+        assertNull(Tracer.start(SpanKind.INTERNAL, "outside"));
+
+        final TraceSpan server = tracer.startServer(TRACEPARENT, "POST");
+        assertSame(server, Tracer.current());
+        assertTrue(server.traceparent().startsWith("00-" + TRACE_ID + '-'));
+        final TraceSpan transaction = Tracer.start(SpanKind.INTERNAL, "transaction");
+        final TraceSpan statement = Tracer.start(SpanKind.CLIENT, "sql read");
+        statement.setStatement("SELECT 1");
+        statement.fail();
+        statement.end();
+        statement.end(); // ended, ignored
+        Tracer.start(SpanKind.CLIENT, "abandoned");
+        transaction.end();
+        server.setName("PaymentEndpoint.create");
+        server.setStatus(CREATED);
+        server.end();
+        assertNull(Tracer.current());
+        assertEquals(SPANS, tracer.flush());
+
+        final List<SpanData> spans = exported(exporter);
+        final SpanData sql = spans.get(0);
+        assertEquals(TRACE_ID, sql.getTraceId());
+        assertEquals(SpanKind.CLIENT, sql.getKind());
+        assertEquals("sql read", sql.getName());
+        assertEquals("SELECT 1", sql.getStatement());
+        assertTrue(sql.isError());
+        assertEquals(spans.get(1).getSpanId(), sql.getParentSpanId());
+        assertTrue(sql.getEndEpochNanos() >= sql.getStartEpochNanos());
+        final SpanData request = spans.get(2);
+        assertEquals("PaymentEndpoint.create", request.getName());
+        assertEquals(SpanKind.SERVER, request.getKind());
+        assertEquals("00f067aa0ba902b7", request.getParentSpanId());
+        assertEquals(CREATED, request.getStatus());
+        assertFalse(request.isError());
+        assertEquals(request.getSpanId(), spans.get(1).getParentSpanId());
+
+        final String scrape = metrics.scrape();
+        assertTrue(scrape.contains("tracing_spans_recorded_total 3.0\n"), scrape);
+        assertTrue(scrape.contains("tracing_spans_exported_total 3\n"), scrape);
+        tracer.close();
+        verify(exporter).close();
+    }
+
+    @Test
+    /* default */void testSampling() throws IOException {
+        final SpanExporter exporter = mock(SpanExporter.class);
+        final Tracer never = new Tracer(new Metrics(), 0.0, exporter, CAPACITY);
+        final TraceSpan span = never.startServer(null, "GET");
+        assertFalse(span.isSampled());
+        assertTrue(span.traceparent().endsWith("-00"));
+        span.end();
+        assertEquals(0, never.flush());
+
+        final Tracer always = new Tracer(new Metrics(), 1.0, exporter, CAPACITY);
+        final TraceSpan root = always.startServer("invalid", "GET");
+        assertTrue(root.isSampled());
+        root.end();
+        assertEquals(1, always.flush());
+        assertNull(exported(exporter).get(0).getParentSpanId());
+        never.close();
+        always.close();
+    }
+
+    @Test
+    /* default */void testWithoutExporter() {
+        final Metrics metrics = new Metrics();
+        final Tracer tracer = new Tracer(metrics, 1.0, null, CAPACITY);
+        final TraceSpan span = tracer.startServer(null, "GET");
+        assertTrue(span.isSampled());
+        span.end();
+        assertEquals(0, tracer.flush());
+        tracer.close();
+        assertTrue(metrics.scrape().contains("tracing_spans_recorded_total 0.0\n"));
+    }
+
+    @Test
+    /* default */void testDepth() {
+        final Tracer tracer = new Tracer(new Metrics(), 1.0, null, CAPACITY);
+        final TraceSpan server = tracer.startServer(null, "GET");
+        TraceSpan deepest = server;
+        for (int i = 0; i < TOO_DEEP && deepest != null; i++) {
+            deepest = Tracer.start(SpanKind.INTERNAL, "nested");
+        }
+        assertNull(deepest);
+        server.end();
+        assertNull(Tracer.current());
+    }
+
+    @Test
+    /* default */void testOtherThread() throws Exception {
+        final Tracer tracer = new Tracer(new Metrics(), 1.0, null, CAPACITY);
+        final TraceSpan span = tracer.startServer(null, "GET");
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            assertFalse(executor.submit(span::isActive).get());
+            executor.submit(span::end).get();
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue(span.isActive());
+        span.end();
+        assertFalse(span.isActive());
+    }
+
+    @Test
+    /* default */void testDropped() throws IOException {
+        final Metrics metrics = new Metrics();
+        final SpanExporter exporter = mock(SpanExporter.class);
+        final Tracer tracer = new Tracer(metrics, 1.0, exporter, CAPACITY - 1);
+        for (int i = 0; i < OVERFLOW; i++) {
+            tracer.startServer(null, "GET").end();
+        }
+        assertEquals(CAPACITY, tracer.flush());
+        assertTrue(metrics.scrape().contains("tracing_spans_dropped_total 4.0\n"), metrics.scrape());
+        tracer.close();
+    }
+
+    @Test
+    /* default */void testExportFailure() throws IOException {
+        final Metrics metrics = new Metrics();
+        final SpanExporter exporter = mock(SpanExporter.class);
+        doThrow(new IOException("test")).when(exporter).export(any());
+        doThrow(new IOException("test")).when(exporter).close();
+        final Tracer tracer = new Tracer(metrics, 1.0, exporter, CAPACITY);
+        tracer.startServer(null, "GET").end();
+        assertEquals(0, tracer.flush());
+        tracer.close();
+        assertTrue(metrics.scrape().contains("tracing_export_failures_total 1\n"), metrics.scrape());
+    }
+
+    @Test
+    /* default */void testCreate() throws IOException {
+        final Metrics metrics = new Metrics();
+        try {
+            Tracer.create(metrics).close();
+            System.setProperty(Tracer.SYSTEM_PROPERTY_EXPORT_FILE, "target/tracer-test-spans.jsonl");
+            Tracer.create(metrics).close();
+            System.setProperty(Tracer.SYSTEM_PROPERTY_EXPORT_URL, "http://localhost:4318/v1/traces");
+            Tracer.create(metrics).close();
+            System.setProperty(Tracer.SYSTEM_PROPERTY_EXPORT_URL, "unknown://localhost");
+            assertThrows(UncheckedIOException.class, () -> Tracer.create(metrics));
+        } finally {
+            System.clearProperty(Tracer.SYSTEM_PROPERTY_EXPORT_FILE);
+            System.clearProperty(Tracer.SYSTEM_PROPERTY_EXPORT_URL);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<SpanData> exported(final SpanExporter exporter) throws IOException {
+        final ArgumentCaptor<List<SpanData>> captor = ArgumentCaptor.forClass(List.class);
+        verify(exporter, atLeastOnce()).export(captor.capture());
+        final List<SpanData> result = new ArrayList<>();
+        captor.getAllValues().forEach(result::addAll);
+        return result;
+    }
+}
@@ -0,0 +1,222 @@
+package com.github.edwgiz.sample.bank.core.webapp;
+
+import com.github.edwgiz.sample.bank.core.metrics.Metrics;
+import com.github.edwgiz.sample.bank.core.webapp.binary.BinaryClient;
+import com.github.edwgiz.sample.bank.core.webapp.binary.BinaryCodecUtils;
+import com.github.edwgiz.sample.bank.core.webapp.binary.BinaryFrame;
+import com.github.edwgiz.sample.bank.core.webapp.binary.BinaryFrameFilter;
+import com.github.edwgiz.sample.bank.core.webapp.binary.BinaryRoute;
+import com.github.edwgiz.sample.bank.core.webapp.binary.BinaryServerFilter;
+import com.github.edwgiz.sample.bank.core.webapp.commons.ValidationUtils;
+import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.jersey.grizzly2.httpserver.GrizzlyHttpServerFactory;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static javax.ws.rs.core.Response.Status.CONFLICT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Serves the binary requests by a real server on a local port.
+ */
+class BinaryListenerTest {
+
+    private static final int ECHO = 1;
+    private static final int EMPTY = 2;
+    private static final int FAIL = 3;
+    private static final int WAIT = 4;
+    private static final int HOLD = 5;
+    private static final int UNKNOWN = 9;
+    private static final int FRAMES = 3;
+    private static final int STATUS_OK = 200;
+    private static final int NO_CONTENT = 204;
+    private static final int BAD_REQUEST = 400;
+    private static final int SERVICE_UNAVAILABLE = 503;
+    private static final long TIMEOUT_SECONDS = 10L;
+    private static final CountDownLatch RELEASE = new CountDownLatch(1);
+    private static final CountDownLatch RELEASE_HELD = new CountDownLatch(1);
+
+    @Test
+    /* default */void testServe() throws IOException, InterruptedException, ExecutionException, TimeoutException {
+        final int port = freePort();
+        final HttpServer server = GrizzlyHttpServerFactory.createHttpServer(URI.create("http://localhost:"
+                + freePort() + '/'), new ResourceConfig(), false);
+        final Metrics metrics = new Metrics();
+        BinaryListener.attach(server, "localhost", port, Route.class, metrics);
+        server.start();
+        try (BinaryClient client = BinaryClient.connect("localhost", port)) {
+            final CompletableFuture<BinaryFrame> waiting = client.send(WAIT, new byte[0]);
+            // the later requests of the connection complete before the waiting one
+            final BinaryFrame echo = client.send(ECHO, string("hello")).get(TIMEOUT_SECONDS, SECONDS);
+            assertEquals(STATUS_OK, echo.getCode());
+            assertEquals("hello", BinaryCodecUtils.readString(echo.input()));
+            assertEquals(NO_CONTENT, client.send(EMPTY, new byte[0]).get().getCode());
+            assertFalse(waiting.isDone());
+            assertEquals(1, client.getPending());
+            RELEASE.countDown();
+            assertEquals(STATUS_OK, waiting.get(TIMEOUT_SECONDS, SECONDS).getCode());
+
+            assertResponse(CONFLICT.getStatusCode(), "locked", client.send(FAIL, new byte[0]).get());
+            assertResponse(BAD_REQUEST, "Truncated message", client.send(ECHO, new byte[0]).get());
+            final BinaryFrame unknown = client.send(UNKNOWN, new byte[0]).get();
+            assertResponse(BAD_REQUEST, "Unknown message type " + UNKNOWN, unknown);
+            assertTrue(unknown.toString().startsWith("BinaryFrame{id="), unknown.toString());
+
+            // the server closes the connection sending a too long frame
+            final CompletableFuture<BinaryFrame> tooLong = client.send(ECHO, new byte[BinaryFrameFilter.MAX_LENGTH]);
+            assertTrue(assertThrows(ExecutionException.class, tooLong::get).getCause() instanceof IOException);
+        } finally {
+            server.shutdownNow();
+        }
+        final String scrape = metrics.scrape();
+        assertTrue(scrape.contains("http_request_duration_seconds_count{resource=\"Route.echo\"} 2\n"), scrape);
+        assertTrue(scrape.contains("http_responses_total{resource=\"Route.fail\",status=\"409\"} 1\n"), scrape);
+    }
+
+    @Test
+    /* default */void testPipelinedFrames() throws IOException {
+        final int port = freePort();
+        final HttpServer server = GrizzlyHttpServerFactory.createHttpServer(URI.create("http://localhost:"
+                + freePort() + '/'), new ResourceConfig(), false);
+        BinaryListener.attach(server, "localhost", port, Route.class, new Metrics());
+        server.start();
+        try (Socket socket = new Socket("localhost", port)) {
+            final ByteArrayOutputStream frames = new ByteArrayOutputStream();
+            final DataOutputStream out = new DataOutputStream(frames);
+            for (int id = 1; id <= FRAMES; id++) {
+                out.writeInt(BinaryFrame.HEADER_BYTES - BinaryFrame.LENGTH_BYTES);
+                out.writeInt(id);
+                out.writeShort(EMPTY);
+            }
+            final OutputStream socketOut = socket.getOutputStream();
+            final DataInputStream in = new DataInputStream(socket.getInputStream());
+            // the frames are split in their length and then in their header, which wait for the rest
+            final int[] splits = {BinaryFrame.HEADER_BYTES + 1,
+                2 * BinaryFrame.HEADER_BYTES + BinaryFrame.LENGTH_BYTES + 1, frames.size()};
+            int offset = 0;
+            for (final int split : splits) {
+                socketOut.write(frames.toByteArray(), offset, split - offset);
+                socketOut.flush();
+                assertEmptyResponse(in);
+                offset = split;
+            }
+            new DataOutputStream(socketOut).writeInt(0); // invalid length
+            assertEquals(-1, in.read()); // closed
+        } finally {
+            server.shutdownNow();
+        }
+    }
+
+    @Test
+    /* default */void testInFlightLimit() throws IOException, InterruptedException, ExecutionException,
+            TimeoutException {
+        final int port = freePort();
+        final HttpServer server = GrizzlyHttpServerFactory.createHttpServer(URI.create("http://localhost:"
+                + freePort() + '/'), new ResourceConfig(), false);
+        BinaryListener.attach(server, "localhost", port, Route.class, new Metrics());
+        server.start();
+        try (BinaryClient client = BinaryClient.connect("localhost", port)) {
+            final List<CompletableFuture<BinaryFrame>> held = new ArrayList<>(BinaryServerFilter.MAX_IN_FLIGHT);
+            for (int i = 0; i < BinaryServerFilter.MAX_IN_FLIGHT; i++) {
+                held.add(client.send(HOLD, new byte[0]));
+            }
+            assertResponse(SERVICE_UNAVAILABLE, "Too many requests in flight",
+                    client.send(EMPTY, new byte[0]).get(TIMEOUT_SECONDS, SECONDS));
+            RELEASE_HELD.countDown();
+            for (final CompletableFuture<BinaryFrame> response : held) {
+                assertEquals(STATUS_OK, response.get(TIMEOUT_SECONDS, SECONDS).getCode());
+            }
+            assertEquals(NO_CONTENT, client.send(EMPTY, new byte[0]).get(TIMEOUT_SECONDS, SECONDS).getCode());
+        } finally {
+            server.shutdownNow();
+        }
+    }
+
+    @Test
+    /* default */void testConnectFailure() throws IOException {
+        final int port = freePort();
+        assertThrows(IOException.class, () -> BinaryClient.connect("localhost", port));
+    }
+
+    private static void assertEmptyResponse(final DataInputStream in) throws IOException {
+        assertEquals(BinaryFrame.HEADER_BYTES - BinaryFrame.LENGTH_BYTES, in.readInt());
+        assertTrue(in.readInt() > 0);
+        assertEquals(NO_CONTENT, in.readShort());
+    }
+
+    private static void assertResponse(final int status, final String message, final BinaryFrame response) {
+        assertEquals(status, response.getCode());
+        assertEquals(message, response.getMessage());
+    }
+
+    private static byte[] string(final String value) throws IOException {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        BinaryCodecUtils.writeString(new DataOutputStream(bytes), value);
+        return bytes.toByteArray();
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    /**
+     * Echoes a string, responds with no content, fails or waits for {@link #RELEASE} or {@link #RELEASE_HELD}.
+     */
+    public static final class Route implements BinaryRoute {
+
+        @Override
+        public Map<Integer, String> resources() {
+            final Map<Integer, String> result = new HashMap<>();
+            result.put(ECHO, "Route.echo");
+            result.put(EMPTY, "Route.empty");
+            result.put(FAIL, "Route.fail");
+            result.put(WAIT, "Route.wait");
+            result.put(HOLD, "Route.hold");
+            return result;
+        }
+
+        @Override
+        public int serve(final int type, final DataInput request, final DataOutput response) throws IOException {
+            int status = STATUS_OK;
+            if (type == ECHO) {
+                BinaryCodecUtils.writeString(response, BinaryCodecUtils.readString(request));
+            } else if (type == EMPTY) {
+                status = NO_CONTENT;
+            } else if (type == FAIL) {
+                throw ValidationUtils.exception(CONFLICT, "locked");
+            } else {
+                try {
+                    (type == HOLD ? RELEASE_HELD : RELEASE).await(TIMEOUT_SECONDS, SECONDS);
+                } catch (InterruptedException ex) {
+                    throw new IOException(ex);
+                }
+            }
+            return status;
+        }
+    }
+}
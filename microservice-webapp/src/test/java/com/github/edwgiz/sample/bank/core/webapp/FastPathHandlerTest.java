@@ -0,0 +1,124 @@
+package com.github.edwgiz.sample.bank.core.webapp;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.github.edwgiz.sample.bank.core.metrics.Metrics;
+import com.github.edwgiz.sample.bank.core.webapp.commons.ValidationUtils;
+import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.grizzly.http.server.Request;
+import org.glassfish.grizzly.http.server.Response;
+import org.glassfish.jersey.grizzly2.httpserver.GrizzlyHttpServerFactory;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.junit.jupiter.api.Test;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.URL;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static javax.ws.rs.core.Response.Status.CONFLICT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Serves the requests by a real server on a local port.
+ */
+class FastPathHandlerTest {
+
+    private static final int OK = 200;
+    private static final int NO_CONTENT = 204;
+    private static final int BAD_REQUEST = 400;
+    private static final int BUFFER = 256;
+
+    @Test
+    /* default */void testService() throws IOException {
+        final int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        final HttpServer server = GrizzlyHttpServerFactory.createHttpServer(
+                URI.create("http://localhost:" + port + '/'),
+                new ResourceConfig().register(Items.class).register(new ThrowableExceptionMapper()), false);
+        final Metrics metrics = new Metrics();
+        FastPathHandler.attach(server, Route.class, metrics);
+        server.start();
+        try {
+            final String base = "http://localhost:" + port + "/items";
+            assertEquals(OK + " jax-rs", get(base));
+            assertEquals(OK + " fast", get(base + "/fast"));
+            assertEquals(NO_CONTENT + " ", get(base + "/fast?empty"));
+            assertEquals(CONFLICT.getStatusCode() + " locked", get(base + "/fast?conflict"));
+            assertEquals(BAD_REQUEST + " unexpected", get(base + "/fast?json"));
+        } finally {
+            server.shutdownNow();
+        }
+        final String scrape = metrics.scrape();
+        assertTrue(scrape.contains("http_request_duration_seconds_count{resource=\"Items.fast\"} 4\n"), scrape);
+        assertTrue(scrape.contains("http_responses_total{resource=\"Items.fast\",status=\"409\"} 1\n"), scrape);
+    }
+
+    private static String get(final String url) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) new URL(url).openConnection();
+        try {
+            final int status = connection.getResponseCode();
+            final ByteArrayOutputStream body = new ByteArrayOutputStream();
+            try (InputStream stream = status < BAD_REQUEST ? connection.getInputStream()
+                    : connection.getErrorStream()) {
+                final byte[] buffer = new byte[BUFFER];
+                for (int read = stream.read(buffer); read >= 0; read = stream.read(buffer)) {
+                    body.write(buffer, 0, read);
+                }
+            }
+            return status + " " + new String(body.toByteArray(), UTF_8);
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * Resource served by jax-rs.
+     */
+    @Path("/items")
+    public static final class Items {
+
+        /**
+         * @return a constant.
+         */
+        @GET
+        public String list() {
+            return "jax-rs";
+        }
+    }
+
+    /**
+     * Serves {@code /items/fast}, or fails as the query says.
+     */
+    public static final class Route implements FastRoute {
+
+        @Override
+        public String resourceOf(final Request request) {
+            return "/items/fast".equals(request.getRequestURI()) ? "Items.fast" : null;
+        }
+
+        @Override
+        public void serve(final Request request, final Response response) throws IOException {
+            final String query = String.valueOf(request.getQueryString());
+            if ("conflict".equals(query)) {
+                throw ValidationUtils.exception(CONFLICT, "locked");
+            }
+            if ("json".equals(query)) {
+                throw new JsonParseException(null, "unexpected");
+            }
+            if ("empty".equals(query)) {
+                FastPathHandler.send(response, NO_CONTENT, null, null);
+            } else {
+                FastPathHandler.send(response, OK, "text/plain", "fast".getBytes(UTF_8));
+            }
+        }
+    }
+}
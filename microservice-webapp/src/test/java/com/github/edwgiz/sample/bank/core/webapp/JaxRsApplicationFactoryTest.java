@@ -5,8 +5,22 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.introspect.VisibilityChecker;
 import com.fasterxml.jackson.jaxrs.cfg.JaxRSFeature;
 import com.fasterxml.jackson.jaxrs.json.JacksonJaxbJsonProvider;
+import com.github.edwgiz.sample.bank.core.metrics.Metrics;
+import com.github.edwgiz.sample.bank.core.metrics.ServerTiming;
+import com.github.edwgiz.sample.bank.core.webapp.commons.CloseOnShutdown;
+import com.github.edwgiz.sample.bank.core.webapp.metrics.AccessLogFilter;
+import com.github.edwgiz.sample.bank.core.webapp.metrics.FlightRecordingEndpoint;
+import com.github.edwgiz.sample.bank.core.webapp.metrics.MetricsEndpoint;
+import com.github.edwgiz.sample.bank.core.webapp.metrics.MetricsFilter;
+import com.github.edwgiz.sample.bank.core.webapp.metrics.QueryStatisticsEndpoint;
+import com.github.edwgiz.sample.bank.core.webapp.metrics.ServerTimingFilter;
+import com.github.edwgiz.sample.bank.core.webapp.metrics.TracingFilter;
+import com.github.edwgiz.sample.bank.core.webapp.metrics.TrafficCaptureFilter;
+import org.glassfish.jersey.internal.MapPropertiesDelegate;
 import org.glassfish.jersey.internal.inject.InjectionManager;
 import org.glassfish.jersey.server.ApplicationHandler;
+import org.glassfish.jersey.server.ContainerRequest;
+import org.glassfish.jersey.server.ContainerResponse;
 import org.glassfish.jersey.server.ResourceConfig;
 import org.jooq.DSLContext;
 import org.junit.jupiter.api.Assertions;
@@ -15,11 +29,14 @@ import org.mockito.Mockito;
 
 import javax.sql.DataSource;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
 import java.io.IOException;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.net.URI;
 import java.time.LocalDateTime;
+import java.util.concurrent.ExecutionException;
 
 import static java.time.temporal.ChronoUnit.MILLIS;
 import static org.mockito.ArgumentMatchers.notNull;
@@ -27,7 +44,7 @@ import static org.mockito.ArgumentMatchers.notNull;
 class JaxRsApplicationFactoryTest {
 
     @Test
-    public void test() throws IOException {
+    public void test() throws IOException, ExecutionException, InterruptedException {
         final JaxRsApplicationFactory jaxRsApplicationFactory = Mockito.spy(new JaxRsApplicationFactory());
         final ResourceConfig application = jaxRsApplicationFactory.get();
         final ApplicationHandler handler = new ApplicationHandler(application); // do dependency injection
@@ -42,6 +59,46 @@ class JaxRsApplicationFactoryTest {
         Assertions.assertTrue(application.isRegistered(LocalDateTimeParamConverterProvider.class));
         testJacksonJaxbJsonProvider(injectionManager.getInstance(JacksonJaxbJsonProvider.class));
         Assertions.assertTrue(application.isRegistered(ThrowableExceptionMapper.class));
+        testMetrics(application, handler);
+    }
+
+    private void testMetrics(final ResourceConfig application, final ApplicationHandler handler)
+            throws ExecutionException, InterruptedException {
+        final Metrics metrics = handler.getInjectionManager().getInstance(Metrics.class);
+        Assertions.assertSame(metrics, application.getProperty(WebAppBase.PROPERTY_METRICS));
+        Assertions.assertTrue(application.isRegistered(MetricsFilter.class));
+        Assertions.assertTrue(application.isRegistered(MetricsEndpoint.class));
+        Assertions.assertTrue(application.isRegistered(ServerTimingFilter.class));
+        Assertions.assertTrue(application.isRegistered(FlightRecordingEndpoint.class));
+        Assertions.assertTrue(application.isRegistered(TrafficCaptureFilter.class));
+        Assertions.assertTrue(application.isRegistered(AccessLogFilter.class));
+        Assertions.assertTrue(application.isRegistered(CloseOnShutdown.class));
+        Assertions.assertTrue(application.isRegistered(QueryStatisticsEndpoint.class));
+        Assertions.assertEquals(Response.Status.OK.getStatusCode(), get(handler, "admin/queries").getStatus());
+        Assertions.assertEquals(Response.Status.BAD_REQUEST.getStatusCode(),
+                get(handler, "admin/queries?limit=0").getStatus());
+
+        Assertions.assertEquals(Response.Status.NOT_FOUND.getStatusCode(), get(handler, "unknown").getStatus());
+        final ContainerResponse response = get(handler, "metrics");
+        Assertions.assertEquals(MediaType.valueOf(Metrics.CONTENT_TYPE), response.getMediaType());
+        Assertions.assertTrue(response.getHeaderString(ServerTiming.HEADER).startsWith("total;dur="),
+                response.getHeaderString(ServerTiming.HEADER));
+        Assertions.assertTrue(response.getHeaderString(TracingFilter.TRACERESPONSE).startsWith("00-"),
+                response.getHeaderString(TracingFilter.TRACERESPONSE));
+        final String scrape = (String) response.getEntity();
+        Assertions.assertTrue(scrape.contains("http_responses_total{resource=\"unmatched\",status=\"404\"} 1\n"),
+                scrape);
+        Assertions.assertTrue(scrape.contains("jvm_memory_used_bytes{area=\"heap\"}"), scrape);
+        Assertions.assertTrue(get(handler, "metrics").getEntity().toString()
+                .contains("http_responses_total{resource=\"MetricsEndpoint.scrape\",status=\"200\"} 1\n"));
+        Assertions.assertTrue(scrape.contains("http_request_allocated_bytes_total{resource=\"unmatched\"}"), scrape);
+    }
+
+    private ContainerResponse get(final ApplicationHandler handler, final String path)
+            throws ExecutionException, InterruptedException {
+        final URI baseUri = URI.create("http://localhost/");
+        return handler.apply(new ContainerRequest(baseUri, baseUri.resolve(path), "GET", null,
+                new MapPropertiesDelegate(), handler.getConfiguration())).get();
     }
 
     private void testJacksonJaxbJsonProvider(final JacksonJaxbJsonProvider jaxbProvider)
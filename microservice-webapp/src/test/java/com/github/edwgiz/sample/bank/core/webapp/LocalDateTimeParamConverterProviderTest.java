@@ -23,6 +23,7 @@ class LocalDateTimeParamConverterProviderTest {
         assertEquals(
                 LocalDateTime.of(2020, 2, 2, 2, 2, 2, 222_000_000),
                 converter.fromString("2020-02-02T02:02:02.222"));
+        assertNull(converter.fromString(null));
         assertEquals(
                 "1915-05-15T15:15:15.555",
                 converter.toString(LocalDateTime.of(1915, 5, 15, 15, 15, 15, 555_000_000))
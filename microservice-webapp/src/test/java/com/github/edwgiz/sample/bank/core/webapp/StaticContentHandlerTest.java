@@ -0,0 +1,210 @@
+package com.github.edwgiz.sample.bank.core.webapp;
+
+import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.grizzly.http.server.NetworkListener;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URL;
+import java.util.zip.GZIPInputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.glassfish.grizzly.http.server.HttpHandlerRegistration.builder;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Serves the swagger UI page and a tiny resource by a real server on a local port.
+ */
+class StaticContentHandlerTest {
+
+    private static final int OK = 200;
+    private static final int NOT_MODIFIED = 304;
+    private static final int NOT_FOUND = 404;
+    private static final int METHOD_NOT_ALLOWED = 405;
+    private static final int CHUNK = 1024;
+    private static final String INDEX = "swagger-ui/index.html";
+    private static final String TINY = "tiny.txt";
+    private static final String CACHE_CONTROL = "public, max-age=60";
+
+    private static HttpServer server;
+    private static String base;
+
+    @BeforeAll
+    /* default */static void start() throws IOException {
+        final int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        server = new HttpServer();
+        server.addListener(new NetworkListener("test", "localhost", port));
+        server.getServerConfiguration().addHttpHandler(
+                new StaticContentHandler(new TinyClassLoader(), "/static/", CACHE_CONTROL, INDEX, TINY, "missing.js"),
+                builder().urlPattern("/swagger-ui/*").build(), builder().urlPattern("/" + TINY).build());
+        server.start();
+        base = "http://localhost:" + port + '/';
+    }
+
+    @AfterAll
+    /* default */static void stop() {
+        server.shutdownNow();
+    }
+
+    @Test
+    /* default */void testGzip() throws IOException {
+        final HttpURLConnection connection = open(INDEX, "GET");
+        connection.setRequestProperty("Accept-Encoding", "br;q=1.0, gzip;q=0.5");
+        try {
+            assertEquals(OK, connection.getResponseCode());
+            assertEquals("gzip", connection.getHeaderField("Content-Encoding"));
+            assertEquals("text/html;charset=utf-8", connection.getContentType());
+            assertEquals(CACHE_CONTROL, connection.getHeaderField("Cache-Control"));
+            assertEquals("Accept-Encoding", connection.getHeaderField("Vary"));
+            final String etag = connection.getHeaderField("ETag");
+            assertTrue(etag.endsWith("-gzip\""), etag);
+            final byte[] gzipped = body(connection.getInputStream());
+            assertEquals(gzipped.length, connection.getContentLength());
+            assertArrayEquals(resource(), body(new GZIPInputStream(new ByteArrayInputStream(gzipped))));
+
+            final HttpURLConnection revalidation = open(INDEX, "GET");
+            revalidation.setRequestProperty("Accept-Encoding", "gzip");
+            revalidation.setRequestProperty("If-None-Match", "\"other\", W/" + etag);
+            assertEquals(NOT_MODIFIED, revalidation.getResponseCode());
+            assertEquals(etag, revalidation.getHeaderField("ETag"));
+            revalidation.disconnect();
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    @Test
+    /* default */void testIdentity() throws IOException {
+        final HttpURLConnection connection = open("swagger-ui/", "GET");
+        connection.setRequestProperty("Accept-Encoding", "gzip;q=0, *;q=0");
+        try {
+            assertEquals(OK, connection.getResponseCode());
+            assertNull(connection.getHeaderField("Content-Encoding"));
+            assertArrayEquals(resource(), body(connection.getInputStream()));
+            assertFalse(connection.getHeaderField("ETag").endsWith("-gzip\""));
+        } finally {
+            connection.disconnect();
+        }
+        assertEquals(OK + " " + resource().length, head("swagger-ui", "identity"));
+        // the compressed tiny resource isn't smaller, so it's sent as is
+        assertEquals(OK + " 4", head(TINY, "gzip"));
+    }
+
+    @Test
+    /* default */void testErrors() throws IOException {
+        final HttpURLConnection connection = open(INDEX, "DELETE");
+        try {
+            assertEquals(METHOD_NOT_ALLOWED, connection.getResponseCode());
+            assertEquals("GET, HEAD", connection.getHeaderField("Allow"));
+        } finally {
+            connection.disconnect();
+        }
+        final String missing = head("swagger-ui/missing.js", null);
+        assertTrue(missing.startsWith(NOT_FOUND + " "), missing);
+    }
+
+    @Test
+    /* default */void testFailure() {
+        final ClassLoader failing = new ClassLoader() {
+            @Override
+            public InputStream getResourceAsStream(final String name) {
+                return new InputStream() {
+                    @Override
+                    public int read() throws IOException {
+                        throw new IOException("broken");
+                    }
+                };
+            }
+        };
+        assertThrows(IllegalStateException.class, () -> new StaticContentHandler(failing, "static/", "", TINY));
+    }
+
+    @Test
+    /* default */void testAcceptsGzip() {
+        assertFalse(StaticContentHandler.acceptsGzip(null));
+        assertFalse(StaticContentHandler.acceptsGzip("br, identity"));
+        assertFalse(StaticContentHandler.acceptsGzip("gzip; Q=0.000"));
+        assertTrue(StaticContentHandler.acceptsGzip("deflate, GZIP"));
+        assertTrue(StaticContentHandler.acceptsGzip("gzip;q=0.001"));
+        assertTrue(StaticContentHandler.acceptsGzip("*;foo=bar"));
+    }
+
+    @Test
+    /* default */void testMatches() {
+        assertFalse(StaticContentHandler.matches(null, "\"a\""));
+        assertFalse(StaticContentHandler.matches("\"b\"", "\"a\""));
+        assertTrue(StaticContentHandler.matches("*", "\"a\""));
+        assertTrue(StaticContentHandler.matches("\"b\" , \"a\"", "\"a\""));
+    }
+
+    @Test
+    /* default */void testContentTypeOf() {
+        assertEquals("application/json;charset=utf-8", StaticContentHandler.contentTypeOf("openapi.json"));
+        assertEquals("text/css;charset=utf-8", StaticContentHandler.contentTypeOf("swagger-ui/swagger-ui.css"));
+        assertEquals("image/png", StaticContentHandler.contentTypeOf("swagger-ui/favicon-16x16.png"));
+        assertEquals("application/octet-stream", StaticContentHandler.contentTypeOf("swagger-ui/LICENSE"));
+    }
+
+    private static HttpURLConnection open(final String path, final String method) throws IOException {
+        final HttpURLConnection connection = (HttpURLConnection) new URL(base + path).openConnection();
+        connection.setRequestMethod(method);
+        return connection;
+    }
+
+    // status and content length of a HEAD request
+    private static String head(final String path, final String acceptEncoding) throws IOException {
+        final HttpURLConnection connection = open(path, "HEAD");
+        connection.setRequestProperty("Accept-Encoding", acceptEncoding);
+        try {
+            return connection.getResponseCode() + " " + connection.getContentLengthLong();
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    private static byte[] resource() throws IOException {
+        return body(StaticContentHandlerTest.class.getResourceAsStream("/static/" + INDEX));
+    }
+
+    private static byte[] body(final InputStream stream) throws IOException {
+        final ByteArrayOutputStream result = new ByteArrayOutputStream();
+        try (InputStream source = stream) {
+            final byte[] chunk = new byte[CHUNK];
+            for (int length = source.read(chunk); length >= 0; length = source.read(chunk)) {
+                result.write(chunk, 0, length);
+            }
+        }
+        return result.toByteArray();
+    }
+
+    /**
+     * Adds the tiny resource to the ones of the test class path.
+     */
+    private static final class TinyClassLoader extends ClassLoader {
+
+        /* default */TinyClassLoader() {
+            super(StaticContentHandlerTest.class.getClassLoader());
+        }
+
+        @Override
+        public InputStream getResourceAsStream(final String name) {
+            return ("static/" + TINY).equals(name) ? new ByteArrayInputStream("tiny".getBytes(UTF_8))
+                    : super.getResourceAsStream(name);
+        }
+    }
+}
@@ -1,23 +1,52 @@
 package com.github.edwgiz.sample.bank.core.webapp;
 
+import com.github.edwgiz.sample.bank.core.metrics.Metrics;
+import com.github.edwgiz.sample.bank.core.webapp.http2.Http2Client;
+import com.github.edwgiz.sample.bank.core.webapp.metrics.ConnectionMetrics;
+import com.github.edwgiz.sample.bank.core.webapp.metrics.HandshakeMetrics;
+import com.github.edwgiz.sample.bank.core.webapp.metrics.ThreadPoolMetrics;
 import org.glassfish.grizzly.GrizzlyFuture;
-import org.glassfish.grizzly.http.server.CLStaticHttpHandler;
 import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.grizzly.http.server.NetworkListener;
 import org.glassfish.grizzly.http.server.ServerConfiguration;
+import org.glassfish.grizzly.http.server.StaticHttpHandler;
+import org.glassfish.jersey.grizzly2.httpserver.GrizzlyHttpServerFactory;
 import org.glassfish.jersey.server.ResourceConfig;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InOrder;
 import org.mockito.Mockito;
 
+import javax.net.ssl.HttpsURLConnection;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.TrustManagerFactory;
 import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.KeyStore;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
 
 import static com.github.edwgiz.sample.bank.core.webapp.WebServer.SYSTEM_PROPERTY_HOSTNAME;
 import static com.github.edwgiz.sample.bank.core.webapp.WebServer.SYSTEM_PROPERTY_PORT;
 import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.glassfish.grizzly.http.server.HttpHandlerRegistration.builder;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
@@ -35,6 +64,11 @@ import static org.mockito.Mockito.times;
 class WebServerTest {
 
     private static final long SHUTDOWN_TIMEOUT_MILLIS = 60_000L;
+    private static final int BINARY_PORT = 9090;
+    private static final int STATUS_OK = 200;
+    private static final int STREAMS = 16;
+    private static final long TIMEOUT_SECONDS = 10L;
+    private static final String PASSWORD = "changeit";
 
 
     @Test
@@ -66,7 +100,13 @@ class WebServerTest {
         inOrder.verify(httpServer, calls(1)).getServerConfiguration();
         inOrder.verify(httpServerConf, calls(1)).setSessionManager(isNull());
         inOrder.verify(httpServerConf, calls(1)).setGracefulShutdownSupported(eq(true));
+        inOrder.verify(webServer, calls(1)).attachTls(same(httpServer), isNull());
+        inOrder.verify(webServer, calls(1)).attachHttp2(same(httpServer), eq(false));
+        inOrder.verify(webServer, calls(1)).attachBinary(same(httpServer), same(conf), isNull());
         inOrder.verify(webServer, calls(1)).attachStaticContent(same(httpServer));
+        inOrder.verify(webServer, calls(1)).attachFiles(same(httpServer), same(conf));
+        inOrder.verify(webServer, calls(1)).attachMetrics(same(httpServer), same(conf));
+        inOrder.verify(webServer, calls(1)).attachFastPath(same(httpServer), same(conf), eq(false));
         //noinspection ResultOfMethodCallIgnored
         inOrder.verify(webServer, calls(1))
                 .createShutdownAction(same(httpServer), eq(SHUTDOWN_TIMEOUT_MILLIS));
@@ -84,15 +124,215 @@ class WebServerTest {
         webServer.attachStaticContent(httpServer);
         Mockito.verify(serverConfiguration, times(1)).addHttpHandler(
                 Mockito.argThat((httpHandler) -> {
-                    Assertions.assertTrue(httpHandler instanceof CLStaticHttpHandler);
-                    final CLStaticHttpHandler sch = (CLStaticHttpHandler) httpHandler;
-                    assertFalse(sch.isFileCacheEnabled());
-                    assertEquals(WebServer.class.getClassLoader(), sch.getClassLoader());
+                    Assertions.assertTrue(httpHandler instanceof StaticContentHandler);
                     return true;
                 }), eq(builder().urlPattern("/swagger-ui/*").build()),
                 eq(builder().urlPattern("/openapi.json").build()));
     }
 
+    @Test
+    public void testAttachFiles() {
+        final HttpServer httpServer = mock(HttpServer.class);
+        final ServerConfiguration serverConfiguration = mock(ServerConfiguration.class);
+        //noinspection ResultOfMethodCallIgnored
+        doReturn(serverConfiguration).when(httpServer).getServerConfiguration();
+        final NetworkListener listener = new NetworkListener(WebServer.HTTP_LISTENER_NAME);
+        //noinspection ResultOfMethodCallIgnored
+        doReturn(listener).when(httpServer).getListener(WebServer.HTTP_LISTENER_NAME);
+
+        final WebServer webServer = new WebServer();
+        webServer.attachFiles(httpServer, new ResourceConfig());
+        Mockito.verifyNoInteractions(serverConfiguration);
+
+        webServer.attachFiles(httpServer, new ResourceConfig().property(WebAppBase.PROPERTY_FILES_DIRECTORY, "files"));
+        Mockito.verify(serverConfiguration, times(1)).addHttpHandler(
+                Mockito.argThat((httpHandler) -> {
+                    Assertions.assertTrue(httpHandler instanceof StaticHttpHandler);
+                    final StaticHttpHandler sh = (StaticHttpHandler) httpHandler;
+                    assertFalse(sh.isFileCacheEnabled());
+                    assertEquals("files", sh.getDefaultDocRoot().getName());
+                    return true;
+                }), eq(builder().contextPath(WebAppBase.FILES_CONTEXT_PATH).urlPattern("/*").build()));
+        Assertions.assertTrue(listener.isSendFileEnabled());
+
+        doReturn(null).when(httpServer).getListener(WebServer.HTTP_LISTENER_NAME);
+        webServer.attachFiles(httpServer, new ResourceConfig().property(WebAppBase.PROPERTY_FILES_DIRECTORY, "files"));
+    }
+
+    @Test
+    public void testAttachMetrics() {
+        final HttpServer httpServer = mock(HttpServer.class);
+        final NetworkListener listener = new NetworkListener("test");
+        final NetworkListener secureListener = new NetworkListener(WebServer.TLS_LISTENER_NAME);
+        secureListener.setSecure(true);
+        //noinspection ResultOfMethodCallIgnored
+        doReturn(Arrays.asList(listener, secureListener)).when(httpServer).getListeners();
+
+        final WebServer webServer = new WebServer();
+        webServer.attachMetrics(httpServer, new ResourceConfig());
+        Mockito.verifyNoInteractions(httpServer);
+
+        webServer.attachMetrics(httpServer, new ResourceConfig().property(WebAppBase.PROPERTY_METRICS, new Metrics()));
+        Assertions.assertTrue(listener.getTransport().getConnectionMonitoringConfig().getProbes()[0]
+                instanceof ConnectionMetrics);
+        Assertions.assertTrue(listener.getTransport().getThreadPoolMonitoringConfig().getProbes()[0]
+                instanceof ThreadPoolMetrics);
+        assertEquals(0, listener.getAddOns().length);
+        Assertions.assertTrue(secureListener.getAddOns()[0] instanceof HandshakeMetrics);
+    }
+
+    @Test
+    public void testAttachFastPath() {
+        final HttpServer httpServer = GrizzlyHttpServerFactory.createHttpServer(
+                URI.create("http://localhost:8080/"), new ResourceConfig(), false);
+        final WebServer webServer = new WebServer();
+        final ResourceConfig conf = new ResourceConfig().property(WebAppBase.PROPERTY_METRICS, new Metrics());
+        webServer.attachFastPath(httpServer, conf, true);
+        conf.property(WebAppBase.PROPERTY_FAST_ROUTE, FastPathHandlerTest.Route.class);
+        webServer.attachFastPath(httpServer, conf, false);
+        assertFalse(httpServer.getServerConfiguration().getHttpHandlersWithMapping().keySet().stream()
+                .anyMatch(FastPathHandler.class::isInstance));
+
+        webServer.attachFastPath(httpServer, conf, true);
+        Assertions.assertTrue(httpServer.getServerConfiguration().getHttpHandlersWithMapping().keySet().stream()
+                .anyMatch(FastPathHandler.class::isInstance));
+        conf.property(WebAppBase.PROPERTY_METRICS, null);
+        assertThrows(IllegalStateException.class, () -> webServer.attachFastPath(httpServer, conf, true),
+                "the container is replaced already");
+    }
+
+    @Test
+    public void testAttachBinary() {
+        final HttpServer httpServer = GrizzlyHttpServerFactory.createHttpServer(
+                URI.create("http://localhost:8080/"), new ResourceConfig(), false);
+        final WebServer webServer = new WebServer();
+        final ResourceConfig conf = new ResourceConfig();
+        System.setProperty(SYSTEM_PROPERTY_HOSTNAME, "127.0.0.1");
+        final String port = String.valueOf(BINARY_PORT);
+        webServer.attachBinary(httpServer, conf, port);
+        conf.property(WebAppBase.PROPERTY_BINARY_ROUTE, BinaryListenerTest.Route.class);
+        webServer.attachBinary(httpServer, conf, null);
+        assertNull(httpServer.getListener(BinaryListener.NAME));
+
+        webServer.attachBinary(httpServer, conf, port);
+        assertEquals(BINARY_PORT, httpServer.getListener(BinaryListener.NAME).getPort());
+        conf.property(WebAppBase.PROPERTY_METRICS, new Metrics());
+        final HttpServer otherServer = GrizzlyHttpServerFactory.createHttpServer(
+                URI.create("http://localhost:8080/"), new ResourceConfig(), false);
+        webServer.attachBinary(otherServer, conf, port);
+        assertEquals(BINARY_PORT, otherServer.getListener(BinaryListener.NAME).getPort());
+    }
+
+    @Test
+    public void testAttachHttp2() throws IOException, InterruptedException, ExecutionException, TimeoutException {
+        final int port = freePort();
+        final HttpServer httpServer = GrizzlyHttpServerFactory.createHttpServer(URI.create("http://localhost:" + port
+                + '/'), new ResourceConfig().register(FastPathHandlerTest.Items.class), false);
+        final WebServer webServer = new WebServer();
+        webServer.attachHttp2(httpServer, false);
+        assertEquals(0, httpServer.getListener("grizzly").getAddOns().length);
+
+        System.setProperty(WebServer.SYSTEM_PROPERTY_MAX_CONCURRENT_STREAMS, String.valueOf(STREAMS));
+        try {
+            webServer.attachHttp2(httpServer, true);
+        } finally {
+            System.clearProperty(WebServer.SYSTEM_PROPERTY_MAX_CONCURRENT_STREAMS);
+        }
+        httpServer.start();
+        try (Http2Client client = Http2Client.connect("localhost", port)) {
+            // the streams of one connection are served concurrently
+            final List<CompletableFuture<Http2Client.Response>> responses = new ArrayList<>(STREAMS);
+            for (int i = 0; i < STREAMS; i++) {
+                responses.add(client.send("GET", "/items", null, null));
+            }
+            for (final CompletableFuture<Http2Client.Response> response : responses) {
+                assertResponse(response.get(TIMEOUT_SECONDS, SECONDS));
+            }
+            // HTTP/1.1 is served by the same port
+            final HttpURLConnection connection = (HttpURLConnection) new URL("http://localhost:" + port + "/items")
+                    .openConnection();
+            assertEquals(STATUS_OK, connection.getResponseCode());
+            connection.disconnect();
+        } finally {
+            httpServer.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testAttachTls(@TempDir final Path directory) throws Exception {
+        final Path keystore = directory.resolve("keystore.jks");
+        final Process keytool = new ProcessBuilder(Paths.get(System.getProperty("java.home"), "bin", "keytool")
+                .toString(), "-genkeypair", "-alias", "server", "-keyalg", "RSA", "-dname", "CN=localhost",
+                "-ext", "san=dns:localhost", "-validity", "1", "-storetype", "JKS", "-keystore", keystore.toString(),
+                "-storepass", PASSWORD, "-keypass", PASSWORD).inheritIO().start();
+        assertEquals(0, keytool.waitFor());
+
+        final int port = freePort();
+        final HttpServer httpServer = GrizzlyHttpServerFactory.createHttpServer(URI.create("http://localhost:"
+                + freePort() + '/'), new ResourceConfig().register(FastPathHandlerTest.Items.class), false);
+        final WebServer webServer = new WebServer();
+        webServer.attachTls(httpServer, null);
+        assertNull(httpServer.getListener(WebServer.TLS_LISTENER_NAME));
+
+        System.setProperty(SYSTEM_PROPERTY_HOSTNAME, "localhost");
+        System.setProperty(WebServer.SYSTEM_PROPERTY_KEYSTORE, keystore.toString());
+        System.setProperty(WebServer.SYSTEM_PROPERTY_KEYSTORE_PASSWORD, PASSWORD);
+        System.setProperty(WebServer.SYSTEM_PROPERTY_PROTOCOLS, " TLSv1.2 ");
+        try {
+            webServer.attachTls(httpServer, String.valueOf(port));
+        } finally {
+            System.clearProperty(WebServer.SYSTEM_PROPERTY_KEYSTORE);
+            System.clearProperty(WebServer.SYSTEM_PROPERTY_KEYSTORE_PASSWORD);
+            System.clearProperty(WebServer.SYSTEM_PROPERTY_PROTOCOLS);
+        }
+        final NetworkListener listener = httpServer.getListener(WebServer.TLS_LISTENER_NAME);
+        Assertions.assertTrue(listener.isSecure());
+        assertArrayEquals(new String[] {"TLSv1.2"}, listener.getSslEngineConfig().getEnabledProtocols());
+        assertNull(listener.getSslEngineConfig().getEnabledCipherSuites());
+        // HTTP/1.1 is left on the TLS listener unless ALPN is available
+        webServer.attachHttp2(httpServer, true);
+        final Metrics metrics = new Metrics();
+        webServer.attachMetrics(httpServer, new ResourceConfig().property(WebAppBase.PROPERTY_METRICS, metrics));
+        httpServer.start();
+        try {
+            final KeyStore trusted = KeyStore.getInstance("JKS");
+            try (InputStream stream = Files.newInputStream(keystore)) {
+                trusted.load(stream, PASSWORD.toCharArray());
+            }
+            final TrustManagerFactory trustManagers = TrustManagerFactory.getInstance(
+                    TrustManagerFactory.getDefaultAlgorithm());
+            trustManagers.init(trusted);
+            final SSLContext sslContext = SSLContext.getInstance("TLS");
+            sslContext.init(null, trustManagers.getTrustManagers(), null);
+            // the second connection resumes the session of the first one
+            for (int i = 0; i < 2; i++) {
+                final HttpsURLConnection connection = (HttpsURLConnection) new URL("https://localhost:" + port
+                        + "/items").openConnection();
+                connection.setSSLSocketFactory(sslContext.getSocketFactory());
+                connection.setRequestProperty("Connection", "close");
+                assertEquals(STATUS_OK, connection.getResponseCode());
+                connection.disconnect();
+            }
+        } finally {
+            httpServer.shutdownNow();
+        }
+        final String scrape = metrics.scrape();
+        Assertions.assertTrue(scrape.contains("tls_handshakes_total{resumed=\"false\"} 1\n"), scrape);
+        Assertions.assertTrue(scrape.contains("tls_handshakes_total{resumed=\"true\"} 1\n"), scrape);
+    }
+
+    private static void assertResponse(final Http2Client.Response response) {
+        assertEquals(STATUS_OK, response.getStatus());
+        assertEquals("HTTP/2.0", response.getProtocol());
+        assertEquals("jax-rs", response.getBodyString());
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
     @Test
     public void testCreateHttpServer() {
         final WebServer webServer = new WebServer();
@@ -111,6 +351,18 @@ class WebServerTest {
         assertFalse(httpServer.isStarted());
     }
 
+    @Test
+    public void testGetListProperty() {
+        assertNull(WebServer.getListProperty("unknown"));
+        System.setProperty(WebServer.SYSTEM_PROPERTY_CIPHER_SUITES, " A , B,C ");
+        try {
+            assertArrayEquals(new String[] {"A", "B", "C"},
+                    WebServer.getListProperty(WebServer.SYSTEM_PROPERTY_CIPHER_SUITES));
+        } finally {
+            System.clearProperty(WebServer.SYSTEM_PROPERTY_CIPHER_SUITES);
+        }
+    }
+
     @Test
     public void testGetSystemProperty() {
         Assertions.assertNotNull(WebServer.getSystemProperty("java.version"));
@@ -136,5 +388,6 @@ class WebServerTest {
             return true;
         }));
         shutdownAction.close();
+        Mockito.verify(server, times(2)).shutdownNow();
     }
 }
@@ -0,0 +1,45 @@
+package com.github.edwgiz.sample.bank.core.webapp.binary;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class BinaryCodecUtilsTest {
+
+    @Test
+    /* default */void testRoundTrip() throws IOException {
+        final BigDecimal amount = new BigDecimal("-12345.67");
+        final LocalDateTime dateTime = LocalDateTime.parse("2020-02-29T23:59:58.123456789");
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        final DataOutputStream out = new DataOutputStream(bytes);
+        BinaryCodecUtils.writeString(out, "comment");
+        BinaryCodecUtils.writeString(out, null);
+        BinaryCodecUtils.writeDecimal(out, amount);
+        BinaryCodecUtils.writeDateTime(out, dateTime);
+
+        final DataInputStream input = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals("comment", BinaryCodecUtils.readString(input));
+        assertNull(BinaryCodecUtils.readString(input));
+        assertEquals(amount, BinaryCodecUtils.readDecimal(input));
+        assertEquals(dateTime, BinaryCodecUtils.readDateTime(input));
+        assertThrows(EOFException.class, () -> BinaryCodecUtils.readDecimal(input));
+    }
+
+    @Test
+    /* default */void testTooPreciseDecimal() {
+        final DataOutputStream out = new DataOutputStream(new ByteArrayOutputStream());
+        assertThrows(ArithmeticException.class,
+                () -> BinaryCodecUtils.writeDecimal(out, new BigDecimal("123456789012345678901234567890")));
+    }
+}
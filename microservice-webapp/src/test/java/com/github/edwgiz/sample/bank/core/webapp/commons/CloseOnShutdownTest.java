@@ -0,0 +1,27 @@
+package com.github.edwgiz.sample.bank.core.webapp.commons;
+
+import org.glassfish.jersey.server.spi.Container;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+
+class CloseOnShutdownTest {
+
+    @Test
+    /* default */void testOnShutdown() throws Exception {
+        final AutoCloseable first = mock(AutoCloseable.class);
+        final AutoCloseable second = mock(AutoCloseable.class);
+        doThrow(new IllegalStateException("test")).when(first).close();
+        final CloseOnShutdown listener = new CloseOnShutdown(first, second);
+        final Container container = mock(Container.class);
+        listener.onStartup(container);
+        listener.onReload(container);
+        listener.onShutdown(container);
+        final InOrder order = inOrder(first, second);
+        order.verify(first).close();
+        order.verify(second).close(); // despite the failure
+    }
+}
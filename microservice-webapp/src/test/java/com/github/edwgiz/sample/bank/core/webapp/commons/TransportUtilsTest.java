@@ -0,0 +1,19 @@
+package com.github.edwgiz.sample.bank.core.webapp.commons;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TransportUtilsTest {
+
+    @Test
+    /* default */void testInterruptedConnect() {
+        Thread.currentThread().interrupt();
+        assertThrows(IOException.class, () -> TransportUtils.await(new CompletableFuture<>(), "localhost:9090"));
+        assertTrue(Thread.interrupted());
+    }
+}
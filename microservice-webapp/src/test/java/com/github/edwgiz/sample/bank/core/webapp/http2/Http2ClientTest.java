@@ -0,0 +1,91 @@
+package com.github.edwgiz.sample.bank.core.webapp.http2;
+
+import org.glassfish.grizzly.http.server.HttpHandler;
+import org.glassfish.grizzly.http.server.HttpServer;
+import org.glassfish.grizzly.http.server.NetworkListener;
+import org.glassfish.grizzly.http.server.Request;
+import org.glassfish.grizzly.http.server.Response;
+import org.glassfish.grizzly.http2.Http2AddOn;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeoutException;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Sends the requests to a real HTTP/2 server on a local port.
+ */
+class Http2ClientTest {
+
+    private static final int STATUS_OK = 200;
+    private static final int NOT_FOUND = 404;
+    private static final int BUFFER = 256;
+    private static final long TIMEOUT_SECONDS = 10L;
+
+    @Test
+    /* default */void testSend() throws IOException, InterruptedException, ExecutionException, TimeoutException {
+        final int port = freePort();
+        final HttpServer server = createServer(port);
+        server.start();
+        try (Http2Client client = Http2Client.connect("localhost", port)) {
+            final CompletableFuture<Http2Client.Response> waiting = client.send("GET", "/wait", null, null);
+            final Http2Client.Response echo = client.send("POST", "/echo", "text/plain", "hello".getBytes(UTF_8))
+                    .get(TIMEOUT_SECONDS, SECONDS);
+            assertEquals(STATUS_OK, echo.getStatus());
+            assertEquals("HTTP/2.0", echo.getProtocol());
+            assertArrayEquals("text/plain hello".getBytes(UTF_8), echo.getBody());
+            assertEquals("text/plain hello", echo.getBodyString());
+            assertEquals(NOT_FOUND, client.send("GET", "/unknown", null, null).get(TIMEOUT_SECONDS, SECONDS)
+                    .getStatus());
+
+            assertEquals(1, client.getPending());
+            client.close();
+            assertTrue(assertThrows(ExecutionException.class, waiting::get).getCause() instanceof IOException);
+        } finally {
+            server.shutdownNow();
+        }
+    }
+
+    @Test
+    /* default */void testConnectFailure() throws IOException {
+        final int port = freePort();
+        assertThrows(IOException.class, () -> Http2Client.connect("localhost", port));
+    }
+
+    // echoes the content type and the body of /echo, never responds to /wait
+    private static HttpServer createServer(final int port) {
+        final HttpServer server = new HttpServer();
+        final NetworkListener listener = new NetworkListener("test", "localhost", port);
+        listener.registerAddOn(new Http2AddOn());
+        server.addListener(listener);
+        server.getServerConfiguration().addHttpHandler(new HttpHandler() {
+            @Override
+            public void service(final Request request, final Response response) throws IOException {
+                if ("/echo".equals(request.getRequestURI())) {
+                    response.getWriter().write(request.getContentType() + ' '
+                            + request.getPostBody(BUFFER).toStringContent(UTF_8));
+                } else if ("/wait".equals(request.getRequestURI())) {
+                    response.suspend();
+                } else {
+                    response.setStatus(NOT_FOUND);
+                }
+            }
+        }, "/");
+        return server;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+}
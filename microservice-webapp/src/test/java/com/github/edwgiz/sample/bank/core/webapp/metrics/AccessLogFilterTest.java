@@ -0,0 +1,243 @@
+package com.github.edwgiz.sample.bank.core.webapp.metrics;
+
+import com.github.edwgiz.sample.bank.core.accesslog.AccessLog;
+import com.github.edwgiz.sample.bank.core.metrics.Metrics;
+import com.github.edwgiz.sample.bank.core.tracing.Tracer;
+import org.glassfish.jersey.internal.MapPropertiesDelegate;
+import org.glassfish.jersey.server.ApplicationHandler;
+import org.glassfish.jersey.server.ContainerException;
+import org.glassfish.jersey.server.ContainerRequest;
+import org.glassfish.jersey.server.ContainerResponse;
+import org.glassfish.jersey.server.ExtendedUriInfo;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.glassfish.jersey.server.spi.ContainerResponseWriter;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import javax.ws.rs.DELETE;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.PathParam;
+import javax.ws.rs.Produces;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.ext.WriterInterceptorContext;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static javax.ws.rs.core.MediaType.TEXT_PLAIN;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class AccessLogFilterTest {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+    private static final String TRACEPARENT = "00-" + TRACE_ID + "-00f067aa0ba902b7-01";
+    private static final long ROTATE_BYTES = 1_048_576L;
+    private static final int CAPACITY = 16;
+    private static final int OK = 200;
+
+    @Test
+    /* default */void testRecord() throws Exception {
+        final java.nio.file.Path file = Files.createTempFile("access", ".log");
+        try {
+            final Metrics metrics = new Metrics();
+            final AccessLog accessLog = new AccessLog(metrics, file, ROTATE_BYTES, CAPACITY);
+            final ResourceConfig conf = new ResourceConfig(Items.class);
+            conf.register(new TracingFilter(new Tracer(metrics, 1.0, null, CAPACITY), new MetricsFilter(metrics)),
+                    TracingFilter.PRIORITY);
+            conf.register(new AccessLogFilter(accessLog), AccessLogFilter.PRIORITY);
+            final ApplicationHandler handler = new ApplicationHandler(conf);
+            apply(handler, "GET", "items/abc", TRACEPARENT);
+            apply(handler, "GET", "items/abc", null); // the cached template
+            apply(handler, "GET", "items", null);
+            apply(handler, "DELETE", "items/abc", null);
+            apply(handler, "GET", "unknown", null);
+            accessLog.close();
+
+            final List<String> lines = Files.readAllLines(file, UTF_8).stream()
+                    .map(line -> line.replaceFirst("\"time\":\"[^\"]+\",", "").replaceFirst(",\"micros\":\\d+", ""))
+                    .collect(Collectors.toList());
+            assertTrue(lines.get(0).endsWith(",\"trace\":\"" + TRACE_ID + "\"}"), lines.get(0));
+            assertEquals(Arrays.asList(
+                    "{\"method\":\"GET\",\"path\":\"/items/{id}\",\"status\":200,\"bytes\":3,\"trace\":\"*\"}",
+                    "{\"method\":\"GET\",\"path\":\"/items/{id}\",\"status\":200,\"bytes\":3,\"trace\":\"*\"}",
+                    "{\"method\":\"GET\",\"path\":\"/items\",\"status\":200,\"bytes\":1,\"trace\":\"*\"}",
+                    "{\"method\":\"DELETE\",\"path\":\"/items/{id}\",\"status\":204,\"bytes\":0,\"trace\":\"*\"}",
+                    "{\"method\":\"GET\",\"path\":\"/unknown\",\"status\":404,\"bytes\":0,\"trace\":\"*\"}"),
+                    lines.stream().map(line -> line.replaceFirst("\"trace\":\"[0-9a-f]{32}\"", "\"trace\":\"*\""))
+                            .collect(Collectors.toList()));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    /* default */void testNotRecorded() throws Exception {
+        final java.nio.file.Path file = Files.createTempFile("access", ".log");
+        try {
+            final ContainerRequestContext ignored = mock(ContainerRequestContext.class);
+            new AccessLogFilter(new AccessLog(new Metrics(), null, ROTATE_BYTES, CAPACITY)).filter(ignored);
+            verify(ignored, never()).setProperty(anyString(), any());
+
+            final AccessLog accessLog = new AccessLog(new Metrics(), file, ROTATE_BYTES, CAPACITY);
+            final AccessLogFilter filter = new AccessLogFilter(accessLog);
+            final ContainerResponseContext response = mock(ContainerResponseContext.class);
+            filter.filter(mock(ContainerRequestContext.class), response); // aborted before the access log filter
+            final WriterInterceptorContext unlogged = mock(WriterInterceptorContext.class);
+            filter.aroundWriteTo(unlogged);
+            verify(unlogged).proceed();
+
+            final ContainerRequestContext request = mock(ContainerRequestContext.class);
+            filter.filter(request);
+            final ArgumentCaptor<Object> entry = ArgumentCaptor.forClass(Object.class);
+            verify(request).setProperty(anyString(), entry.capture());
+            doReturn(entry.getValue()).when(request).getProperty(anyString());
+            final WriterInterceptorContext writer = mock(WriterInterceptorContext.class);
+            doReturn(entry.getValue()).when(writer).getProperty(anyString());
+            CompletableFuture.runAsync(() -> { // completed asynchronously
+                filter.filter(request, response);
+                try {
+                    filter.aroundWriteTo(writer);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            }).get();
+            verify(response, never()).getStatus();
+            verify(writer).proceed();
+            verify(writer, never()).getOutputStream();
+            accessLog.close();
+            assertEquals(0L, Files.size(file));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    /* default */void testWithoutTrace() throws IOException {
+        final java.nio.file.Path file = Files.createTempFile("access", ".log");
+        try {
+            final AccessLog accessLog = new AccessLog(new Metrics(), file, ROTATE_BYTES, CAPACITY);
+            final AccessLogFilter filter = new AccessLogFilter(accessLog);
+            final ContainerRequestContext request = mock(ContainerRequestContext.class);
+            final ExtendedUriInfo uriInfo = mock(ExtendedUriInfo.class);
+            doReturn(URI.create("http://localhost/untraced")).when(uriInfo).getRequestUri();
+            doReturn(uriInfo).when(request).getUriInfo();
+            doReturn("GET").when(request).getMethod();
+            filter.filter(request);
+            final ArgumentCaptor<Object> entry = ArgumentCaptor.forClass(Object.class);
+            verify(request).setProperty(anyString(), entry.capture());
+            doReturn(entry.getValue()).when(request).getProperty(anyString());
+            final ContainerResponseContext response = mock(ContainerResponseContext.class);
+            doReturn(OK).when(response).getStatus();
+            filter.filter(request, response);
+            accessLog.close();
+
+            final String line = Files.readAllLines(file, UTF_8).get(0);
+            assertTrue(line.contains("\"path\":\"/untraced\",\"status\":200,\"bytes\":0,"), line);
+            assertFalse(line.contains("\"trace\""), line);
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    private static void apply(final ApplicationHandler handler, final String method, final String path,
+            final String traceparent) throws Exception {
+        final URI baseUri = URI.create("http://localhost/");
+        final ContainerRequest request = new ContainerRequest(baseUri, baseUri.resolve(path), method, null,
+                new MapPropertiesDelegate(), handler.getConfiguration());
+        if (traceparent != null) {
+            request.header(TracingFilter.TRACEPARENT, traceparent);
+        }
+        request.setWriter(new BufferWriter());
+        handler.apply(request).get();
+    }
+
+    @Path("/items")
+    public static final class Items {
+
+        /**
+         * @return a single byte written by {@link OutputStream#write(int)}.
+         */
+        @GET
+        @Produces(TEXT_PLAIN)
+        public StreamingOutput list() {
+            return out -> out.write('-');
+        }
+
+        /**
+         * @param itemId identifier of the item.
+         * @return the identifier.
+         */
+        @GET
+        @Path("{id}")
+        @Produces(TEXT_PLAIN)
+        public String get(@PathParam("id") final String itemId) {
+            return itemId;
+        }
+
+        /**
+         * @param itemId identifier of the item.
+         */
+        @DELETE
+        @Path("{id}")
+        public void delete(@PathParam("id") final String itemId) {
+            // nothing to delete
+        }
+    }
+
+    /**
+     * Writes the response bodies to memory.
+     */
+    private static final class BufferWriter implements ContainerResponseWriter {
+
+        @Override
+        public OutputStream writeResponseStatusAndHeaders(final long contentLength,
+                final ContainerResponse response) throws ContainerException {
+            return new ByteArrayOutputStream();
+        }
+
+        @Override
+        public boolean suspend(final long timeOut, final TimeUnit timeUnit, final TimeoutHandler timeoutHandler) {
+            return false;
+        }
+
+        @Override
+        public void setSuspendTimeout(final long timeOut, final TimeUnit timeUnit) {
+            // never suspended
+        }
+
+        @Override
+        public void commit() {
+            // nothing to commit
+        }
+
+        @Override
+        public void failure(final Throwable error) {
+            // reported by the response future
+        }
+
+        @Override
+        public boolean enableResponseBuffering() {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.github.edwgiz.sample.bank.core.webapp.metrics;
+
+import com.github.edwgiz.sample.bank.core.metrics.Metrics;
+import org.glassfish.grizzly.Connection;
+import org.glassfish.grizzly.nio.transport.TCPNIOServerConnection;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class ConnectionMetricsTest {
+
+    @Test
+    /* default */void testEvents() {
+        final Metrics metrics = new Metrics();
+        final ConnectionMetrics probe = new ConnectionMetrics(metrics);
+        final TCPNIOServerConnection serverConnection = mock(TCPNIOServerConnection.class);
+        final Connection<?> first = mock(Connection.class);
+        final Connection<?> second = mock(Connection.class);
+        probe.onAcceptEvent(serverConnection, first);
+        probe.onAcceptEvent(serverConnection, second);
+        probe.onCloseEvent(first);
+        probe.onCloseEvent(serverConnection); // not an accepted one
+
+        final String scrape = metrics.scrape();
+        assertTrue(scrape.contains("grizzly_connections_accepted_total 2\n"), scrape);
+        assertTrue(scrape.contains("grizzly_connections_closed_total 1\n"), scrape);
+        assertTrue(scrape.contains("grizzly_connections_open 1.0\n"), scrape);
+    }
+}
@@ -0,0 +1,52 @@
+package com.github.edwgiz.sample.bank.core.webapp.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.function.Executable;
+
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FlightRecordingEndpointTest {
+
+    private static final long SECONDS = 60L;
+    private static final long MEGABYTES = 16L;
+    private static final long TOO_MANY = 1_000_000L;
+
+    @Test
+    /* default */void testRecording() throws IOException {
+        final FlightRecordingEndpoint endpoint = new FlightRecordingEndpoint();
+        assertStatus(Response.Status.NOT_FOUND, endpoint::collect);
+        assertStatus(Response.Status.BAD_REQUEST, () -> endpoint.start("default", 0L, MEGABYTES));
+        assertStatus(Response.Status.BAD_REQUEST, () -> endpoint.start("default", TOO_MANY, MEGABYTES));
+        assertStatus(Response.Status.BAD_REQUEST, () -> endpoint.start("default", SECONDS, 0L));
+        assertStatus(Response.Status.BAD_REQUEST, () -> endpoint.start("default", SECONDS, TOO_MANY));
+        assertStatus(Response.Status.BAD_REQUEST, () -> endpoint.start("unknown", SECONDS, MEGABYTES));
+
+        assertEquals(Response.Status.OK.getStatusCode(), endpoint.start("default", SECONDS, MEGABYTES).getStatus());
+        assertStatus(Response.Status.CONFLICT, () -> endpoint.start("default", SECONDS, MEGABYTES));
+
+        final Response response = endpoint.collect();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ((StreamingOutput) response.getEntity()).write(out);
+        assertTrue(out.size() > 0);
+        assertStatus(Response.Status.NOT_FOUND, endpoint::collect);
+    }
+
+    @Test
+    /* default */void testUnavailable() {
+        assertStatus(Response.Status.NOT_IMPLEMENTED,
+                () -> new FlightRecordingEndpoint(false).start("default", SECONDS, MEGABYTES));
+    }
+
+    private static void assertStatus(final Response.Status expected, final Executable call) {
+        assertEquals(expected.getStatusCode(),
+                assertThrows(WebApplicationException.class, call).getResponse().getStatus());
+    }
+}
@@ -0,0 +1,73 @@
+package com.github.edwgiz.sample.bank.core.webapp.metrics;
+
+import com.github.edwgiz.sample.bank.core.metrics.Metrics;
+import org.glassfish.grizzly.Connection;
+import org.glassfish.grizzly.Grizzly;
+import org.glassfish.grizzly.filterchain.FilterChainBuilder;
+import org.glassfish.grizzly.filterchain.TransportFilter;
+import org.glassfish.grizzly.http.server.NetworkListener;
+import org.glassfish.grizzly.ssl.SSLBaseFilter;
+import org.glassfish.grizzly.ssl.SSLUtils;
+import org.junit.jupiter.api.Test;
+
+import javax.net.ssl.SSLEngine;
+import javax.net.ssl.SSLException;
+import javax.net.ssl.SSLSession;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+class HandshakeMetricsTest {
+
+    private static final long LATER_MILLIS = 60_000L;
+
+    @Test
+    /* default */void testEvents() {
+        final Metrics metrics = new Metrics();
+        final HandshakeMetrics listener = new HandshakeMetrics(metrics);
+        assertTrue(metrics.scrape().contains("tls_resumption_ratio 0.0\n"), metrics.scrape());
+
+        final Connection<?> full = connection(System.currentTimeMillis() + LATER_MILLIS);
+        listener.onStart(full);
+        listener.onComplete(full);
+        listener.onComplete(full); // no start
+        final Connection<?> resumed = connection(0L);
+        listener.onStart(resumed);
+        listener.onComplete(resumed);
+        final Connection<?> failed = connection(0L);
+        listener.onStart(failed);
+        listener.onFailure(failed, new SSLException("certificate_unknown"));
+        listener.onComplete(failed); // not started after the failure
+
+        final String scrape = metrics.scrape();
+        assertTrue(scrape.contains("tls_handshakes_total{resumed=\"false\"} 1\n"), scrape);
+        assertTrue(scrape.contains("tls_handshakes_total{resumed=\"true\"} 1\n"), scrape);
+        assertTrue(scrape.contains("tls_handshake_failures_total 1\n"), scrape);
+        assertTrue(scrape.contains("tls_handshake_duration_seconds_count{resumed=\"true\"} 1\n"), scrape);
+        assertTrue(scrape.contains("tls_resumption_ratio 0.5\n"), scrape);
+    }
+
+    @Test
+    /* default */void testSetup() {
+        final HandshakeMetrics listener = new HandshakeMetrics(new Metrics());
+        final SSLBaseFilter filter = spy(new SSLBaseFilter());
+        listener.setup(new NetworkListener("test"), FilterChainBuilder.stateless().add(new TransportFilter())
+                .add(filter));
+        verify(filter).addHandshakeListener(listener);
+    }
+
+    // connection of the session created at the time
+    private static Connection<?> connection(final long creationTime) {
+        final Connection<?> result = mock(Connection.class);
+        doReturn(Grizzly.DEFAULT_ATTRIBUTE_BUILDER.createSafeAttributeHolder()).when(result).getAttributes();
+        final SSLSession session = mock(SSLSession.class);
+        doReturn(creationTime).when(session).getCreationTime();
+        final SSLEngine engine = mock(SSLEngine.class);
+        doReturn(session).when(engine).getSession();
+        SSLUtils.setSSLEngine(result, engine);
+        return result;
+    }
+}
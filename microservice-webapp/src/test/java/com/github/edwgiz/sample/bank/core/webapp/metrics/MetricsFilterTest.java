@@ -0,0 +1,131 @@
+package com.github.edwgiz.sample.bank.core.webapp.metrics;
+
+import com.github.edwgiz.sample.bank.core.metrics.Metrics;
+import org.glassfish.jersey.server.ExtendedUriInfo;
+import org.glassfish.jersey.server.model.Resource;
+import org.glassfish.jersey.server.model.ResourceMethod;
+import org.junit.jupiter.api.Test;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+
+import static java.lang.System.nanoTime;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.endsWith;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class MetricsFilterTest {
+
+    private static final int OK = 200;
+    private static final int NOT_FOUND = 404;
+    private static final int CONFLICT = 409;
+    private static final long ALLOCATED_START = 1_000L;
+    private static final long ALLOCATED_END = 1_512L;
+
+    @Test
+    /* default */void testFilter() {
+        final Metrics metrics = new Metrics();
+        final MetricsFilter filter = new MetricsFilter(metrics);
+        final ResourceMethod method = resourceMethod();
+
+        final ContainerRequestContext request = request(method);
+        filter.filter(request);
+        verify(request).setProperty(endsWith(".start"), any(Long.class));
+        doReturn(nanoTime()).when(request).getProperty(anyString());
+        filter.filter(request, response(CONFLICT));
+        filter.filter(request, response(CONFLICT));
+        filter.filter(request, response(OK));
+
+        final ContainerRequestContext unmatched = request(null);
+        doReturn(nanoTime()).when(unmatched).getProperty(anyString());
+        filter.filter(unmatched, response(NOT_FOUND));
+
+        filter.filter(request(method), response(OK)); // aborted before the metrics filter, ignored
+
+        final String scrape = metrics.scrape();
+        assertTrue(scrape.contains("http_request_duration_seconds_count{resource=\"Sample.get\"} 3\n"), scrape);
+        assertTrue(scrape.contains("http_request_duration_seconds_count{resource=\"unmatched\"} 1\n"), scrape);
+        assertTrue(scrape.contains("http_responses_total{resource=\"Sample.get\",status=\"200\"} 1\n"), scrape);
+        assertTrue(scrape.contains("http_responses_total{resource=\"Sample.get\",status=\"409\"} 2\n"), scrape);
+        assertTrue(scrape.contains("http_responses_total{resource=\"unmatched\",status=\"404\"} 1\n"), scrape);
+        assertTrue(scrape.contains("http_request_allocated_bytes_total{resource=\"Sample.get\"} 0\n"), scrape);
+    }
+
+    @Test
+    /* default */void testAllocatedBytes() {
+        final Metrics metrics = new Metrics();
+        final long[] allocated = {ALLOCATED_START};
+        final MetricsFilter filter = new MetricsFilter(metrics, threadId -> allocated[0]);
+        final ResourceMethod method = resourceMethod();
+
+        final ContainerRequestContext request = request(method);
+        doReturn(nanoTime()).when(request).getProperty(endsWith(".start"));
+        doReturn(Thread.currentThread()).when(request).getProperty(endsWith(".thread"));
+        doReturn(ALLOCATED_START).when(request).getProperty(endsWith(".allocated"));
+        allocated[0] = ALLOCATED_END;
+        filter.filter(request, response(OK));
+
+        doReturn(new Thread()).when(request).getProperty(endsWith(".thread")); // completed asynchronously, ignored
+        filter.filter(request, response(OK));
+
+        doReturn(Thread.currentThread()).when(request).getProperty(endsWith(".thread"));
+        doReturn(-1L).when(request).getProperty(endsWith(".allocated")); // unsupported, ignored
+        filter.filter(request, response(OK));
+
+        final String scrape = metrics.scrape();
+        assertTrue(scrape.contains("http_request_duration_seconds_count{resource=\"Sample.get\"} 3\n"), scrape);
+        assertTrue(scrape.contains("http_request_allocated_bytes_total{resource=\"Sample.get\"} "
+                + (ALLOCATED_END - ALLOCATED_START) + "\n"), scrape);
+    }
+
+    @Test
+    /* default */void testRequestMetrics() {
+        final MetricsFilter filter = new MetricsFilter(new Metrics());
+        final ResourceMethod method = resourceMethod();
+        final RequestMetrics requestMetrics = filter.requestMetrics(method);
+        assertSame(requestMetrics, filter.requestMetrics(method));
+        assertSame(filter.requestMetrics(null), filter.requestMetrics(null));
+        assertNotSame(requestMetrics, filter.requestMetrics(null));
+    }
+
+    private static ResourceMethod resourceMethod() {
+        return Resource.from(Sample.class).getResourceMethods().get(0);
+    }
+
+    private static ContainerRequestContext request(final ResourceMethod method) {
+        final ExtendedUriInfo uriInfo = mock(ExtendedUriInfo.class);
+        doReturn(method).when(uriInfo).getMatchedResourceMethod();
+        final ContainerRequestContext result = mock(ContainerRequestContext.class);
+        doReturn(uriInfo).when(result).getUriInfo();
+        return result;
+    }
+
+    private static ContainerResponseContext response(final int status) {
+        final ContainerResponseContext result = mock(ContainerResponseContext.class);
+        doReturn(status).when(result).getStatus();
+        return result;
+    }
+
+    /**
+     * Resource of the tests.
+     */
+    @Path("sample")
+    public static final class Sample {
+
+        /**
+         * @return nothing.
+         */
+        @GET
+        public String get() {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.github.edwgiz.sample.bank.core.webapp.metrics;
+
+import com.github.edwgiz.sample.bank.core.metrics.Metrics;
+import com.github.edwgiz.sample.bank.core.metrics.ServerTiming;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.UriInfo;
+import javax.ws.rs.ext.ReaderInterceptorContext;
+import javax.ws.rs.ext.WriterInterceptorContext;
+import java.io.IOException;
+import java.net.URI;
+
+import static javax.ws.rs.core.MediaType.APPLICATION_JSON_TYPE;
+import static javax.ws.rs.core.MediaType.SERVER_SENT_EVENTS_TYPE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class ServerTimingFilterTest {
+
+    private static final long NEVER_SLOW_MILLIS = Long.MAX_VALUE / 1_000_000L;
+    private static final String SLOW_REQUESTS = "http_slow_requests_total ";
+
+    @Test
+    /* default */void testBodyPhases() throws IOException {
+        final Metrics metrics = new Metrics();
+        final ServerTimingFilter filter = new ServerTimingFilter(metrics, NEVER_SLOW_MILLIS);
+        final ContainerRequestContext request = request(filter);
+
+        final ReaderInterceptorContext reader = mock(ReaderInterceptorContext.class);
+        filter.aroundReadFrom(reader);
+        verify(reader).proceed();
+
+        final ContainerResponseContext response = response(true, APPLICATION_JSON_TYPE);
+        filter.filter(request, response);
+        assertTrue(response.getHeaders().getFirst(ServerTiming.HEADER).toString().startsWith("parse;dur="),
+                response.getHeaders().toString());
+        verify(request, never()).removeProperty(anyString());
+
+        final WriterInterceptorContext writer = writer(request);
+        filter.aroundWriteTo(writer);
+        verify(writer).proceed();
+        verify(writer).removeProperty(anyString());
+
+        final WriterInterceptorContext untimed = mock(WriterInterceptorContext.class);
+        filter.aroundWriteTo(untimed); // the next events of a stream
+        verify(untimed).proceed();
+
+        assertTrue(metrics.scrape().contains(SLOW_REQUESTS + "0\n"), metrics.scrape());
+    }
+
+    @Test
+    /* default */void testWithoutBody() {
+        final Metrics metrics = new Metrics();
+        final ServerTimingFilter filter = new ServerTimingFilter(metrics, 0L);
+
+        final ContainerRequestContext request = request(filter);
+        final ContainerResponseContext empty = response(false, null);
+        filter.filter(request, empty);
+        assertTrue(empty.getHeaders().getFirst(ServerTiming.HEADER).toString().startsWith("total;dur="));
+        verify(request).removeProperty(anyString());
+
+        final ContainerRequestContext events = request(filter);
+        filter.filter(events, response(true, SERVER_SENT_EVENTS_TYPE));
+        verify(events).removeProperty(anyString());
+
+        final ContainerResponseContext aborted = response(false, null);
+        filter.filter(mock(ContainerRequestContext.class), aborted);
+        assertNull(aborted.getHeaders().getFirst(ServerTiming.HEADER));
+
+        // both are slow, the second one is just counted by the log within its interval
+        assertTrue(metrics.scrape().contains(SLOW_REQUESTS + "2\n"), metrics.scrape());
+    }
+
+    private static ContainerRequestContext request(final ServerTimingFilter filter) {
+        final UriInfo uriInfo = mock(UriInfo.class);
+        doReturn(URI.create("http://localhost/sample")).when(uriInfo).getRequestUri();
+        final ContainerRequestContext result = mock(ContainerRequestContext.class);
+        doReturn("GET").when(result).getMethod();
+        doReturn(uriInfo).when(result).getUriInfo();
+        filter.filter(result);
+
+        final ArgumentCaptor<Object> timing = ArgumentCaptor.forClass(Object.class);
+        verify(result).setProperty(anyString(), timing.capture());
+        assertEquals("GET http://localhost/sample", ((ServerTiming) timing.getValue()).getDescription());
+        doReturn(timing.getValue()).when(result).getProperty(anyString());
+        return result;
+    }
+
+    private static ContainerResponseContext response(final boolean entity, final MediaType mediaType) {
+        final MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+        final ContainerResponseContext result = mock(ContainerResponseContext.class);
+        doReturn(headers).when(result).getHeaders();
+        doReturn(entity).when(result).hasEntity();
+        doReturn(mediaType).when(result).getMediaType();
+        return result;
+    }
+
+    private static WriterInterceptorContext writer(final ContainerRequestContext request) {
+        final WriterInterceptorContext result = mock(WriterInterceptorContext.class);
+        doReturn(request.getProperty("")).when(result).getProperty(any());
+        return result;
+    }
+}
@@ -0,0 +1,45 @@
+package com.github.edwgiz.sample.bank.core.webapp.metrics;
+
+import com.github.edwgiz.sample.bank.core.metrics.Metrics;
+import org.glassfish.grizzly.threadpool.AbstractThreadPool;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class ThreadPoolMetricsTest {
+
+    @Test
+    /* default */void testEvents() {
+        final Metrics metrics = new Metrics();
+        final ThreadPoolMetrics probe = new ThreadPoolMetrics(metrics);
+        final AbstractThreadPool pool = mock(AbstractThreadPool.class);
+        final Thread worker = new Thread();
+        probe.onThreadAllocateEvent(pool, worker);
+        probe.onThreadAllocateEvent(pool, new Thread());
+        probe.onThreadReleaseEvent(pool, worker);
+
+        final Runnable first = () -> { };
+        final Runnable second = () -> { };
+        final Runnable third = () -> { };
+        final Runnable early = () -> { };
+        probe.onTaskQueueEvent(pool, first);
+        probe.onTaskQueueEvent(pool, second);
+        probe.onTaskQueueEvent(pool, third);
+        probe.onTaskDequeueEvent(pool, first);
+        probe.onTaskCompleteEvent(pool, first);
+        probe.onTaskDequeueEvent(pool, second);
+        probe.onTaskCancelEvent(pool, third);
+        probe.onTaskDequeueEvent(pool, early); // handed to a worker before reported queued
+        probe.onTaskQueueEvent(pool, early);
+        probe.onTaskQueueOverflowEvent(pool);
+
+        final String scrape = metrics.scrape();
+        assertTrue(scrape.contains("grizzly_worker_tasks_queued_total 4\n"), scrape);
+        assertTrue(scrape.contains("grizzly_worker_tasks_rejected_total 1\n"), scrape);
+        assertTrue(scrape.contains("grizzly_worker_queue_wait_seconds_count 2\n"), scrape);
+        assertTrue(scrape.contains("grizzly_worker_queue_length 0.0\n"), scrape);
+        assertTrue(scrape.contains("grizzly_worker_threads_busy 2.0\n"), scrape);
+        assertTrue(scrape.contains("grizzly_worker_threads 1.0\n"), scrape);
+    }
+}
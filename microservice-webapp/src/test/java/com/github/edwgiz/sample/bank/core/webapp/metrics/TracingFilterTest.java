@@ -0,0 +1,95 @@
+package com.github.edwgiz.sample.bank.core.webapp.metrics;
+
+import com.github.edwgiz.sample.bank.core.metrics.Metrics;
+import com.github.edwgiz.sample.bank.core.tracing.SpanData;
+import com.github.edwgiz.sample.bank.core.tracing.SpanExporter;
+import com.github.edwgiz.sample.bank.core.tracing.TraceSpan;
+import com.github.edwgiz.sample.bank.core.tracing.Tracer;
+import org.glassfish.jersey.server.ExtendedUriInfo;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.MultivaluedMap;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+class TracingFilterTest {
+
+    private static final String TRACE_ID = "4bf92f3577b34da6a3ce929d0e0e4736";
+    private static final String TRACEPARENT = "00-" + TRACE_ID + "-00f067aa0ba902b7-01";
+    private static final int OK = 200;
+    private static final int ERROR = 500;
+    private static final int CAPACITY = 16;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    /* default */void testFilter() throws IOException {
+        final SpanExporter exporter = mock(SpanExporter.class);
+        final Tracer tracer = new Tracer(new Metrics(), 1.0, exporter, CAPACITY);
+        final TracingFilter filter = new TracingFilter(tracer, new MetricsFilter(new Metrics()));
+
+        final ContainerRequestContext request = request(filter, TRACEPARENT);
+        final ContainerResponseContext response = response(OK);
+        filter.filter(request, response);
+        final String traceresponse = (String) response.getHeaders().getFirst(TracingFilter.TRACERESPONSE);
+        assertTrue(traceresponse.startsWith("00-" + TRACE_ID + '-'), traceresponse);
+        assertTrue(traceresponse.endsWith("-01"), traceresponse);
+        assertNull(Tracer.current());
+
+        final ContainerRequestContext failed = request(filter, null);
+        final TraceSpan span = (TraceSpan) failed.getProperty("");
+        filter.filter(failed, response(ERROR));
+        assertFalse(span.isActive());
+
+        final ContainerResponseContext ended = response(OK);
+        filter.filter(failed, ended); // already ended, ignored
+        assertNull(ended.getHeaders().getFirst(TracingFilter.TRACERESPONSE));
+        final ContainerRequestContext aborted = mock(ContainerRequestContext.class);
+        filter.filter(aborted, ended); // aborted before the tracing filter, ignored
+        assertNull(ended.getHeaders().getFirst(TracingFilter.TRACERESPONSE));
+
+        tracer.close();
+        verify(exporter).close();
+        final ArgumentCaptor<List<SpanData>> exported = ArgumentCaptor.forClass(List.class);
+        verify(exporter).export(exported.capture());
+        final List<SpanData> spans = exported.getValue();
+        assertEquals(2, spans.size());
+        assertEquals(MetricsFilter.UNMATCHED, spans.get(0).getName());
+        assertEquals(OK, spans.get(0).getStatus());
+        assertFalse(spans.get(0).isError());
+        assertEquals(ERROR, spans.get(1).getStatus());
+        assertTrue(spans.get(1).isError());
+    }
+
+    private static ContainerRequestContext request(final TracingFilter filter, final String traceparent) {
+        final ContainerRequestContext result = mock(ContainerRequestContext.class);
+        doReturn(traceparent).when(result).getHeaderString(TracingFilter.TRACEPARENT);
+        doReturn("GET").when(result).getMethod();
+        doReturn(mock(ExtendedUriInfo.class)).when(result).getUriInfo();
+        filter.filter(result);
+        final ArgumentCaptor<Object> span = ArgumentCaptor.forClass(Object.class);
+        verify(result).setProperty(anyString(), span.capture());
+        doReturn(span.getValue()).when(result).getProperty(anyString());
+        return result;
+    }
+
+    private static ContainerResponseContext response(final int status) {
+        final MultivaluedMap<String, Object> headers = new MultivaluedHashMap<>();
+        final ContainerResponseContext result = mock(ContainerResponseContext.class);
+        doReturn(headers).when(result).getHeaders();
+        doReturn(status).when(result).getStatus();
+        return result;
+    }
+}
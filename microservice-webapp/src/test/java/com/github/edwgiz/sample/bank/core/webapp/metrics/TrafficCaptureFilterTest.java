@@ -0,0 +1,149 @@
+package com.github.edwgiz.sample.bank.core.webapp.metrics;
+
+import com.github.edwgiz.sample.bank.core.capture.TrafficCapture;
+import com.github.edwgiz.sample.bank.core.metrics.Metrics;
+import com.github.edwgiz.sample.bank.core.storage.VarLongUtils;
+import org.glassfish.jersey.internal.MapPropertiesDelegate;
+import org.glassfish.jersey.server.ApplicationHandler;
+import org.glassfish.jersey.server.ContainerRequest;
+import org.glassfish.jersey.server.ContainerResponse;
+import org.glassfish.jersey.server.ResourceConfig;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.ws.rs.Consumes;
+import javax.ws.rs.GET;
+import javax.ws.rs.PUT;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.container.ContainerRequestContext;
+import javax.ws.rs.container.ContainerResponseContext;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static javax.ws.rs.core.MediaType.TEXT_PLAIN;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+class TrafficCaptureFilterTest {
+
+    private static final long MAX_BYTES = 1_048_576L;
+    private static final int CAPACITY = 16;
+    private static final int OK = 200;
+    private static final int NO_CONTENT = 204;
+    private static final int NOT_FOUND = 404;
+    private static final int STRINGS = 4;
+
+    @Test
+    /* default */void testRecord(@TempDir final java.nio.file.Path dir) throws Exception {
+        final java.nio.file.Path file = dir.resolve("capture.bin");
+        final Metrics metrics = new Metrics();
+        final TrafficCapture capture = new TrafficCapture(metrics, file, MAX_BYTES, CAPACITY);
+        final ResourceConfig conf = new ResourceConfig(Items.class);
+        conf.register(new TrafficCaptureFilter(capture), TrafficCaptureFilter.PRIORITY);
+        final ApplicationHandler handler = new ApplicationHandler(conf);
+        // the resource method reads the captured body
+        assertEquals("first", apply(handler, "PUT", "items", "first").getEntity());
+        assertEquals("a b", apply(handler, "GET", "items?q=a%20b", null).getEntity());
+        assertEquals(NOT_FOUND, apply(handler, "GET", "unknown", null).getStatus());
+        assertEquals(NO_CONTENT, apply(handler, "PUT", "items", "").getStatus());
+        // streamed after the part read ahead, but not captured
+        final String oversized = String.join("", Collections.nCopies(TrafficCapture.MAX_BODY_BYTES + 1, "x"));
+        assertEquals(oversized, apply(handler, "PUT", "items", oversized).getEntity());
+        capture.close();
+        final String scrape = metrics.scrape();
+        assertTrue(scrape.contains("traffic_capture_oversized_total 1\n"), scrape);
+
+        final ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+        buffer.position(TrafficCapture.MAGIC.length);
+        VarLongUtils.read(buffer); // start
+        final List<List<Object>> records = new ArrayList<>();
+        while (buffer.hasRemaining()) {
+            VarLongUtils.readSigned(buffer); // arrival
+            VarLongUtils.read(buffer); // duration
+            final List<Object> fields = new ArrayList<>();
+            fields.add((int) VarLongUtils.read(buffer));
+            for (int i = 0; i < STRINGS; i++) {
+                final byte[] bytes = new byte[(int) VarLongUtils.read(buffer)];
+                buffer.get(bytes);
+                fields.add(new String(bytes, UTF_8));
+            }
+            records.add(fields);
+        }
+        assertEquals(Arrays.asList(
+                Arrays.asList(OK, "PUT", "/items", "", "first"),
+                Arrays.asList(OK, "GET", "/items", "q=a%20b", ""),
+                Arrays.asList(NOT_FOUND, "GET", "/unknown", "", ""),
+                Arrays.asList(NO_CONTENT, "PUT", "/items", "", "")), records);
+    }
+
+    @Test
+    /* default */void testNotRecorded(@TempDir final java.nio.file.Path dir) throws IOException {
+        final ContainerRequestContext ignored = mock(ContainerRequestContext.class);
+        final TrafficCapture disabled = new TrafficCapture(new Metrics(), null, MAX_BYTES, CAPACITY);
+        new TrafficCaptureFilter(disabled).filter(ignored);
+        verify(ignored, never()).setProperty(anyString(), any());
+
+        final java.nio.file.Path file = dir.resolve("capture.bin");
+        final TrafficCapture capture = new TrafficCapture(new Metrics(), file, MAX_BYTES, CAPACITY);
+        final ContainerRequestContext aborted = mock(ContainerRequestContext.class);
+        // aborted before the capture filter
+        new TrafficCaptureFilter(capture).filter(aborted, mock(ContainerResponseContext.class));
+        verify(aborted, never()).getUriInfo();
+        capture.close();
+        assertEquals(TrafficCapture.MAGIC.length, Files.size(file), 1.0 + Long.BYTES);
+        assertFalse(disabled.isEnabled());
+    }
+
+    private static ContainerResponse apply(final ApplicationHandler handler, final String method, final String path,
+            final String body) throws Exception {
+        final URI baseUri = URI.create("http://localhost/");
+        final ContainerRequest request = new ContainerRequest(baseUri, baseUri.resolve(path), method, null,
+                new MapPropertiesDelegate(), handler.getConfiguration());
+        if (body != null) {
+            request.header("Content-Type", TEXT_PLAIN);
+            request.setEntityStream(new ByteArrayInputStream(body.getBytes(UTF_8)));
+        }
+        return handler.apply(request).get();
+    }
+
+    @Path("/items")
+    public static final class Items {
+
+        /**
+         * @param body any text.
+         * @return the same text.
+         */
+        @PUT
+        @Consumes(TEXT_PLAIN)
+        @Produces(TEXT_PLAIN)
+        public String put(final String body) {
+            return body.isEmpty() ? null : body;
+        }
+
+        /**
+         * @param query any text.
+         * @return the same text.
+         */
+        @GET
+        @Produces(TEXT_PLAIN)
+        public String get(@QueryParam("q") final String query) {
+            return query;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+package com.github.edwgiz.sample.bank.core.webapp.sse;
+
+import com.github.edwgiz.sample.bank.core.webapp.sse.EventHub.Overflow;
+import com.github.edwgiz.sample.bank.core.webapp.sse.EventHub.Subscriber;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import javax.ws.rs.sse.OutboundSseEvent;
+import javax.ws.rs.sse.Sse;
+import javax.ws.rs.sse.SseEventSink;
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static com.github.edwgiz.sample.bank.core.webapp.sse.EventHub.DROPPED_EVENT_NAME;
+import static java.util.concurrent.CompletableFuture.completedFuture;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+class EventHubTest {
+
+    private static final long KEY = 1L;
+    private static final long OTHER_KEY = 2L;
+    private static final long TIMEOUT_MILLIS = 10_000L;
+    private static final long SEND_TIMEOUT_MILLIS = 50L;
+
+    @Test
+    public void testPublish() {
+        final SseEventSink sink = sink();
+        final OutboundSseEvent replayed = mock(OutboundSseEvent.class);
+        final OutboundSseEvent skipped = mock(OutboundSseEvent.class);
+        final OutboundSseEvent buffered = mock(OutboundSseEvent.class);
+        final OutboundSseEvent dispatched = mock(OutboundSseEvent.class);
+        try (EventHub hub = new EventHub(1, 2, TIMEOUT_MILLIS)) {
+            final Subscriber subscriber = hub.subscribe(KEY, sink, mock(Sse.class), Overflow.DISCONNECT);
+            hub.subscribe(KEY, sink(), mock(Sse.class), Overflow.DROP); // never started
+            assertTrue(hub.hasSubscribers(KEY));
+            assertFalse(hub.hasSubscribers(OTHER_KEY));
+            assertEquals(2, hub.size());
+
+            hub.publish(OTHER_KEY, dispatched); // no subscribers
+            assertTrue(subscriber.send(replayed));
+            hub.publish(KEY, skipped);
+            hub.publish(KEY, buffered);
+            subscriber.start(event -> event != skipped);
+            hub.publish(KEY, dispatched);
+
+            final InOrder order = inOrder(sink);
+            order.verify(sink).send(replayed);
+            order.verify(sink).send(buffered);
+            order.verify(sink, timeout(TIMEOUT_MILLIS)).send(dispatched);
+            verify(sink, never()).send(skipped);
+            assertEquals(1L, hub.getDropped()); // the third event for the never started one
+            assertEquals(0L, hub.getDisconnected());
+        }
+        verify(sink).close();
+    }
+
+    @Test
+    public void testDrop() {
+        final SseEventSink sink = sink();
+        final Sse sse = mock(Sse.class);
+        final OutboundSseEvent droppedEvent = mock(OutboundSseEvent.class);
+        doReturn(droppedEvent).when(sse).newEvent(DROPPED_EVENT_NAME, "2");
+        final OutboundSseEvent event = mock(OutboundSseEvent.class);
+        final OutboundSseEvent lateEvent = mock(OutboundSseEvent.class);
+        try (EventHub hub = new EventHub(1, 1, TIMEOUT_MILLIS)) {
+            final Subscriber subscriber = hub.subscribe(KEY, sink, sse, Overflow.DROP);
+            hub.publish(KEY, event);
+            hub.publish(KEY, mock(OutboundSseEvent.class));
+            hub.publish(KEY, mock(OutboundSseEvent.class));
+            assertEquals(2L, hub.getDropped());
+            doAnswer(invocation -> {
+                hub.publish(KEY, lateEvent); // buffered while the subscriber is still being started
+                return completedFuture(null);
+            }).when(sink).send(droppedEvent);
+            subscriber.start(any -> true);
+
+            final InOrder order = inOrder(sink);
+            order.verify(sink).send(event);
+            order.verify(sink).send(droppedEvent);
+            order.verify(sink, timeout(TIMEOUT_MILLIS)).send(lateEvent);
+            assertTrue(hub.hasSubscribers(KEY));
+        }
+    }
+
+    @Test
+    public void testDisconnect() {
+        final SseEventSink sink = sink();
+        try (EventHub hub = new EventHub(1, 1, TIMEOUT_MILLIS)) {
+            final Subscriber subscriber = hub.subscribe(KEY, sink, mock(Sse.class), Overflow.DISCONNECT);
+            hub.publish(KEY, mock(OutboundSseEvent.class));
+            hub.publish(KEY, mock(OutboundSseEvent.class));
+            hub.publish(KEY, mock(OutboundSseEvent.class)); // after unsubscribing
+            assertFalse(hub.hasSubscribers(KEY));
+            assertEquals(1L, hub.getDisconnected());
+
+            subscriber.start(any -> true);
+            verify(sink, never()).send(any());
+            verify(sink).close();
+        }
+    }
+
+    @Test
+    public void testClosedSink() {
+        final SseEventSink closedSink = mock(SseEventSink.class);
+        doReturn(true).when(closedSink).isClosed();
+        final SseEventSink failingSink = mock(SseEventSink.class);
+        doReturn(completedFuture(new IOException("test"))).when(failingSink).send(any());
+        final SseEventSink brokenSink = mock(SseEventSink.class);
+        final CompletableFuture<?> broken = new CompletableFuture<>();
+        broken.completeExceptionally(new IOException("test"));
+        doReturn(broken).when(brokenSink).send(any());
+        try (EventHub hub = new EventHub(1, 1, TIMEOUT_MILLIS)) {
+            final OutboundSseEvent event = mock(OutboundSseEvent.class);
+            for (final SseEventSink sink : new SseEventSink[]{closedSink, failingSink, brokenSink}) {
+                final Subscriber subscriber = hub.subscribe(KEY, sink, mock(Sse.class), Overflow.DISCONNECT);
+                assertFalse(subscriber.send(event));
+                subscriber.start(any -> true);
+                hub.publish(KEY, event);
+                verify(sink, timeout(TIMEOUT_MILLIS)).close();
+            }
+            assertEquals(0, hub.size());
+        }
+    }
+
+    @Test
+    public void testStalledSink() throws InterruptedException {
+        final CountDownLatch release = new CountDownLatch(1);
+        final SseEventSink stalledSink = mock(SseEventSink.class);
+        doAnswer(invocation -> {
+            release.await();
+            return completedFuture(null);
+        }).when(stalledSink).send(any());
+        final SseEventSink sink = sink();
+        final OutboundSseEvent event = mock(OutboundSseEvent.class);
+        try (EventHub hub = new EventHub(1, 1, SEND_TIMEOUT_MILLIS)) {
+            hub.subscribe(KEY, stalledSink, mock(Sse.class), Overflow.DISCONNECT).start(any -> true);
+            hub.subscribe(OTHER_KEY, sink, mock(Sse.class), Overflow.DISCONNECT).start(any -> true);
+            hub.publish(KEY, event);
+            verify(stalledSink, timeout(TIMEOUT_MILLIS)).send(event);
+            hub.publish(OTHER_KEY, event); // the only dispatcher thread is blocked
+
+            verify(stalledSink, timeout(TIMEOUT_MILLIS)).close();
+            verify(sink, timeout(TIMEOUT_MILLIS)).send(event);
+            assertFalse(hub.hasSubscribers(KEY));
+            assertTrue(hub.hasSubscribers(OTHER_KEY));
+            assertEquals(1L, hub.getDisconnected());
+            assertEquals(2, hub.getDispatcherThreads());
+
+            release.countDown();
+            verify(stalledSink, timeout(TIMEOUT_MILLIS).times(2)).close();
+            while (hub.getDispatcherThreads() > 1) {
+                Thread.sleep(SEND_TIMEOUT_MILLIS);
+            }
+            assertEquals(1L, hub.getDisconnected());
+        }
+    }
+
+    @Test
+    public void testClose() {
+        final SseEventSink sink = sink();
+        final EventHub hub = new EventHub(1, 1, TIMEOUT_MILLIS);
+        final Subscriber subscriber = hub.subscribe(KEY, sink, mock(Sse.class), Overflow.DISCONNECT);
+        hub.close();
+        verify(sink).close();
+        assertFalse(hub.hasSubscribers(KEY));
+
+        subscriber.start(any -> true);
+        subscriber.offer(mock(OutboundSseEvent.class)); // rejected by the dispatcher
+        verify(sink, never()).send(any());
+    }
+
+    private static SseEventSink sink() {
+        final SseEventSink result = mock(SseEventSink.class);
+        doReturn(completedFuture(null)).when(result).send(any());
+        return result;
+    }
+}